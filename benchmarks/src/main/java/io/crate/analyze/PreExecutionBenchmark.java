@@ -44,16 +44,21 @@ import org.openjdk.jmh.annotations.TearDown;
 
 import io.crate.session.BaseResultReceiver;
 import io.crate.session.Cursors;
+import io.crate.session.PlanCache;
 import io.crate.session.Session;
 import io.crate.session.Sessions;
 import io.crate.data.Row;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.RoutingProvider;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
+import io.crate.planner.PlannerContext;
 import io.crate.protocols.postgres.TransactionState;
 import io.crate.sql.parser.SqlParser;
 import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -64,6 +69,7 @@ public class PreExecutionBenchmark {
     private Node node;
     private Sessions sqlOperations;
     private Planner planner;
+    private PlanCache planCache;
 
     @Setup
     public void setup() throws Exception {
@@ -82,6 +88,7 @@ public class PreExecutionBenchmark {
         sqlOperations = injector.getInstance(Sessions.class);
         analyzer = injector.getInstance(Analyzer.class);
         planner = injector.getInstance(Planner.class);
+        planCache = sqlOperations.planCache();
 
         String statement = "create table users (id int primary key, name string, date timestamp, text string index using fulltext)";
         var resultReceiver = new BaseResultReceiver();
@@ -129,4 +136,51 @@ public class PreExecutionBenchmark {
         );
         return planner.plan(analyzedStatement, plannerContext);
     }
+
+    @Benchmark
+    public Plan measure_parse_analyze_and_plan_pk_lookup() throws Exception {
+        String sql = "select name from users where id = ?";
+        CoordinatorTxnCtx txnCtx = CoordinatorTxnCtx.systemTransactionContext();
+        Analysis analysis = new Analysis(txnCtx, new ParamTypeHints(List.of(DataTypes.INTEGER)), Cursors.EMPTY);
+        AnalyzedStatement analyzedStatement = analyzer.analyzedStatement(SqlParser.createStatement(sql), analysis);
+        return planner.plan(analyzedStatement, plannerContext(txnCtx));
+    }
+
+    /**
+     * Same as {@link #measure_parse_analyze_and_plan_pk_lookup()} but using the {@link PlanCache}
+     * the same way as {@link Session} does when a statement is parsed and executed repeatedly.
+     */
+    @Benchmark
+    public Plan measure_parse_analyze_and_plan_pk_lookup_with_plan_cache() throws Exception {
+        String sql = "select name from users where id = ?";
+        List<DataType<?>> paramTypes = List.of(DataTypes.INTEGER);
+        CoordinatorTxnCtx txnCtx = CoordinatorTxnCtx.systemTransactionContext();
+        CoordinatorSessionSettings sessionSettings = txnCtx.sessionSettings();
+        PlanCache.Key key = planCache.key(sql, paramTypes, sessionSettings);
+        PlanCache.Entry entry = planCache.get(key, planner.currentClusterState());
+        AnalyzedStatement analyzedStatement;
+        DataType<?>[] parameterTypes;
+        if (entry == null) {
+            Analysis analysis = new Analysis(txnCtx, new ParamTypeHints(paramTypes), Cursors.EMPTY);
+            analyzedStatement = analyzer.analyzedStatement(SqlParser.createStatement(sql), analysis);
+            parameterTypes = ParameterTypes.extract(analyzedStatement).toArray(new DataType<?>[0]);
+        } else {
+            analyzedStatement = entry.analyzedStatement();
+            parameterTypes = entry.parameterTypes();
+        }
+        return planCache.plan(key, analyzedStatement, parameterTypes, planner, plannerContext(txnCtx));
+    }
+
+    private PlannerContext plannerContext(CoordinatorTxnCtx txnCtx) {
+        var routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
+        return planner.createContext(
+            routingProvider,
+            UUID.randomUUID(),
+            txnCtx,
+            0,
+            null,
+            Cursors.EMPTY,
+            TransactionState.IDLE
+        );
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.memory.MemoryManager;
+import io.crate.memory.OffHeapMemoryManager;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.types.DataTypes;
+import io.netty.util.collection.LongObjectHashMap;
+
+/**
+ * Compares the {@link FixedWidthKeyMap} with the maps {@link GroupByMaps} used before for numeric keys.
+ * Each benchmark does a lookup per key and inserts the missing groups, like the {@link GroupingCollector}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+@Warmup(iterations = 2)
+public class FixedWidthKeyMapBenchmark {
+
+    @Param({"on-heap", "off-heap"})
+    public String memoryType;
+
+    @Param({"200", "1000000"})
+    public int numGroups;
+
+    private List<Long> singleKeys;
+    private List<List<Object>> twoKeys;
+    private MemoryManager memoryManager;
+
+    @Setup
+    public void createKeys() {
+        int size = 5_000_000;
+        singleKeys = new ArrayList<>(size);
+        twoKeys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long value = (long) i % numGroups;
+            singleKeys.add(value);
+            twoKeys.add(List.<Object>of(value, value % 7));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createMemoryManager() {
+        memoryManager = memoryType.equals("on-heap") ? new OnHeapMemoryManager(bytes -> {}) : new OffHeapMemoryManager();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeMemoryManager() {
+        memoryManager.close();
+    }
+
+    private static <K> Map<K, Object[]> group(Map<K, Object[]> statesByKey, List<K> keys) {
+        for (K key : keys) {
+            Object[] states = statesByKey.get(key);
+            if (states == null) {
+                statesByKey.put(key, new Object[] { key });
+            }
+        }
+        return statesByKey;
+    }
+
+    @Benchmark
+    public Map<Long, Object[]> measureSingleLongKeyPrimitiveMap() {
+        return group(new PrimitiveMapWithNulls<>(new LongObjectHashMap<>()), singleKeys);
+    }
+
+    @Benchmark
+    public Map<Long, Object[]> measureSingleLongKeyFixedWidthKeyMap() {
+        return group(FixedWidthKeyMap.forKey(DataTypes.LONG, RamAccounting.NO_ACCOUNTING, memoryManager), singleKeys);
+    }
+
+    @Benchmark
+    public Map<List<Object>, Object[]> measureTwoLongKeysHashMap() {
+        return group(new HashMap<>(), twoKeys);
+    }
+
+    @Benchmark
+    public Map<List<Object>, Object[]> measureTwoLongKeysFixedWidthKeyMap() {
+        var keyTypes = List.of(DataTypes.LONG, DataTypes.LONG);
+        return group(FixedWidthKeyMap.forKeys(keyTypes, RamAccounting.NO_ACCOUNTING, memoryManager), twoKeys);
+    }
+}
@@ -63,6 +63,7 @@ import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
+import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.aggregation.impl.SumAggregation;
 import io.crate.execution.engine.collect.CollectExpression;
@@ -88,7 +89,9 @@ import io.netty.util.collection.LongObjectHashMap;
 public class GroupingLongCollectorBenchmark {
 
     private GroupingCollector<?> groupBySumCollector;
+    private GroupingCollector<?> groupByTwoKeysSumCollector;
     private List<Row> rows;
+    private List<Row> twoKeyRows;
     private long[] numbers;
     private IndexSearcher searcher;
 
@@ -109,13 +112,16 @@ public class GroupingLongCollectorBenchmark {
             var memoryManager = new OnHeapMemoryManager(bytes -> {
             });
             groupBySumCollector = createGroupBySumCollector(sumAgg, memoryManager);
+            groupByTwoKeysSumCollector = createGroupByTwoKeysSumCollector(sumAgg, memoryManager);
 
             int size = 20_000_000;
             rows = new ArrayList<>(size);
+            twoKeyRows = new ArrayList<>(size);
             numbers = new long[size];
             for (int i = 0; i < size; i++) {
                 long value = (long) i % 200;
                 rows.add(new Row1(value));
+                twoKeyRows.add(new RowN(value, value % 7));
                 numbers[i] = value;
                 var doc = new Document();
                 doc.add(new NumericDocValuesField("x", value));
@@ -145,7 +151,35 @@ public class GroupingLongCollectorBenchmark {
             Version.CURRENT,
             keyInputs.getFirst(),
             DataTypes.LONG,
-            Version.CURRENT
+            Version.CURRENT,
+            null
+        );
+    }
+
+    /**
+     * Groups on two long keys, which uses a {@link FixedWidthKeyMap} instead of a {@code HashMap} with {@code List} keys.
+     * See {@link FixedWidthKeyMapBenchmark} for a comparison of the maps.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static GroupingCollector<?> createGroupByTwoKeysSumCollector(AggregationFunction<?, ?> sumAgg,
+                                                                         MemoryManager memoryManager) {
+        RowCollectExpression keyInput1 = new RowCollectExpression(0);
+        RowCollectExpression keyInput2 = new RowCollectExpression(1);
+        CollectExpression[] collectExpressions = new CollectExpression[]{keyInput1, keyInput2};
+
+        return GroupingCollector.manyKeys(
+            collectExpressions,
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { keyInput1 }},
+            new Input[] { Literal.BOOLEAN_TRUE },
+            RamAccounting.NO_ACCOUNTING,
+            memoryManager,
+            Version.CURRENT,
+            List.of(keyInput1, keyInput2),
+            List.of(DataTypes.LONG, DataTypes.LONG),
+            Version.CURRENT,
+            null
         );
     }
 
@@ -155,6 +189,12 @@ public class GroupingLongCollectorBenchmark {
         blackhole.consume(rowsIterator.collect(groupBySumCollector).get());
     }
 
+    @Benchmark
+    public void measureGroupBySumTwoLongs(Blackhole blackhole) throws Exception {
+        var rowsIterator = InMemoryBatchIterator.of(twoKeyRows, SENTINEL, true);
+        blackhole.consume(rowsIterator.collect(groupByTwoKeysSumCollector).get());
+    }
+
     @Benchmark
     public LongObjectHashMap<Long> measureGroupingOnNumericDocValues() throws Exception {
         Weight weight = searcher.createWeight(new MatchAllDocsQuery(), ScoreMode.COMPLETE_NO_SCORES, 1.0f);
@@ -0,0 +1,139 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.collectors;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.crate.data.Row;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.LongVector;
+import io.crate.expression.reference.doc.lucene.CollectorContext;
+import io.crate.expression.reference.doc.lucene.LongColumnReference;
+import io.crate.types.LongType;
+
+/**
+ * Compares a sum over a numeric doc value column using the row-based {@link LuceneBatchIterator}
+ * with the batch-wise consumption of a {@link LuceneColumnarBatchIterator}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LuceneColumnarBatchIteratorBenchmark {
+
+    private static final String COLUMN_NAME = "x";
+
+    private CollectorContext collectorContext;
+    private IndexSearcher indexSearcher;
+    private List<LongColumnReference> columnRefs;
+    private List<LuceneColumnarBatchIterator.Column> columns;
+
+    @Setup
+    public void createIndex() throws Exception {
+        IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        for (int i = 0; i < 10_000_000; i++) {
+            Document doc = new Document();
+            // every 10th value is null
+            if (i % 10 != 0) {
+                doc.add(new NumericDocValuesField(COLUMN_NAME, i));
+            }
+            iw.addDocument(doc);
+        }
+        iw.commit();
+        iw.forceMerge(1, true);
+        indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+        columnRefs = List.of(new LongColumnReference(COLUMN_NAME));
+        columns = List.of(new LuceneColumnarBatchIterator.Column(COLUMN_NAME, LongType.ID));
+        collectorContext = new CollectorContext(() -> null);
+    }
+
+    @Benchmark
+    public long measureSumRowBased() throws Exception {
+        LuceneBatchIterator it = new LuceneBatchIterator(
+            indexSearcher,
+            new MatchAllDocsQuery(),
+            null,
+            false,
+            collectorContext,
+            columnRefs,
+            columnRefs
+        );
+        long sum = 0;
+        while (it.moveNext()) {
+            Object value = it.currentElement().get(0);
+            if (value != null) {
+                sum += (Long) value;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long measureSumColumnarRows() throws Exception {
+        LuceneColumnarBatchIterator it = new LuceneColumnarBatchIterator(indexSearcher, new MatchAllDocsQuery(), columns);
+        long sum = 0;
+        while (it.moveNext()) {
+            Row row = it.currentElement();
+            Object value = row.get(0);
+            if (value != null) {
+                sum += (Long) value;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long measureSumColumnarBatches() throws Exception {
+        LuceneColumnarBatchIterator it = new LuceneColumnarBatchIterator(indexSearcher, new MatchAllDocsQuery(), columns);
+        long sum = 0;
+        while (it.moveNextBatch()) {
+            ColumnBatch batch = it.currentBatch();
+            LongVector values = (LongVector) batch.column(0);
+            int[] positions = batch.positions();
+            for (int i = 0; i < batch.size(); i++) {
+                int position = positions[i];
+                if (!values.isNull(position)) {
+                    sum += values.getLong(position);
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.data.columnar;
+
+import io.crate.data.Row;
+
+/**
+ * Base class for {@link ColumnarBatchIterator}s which implements the row-based movement methods on top of
+ * the batch-based ones. This is the adapter for consumers which don't support column batches.
+ */
+public abstract class AbstractColumnarBatchIterator implements ColumnarBatchIterator {
+
+    private ColumnBatch rowBatch;
+    private int rowIndex;
+    private Row current;
+
+    /**
+     * Moves the batches back to the start, see {@link #moveToStart()}.
+     */
+    protected abstract void moveBatchesToStart();
+
+    /**
+     * Raises the failure if the iterator has been killed or closed.
+     * Called for each row, so that a kill takes effect within a batch and not only on the next one.
+     */
+    protected abstract void raiseIfKilled();
+
+    @Override
+    public final void moveToStart() {
+        rowBatch = null;
+        current = null;
+        moveBatchesToStart();
+    }
+
+    @Override
+    public final boolean moveNext() {
+        raiseIfKilled();
+        while (rowBatch == null || rowIndex + 1 >= rowBatch.size()) {
+            if (!moveNextBatch()) {
+                rowBatch = null;
+                return false;
+            }
+            rowBatch = currentBatch();
+            rowIndex = -1;
+        }
+        rowIndex++;
+        current = rowBatch.row(rowBatch.positions()[rowIndex]);
+        return true;
+    }
+
+    @Override
+    public final Row currentElement() {
+        return current;
+    }
+}
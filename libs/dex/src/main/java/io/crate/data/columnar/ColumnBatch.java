@@ -0,0 +1,141 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.data.columnar;
+
+import io.crate.data.Row;
+
+/**
+ * A batch of rows stored column-wise.
+ *
+ * <p>
+ * The rows which are part of the batch are defined by a selection vector: {@link #positions()} contains
+ * the positions within the columns of the first {@link #size()} selected rows in ascending order.
+ * Filters narrow the selection instead of copying the values.
+ * </p>
+ */
+public final class ColumnBatch {
+
+    private final ColumnVector[] columns;
+    private final int[] positions;
+    private final PositionRow row = new PositionRow();
+    private int numRows;
+    private int size;
+
+    /**
+     * @param columns vectors which must have at least {@code capacity} capacity
+     */
+    public ColumnBatch(ColumnVector[] columns, int capacity) {
+        assert columnsHaveCapacity(columns, capacity) : "Column vectors must have a capacity of at least " + capacity;
+        this.columns = columns;
+        this.positions = new int[capacity];
+    }
+
+    private static boolean columnsHaveCapacity(ColumnVector[] columns, int capacity) {
+        for (ColumnVector column : columns) {
+            if (column.capacity() < capacity) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int numColumns() {
+        return columns.length;
+    }
+
+    public ColumnVector column(int index) {
+        return columns[index];
+    }
+
+    /**
+     * @return the maximum number of rows of the batch
+     */
+    public int capacity() {
+        return positions.length;
+    }
+
+    /**
+     * @return the number of selected rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the positions of the selected rows. Only the first {@link #size()} entries are valid.
+     */
+    public int[] positions() {
+        return positions;
+    }
+
+    /**
+     * Sets the number of rows stored in the columns and selects all of them.
+     */
+    public void reset(int numRows) {
+        assert numRows <= positions.length : "numRows must not exceed the capacity";
+        this.numRows = numRows;
+        selectAll();
+    }
+
+    /**
+     * Selects all rows stored in the columns, undoing any previous filtering.
+     */
+    public void selectAll() {
+        for (int i = 0; i < numRows; i++) {
+            positions[i] = i;
+        }
+        size = numRows;
+    }
+
+    /**
+     * Restricts the selection to the first {@code size} entries of {@link #positions()}.
+     */
+    public void select(int size) {
+        assert size <= this.size : "A selection can only be narrowed";
+        this.size = size;
+    }
+
+    /**
+     * @return a view on the row at {@code position}.
+     *         The same instance is returned on each call, so it is only valid until the next call.
+     */
+    public Row row(int position) {
+        row.position = position;
+        return row;
+    }
+
+    private final class PositionRow extends Row {
+
+        private int position;
+
+        @Override
+        public int numColumns() {
+            return columns.length;
+        }
+
+        @Override
+        public Object get(int index) {
+            return columns[index].get(position);
+        }
+    }
+}
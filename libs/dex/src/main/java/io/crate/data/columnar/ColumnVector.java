@@ -0,0 +1,60 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.data.columnar;
+
+/**
+ * A column of a {@link ColumnBatch}.
+ * Implementations store the values in a primitive array and track {@code null} values in a bitmap,
+ * so that consumers which know the concrete type can process them without boxing.
+ */
+public abstract class ColumnVector {
+
+    private final long[] nulls;
+
+    protected ColumnVector(int capacity) {
+        this.nulls = new long[(capacity + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * @return the number of values this vector can hold
+     */
+    public abstract int capacity();
+
+    /**
+     * @return the value at {@code position} as object or null.
+     *         This is the slow path used to expose the vector as {@link io.crate.data.Row}.
+     */
+    public abstract Object get(int position);
+
+    public final boolean isNull(int position) {
+        return (nulls[position >>> 6] & (1L << position)) != 0;
+    }
+
+    public final void setNull(int position) {
+        nulls[position >>> 6] |= 1L << position;
+    }
+
+    public final void setNotNull(int position) {
+        nulls[position >>> 6] &= ~(1L << position);
+    }
+}
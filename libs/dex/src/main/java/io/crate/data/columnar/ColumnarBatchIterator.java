@@ -0,0 +1,102 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.data.columnar;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+
+/**
+ * A {@link BatchIterator} which can also be consumed one {@link ColumnBatch} at a time.
+ *
+ * <p>
+ * Consumers which understand column batches use {@link #moveNextBatch()} and {@link #currentBatch()}
+ * instead of {@link #moveNext()} and {@link #currentElement()}. This avoids a virtual call per row and value
+ * and allows to process primitive values without boxing.
+ * All other consumers can keep using the iterator as row-based {@link BatchIterator}.
+ * </p>
+ *
+ * <p>
+ * A consumer must use either the row-based or the batch-based movement methods, mixing them is not supported.
+ * The loading semantics of {@link #loadNextBatch()} and {@link #allLoaded()} are the same for both.
+ * </p>
+ */
+public interface ColumnarBatchIterator extends BatchIterator<Row> {
+
+    /**
+     * Advances the iterator to the next column batch.
+     *
+     * @return true if the iterator moved to a batch with at least one selected row.
+     *         false if the loaded data is exhausted, see {@link #moveNext()} on how to continue.
+     */
+    boolean moveNextBatch();
+
+    /**
+     * @return the current batch. Only valid after {@link #moveNextBatch()} returned true.
+     *         Implementations may re-use the instance for the next batch.
+     */
+    ColumnBatch currentBatch();
+
+    /**
+     * Consumes all column batches, loading more data if necessary.
+     * Unlike {@link #collect(java.util.stream.Collector)} this doesn't close the iterator.
+     *
+     * @return future containing {@code state}, completed once all batches have been consumed.
+     */
+    default <A> CompletableFuture<A> collectBatches(A state, BiConsumer<A, ColumnBatch> consumer) {
+        CompletableFuture<A> result = new CompletableFuture<>();
+        consumeBatches(state, consumer, result);
+        return result;
+    }
+
+    private <A> void consumeBatches(A state, BiConsumer<A, ColumnBatch> consumer, CompletableFuture<A> result) {
+        try {
+            while (true) {
+                while (moveNextBatch()) {
+                    consumer.accept(state, currentBatch());
+                }
+                if (allLoaded()) {
+                    result.complete(state);
+                    return;
+                }
+                var nextBatch = loadNextBatch().toCompletableFuture();
+                if (!nextBatch.isDone()) {
+                    nextBatch.whenComplete((res, err) -> {
+                        if (err == null) {
+                            consumeBatches(state, consumer, result);
+                        } else {
+                            result.completeExceptionally(err);
+                        }
+                    });
+                    return;
+                }
+                // trigger exception if loading failed
+                nextBatch.join();
+            }
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        }
+    }
+}
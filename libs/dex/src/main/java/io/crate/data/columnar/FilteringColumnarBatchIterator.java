@@ -0,0 +1,100 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.data.columnar;
+
+import java.util.concurrent.CompletionStage;
+
+import org.jetbrains.annotations.NotNull;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.BatchIterator;
+
+/**
+ * Applies a {@link ColumnBatchFilter} to each batch of the source and skips the batches without any matching row.
+ */
+public class FilteringColumnarBatchIterator extends AbstractColumnarBatchIterator {
+
+    private final ColumnarBatchIterator source;
+    private final ColumnBatchFilter filter;
+    private volatile Throwable killed;
+
+    public FilteringColumnarBatchIterator(ColumnarBatchIterator source, ColumnBatchFilter filter) {
+        this.source = source;
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean moveNextBatch() {
+        while (source.moveNextBatch()) {
+            filter.apply(source.currentBatch());
+            if (source.currentBatch().size() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ColumnBatch currentBatch() {
+        return source.currentBatch();
+    }
+
+    @Override
+    protected void moveBatchesToStart() {
+        source.moveToStart();
+    }
+
+    @Override
+    public void close() {
+        killed = BatchIterator.CLOSED;
+        source.close();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        return source.loadNextBatch();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return source.allLoaded();
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return source.hasLazyResultSet();
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        killed = throwable;
+        source.kill(throwable);
+    }
+
+    @Override
+    protected void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.data.columnar;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.jetbrains.annotations.NotNull;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.BatchIterator;
+
+/**
+ * ColumnarBatchIterator over a list of column batches which are already in memory.
+ * The selection of each batch is reset once the iterator moves to it.
+ */
+public class InMemoryColumnarBatchIterator extends AbstractColumnarBatchIterator {
+
+    private final List<ColumnBatch> batches;
+    private int index = -1;
+    private volatile Throwable killed;
+
+    public InMemoryColumnarBatchIterator(List<ColumnBatch> batches) {
+        this.batches = batches;
+    }
+
+    @Override
+    public boolean moveNextBatch() {
+        raiseIfKilled();
+        while (index + 1 < batches.size()) {
+            index++;
+            ColumnBatch batch = batches.get(index);
+            batch.selectAll();
+            if (batch.size() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ColumnBatch currentBatch() {
+        return batches.get(index);
+    }
+
+    @Override
+    protected void moveBatchesToStart() {
+        raiseIfKilled();
+        index = -1;
+    }
+
+    @Override
+    public void close() {
+        killed = BatchIterator.CLOSED;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        throw new IllegalStateException("All batches already loaded");
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return true;
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return false;
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        killed = throwable;
+    }
+
+    @Override
+    protected void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+}
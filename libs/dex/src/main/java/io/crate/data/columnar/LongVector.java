@@ -0,0 +1,69 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.data.columnar;
+
+import java.util.function.LongFunction;
+
+/**
+ * Vector of integral values. Narrower types like {@code int} are widened to {@code long}.
+ */
+public final class LongVector extends ColumnVector {
+
+    private final long[] values;
+    private final LongFunction<?> toObject;
+
+    public LongVector(int capacity) {
+        this(capacity, Long::valueOf);
+    }
+
+    /**
+     * @param toObject converts a value into the object representation returned by {@link #get(int)}.
+     */
+    public LongVector(int capacity, LongFunction<?> toObject) {
+        super(capacity);
+        this.values = new long[capacity];
+        this.toObject = toObject;
+    }
+
+    @Override
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * @return the value at {@code position}. Undefined if {@link #isNull(int)} is true.
+     */
+    public long getLong(int position) {
+        return values[position];
+    }
+
+    public void setLong(int position, long value) {
+        values[position] = value;
+        setNotNull(position);
+    }
+
+    @Override
+    public Object get(int position) {
+        return isNull(position) ? null : toObject.apply(values[position]);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.data.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchIteratorTester.ResultOrder;
+
+class ColumnarBatchIteratorTest {
+
+    /**
+     * Creates batches with the rows [i, i * 0.5] for i in [0, numRows), with null instead of i for every 10th row.
+     */
+    private static List<ColumnBatch> batches(int numRows, int batchSize) {
+        List<ColumnBatch> batches = new ArrayList<>();
+        for (int start = 0; start < numRows; start += batchSize) {
+            int size = Math.min(batchSize, numRows - start);
+            LongVector longs = new LongVector(batchSize, value -> (int) value);
+            DoubleVector doubles = new DoubleVector(batchSize);
+            for (int i = 0; i < size; i++) {
+                int value = start + i;
+                if (value % 10 == 0) {
+                    longs.setNull(i);
+                } else {
+                    longs.setLong(i, value);
+                }
+                doubles.setDouble(i, value * 0.5);
+            }
+            ColumnBatch batch = new ColumnBatch(new ColumnVector[] { longs, doubles }, batchSize);
+            batch.reset(size);
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static List<Object[]> rows(int numRows) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < numRows; i++) {
+            rows.add(new Object[] { i % 10 == 0 ? null : i, i * 0.5 });
+        }
+        return rows;
+    }
+
+    @Test
+    void test_columnar_batch_iterator_can_be_consumed_as_rows() throws Exception {
+        var tester = BatchIteratorTester.forRows(
+            () -> new InMemoryColumnarBatchIterator(batches(25, 8)),
+            ResultOrder.EXACT
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(rows(25));
+    }
+
+    @Test
+    void test_filtering_narrows_selection_of_batches() throws Exception {
+        ColumnBatchFilter isEven = batch -> {
+            LongVector column = (LongVector) batch.column(0);
+            int[] positions = batch.positions();
+            int selected = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                int position = positions[i];
+                if (!column.isNull(position) && column.getLong(position) % 2 == 0) {
+                    positions[selected++] = position;
+                }
+            }
+            batch.select(selected);
+        };
+        List<Object[]> expected = rows(25).stream()
+            .filter(row -> row[0] != null && (int) row[0] % 2 == 0)
+            .toList();
+        var tester = BatchIteratorTester.forRows(
+            () -> new FilteringColumnarBatchIterator(new InMemoryColumnarBatchIterator(batches(25, 8)), isEven),
+            ResultOrder.EXACT
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(expected);
+    }
+
+    @Test
+    void test_collect_batches_visits_all_selected_rows() throws Exception {
+        var it = new InMemoryColumnarBatchIterator(batches(100, 16));
+        long[] sum = new long[1];
+        it.collectBatches(sum, (state, batch) -> {
+            LongVector column = (LongVector) batch.column(0);
+            for (int i = 0; i < batch.size(); i++) {
+                int position = batch.positions()[i];
+                if (!column.isNull(position)) {
+                    state[0] += column.getLong(position);
+                }
+            }
+        }).get();
+        // sum of 0..99 without the multiples of 10
+        assertThat(sum[0]).isEqualTo(4950 - 450);
+    }
+}
@@ -308,6 +308,9 @@ SCHEMA: 'SCHEMA';
 RETURN: 'RETURN';
 SUMMARY: 'SUMMARY';
 
+STDIN: 'STDIN';
+STDOUT: 'STDOUT';
+
 METADATA: 'METADATA';
 
 PUBLICATION: 'PUBLICATION';
@@ -270,7 +270,11 @@ public final class SqlFormatter {
                 builder.append(')');
             }
             append(indent, " FROM ");
-            copyFrom.path().accept(this, indent);
+            if (copyFrom.isStdin()) {
+                builder.append("STDIN");
+            } else {
+                copyFrom.path().accept(this, indent);
+            }
             if (!copyFrom.properties().isEmpty()) {
                 append(indent, " ");
                 copyFrom.properties().accept(this, indent);
@@ -49,6 +49,7 @@ import io.crate.sql.tree.Close;
 import io.crate.sql.tree.CommitStatement;
 import io.crate.sql.tree.ComparisonExpression;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyTo;
 import io.crate.sql.tree.CreateForeignTable;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreatePublication;
@@ -1370,6 +1371,28 @@ public class TestStatementBuilder {
         printStatement("copy foo partition (a=?) to DIRECTORY '/folder' with (some_param=4)");
 
         printStatement("copy foo where a = 'x' to DIRECTORY '/folder'");
+
+        printStatement("copy foo from stdin");
+        printStatement("copy foo (a, b) from stdin with (format='csv')");
+        printStatement("copy foo to stdout");
+        printStatement("copy foo (a) where a = 'x' to stdout with (format='binary')");
+    }
+
+    @Test
+    public void test_copy_from_stdin_and_to_stdout() {
+        CopyFrom<?> copyFrom = (CopyFrom<?>) SqlParser.createStatement("copy foo from stdin");
+        assertThat(copyFrom.isStdin()).isTrue();
+        assertThat(copyFrom.path()).isNull();
+
+        copyFrom = (CopyFrom<?>) SqlParser.createStatement("copy foo from \"stdin\"");
+        assertThat(copyFrom.isStdin()).isFalse();
+
+        CopyTo<?> copyTo = (CopyTo<?>) SqlParser.createStatement("copy foo to stdout");
+        assertThat(copyTo.isStdout()).isTrue();
+        assertThat(copyTo.directoryUri()).isFalse();
+
+        // STDIN and STDOUT are non-reserved keywords and remain usable as identifiers
+        printStatement("select stdin, stdout from t");
     }
 
     @Test
@@ -31,7 +31,6 @@ import com.amazonaws.services.s3.model.UploadPartResult;
 
 import io.crate.copy.s3.common.S3ClientHelper;
 import io.crate.copy.s3.common.S3URI;
-import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.export.FileOutput;
 
 import org.jetbrains.annotations.Nullable;
@@ -48,7 +47,6 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.zip.GZIPOutputStream;
 
 @NotThreadSafe
 public class S3FileOutput implements FileOutput {
@@ -64,12 +62,8 @@ public class S3FileOutput implements FileOutput {
     }
 
     @Override
-    public OutputStream acquireOutputStream(Executor executor,WriterProjection.CompressionType compressionType) throws IOException {
-        OutputStream outputStream = new S3OutputStream(executor, S3URI.toS3URI(uri), new S3ClientHelper(), protocolSetting);
-        if (compressionType != null) {
-            outputStream = new GZIPOutputStream(outputStream);
-        }
-        return outputStream;
+    public OutputStream acquireOutputStream(Executor executor) throws IOException {
+        return new S3OutputStream(executor, S3URI.toS3URI(uri), new S3ClientHelper(), protocolSetting);
     }
 
 
@@ -28,13 +28,11 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.zip.GZIPOutputStream;
 
 import org.apache.opendal.AsyncOperator;
 import org.apache.opendal.Operator;
 import org.elasticsearch.common.settings.Settings;
 
-import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.export.FileOutput;
 
 public class AzureFileOutput implements FileOutput {
@@ -51,12 +49,8 @@ public class AzureFileOutput implements FileOutput {
     }
 
     @Override
-    public OutputStream acquireOutputStream(Executor executor, WriterProjection.CompressionType compressionType) throws IOException {
-        OutputStream outputStream = operator.createOutputStream(resourcePath);
-        if (compressionType != null) {
-            outputStream = new GZIPOutputStream(outputStream);
-        }
-        return outputStream;
+    public OutputStream acquireOutputStream(Executor executor) throws IOException {
+        return operator.createOutputStream(resourcePath);
     }
 
     @Override
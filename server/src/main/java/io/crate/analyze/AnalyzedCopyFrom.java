@@ -24,7 +24,12 @@ package io.crate.analyze;
 import java.util.List;
 import java.util.function.Consumer;
 
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.analyze.copy.StdioFormat;
+import io.crate.common.collections.Lists;
 import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Reference;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.sql.tree.GenericProperties;
 import io.crate.sql.tree.Table;
@@ -36,18 +41,32 @@ public class AnalyzedCopyFrom implements AnalyzedStatement {
     private final List<String> targetColumns;
     private final Table<Symbol> table;
     private final GenericProperties<Symbol> properties;
+    @Nullable
     private final Symbol uri;
+    @Nullable
+    private final StdioFormat stdinFormat;
 
     AnalyzedCopyFrom(DocTableInfo tableInfo,
                      List<String> targetColumns,
                      Table<Symbol> table,
                      GenericProperties<Symbol> properties,
                      Symbol uri) {
+        this(tableInfo, targetColumns, table, properties, uri, null);
+    }
+
+    AnalyzedCopyFrom(DocTableInfo tableInfo,
+                     List<String> targetColumns,
+                     Table<Symbol> table,
+                     GenericProperties<Symbol> properties,
+                     @Nullable Symbol uri,
+                     @Nullable StdioFormat stdinFormat) {
+        assert (uri == null) == (stdinFormat != null) : "Either uri or stdinFormat must be set";
         this.tableInfo = tableInfo;
         this.targetColumns = targetColumns;
         this.table = table;
         this.properties = properties;
         this.uri = uri;
+        this.stdinFormat = stdinFormat;
     }
 
     public DocTableInfo tableInfo() {
@@ -66,17 +85,46 @@ public class AnalyzedCopyFrom implements AnalyzedStatement {
         return table;
     }
 
+    /**
+     * @return the URI to read from or null if the data is read from STDIN
+     */
+    @Nullable
     public Symbol uri() {
         return uri;
     }
 
+    public boolean readsFromStdin() {
+        return stdinFormat != null;
+    }
+
+    /**
+     * @return the format of the data sent by the client for COPY FROM STDIN, null if reading from an URI
+     */
+    @Nullable
+    public StdioFormat stdinFormat() {
+        return stdinFormat;
+    }
+
+    /**
+     * The columns of the rows sent by the client with COPY FROM STDIN in {@link StdioFormat#TEXT} or
+     * {@link StdioFormat#BINARY} format, in the order of the values within a row.
+     */
+    public List<Reference> stdinColumns() {
+        if (targetColumns.isEmpty()) {
+            return tableInfo.columns();
+        }
+        return Lists.map(targetColumns, column -> tableInfo.resolveColumn(column, true, false));
+    }
+
     @Override
     public void visitSymbols(Consumer<? super Symbol> consumer) {
         for (var partitionProperty : table.partitionProperties()) {
             partitionProperty.expressions().forEach(consumer);
         }
         properties.forValues(consumer);
-        consumer.accept(uri);
+        if (uri != null) {
+            consumer.accept(uri);
+        }
     }
 
     @Override
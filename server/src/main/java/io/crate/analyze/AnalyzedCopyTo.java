@@ -26,6 +26,7 @@ import java.util.function.Consumer;
 
 import org.jetbrains.annotations.Nullable;
 
+import io.crate.analyze.copy.StdioFormat;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.table.TableInfo;
 import io.crate.sql.tree.GenericProperties;
@@ -35,24 +36,30 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
 
     private final TableInfo tableInfo;
     private final Table<Symbol> table;
+    @Nullable
     private final Symbol uri;
     private final GenericProperties<Symbol> properties;
     private final List<Symbol> columns;
     @Nullable
     private final Symbol whereClause;
+    @Nullable
+    private final StdioFormat stdoutFormat;
 
     AnalyzedCopyTo(TableInfo tableInfo,
                    Table<Symbol> table,
-                   Symbol uri,
+                   @Nullable Symbol uri,
                    GenericProperties<Symbol> properties,
                    List<Symbol> columns,
-                   @Nullable Symbol whereClause) {
+                   @Nullable Symbol whereClause,
+                   @Nullable StdioFormat stdoutFormat) {
+        assert (uri == null) == (stdoutFormat != null) : "Either uri or stdoutFormat must be set";
         this.tableInfo = tableInfo;
         this.table = table;
         this.uri = uri;
         this.properties = properties;
         this.columns = columns;
         this.whereClause = whereClause;
+        this.stdoutFormat = stdoutFormat;
     }
 
     public TableInfo tableInfo() {
@@ -63,10 +70,26 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
         return table;
     }
 
+    /**
+     * @return the URI to write to or null if the data is written to STDOUT
+     */
+    @Nullable
     public Symbol uri() {
         return uri;
     }
 
+    public boolean writesToStdout() {
+        return stdoutFormat != null;
+    }
+
+    /**
+     * @return the format of the data sent to the client for COPY TO STDOUT, null if writing to an URI
+     */
+    @Nullable
+    public StdioFormat stdoutFormat() {
+        return stdoutFormat;
+    }
+
     public GenericProperties<Symbol> properties() {
         return properties;
     }
@@ -95,10 +118,22 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
         if (whereClause != null) {
             consumer.accept(whereClause);
         }
-        consumer.accept(uri);
+        if (uri != null) {
+            consumer.accept(uri);
+        }
         properties.forValues(consumer);
     }
 
+    /**
+     * COPY TO STDOUT streams the rows of the selected columns to the client.
+     * Other COPY TO variants only return a row count.
+     */
+    @Override
+    @Nullable
+    public List<Symbol> outputs() {
+        return writesToStdout() ? columns : null;
+    }
+
     @Override
     public boolean isWriteOperation() {
         return false;
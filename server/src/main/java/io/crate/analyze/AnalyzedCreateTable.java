@@ -45,6 +45,7 @@ import io.crate.metadata.NodeContext;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.TransactionContext;
+import io.crate.metadata.doc.SortedBy;
 import io.crate.metadata.doc.SysColumns;
 import io.crate.metadata.settings.NumberOfReplicas;
 import io.crate.planner.operators.SubQueryAndParamBinder;
@@ -162,12 +163,18 @@ public record AnalyzedCreateTable(
             .map(PartitionedBy::columns)
             .orElse(List.of());
 
+        Settings tableParameters = builder.build();
+        SortedBy sortedBy = SortedBy.of(tableParameters);
+        if (sortedBy != null) {
+            sortedBy.validate(references.get(sortedBy.column()), Lists.map(partitionedByColumns, Reference::column));
+        }
+
         return new BoundCreateTable(
             relationName,
             pkConstraintName,
             ifNotExists,
             references,
-            builder.build(),
+            tableParameters,
             List.copyOf(primaryKeys),
             checks,
             routingColumn,
@@ -245,9 +245,17 @@ public class Analyzer {
                 paramTypeHints,
                 cursors
             ));
+        ensureMayExecute(analyzedStatement, sessionSettings);
+        return analyzedStatement;
+    }
+
+    /**
+     * Checks the privileges of the session users for an analyzed statement.
+     * Must be called if an analyzed statement is re-used, e.g. from the {@link io.crate.session.PlanCache}.
+     */
+    public void ensureMayExecute(AnalyzedStatement analyzedStatement, CoordinatorSessionSettings sessionSettings) {
         roles.getAccessControl(sessionSettings.authenticatedUser(), sessionSettings.sessionUser())
             .ensureMayExecute(analyzedStatement);
-        return analyzedStatement;
     }
 
     AnalyzedStatement analyzedStatement(Statement statement, Analysis analysis) {
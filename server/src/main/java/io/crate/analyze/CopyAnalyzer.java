@@ -21,6 +21,9 @@
 
 package io.crate.analyze;
 
+import java.util.List;
+
+import io.crate.analyze.copy.StdioFormat;
 import io.crate.analyze.expressions.ExpressionAnalysisContext;
 import io.crate.analyze.expressions.ExpressionAnalyzer;
 import io.crate.analyze.relations.DocTableRelation;
@@ -80,6 +83,18 @@ class CopyAnalyzer {
         Table<Symbol> table = node.table().map(t -> exprAnalyzerWithFieldsAsString.convert(t, exprCtx));
         GenericProperties<Symbol> properties = node.properties().map(t -> exprAnalyzerWithoutFields.convert(t,
                                                                                                             exprCtx));
+        if (node.isStdin()) {
+            if (node.isReturnSummary()) {
+                throw new UnsupportedOperationException("RETURN SUMMARY is not supported for COPY FROM STDIN");
+            }
+            return new AnalyzedCopyFrom(
+                tableInfo,
+                node.columns(),
+                table,
+                properties,
+                null,
+                StdioFormat.of(properties, StdioFormat.STDIN_FORMATS));
+        }
         Symbol uri = exprAnalyzerWithoutFields.convert(node.path(), exprCtx);
 
         if (node.isReturnSummary()) {
@@ -102,7 +117,7 @@ class CopyAnalyzer {
     AnalyzedCopyTo analyzeCopyTo(CopyTo<Expression> node,
                                  ParamTypeHints paramTypeHints,
                                  CoordinatorTxnCtx txnCtx) {
-        if (!node.directoryUri()) {
+        if (!node.directoryUri() && !node.isStdout()) {
             throw new UnsupportedOperationException("Using COPY TO without specifying a DIRECTORY is not supported");
         }
 
@@ -136,21 +151,36 @@ class CopyAnalyzer {
             FieldProvider.TO_LITERAL_VALIDATE_NAME,
             null);
 
-        var uri = expressionAnalyzer.convert(node.targetUri(), exprCtx);
         var table = node.table().map(x -> exprAnalyzerWithFieldsAsString.convert(x, exprCtx));
         var properties = node.properties().map(x -> expressionAnalyzer.convert(x, exprCtx));
-        var columns = Lists.map(
+        List<Symbol> columns = Lists.map(
             node.columns(),
             c -> normalizer.normalize(expressionAnalyzer.convert(c, exprCtx), txnCtx));
         var whereClause = node.whereClause().map(
             w -> normalizer.normalize(expressionAnalyzer.convert(w, exprCtx), txnCtx)).orElse(null);
 
+        if (node.isStdout()) {
+            if (columns.isEmpty()) {
+                // Like PostgreSQL, rows sent to STDOUT contain all columns of the table
+                columns = List.copyOf(tableInfo.columns());
+            }
+            return new AnalyzedCopyTo(
+                tableInfo,
+                table,
+                null,
+                properties,
+                columns,
+                whereClause,
+                StdioFormat.of(properties, StdioFormat.STDOUT_FORMATS));
+        }
+        var uri = expressionAnalyzer.convert(node.targetUri(), exprCtx);
         return new AnalyzedCopyTo(
             tableInfo,
             table,
             normalizer.normalize(uri, txnCtx),
             properties,
             columns,
-            whereClause);
+            whereClause,
+            null);
     }
 }
@@ -27,11 +27,14 @@ import static org.elasticsearch.common.settings.Setting.parseInt;
 import java.util.List;
 import java.util.Locale;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 
 import io.crate.analyze.copy.NodeFilters;
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.metadata.settings.Validators;
 import io.crate.types.DataTypes;
 
@@ -72,19 +75,19 @@ public final class CopyStatementSettings {
 
     public static final Setting<String> COMPRESSION_SETTING = Setting.simpleString(
         "compression",
-        Validators.stringValidator("compression", "gzip"),
+        Validators.stringValidator("compression", "gzip", "lz4"),
         Setting.Property.Dynamic);
 
     public static final Setting<String> OUTPUT_FORMAT_SETTING = Setting.simpleString(
         "format",
-        Validators.stringValidator("format", "json_object", "json_array"),
+        Validators.stringValidator("format", "json_object", "json_array", "parquet"),
         Setting.Property.Dynamic);
 
     public static final Setting<String> INPUT_FORMAT_SETTING = new Setting<>(
         "format",
         "json",
         (s) -> s,
-        Validators.stringValidator("format", "json", "csv"),
+        Validators.stringValidator("format", "json", "csv", "parquet"),
         DataTypes.STRING,
         Setting.Property.Dynamic);
 
@@ -98,6 +101,14 @@ public final class CopyStatementSettings {
         true,
         Setting.Property.Dynamic);
 
+    /**
+     * Size at which COPY TO continues with the next output file, 0 writes a single file per shard.
+     */
+    public static final Setting<ByteSizeValue> MAX_FILE_SIZE_SETTING = Setting.byteSizeSetting(
+        "max_file_size",
+        ByteSizeValue.ZERO,
+        Setting.Property.Dynamic);
+
     public static final Setting<Long> SKIP_NUM_LINES = Setting.longSetting("skip", 0, 0, Setting.Property.Dynamic);
 
     public static final Setting<Character> CSV_COLUMN_SEPARATOR = new Setting<>(
@@ -121,10 +132,26 @@ public final class CopyStatementSettings {
         return Enum.valueOf(settingsEnum, settingValue.toUpperCase(Locale.ENGLISH));
     }
 
+    /**
+     * Compression and format options are sent to the nodes as enum ordinals, nodes before
+     * {@link Version#V_5_10_0} can't read the {@code lz4} compression and the {@code parquet} format.
+     */
+    public static void ensureSupportedByAllNodes(Version minNodeVersion, String option, String value) {
+        if (minNodeVersion.before(Version.V_5_10_0)) {
+            throw new UnsupportedFeatureException(String.format(
+                Locale.ENGLISH,
+                "%s = '%s' is only supported when all nodes in the cluster running at least version %s",
+                option,
+                value,
+                Version.V_5_10_0));
+        }
+    }
+
     public static final List<String> COMMON_COPY_TO_SETTINGS = List.of(
         COMPRESSION_SETTING.getKey(),
         OUTPUT_FORMAT_SETTING.getKey(),
-        WAIT_FOR_COMPLETION_SETTING.getKey()
+        WAIT_FOR_COMPLETION_SETTING.getKey(),
+        MAX_FILE_SIZE_SETTING.getKey()
     );
 
     public static final List<String> COMMON_COPY_FROM_SETTINGS = List.of(
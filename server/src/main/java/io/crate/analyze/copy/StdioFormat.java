@@ -0,0 +1,80 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.analyze.copy;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.sql.tree.GenericProperties;
+
+/**
+ * Format of the data exchanged with a client using {@code COPY ... FROM STDIN} or {@code COPY ... TO STDOUT}.
+ *
+ * <p>
+ * {@link #TEXT}, {@link #CSV} and {@link #BINARY} follow the formats of the PostgreSQL COPY command,
+ * {@link #JSON} are JSON objects separated by newlines, as used by {@code COPY FROM} with files.
+ * </p>
+ */
+public enum StdioFormat {
+
+    TEXT,
+    CSV,
+    BINARY,
+    JSON;
+
+    public static final EnumSet<StdioFormat> STDIN_FORMATS = EnumSet.allOf(StdioFormat.class);
+    public static final EnumSet<StdioFormat> STDOUT_FORMATS = EnumSet.of(TEXT, CSV, BINARY);
+
+    private static final String FORMAT = "format";
+
+    /**
+     * @return the format set via the {@code format} property or {@link #TEXT} if none is set.
+     */
+    public static StdioFormat of(GenericProperties<Symbol> properties, EnumSet<StdioFormat> supported) {
+        Symbol format = properties.get(FORMAT);
+        if (format == null) {
+            return TEXT;
+        }
+        if (!(format instanceof Literal<?> literal) || !(literal.value() instanceof String value)) {
+            throw new IllegalArgumentException(
+                "The format of COPY FROM STDIN or COPY TO STDOUT must be a string literal, got: " + format);
+        }
+        try {
+            StdioFormat stdioFormat = valueOf(value.toUpperCase(Locale.ENGLISH));
+            if (supported.contains(stdioFormat)) {
+                return stdioFormat;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // raise error below
+        }
+        throw new IllegalArgumentException(String.format(
+            Locale.ENGLISH,
+            "Invalid format '%s', supported formats are: %s",
+            value,
+            Arrays.toString(supported.stream().map(f -> f.name().toLowerCase(Locale.ENGLISH)).toArray())
+        ));
+    }
+}
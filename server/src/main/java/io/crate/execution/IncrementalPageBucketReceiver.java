@@ -23,16 +23,21 @@ package io.crate.execution;
 
 import io.crate.Streamer;
 import io.crate.common.exceptions.Exceptions;
+import io.crate.common.io.IOUtils;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
+import io.crate.execution.engine.distribution.DistributedResultRequest;
 import io.crate.execution.jobs.PageBucketReceiver;
 import io.crate.execution.jobs.PageResultListener;
+import io.netty.util.collection.IntObjectHashMap;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 
 import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -46,6 +51,7 @@ public class IncrementalPageBucketReceiver<T> implements PageBucketReceiver {
     private final BiConsumer<T, Row> accumulator;
     private final T state;
     private final AtomicInteger remainingUpstreams;
+    private final IntObjectHashMap<PageCount> pageCountByBucketIdx = new IntObjectHashMap<>();
     private final CompletableFuture<Iterable<Row>> processingFuture = new CompletableFuture<>();
     private final Executor executor;
     private final Streamer<?>[] streamers;
@@ -65,13 +71,19 @@ public class IncrementalPageBucketReceiver<T> implements PageBucketReceiver {
         this.streamers = streamers;
         this.remainingUpstreams = new AtomicInteger(upstreamsCount);
         lazyBatchIterator = CollectingBatchIterator.newInstance(
-            () -> {},
+            this::closeState,
             t -> {},
             () -> processingFuture,
             true);
         rowConsumer.accept(lazyBatchIterator, null);
     }
 
+    private void closeState() {
+        if (state instanceof Closeable closeable) {
+            IOUtils.closeWhileHandlingException(closeable);
+        }
+    }
+
     private void processRows(Bucket rows) {
         for (Row row : rows) {
             accumulator.accept(state, row);
@@ -80,6 +92,15 @@ public class IncrementalPageBucketReceiver<T> implements PageBucketReceiver {
 
     @Override
     public void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        setBucket(bucketIdx, DistributedResultRequest.UNKNOWN_PAGE_IDX, rows, isLast, pageResultListener);
+    }
+
+    @Override
+    public void setBucket(int bucketIdx,
+                          int pageIdx,
+                          Bucket rows,
+                          boolean isLast,
+                          PageResultListener pageResultListener) {
         if (processingFuture.isCompletedExceptionally()) {
             pageResultListener.needMore(false);
             return;
@@ -107,13 +128,43 @@ public class IncrementalPageBucketReceiver<T> implements PageBucketReceiver {
                 });
             }
         }
-        if (isLast) {
+        if (allPagesReceived(bucketIdx, pageIdx, isLast)) {
             if (remainingUpstreams.decrementAndGet() == 0) {
-                currentlyAccumulating.whenComplete((r, t) -> consumeRows());
+                CompletableFuture<?> accumulating;
+                synchronized (state) {
+                    accumulating = currentlyAccumulating;
+                }
+                accumulating.whenComplete((r, t) -> consumeRows());
             }
         }
     }
 
+    /**
+     * Pipelining upstreams can send pages out of order, so the last page isn't necessarily the last to arrive.
+     */
+    private boolean allPagesReceived(int bucketIdx, int pageIdx, boolean isLast) {
+        synchronized (pageCountByBucketIdx) {
+            PageCount pageCount = pageCountByBucketIdx.get(bucketIdx);
+            if (pageCount == null) {
+                pageCount = new PageCount();
+                pageCountByBucketIdx.put(bucketIdx, pageCount);
+            }
+            pageCount.received++;
+            if (isLast) {
+                pageCount.total = pageIdx == DistributedResultRequest.UNKNOWN_PAGE_IDX
+                    ? pageCount.received
+                    : pageIdx + 1;
+            }
+            return pageCount.received == pageCount.total;
+        }
+    }
+
+    private static class PageCount {
+
+        private int received = 0;
+        private int total = -1;
+    }
+
     @Override
     public Streamer<?>[] streamers() {
         return streamers;
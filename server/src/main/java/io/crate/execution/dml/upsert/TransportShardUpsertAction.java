@@ -199,17 +199,44 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
             );
         }
 
+        // Plain inserts of documents with an auto generated id don't need a version lookup,
+        // they are collected and handed to the engine as a batch.
+        boolean canIndexInBatch = updateToInsert == null && request.returnValues() == null;
+        List<ShardUpsertRequest.Item> pendingItems = new ArrayList<>();
+        List<Engine.Index> pendingOps = new ArrayList<>();
+
         Translog.Location translogLocation = null;
+        boolean stop = false;
         for (ShardUpsertRequest.Item item : request.items()) {
             int location = item.location();
+            boolean indexInBatch = canIndexInBatch
+                && item.insertValues() != null
+                && item.autoGeneratedTimestamp() != Translog.UNSET_AUTO_GENERATED_TIMESTAMP;
+            if (killed.get() || indexInBatch == false) {
+                Translog.Location batchLocation = indexBatch(indexShard, request, shardResponse, pendingItems, pendingOps);
+                translogLocation = batchLocation == null ? translogLocation : batchLocation;
+                stop = shardResponse.failure() != null;
+                if (stop) {
+                    break;
+                }
+            }
             if (killed.get()) {
                 // set failure on response and skip all next items.
                 // this way replica operation will be executed, but only items with a valid source (= was processed on primary)
                 // will be processed on the replica
                 shardResponse.failure(new InterruptedException());
+                stop = true;
                 break;
             }
             try {
+                if (indexInBatch) {
+                    long version = request.duplicateKeyAction() == DuplicateKeyAction.OVERWRITE
+                        ? Versions.MATCH_ANY
+                        : Versions.MATCH_DELETED;
+                    pendingOps.add(prepareIndex(indexer, request, item, indexShard, request.isRetry(), rawIndexer, version));
+                    pendingItems.add(item);
+                    continue;
+                }
                 IndexItemResponse indexItemResponse = indexItem(
                     indexer,
                     updatingIndexer,
@@ -230,38 +257,117 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                     }
                 }
             } catch (Exception e) {
-                if (retryPrimaryException(e)) {
-                    throw Exceptions.toRuntimeException(e);
-                }
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Failed to execute upsert on nodeName={}, shardId={} id={} error={}", clusterService.localNode().getName(), request.shardId(), item.id(), e);
-                }
-
-                // *mark* the item as failed by setting the sequence number
-                // to prevent the replica operation from processing this concrete item
-                item.seqNo(SequenceNumbers.SKIP_ON_REPLICA);
-
-                if (!request.continueOnError()) {
-                    shardResponse.failure(e);
+                if (onItemFailure(request, shardResponse, item, e)) {
+                    stop = true;
                     break;
                 }
-                shardResponse.add(
-                    location,
-                    item.id(),
-                    e,
-                    (e instanceof VersionConflictEngineException)
-                );
             } catch (AssertionError e) {
                 // Shouldn't happen in production but helps during development
                 // where bugs may trigger assertions
                 // Otherwise tests could get stuck
                 shardResponse.failure(Exceptions.toException(e));
+                stop = true;
                 break;
             }
         }
+        if (stop == false) {
+            Translog.Location batchLocation = indexBatch(indexShard, request, shardResponse, pendingItems, pendingOps);
+            translogLocation = batchLocation == null ? translogLocation : batchLocation;
+        }
         return new WritePrimaryResult<>(request, shardResponse, translogLocation, null, indexShard);
     }
 
+    /**
+     * Indexes the pending operations with a single {@link IndexShard#index(List)} call and clears the pending lists.
+     *
+     * @return the translog location of the last successfully indexed operation or null
+     */
+    @Nullable
+    private Translog.Location indexBatch(IndexShard indexShard,
+                                         ShardUpsertRequest request,
+                                         ShardResponse shardResponse,
+                                         List<ShardUpsertRequest.Item> pendingItems,
+                                         List<Engine.Index> pendingOps) {
+        if (pendingOps.isEmpty()) {
+            return null;
+        }
+        List<IndexResult> results;
+        try {
+            results = indexShard.index(pendingOps);
+        } catch (Exception e) {
+            throw Exceptions.toRuntimeException(e);
+        }
+        Translog.Location translogLocation = null;
+        for (int i = 0; i < results.size(); i++) {
+            ShardUpsertRequest.Item item = pendingItems.get(i);
+            try {
+                IndexItemResponse indexItemResponse = onIndexResult(results.get(i), indexShard, item, null);
+                if (indexItemResponse.translog != null) {
+                    shardResponse.add(item.location());
+                    translogLocation = indexItemResponse.translog;
+                }
+            } catch (VersionConflictEngineException e) {
+                if (request.duplicateKeyAction() == DuplicateKeyAction.IGNORE) {
+                    // on conflict do nothing
+                    item.seqNo(SequenceNumbers.SKIP_ON_REPLICA);
+                } else {
+                    onBatchItemFailure(request, shardResponse, item, e);
+                }
+            } catch (Exception e) {
+                onBatchItemFailure(request, shardResponse, item, e);
+            }
+        }
+        pendingItems.clear();
+        pendingOps.clear();
+        return translogLocation;
+    }
+
+    private void onBatchItemFailure(ShardUpsertRequest request,
+                                    ShardResponse shardResponse,
+                                    ShardUpsertRequest.Item item,
+                                    Exception e) {
+        if (shardResponse.failure() != null) {
+            // The remaining operations of the batch have been indexed and must be replicated,
+            // only further failures need to be excluded from replication.
+            item.seqNo(SequenceNumbers.SKIP_ON_REPLICA);
+            return;
+        }
+        onItemFailure(request, shardResponse, item, e);
+    }
+
+    /**
+     * Marks the item as failed.
+     *
+     * @return true if processing of the remaining items must stop.
+     */
+    private boolean onItemFailure(ShardUpsertRequest request,
+                                  ShardResponse shardResponse,
+                                  ShardUpsertRequest.Item item,
+                                  Exception e) {
+        if (retryPrimaryException(e)) {
+            throw Exceptions.toRuntimeException(e);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Failed to execute upsert on nodeName={}, shardId={} id={} error={}", clusterService.localNode().getName(), request.shardId(), item.id(), e);
+        }
+
+        // *mark* the item as failed by setting the sequence number
+        // to prevent the replica operation from processing this concrete item
+        item.seqNo(SequenceNumbers.SKIP_ON_REPLICA);
+
+        if (!request.continueOnError()) {
+            shardResponse.failure(e);
+            return true;
+        }
+        shardResponse.add(
+            item.location(),
+            item.id(),
+            e,
+            (e instanceof VersionConflictEngineException)
+        );
+        return false;
+    }
+
     private static boolean noItemsToIndexOnReplica(ShardUpsertRequest req) {
         for (ShardUpsertRequest.Item item : req.items()) {
             if (item.seqNo() != SequenceNumbers.SKIP_ON_REPLICA) {
@@ -494,6 +600,18 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                                        boolean isRetry,
                                        @Nullable RawIndexer rawIndexer,
                                        long version) throws Exception {
+        Engine.Index index = prepareIndex(indexer, request, item, indexShard, isRetry, rawIndexer, version);
+        IndexResult result = indexShard.index(index);
+        return onIndexResult(result, indexShard, item, indexer);
+    }
+
+    private Engine.Index prepareIndex(Indexer indexer,
+                                      ShardUpsertRequest request,
+                                      ShardUpsertRequest.Item item,
+                                      IndexShard indexShard,
+                                      boolean isRetry,
+                                      @Nullable RawIndexer rawIndexer,
+                                      long version) throws Exception {
         final long startTime = System.nanoTime();
         List<Reference> newColumns = rawIndexer != null ? rawIndexer.collectSchemaUpdates(item) : indexer.collectSchemaUpdates(item);
 
@@ -526,7 +644,7 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
 
         Term uid = new Term(SysColumns.Names.ID, Uid.encodeId(item.id()));
         assert VersionType.INTERNAL.validateVersionForWrites(version);
-        Engine.Index index = new Engine.Index(
+        return new Engine.Index(
             uid,
             parsedDoc,
             SequenceNumbers.UNASSIGNED_SEQ_NO,
@@ -540,13 +658,21 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
             SequenceNumbers.UNASSIGNED_SEQ_NO,
             SequenceNumbers.UNASSIGNED_PRIMARY_TERM
         );
-        IndexResult result = indexShard.index(index);
+    }
+
+    /**
+     * @param indexer used to compute the return values, null if there are none.
+     */
+    private static IndexItemResponse onIndexResult(IndexResult result,
+                                                   IndexShard indexShard,
+                                                   ShardUpsertRequest.Item item,
+                                                   @Nullable Indexer indexer) throws Exception {
         switch (result.getResultType()) {
             case SUCCESS:
                 item.seqNo(result.getSeqNo());
                 item.version(result.getVersion());
                 item.primaryTerm(result.getTerm());
-                return new IndexItemResponse(result.getTranslogLocation(), indexer.returnValues(item));
+                return new IndexItemResponse(result.getTranslogLocation(), indexer == null ? null : indexer.returnValues(item));
 
             case FAILURE:
                 Exception failure = result.getFailure();
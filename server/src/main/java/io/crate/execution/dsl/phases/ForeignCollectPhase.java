@@ -22,7 +22,6 @@
 package io.crate.execution.dsl.phases;
 
 import java.io.IOException;
-import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -32,6 +31,8 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import io.crate.analyze.OrderBy;
+import io.crate.execution.engine.pipeline.LimitAndOffset;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.RelationName;
@@ -39,34 +40,67 @@ import io.crate.planner.distribution.DistributionInfo;
 
 public class ForeignCollectPhase extends AbstractProjectionsPhase implements CollectPhase {
 
-    private final String handlerNode;
+    private final List<String> nodeIds;
     private final RelationName relationName;
     private final List<Symbol> toCollect;
     private final Symbol query;
     @Nullable
     private final String executeAs;
+    @Nullable
+    private final OrderBy orderBy;
+    private final int limit;
+    @Nullable
+    private final List<Symbol> groupBy;
 
     private DistributionInfo distributionInfo = DistributionInfo.DEFAULT_BROADCAST;
 
     public ForeignCollectPhase(UUID jobId,
                                int phaseId,
-                               String handlerNode,
+                               List<String> nodeIds,
                                RelationName relationName,
                                List<Symbol> toCollect,
                                Symbol query,
                                @NotNull String executeAs) {
+        this(jobId, phaseId, nodeIds, relationName, toCollect, query, executeAs, null, LimitAndOffset.NO_LIMIT, null);
+    }
+
+    /**
+     * @param orderBy order in which the foreign data wrapper should return the rows, null if the order doesn't matter.
+     * @param limit maximum number of rows the foreign data wrapper needs to return (per partition),
+     *              {@link LimitAndOffset#NO_LIMIT} to return all rows.
+     * @param groupBy the group keys if {@code toCollect} contains aggregations which are evaluated by the
+     *                foreign data wrapper, null if there are no aggregations.
+     */
+    public ForeignCollectPhase(UUID jobId,
+                               int phaseId,
+                               List<String> nodeIds,
+                               RelationName relationName,
+                               List<Symbol> toCollect,
+                               Symbol query,
+                               @NotNull String executeAs,
+                               @Nullable OrderBy orderBy,
+                               int limit,
+                               @Nullable List<Symbol> groupBy) {
         super(jobId, phaseId, relationName.fqn(), null);
-        this.handlerNode = handlerNode;
+        assert !nodeIds.isEmpty() : "ForeignCollectPhase must run on at least one node";
+        this.nodeIds = nodeIds;
         this.relationName = relationName;
         this.toCollect = toCollect;
         this.outputTypes = Symbols.typeView(toCollect);
         this.query = query;
         this.executeAs = executeAs;
+        this.orderBy = orderBy;
+        this.limit = limit;
+        this.groupBy = groupBy;
     }
 
     public ForeignCollectPhase(StreamInput in) throws IOException {
         super(in);
-        this.handlerNode = in.readString();
+        if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+            this.nodeIds = in.readStringList();
+        } else {
+            this.nodeIds = List.of(in.readString());
+        }
         this.relationName = new RelationName(in);
         this.toCollect = Symbols.fromStream(in);
         this.outputTypes = extractOutputTypes(toCollect, projections);
@@ -77,12 +111,26 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
         } else {
             this.executeAs = null;
         }
+        if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+            this.orderBy = in.readOptionalWriteable(OrderBy::new);
+            this.limit = in.readInt();
+            this.groupBy = in.readBoolean() ? Symbols.fromStream(in) : null;
+        } else {
+            this.orderBy = null;
+            this.limit = LimitAndOffset.NO_LIMIT;
+            this.groupBy = null;
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
-        out.writeString(handlerNode);
+        if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+            out.writeStringCollection(nodeIds);
+        } else {
+            assert nodeIds.size() == 1 : "Nodes before 5.10.0 can only read a ForeignCollectPhase running on a single node";
+            out.writeString(nodeIds.get(0));
+        }
         relationName.writeTo(out);
         Symbols.toStream(toCollect, out);
         distributionInfo.writeTo(out);
@@ -90,6 +138,16 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
         if (out.getVersion().onOrAfter(Version.V_5_8_0)) {
             out.writeOptionalString(executeAs);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+            out.writeOptionalWriteable(orderBy);
+            out.writeInt(limit);
+            out.writeBoolean(groupBy != null);
+            if (groupBy != null) {
+                Symbols.toStream(groupBy, out);
+            }
+        } else {
+            assert groupBy == null : "Nodes before 5.10.0 cannot evaluate aggregations on a foreign server";
+        }
     }
 
     @Override
@@ -108,8 +166,8 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
     }
 
     @Override
-    public Collection<String> nodeIds() {
-        return List.of(handlerNode);
+    public List<String> nodeIds() {
+        return nodeIds;
     }
 
     @Override
@@ -134,4 +192,18 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
     public String executeAs() {
         return executeAs;
     }
+
+    @Nullable
+    public OrderBy orderBy() {
+        return orderBy;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    @Nullable
+    public List<Symbol> groupBy() {
+        return groupBy;
+    }
 }
@@ -45,10 +45,23 @@ public class WindowAggProjection extends Projection {
     private final List<Symbol> standaloneWithInputs;
     private final ArrayList<Symbol> outputs;
     private final List<WindowFunction> windowFunctions;
+    private final boolean inputSorted;
 
     public WindowAggProjection(WindowDefinition windowDefinition,
                                List<WindowFunction> windowFunctions,
                                List<Symbol> standaloneWithInputs) {
+        this(windowDefinition, windowFunctions, standaloneWithInputs, false);
+    }
+
+    /**
+     * @param inputSorted true if the input rows are already ordered by the partition and order by symbols of the
+     *                    window definition. This allows to process the rows partition by partition instead of
+     *                    buffering and sorting all rows.
+     */
+    public WindowAggProjection(WindowDefinition windowDefinition,
+                               List<WindowFunction> windowFunctions,
+                               List<Symbol> standaloneWithInputs,
+                               boolean inputSorted) {
         this.windowFunctions = windowFunctions;
         assert windowFunctions.stream().noneMatch(Symbol.IS_COLUMN)
             : "Cannot operate on Reference or Field: " + windowFunctions;
@@ -58,6 +71,7 @@ public class WindowAggProjection extends Projection {
         this.standaloneWithInputs = standaloneWithInputs;
         outputs = new ArrayList<>(standaloneWithInputs);
         outputs.addAll(windowFunctions);
+        this.inputSorted = inputSorted;
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
@@ -85,6 +99,11 @@ public class WindowAggProjection extends Projection {
         }
         outputs = new ArrayList<>(standaloneWithInputs);
         outputs.addAll(windowFunctions);
+        if (version.onOrAfter(Version.V_5_10_0)) {
+            inputSorted = in.readBoolean();
+        } else {
+            inputSorted = false;
+        }
     }
 
     public WindowDefinition windowDefinition() {
@@ -99,6 +118,10 @@ public class WindowAggProjection extends Projection {
         return standaloneWithInputs;
     }
 
+    public boolean inputSorted() {
+        return inputSorted;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -108,13 +131,14 @@ public class WindowAggProjection extends Projection {
             return false;
         }
         WindowAggProjection that = (WindowAggProjection) o;
-        return Objects.equals(windowDefinition, that.windowDefinition) &&
+        return inputSorted == that.inputSorted &&
+               Objects.equals(windowDefinition, that.windowDefinition) &&
                Objects.equals(windowFunctions, that.windowFunctions);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), windowDefinition, windowFunctions);
+        return Objects.hash(super.hashCode(), windowDefinition, windowFunctions, inputSorted);
     }
 
     @Override
@@ -158,6 +182,9 @@ public class WindowAggProjection extends Projection {
                 Symbols.toStream(windowFunction.arguments(), out);
             }
         }
+        if (version.onOrAfter(Version.V_5_10_0)) {
+            out.writeBoolean(inputSorted);
+        }
     }
 
     @Override
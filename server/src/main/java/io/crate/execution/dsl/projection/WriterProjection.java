@@ -66,13 +66,15 @@ public class WriterProjection extends Projection {
 
     public enum OutputFormat {
         JSON_OBJECT,
-        JSON_ARRAY
+        JSON_ARRAY,
+        PARQUET
     }
 
     private final CompressionType compressionType;
 
     public enum CompressionType {
-        GZIP
+        GZIP,
+        LZ4
     }
 
     public WriterProjection(List<Symbol> inputs,
@@ -21,10 +21,19 @@
 
 package io.crate.execution.engine;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collector;
 
+import org.apache.lucene.util.RamUsageEstimator;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.analyze.Relations;
+import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.data.AsyncFlatMapBatchIterator;
 import io.crate.data.AsyncFlatMapper;
 import io.crate.data.BatchIterator;
@@ -33,22 +42,41 @@ import io.crate.data.CloseableIterator;
 import io.crate.data.CollectingRowConsumer;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.breaker.BlockBasedRamAccounting;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.SelectSymbol;
 import io.crate.expression.symbol.Symbol;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.operators.LogicalPlan;
 import io.crate.planner.operators.SubQueryResults;
+import io.crate.types.DataType;
 
 public final class CorrelatedJoinProjector implements Projector {
 
+    /**
+     * Maximum number of sub-query results that are cached per projector.
+     * Outer rows often repeat their correlation values (e.g. a foreign key with a low cardinality)
+     */
+    static final int MAX_CACHED_RESULTS = 1000;
+
+    /**
+     * Maximum estimated size of the cached sub-query results and their keys per projector.
+     * Results that don't fit are not cached.
+     */
+    static final long MAX_CACHED_BYTES = 10L * 1024 * 1024;
+
     private final LogicalPlan subQueryPlan;
     private final PlannerContext plannerContext;
     private final DependencyCarrier executor;
     private final SubQueryResults subQueryResults;
     private final Row params;
     private final SelectSymbol correlatedSubQuery;
+    private final int[] outerColumnPositions;
+    private final DataType<?>[] outerColumnTypes;
+    private final boolean cacheResults;
+    private final RamAccounting ramAccounting;
 
     public CorrelatedJoinProjector(LogicalPlan subQueryPlan,
                                    SelectSymbol correlatedSubQuery,
@@ -56,13 +84,33 @@ public final class CorrelatedJoinProjector implements Projector {
                                    DependencyCarrier executor,
                                    SubQueryResults subQueryResults,
                                    Row params,
-                                   List<Symbol> inputPlanOutputs) {
+                                   List<Symbol> inputPlanOutputs,
+                                   RamAccounting ramAccounting) {
         this.correlatedSubQuery = correlatedSubQuery;
         this.subQueryPlan = subQueryPlan;
         this.plannerContext = plannerContext;
         this.executor = executor;
         this.subQueryResults = subQueryResults.forCorrelation(correlatedSubQuery, inputPlanOutputs);
         this.params = params;
+        this.outerColumnPositions = this.subQueryResults.boundOuterColumnPositions();
+        this.outerColumnTypes = new DataType<?>[outerColumnPositions.length];
+        for (int i = 0; i < outerColumnPositions.length; i++) {
+            outerColumnTypes[i] = inputPlanOutputs.get(outerColumnPositions[i]).valueType();
+        }
+        this.ramAccounting = ramAccounting;
+        // The result only depends on the outer column values if the sub-query is deterministic
+        this.cacheResults = isDeterministic(correlatedSubQuery.relation());
+    }
+
+    private static boolean isDeterministic(AnalyzedRelation relation) {
+        boolean[] deterministic = new boolean[] { true };
+        Relations.traverseDeepSymbols(relation, tree -> {
+            if (tree.any(x -> (x instanceof Function fn && !fn.signature().isDeterministic())
+                    || (x instanceof SelectSymbol selectSymbol && !isDeterministic(selectSymbol.relation())))) {
+                deterministic[0] = false;
+            }
+        });
+        return deterministic[0];
     }
 
     @Override
@@ -75,17 +123,50 @@ public final class CorrelatedJoinProjector implements Projector {
 
         private final Collector<Row, ?, ?> collector;
 
+        /**
+         * Sub-query results by the values of the outer columns, in least recently used order
+         */
+        @Nullable
+        private final Map<List<Object>, CachedResult> results;
+
+        /**
+         * Accounts the estimated size of the cached results and their keys
+         */
+        private final RamAccounting cacheRamAccounting;
+        private long cachedBytes = 0;
+
         public BindAndExecuteSubQuery() {
             this.collector = FirstColumnConsumers.getCollector(
                 correlatedSubQuery.getResultType(),
                 correlatedSubQuery.innerType(),
                 RamAccounting.NO_ACCOUNTING
             );
+            this.results = cacheResults ? new LinkedHashMap<>(16, 0.75f, true) : null;
+            this.cacheRamAccounting = new BlockBasedRamAccounting(ramAccounting::addBytes, 0);
         }
 
         @Override
         public CompletableFuture<? extends CloseableIterator<Row>> apply(Row inputRow, boolean isLastCall) {
             try {
+                // See `CorrelatedJoin` operator. The output is the output of the left relation + the sub-query result
+                final Object[] secondCells = new Object[1];
+                final BiArrayRow outputRow = new BiArrayRow(inputRow.materialize(), secondCells);
+                final List<Object> key;
+                if (results == null) {
+                    key = null;
+                } else {
+                    Object[] outerValues = new Object[outerColumnPositions.length];
+                    for (int i = 0; i < outerColumnPositions.length; i++) {
+                        outerValues[i] = inputRow.get(outerColumnPositions[i]);
+                    }
+                    key = Arrays.asList(outerValues);
+                    CachedResult cachedResult = results.get(key);
+                    if (cachedResult != null) {
+                        secondCells[0] = cachedResult.value();
+                        return CompletableFuture.completedFuture(
+                            CloseableIterator.fromIterator(List.<Row>of(outputRow).iterator()));
+                    }
+                }
                 subQueryResults.bindOuterColumnInputRow(inputRow);
                 CollectingRowConsumer<?, ?> rowConsumer = new CollectingRowConsumer<>(collector);
                 subQueryPlan.execute(
@@ -95,10 +176,10 @@ public final class CorrelatedJoinProjector implements Projector {
                     params,
                     subQueryResults
                 );
-                // See `CorrelatedJoin` operator. The output is the output of the left relation + the sub-query result
-                final Object[] secondCells = new Object[1];
-                final BiArrayRow outputRow = new BiArrayRow(inputRow.materialize(), secondCells);
                 return rowConsumer.completionFuture().thenApply(result -> {
+                    if (key != null) {
+                        cache(key, result);
+                    }
                     secondCells[0] = result;
                     return CloseableIterator.fromIterator(List.<Row>of(outputRow).iterator());
                 });
@@ -106,5 +187,44 @@ public final class CorrelatedJoinProjector implements Projector {
                 return CompletableFuture.failedFuture(t);
             }
         }
+
+        private void cache(List<Object> key, Object result) {
+            assert results != null : "results must not be null if results are cached";
+            long bytes = RamUsageEstimator.alignObjectSize(
+                RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * key.size());
+            bytes += valueBytes(correlatedSubQuery.valueType(), result);
+            for (int i = 0; i < outerColumnTypes.length; i++) {
+                bytes += valueBytes(outerColumnTypes[i], key.get(i));
+            }
+            if (bytes > MAX_CACHED_BYTES) {
+                return;
+            }
+            cacheRamAccounting.addBytes(bytes);
+            cachedBytes += bytes;
+            results.put(key, new CachedResult(result, bytes));
+            Iterator<CachedResult> leastRecentlyUsed = results.values().iterator();
+            while (results.size() > MAX_CACHED_RESULTS || cachedBytes > MAX_CACHED_BYTES) {
+                long evictedBytes = leastRecentlyUsed.next().bytes();
+                leastRecentlyUsed.remove();
+                cacheRamAccounting.addBytes(-evictedBytes);
+                cachedBytes -= evictedBytes;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (results != null) {
+                results.clear();
+            }
+            cacheRamAccounting.release();
+        }
+    }
+
+    private record CachedResult(Object value, long bytes) {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long valueBytes(DataType<?> type, Object value) {
+        return ((DataType<Object>) type).valueBytes(value);
     }
 }
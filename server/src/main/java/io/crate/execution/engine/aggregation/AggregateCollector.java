@@ -25,6 +25,7 @@ import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnBatch;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.expression.InputCondition;
 import io.crate.expression.symbol.AggregateMode;
@@ -138,6 +139,18 @@ public class AggregateCollector implements Collector<Row, Object[], Iterable<Row
         }
     }
 
+    /**
+     * Aggregates the selected rows of a column batch.
+     * Only valid for the iterate modes and if none of the aggregations has a filter.
+     *
+     * @param argColumns for each aggregation the index of the batch column of each argument
+     */
+    public void iterateBatch(Object[] state, ColumnBatch batch, int[][] argColumns) {
+        for (int i = 0; i < aggregations.length; i++) {
+            state[i] = aggregations[i].iterateBatch(ramAccounting, memoryManager, state[i], batch, argColumns[i]);
+        }
+    }
+
     private void reduce(Object[] state, Row row) {
         setRow(row);
         for (int i = 0; i < aggregations.length; i++) {
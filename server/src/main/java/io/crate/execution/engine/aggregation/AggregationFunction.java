@@ -29,6 +29,8 @@ import org.jetbrains.annotations.Nullable;
 
 import io.crate.data.Input;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.ColumnVector;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Literal;
 import io.crate.memory.MemoryManager;
@@ -74,6 +76,35 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
                                      Input<?>... args)
         throws CircuitBreakingException;
 
+    /**
+     * Batch variant of {@link #iterate(RamAccounting, MemoryManager, Object, Input[])} which aggregates the
+     * selected rows of a {@link ColumnBatch}.
+     *
+     * The default implementation calls {@link #iterate(RamAccounting, MemoryManager, Object, Input[])} per row.
+     * Implementations can override it to process the primitive values of the column vectors directly.
+     *
+     * @param argColumns the index of the column within the batch for each argument
+     * @return The new/changed state, see {@link #iterate(RamAccounting, MemoryManager, Object, Input[])}
+     */
+    public TPartial iterateBatch(RamAccounting ramAccounting,
+                                 MemoryManager memoryManager,
+                                 TPartial state,
+                                 ColumnBatch batch,
+                                 int[] argColumns) throws CircuitBreakingException {
+        int[] position = new int[1];
+        Input<?>[] args = new Input[argColumns.length];
+        for (int i = 0; i < argColumns.length; i++) {
+            ColumnVector column = batch.column(argColumns[i]);
+            args[i] = () -> column.get(position[0]);
+        }
+        int[] positions = batch.positions();
+        for (int i = 0; i < batch.size(); i++) {
+            position[0] = positions[i];
+            state = iterate(ramAccounting, memoryManager, state, args);
+        }
+        return state;
+    }
+
     /**
      * This function merges two aggregation states together and returns that merged state.
      * <p>
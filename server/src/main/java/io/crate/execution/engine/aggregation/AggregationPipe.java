@@ -27,24 +27,34 @@ import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnarBatchIterator;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.memory.MemoryManager;
 import org.elasticsearch.Version;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
 public class AggregationPipe implements Projector {
 
     private final AggregateCollector collector;
+    @Nullable
+    private final int[][] argColumns;
 
+    /**
+     * @param argColumns if not null, the input column of each argument per aggregation.
+     *                   Allows to aggregate {@link io.crate.data.columnar.ColumnBatch}es if the source supports it.
+     */
     public AggregationPipe(List<CollectExpression<Row, ?>> expressions,
                            AggregateMode aggregateMode,
                            AggregationContext[] aggregations,
                            RamAccounting ramAccounting,
                            MemoryManager memoryManager,
                            Version minNodeVersion,
-                           Version indexVersionCreated) {
+                           Version indexVersionCreated,
+                           @Nullable int[][] argColumns) {
+        this.argColumns = argColumns;
         AggregationFunction[] functions = new AggregationFunction[aggregations.length];
         Input[][] inputs = new Input[aggregations.length][];
         Input[] filters = new Input[aggregations.length];
@@ -70,6 +80,17 @@ public class AggregationPipe implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        if (argColumns != null && batchIterator instanceof ColumnarBatchIterator columnar) {
+            return CollectingBatchIterator.newInstance(
+                columnar::close,
+                columnar::kill,
+                () -> columnar.collectBatches(
+                    collector.supplier().get(),
+                    (state, batch) -> collector.iterateBatch(state, batch, argColumns)
+                ).thenApply(collector.finisher()),
+                columnar.hasLazyResultSet()
+            );
+        }
         return CollectingBatchIterator.newInstance(batchIterator, collector);
     }
 
@@ -0,0 +1,451 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.memory.MemoryManager;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Open addressing hash map for GROUP BY keys which consist only of fixed-width numeric or timestamp values.
+ *
+ * <p>
+ * All key columns of a group are packed into a single fixed-size slot, prefixed by a null mask.
+ * Slots are appended to pages allocated via the {@link MemoryManager}, so they are stored on- or off-heap
+ * depending on the {@code memory.allocation.type} setting, and never move once written.
+ * The hash table itself only contains group ordinals; the aggregation states are referenced by ordinal.
+ * Compared to a {@link java.util.HashMap} with {@link List} keys this avoids the key objects and the entry
+ * objects per group.
+ * </p>
+ *
+ * <p>
+ * Keys are plain values if created via {@link #forKey(DataType, RamAccounting, MemoryManager)} and
+ * {@link List}s if created via {@link #forKeys(List, RamAccounting, MemoryManager)}.
+ * The map is not thread-safe and doesn't support removal of entries.
+ * Pages are released once the {@link MemoryManager} is closed, {@link #clear()} keeps them for re-use.
+ * </p>
+ */
+public final class FixedWidthKeyMap<K> extends AbstractMap<K, Object[]> {
+
+    private static final int PAGE_SIZE = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_KEYS = Long.SIZE;
+
+    private final RamAccounting ramAccounting;
+    private final MemoryManager memoryManager;
+    private final boolean compositeKey;
+    private final int[] typeIds;
+    private final int[] widths;
+    private final int[] offsets;
+    private final int nullsWidth;
+    private final int slotSize;
+    private final int slotsPerPage;
+    private final ArrayList<ByteBuf> pages = new ArrayList<>();
+
+    private final long[] probe;
+    private long probeNulls;
+
+    /**
+     * Open addressing table with linear probing. Contains {@code ordinal + 1} or 0 for empty slots.
+     */
+    private int[] table;
+    private int mask;
+    private int[] hashes;
+    private Object[][] states;
+    private int size;
+
+    public static boolean supports(List<? extends DataType<?>> keyTypes) {
+        if (keyTypes.isEmpty() || keyTypes.size() > MAX_KEYS) {
+            return false;
+        }
+        for (DataType<?> keyType : keyTypes) {
+            if (width(keyType.id()) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static <K> FixedWidthKeyMap<K> forKey(DataType<K> keyType,
+                                                 RamAccounting ramAccounting,
+                                                 MemoryManager memoryManager) {
+        return new FixedWidthKeyMap<>(List.of(keyType), false, ramAccounting, memoryManager);
+    }
+
+    public static FixedWidthKeyMap<List<Object>> forKeys(List<? extends DataType<?>> keyTypes,
+                                                         RamAccounting ramAccounting,
+                                                         MemoryManager memoryManager) {
+        return new FixedWidthKeyMap<>(keyTypes, true, ramAccounting, memoryManager);
+    }
+
+    private FixedWidthKeyMap(List<? extends DataType<?>> keyTypes,
+                             boolean compositeKey,
+                             RamAccounting ramAccounting,
+                             MemoryManager memoryManager) {
+        assert supports(keyTypes) : "Key types must have a fixed width: " + keyTypes;
+        this.ramAccounting = ramAccounting;
+        this.memoryManager = memoryManager;
+        this.compositeKey = compositeKey;
+        int numKeys = keyTypes.size();
+        this.typeIds = new int[numKeys];
+        this.widths = new int[numKeys];
+        this.offsets = new int[numKeys];
+        this.nullsWidth = numKeys <= 8 ? 1 : numKeys <= 16 ? 2 : numKeys <= 32 ? 4 : 8;
+        int offset = nullsWidth;
+        for (int i = 0; i < numKeys; i++) {
+            typeIds[i] = keyTypes.get(i).id();
+            widths[i] = width(typeIds[i]);
+            offsets[i] = offset;
+            offset += widths[i];
+        }
+        this.slotSize = offset;
+        this.slotsPerPage = PAGE_SIZE / slotSize;
+        this.probe = new long[numKeys];
+        this.table = new int[INITIAL_CAPACITY];
+        this.mask = INITIAL_CAPACITY - 1;
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.states = new Object[INITIAL_CAPACITY][];
+        ramAccounting.addBytes(arraysBytes());
+    }
+
+    /**
+     * @return the number of bytes used to store a value of the given type or -1 if the type has no fixed width.
+     */
+    private static int width(int typeId) {
+        return switch (typeId) {
+            case ByteType.ID -> Byte.BYTES;
+            case ShortType.ID -> Short.BYTES;
+            case IntegerType.ID, FloatType.ID -> Integer.BYTES;
+            case LongType.ID, DoubleType.ID, TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> Long.BYTES;
+            default -> -1;
+        };
+    }
+
+    private static long encode(int typeId, Object value) {
+        return switch (typeId) {
+            case FloatType.ID -> Float.floatToIntBits(((Number) value).floatValue());
+            case DoubleType.ID -> Double.doubleToLongBits(((Number) value).doubleValue());
+            default -> ((Number) value).longValue();
+        };
+    }
+
+    private static Object decode(int typeId, long value) {
+        return switch (typeId) {
+            case ByteType.ID -> (byte) value;
+            case ShortType.ID -> (short) value;
+            case IntegerType.ID -> (int) value;
+            case FloatType.ID -> Float.intBitsToFloat((int) value);
+            case DoubleType.ID -> Double.longBitsToDouble(value);
+            default -> value;
+        };
+    }
+
+    private static long read(ByteBuf page, int index, int width) {
+        return switch (width) {
+            case Byte.BYTES -> page.getByte(index);
+            case Short.BYTES -> page.getShort(index);
+            case Integer.BYTES -> page.getInt(index);
+            default -> page.getLong(index);
+        };
+    }
+
+    private static long readNulls(ByteBuf page, int index, int width) {
+        return switch (width) {
+            case Byte.BYTES -> page.getUnsignedByte(index);
+            case Short.BYTES -> page.getUnsignedShort(index);
+            case Integer.BYTES -> page.getUnsignedInt(index);
+            default -> page.getLong(index);
+        };
+    }
+
+    private static void write(ByteBuf page, int index, int width, long value) {
+        switch (width) {
+            case Byte.BYTES -> page.setByte(index, (int) value);
+            case Short.BYTES -> page.setShort(index, (int) value);
+            case Integer.BYTES -> page.setInt(index, (int) value);
+            default -> page.setLong(index, value);
+        }
+    }
+
+    /**
+     * Encodes the key into {@link #probe} and {@link #probeNulls}
+     * @return the hash of the key
+     */
+    private int encodeProbe(Object key) {
+        long nulls = 0;
+        long hash = 0;
+        if (compositeKey) {
+            List<?> values = (List<?>) key;
+            assert values.size() == probe.length : "Number of key values must match the number of key types";
+            for (int i = 0; i < probe.length; i++) {
+                Object value = values.get(i);
+                if (value == null) {
+                    nulls |= 1L << i;
+                    probe[i] = 0;
+                } else {
+                    probe[i] = encode(typeIds[i], value);
+                }
+                hash = hash * 31 + probe[i];
+            }
+        } else if (key == null) {
+            nulls = 1L;
+            probe[0] = 0;
+        } else {
+            probe[0] = encode(typeIds[0], key);
+            hash = probe[0];
+        }
+        probeNulls = nulls;
+        return (int) BitMixer.mix64(hash * 31 + nulls);
+    }
+
+    private ByteBuf page(int ordinal) {
+        return pages.get(ordinal / slotsPerPage);
+    }
+
+    private int slotOffset(int ordinal) {
+        return (ordinal % slotsPerPage) * slotSize;
+    }
+
+    private boolean probeEquals(int ordinal) {
+        ByteBuf page = page(ordinal);
+        int slotOffset = slotOffset(ordinal);
+        if (readNulls(page, slotOffset, nullsWidth) != probeNulls) {
+            return false;
+        }
+        for (int i = 0; i < probe.length; i++) {
+            if (read(page, slotOffset + offsets[i], widths[i]) != probe[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the position within {@link #table} which either contains the ordinal of the probed key or is empty.
+     */
+    private int find(int hash) {
+        int pos = hash & mask;
+        while (true) {
+            int entry = table[pos];
+            if (entry == 0) {
+                return pos;
+            }
+            int ordinal = entry - 1;
+            if (hashes[ordinal] == hash && probeEquals(ordinal)) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    @Override
+    public Object[] get(Object key) {
+        int hash = encodeProbe(key);
+        int entry = table[find(hash)];
+        return entry == 0 ? null : states[entry - 1];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int hash = encodeProbe(key);
+        return table[find(hash)] != 0;
+    }
+
+    @Override
+    public Object[] put(K key, Object[] value) {
+        int hash = encodeProbe(key);
+        int pos = find(hash);
+        int entry = table[pos];
+        if (entry != 0) {
+            Object[] previous = states[entry - 1];
+            states[entry - 1] = value;
+            return previous;
+        }
+        int ordinal = size;
+        if (ordinal == pages.size() * slotsPerPage) {
+            pages.add(memoryManager.allocate(PAGE_SIZE));
+        }
+        ByteBuf page = page(ordinal);
+        int slotOffset = slotOffset(ordinal);
+        write(page, slotOffset, nullsWidth, probeNulls);
+        for (int i = 0; i < probe.length; i++) {
+            write(page, slotOffset + offsets[i], widths[i], probe[i]);
+        }
+        ramAccounting.addBytes(RamUsageEstimator.shallowSizeOf(value));
+        if (ordinal == hashes.length) {
+            growOrdinals();
+        }
+        hashes[ordinal] = hash;
+        states[ordinal] = value;
+        table[pos] = ordinal + 1;
+        size++;
+        if (size > table.length >> 1) {
+            rehash(table.length << 1);
+        }
+        return null;
+    }
+
+    private void growOrdinals() {
+        int newLength = hashes.length << 1;
+        long oldBytes = RamUsageEstimator.sizeOf(hashes) + RamUsageEstimator.shallowSizeOf(states);
+        hashes = Arrays.copyOf(hashes, newLength);
+        states = Arrays.copyOf(states, newLength);
+        ramAccounting.addBytes(RamUsageEstimator.sizeOf(hashes) + RamUsageEstimator.shallowSizeOf(states) - oldBytes);
+    }
+
+    private void rehash(int newCapacity) {
+        long oldBytes = RamUsageEstimator.sizeOf(table);
+        int[] newTable = new int[newCapacity];
+        int newMask = newCapacity - 1;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int pos = hashes[ordinal] & newMask;
+            while (newTable[pos] != 0) {
+                pos = (pos + 1) & newMask;
+            }
+            newTable[pos] = ordinal + 1;
+        }
+        table = newTable;
+        mask = newMask;
+        ramAccounting.addBytes(RamUsageEstimator.sizeOf(table) - oldBytes);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all entries. The allocated pages are kept and re-used for new entries,
+     * the hash table and the ordinal arrays shrink back to their initial capacity.
+     */
+    @Override
+    public void clear() {
+        long oldBytes = arraysBytes();
+        table = new int[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        hashes = new int[INITIAL_CAPACITY];
+        states = new Object[INITIAL_CAPACITY][];
+        size = 0;
+        ramAccounting.addBytes(arraysBytes() - oldBytes);
+    }
+
+    private long arraysBytes() {
+        return RamUsageEstimator.sizeOf(table) + RamUsageEstimator.sizeOf(hashes) + RamUsageEstimator.shallowSizeOf(states);
+    }
+
+    @Override
+    public Object[] remove(Object key) {
+        throw new UnsupportedOperationException("remove is not supported on FixedWidthKeyMap");
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int ordinal) {
+        ByteBuf page = page(ordinal);
+        int slotOffset = slotOffset(ordinal);
+        long nulls = readNulls(page, slotOffset, nullsWidth);
+        if (!compositeKey) {
+            return nulls == 0 ? (K) decode(typeIds[0], read(page, slotOffset + offsets[0], widths[0])) : null;
+        }
+        List<Object> key = new ArrayList<>(probe.length);
+        for (int i = 0; i < probe.length; i++) {
+            if ((nulls & (1L << i)) == 0) {
+                key.add(decode(typeIds[i], read(page, slotOffset + offsets[i], widths[i])));
+            } else {
+                key.add(null);
+            }
+        }
+        return (K) key;
+    }
+
+    @Override
+    public Set<Entry<K, Object[]>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Entry<K, Object[]>> iterator() {
+                return new Iterator<>() {
+
+                    int ordinal = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return ordinal < size;
+                    }
+
+                    @Override
+                    public Entry<K, Object[]> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException("Iterator is exhausted");
+                        }
+                        int current = ordinal++;
+                        return new Entry<>() {
+
+                            @Override
+                            public K getKey() {
+                                return keyAt(current);
+                            }
+
+                            @Override
+                            public Object[] getValue() {
+                                return states[current];
+                            }
+
+                            @Override
+                            public Object[] setValue(Object[] value) {
+                                Object[] previous = states[current];
+                                states[current] = value;
+                                return previous;
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+}
@@ -30,8 +30,11 @@ import java.util.function.Supplier;
 import org.apache.lucene.util.RamUsageEstimator;
 
 import io.crate.data.breaker.RamAccounting;
+import io.crate.memory.MemoryManager;
 import io.crate.types.ByteType;
 import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
 import io.crate.types.IntegerType;
 import io.crate.types.LongType;
 import io.crate.types.ShortType;
@@ -44,7 +47,13 @@ import io.netty.util.collection.ShortObjectHashMap;
 public final class GroupByMaps {
 
     public static <K, V> BiConsumer<Map<K, V>, K> accountForNewEntry(RamAccounting ramAccounting, DataType<K> type) {
-        return (map, k) -> ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(type.valueBytes(k) + 36));
+        return (map, k) -> {
+            if (map instanceof FixedWidthKeyMap) {
+                // accounts for its entries itself
+                return;
+            }
+            ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(type.valueBytes(k) + 36));
+        };
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
@@ -52,6 +61,10 @@ public final class GroupByMaps {
                                                                      List<? extends DataType> types) {
         return (map, k) -> {
             assert k instanceof List : "keys must be a list if there are multiple key types";
+            if (map instanceof FixedWidthKeyMap) {
+                // accounts for its entries itself
+                return;
+            }
             long size = 0;
             for (int i = 0; i < types.size(); i++) {
                 DataType dataType = types.get(i);
@@ -81,4 +94,36 @@ public final class GroupByMaps {
                 return HashMap::new;
         }
     }
+
+    /**
+     * Like {@link #mapForType(DataType)}, but uses a {@link FixedWidthKeyMap} for floating point keys,
+     * which would otherwise end up in a {@link HashMap}.
+     */
+    public static <K> Supplier<Map<K, Object[]>> mapForType(DataType<K> type,
+                                                            RamAccounting ramAccounting,
+                                                            MemoryManager memoryManager) {
+        switch (type.id()) {
+            case FloatType.ID:
+            case DoubleType.ID:
+                return () -> FixedWidthKeyMap.forKey(type, ramAccounting, memoryManager);
+
+            default:
+                return mapForType(type);
+        }
+    }
+
+    /**
+     * @return supplier for maps with {@link List} keys of the given types.
+     *         Uses a {@link FixedWidthKeyMap} if all types are fixed-width numeric or timestamp types.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Supplier<Map<List<Object>, Object[]>> mapForTypes(List<? extends DataType> types,
+                                                                    RamAccounting ramAccounting,
+                                                                    MemoryManager memoryManager) {
+        List<? extends DataType<?>> keyTypes = (List) types;
+        if (FixedWidthKeyMap.supports(keyTypes)) {
+            return () -> (Map) FixedWidthKeyMap.forKeys(keyTypes, ramAccounting, memoryManager);
+        }
+        return HashMap::new;
+    }
 }
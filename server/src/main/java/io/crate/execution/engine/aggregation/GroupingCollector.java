@@ -21,24 +21,40 @@
 
 package io.crate.execution.engine.aggregation;
 
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+import io.crate.data.BatchIterator;
+import io.crate.data.CloseableIterator;
+import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.RowN;
+import io.crate.data.breaker.BlockBasedRamAccounting;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnarBatchIterator;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillManager;
 import io.crate.expression.InputCondition;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.memory.MemoryManager;
 import io.crate.types.DataType;
+
 import org.elasticsearch.Version;
+import org.jetbrains.annotations.Nullable;
+
+import com.carrotsearch.hppc.BitMixer;
 
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
@@ -49,9 +65,18 @@ import java.util.stream.Collector;
  * Collector implementation which uses {@link AggregateMode}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
  *
+ * <p>
+ * If a {@link SpillManager} is available and spilling is enabled, the groups are moved to disk once the
+ * accounted memory exceeds the spill threshold. They are partitioned by the hash of the key and written as
+ * key + partial aggregation states, using the {@link AggregationFunction#partialType()} streamers.
+ * The finisher then reads and reduces the partitions one by one, so only a single partition has to fit into memory.
+ * </p>
+ *
  * @param <K> type of the key
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector<K> implements Collector<Row, GroupingCollector.Groups<K>, Iterable<Row>> {
+
+    private static final int NUM_PARTITIONS = 32;
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
@@ -66,8 +91,12 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final Function<Row, K> keyExtractor;
     private final Version indexVersionCreated;
     private final BiConsumer<Map<K, Object[]>, Row> accumulator;
-    private final Supplier<Map<K, Object[]>> supplier;
+    private final Supplier<Map<K, Object[]>> mapSupplier;
     private final Version minNodeVersion;
+    private final Function<Object[], K> keyFromCells;
+    private final Streamer<?>[] spillStreamers;
+    @Nullable
+    private final SpillManager spillManager;
 
     static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
                                                AggregateMode mode,
@@ -79,22 +108,27 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                Version minNodeVersion,
                                                Input<?> keyInput,
                                                DataType keyType,
-                                               Version indexVersionCreated) {
+                                               Version indexVersionCreated,
+                                               @Nullable SpillManager spillManager) {
+        RamAccounting groupsRamAccounting = groupsRamAccounting(ramAccounting, spillManager);
         return new GroupingCollector<>(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccounting,
+            groupsRamAccounting,
             memoryManager,
             minNodeVersion,
             (key, cells) -> cells[0] = key,
             1,
-            GroupByMaps.accountForNewEntry(ramAccounting, keyType),
+            GroupByMaps.accountForNewEntry(groupsRamAccounting, keyType),
             row -> keyInput.value(),
+            cells -> cells[0],
+            List.of(keyType),
             indexVersionCreated,
-            GroupByMaps.mapForType(keyType)
+            GroupByMaps.mapForType(keyType, groupsRamAccounting, memoryManager),
+            spillManager
         );
     }
 
@@ -108,25 +142,43 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                     Version minNodeVersion,
                                                     List<Input<?>> keyInputs,
                                                     List<? extends DataType> keyTypes,
-                                                    Version indexVersionCreated) {
+                                                    Version indexVersionCreated,
+                                                    @Nullable SpillManager spillManager) {
+        int numKeys = keyInputs.size();
+        RamAccounting groupsRamAccounting = groupsRamAccounting(ramAccountingContext, spillManager);
         return new GroupingCollector<>(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccountingContext,
+            groupsRamAccounting,
             memoryManager,
             minNodeVersion,
             GroupingCollector::applyKeysToCells,
             keyInputs.size(),
-            GroupByMaps.accountForNewEntry(ramAccountingContext, keyTypes),
+            GroupByMaps.accountForNewEntry(groupsRamAccounting, keyTypes),
             row -> evalKeyInputs(keyInputs),
+            cells -> keysFromCells(cells, numKeys),
+            keyTypes,
             indexVersionCreated,
-            HashMap::new
+            GroupByMaps.mapForTypes(keyTypes, groupsRamAccounting, memoryManager),
+            spillManager
         );
     }
 
+    /**
+     * The spill threshold is compared against the accounted bytes of the groups and the accounting is released
+     * after spilling. The {@code ramAccounting} of the context is shared with other operators, so the groups
+     * must be accounted by a child which forwards to it.
+     */
+    private static RamAccounting groupsRamAccounting(RamAccounting ramAccounting, @Nullable SpillManager spillManager) {
+        if (spillManager == null) {
+            return ramAccounting;
+        }
+        return new BlockBasedRamAccounting(ramAccounting::addBytes, 0);
+    }
+
     private static List<Object> evalKeyInputs(List<Input<?>> keyInputs) {
         List<Object> key = new ArrayList<>(keyInputs.size());
         for (Input<?> keyInput : keyInputs) {
@@ -141,6 +193,14 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         }
     }
 
+    private static List<Object> keysFromCells(Object[] cells, int numKeys) {
+        List<Object> keys = new ArrayList<>(numKeys);
+        for (int i = 0; i < numKeys; i++) {
+            keys.add(cells[i]);
+        }
+        return keys;
+    }
+
     private GroupingCollector(CollectExpression<Row, ?>[] expressions,
                               AggregationFunction[] aggregations,
                               AggregateMode mode,
@@ -153,8 +213,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               int numKeyColumns,
                               BiConsumer<Map<K, Object[]>, K> accountForNewEntry,
                               Function<Row, K> keyExtractor,
+                              Function<Object[], K> keyFromCells,
+                              List<? extends DataType> keyTypes,
                               Version indexVersionCreated,
-                              Supplier<Map<K, Object[]>> supplier) {
+                              Supplier<Map<K, Object[]>> mapSupplier,
+                              @Nullable SpillManager spillManager) {
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
@@ -168,30 +231,47 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         this.keyExtractor = keyExtractor;
         this.indexVersionCreated = indexVersionCreated;
         this.accumulator = mode == AggregateMode.PARTIAL_FINAL ? this::reduce : this::iter;
-        this.supplier = supplier;
+        this.mapSupplier = mapSupplier;
         this.minNodeVersion = minNodeVersion;
+        this.keyFromCells = keyFromCells;
+        this.spillManager = spillManager;
+        this.spillStreamers = new Streamer<?>[numKeyColumns + aggregations.length];
+        for (int i = 0; i < numKeyColumns; i++) {
+            spillStreamers[i] = keyTypes.get(i).streamer();
+        }
+        for (int i = 0; i < aggregations.length; i++) {
+            spillStreamers[numKeyColumns + i] = aggregations[i].partialType().streamer();
+        }
     }
 
     @Override
-    public Supplier<Map<K, Object[]>> supplier() {
-        return supplier;
+    public Supplier<Groups<K>> supplier() {
+        return () -> new Groups<>(mapSupplier.get());
     }
 
     @Override
-    public BiConsumer<Map<K, Object[]>, Row> accumulator() {
-        return accumulator;
+    public BiConsumer<Groups<K>, Row> accumulator() {
+        if (spillManager == null) {
+            return (groups, row) -> accumulator.accept(groups.statesByKey, row);
+        }
+        return (groups, row) -> {
+            accumulator.accept(groups.statesByKey, row);
+            if (spillManager.isEnabled() && ramAccounting.totalBytes() >= spillManager.thresholdInBytes()) {
+                spill(groups);
+            }
+        };
     }
 
     @Override
-    public BinaryOperator<Map<K, Object[]>> combiner() {
+    public BinaryOperator<Groups<K>> combiner() {
         return (state1, state2) -> {
             throw new UnsupportedOperationException("combine not supported");
         };
     }
 
     @Override
-    public Function<Map<K, Object[]>, Iterable<Row>> finisher() {
-        return this::mapToRows;
+    public Function<Groups<K>, Iterable<Row>> finisher() {
+        return this::groupsToRows;
     }
 
     @Override
@@ -258,6 +338,148 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         addWithAccounting(statesByKey, key, states);
     }
 
+    /**
+     * Creates a BatchIterator which consumes the source using this collector.
+     * A {@link ColumnarBatchIterator} source is consumed batch-wise.
+     * Groups spilled to disk are removed once the BatchIterator is closed.
+     */
+    public BatchIterator<Row> apply(BatchIterator<Row> source) {
+        Groups<K> groups = supplier().get();
+        BiConsumer<Groups<K>, Row> accumulator = accumulator();
+        Supplier<CompletableFuture<? extends Iterable<? extends Row>>> loadItems;
+        if (source instanceof ColumnarBatchIterator columnar) {
+            loadItems = () -> columnar.collectBatches(groups, (state, batch) -> {
+                int[] positions = batch.positions();
+                for (int i = 0; i < batch.size(); i++) {
+                    accumulator.accept(state, batch.row(positions[i]));
+                }
+            }).thenApply(this::groupsToRows);
+        } else {
+            Collector<Row, Groups<K>, Iterable<Row>> collector = Collector.of(
+                () -> groups,
+                accumulator,
+                combiner(),
+                finisher()
+            );
+            loadItems = () -> source.collect(collector);
+        }
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                source.close();
+                groups.close();
+            },
+            source::kill,
+            loadItems,
+            source.hasLazyResultSet()
+        );
+    }
+
+    private static int partition(Object key) {
+        return BitMixer.mix32(Objects.hashCode(key)) & (NUM_PARTITIONS - 1);
+    }
+
+    /**
+     * Moves all groups into the partition files and frees the memory used by them.
+     */
+    private void spill(Groups<K> groups) {
+        if (groups.partitions == null) {
+            groups.partitions = new SpillFile[NUM_PARTITIONS];
+        }
+        Object[] cells = new Object[numKeyColumns + aggregations.length];
+        for (Map.Entry<K, Object[]> entry : groups.statesByKey.entrySet()) {
+            K key = entry.getKey();
+            int partition = partition(key);
+            SpillFile file = groups.partitions[partition];
+            if (file == null) {
+                file = spillManager.newFile(spillStreamers);
+                groups.partitions[partition] = file;
+            }
+            applyKeyToCells.accept(key, cells);
+            System.arraycopy(entry.getValue(), 0, cells, numKeyColumns, aggregations.length);
+            file.add(cells);
+        }
+        groups.statesByKey = emptied(groups.statesByKey);
+        ramAccounting.release();
+    }
+
+    /**
+     * Returns an empty map to continue with after the groups have been spilled.
+     * A {@link FixedWidthKeyMap} is cleared and re-used; dropping it would leave its pages allocated
+     * until the {@link MemoryManager} is closed.
+     */
+    private Map<K, Object[]> emptied(Map<K, Object[]> statesByKey) {
+        if (statesByKey instanceof FixedWidthKeyMap) {
+            statesByKey.clear();
+            return statesByKey;
+        }
+        return mapSupplier.get();
+    }
+
+    private Iterable<Row> groupsToRows(Groups<K> groups) {
+        if (groups.partitions == null) {
+            return mapToRows(groups.statesByKey);
+        }
+        spill(groups);
+        for (SpillFile file : groups.partitions) {
+            if (file != null) {
+                file.finishWriting();
+            }
+        }
+        SpillFile[] partitions = groups.partitions;
+        return () -> new Iterator<>() {
+
+            int partition = 0;
+            Iterator<Row> rows = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!rows.hasNext()) {
+                    if (partition == partitions.length) {
+                        return false;
+                    }
+                    SpillFile file = partitions[partition++];
+                    if (file != null) {
+                        groups.statesByKey = emptied(groups.statesByKey);
+                        ramAccounting.release();
+                        rows = mapToRows(loadPartition(groups.statesByKey, file)).iterator();
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Iterator is exhausted");
+                }
+                return rows.next();
+            }
+        };
+    }
+
+    /**
+     * Reads the partial states of a partition into the given empty map and merges the states of equal keys.
+     */
+    private Map<K, Object[]> loadPartition(Map<K, Object[]> statesByKey, SpillFile file) {
+        try (CloseableIterator<Object[]> it = file.rows()) {
+            while (it.hasNext()) {
+                Object[] cells = it.next();
+                K key = keyFromCells.apply(cells);
+                Object[] states = statesByKey.get(key);
+                if (states == null) {
+                    states = new Object[aggregations.length];
+                    System.arraycopy(cells, numKeyColumns, states, 0, aggregations.length);
+                    addWithAccounting(statesByKey, key, states);
+                } else {
+                    for (int i = 0; i < aggregations.length; i++) {
+                        states[i] = aggregations[i].reduce(ramAccounting, states[i], cells[numKeyColumns + i]);
+                    }
+                }
+            }
+        }
+        return statesByKey;
+    }
+
     private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
 
         return () -> new Iterator<>() {
@@ -289,4 +511,30 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             }
         };
     }
+
+    /**
+     * The state of the collector: the groups in memory and the partitions spilled to disk.
+     */
+    public static final class Groups<K> implements Closeable {
+
+        private Map<K, Object[]> statesByKey;
+
+        @Nullable
+        private SpillFile[] partitions;
+
+        private Groups(Map<K, Object[]> statesByKey) {
+            this.statesByKey = statesByKey;
+        }
+
+        /**
+         * Deletes the spilled partitions, if any.
+         */
+        @Override
+        public void close() {
+            if (partitions != null) {
+                IOUtils.closeWhileHandlingException(partitions);
+                partitions = null;
+            }
+        }
+    }
 }
@@ -35,6 +35,8 @@ import io.crate.Streamer;
 import io.crate.common.MutableLong;
 import io.crate.data.Input;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.ColumnVector;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.execution.engine.aggregation.impl.templates.BinaryDocValueAggregator;
@@ -126,6 +128,26 @@ public class CountAggregation extends AggregationFunction<MutableLong, Long> {
         return state;
     }
 
+    @Override
+    public MutableLong iterateBatch(RamAccounting ramAccounting,
+                                    MemoryManager memoryManager,
+                                    MutableLong state,
+                                    ColumnBatch batch,
+                                    int[] argColumns) {
+        if (!hasArgs) {
+            return state.add(batch.size());
+        }
+        ColumnVector column = batch.column(argColumns[0]);
+        int[] positions = batch.positions();
+        long count = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (!column.isNull(positions[i])) {
+                count++;
+            }
+        }
+        return state.add(count);
+    }
+
     @Nullable
     @Override
     public MutableLong newState(RamAccounting ramAccounting,
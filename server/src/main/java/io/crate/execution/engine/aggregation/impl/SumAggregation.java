@@ -39,6 +39,9 @@ import io.crate.common.MutableLong;
 import org.jetbrains.annotations.VisibleForTesting;
 import io.crate.data.Input;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.ColumnVector;
+import io.crate.data.columnar.LongVector;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.execution.engine.aggregation.impl.util.KahanSummationForDouble;
@@ -148,6 +151,30 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
         return reduce(ramAccounting, state, returnType.sanitizeValue(args[0].value()));
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public T iterateBatch(RamAccounting ramAccounting,
+                          MemoryManager memoryManager,
+                          T state,
+                          ColumnBatch batch,
+                          int[] argColumns) throws CircuitBreakingException {
+        ColumnVector column = batch.column(argColumns[0]);
+        if (returnType.id() == LongType.ID && column instanceof LongVector longs) {
+            int[] positions = batch.positions();
+            boolean hasValue = false;
+            long sum = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                int position = positions[i];
+                if (!longs.isNull(position)) {
+                    sum = Math.addExact(sum, longs.getLong(position));
+                    hasValue = true;
+                }
+            }
+            return hasValue ? reduce(ramAccounting, state, (T) Long.valueOf(sum)) : state;
+        }
+        return super.iterateBatch(ramAccounting, memoryManager, state, batch, argColumns);
+    }
+
     @Override
     public T reduce(RamAccounting ramAccounting, T state1, T state2) {
         if (state1 == null) {
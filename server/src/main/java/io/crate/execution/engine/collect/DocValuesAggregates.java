@@ -22,11 +22,15 @@
 package io.crate.execution.engine.collect;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.DocIdSetIterator;
@@ -41,6 +45,7 @@ import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import io.crate.common.exceptions.Exceptions;
 import io.crate.data.BatchIterator;
@@ -54,7 +59,9 @@ import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.Projections;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.collect.collectors.LeafPartition;
 import io.crate.execution.jobs.SharedShardContext;
+import io.crate.execution.support.ThreadPools;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.scalar.cast.ExplicitCastFunction;
 import io.crate.expression.symbol.Aggregation;
@@ -75,6 +82,7 @@ public final class DocValuesAggregates {
 
     private DocValuesAggregates() {}
 
+    @SuppressWarnings("rawtypes")
     @Nullable
     public static BatchIterator<Row> tryOptimize(Functions functions,
                                                  LuceneReferenceResolver referenceResolver,
@@ -82,22 +90,29 @@ public final class DocValuesAggregates {
                                                  DocTableInfo table,
                                                  LuceneQueryBuilder luceneQueryBuilder,
                                                  RoutedCollectPhase phase,
-                                                 CollectTask collectTask) {
+                                                 CollectTask collectTask,
+                                                 Executor executor,
+                                                 IntSupplier availableThreads) {
         var shardProjections = Projections.shardProjections(phase.projections());
         AggregationProjection aggregateProjection = aggregateProjection(shardProjections);
         if (aggregateProjection == null) {
             return null;
         }
-        var aggregators = createAggregators(
+        Supplier<List<DocValueAggregator>> createAggregators = () -> createAggregators(
             functions,
             referenceResolver,
             aggregateProjection.aggregations(),
             phase.toCollect(),
             table
         );
+        var aggregators = createAggregators.get();
         if (aggregators == null) {
             return null;
         }
+        List<AggregationFunction> aggregationFunctions = new ArrayList<>(aggregators.size());
+        for (Aggregation aggregation : aggregateProjection.aggregations()) {
+            aggregationFunctions.add((AggregationFunction) functions.getQualified(aggregation));
+        }
         ShardId shardId = indexShard.shardId();
         SharedShardContext shardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
         var searcher = shardContext.acquireSearcher("doc-value-aggregates: " + LuceneShardCollectorProvider.formatSource(phase));
@@ -118,15 +133,17 @@ public final class DocValuesAggregates {
             killed::set,
             () -> {
                 try {
-                    return CompletableFuture.completedFuture(getRow(
-                        collectTask.getRamAccounting(),
-                        collectTask.memoryManager(),
-                        collectTask.minNodeVersion(),
+                    return getRow(
+                        collectTask,
                         killed,
                         searcher.item(),
                         queryContext.query(),
-                        aggregators
-                    ));
+                        aggregators,
+                        createAggregators,
+                        aggregationFunctions,
+                        executor,
+                        availableThreads
+                    );
                 } catch (Throwable t) {
                     return CompletableFuture.failedFuture(t);
                 }
@@ -225,21 +242,90 @@ public final class DocValuesAggregates {
         }
     }
 
-    @SuppressWarnings("rawtypes")
-    private static Iterable<Row> getRow(RamAccounting ramAccounting,
-                                        MemoryManager memoryManager,
-                                        Version minNodeVersion,
-                                        AtomicReference<Throwable> killed,
-                                        IndexSearcher searcher,
-                                        Query query,
-                                        List<DocValueAggregator> aggregators) throws IOException {
+    /**
+     * Aggregates the documents matching the query into a single row of partial results.
+     * Large shards are partitioned into doc id ranges (see {@link LeafPartition}) which are aggregated
+     * concurrently with their own aggregators and merged afterwards.
+     */
+    @VisibleForTesting
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static CompletableFuture<Iterable<Row>> getRow(CollectTask collectTask,
+                                                   AtomicReference<Throwable> killed,
+                                                   IndexSearcher searcher,
+                                                   Query query,
+                                                   List<DocValueAggregator> aggregators,
+                                                   Supplier<List<DocValueAggregator>> createAggregators,
+                                                   List<AggregationFunction> aggregationFunctions,
+                                                   Executor executor,
+                                                   IntSupplier availableThreads) throws IOException {
         Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
-        List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+        List<List<LeafPartition>> partitions = LeafPartition.partition(
+            searcher.getTopReaderContext().leaves(),
+            availableThreads.getAsInt(),
+            LeafPartition.MIN_DOCS_PER_PARTITION
+        );
+        if (partitions.size() <= 1) {
+            RamAccounting ramAccounting = collectTask.getRamAccounting();
+            Object[] cells = aggregate(
+                ramAccounting,
+                collectTask.memoryManager(),
+                collectTask.minNodeVersion(),
+                killed,
+                weight,
+                partitions.isEmpty() ? List.of() : partitions.get(0),
+                aggregators
+            );
+            return CompletableFuture.completedFuture(List.of(new RowN(cells)));
+        }
+        List<Supplier<Object[]>> suppliers = new ArrayList<>(partitions.size());
+        for (int p = 0; p < partitions.size(); p++) {
+            // Aggregators hold the doc values of the current segment and can't be shared across threads
+            List<DocValueAggregator> partitionAggregators = p == 0 ? aggregators : createAggregators.get();
+            List<LeafPartition> partition = partitions.get(p);
+            RamAccounting ramAccounting = collectTask.getRamAccounting();
+            suppliers.add(() -> {
+                try {
+                    return aggregate(
+                        ramAccounting,
+                        collectTask.memoryManager(),
+                        collectTask.minNodeVersion(),
+                        killed,
+                        weight,
+                        partition,
+                        partitionAggregators
+                    );
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return ThreadPools.runWithAvailableThreads(executor, availableThreads, suppliers).thenApply(partialResults -> {
+            RamAccounting ramAccounting = collectTask.getRamAccounting();
+            Object[] cells = partialResults.get(0);
+            for (int p = 1; p < partialResults.size(); p++) {
+                Object[] partialResult = partialResults.get(p);
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = aggregationFunctions.get(i).reduce(ramAccounting, cells[i], partialResult[i]);
+                }
+            }
+            return List.of(new RowN(cells));
+        });
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Object[] aggregate(RamAccounting ramAccounting,
+                                      MemoryManager memoryManager,
+                                      Version minNodeVersion,
+                                      AtomicReference<Throwable> killed,
+                                      Weight weight,
+                                      List<LeafPartition> partitions,
+                                      List<DocValueAggregator> aggregators) throws IOException {
         Object[] cells = new Object[aggregators.size()];
         for (int i = 0; i < aggregators.size(); i++) {
             cells[i] = aggregators.get(i).initialState(ramAccounting, memoryManager, minNodeVersion);
         }
-        for (var leaf : leaves) {
+        for (var partition : partitions) {
+            LeafReaderContext leaf = partition.leaf();
             Scorer scorer = weight.scorer(leaf);
             if (scorer == null) {
                 continue;
@@ -249,7 +335,8 @@ public final class DocValuesAggregates {
             }
             DocIdSetIterator docs = scorer.iterator();
             Bits liveDocs = leaf.reader().getLiveDocs();
-            for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+            int maxDoc = partition.maxDoc();
+            for (int doc = partition.firstDoc(docs); doc < maxDoc; doc = docs.nextDoc()) {
                 if (liveDocs != null && !liveDocs.get(doc)) {
                     continue;
                 }
@@ -265,7 +352,7 @@ public final class DocValuesAggregates {
         for (int i = 0; i < aggregators.size(); i++) {
             cells[i] = aggregators.get(i).partialResult(ramAccounting, cells[i]);
         }
-        return List.of(new RowN(cells));
+        return cells;
     }
 
 
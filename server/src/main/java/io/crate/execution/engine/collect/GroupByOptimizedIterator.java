@@ -25,13 +25,17 @@ import static io.crate.execution.dsl.projection.Projections.shardProjections;
 import static io.crate.execution.engine.collect.LuceneShardCollectorProvider.formatSource;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
 import org.apache.lucene.index.DocValues;
@@ -69,8 +73,10 @@ import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.engine.aggregation.AggregationContext;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.collect.collectors.LeafPartition;
 import io.crate.execution.engine.fetch.ReaderContext;
 import io.crate.execution.jobs.SharedShardContext;
+import io.crate.execution.support.ThreadPools;
 import io.crate.expression.InputCondition;
 import io.crate.expression.InputFactory;
 import io.crate.expression.InputRow;
@@ -118,7 +124,9 @@ final class GroupByOptimizedIterator {
                                                          InputFactory inputFactory,
                                                          DocInputFactory docInputFactory,
                                                          RoutedCollectPhase collectPhase,
-                                                         CollectTask collectTask) {
+                                                         CollectTask collectTask,
+                                                         Executor executor,
+                                                         IntSupplier availableThreads) {
         Collection<? extends Projection> shardProjections = shardProjections(collectPhase.projections());
         GroupProjection groupProjection = getSingleStringKeyGroupProjection(shardProjections);
         if (groupProjection == null) {
@@ -150,22 +158,24 @@ final class GroupByOptimizedIterator {
 
         IndexService indexService = sharedShardContext.indexService();
 
-        InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx = docInputFactory.getCtx(collectTask.txnCtx());
-        docCtx.add(collectPhase.toCollect().stream()::iterator);
-
-        InputFactory.Context<CollectExpression<Row, ?>> ctxForAggregations = inputFactory.ctxForAggregations(collectTask.txnCtx());
-        ctxForAggregations.add(groupProjection.values());
-        final List<CollectExpression<Row, ?>> aggExpressions = ctxForAggregations.expressions();
-
-        List<AggregationContext> aggregations = ctxForAggregations.aggregations();
-        List<? extends LuceneCollectorExpression<?>> expressions = docCtx.expressions();
-
-        RamAccounting ramAccounting = collectTask.getRamAccounting();
-
         String indexName = indexShard.shardId().getIndexName();
-        CollectorContext collectorContext
-            = new CollectorContext(sharedShardContext.readerId(), () -> StoredRowLookup.create(table, indexName));
-        InputRow inputRow = new InputRow(docCtx.topLevelInputs());
+        Supplier<GroupingContext> createContext = () -> {
+            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx = docInputFactory.getCtx(collectTask.txnCtx());
+            docCtx.add(collectPhase.toCollect().stream()::iterator);
+
+            InputFactory.Context<CollectExpression<Row, ?>> ctxForAggregations = inputFactory.ctxForAggregations(collectTask.txnCtx());
+            ctxForAggregations.add(groupProjection.values());
+
+            return new GroupingContext(
+                ctxForAggregations.aggregations(),
+                docCtx.expressions(),
+                ctxForAggregations.expressions(),
+                new InputRow(docCtx.topLevelInputs()),
+                collectTask.getRamAccounting(),
+                collectTask.memoryManager(),
+                new CollectorContext(sharedShardContext.readerId(), () -> StoredRowLookup.create(table, indexName))
+            );
+        };
 
         LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
             collectPhase.where(),
@@ -180,16 +190,28 @@ final class GroupByOptimizedIterator {
             bigArrays,
             searcher.item(),
             keyRef.storageIdent(),
-            aggregations,
-            expressions,
-            aggExpressions,
-            ramAccounting,
-            collectTask.memoryManager(),
+            createContext,
             collectTask.minNodeVersion(),
-            inputRow,
             queryContext.query(),
-            collectorContext,
-            groupProjection.mode());
+            groupProjection.mode(),
+            executor,
+            availableThreads
+        );
+    }
+
+    /**
+     * Expressions and aggregation states used to aggregate the documents of a {@link LeafPartition}.
+     * The expressions are stateful and a {@link MemoryManager} doesn't support concurrent access,
+     * each thread needs its own instances. The memory manager must stay open until the rows are consumed,
+     * as the states of all partitions are merged into the result.
+     */
+    record GroupingContext(List<AggregationContext> aggregations,
+                           List<? extends LuceneCollectorExpression<?>> expressions,
+                           List<CollectExpression<Row, ?>> aggExpressions,
+                           InputRow inputRow,
+                           RamAccounting ramAccounting,
+                           MemoryManager memoryManager,
+                           CollectorContext collectorContext) {
     }
 
     static BatchIterator<Row> getIterator(BigArrays bigArrays,
@@ -205,37 +227,63 @@ final class GroupByOptimizedIterator {
                                           Query query,
                                           CollectorContext collectorContext,
                                           AggregateMode aggregateMode) {
-        for (int i = 0, expressionsSize = expressions.size(); i < expressionsSize; i++) {
-            expressions.get(i).startCollect(collectorContext);
-        }
+        GroupingContext context = new GroupingContext(
+            aggregations,
+            expressions,
+            aggExpressions,
+            inputRow,
+            ramAccounting,
+            memoryManager,
+            collectorContext
+        );
+        return getIterator(
+            bigArrays,
+            indexSearcher,
+            keyColumnName,
+            () -> context,
+            minNodeVersion,
+            query,
+            aggregateMode,
+            Runnable::run,
+            () -> 1
+        );
+    }
 
+    /**
+     * @param createContext creates the expressions and the memory manager for a thread.
+     *                      Only called once if {@code availableThreads} returns 1.
+     */
+    static BatchIterator<Row> getIterator(BigArrays bigArrays,
+                                          IndexSearcher indexSearcher,
+                                          String keyColumnName,
+                                          Supplier<GroupingContext> createContext,
+                                          Version minNodeVersion,
+                                          Query query,
+                                          AggregateMode aggregateMode,
+                                          Executor executor,
+                                          IntSupplier availableThreads) {
         AtomicReference<Throwable> killed = new AtomicReference<>();
         return CollectingBatchIterator.newInstance(
             () -> killed.set(BatchIterator.CLOSED),
             killed::set,
             () -> {
                 try {
-                    return CompletableFuture.completedFuture(
-                        getRows(
-                            applyAggregatesGroupedByKey(
-                                bigArrays,
-                                indexSearcher,
-                                keyColumnName,
-                                aggregations,
-                                expressions,
-                                aggExpressions,
-                                ramAccounting,
-                                memoryManager,
-                                minNodeVersion,
-                                inputRow,
-                                query,
-                                killed
-                            ),
-                            ramAccounting,
-                            aggregations,
-                            aggregateMode
-                        )
-                    );
+                    return applyAggregatesGroupedByKey(
+                        bigArrays,
+                        indexSearcher,
+                        keyColumnName,
+                        createContext,
+                        minNodeVersion,
+                        query,
+                        killed,
+                        executor,
+                        availableThreads
+                    ).thenApply(result -> getRows(
+                        result.statesByKey(),
+                        result.context().ramAccounting(),
+                        result.context().aggregations(),
+                        aggregateMode
+                    ));
                 } catch (Throwable t) {
                     return CompletableFuture.failedFuture(t);
                 }
@@ -269,25 +317,101 @@ final class GroupByOptimizedIterator {
             .iterator();
     }
 
-    private static Map<BytesRef, Object[]> applyAggregatesGroupedByKey(BigArrays bigArrays,
-                                                                       IndexSearcher indexSearcher,
-                                                                       String keyColumnName,
-                                                                       List<AggregationContext> aggregations,
-                                                                       List<? extends LuceneCollectorExpression<?>> expressions,
-                                                                       List<CollectExpression<Row, ?>> aggExpressions,
-                                                                       RamAccounting ramAccounting,
-                                                                       MemoryManager memoryManager,
-                                                                       Version minNodeVersion,
-                                                                       InputRow inputRow,
-                                                                       Query query,
-                                                                       AtomicReference<Throwable> killed) throws IOException {
-        final HashMap<BytesRef, Object[]> statesByKey = new HashMap<>();
+    private record GroupedStates(GroupingContext context, Map<BytesRef, Object[]> statesByKey) {
+    }
+
+    /**
+     * Aggregates the documents matching the query grouped by the key column.
+     * Large shards are partitioned into doc id ranges (see {@link LeafPartition}) which are aggregated
+     * concurrently and merged afterwards.
+     */
+    private static CompletableFuture<GroupedStates> applyAggregatesGroupedByKey(BigArrays bigArrays,
+                                                                               IndexSearcher indexSearcher,
+                                                                               String keyColumnName,
+                                                                               Supplier<GroupingContext> createContext,
+                                                                               Version minNodeVersion,
+                                                                               Query query,
+                                                                               AtomicReference<Throwable> killed,
+                                                                               Executor executor,
+                                                                               IntSupplier availableThreads) throws IOException {
         final Weight weight = indexSearcher.createWeight(indexSearcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
-        final List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        final List<List<LeafPartition>> partitions = LeafPartition.partition(
+            indexSearcher.getTopReaderContext().leaves(),
+            availableThreads.getAsInt(),
+            LeafPartition.MIN_DOCS_PER_PARTITION
+        );
+        if (partitions.size() <= 1) {
+            GroupingContext context = createContext.get();
+            HashMap<BytesRef, Object[]> statesByKey = applyAggregatesGroupedByKey(
+                bigArrays,
+                weight,
+                keyColumnName,
+                context,
+                minNodeVersion,
+                partitions.isEmpty() ? List.of() : partitions.get(0),
+                killed
+            );
+            return CompletableFuture.completedFuture(new GroupedStates(context, statesByKey));
+        }
+        List<GroupingContext> contexts = new ArrayList<>(partitions.size());
+        List<Supplier<HashMap<BytesRef, Object[]>>> suppliers = new ArrayList<>(partitions.size());
+        for (List<LeafPartition> partition : partitions) {
+            GroupingContext context = createContext.get();
+            contexts.add(context);
+            suppliers.add(() -> {
+                try {
+                    return applyAggregatesGroupedByKey(
+                        bigArrays,
+                        weight,
+                        keyColumnName,
+                        context,
+                        minNodeVersion,
+                        partition,
+                        killed
+                    );
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return ThreadPools.runWithAvailableThreads(executor, availableThreads, suppliers).thenApply(results -> {
+            GroupingContext context = contexts.get(0);
+            HashMap<BytesRef, Object[]> statesByKey = results.get(0);
+            for (int p = 1; p < results.size(); p++) {
+                raiseIfClosedOrKilled(killed);
+                for (var entry : results.get(p).entrySet()) {
+                    Object[] prevStates = statesByKey.putIfAbsent(entry.getKey(), entry.getValue());
+                    if (prevStates != null) {
+                        reduceStates(context.aggregations(), context.ramAccounting(), prevStates, entry.getValue());
+                    }
+                }
+            }
+            return new GroupedStates(context, statesByKey);
+        });
+    }
+
+    private static HashMap<BytesRef, Object[]> applyAggregatesGroupedByKey(BigArrays bigArrays,
+                                                                           Weight weight,
+                                                                           String keyColumnName,
+                                                                           GroupingContext context,
+                                                                           Version minNodeVersion,
+                                                                           List<LeafPartition> partitions,
+                                                                           AtomicReference<Throwable> killed) throws IOException {
+        final HashMap<BytesRef, Object[]> statesByKey = new HashMap<>();
+        final List<AggregationContext> aggregations = context.aggregations();
+        final List<? extends LuceneCollectorExpression<?>> expressions = context.expressions();
+        final List<CollectExpression<Row, ?>> aggExpressions = context.aggExpressions();
+        final InputRow inputRow = context.inputRow();
+        final RamAccounting ramAccounting = context.ramAccounting();
+        final MemoryManager memoryManager = context.memoryManager();
         Object[] nullStates = null;
 
-        for (LeafReaderContext leaf: leaves) {
+        for (int i = 0, expressionsSize = expressions.size(); i < expressionsSize; i++) {
+            expressions.get(i).startCollect(context.collectorContext());
+        }
+        for (LeafPartition partition : partitions) {
             raiseIfClosedOrKilled(killed);
+            LeafReaderContext leaf = partition.leaf();
             Scorer scorer = weight.scorer(leaf);
             if (scorer == null) {
                 continue;
@@ -300,7 +424,8 @@ final class GroupByOptimizedIterator {
             try (ObjectArray<Object[]> statesByOrd = bigArrays.newObjectArray(values.getValueCount())) {
                 DocIdSetIterator docs = scorer.iterator();
                 Bits liveDocs = leaf.reader().getLiveDocs();
-                for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                int maxDoc = partition.maxDoc();
+                for (int doc = partition.firstDoc(docs); doc < maxDoc; doc = docs.nextDoc()) {
                     raiseIfClosedOrKilled(killed);
                     if (docDeleted(liveDocs, doc)) {
                         continue;
@@ -342,15 +467,7 @@ final class GroupByOptimizedIterator {
                         ramAccounting.addBytes(BYTES_REF_SHALLOW_SIZE + sharedKey.length + HASH_MAP_ENTRY_OVERHEAD);
                         statesByKey.put(BytesRef.deepCopyOf(sharedKey), states);
                     } else {
-                        for (int i = 0; i < aggregations.size(); i++) {
-                            AggregationContext aggregation = aggregations.get(i);
-                            //noinspection unchecked
-                            prevStates[i] = aggregation.function().reduce(
-                                ramAccounting,
-                                prevStates[i],
-                                states[i]
-                            );
-                        }
+                        reduceStates(aggregations, ramAccounting, prevStates, states);
                     }
                 }
             }
@@ -385,6 +502,17 @@ final class GroupByOptimizedIterator {
         return liveDocs != null && !liveDocs.get(doc);
     }
 
+    private static void reduceStates(List<AggregationContext> aggregations,
+                                     RamAccounting ramAccounting,
+                                     Object[] states,
+                                     Object[] otherStates) {
+        for (int i = 0; i < aggregations.size(); i++) {
+            AggregationContext aggregation = aggregations.get(i);
+            //noinspection unchecked
+            states[i] = aggregation.function().reduce(ramAccounting, states[i], otherStates[i]);
+        }
+    }
+
     private static void aggregateValues(List<AggregationContext> aggregations,
                                         RamAccounting ramAccounting,
                                         MemoryManager memoryManager,
@@ -21,7 +21,11 @@
 
 package io.crate.execution.engine.collect;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
@@ -30,6 +34,7 @@ import org.elasticsearch.client.ElasticsearchClient;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
@@ -42,7 +47,13 @@ import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.SentinelRow;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.FilterProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.dsl.projection.Projections;
 import io.crate.execution.engine.collect.collectors.LuceneBatchIterator;
+import io.crate.execution.engine.collect.collectors.LuceneColumnarBatchIterator;
 import io.crate.execution.engine.collect.collectors.LuceneOrderedDocCollector;
 import io.crate.execution.engine.collect.collectors.OptimizeQueryForSearchAfter;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
@@ -50,6 +61,7 @@ import io.crate.execution.engine.export.FileOutputFactory;
 import io.crate.execution.engine.sort.LuceneSort;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.jobs.SharedShardContext;
+import io.crate.execution.support.ThreadPools;
 import io.crate.expression.InputFactory;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
@@ -73,6 +85,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     private final DocInputFactory docInputFactory;
     private final BigArrays bigArrays;
     private final RelationName relationName;
+    private final ThreadPoolExecutor searchExecutor;
+    private final IntSupplier availableThreads;
 
     private final LuceneReferenceResolver referenceResolver;
 
@@ -111,6 +125,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         );
         this.docInputFactory = new DocInputFactory(nodeCtx, referenceResolver);
         this.bigArrays = bigArrays;
+        this.searchExecutor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
+        this.availableThreads = ThreadPools.numIdleThreads(searchExecutor, EsExecutors.numberOfProcessors(settings));
     }
 
     @Override
@@ -136,6 +152,13 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             table,
             indexService.cache()
         );
+        if (queryContext.minScore() == null && consumesColumnBatches(collectPhase)) {
+            List<LuceneColumnarBatchIterator.Column> columns =
+                LuceneColumnarBatchIterator.columns(collectPhase.toCollect(), referenceResolver);
+            if (columns != null) {
+                return new LuceneColumnarBatchIterator(searcher.item(), queryContext.query(), columns);
+            }
+        }
         InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
             docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
 
@@ -150,6 +173,20 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         );
     }
 
+    /**
+     * @return true if the first shard projection can process {@link io.crate.data.columnar.ColumnBatch}es.
+     */
+    private static boolean consumesColumnBatches(RoutedCollectPhase collectPhase) {
+        Collection<? extends Projection> projections = Projections.shardProjections(collectPhase.projections());
+        if (projections.isEmpty()) {
+            return false;
+        }
+        Projection first = projections.iterator().next();
+        return first instanceof FilterProjection
+            || first instanceof AggregationProjection
+            || first instanceof GroupProjection;
+    }
+
     @Nullable
     @Override
     protected BatchIterator<Row> getProjectionFusedIterator(RoutedCollectPhase normalizedPhase, CollectTask collectTask) {
@@ -162,7 +199,9 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             new InputFactory(nodeCtx),
             docInputFactory,
             normalizedPhase,
-            collectTask
+            collectTask,
+            searchExecutor,
+            availableThreads
         );
         if (it != null) {
             return it;
@@ -187,7 +226,9 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             table,
             luceneQueryBuilder,
             normalizedPhase,
-            collectTask
+            collectTask,
+            searchExecutor,
+            availableThreads
         );
     }
 
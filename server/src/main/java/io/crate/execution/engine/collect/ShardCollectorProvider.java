@@ -93,7 +93,8 @@ public abstract class ShardCollectorProvider {
             t -> null,
             indexShard.indexSettings().getIndexVersionCreated(),
             indexShard.shardId(),
-            fileOutputFactoryMap
+            fileOutputFactoryMap,
+            null
         );
         this.batchIteratorFactory = new BatchIteratorFactory();
     }
@@ -0,0 +1,86 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.collectors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+
+/**
+ * A range of doc ids {@code [minDoc, maxDoc)} within a segment.
+ * Used to scan the segments of a shard with multiple threads.
+ */
+public record LeafPartition(LeafReaderContext leaf, int minDoc, int maxDoc) {
+
+    /**
+     * Minimum number of documents scanned by a thread. Smaller shards are scanned by a single thread.
+     */
+    public static final int MIN_DOCS_PER_PARTITION = 100_000;
+
+    /**
+     * Positions {@code docs} on the first document of the range
+     *
+     * @return the first doc id or a doc id {@code >= maxDoc} if the range contains no matching documents
+     */
+    public int firstDoc(DocIdSetIterator docs) throws IOException {
+        return minDoc == 0 ? docs.nextDoc() : docs.advance(minDoc);
+    }
+
+    /**
+     * Divides the segments into up to {@code numPartitions} groups with about the same number of documents.
+     * Large segments are split into doc id ranges, small segments are grouped together.
+     */
+    public static List<List<LeafPartition>> partition(List<LeafReaderContext> leaves,
+                                                      int numPartitions,
+                                                      int minDocsPerPartition) {
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        long docsPerPartition = Math.max(minDocsPerPartition, (totalDocs + numPartitions - 1) / Math.max(1, numPartitions));
+        List<List<LeafPartition>> partitions = new ArrayList<>();
+        List<LeafPartition> current = new ArrayList<>();
+        long currentDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            int maxDoc = leaf.reader().maxDoc();
+            int minDoc = 0;
+            while (minDoc < maxDoc) {
+                int numDocs = (int) Math.min(maxDoc - minDoc, docsPerPartition - currentDocs);
+                current.add(new LeafPartition(leaf, minDoc, minDoc + numDocs));
+                currentDocs += numDocs;
+                minDoc += numDocs;
+                if (currentDocs >= docsPerPartition) {
+                    partitions.add(current);
+                    current = new ArrayList<>();
+                    currentDocs = 0;
+                }
+            }
+        }
+        if (current.isEmpty() == false) {
+            partitions.add(current);
+        }
+        return partitions;
+    }
+}
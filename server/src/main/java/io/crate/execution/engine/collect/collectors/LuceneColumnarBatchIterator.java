@@ -0,0 +1,274 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.collectors;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.NumericUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.BatchIterator;
+import io.crate.data.columnar.AbstractColumnarBatchIterator;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.ColumnVector;
+import io.crate.data.columnar.DoubleVector;
+import io.crate.data.columnar.LongVector;
+import io.crate.exceptions.ArrayViaDocValuesUnsupportedException;
+import io.crate.expression.reference.doc.lucene.ByteColumnReference;
+import io.crate.expression.reference.doc.lucene.DoubleColumnReference;
+import io.crate.expression.reference.doc.lucene.FloatColumnReference;
+import io.crate.expression.reference.doc.lucene.IntegerColumnReference;
+import io.crate.expression.reference.doc.lucene.LongColumnReference;
+import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
+import io.crate.expression.reference.doc.lucene.ShortColumnReference;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Reference;
+import io.crate.types.ByteType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.ShortType;
+
+/**
+ * Columnar counterpart of {@link LuceneBatchIterator} for numeric columns with doc values.
+ * It reads the doc values of up to {@link #BATCH_SIZE} matching documents at a time into
+ * {@link ColumnVector}s, one per column to collect.
+ */
+public class LuceneColumnarBatchIterator extends AbstractColumnarBatchIterator {
+
+    static final int BATCH_SIZE = 1024;
+
+    private final IndexSearcher indexSearcher;
+    private final Query query;
+    private final List<Column> columns;
+    private final List<LeafReaderContext> leaves;
+    private final ColumnBatch batch;
+    private final int[] docs = new int[BATCH_SIZE];
+    private final SortedNumericDocValues[] docValues;
+
+    private Weight weight;
+    private Iterator<LeafReaderContext> leavesIt;
+    private LeafReaderContext currentLeaf;
+    private DocIdSetIterator currentDocIdSetIt;
+    private volatile Throwable killed;
+
+    /**
+     * A numeric column which is read from the doc values stored in {@code field}.
+     */
+    public record Column(String field, int typeId) {
+    }
+
+    /**
+     * @return the columns to read if all symbols are numeric columns with doc values, otherwise null.
+     */
+    @Nullable
+    public static List<Column> columns(List<Symbol> toCollect, LuceneReferenceResolver referenceResolver) {
+        List<Column> columns = new ArrayList<>(toCollect.size());
+        for (Symbol symbol : toCollect) {
+            if (!(symbol instanceof Reference ref)) {
+                return null;
+            }
+            // Resolves system and partition columns, columns without doc values and arrays to other expressions
+            LuceneCollectorExpression<?> expression = referenceResolver.getImplementation(ref);
+            boolean isNumericColumn = expression instanceof LongColumnReference
+                || expression instanceof IntegerColumnReference
+                || expression instanceof ShortColumnReference
+                || expression instanceof ByteColumnReference
+                || expression instanceof DoubleColumnReference
+                || expression instanceof FloatColumnReference;
+            if (!isNumericColumn) {
+                return null;
+            }
+            columns.add(new Column(ref.storageIdent(), ref.valueType().id()));
+        }
+        return columns;
+    }
+
+    public LuceneColumnarBatchIterator(IndexSearcher indexSearcher, Query query, List<Column> columns) {
+        this.indexSearcher = indexSearcher;
+        this.query = query;
+        this.columns = columns;
+        this.leaves = indexSearcher.getTopReaderContext().leaves();
+        this.leavesIt = leaves.iterator();
+        this.docValues = new SortedNumericDocValues[columns.size()];
+        ColumnVector[] vectors = new ColumnVector[columns.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = switch (columns.get(i).typeId()) {
+                case DoubleType.ID -> new DoubleVector(BATCH_SIZE);
+                case FloatType.ID -> new DoubleVector(BATCH_SIZE, value -> (float) value);
+                case IntegerType.ID -> new LongVector(BATCH_SIZE, value -> (int) value);
+                case ShortType.ID -> new LongVector(BATCH_SIZE, value -> (short) value);
+                case ByteType.ID -> new LongVector(BATCH_SIZE, value -> (byte) value);
+                default -> new LongVector(BATCH_SIZE);
+            };
+        }
+        this.batch = new ColumnBatch(vectors, BATCH_SIZE);
+    }
+
+    @Override
+    public boolean moveNextBatch() {
+        raiseIfKilled();
+        try {
+            if (weight == null) {
+                weight = indexSearcher.createWeight(indexSearcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+            }
+            while (tryAdvanceDocIdSetIterator()) {
+                int numDocs = collectDocs();
+                if (numDocs > 0) {
+                    readColumns(numDocs);
+                    batch.reset(numDocs);
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        currentLeaf = null;
+        return false;
+    }
+
+    private boolean tryAdvanceDocIdSetIterator() throws IOException {
+        if (currentDocIdSetIt != null) {
+            return true;
+        }
+        while (leavesIt.hasNext()) {
+            LeafReaderContext leaf = leavesIt.next();
+            Scorer scorer = weight.scorer(leaf);
+            if (scorer == null) {
+                continue;
+            }
+            currentLeaf = leaf;
+            currentDocIdSetIt = scorer.iterator();
+            for (int i = 0; i < docValues.length; i++) {
+                docValues[i] = DocValues.getSortedNumeric(leaf.reader(), columns.get(i).field());
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private int collectDocs() throws IOException {
+        Bits liveDocs = currentLeaf.reader().getLiveDocs();
+        int numDocs = 0;
+        while (numDocs < BATCH_SIZE) {
+            int doc = currentDocIdSetIt.nextDoc();
+            if (doc == DocIdSetIterator.NO_MORE_DOCS) {
+                // leaf is exhausted, continue with the next one on the next call
+                currentDocIdSetIt = null;
+                break;
+            }
+            if (liveDocs == null || liveDocs.get(doc)) {
+                docs[numDocs++] = doc;
+            }
+        }
+        return numDocs;
+    }
+
+    private void readColumns(int numDocs) throws IOException {
+        for (int c = 0; c < docValues.length; c++) {
+            SortedNumericDocValues values = docValues[c];
+            ColumnVector vector = batch.column(c);
+            int typeId = columns.get(c).typeId();
+            for (int i = 0; i < numDocs; i++) {
+                if (!values.advanceExact(docs[i])) {
+                    vector.setNull(i);
+                    continue;
+                }
+                if (values.docValueCount() > 1) {
+                    throw new ArrayViaDocValuesUnsupportedException(columns.get(c).field());
+                }
+                long value = values.nextValue();
+                switch (typeId) {
+                    case DoubleType.ID -> ((DoubleVector) vector).setDouble(i, NumericUtils.sortableLongToDouble(value));
+                    case FloatType.ID -> ((DoubleVector) vector).setDouble(i, NumericUtils.sortableIntToFloat((int) value));
+                    default -> ((LongVector) vector).setLong(i, value);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ColumnBatch currentBatch() {
+        return batch;
+    }
+
+    @Override
+    protected void moveBatchesToStart() {
+        raiseIfKilled();
+        leavesIt = leaves.iterator();
+        currentLeaf = null;
+        currentDocIdSetIt = null;
+    }
+
+    @Override
+    public void close() {
+        currentLeaf = null;
+        currentDocIdSetIt = null;
+        killed = BatchIterator.CLOSED;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        throw new IllegalStateException("BatchIterator already fully loaded");
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return true;
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return true;
+    }
+
+    @Override
+    protected void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        killed = throwable;
+    }
+}
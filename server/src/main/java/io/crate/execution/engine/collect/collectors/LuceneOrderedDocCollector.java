@@ -164,6 +164,8 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
             expression.setScorer(scorer);
         }
         ramAccounting.addBytes(batchSize * FIELD_DOC_SIZE);
+        // If the segments are sorted by a prefix of `sort` (see `sorted_by` table parameter),
+        // the collector terminates early per segment once `batchSize` hits were collected.
         TopFieldCollectorManager topFieldCollectorManager = new TopFieldCollectorManager(
             sort,
             batchSize,
@@ -38,6 +38,29 @@ public interface FileInput extends AutoCloseable {
 
     InputStream getStream(URI uri) throws IOException;
 
+    /**
+     * Opens the stream of {@code uri} positioned at the given byte offset.
+     * Implementations supporting random access should override this to avoid reading the skipped bytes.
+     */
+    default InputStream getStream(URI uri, long position) throws IOException {
+        InputStream stream = getStream(uri);
+        try {
+            stream.skipNBytes(position);
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+        return stream;
+    }
+
+    /**
+     * @return the size of {@code uri} in bytes or -1 if it is unknown.
+     *         Only files with a known size can be split into byte ranges read in parallel.
+     */
+    default long size(URI uri) throws IOException {
+        return -1;
+    }
+
     boolean isGlobbed();
 
     URI uri();
@@ -23,6 +23,7 @@ package io.crate.execution.engine.collect.files;
 
 import static io.crate.common.exceptions.Exceptions.rethrowUnchecked;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,8 +33,10 @@ import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -54,6 +57,9 @@ import org.jetbrains.annotations.VisibleForTesting;
 import io.crate.common.exceptions.Exceptions;
 import io.crate.common.unit.TimeValue;
 import io.crate.data.BatchIterator;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.compress.LZ4FrameInputStream;
+import io.crate.execution.engine.parquet.ParquetReader;
 
 /**
  * BatchIterator to read lines from one or more {@link URI}s.
@@ -70,6 +76,18 @@ import io.crate.data.BatchIterator;
  * </p>
  *
  * <p>
+ * Uncompressed files larger than the split size are divided into byte ranges aligned to line boundaries
+ * (see {@link FileSplit}). Whole files and splits are distributed across the readers of all nodes
+ * (with shared storage) and across the reader threads of a node, so that a single large file can be
+ * read in parallel.
+ * </p>
+ *
+ * <p>
+ * Parquet files are read using a {@link ParquetReader}, their records are exposed as {@link LineCursor#record()}
+ * instead of lines. They are split by row group.
+ * </p>
+ *
+ * <p>
  * The file content is exposed via a shared {@link LineCursor}
  * It's properties are mutated after each {@link #moveNext()} call.
  * Use {@link LineCursor#copy()} if you need an instance that's not shared.
@@ -84,22 +102,46 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     @VisibleForTesting
     static final int MAX_SOCKET_TIMEOUT_RETRIES = 5;
 
-    private static final Predicate<URI> MATCH_ALL_PREDICATE = (URI input) -> true;
-
     private final Map<String, FileInputFactory> fileInputFactories;
     private final Boolean shared;
     private final int numReaders;
     private final int readerNumber;
+    private final int numThreads;
+    private final int threadNumber;
+    private final long splitSize;
+    private final Predicate<URI> hasHeaderLine;
+    private final Predicate<URI> isParquet;
+    private final List<String> parquetColumns;
+    private final RamAccounting ramAccounting;
     private final boolean compressed;
+    private final boolean lz4;
     private final List<FileInput> fileInputs;
 
     private volatile Throwable killed;
 
     private Iterator<FileInput> fileInputsIterator = null;
     private FileInput currentInput = null;
-    private Iterator<URI> currentInputUriIterator = null;
+    private Iterator<FileSplit> currentInputSplitIterator = null;
+    private FileSplit currentSplit = null;
     private BufferedReader currentReader = null;
 
+    @Nullable
+    private ParquetReader parquetReader = null;
+    @Nullable
+    private URI parquetReaderUri = null;
+    @Nullable
+    private ParquetReader.RecordReader currentRecordReader = null;
+    @Nullable
+    private Iterator<Integer> currentRowGroups = null;
+
+    /**
+     * Header line of a CSV file which is emitted before the lines of a split which doesn't start at the
+     * beginning of the file, if it is the first split read by this iterator.
+     */
+    @Nullable
+    private String pendingHeaderLine = null;
+    private boolean emittedLine = false;
+
     @VisibleForTesting
     long watermark;
 
@@ -107,19 +149,42 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     private final ScheduledExecutorService scheduler;
     private final Iterator<TimeValue> backOffPolicy;
 
+    /**
+     * A byte range of a file. Contains all lines starting within {@code [start, end)}.
+     * {@code end} is -1 if the split covers the whole file.
+     * For Parquet files a split is a row group and {@code index} is the number of the row group.
+     */
+    @VisibleForTesting
+    record FileSplit(URI uri, int index, long start, long end) {
+
+        static FileSplit wholeFile(URI uri) {
+            return new FileSplit(uri, 0, 0, -1);
+        }
+    }
+
     public static class LineCursor {
         private URI uri;
         private long lineNumber;
         private String line;
+        private LinkedHashMap<String, Object> record;
         private IOException failure;
 
         public LineCursor() {
         }
 
         public LineCursor(URI uri, long lineNumber, @Nullable String line, @Nullable IOException failure) {
+            this(uri, lineNumber, line, null, failure);
+        }
+
+        public LineCursor(URI uri,
+                          long lineNumber,
+                          @Nullable String line,
+                          @Nullable LinkedHashMap<String, Object> record,
+                          @Nullable IOException failure) {
             this.uri = uri;
             this.lineNumber = lineNumber;
             this.line = line;
+            this.record = record;
             this.failure = failure;
         }
 
@@ -136,6 +201,15 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             return line;
         }
 
+        /**
+         * The current record of a Parquet file, null for line based formats.
+         * For Parquet files the line number is the number of the record within the file.
+         */
+        @Nullable
+        public LinkedHashMap<String, Object> record() {
+            return record;
+        }
+
         @Nullable
         public IOException failure() {
             return failure;
@@ -143,17 +217,18 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
 
         @VisibleForTesting
         public LineCursor copy() {
-            return new LineCursor(uri, lineNumber, line, failure);
+            return new LineCursor(uri, lineNumber, line, record, failure);
         }
 
         @Override
         public String toString() {
-            return "LineCursor{" + uri + ":" + lineNumber + ":line=" + line + ", failure=" + failure + "}";
+            return "LineCursor{" + uri + ":" + lineNumber + ":line=" + line + ", record=" + record
+                + ", failure=" + failure + "}";
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(uri, lineNumber, line, failure);
+            return Objects.hash(uri, lineNumber, line, record, failure);
         }
 
         @Override
@@ -171,6 +246,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             return Objects.equals(uri, other.uri)
                 && lineNumber == other.lineNumber
                 && Objects.equals(line, other.line)
+                && Objects.equals(record, other.record)
                 && Objects.equals(failure, other.failure);
         }
     }
@@ -183,12 +259,61 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
                                int readerNumber,
                                Settings withClauseOptions,
                                ScheduledExecutorService scheduler) {
-        this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
+        this(fileUris,
+             compression,
+             fileInputFactories,
+             shared,
+             numReaders,
+             readerNumber,
+             1,
+             0,
+             -1,
+             uri -> false,
+             uri -> false,
+             List.of(),
+             RamAccounting.NO_ACCOUNTING,
+             withClauseOptions,
+             scheduler);
+    }
+
+    /**
+     * @param numThreads number of iterators reading the files on this node, may differ between the nodes
+     * @param threadNumber number of this iterator within the iterators of the node, in {@code [0, numThreads)}
+     * @param splitSize size of the byte ranges in which uncompressed files are split. -1 disables splitting.
+     * @param hasHeaderLine whether the first line of a file is a header which must precede the lines of every split
+     * @param isParquet whether a file is read as Parquet file
+     * @param parquetColumns top-level columns read from Parquet files, all columns are read if empty
+     * @param ramAccounting accounts the column chunks of the Parquet row group which is read
+     */
+    public FileReadingIterator(Collection<URI> fileUris,
+                               String compression,
+                               Map<String, FileInputFactory> fileInputFactories,
+                               Boolean shared,
+                               int numReaders,
+                               int readerNumber,
+                               int numThreads,
+                               int threadNumber,
+                               long splitSize,
+                               Predicate<URI> hasHeaderLine,
+                               Predicate<URI> isParquet,
+                               List<String> parquetColumns,
+                               RamAccounting ramAccounting,
+                               Settings withClauseOptions,
+                               ScheduledExecutorService scheduler) {
+        this.lz4 = compression != null && compression.equalsIgnoreCase("lz4");
+        this.compressed = lz4 || (compression != null && compression.equalsIgnoreCase("gzip"));
         this.fileInputFactories = fileInputFactories;
         this.cursor = new LineCursor();
         this.shared = shared;
         this.numReaders = numReaders;
         this.readerNumber = readerNumber;
+        this.numThreads = numThreads;
+        this.threadNumber = threadNumber;
+        this.splitSize = splitSize;
+        this.hasHeaderLine = hasHeaderLine;
+        this.isParquet = isParquet;
+        this.parquetColumns = parquetColumns;
+        this.ramAccounting = ramAccounting;
         this.scheduler = scheduler;
         this.backOffPolicy = BackoffPolicy.exponentialBackoff(TimeValue.ZERO, MAX_SOCKET_TIMEOUT_RETRIES).iterator();
 
@@ -214,6 +339,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         raiseIfKilled();
         reset();
         watermark = 0;
+        emittedLine = false;
         fileInputsIterator = fileInputs.iterator();
     }
 
@@ -221,7 +347,26 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     public boolean moveNext() {
         raiseIfKilled();
         try {
-            if (currentReader != null) {
+            if (pendingHeaderLine != null) {
+                cursor.line = pendingHeaderLine;
+                cursor.record = null;
+                cursor.failure = null;
+                pendingHeaderLine = null;
+                emittedLine = true;
+                return true;
+            }
+            if (currentRecordReader != null) {
+                LinkedHashMap<String, Object> record = nextRecord();
+                if (record == null) {
+                    closeReader();
+                    return moveNext();
+                }
+                cursor.line = null;
+                cursor.record = record;
+                cursor.failure = null;
+                emittedLine = true;
+                return true;
+            } else if (currentReader != null) {
                 String line;
                 try {
                     line = getLine(currentReader);
@@ -236,10 +381,12 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
                     return moveNext();
                 }
                 cursor.line = line;
+                cursor.record = null;
                 cursor.failure = null;
+                emittedLine = true;
                 return true;
-            } else if (currentInputUriIterator != null && currentInputUriIterator.hasNext()) {
-                advanceToNextUri(currentInput);
+            } else if (currentInputSplitIterator != null && currentInputSplitIterator.hasNext()) {
+                advanceToNextSplit(currentInput);
                 return moveNext();
             } else if (fileInputsIterator != null && fileInputsIterator.hasNext()) {
                 advanceToNextFileInput();
@@ -249,6 +396,8 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
                 return false;
             }
         } catch (IOException e) {
+            cursor.line = null;
+            cursor.record = null;
             cursor.failure = e;
             closeReader();
             // If IOError happens on file opening, let consumers collect the error
@@ -260,41 +409,205 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         }
     }
 
-    private void advanceToNextUri(FileInput fileInput) throws IOException {
+    private void advanceToNextSplit(FileInput fileInput) throws IOException {
         watermark = 0;
-        createReader(fileInput, currentInputUriIterator.next());
+        currentSplit = currentInputSplitIterator.next();
+        createReader(fileInput, currentSplit);
+        if (currentSplit.start() > 0 && emittedLine == false && hasHeaderLine.test(currentSplit.uri())) {
+            pendingHeaderLine = readFirstLine(fileInput, currentSplit.uri());
+        }
     }
 
     private void advanceToNextFileInput() throws IOException {
         currentInput = fileInputsIterator.next();
-        List<URI> uris = currentInput.expandUri().stream().filter(this::shouldBeReadByCurrentNode).toList();
-        if (uris.size() > 0) {
-            currentInputUriIterator = uris.iterator();
-            advanceToNextUri(currentInput);
-        } else if (currentInput.isGlobbed()) {
+        List<URI> uris = currentInput.expandUri();
+        List<FileSplit> splits = new ArrayList<>();
+        for (URI uri : uris) {
+            List<FileSplit> uriSplits = isParquet.test(uri)
+                ? parquetSplits(currentInput, uri)
+                : splits(uri, size(currentInput, uri), compressed ? -1 : splitSize);
+            for (FileSplit split : uriSplits) {
+                if (shouldBeReadByCurrentReader(split)) {
+                    splits.add(split);
+                }
+            }
+        }
+        if (splits.size() > 0) {
+            currentInputSplitIterator = splits.iterator();
+            advanceToNextSplit(currentInput);
+        } else if (uris.isEmpty() && currentInput.isGlobbed() && threadNumber == 0) {
             URI uri = currentInput.uri();
             cursor.uri = uri;
             throw new IOException("Cannot find any URI matching: " + uri.toString());
         }
     }
 
-    private boolean shouldBeReadByCurrentNode(URI uri) {
+    private static long size(FileInput fileInput, URI uri) {
+        try {
+            return fileInput.size(uri);
+        } catch (IOException e) {
+            // Read the file as a whole, errors are raised once it is opened
+            return -1;
+        }
+    }
+
+    @VisibleForTesting
+    static List<FileSplit> splits(URI uri, long size, long splitSize) {
+        if (splitSize <= 0 || size <= splitSize) {
+            return List.of(FileSplit.wholeFile(uri));
+        }
+        int numSplits = Math.toIntExact((size + splitSize - 1) / splitSize);
+        List<FileSplit> splits = new ArrayList<>(numSplits);
+        for (int i = 0; i < numSplits; i++) {
+            long start = i * splitSize;
+            splits.add(new FileSplit(uri, i, start, Math.min(size, start + splitSize)));
+        }
+        return splits;
+    }
+
+    /**
+     * Splits Parquet files by row group. Requires reading the footer, if it can't be read the
+     * file is read as a whole and the error is raised when the file is read.
+     */
+    private List<FileSplit> parquetSplits(FileInput fileInput, URI uri) {
+        if (splitSize <= 0) {
+            return List.of(FileSplit.wholeFile(uri));
+        }
+        ParquetReader reader;
+        try {
+            reader = openParquetReader(fileInput, uri);
+        } catch (IOException e) {
+            return List.of(FileSplit.wholeFile(uri));
+        }
+        int numRowGroups = reader.numRowGroups();
+        if (numRowGroups <= 1) {
+            return List.of(FileSplit.wholeFile(uri));
+        }
+        List<FileSplit> splits = new ArrayList<>(numRowGroups);
+        for (int i = 0; i < numRowGroups; i++) {
+            splits.add(new FileSplit(uri, i, reader.rowGroupStart(i), reader.rowGroupEnd(i)));
+        }
+        return splits;
+    }
+
+    private ParquetReader openParquetReader(FileInput fileInput, URI uri) throws IOException {
+        if (parquetReader == null || !uri.equals(parquetReaderUri)) {
+            closeParquetReader();
+            parquetReader = ParquetReader.open(
+                size(fileInput, uri),
+                position -> position == 0 ? fileInput.getStream(uri) : fileInput.getStream(uri, position),
+                ramAccounting
+            );
+            parquetReaderUri = uri;
+        }
+        return parquetReader;
+    }
+
+    private void closeParquetReader() {
+        if (parquetReader != null) {
+            parquetReader.close();
+        }
+        parquetReader = null;
+        parquetReaderUri = null;
+    }
+
+    @Nullable
+    private LinkedHashMap<String, Object> nextRecord() throws IOException {
+        while (true) {
+            LinkedHashMap<String, Object> record = currentRecordReader.nextRecord();
+            if (record != null) {
+                cursor.lineNumber++;
+                return record;
+            }
+            if (!currentRowGroups.hasNext()) {
+                return null;
+            }
+            startRowGroup(currentRowGroups.next());
+        }
+    }
+
+    private void startRowGroup(int rowGroup) throws IOException {
+        assert parquetReader != null : "parquetReader must be open to read a row group";
+        cursor.lineNumber = parquetReader.firstRowNumber(rowGroup);
+        // Release the column chunks of the previous row group before the next one is loaded
+        currentRecordReader.close();
+        currentRecordReader = parquetReader.readRowGroup(rowGroup, parquetColumns);
+    }
+
+    private boolean shouldBeReadByCurrentReader(FileSplit split) {
+        int hash = split.uri().hashCode() + split.index();
+        if (hash == Integer.MIN_VALUE) {
+            hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
+        }
+        hash = Math.abs(hash);
         boolean sharedStorage = Objects.requireNonNullElse(shared, currentInput.sharedStorageDefault());
         if (sharedStorage) {
-            return moduloPredicateImpl(uri, this.readerNumber, this.numReaders);
-        } else {
-            return MATCH_ALL_PREDICATE.test(uri);
+            // The number of threads can differ between the nodes, so the splits are assigned to the nodes first
+            // and then distributed across the threads of the node
+            if (hash % numReaders != readerNumber) {
+                return false;
+            }
+            hash = hash / numReaders;
         }
+        return hash % numThreads == threadNumber;
     }
 
-    private void createReader(FileInput fileInput, URI uri) throws IOException {
-        cursor.uri = uri;
+    private void createReader(FileInput fileInput, FileSplit split) throws IOException {
+        cursor.uri = split.uri();
         cursor.lineNumber = 0;
-        InputStream stream = fileInput.getStream(uri);
+        if (isParquet.test(split.uri())) {
+            ParquetReader reader = openParquetReader(fileInput, split.uri());
+            List<Integer> rowGroups = new ArrayList<>();
+            if (split.end() < 0) {
+                for (int i = 0; i < reader.numRowGroups(); i++) {
+                    rowGroups.add(i);
+                }
+            } else {
+                rowGroups.add(split.index());
+            }
+            currentRowGroups = rowGroups.iterator();
+            currentRecordReader = ParquetReader.RecordReader.EMPTY;
+            return;
+        }
+        InputStream stream;
+        if (split.end() < 0) {
+            stream = fileInput.getStream(split.uri());
+        } else if (split.start() == 0) {
+            stream = new LineRangeInputStream(fileInput.getStream(split.uri()), split.end());
+        } else {
+            // Start at the byte before the split and skip the rest of the line that belongs to the previous split.
+            // If that byte is a newline, the split starts with a new line and nothing else is skipped.
+            InputStream in = new BufferedInputStream(fileInput.getStream(split.uri(), split.start() - 1));
+            long position = split.start() - 1;
+            int b;
+            try {
+                while ((b = in.read()) != -1) {
+                    position++;
+                    if (b == '\n') {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+            stream = new LineRangeInputStream(in, split.end() - position);
+        }
         currentReader = createBufferedReader(stream);
     }
 
+    private String readFirstLine(FileInput fileInput, URI uri) throws IOException {
+        try (BufferedReader reader = createBufferedReader(fileInput.getStream(uri))) {
+            return reader.readLine();
+        }
+    }
+
     private void closeReader() {
+        if (currentRecordReader != null) {
+            currentRecordReader.close();
+        }
+        currentRecordReader = null;
+        currentRowGroups = null;
         if (currentReader != null) {
             try {
                 currentReader.close();
@@ -324,7 +637,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             if (backOffPolicy.hasNext()) {
                 watermark = watermark == 0 ? cursor.lineNumber + 1 : watermark;
                 closeReader();
-                createReader(currentInput, cursor.uri);
+                createReader(currentInput, currentSplit);
             } else {
                 URI uri = currentInput.uri();
                 LOGGER.error("Timeout during COPY FROM '" + uri.toString() +
@@ -346,12 +659,16 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     public void close() {
         closeReader();
         reset();
+        ramAccounting.release();
         killed = BatchIterator.CLOSED;
     }
 
     private void reset() {
         fileInputsIterator = null;
-        currentInputUriIterator = null;
+        currentInputSplitIterator = null;
+        currentSplit = null;
+        pendingHeaderLine = null;
+        closeParquetReader();
         if (currentInput != null) {
             currentInput.close();
         }
@@ -417,8 +734,8 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     BufferedReader createBufferedReader(InputStream inputStream) throws IOException {
         BufferedReader reader;
         if (compressed) {
-            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(inputStream),
-                StandardCharsets.UTF_8));
+            InputStream decompressed = lz4 ? new LZ4FrameInputStream(inputStream) : new GZIPInputStream(inputStream);
+            reader = new BufferedReader(new InputStreamReader(decompressed, StandardCharsets.UTF_8));
         } else {
             reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
         }
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 import io.crate.analyze.CopyFromParserProperties;
@@ -97,18 +98,28 @@ public final class LineProcessor extends MappedForwardingBatchIterator<LineCurso
         }
     }
 
-    private static boolean isCSV(FileUriCollectPhase.InputFormat inputFormat, URI currentUri) {
+    public static boolean isCSV(FileUriCollectPhase.InputFormat inputFormat, URI currentUri) {
         return (inputFormat == FileUriCollectPhase.InputFormat.CSV) || currentUri.toString().endsWith(".csv");
     }
 
+    public static boolean isParquet(FileUriCollectPhase.InputFormat inputFormat, URI currentUri) {
+        return (inputFormat == FileUriCollectPhase.InputFormat.PARQUET) || currentUri.toString().endsWith(".parquet");
+    }
+
     @Override
     public boolean moveNext() {
         try {
             while (source.moveNext()) {
                 LineCursor cursor = source.currentElement();
+                LinkedHashMap<String, Object> record = cursor.record();
+                if (record != null) {
+                    lineContext.resetCurrentParsingFailure();
+                    lineContext.source(record);
+                    return true;
+                }
                 String line = cursor.line();
                 if (line == null) {
-                    assert cursor.failure() != null : "If the line is null, there must be a failure";
+                    assert cursor.failure() != null : "If the line and record are null, there must be a failure";
                     return true;
                 }
                 if (firstLine) {
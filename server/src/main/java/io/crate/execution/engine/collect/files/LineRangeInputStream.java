@@ -0,0 +1,110 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Limits a stream to the lines starting within a byte range of a file.
+ *
+ * <p>
+ * The wrapped stream must be positioned at the beginning of a line. After {@code length} bytes the stream continues
+ * until the end of the current line, so that a line crossing the end of the range is read completely. A line
+ * starting exactly at the end of the range belongs to the next range and isn't returned.
+ * </p>
+ */
+final class LineRangeInputStream extends FilterInputStream {
+
+    private long remaining;
+    private int lastByte = '\n';
+
+    LineRangeInputStream(InputStream in, long length) {
+        super(in);
+        this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0 && lastByte == '\n') {
+            return -1;
+        }
+        int b = in.read();
+        if (b == -1) {
+            lastByte = '\n';
+            return -1;
+        }
+        remaining--;
+        lastByte = b;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (remaining <= 0) {
+            // Finish the line crossing the end of the range byte by byte to not read beyond its end
+            int n = 0;
+            int next;
+            while (n < len && (next = read()) != -1) {
+                b[off + n] = (byte) next;
+                n++;
+                if (next == '\n') {
+                    break;
+                }
+            }
+            return n == 0 ? -1 : n;
+        }
+        int n = in.read(b, off, (int) Math.min(len, remaining));
+        if (n == -1) {
+            lastByte = '\n';
+            return -1;
+        }
+        remaining -= n;
+        if (n > 0) {
+            lastByte = b[off + n - 1];
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && read() != -1) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Math.max(remaining, 0), in.available());
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RowAccounting;
+
+/**
+ * Reads and materializes up to {@code batchSize} rows of the source within {@link #loadNextBatch()}.
+ *
+ * <p>
+ * Used to move the reading and parsing of lines into {@code loadNextBatch}, so that
+ * {@link io.crate.data.CompositeBatchIterator#asyncComposite} can run multiple
+ * {@link LineProcessor}s concurrently while a single consumer processes the rows.
+ * The buffered rows are accounted with the given {@link RowAccounting} until the next batch is read.
+ * </p>
+ *
+ * <p>
+ * If a {@code readExecutor} is given, the rows are read on it instead of the thread calling
+ * {@code loadNextBatch}. This is used for sources which can block for an undetermined time, like the data of a
+ * {@code COPY FROM STDIN} which is streamed by the client, so that they don't occupy the threads of the pool
+ * running the consumer. The executor isn't owned by the iterator.
+ * </p>
+ */
+public final class ReadAheadBatchIterator implements BatchIterator<Row> {
+
+    private final BatchIterator<Row> source;
+    private final int batchSize;
+    private final List<Object[]> rows;
+    private final RowN row;
+    private final RowAccounting<Object[]> rowAccounting;
+    @Nullable
+    private final Executor readExecutor;
+
+    private int idx = -1;
+    private boolean sourceExhausted = false;
+
+    public ReadAheadBatchIterator(BatchIterator<Row> source, int batchSize, RowAccounting<Object[]> rowAccounting) {
+        this(source, batchSize, rowAccounting, null);
+    }
+
+    public ReadAheadBatchIterator(BatchIterator<Row> source,
+                                  int batchSize,
+                                  RowAccounting<Object[]> rowAccounting,
+                                  @Nullable Executor readExecutor) {
+        assert batchSize > 0 : "batchSize must be greater than 0";
+        this.source = source;
+        this.batchSize = batchSize;
+        this.rows = new ArrayList<>(batchSize);
+        this.row = new RowN(source.currentElement().numColumns());
+        this.rowAccounting = rowAccounting;
+        this.readExecutor = readExecutor;
+    }
+
+    @Override
+    public Row currentElement() {
+        return row;
+    }
+
+    @Override
+    public void moveToStart() {
+        source.moveToStart();
+        rows.clear();
+        rowAccounting.release();
+        idx = -1;
+        sourceExhausted = false;
+    }
+
+    @Override
+    public boolean moveNext() {
+        if (idx + 1 < rows.size()) {
+            idx++;
+            row.cells(rows.get(idx));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        rows.clear();
+        rowAccounting.release();
+        source.close();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        if (sourceExhausted) {
+            throw new IllegalStateException("BatchIterator already fully loaded");
+        }
+        if (readExecutor == null) {
+            return readAhead();
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return readAhead();
+            } catch (Exception e) {
+                throw Exceptions.toRuntimeException(e);
+            }
+        }, readExecutor).thenCompose(f -> f);
+    }
+
+    private CompletionStage<?> readAhead() throws Exception {
+        rows.clear();
+        rowAccounting.release();
+        idx = -1;
+        while (rows.size() < batchSize) {
+            if (source.moveNext()) {
+                Object[] cells = source.currentElement().materialize();
+                rowAccounting.accountForAndMaybeBreak(cells);
+                rows.add(cells);
+            } else if (source.allLoaded()) {
+                sourceExhausted = true;
+                break;
+            } else if (rows.isEmpty()) {
+                return source.loadNextBatch();
+            } else {
+                break;
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return sourceExhausted;
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        source.kill(throwable);
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return true;
+    }
+}
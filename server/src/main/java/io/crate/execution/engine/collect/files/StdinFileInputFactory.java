@@ -0,0 +1,135 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.elasticsearch.common.settings.Settings;
+
+/**
+ * Provides the data a client streams with {@code COPY ... FROM STDIN} to the {@link FileReadingIterator}.
+ * <p>
+ * The session of the client registers the stream under the jobId of the statement before it is executed.
+ * The stream is then read on the handler node via the {@code stdin:///<jobId>} URI.
+ * </p>
+ */
+public class StdinFileInputFactory implements FileInputFactory {
+
+    public static final String NAME = "stdin";
+
+    private final Map<UUID, InputStream> streams = new ConcurrentHashMap<>();
+
+    public static String uri(UUID jobId) {
+        return NAME + ":///" + jobId;
+    }
+
+    public void register(UUID jobId, InputStream stream) {
+        InputStream previous = streams.putIfAbsent(jobId, stream);
+        if (previous != null) {
+            throw new IllegalStateException("A STDIN stream is already registered for job " + jobId);
+        }
+    }
+
+    public void unregister(UUID jobId) {
+        streams.remove(jobId);
+    }
+
+    /**
+     * Closes the stream registered for the given {@code stdin} URI, a read waiting for data of the client fails.
+     */
+    public void close(URI uri) {
+        InputStream stream;
+        try {
+            stream = streams.get(jobId(uri));
+        } catch (IOException e) {
+            // Nothing is registered for an invalid URI
+            return;
+        }
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static UUID jobId(URI uri) throws IOException {
+        try {
+            return UUID.fromString(uri.getPath().substring(1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Invalid STDIN URI: " + uri, e);
+        }
+    }
+
+    @Override
+    public FileInput create(URI uri, Settings withClauseOptions) {
+        return new StdinFileInput(uri);
+    }
+
+    private class StdinFileInput implements FileInput {
+
+        private final URI uri;
+
+        StdinFileInput(URI uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public List<URI> expandUri() {
+            return List.of(uri);
+        }
+
+        @Override
+        public InputStream getStream(URI uri) throws IOException {
+            UUID jobId = jobId(uri);
+            InputStream stream = streams.get(jobId);
+            if (stream == null) {
+                throw new IOException("No STDIN stream found for job " + jobId);
+            }
+            return stream;
+        }
+
+        @Override
+        public boolean isGlobbed() {
+            return false;
+        }
+
+        @Override
+        public URI uri() {
+            return uri;
+        }
+
+        @Override
+        public boolean sharedStorageDefault() {
+            return false;
+        }
+    }
+}
@@ -21,39 +21,56 @@
 
 package io.crate.execution.engine.collect.sources;
 
+import static io.crate.execution.support.ThreadPools.numIdleThreads;
 import static java.util.Objects.requireNonNull;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
 
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.jetbrains.annotations.NotNull;
 
 import io.crate.analyze.AnalyzedCopyFrom;
 import io.crate.analyze.CopyFromParserProperties;
 import io.crate.analyze.SymbolEvaluator;
 import org.jetbrains.annotations.VisibleForTesting;
+import io.crate.breaker.TypedCellsAccounting;
 import io.crate.data.BatchIterator;
+import io.crate.data.CompositeBatchIterator;
+import io.crate.data.ForwardingBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.SkippingBatchIterator;
+import io.crate.data.breaker.RowAccounting;
 import io.crate.exceptions.UnauthorizedException;
 import io.crate.execution.dsl.phases.CollectPhase;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
+import io.crate.execution.dsl.projection.SourceIndexWriterReturnSummaryProjection;
 import io.crate.execution.engine.collect.CollectTask;
 import io.crate.execution.engine.collect.files.FileInputFactory;
 import io.crate.execution.engine.collect.files.FileReadingIterator;
 import io.crate.execution.engine.collect.files.LineCollectorExpression;
 import io.crate.execution.engine.collect.files.LineProcessor;
+import io.crate.execution.engine.collect.files.ReadAheadBatchIterator;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
 import io.crate.expression.InputFactory;
 import io.crate.expression.reference.file.FileLineReferenceResolver;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.NodeContext;
 import io.crate.metadata.TransactionContext;
 import io.crate.planner.operators.SubQueryResults;
@@ -64,12 +81,26 @@ import io.crate.types.DataTypes;
 @Singleton
 public class FileCollectSource implements CollectSource {
 
+    /**
+     * Uncompressed files larger than this are split into byte ranges which are read in parallel
+     */
+    @VisibleForTesting
+    static final long SPLIT_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Number of rows each reader thread reads and parses ahead of the consumer
+     */
+    private static final int READ_AHEAD_ROWS = 1000;
+
     private final ClusterService clusterService;
     private final Map<String, FileInputFactory> fileInputFactoryMap;
     private final InputFactory inputFactory;
     private final NodeContext nodeCtx;
     private final ThreadPool threadPool;
     private final Roles roles;
+    private final int numProcessors;
+    private final ThreadPoolExecutor executor;
+    private final IntSupplier availableThreads;
 
     @Inject
     public FileCollectSource(NodeContext nodeCtx,
@@ -83,6 +114,9 @@ public class FileCollectSource implements CollectSource {
         this.clusterService = clusterService;
         this.threadPool = threadPool;
         this.roles = roles;
+        this.numProcessors = EsExecutors.numberOfProcessors(clusterService.getSettings());
+        this.executor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
+        this.availableThreads = numIdleThreads(executor, numProcessors);
     }
 
     @Override
@@ -91,10 +125,6 @@ public class FileCollectSource implements CollectSource {
                                                              CollectTask collectTask,
                                                              boolean supportMoveToStart) {
         FileUriCollectPhase fileUriCollectPhase = (FileUriCollectPhase) collectPhase;
-        InputFactory.Context<LineCollectorExpression<?>> ctx =
-            inputFactory.ctxForRefs(txnCtx, FileLineReferenceResolver::getImplementation);
-        ctx.add(collectPhase.toCollect());
-
         Role user = requireNonNull(roles.findUser(txnCtx.sessionSettings().userName()), "User who invoked a statement must exist");
         List<URI> fileUris = targetUriToStringList(txnCtx, nodeCtx, fileUriCollectPhase.targetUri()).stream()
             .map(s -> {
@@ -105,28 +135,171 @@ public class FileCollectSource implements CollectSource {
                 return uri;
             })
             .toList();
-        FileReadingIterator fileReadingIterator = new FileReadingIterator(
+        CopyFromParserProperties parserProperties = fileUriCollectPhase.parserProperties();
+        int readerNumber = getReaderNumber(fileUriCollectPhase.nodeIds(), clusterService.state().nodes().getLocalNodeId());
+        Predicate<URI> isParquet = uri -> LineProcessor.isParquet(fileUriCollectPhase.inputFormat(), uri);
+        List<String> parquetColumns = topLevelColumns(fileUriCollectPhase.targetColumns());
+        if (fileUris.stream().anyMatch(uri -> StdinFileInputFactory.NAME.equals(uri.getScheme()))) {
+            return CompletableFuture.completedFuture(
+                stdinIterator(txnCtx, fileUriCollectPhase, collectTask, fileUris, readerNumber));
+        }
+        if (parserProperties.skipNumLines() > 0) {
+            // Lines are skipped at the beginning of the iterator, which must therefore read the files sequentially
+            FileReadingIterator fileReadingIterator = new FileReadingIterator(
+                fileUris,
+                fileUriCollectPhase.compression(),
+                fileInputFactoryMap,
+                fileUriCollectPhase.sharedStorage(),
+                fileUriCollectPhase.nodeIds().size(),
+                readerNumber,
+                1,
+                0,
+                -1,
+                uri -> false,
+                isParquet,
+                parquetColumns,
+                collectTask.getRamAccounting(),
+                fileUriCollectPhase.withClauseOptions(),
+                threadPool.scheduler()
+            );
+            return CompletableFuture.completedFuture(lineProcessor(
+                txnCtx,
+                fileUriCollectPhase,
+                new SkippingBatchIterator<>(fileReadingIterator, (int) parserProperties.skipNumLines())
+            ));
+        }
+
+        // Line numbers are counted from the start of a split, RETURN SUMMARY requires them to refer to the whole file
+        boolean returnSummary = collectPhase.projections().stream()
+            .anyMatch(p -> p instanceof SourceIndexWriterReturnSummaryProjection);
+        long splitSize = returnSummary ? -1 : SPLIT_SIZE;
+        Predicate<URI> hasHeaderLine = uri -> parserProperties.fileHeader()
+            && LineProcessor.isCSV(fileUriCollectPhase.inputFormat(), uri)
+            && !isParquet.test(uri);
+        int numThreads = Math.max(1, numProcessors);
+        List<BatchIterator<Row>> iterators = new ArrayList<>(numThreads);
+        for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
+            FileReadingIterator fileReadingIterator = new FileReadingIterator(
+                fileUris,
+                fileUriCollectPhase.compression(),
+                fileInputFactoryMap,
+                fileUriCollectPhase.sharedStorage(),
+                fileUriCollectPhase.nodeIds().size(),
+                readerNumber,
+                numThreads,
+                threadNumber,
+                splitSize,
+                hasHeaderLine,
+                isParquet,
+                parquetColumns,
+                collectTask.getRamAccounting(),
+                fileUriCollectPhase.withClauseOptions(),
+                threadPool.scheduler()
+            );
+            LineProcessor lineProcessor = lineProcessor(txnCtx, fileUriCollectPhase, fileReadingIterator);
+            iterators.add(numThreads == 1 ? lineProcessor : readAhead(fileUriCollectPhase, collectTask, lineProcessor));
+        }
+        return CompletableFuture.completedFuture(
+            CompositeBatchIterator.asyncComposite(executor, availableThreads, iterators));
+    }
+
+    /**
+     * The data of a {@code COPY FROM STDIN} is read while the client streams it, a read blocks until the next
+     * CopyData message is received. It is therefore read sequentially on the generic pool instead of the
+     * search pool. The buffer of the stream pauses reading from the connection if the reader can't keep up.
+     * A kill closes the stream, so that a read waiting for data fails instead of holding the thread.
+     */
+    private BatchIterator<Row> stdinIterator(TransactionContext txnCtx,
+                                             FileUriCollectPhase fileUriCollectPhase,
+                                             CollectTask collectTask,
+                                             List<URI> fileUris,
+                                             int readerNumber) {
+        BatchIterator<FileReadingIterator.LineCursor> source = new FileReadingIterator(
             fileUris,
             fileUriCollectPhase.compression(),
             fileInputFactoryMap,
             fileUriCollectPhase.sharedStorage(),
             fileUriCollectPhase.nodeIds().size(),
-            getReaderNumber(fileUriCollectPhase.nodeIds(), clusterService.state().nodes().getLocalNodeId()),
+            readerNumber,
             fileUriCollectPhase.withClauseOptions(),
             threadPool.scheduler()
         );
-        CopyFromParserProperties parserProperties = fileUriCollectPhase.parserProperties();
-        LineProcessor lineProcessor = new LineProcessor(
-            parserProperties.skipNumLines() > 0
-                ? new SkippingBatchIterator<>(fileReadingIterator, (int) parserProperties.skipNumLines())
-                : fileReadingIterator,
+        long skipNumLines = fileUriCollectPhase.parserProperties().skipNumLines();
+        if (skipNumLines > 0) {
+            source = new SkippingBatchIterator<>(source, (int) skipNumLines);
+        }
+        BatchIterator<Row> readAhead = new ReadAheadBatchIterator(
+            lineProcessor(txnCtx, fileUriCollectPhase, source),
+            READ_AHEAD_ROWS,
+            readAheadAccounting(fileUriCollectPhase, collectTask),
+            threadPool.generic()
+        );
+        StdinFileInputFactory stdinFileInputFactory =
+            (StdinFileInputFactory) fileInputFactoryMap.get(StdinFileInputFactory.NAME);
+        return new ForwardingBatchIterator<>() {
+
+            @Override
+            protected BatchIterator<Row> delegate() {
+                return readAhead;
+            }
+
+            @Override
+            public void kill(@NotNull Throwable throwable) {
+                readAhead.kill(throwable);
+                for (URI uri : fileUris) {
+                    if (StdinFileInputFactory.NAME.equals(uri.getScheme())) {
+                        stdinFileInputFactory.close(uri);
+                    }
+                }
+            }
+        };
+    }
+
+    private static ReadAheadBatchIterator readAhead(FileUriCollectPhase fileUriCollectPhase,
+                                                    CollectTask collectTask,
+                                                    LineProcessor lineProcessor) {
+        return new ReadAheadBatchIterator(
+            lineProcessor,
+            READ_AHEAD_ROWS,
+            readAheadAccounting(fileUriCollectPhase, collectTask)
+        );
+    }
+
+    private static RowAccounting<Object[]> readAheadAccounting(FileUriCollectPhase fileUriCollectPhase,
+                                                               CollectTask collectTask) {
+        return new TypedCellsAccounting(
+            Symbols.typeView(fileUriCollectPhase.toCollect()),
+            collectTask.getRamAccounting(),
+            0
+        );
+    }
+
+    /**
+     * @return the distinct top-level columns of the target columns, used to read only the required columns of
+     *         Parquet files
+     */
+    private static List<String> topLevelColumns(List<String> targetColumns) {
+        LinkedHashSet<String> columns = new LinkedHashSet<>(targetColumns.size());
+        for (String targetColumn : targetColumns) {
+            columns.add(ColumnIdent.fromPath(targetColumn).name());
+        }
+        return List.copyOf(columns);
+    }
+
+    private LineProcessor lineProcessor(TransactionContext txnCtx,
+                                        FileUriCollectPhase fileUriCollectPhase,
+                                        BatchIterator<FileReadingIterator.LineCursor> source) {
+        InputFactory.Context<LineCollectorExpression<?>> ctx =
+            inputFactory.ctxForRefs(txnCtx, FileLineReferenceResolver::getImplementation);
+        ctx.add(fileUriCollectPhase.toCollect());
+        return new LineProcessor(
+            source,
             ctx.topLevelInputs(),
             ctx.expressions(),
             fileUriCollectPhase.inputFormat(),
-            parserProperties,
+            fileUriCollectPhase.parserProperties(),
             fileUriCollectPhase.targetColumns()
         );
-        return CompletableFuture.completedFuture(lineProcessor);
     }
 
     @VisibleForTesting
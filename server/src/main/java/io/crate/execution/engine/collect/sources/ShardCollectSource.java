@@ -86,6 +86,7 @@ import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
 import io.crate.execution.engine.pipeline.Projectors;
 import io.crate.execution.engine.sort.OrderingByPosition;
+import io.crate.execution.engine.spill.SpillManager;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.execution.jobs.SharedShardContexts;
@@ -165,7 +166,8 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
                               RemoteCollectorFactory remoteCollectorFactory,
                               SystemCollectSource systemCollectSource,
                               CircuitBreakerService circuitBreakerService,
-                              ShardCollectorProviderFactory shardCollectorProviderFactory) {
+                              ShardCollectorProviderFactory shardCollectorProviderFactory,
+                              SpillManager spillManager) {
         this.unassignedShardReferenceResolver = new StaticTableReferenceResolver<>(
             SysShardsTableInfo.unassignedShardsExpressions());
         this.shardReferenceResolver = new StaticTableReferenceResolver<>(SysShardsTableInfo.create(nodeCtx.roles()).expressions());
@@ -194,7 +196,8 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
             inputFactory,
             nodeNormalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            spillManager
         );
     }
 
@@ -0,0 +1,209 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.compress;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compression and decompression of the LZ4 block format.
+ * See https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md
+ *
+ * <p>
+ * The compressor is a greedy single pass matcher using a hash table of 4 byte sequences.
+ * It favours speed over compression ratio, same as the default level of the reference implementation.
+ * </p>
+ */
+public final class LZ4 {
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 14;
+    private static final int SKIP_TRIGGER = 6;
+
+    private LZ4() {
+    }
+
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * @param dst must have room for {@link #maxCompressedLength(int)} bytes starting at {@code dstOffset}
+     * @return the number of bytes written to {@code dst}
+     */
+    public static int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) {
+        int end = srcOffset + length;
+        int anchor = srcOffset;
+        int out = dstOffset;
+        if (length > MF_LIMIT) {
+            // matches must end LAST_LITERALS before the end and the last one must start MF_LIMIT before the end
+            int matchLimit = end - LAST_LITERALS;
+            int mfLimit = end - MF_LIMIT;
+            int[] table = new int[1 << HASH_LOG];
+            Arrays.fill(table, -1);
+            int ip = srcOffset;
+            while (ip <= mfLimit) {
+                int sequence = XXHash32.readIntLE(src, ip);
+                int h = hash(sequence);
+                int ref = table[h];
+                table[h] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || XXHash32.readIntLE(src, ref) != sequence) {
+                    // step faster through data which doesn't compress
+                    ip += 1 + ((ip - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+                while (ip > anchor && ref > srcOffset && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+                int tokenPos = out;
+                out = writeSequence(src, anchor, ip - anchor, dst, out);
+                dst[out++] = (byte) (ip - ref);
+                dst[out++] = (byte) ((ip - ref) >>> 8);
+                out = writeMatchLength(dst, tokenPos, out, matchLength - MIN_MATCH);
+                ip += matchLength;
+                anchor = ip;
+                if (ip <= mfLimit) {
+                    table[hash(XXHash32.readIntLE(src, ip - 2))] = ip - 2;
+                }
+            }
+        }
+        return writeSequence(src, anchor, end - anchor, dst, out) - dstOffset;
+    }
+
+    /**
+     * Writes the token, the literal length and the literals of a sequence.
+     * The match length part of the token is left 0 and set by {@link #writeMatchLength(byte[], int, int, int)}
+     */
+    private static int writeSequence(byte[] src, int literalsOffset, int literalLength, byte[] dst, int out) {
+        if (literalLength >= 15) {
+            dst[out++] = (byte) 0xF0;
+            out = writeLengthBytes(dst, out, literalLength - 15);
+        } else {
+            dst[out++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, literalsOffset, dst, out, literalLength);
+        return out + literalLength;
+    }
+
+    private static int writeMatchLength(byte[] dst, int tokenPos, int out, int length) {
+        if (length >= 15) {
+            dst[tokenPos] |= 0x0F;
+            return writeLengthBytes(dst, out, length - 15);
+        }
+        dst[tokenPos] |= (byte) length;
+        return out;
+    }
+
+    private static int writeLengthBytes(byte[] dst, int out, int length) {
+        while (length >= 255) {
+            dst[out++] = (byte) 0xFF;
+            length -= 255;
+        }
+        dst[out++] = (byte) length;
+        return out;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    /**
+     * Decompresses a block into {@code dst}.
+     *
+     * @param windowStart lowest position in {@code dst} matches may refer to.
+     *                    Equal to {@code dstOffset} for independent blocks,
+     *                    lower if the preceding output is used as dictionary.
+     * @return the position in {@code dst} after the last decompressed byte
+     */
+    public static int decompress(byte[] src,
+                                 int srcOffset,
+                                 int length,
+                                 byte[] dst,
+                                 int dstOffset,
+                                 int dstEnd,
+                                 int windowStart) throws IOException {
+        int ip = srcOffset;
+        int srcEnd = srcOffset + length;
+        int op = dstOffset;
+        try {
+            while (true) {
+                int token = src[ip++] & 0xFF;
+                int literalLength = token >>> 4;
+                if (literalLength == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 255);
+                }
+                if (literalLength > srcEnd - ip || literalLength > dstEnd - op) {
+                    throw new IOException("Malformed LZ4 input: literals exceed the block");
+                }
+                System.arraycopy(src, ip, dst, op, literalLength);
+                ip += literalLength;
+                op += literalLength;
+                if (ip == srcEnd) {
+                    return op;
+                }
+
+                int offset = (src[ip] & 0xFF) | ((src[ip + 1] & 0xFF) << 8);
+                ip += 2;
+                if (offset == 0 || offset > op - windowStart) {
+                    throw new IOException("Malformed LZ4 input: match offset out of range");
+                }
+                int matchLength = token & 0x0F;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                if (matchLength > dstEnd - op) {
+                    throw new IOException("Malformed LZ4 input: match exceeds the block");
+                }
+                int from = op - offset;
+                if (offset >= matchLength) {
+                    System.arraycopy(dst, from, dst, op, matchLength);
+                } else {
+                    // overlapping match repeating the preceding bytes
+                    for (int i = 0; i < matchLength; i++) {
+                        dst[op + i] = dst[from + i];
+                    }
+                }
+                op += matchLength;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Malformed LZ4 input: unexpected end of block", e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Constants and helpers of the LZ4 frame format, the format used by the lz4 command line tool.
+ * See https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md
+ */
+final class LZ4Frame {
+
+    static final int MAGIC = 0x184D2204;
+    static final int SKIPPABLE_MAGIC_MASK = 0xFFFFFFF0;
+    static final int SKIPPABLE_MAGIC = 0x184D2A50;
+
+    static final int VERSION = 1;
+    static final int FLAG_BLOCK_INDEPENDENCE = 1 << 5;
+    static final int FLAG_BLOCK_CHECKSUM = 1 << 4;
+    static final int FLAG_CONTENT_SIZE = 1 << 3;
+    static final int FLAG_CONTENT_CHECKSUM = 1 << 2;
+    static final int FLAG_DICT_ID = 1;
+
+    static final int UNCOMPRESSED_BLOCK = 0x80000000;
+
+    /**
+     * Window of the preceding output blocks may refer to if they are not independent
+     */
+    static final int WINDOW_SIZE = 64 * 1024;
+
+    private LZ4Frame() {
+    }
+
+    static int maxBlockSize(int blockSizeId) throws IOException {
+        if (blockSizeId < 4 || blockSizeId > 7) {
+            throw new IOException("Invalid LZ4 frame: unsupported block maximum size id " + blockSizeId);
+        }
+        return 1 << (8 + 2 * blockSizeId);
+    }
+
+    /**
+     * Smallest block size id whose maximum block size can hold {@code blockSize} bytes
+     */
+    static int blockSizeId(int blockSize) {
+        for (int id = 4; id < 7; id++) {
+            if (blockSize <= 1 << (8 + 2 * id)) {
+                return id;
+            }
+        }
+        if (blockSize > 1 << 22) {
+            throw new IllegalArgumentException("LZ4 frame block size must not exceed 4MB");
+        }
+        return 7;
+    }
+
+    static int headerChecksum(byte[] descriptor, int offset, int length) {
+        return (XXHash32.hash(descriptor, offset, length, 0) >>> 8) & 0xFF;
+    }
+
+    /**
+     * Writes the header of a frame with independent blocks of up to {@code blockSize} bytes
+     * and without checksums or content size.
+     */
+    static void writeHeader(OutputStream out, int blockSize) throws IOException {
+        byte[] header = new byte[7];
+        writeIntLE(header, 0, MAGIC);
+        header[4] = (byte) ((VERSION << 6) | FLAG_BLOCK_INDEPENDENCE);
+        header[5] = (byte) (blockSizeId(blockSize) << 4);
+        header[6] = (byte) headerChecksum(header, 4, 2);
+        out.write(header);
+    }
+
+    static void writeEndMark(OutputStream out) throws IOException {
+        out.write(new byte[4]);
+    }
+
+    /**
+     * Encodes one block including its size prefix.
+     * Data which doesn't compress is stored uncompressed, no block is written for empty data.
+     */
+    static byte[] encodeBlock(byte[] data, int length) {
+        if (length == 0) {
+            return new byte[0];
+        }
+        byte[] block = new byte[4 + LZ4.maxCompressedLength(length)];
+        int compressedLength = LZ4.compress(data, 0, length, block, 4);
+        if (compressedLength >= length) {
+            writeIntLE(block, 0, length | UNCOMPRESSED_BLOCK);
+            System.arraycopy(data, 0, block, 4, length);
+            compressedLength = length;
+        } else {
+            writeIntLE(block, 0, compressedLength);
+        }
+        return Arrays.copyOf(block, 4 + compressedLength);
+    }
+
+    static void writeIntLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.compress;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Decompresses a stream of LZ4 frames, as written by the lz4 command line tool or {@link ParallelCompressingOutputStream#lz4}.
+ * Concatenated frames are read one after another and skippable frames are ignored.
+ * Block and content checksums are verified if present.
+ */
+public final class LZ4FrameInputStream extends InputStream {
+
+    private final InputStream in;
+    private final byte[] header = new byte[16];
+
+    private byte[] compressed = new byte[0];
+    private byte[] buffer = new byte[0];
+    private int pos;
+    private int limit;
+
+    private boolean inFrame;
+    private boolean independentBlocks;
+    private boolean blockChecksum;
+    private XXHash32 contentHash;
+    private int maxBlockSize;
+
+    public LZ4FrameInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - pos);
+        System.arraycopy(buffer, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Decompresses the next non-empty block
+     *
+     * @return false if the end of the stream is reached
+     */
+    private boolean fill() throws IOException {
+        while (true) {
+            if (!inFrame && !readFrameHeader()) {
+                return false;
+            }
+            int blockSize = readIntLE();
+            if (blockSize == 0) {
+                endFrame();
+                continue;
+            }
+            readBlock(blockSize);
+            if (pos < limit) {
+                return true;
+            }
+        }
+    }
+
+    private boolean readFrameHeader() throws IOException {
+        while (true) {
+            int n = in.readNBytes(header, 0, 4);
+            if (n == 0) {
+                return false;
+            }
+            if (n < 4) {
+                throw new EOFException("Unexpected end of LZ4 frame");
+            }
+            int magic = XXHash32.readIntLE(header, 0);
+            if ((magic & LZ4Frame.SKIPPABLE_MAGIC_MASK) == LZ4Frame.SKIPPABLE_MAGIC) {
+                in.skipNBytes(readIntLE() & 0xFFFFFFFFL);
+                continue;
+            }
+            if (magic != LZ4Frame.MAGIC) {
+                throw new IOException("Input is not in the LZ4 frame format");
+            }
+            break;
+        }
+        readFully(header, 0, 2);
+        int flags = header[0] & 0xFF;
+        if (flags >>> 6 != LZ4Frame.VERSION) {
+            throw new IOException(String.format(Locale.ENGLISH, "Unsupported LZ4 frame version %d", flags >>> 6));
+        }
+        if ((flags & LZ4Frame.FLAG_DICT_ID) != 0) {
+            throw new IOException("LZ4 frames using a dictionary are not supported");
+        }
+        int descriptorLength = 2;
+        if ((flags & LZ4Frame.FLAG_CONTENT_SIZE) != 0) {
+            readFully(header, 2, 8);
+            descriptorLength += 8;
+        }
+        readFully(header, descriptorLength, 1);
+        if ((header[descriptorLength] & 0xFF) != LZ4Frame.headerChecksum(header, 0, descriptorLength)) {
+            throw new IOException("Invalid LZ4 frame: header checksum mismatch");
+        }
+        independentBlocks = (flags & LZ4Frame.FLAG_BLOCK_INDEPENDENCE) != 0;
+        blockChecksum = (flags & LZ4Frame.FLAG_BLOCK_CHECKSUM) != 0;
+        contentHash = (flags & LZ4Frame.FLAG_CONTENT_CHECKSUM) != 0 ? new XXHash32(0) : null;
+        maxBlockSize = LZ4Frame.maxBlockSize((header[1] >>> 4) & 0x07);
+        int bufferSize = independentBlocks ? maxBlockSize : LZ4Frame.WINDOW_SIZE + maxBlockSize;
+        if (buffer.length < bufferSize) {
+            buffer = new byte[bufferSize];
+        }
+        pos = 0;
+        limit = 0;
+        inFrame = true;
+        return true;
+    }
+
+    private void readBlock(int blockSize) throws IOException {
+        boolean uncompressed = (blockSize & LZ4Frame.UNCOMPRESSED_BLOCK) != 0;
+        int length = blockSize & ~LZ4Frame.UNCOMPRESSED_BLOCK;
+        if (length > maxBlockSize) {
+            throw new IOException("Invalid LZ4 frame: block exceeds the maximum block size");
+        }
+        if (compressed.length < length) {
+            compressed = new byte[length];
+        }
+        readFully(compressed, 0, length);
+        if (blockChecksum && readIntLE() != XXHash32.hash(compressed, 0, length, 0)) {
+            throw new IOException("Invalid LZ4 frame: block checksum mismatch");
+        }
+
+        int start = 0;
+        if (!independentBlocks) {
+            // keep the tail of the previous output as dictionary for this block
+            int window = Math.min(limit, LZ4Frame.WINDOW_SIZE);
+            System.arraycopy(buffer, limit - window, buffer, 0, window);
+            start = window;
+        }
+        if (uncompressed) {
+            System.arraycopy(compressed, 0, buffer, start, length);
+            limit = start + length;
+        } else {
+            limit = LZ4.decompress(compressed, 0, length, buffer, start, start + maxBlockSize, 0);
+        }
+        pos = start;
+        if (contentHash != null) {
+            contentHash.update(buffer, start, limit - start);
+        }
+    }
+
+    private void endFrame() throws IOException {
+        if (contentHash != null && readIntLE() != contentHash.value()) {
+            throw new IOException("Invalid LZ4 frame: content checksum mismatch");
+        }
+        inFrame = false;
+        pos = 0;
+        limit = 0;
+    }
+
+    private int readIntLE() throws IOException {
+        readFully(header, 12, 4);
+        return XXHash32.readIntLE(header, 12);
+    }
+
+    private void readFully(byte[] bytes, int offset, int length) throws IOException {
+        if (in.readNBytes(bytes, offset, length) != length) {
+            throw new EOFException("Unexpected end of LZ4 frame");
+        }
+    }
+}
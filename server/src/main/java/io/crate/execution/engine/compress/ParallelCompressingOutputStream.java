@@ -0,0 +1,275 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * OutputStream which splits the written data into blocks that are compressed independently on an executor
+ * while the caller keeps writing.
+ * The compressed blocks are written to the underlying stream in order.
+ * At most {@code maxPendingBlocks} blocks are in flight, once the limit is reached writes wait for the oldest block.
+ * The buffers of written blocks are re-used for the following blocks.
+ *
+ * <p>
+ * Independent blocks are part of the gzip and LZ4 frame formats:
+ * Concatenated gzip members form a valid gzip file and LZ4 frames can declare their blocks as independent.
+ * The compression ratio is slightly lower than with a single stream because blocks can't refer to data of
+ * preceding blocks.
+ * </p>
+ */
+public final class ParallelCompressingOutputStream extends OutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+    public static final int DEFAULT_MAX_PENDING_BLOCKS = 4;
+
+    interface BlockCodec {
+
+        void writeHeader(OutputStream out) throws IOException;
+
+        /**
+         * Compresses a block. Called concurrently from multiple threads.
+         */
+        byte[] compress(byte[] data, int length) throws IOException;
+
+        void writeTrailer(OutputStream out) throws IOException;
+    }
+
+    private static final BlockCodec GZIP = new BlockCodec() {
+
+        @Override
+        public void writeHeader(OutputStream out) {
+        }
+
+        @Override
+        public byte[] compress(byte[] data, int length) throws IOException {
+            ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(32, length / 4));
+            try (var gzip = new GZIPOutputStream(result)) {
+                gzip.write(data, 0, length);
+            }
+            return result.toByteArray();
+        }
+
+        @Override
+        public void writeTrailer(OutputStream out) {
+        }
+    };
+
+    private final OutputStream out;
+    private final BlockCodec codec;
+    private final Executor executor;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final ArrayDeque<PendingBlock> pending;
+    private final ArrayDeque<byte[]> freeBlocks;
+
+    private byte[] block;
+    private int length;
+    private long pendingBytes;
+    private boolean headerWritten;
+    private boolean closed;
+
+    /**
+     * Compresses into gzip members of {@code blockSize} bytes each
+     */
+    public static ParallelCompressingOutputStream gzip(OutputStream out,
+                                                       Executor executor,
+                                                       int blockSize,
+                                                       int maxPendingBlocks) {
+        return new ParallelCompressingOutputStream(out, GZIP, executor, blockSize, maxPendingBlocks);
+    }
+
+    /**
+     * Compresses into a LZ4 frame with independent blocks of {@code blockSize} bytes
+     */
+    public static ParallelCompressingOutputStream lz4(OutputStream out,
+                                                      Executor executor,
+                                                      int blockSize,
+                                                      int maxPendingBlocks) {
+        BlockCodec codec = new BlockCodec() {
+
+            @Override
+            public void writeHeader(OutputStream out) throws IOException {
+                LZ4Frame.writeHeader(out, blockSize);
+            }
+
+            @Override
+            public byte[] compress(byte[] data, int length) {
+                return LZ4Frame.encodeBlock(data, length);
+            }
+
+            @Override
+            public void writeTrailer(OutputStream out) throws IOException {
+                LZ4Frame.writeEndMark(out);
+            }
+        };
+        LZ4Frame.blockSizeId(blockSize);
+        return new ParallelCompressingOutputStream(out, codec, executor, blockSize, maxPendingBlocks);
+    }
+
+    ParallelCompressingOutputStream(OutputStream out,
+                                    BlockCodec codec,
+                                    Executor executor,
+                                    int blockSize,
+                                    int maxPendingBlocks) {
+        assert blockSize > 0 : "blockSize must be greater than 0";
+        assert maxPendingBlocks > 0 : "maxPendingBlocks must be greater than 0";
+        this.out = out;
+        this.codec = codec;
+        this.executor = executor;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = maxPendingBlocks;
+        this.pending = new ArrayDeque<>(maxPendingBlocks);
+        this.freeBlocks = new ArrayDeque<>(maxPendingBlocks);
+        this.block = new byte[blockSize];
+    }
+
+    /**
+     * Number of uncompressed bytes which are written but not yet compressed and passed to the underlying stream.
+     * The compressed size of these bytes is unknown, it is at most slightly larger than the uncompressed size.
+     */
+    public long pendingBytes() {
+        return pendingBytes + length;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block[length++] = (byte) b;
+        if (length == blockSize) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, blockSize - length);
+            System.arraycopy(b, off, block, length, n);
+            length += n;
+            off += n;
+            len -= n;
+            if (length == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Compresses the buffered data and waits for all pending blocks to be written.
+     * This results in a smaller block, callers should flush rarely.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (length > 0) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writeOldestBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (out) {
+            // an empty block for empty streams results in a valid compressed file
+            if (length > 0 || !headerWritten && pending.isEmpty()) {
+                submitBlock();
+            }
+            while (!pending.isEmpty()) {
+                writeOldestBlock();
+            }
+            codec.writeTrailer(out);
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        if (pending.size() >= maxPendingBlocks) {
+            writeOldestBlock();
+        }
+        byte[] data = block;
+        int dataLength = length;
+        CompletableFuture<byte[]> compressed = CompletableFuture.supplyAsync(() -> {
+            try {
+                return codec.compress(data, dataLength);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+        pending.add(new PendingBlock(compressed, data, dataLength));
+        pendingBytes += dataLength;
+        byte[] freeBlock = freeBlocks.poll();
+        block = freeBlock == null ? new byte[blockSize] : freeBlock;
+        length = 0;
+    }
+
+    private void writeOldestBlock() throws IOException {
+        PendingBlock oldest = pending.poll();
+        byte[] compressed;
+        try {
+            compressed = oldest.compressed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compression of a block");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            throw new IOException("Failed to compress block", cause);
+        }
+        if (!headerWritten) {
+            codec.writeHeader(out);
+            headerWritten = true;
+        }
+        out.write(compressed);
+        pendingBytes -= oldest.length;
+        // the compression finished, so the block can't be read anymore
+        freeBlocks.add(oldest.block);
+    }
+
+    private record PendingBlock(CompletableFuture<byte[]> compressed, byte[] block, int length) {
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
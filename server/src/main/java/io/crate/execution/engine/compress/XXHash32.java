@@ -0,0 +1,144 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.compress;
+
+/**
+ * xxHash32 as used by the LZ4 frame format for the header, block and content checksums.
+ * See https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md
+ */
+final class XXHash32 {
+
+    private static final int PRIME1 = 0x9E3779B1;
+    private static final int PRIME2 = 0x85EBCA77;
+    private static final int PRIME3 = 0xC2B2AE3D;
+    private static final int PRIME4 = 0x27D4EB2F;
+    private static final int PRIME5 = 0x165667B1;
+
+    private final int seed;
+    private final byte[] buffer = new byte[16];
+    private int bufferLength;
+    private long totalLength;
+    private int v1;
+    private int v2;
+    private int v3;
+    private int v4;
+
+    /**
+     * Creates a streaming hash, use {@link #hash(byte[], int, int, int)} if all input is available at once.
+     */
+    XXHash32(int seed) {
+        this.seed = seed;
+        v1 = seed + PRIME1 + PRIME2;
+        v2 = seed + PRIME2;
+        v3 = seed;
+        v4 = seed - PRIME1;
+    }
+
+    void update(byte[] bytes, int offset, int length) {
+        totalLength += length;
+        int end = offset + length;
+        if (bufferLength > 0) {
+            int n = Math.min(16 - bufferLength, length);
+            System.arraycopy(bytes, offset, buffer, bufferLength, n);
+            bufferLength += n;
+            offset += n;
+            if (bufferLength < 16) {
+                return;
+            }
+            consumeStripe(buffer, 0);
+            bufferLength = 0;
+        }
+        for (; offset + 16 <= end; offset += 16) {
+            consumeStripe(bytes, offset);
+        }
+        bufferLength = end - offset;
+        System.arraycopy(bytes, offset, buffer, 0, bufferLength);
+    }
+
+    private void consumeStripe(byte[] bytes, int offset) {
+        v1 = round(v1, readIntLE(bytes, offset));
+        v2 = round(v2, readIntLE(bytes, offset + 4));
+        v3 = round(v3, readIntLE(bytes, offset + 8));
+        v4 = round(v4, readIntLE(bytes, offset + 12));
+    }
+
+    int value() {
+        int acc;
+        if (totalLength >= 16) {
+            acc = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            acc = seed + PRIME5;
+        }
+        acc += (int) totalLength;
+        return finish(acc, buffer, 0, bufferLength);
+    }
+
+    static int hash(byte[] bytes, int offset, int length, int seed) {
+        int end = offset + length;
+        int acc;
+        if (length >= 16) {
+            int v1 = seed + PRIME1 + PRIME2;
+            int v2 = seed + PRIME2;
+            int v3 = seed;
+            int v4 = seed - PRIME1;
+            for (; offset + 16 <= end; offset += 16) {
+                v1 = round(v1, readIntLE(bytes, offset));
+                v2 = round(v2, readIntLE(bytes, offset + 4));
+                v3 = round(v3, readIntLE(bytes, offset + 8));
+                v4 = round(v4, readIntLE(bytes, offset + 12));
+            }
+            acc = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            acc = seed + PRIME5;
+        }
+        acc += length;
+        return finish(acc, bytes, offset, end - offset);
+    }
+
+    private static int finish(int acc, byte[] bytes, int offset, int remaining) {
+        int end = offset + remaining;
+        for (; offset + 4 <= end; offset += 4) {
+            acc = Integer.rotateLeft(acc + readIntLE(bytes, offset) * PRIME3, 17) * PRIME4;
+        }
+        for (; offset < end; offset++) {
+            acc = Integer.rotateLeft(acc + (bytes[offset] & 0xFF) * PRIME5, 11) * PRIME1;
+        }
+        acc ^= acc >>> 15;
+        acc *= PRIME2;
+        acc ^= acc >>> 13;
+        acc *= PRIME3;
+        acc ^= acc >>> 16;
+        return acc;
+    }
+
+    private static int round(int acc, int lane) {
+        return Integer.rotateLeft(acc + lane * PRIME2, 13) * PRIME1;
+    }
+
+    static int readIntLE(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF)
+            | ((bytes[offset + 1] & 0xFF) << 8)
+            | ((bytes[offset + 2] & 0xFF) << 16)
+            | ((bytes[offset + 3] & 0xFF) << 24);
+    }
+}
@@ -26,6 +26,7 @@ import java.util.UUID;
 
 import org.jetbrains.annotations.Nullable;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.TransportRequest;
@@ -54,17 +55,24 @@ public class DistributedResultRequest extends TransportRequest {
                                                            int executionPhaseId,
                                                            byte inputId,
                                                            int bucketIdx,
+                                                           int pageIdx,
                                                            StreamBucket rows,
                                                            boolean isLast) {
         return new NodeRequest<>(
             nodeId,
-            new DistributedResultRequest(jobId, executionPhaseId, inputId, bucketIdx, rows, isLast)
+            new DistributedResultRequest(jobId, executionPhaseId, inputId, bucketIdx, pageIdx, rows, isLast)
         );
     }
 
+    /**
+     * Used if the sender didn't include the index of the page, the pages of a bucket then arrive in order.
+     */
+    public static final int UNKNOWN_PAGE_IDX = -1;
+
     private final byte inputId;
     private final int executionPhaseId;
     private final int bucketIdx;
+    private int pageIdx = UNKNOWN_PAGE_IDX;
 
     private StreamBucket rows;
     private final UUID jobId;
@@ -84,9 +92,11 @@ public class DistributedResultRequest extends TransportRequest {
                                      int executionPhaseId,
                                      byte inputId,
                                      int bucketIdx,
+                                     int pageIdx,
                                      StreamBucket rows,
                                      boolean isLast) {
         this(jobId, inputId, executionPhaseId, bucketIdx);
+        this.pageIdx = pageIdx;
         this.rows = rows;
         this.isLast = isLast;
     }
@@ -118,6 +128,13 @@ public class DistributedResultRequest extends TransportRequest {
         return bucketIdx;
     }
 
+    /**
+     * Index of the page within the pages sent for {@link #bucketIdx()}, or {@link #UNKNOWN_PAGE_IDX}
+     */
+    public int pageIdx() {
+        return pageIdx;
+    }
+
     public Bucket readRows(Streamer<?>[] streamers) {
         rows.streamers(streamers);
         return rows;
@@ -151,6 +168,9 @@ public class DistributedResultRequest extends TransportRequest {
         } else {
             rows = new StreamBucket(in);
         }
+        if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+            pageIdx = in.readInt();
+        }
     }
 
     @Override
@@ -171,5 +191,8 @@ public class DistributedResultRequest extends TransportRequest {
         } else {
             rows.writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+            out.writeInt(pageIdx);
+        }
     }
 }
@@ -36,6 +36,7 @@ import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 
 import org.jetbrains.annotations.VisibleForTesting;
+import io.crate.common.annotations.GuardedBy;
 import io.crate.data.BatchIterator;
 import io.crate.data.Paging;
 import io.crate.data.Row;
@@ -50,8 +51,9 @@ import io.crate.execution.support.NodeRequest;
  * The rows from the source {@link BatchIterator} are "bucketed" using a {@link MultiBucketBuilder}. So a downstream
  * can either receive a part of the data or all data.
  *
- * Every time requests to the downstreams are made consumption of the source BatchIterator is stopped until a response
- * from all downstreams is received.
+ * Up to {@link #pagesInFlight} pages can be sent to a downstream without having received a response.
+ * The downstream only responds to a page once it consumed it, so each response grants the credit to send another page.
+ * Consumption of the source BatchIterator is stopped while a downstream has no credit left.
  */
 public class DistributingConsumer implements RowConsumer {
 
@@ -71,6 +73,37 @@ public class DistributingConsumer implements RowConsumer {
     @VisibleForTesting
     final MultiBucketBuilder multiBucketBuilder;
 
+    @VisibleForTesting
+    final int pagesInFlight;
+
+    private final Object lock = new Object();
+
+    /**
+     * Total number of requests sent to the downstreams without response
+     */
+    @GuardedBy("lock")
+    private int numActiveRequests = 0;
+
+    /**
+     * Set if consumption of the source stopped because a downstream has no credit left
+     */
+    @GuardedBy("lock")
+    private boolean waitingForCredit = false;
+
+    /**
+     * Set once no further pages will be sent
+     */
+    @GuardedBy("lock")
+    private boolean lastPageSent = false;
+
+    @GuardedBy("lock")
+    private boolean finished = false;
+
+    /**
+     * Only accessed by the thread consuming the source
+     */
+    private int pageIdx = 0;
+
     private volatile Throwable failure;
 
     public DistributingConsumer(Executor responseExecutor,
@@ -82,6 +115,31 @@ public class DistributingConsumer implements RowConsumer {
                                 Collection<String> downstreamNodeIds,
                                 ActionExecutor<NodeRequest<DistributedResultRequest>, DistributedResultResponse> distributedResultAction,
                                 int pageSize) {
+        this(
+            responseExecutor,
+            jobId,
+            multiBucketBuilder,
+            targetPhaseId,
+            inputId,
+            bucketIdx,
+            downstreamNodeIds,
+            distributedResultAction,
+            pageSize,
+            1
+        );
+    }
+
+    public DistributingConsumer(Executor responseExecutor,
+                                UUID jobId,
+                                MultiBucketBuilder multiBucketBuilder,
+                                int targetPhaseId,
+                                byte inputId,
+                                int bucketIdx,
+                                Collection<String> downstreamNodeIds,
+                                ActionExecutor<NodeRequest<DistributedResultRequest>, DistributedResultResponse> distributedResultAction,
+                                int pageSize,
+                                int pagesInFlight) {
+        assert pagesInFlight > 0 : "pagesInFlight must be greater than 0";
         this.traceEnabled = LOGGER.isTraceEnabled();
         this.responseExecutor = responseExecutor;
         this.jobId = jobId;
@@ -91,6 +149,7 @@ public class DistributingConsumer implements RowConsumer {
         this.bucketIdx = bucketIdx;
         this.distributedResultAction = distributedResultAction;
         this.pageSize = pageSize;
+        this.pagesInFlight = pagesInFlight;
         this.buckets = new StreamBucket[downstreamNodeIds.size()];
         this.completionFuture = new CompletableFuture<>();
         downstreams = new ArrayList<>(downstreamNodeIds.size());
@@ -119,7 +178,9 @@ public class DistributingConsumer implements RowConsumer {
             while (it.moveNext()) {
                 multiBucketBuilder.add(it.currentElement());
                 if (multiBucketBuilder.size() >= pageSize || multiBucketBuilder.ramBytesUsed() >= Paging.MAX_PAGE_BYTES) {
-                    forwardResults(it, false);
+                    if (forwardResults(it, false)) {
+                        continue;
+                    }
                     return;
                 }
             }
@@ -130,12 +191,29 @@ public class DistributingConsumer implements RowConsumer {
                     if (t == null) {
                         consumeIt(it);
                     } else {
-                        forwardFailure(it, t);
+                        stopConsumption(it, t);
                     }
                 });
             }
         } catch (Throwable t) {
-            forwardFailure(it, t);
+            stopConsumption(it, t);
+        }
+    }
+
+    /**
+     * Forwards the failure of the source once there are no more active requests
+     */
+    private void stopConsumption(BatchIterator<Row> it, Throwable t) {
+        boolean finish;
+        synchronized (lock) {
+            if (failure == null) {
+                failure = t;
+            }
+            lastPageSent = true;
+            finish = maybeFinish();
+        }
+        if (finish) {
+            forwardFailure(it, failure);
         }
     }
 
@@ -188,18 +266,37 @@ public class DistributingConsumer implements RowConsumer {
         }
     }
 
-    private void forwardResults(BatchIterator<Row> it, boolean isLast) {
+    /**
+     * Sends the current page to all downstreams which need more data.
+     *
+     * @return true if the source can be consumed further, false if consumption has to stop
+     *         because there is no credit left or because no more data is needed.
+     */
+    private boolean forwardResults(BatchIterator<Row> it, boolean isLast) {
         multiBucketBuilder.build(buckets);
-        AtomicInteger numActiveRequests = new AtomicInteger(downstreams.size());
+        int currentPageIdx = pageIdx++;
+        boolean[] send = new boolean[downstreams.size()];
+        synchronized (lock) {
+            for (int i = 0; i < downstreams.size(); i++) {
+                Downstream downstream = downstreams.get(i);
+                if (downstream.needsMoreData && failure == null) {
+                    downstream.numActiveRequests++;
+                    numActiveRequests++;
+                    send[i] = true;
+                }
+            }
+            if (isLast) {
+                lastPageSent = true;
+            }
+        }
         for (int i = 0; i < downstreams.size(); i++) {
-            Downstream downstream = downstreams.get(i);
-            if (downstream.needsMoreData == false) {
-                countdownAndMaybeContinue(it, numActiveRequests, true);
+            if (!send[i]) {
                 continue;
             }
+            Downstream downstream = downstreams.get(i);
             if (traceEnabled) {
-                LOGGER.trace("forwardResults targetNode={} jobId={} targetPhase={}/{} bucket={} isLast={}",
-                             downstream.nodeId, jobId, targetPhaseId, inputId, bucketIdx, isLast);
+                LOGGER.trace("forwardResults targetNode={} jobId={} targetPhase={}/{} bucket={} page={} isLast={}",
+                             downstream.nodeId, jobId, targetPhaseId, inputId, bucketIdx, currentPageIdx, isLast);
             }
             distributedResultAction
                 .execute(
@@ -209,67 +306,135 @@ public class DistributingConsumer implements RowConsumer {
                         targetPhaseId,
                         inputId,
                         bucketIdx,
+                        currentPageIdx,
                         buckets[i],
                         isLast))
                 .whenComplete(
                     (resp, t) -> {
-                        if (t == null) {
-                            downstream.needsMoreData = resp.needMore();
-                            countdownAndMaybeContinue(it, numActiveRequests, false);
-                        } else {
+                        if (t != null) {
                             LOGGER.trace(
                                 "Failure from downstream while sending result. job={} targetNode={} failure={}",
                                 jobId,
                                 downstream.nodeId,
                                 t
                             );
-                            failure = t;
-                            downstream.needsMoreData = false;
-                            // continue because it's necessary to send something to downstreams still waiting for data
-                            countdownAndMaybeContinue(it, numActiveRequests, false);
                         }
+                        onResponse(it, downstream, resp, t);
                     }
                 );
         }
+        boolean finish;
+        synchronized (lock) {
+            if (!lastPageSent && (failure != null || !needsMoreData())) {
+                lastPageSent = true;
+            }
+            if (lastPageSent) {
+                finish = maybeFinish();
+            } else if (hasCredit()) {
+                return true;
+            } else {
+                waitingForCredit = true;
+                return false;
+            }
+        }
+        if (finish) {
+            finish(it);
+        }
+        return false;
     }
 
-    private void countdownAndMaybeContinue(BatchIterator<Row> it,
-                                           AtomicInteger numActiveRequests,
-                                           boolean sameExecutor) {
-        if (numActiveRequests.decrementAndGet() == 0) {
-            if (downstreams.stream().anyMatch(Downstream::needsMoreData)) {
-                if (failure == null) {
-                    if (sameExecutor) {
-                        consumeIt(it);
-                    } else {
-                        // try to dispatch to different executor, if it fails, forward the error in the same thread
-                        try {
-                            responseExecutor.execute(() -> consumeIt(it));
-                        } catch (EsRejectedExecutionException e) {
-                            failure = e;
-                            forwardFailure(it, failure);
-                        }
-                    }
-                } else {
-                    forwardFailure(it, failure);
-                }
+    private void onResponse(BatchIterator<Row> it,
+                            Downstream downstream,
+                            @Nullable DistributedResultResponse resp,
+                            @Nullable Throwable t) {
+        boolean resume = false;
+        boolean finish = false;
+        synchronized (lock) {
+            downstream.numActiveRequests--;
+            numActiveRequests--;
+            if (t == null) {
+                // Responses of pages sent before the downstream finished can still ask for more data
+                downstream.needsMoreData &= resp.needMore();
             } else {
-                // If we've a failure we either communicated it to the other downstreams already,
-                // or were able to send results to all downstreams. In either case, *this* operation succeeded and the
-                // downstreams need to deal with failures.
+                failure = t;
+                // continue because it's necessary to send something to downstreams still waiting for data
+                downstream.needsMoreData = false;
+            }
+            if (waitingForCredit) {
+                if (failure != null || !needsMoreData()) {
+                    waitingForCredit = false;
+                    lastPageSent = true;
+                } else if (hasCredit()) {
+                    waitingForCredit = false;
+                    resume = true;
+                }
+            }
+            if (lastPageSent) {
+                finish = maybeFinish();
+            }
+        }
+        if (resume) {
+            // try to dispatch to different executor, if it fails, forward the error in the same thread
+            try {
+                responseExecutor.execute(() -> consumeIt(it));
+            } catch (EsRejectedExecutionException e) {
+                stopConsumption(it, e);
+            }
+        } else if (finish) {
+            finish(it);
+        }
+    }
 
-                // The NodeDisconnectJobMonitorService takes care of node disconnects, so we don't have to manage
-                // that scenario.
-                it.close();
-                completionFuture.complete(null);
+    @GuardedBy("lock")
+    private boolean maybeFinish() {
+        if (numActiveRequests == 0 && !finished) {
+            finished = true;
+            return true;
+        }
+        return false;
+    }
+
+    @GuardedBy("lock")
+    private boolean needsMoreData() {
+        for (int i = 0; i < downstreams.size(); i++) {
+            if (downstreams.get(i).needsMoreData) {
+                return true;
             }
         }
+        return false;
+    }
+
+    @GuardedBy("lock")
+    private boolean hasCredit() {
+        for (int i = 0; i < downstreams.size(); i++) {
+            Downstream downstream = downstreams.get(i);
+            if (downstream.needsMoreData && downstream.numActiveRequests >= pagesInFlight) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void finish(BatchIterator<Row> it) {
+        if (failure != null && downstreams.stream().anyMatch(Downstream::needsMoreData)) {
+            forwardFailure(it, failure);
+        } else {
+            // If we've a failure we either communicated it to the other downstreams already,
+            // or were able to send results to all downstreams. In either case, *this* operation succeeded and the
+            // downstreams need to deal with failures.
+
+            // The NodeDisconnectJobMonitorService takes care of node disconnects, so we don't have to manage
+            // that scenario.
+            it.close();
+            completionFuture.complete(null);
+        }
     }
 
     private static class Downstream {
 
         private final String nodeId;
         private boolean needsMoreData = true;
+        private int numActiveRequests = 0;
 
         Downstream(String nodeId) {
             this.nodeId = nodeId;
@@ -284,6 +449,7 @@ public class DistributingConsumer implements RowConsumer {
             return "Downstream{" +
                    nodeId + '\'' +
                    ", needsMoreData=" + needsMoreData +
+                   ", numActiveRequests=" + numActiveRequests +
                    '}';
         }
     }
@@ -26,11 +26,13 @@ import java.util.Collection;
 import java.util.UUID;
 import java.util.concurrent.Executor;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import io.crate.Streamer;
 import io.crate.data.RowConsumer;
@@ -47,6 +49,14 @@ public class DistributingConsumerFactory {
 
     private static final String RESPONSE_EXECUTOR_NAME = ThreadPool.Names.SEARCH;
 
+    /**
+     * Number of pages a {@link DistributingConsumer} sends to a downstream before it waits for a response.
+     * Hides the network round trip between pages at the cost of buffering up to this many pages per upstream
+     * on the downstream.
+     */
+    @VisibleForTesting
+    static final int PAGES_IN_FLIGHT = 3;
+
     private final ClusterService clusterService;
     private final Executor responseExecutor;
     private final ActionExecutor<NodeRequest<DistributedResultRequest>, DistributedResultResponse> distributedResultAction;
@@ -111,10 +121,21 @@ public class DistributingConsumerFactory {
             bucketIdx,
             nodeOperation.downstreamNodes(),
             distributedResultAction,
-            pageSize
+            pageSize,
+            pagesInFlight()
         );
     }
 
+    /**
+     * Nodes before 5.10 don't send the page index and can't receive pages out of order.
+     */
+    private int pagesInFlight() {
+        if (clusterService.state().nodes().getMinNodeVersion().before(Version.V_5_10_0)) {
+            return 1;
+        }
+        return PAGES_IN_FLIGHT;
+    }
+
     /**
      * @return bucketIdx (= phaseInputID (8bit) | idx of localNode in nodeIds (24bit) )
      *
@@ -25,11 +25,14 @@ import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.lucene.util.Accountable;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -43,7 +46,7 @@ import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
 
-public class StreamBucket implements Bucket, Writeable {
+public class StreamBucket implements Bucket, Writeable, Accountable {
 
     private Streamer<?>[] streamers;
     private int size = -1;
@@ -109,6 +112,25 @@ public class StreamBucket implements Bucket, Writeable {
         this.streamers = streamers;
     }
 
+    /**
+     * Concatenates the rows of buckets that have been created with the same streamers.
+     */
+    public static StreamBucket concat(List<StreamBucket> buckets) {
+        assert !buckets.isEmpty() : "buckets to concatenate must not be empty";
+        StreamBucket result = new StreamBucket(buckets.get(0).streamers);
+        ArrayList<BytesReference> bytes = new ArrayList<>(buckets.size());
+        int size = 0;
+        for (StreamBucket bucket : buckets) {
+            if (bucket.size > 0) {
+                bytes.add(bucket.bytes);
+                size += bucket.size;
+            }
+        }
+        result.size = size;
+        result.bytes = CompositeBytesReference.of(bytes.toArray(new BytesReference[0]));
+        return result;
+    }
+
     @Override
     public int size() {
         return size;
@@ -205,6 +227,14 @@ public class StreamBucket implements Bucket, Writeable {
         }
     }
 
+    /**
+     * @return the size of the serialized rows
+     */
+    @Override
+    public long ramBytesUsed() {
+        return bytes == null ? 0L : bytes.ramBytesUsed();
+    }
+
     @Override
     public String toString() {
         return "StreamBucket{" +
@@ -21,20 +21,49 @@
 
 package io.crate.execution.engine.export;
 
-import io.crate.execution.dsl.projection.WriterProjection;
-
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.execution.dsl.projection.WriterProjection;
+import io.crate.execution.engine.compress.ParallelCompressingOutputStream;
 
 public interface FileOutput extends AutoCloseable {
 
     /**
-     * calling this method creates & acquires an OutputStream which must be closed by the caller if it is no longer needed
+     * calling this method creates & acquires an OutputStream which must be closed by the caller if it is no longer needed.
+     * The data written to the stream is already compressed if compression was requested.
      *
      * @throws IOException in case the Output can't be created (e.g. due to file permission errors or something like that)
      */
-    OutputStream acquireOutputStream(Executor executor, WriterProjection.CompressionType compressionType) throws IOException;
+    OutputStream acquireOutputStream(Executor executor) throws IOException;
+
+    /**
+     * calling this method creates & acquires an OutputStream which must be closed by the caller if it is no longer needed.
+     * The stream compresses the written data with the given compression type.
+     *
+     * @deprecated compression is applied by the caller, implement {@link #acquireOutputStream(Executor)} instead.
+     */
+    @Deprecated
+    default OutputStream acquireOutputStream(Executor executor,
+                                             @Nullable WriterProjection.CompressionType compressionType) throws IOException {
+        OutputStream os = acquireOutputStream(executor);
+        if (compressionType == null) {
+            return os;
+        }
+        return switch (compressionType) {
+            case GZIP -> new GZIPOutputStream(os);
+            case LZ4 -> ParallelCompressingOutputStream.lz4(
+                os,
+                Runnable::run,
+                ParallelCompressingOutputStream.DEFAULT_BLOCK_SIZE,
+                1
+            );
+        };
+    }
 
     @Override
     default void close() {
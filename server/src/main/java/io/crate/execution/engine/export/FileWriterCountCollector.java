@@ -21,6 +21,7 @@
 
 package io.crate.execution.engine.export;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
@@ -46,6 +47,7 @@ import org.jetbrains.annotations.VisibleForTesting;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 
+import io.crate.analyze.CopyStatementSettings;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
@@ -54,39 +56,62 @@ import io.crate.exceptions.UnhandledServerException;
 import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.compress.ParallelCompressingOutputStream;
+import io.crate.execution.engine.parquet.ParquetWriter;
+import io.crate.types.DataType;
 
 /**
  * Collector implementation which writes the rows to the configured {@link FileOutput}
- * and returns a count representing the number of written rows
+ * and returns a count representing the number of written rows.
+ * <p>
+ * Compressed outputs are compressed in blocks on the compression executor while rows keep being written.
+ * If {@link CopyStatementSettings#MAX_FILE_SIZE_SETTING} is set, the rows are written to a new file
+ * once the current one reached the size, see {@link #partUri(URI, int)}.
+ * Blocks which are still being compressed count with their uncompressed size, so a file exceeds the size
+ * by at most the row written last and the headers of the compression format.
+ * </p>
  */
 public class FileWriterCountCollector implements Collector<Row, long[], Iterable<Row>> {
 
     private static final byte NEW_LINE = (byte) '\n';
 
     private final Executor executor;
+    private final Executor compressionExecutor;
     private final Iterable<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
+    private final List<DataType<?>> inputTypes;
     private final URI uri;
-    private final FileOutput fileOutput;
+    private final FileOutputFactory fileOutputFactory;
+    private final Settings withClauseOptions;
     private final WriterProjection.CompressionType compressionType;
     @Nullable
     private final List<String> outputNames;
     private final WriterProjection.OutputFormat outputFormat;
+    private final long maxFileSize;
 
-    private final RowWriter rowWriter;
+    private RowWriter rowWriter;
+    private CountingOutputStream currentOutput;
+    @Nullable
+    private ParallelCompressingOutputStream compressingOutput;
+    private int fileIndex = 0;
+    private boolean startNextFile = false;
 
     FileWriterCountCollector(Executor executor,
+                             Executor compressionExecutor,
                              String uriStr,
                              @Nullable WriterProjection.CompressionType compressionType,
                              @Nullable List<Input<?>> inputs,
+                             List<DataType<?>> inputTypes,
                              Iterable<CollectExpression<Row, ?>> collectExpressions,
                              @Nullable List<String> outputNames,
                              WriterProjection.OutputFormat outputFormat,
                              Map<String, FileOutputFactory> fileOutputFactories,
                              Settings withClauseOptions) {
         this.executor = executor;
+        this.compressionExecutor = compressionExecutor;
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.compressionType = compressionType;
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
@@ -97,28 +122,87 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         }
         String scheme = uri.getScheme();
         scheme = (scheme == null) ? LocalFsFileOutputFactory.NAME : scheme;
-        FileOutputFactory fileOutputFactory = fileOutputFactories.get(scheme);
+        fileOutputFactory = fileOutputFactories.get(scheme);
         if (fileOutputFactory == null) {
             throw new UnsupportedFeatureException(String.format(Locale.ENGLISH, "Unknown scheme '%s'", scheme));
         }
-        fileOutput = fileOutputFactory.create(uri, withClauseOptions);
-        this.rowWriter = initWriter();
+        this.withClauseOptions = withClauseOptions;
+        this.maxFileSize = CopyStatementSettings.MAX_FILE_SIZE_SETTING.get(withClauseOptions).getBytes();
+        this.rowWriter = initWriter(uri);
     }
 
-    private RowWriter initWriter() {
+    private RowWriter initWriter(URI uri) {
+        FileOutput fileOutput = fileOutputFactory.create(uri, withClauseOptions);
         try {
-            if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
-                return new ColumnRowWriter(fileOutput, fileOutput.acquireOutputStream(executor, compressionType), collectExpressions, inputs);
+            currentOutput = new CountingOutputStream(fileOutput.acquireOutputStream(executor));
+            compressingOutput = null;
+            if (outputFormat.equals(WriterProjection.OutputFormat.PARQUET)) {
+                if (outputNames == null || inputs == null) {
+                    throw new UnsupportedFeatureException("Output format parquet requires the output columns");
+                }
+                // Parquet pages are compressed within the file
+                return new ParquetRowWriter(
+                    fileOutput,
+                    currentOutput,
+                    collectExpressions,
+                    inputs,
+                    outputNames,
+                    inputTypes,
+                    compressionType,
+                    maxFileSize > 0 ? Math.min(maxFileSize, ParquetWriter.DEFAULT_ROW_GROUP_SIZE) : ParquetWriter.DEFAULT_ROW_GROUP_SIZE
+                );
+            } else if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
+                return new ColumnRowWriter(fileOutput, compress(currentOutput), collectExpressions, inputs);
             } else if (outputNames != null && outputFormat.equals(WriterProjection.OutputFormat.JSON_OBJECT)) {
-                return new ColumnRowObjectWriter(fileOutput, fileOutput.acquireOutputStream(executor, compressionType), collectExpressions, inputs, outputNames);
+                return new ColumnRowObjectWriter(fileOutput, compress(currentOutput), collectExpressions, inputs, outputNames);
             } else {
-                return new RawRowWriter(fileOutput, fileOutput.acquireOutputStream(executor, compressionType));
+                return new RawRowWriter(fileOutput, compress(currentOutput));
             }
         } catch (IOException e) {
             throw new UnhandledServerException(String.format(Locale.ENGLISH, "Failed to open output: '%s'", e.getMessage()), e);
         }
     }
 
+    private OutputStream compress(OutputStream outputStream) {
+        if (compressionType == null) {
+            return outputStream;
+        }
+        compressingOutput = switch (compressionType) {
+            case GZIP -> ParallelCompressingOutputStream.gzip(
+                outputStream,
+                compressionExecutor,
+                ParallelCompressingOutputStream.DEFAULT_BLOCK_SIZE,
+                ParallelCompressingOutputStream.DEFAULT_MAX_PENDING_BLOCKS
+            );
+            case LZ4 -> ParallelCompressingOutputStream.lz4(
+                outputStream,
+                compressionExecutor,
+                ParallelCompressingOutputStream.DEFAULT_BLOCK_SIZE,
+                ParallelCompressingOutputStream.DEFAULT_MAX_PENDING_BLOCKS
+            );
+        };
+        return compressingOutput;
+    }
+
+    private long currentFileSize() {
+        return compressingOutput == null ? currentOutput.count : currentOutput.count + compressingOutput.pendingBytes();
+    }
+
+    /**
+     * Name of the file the rows continue in once the preceding file reached the maximum file size.
+     * The index is appended to the file name before the extensions, e.g. {@code t1_0_.json.gz -> t1_0__1.json.gz}.
+     */
+    @VisibleForTesting
+    static URI partUri(URI uri, int index) {
+        String uriStr = uri.toString();
+        int nameStart = uriStr.lastIndexOf('/') + 1;
+        int extensionStart = uriStr.indexOf('.', nameStart);
+        if (extensionStart < 0) {
+            extensionStart = uriStr.length();
+        }
+        return URI.create(uriStr.substring(0, extensionStart) + "_" + index + uriStr.substring(extensionStart));
+    }
+
     private void closeWriterAndOutput() {
         try {
             if (rowWriter != null) {
@@ -140,8 +224,22 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     }
 
     private void onNextRow(long[] container, Row row) {
+        if (startNextFile) {
+            // only roll over once there is another row, to not end up with an empty file
+            startNextFile = false;
+            try {
+                rowWriter.close();
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to close output", e);
+            }
+            fileIndex++;
+            rowWriter = initWriter(partUri(uri, fileIndex));
+        }
         rowWriter.write(row);
         container[0] += 1;
+        if (maxFileSize > 0 && currentFileSize() >= maxFileSize) {
+            startNextFile = true;
+        }
     }
 
     @Override
@@ -174,6 +272,30 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         return builder;
     }
 
+    /**
+     * Counts the bytes written to the file, after compression.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
     interface RowWriter {
 
         void write(Row row);
@@ -258,6 +380,57 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         }
     }
 
+    static class ParquetRowWriter implements RowWriter {
+
+        private final FileOutput fileOutput;
+        private final Iterable<CollectExpression<Row, ?>> collectExpressions;
+        private final List<Input<?>> inputs;
+        private final ParquetWriter writer;
+        private final Object[] values;
+
+        ParquetRowWriter(FileOutput fileOutput,
+                         OutputStream outputStream,
+                         Iterable<CollectExpression<Row, ?>> collectExpressions,
+                         List<Input<?>> inputs,
+                         List<String> outputNames,
+                         List<DataType<?>> types,
+                         @Nullable WriterProjection.CompressionType compressionType,
+                         long rowGroupSize) throws IOException {
+            this.fileOutput = fileOutput;
+            this.collectExpressions = collectExpressions;
+            this.inputs = inputs;
+            this.values = new Object[inputs.size()];
+            this.writer = new ParquetWriter(
+                outputStream,
+                outputNames,
+                types,
+                compressionType,
+                rowGroupSize
+            );
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = inputs.get(i).value();
+            }
+            try {
+                writer.write(values);
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+            fileOutput.close();
+        }
+    }
+
     static class ColumnRowObjectWriter extends ColumnRowWriter {
 
         private final List<String> outputNames;
@@ -35,17 +35,20 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.types.DataType;
 
 public class FileWriterProjector implements Projector {
 
     private final String uri;
     private final Iterable<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
+    private final List<DataType<?>> inputTypes;
     @Nullable
     private final List<String> outputNames;
     private final WriterProjection.OutputFormat outputFormat;
     private final WriterProjection.CompressionType compressionType;
     private final Executor executor;
+    private final Executor compressionExecutor;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
     private final Settings withClauseOptions;
 
@@ -56,11 +59,15 @@ public class FileWriterProjector implements Projector {
      *               That raw source is then written to the output
      *               <p/>
      *               If inputs is not null the inputs are consumed to write a JSON array to the output.
+     * @param inputTypes the types of the inputs, required to write {@link WriterProjection.OutputFormat#PARQUET}
+     * @param compressionExecutor executor used to compress blocks of the output if a compression type is set
      */
     public FileWriterProjector(Executor executor,
+                               Executor compressionExecutor,
                                String uri,
                                @Nullable WriterProjection.CompressionType compressionType,
                                @Nullable List<Input<?>> inputs,
+                               List<DataType<?>> inputTypes,
                                Iterable<CollectExpression<Row, ?>> collectExpressions,
                                @Nullable List<String> outputNames,
                                WriterProjection.OutputFormat outputFormat,
@@ -68,7 +75,9 @@ public class FileWriterProjector implements Projector {
                                Settings withClauseOptions) {
         this.collectExpressions = collectExpressions;
         this.executor = executor;
+        this.compressionExecutor = compressionExecutor;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
         this.compressionType = compressionType;
@@ -83,9 +92,11 @@ public class FileWriterProjector implements Projector {
             batchIterator,
             new FileWriterCountCollector(
                 executor,
+                compressionExecutor,
                 uri,
                 compressionType,
                 inputs,
+                inputTypes,
                 collectExpressions,
                 outputNames,
                 outputFormat,
@@ -21,8 +21,6 @@
 
 package io.crate.execution.engine.export;
 
-import io.crate.execution.dsl.projection.WriterProjection;
-
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -30,7 +28,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.concurrent.Executor;
-import java.util.zip.GZIPOutputStream;
 
 public class LocalFsFileOutput implements FileOutput {
 
@@ -41,7 +38,7 @@ public class LocalFsFileOutput implements FileOutput {
     }
 
     @Override
-    public OutputStream acquireOutputStream(Executor executor, WriterProjection.CompressionType compressionType) throws IOException {
+    public OutputStream acquireOutputStream(Executor executor) throws IOException {
         if (uri.getHost() != null) {
             throw new IllegalArgumentException("the URI host must be defined");
         }
@@ -52,10 +49,6 @@ public class LocalFsFileOutput implements FileOutput {
                 throw new IOException("Output path is a directory: " + path);
             }
         }
-        OutputStream os = new FileOutputStream(outFile);
-        if (compressionType != null) {
-            os = new GZIPOutputStream(os);
-        }
-        return new BufferedOutputStream(os);
+        return new BufferedOutputStream(new FileOutputStream(outFile));
     }
 }
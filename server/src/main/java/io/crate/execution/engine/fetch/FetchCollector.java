@@ -23,7 +23,10 @@ package io.crate.execution.engine.fetch;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -33,19 +36,29 @@ import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 import com.carrotsearch.hppc.IntArrayList;
 
 import io.crate.Streamer;
+import io.crate.breaker.TypedCellsAccounting;
+import io.crate.data.RowN;
+import io.crate.data.breaker.BlockBasedRamAccounting;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.expression.InputRow;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.expression.reference.doc.lucene.StoredRowLookup;
-import io.netty.util.collection.IntObjectHashMap;
+import io.crate.types.DataType;
 
 class FetchCollector {
 
+    /**
+     * Max. average distance between the doc ids fetched from a segment to read them via the sequential
+     * stored fields reader.
+     */
+    private static final int MAX_AVG_DOC_ID_GAP_FOR_SEQUENTIAL_READER = 4;
+
     private final LuceneCollectorExpression<?>[] collectorExpressions;
     private final InputRow row;
     private final Streamer<?>[] streamers;
+    private final List<? extends DataType<?>> columnTypes;
     private final RamAccounting ramAccounting;
     private final int readerId;
     private final FetchTask fetchTask;
@@ -53,6 +66,7 @@ class FetchCollector {
     FetchCollector(List<LuceneCollectorExpression<?>> collectorExpressions,
                    String indexName,
                    Streamer<?>[] streamers,
+                   List<? extends DataType<?>> columnTypes,
                    FetchTask fetchTask,
                    RamAccounting ramAccounting,
                    int readerId) {
@@ -60,6 +74,7 @@ class FetchCollector {
         // use toArray to avoid iterator allocations in docIds loop
         this.collectorExpressions = collectorExpressions.toArray(new LuceneCollectorExpression[0]);
         this.streamers = streamers;
+        this.columnTypes = columnTypes;
         this.ramAccounting = ramAccounting;
         this.readerId = readerId;
         var table = fetchTask.table(readerId);
@@ -71,48 +86,97 @@ class FetchCollector {
 
     }
 
-    private void setNextDocId(ReaderContext readerContext, int doc) throws IOException {
-        for (LuceneCollectorExpression<?> e : collectorExpressions) {
-            e.setNextReader(readerContext);
-            e.setNextDocId(doc);
-        }
-    }
-
     public StreamBucket collect(IntArrayList docIds) {
-        boolean collectSequential = isSequential(docIds);
         StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccounting);
         try (var borrowed = fetchTask.searcher(readerId)) {
             var searcher = borrowed.item();
             List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
-            var readerContexts = new IntObjectHashMap<ReaderContext>(leaves.size());
-            for (var cursor : docIds) {
-                int docId = cursor.value;
-                int readerIndex = readerIndex(docId, leaves);
-                LeafReaderContext subReaderContext = leaves.get(readerIndex);
+            if (isSorted(docIds)) {
+                collect(docIds, i -> i, leaves, ignored -> builder.add(row));
+            } else {
+                // Documents are read in doc id order, grouped by segment.
+                // The rows must be returned in the order of the requested doc ids, so they're buffered and re-ordered.
+                // The buffered rows are accounted until they've been added to the bucket, which accounts them itself.
+                TypedCellsAccounting rowsAccounting = new TypedCellsAccounting(
+                    columnTypes,
+                    new BlockBasedRamAccounting(ramAccounting::addBytes, 0),
+                    0
+                );
                 try {
-                    var readerContext = readerContexts.get(readerIndex);
-                    if (readerContext == null) {
-                        // If the document access is sequential, the field reader from the merge instance can be used
-                        // to provide a significant speed up. However, accessing the merge CompressingStoredFieldsReader is expensive
-                        // because the underlying inputData is cloned.
-                        if (collectSequential && subReaderContext.reader() instanceof SequentialStoredFieldsLeafReader storedFieldsLeafReader) {
-                            StoredFieldsReader sequentialStoredFieldsReader = storedFieldsLeafReader.getSequentialStoredFieldsReader();
-                            readerContext = new ReaderContext(subReaderContext, sequentialStoredFieldsReader::document);
-                        } else {
-                            readerContext = new ReaderContext(subReaderContext);
-                        }
-                        readerContexts.put(readerIndex, readerContext);
+                    int[] sortedPositions = sortedPositions(docIds);
+                    Object[][] rows = new Object[docIds.size()][];
+                    collect(docIds, i -> sortedPositions[i], leaves, position -> {
+                        Object[] cells = row.materialize();
+                        rowsAccounting.accountForAndMaybeBreak(cells);
+                        rows[position] = cells;
+                    });
+                    for (Object[] cells : rows) {
+                        builder.add(new RowN(cells));
                     }
-                    setNextDocId(readerContext, docId - subReaderContext.docBase);
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
+                } finally {
+                    rowsAccounting.release();
                 }
-                builder.add(row);
             }
         }
         return builder.build();
     }
 
+    /**
+     * Reads the documents segment by segment in ascending doc id order.
+     *
+     * @param positionAt maps the i-th document in doc id order to its position within {@code docIds}
+     * @param onRow called with the position of the document within {@code docIds} once {@link #row} points to it
+     */
+    private void collect(IntArrayList docIds,
+                         IntUnaryOperator positionAt,
+                         List<LeafReaderContext> leaves,
+                         IntConsumer onRow) {
+        int numDocs = docIds.size();
+        int i = 0;
+        while (i < numDocs) {
+            int firstDocId = docIds.get(positionAt.applyAsInt(i));
+            LeafReaderContext subReaderContext = leaves.get(readerIndex(firstDocId, leaves));
+            int subReaderEnd = subReaderContext.docBase + subReaderContext.reader().maxDoc();
+            int end = i + 1;
+            while (end < numDocs && docIds.get(positionAt.applyAsInt(end)) < subReaderEnd) {
+                end++;
+            }
+            int lastDocId = docIds.get(positionAt.applyAsInt(end - 1));
+            try {
+                ReaderContext readerContext = createReaderContext(subReaderContext, end - i, firstDocId, lastDocId);
+                for (LuceneCollectorExpression<?> e : collectorExpressions) {
+                    e.setNextReader(readerContext);
+                }
+                for (; i < end; i++) {
+                    int position = positionAt.applyAsInt(i);
+                    int doc = docIds.get(position) - subReaderContext.docBase;
+                    for (LuceneCollectorExpression<?> e : collectorExpressions) {
+                        e.setNextDocId(doc);
+                    }
+                    onRow.accept(position);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static ReaderContext createReaderContext(LeafReaderContext subReaderContext,
+                                                     int numDocs,
+                                                     int firstDocId,
+                                                     int lastDocId) throws IOException {
+        // The field reader from the merge instance decompresses each block of stored fields once and serves all
+        // following documents within the block from it, which is a significant speed up if many documents of a
+        // segment are fetched. However, accessing the merge CompressingStoredFieldsReader is expensive
+        // because the underlying inputData is cloned.
+        if (isDense(numDocs, firstDocId, lastDocId)
+            && subReaderContext.reader() instanceof SequentialStoredFieldsLeafReader storedFieldsLeafReader) {
+            StoredFieldsReader sequentialStoredFieldsReader = storedFieldsLeafReader.getSequentialStoredFieldsReader();
+            return new ReaderContext(subReaderContext, sequentialStoredFieldsReader::document);
+        }
+        return new ReaderContext(subReaderContext);
+    }
+
     private int readerIndex(int docId, List<LeafReaderContext> leaves) {
         int readerIndex = ReaderUtil.subIndex(docId, leaves);
         if (readerIndex == -1) {
@@ -121,15 +185,41 @@ class FetchCollector {
         return readerIndex;
     }
 
-    static boolean isSequential(IntArrayList docIds) {
-        if (docIds.size() < 2) {
+    /**
+     * @return true if the sorted doc ids of a segment are close enough to each other that most
+     *         stored fields blocks contain multiple of the documents.
+     */
+    static boolean isDense(int numDocs, int firstDocId, int lastDocId) {
+        if (numDocs < 2) {
             return false;
         }
-        // checks if doc ids are in sequential order using the following conditions:
-        // (last element - first element) = (number of elements in between first and last)
-        // [3,4,5,6,7] -> 7 - 3 == 4
-        int last = docIds.get(docIds.size() - 1);
-        int first = docIds.get(0);
-        return last - first == docIds.size() - 1;
+        return (long) lastDocId - firstDocId < (long) numDocs * MAX_AVG_DOC_ID_GAP_FOR_SEQUENTIAL_READER;
+    }
+
+    static boolean isSorted(IntArrayList docIds) {
+        int[] buffer = docIds.buffer;
+        for (int i = 1; i < docIds.size(); i++) {
+            if (buffer[i - 1] > buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the positions of {@code docIds} ordered by doc id.
+     */
+    static int[] sortedPositions(IntArrayList docIds) {
+        int numDocs = docIds.size();
+        long[] docIdsWithPosition = new long[numDocs];
+        for (int i = 0; i < numDocs; i++) {
+            docIdsWithPosition[i] = ((long) docIds.get(i) << 32) | i;
+        }
+        Arrays.sort(docIdsWithPosition);
+        int[] positions = new int[numDocs];
+        for (int i = 0; i < numDocs; i++) {
+            positions[i] = (int) docIdsWithPosition[i];
+        }
+        return positions;
     }
 }
@@ -24,6 +24,7 @@ package io.crate.execution.engine.fetch;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -31,9 +32,12 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.index.IndexService;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntObjectHashMap;
@@ -55,9 +59,16 @@ import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
+import io.crate.types.DataType;
 
 public class NodeFetchOperation {
 
+    /**
+     * Min. number of documents of a shard to fetch in one thread.
+     * If more documents of a shard are requested, they're fetched per segment group in parallel.
+     */
+    private static final int MIN_DOCS_PER_SLICE = 1000;
+
     private final ThreadPoolExecutor executor;
     private final int numProcessors;
     private final JobsLogs jobsLogs;
@@ -67,6 +78,7 @@ public class NodeFetchOperation {
     private static class TableFetchInfo {
 
         private final Streamer<?>[] streamers;
+        private final List<DataType<?>> types;
         private final Collection<Reference> refs;
         private final FetchTask fetchTask;
 
@@ -74,6 +86,7 @@ public class NodeFetchOperation {
             this.refs = refs;
             this.fetchTask = fetchTask;
             this.streamers = Symbols.streamerArray(refs);
+            this.types = Symbols.typeView(List.copyOf(refs));
         }
 
         FetchCollector createCollector(int readerId, RamAccounting ramAccounting) {
@@ -93,6 +106,7 @@ public class NodeFetchOperation {
                 exprs,
                 indexName,
                 streamers,
+                types,
                 fetchTask,
                 ramAccounting,
                 readerId
@@ -160,6 +174,55 @@ public class NodeFetchOperation {
         }
     }
 
+    /**
+     * Splits the doc ids of a reader at segment boundaries, so that large fetches of a shard can be
+     * processed by multiple threads.
+     * Only sorted doc ids are split, the slices are concatenated again in the same order.
+     */
+    private static List<IntArrayList> slices(FetchTask fetchTask, int readerId, IntArrayList docIds) {
+        if (docIds.size() < 2 * MIN_DOCS_PER_SLICE || !FetchCollector.isSorted(docIds)) {
+            return List.of(docIds);
+        }
+        try (var borrowed = fetchTask.searcher(readerId)) {
+            List<LeafReaderContext> leaves = borrowed.item().getTopReaderContext().leaves();
+            int[] docStarts = new int[leaves.size()];
+            for (int i = 0; i < docStarts.length; i++) {
+                docStarts[i] = leaves.get(i).docBase;
+            }
+            return splitAtSegments(docIds, docStarts, MIN_DOCS_PER_SLICE);
+        }
+    }
+
+    /**
+     * @param sortedDocIds doc ids in ascending order
+     * @param docStarts the doc base of each segment
+     * @return slices of {@code sortedDocIds} with at least {@code minDocsPerSlice} doc ids each (unless there are
+     *         fewer doc ids in total), starting at segment boundaries.
+     */
+    @VisibleForTesting
+    static List<IntArrayList> splitAtSegments(IntArrayList sortedDocIds, int[] docStarts, int minDocsPerSlice) {
+        int numDocs = sortedDocIds.size();
+        ArrayList<IntArrayList> slices = new ArrayList<>();
+        int sliceStart = 0;
+        int prevSegment = -1;
+        for (int i = 0; i < numDocs; i++) {
+            int segment = ReaderUtil.subIndex(sortedDocIds.get(i), docStarts);
+            if (segment != prevSegment && i - sliceStart >= minDocsPerSlice && numDocs - i >= minDocsPerSlice) {
+                slices.add(slice(sortedDocIds, sliceStart, i));
+                sliceStart = i;
+            }
+            prevSegment = segment;
+        }
+        slices.add(slice(sortedDocIds, sliceStart, numDocs));
+        return slices;
+    }
+
+    private static IntArrayList slice(IntArrayList docIds, int from, int to) {
+        IntArrayList slice = new IntArrayList(to - from);
+        slice.add(docIds.buffer, from, to - from);
+        return slice;
+    }
+
     private static HashMap<RelationName, TableFetchInfo> getTableFetchInfos(FetchTask fetchTask) {
         HashMap<RelationName, TableFetchInfo> result = new HashMap<>(fetchTask.toFetch().size());
         for (Map.Entry<RelationName, Collection<Reference>> entry : fetchTask.toFetch().entrySet()) {
@@ -180,6 +243,7 @@ public class NodeFetchOperation {
             fetchTask.memoryLimitInBytes()
         );
         ArrayList<Supplier<StreamBucket>> collectors = new ArrayList<>(toFetch.size());
+        IntArrayList collectorReaderIds = new IntArrayList(toFetch.size());
         for (IntObjectCursor<IntArrayList> toFetchCursor : toFetch) {
             final int readerId = toFetchCursor.key;
             final IntArrayList docIds = toFetchCursor.value;
@@ -188,28 +252,36 @@ public class NodeFetchOperation {
             final TableFetchInfo tfi = tableFetchInfos.get(ident);
             assert tfi != null : "tfi must not be null";
 
-            var collector = tfi.createCollector(
-                readerId,
-                new BlockBasedRamAccounting(
-                    ramAccounting::addBytes,
-                    BlockBasedRamAccounting.MAX_BLOCK_SIZE_IN_BYTES
-                )
-            );
-            collectors.add(() -> collector.collect(docIds));
+            for (IntArrayList slice : slices(fetchTask, readerId, docIds)) {
+                var collector = tfi.createCollector(
+                    readerId,
+                    new BlockBasedRamAccounting(
+                        ramAccounting::addBytes,
+                        BlockBasedRamAccounting.MAX_BLOCK_SIZE_IN_BYTES
+                    )
+                );
+                collectors.add(() -> collector.collect(slice));
+                collectorReaderIds.add(readerId);
+            }
         }
         return ThreadPools.runWithAvailableThreads(
             executor,
             ThreadPools.numIdleThreads(executor, numProcessors),
             collectors
         ).thenApply(buckets -> {
-            var toFetchIt = toFetch.iterator();
-            assert toFetch.size() == buckets.size()
-                : "Must have a bucket per reader and they must be in the same order";
+            assert collectorReaderIds.size() == buckets.size()
+                : "Must have a bucket per collector and they must be in the same order";
             IntObjectHashMap<StreamBucket> bucketByReader = new IntObjectHashMap<>(toFetch.size());
-            for (var bucket : buckets) {
-                assert toFetchIt.hasNext() : "toFetchIt must have an element if there is one in buckets";
-                int readerId = toFetchIt.next().key;
+            int i = 0;
+            while (i < buckets.size()) {
+                int readerId = collectorReaderIds.get(i);
+                int end = i + 1;
+                while (end < buckets.size() && collectorReaderIds.get(end) == readerId) {
+                    end++;
+                }
+                StreamBucket bucket = end - i == 1 ? buckets.get(i) : StreamBucket.concat(buckets.subList(i, end));
                 bucketByReader.put(readerId, bucket);
+                i = end;
             }
             return bucketByReader;
         }).whenComplete((result, err) -> ramAccounting.close());
@@ -0,0 +1,608 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.join;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.LongToIntFunction;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import io.crate.Streamer;
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.BatchIterator;
+import io.crate.data.CloseableIterator;
+import io.crate.data.Row;
+import io.crate.data.UnsafeArrayRow;
+import io.crate.data.breaker.RowAccounting;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.join.JoinBatchIterator;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillManager;
+import io.netty.util.collection.IntObjectHashMap;
+
+/**
+ * Hybrid grace hash join.
+ *
+ * <pre>
+ *     Build Phase:
+ *     for (leftRow in left) {
+ *         if (buffer not full) {
+ *             put leftRow into the in-memory buffer (HashMap)
+ *         } else {
+ *             move all buffered rows into spill files, partitioned by hash
+ *             write leftRow into the spill file of its partition
+ *         }
+ *     }
+ *
+ *     If nothing was spilled, the right side is streamed through the in-memory buffer
+ *     exactly once, like a single block of {@link HashJoinBatchIterator}.
+ *
+ *     Otherwise:
+ *     for (rightRow in right) {
+ *         write rightRow into the spill file of its partition
+ *     }
+ *     for (partition in partitions) {
+ *         if (leftPartition exceeds the block size) {
+ *             re-partition left and right spill files using other bits of the hash
+ *         } else {
+ *             load leftPartition into the buffer and probe it with rows of rightPartition
+ *             // for left outer joins emit non-matched rows of the buffer afterwards
+ *         }
+ *     }
+ * </pre>
+ *
+ * <p>
+ * Compared to {@link HashJoinBatchIterator} this reads the right side only once, independent of
+ * the size of the left side, and the memory usage is bounded by the block size.
+ * The price is the I/O for writing and reading the spill files.
+ * </p>
+ *
+ * <p>
+ * The spilled partitions are kept until the iterator is closed, so that {@link #moveToStart()} can replay
+ * them without consuming the sources again, e.g. if the join is the inner side of a nested loop join.
+ * If the sources aren't fully partitioned yet, {@link #moveToStart()} restarts from the sources instead.
+ * </p>
+ */
+public class GraceHashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
+
+    /**
+     * Number of partitions per level, must be a power of 2.
+     */
+    static final int NUM_PARTITIONS = 32;
+    private static final int PARTITION_BITS = Integer.numberOfTrailingZeros(NUM_PARTITIONS);
+
+    /**
+     * Maximum number of times a partition is split further.
+     * Partitions which are still too large after that (e.g. due to many duplicate keys)
+     * are joined anyway and rely on the circuit breaker.
+     */
+    static final int MAX_DEPTH = 3;
+
+    private enum State {
+        CONSUME_LEFT,
+        PROBE_RIGHT,
+        CONSUME_RIGHT,
+        PROBE_PARTITION,
+        EMIT_NON_MATCHING,
+        DONE
+    }
+
+    private final SpillManager spillManager;
+    private final Streamer<?>[] leftStreamers;
+    private final Streamer<?>[] rightStreamers;
+    private final RowAccounting<Object[]> leftRowAccounting;
+    private final Predicate<Row> joinCondition;
+    private final ToIntFunction<Row> hashBuilderForLeft;
+    private final ToIntFunction<Row> hashBuilderForRight;
+    private final LongToIntFunction calculateBlockSize;
+    private final boolean emitNullValues;
+    private final IntObjectHashMap<Values> buffer = new IntObjectHashMap<>();
+    private final ArrayDeque<Partition> pendingPartitions = new ArrayDeque<>();
+    private final ArrayList<Partition> joinedPartitions = new ArrayList<>();
+    private final UnsafeArrayRow leftRow = new UnsafeArrayRow();
+    private final UnsafeArrayRow spilledRow = new UnsafeArrayRow();
+
+    private State state = State.CONSUME_LEFT;
+    private boolean spilled = false;
+    private int blockSize;
+    private int numberOfRowsInBuffer = 0;
+    private long leftRowsSizeSum = 0;
+    private long numLeftRows = 0;
+
+    @Nullable
+    private SpillFile[] leftPartitions;
+    @Nullable
+    private SpillFile[] rightPartitions;
+    @Nullable
+    private Partition currentPartition;
+    @Nullable
+    private CloseableIterator<Object[]> spilledRightRows;
+
+    @Nullable
+    private Values leftMatchingRows;
+    @Nullable
+    private Iterator<Object[]> leftMatchingRowsIterator;
+    @Nullable
+    private Iterator<Values> nonMatchingValuesIterator;
+    @Nullable
+    private Iterator<Object[]> nonMatchingRowsIterator;
+    @Nullable
+    private Throwable killed;
+
+    public GraceHashJoinBatchIterator(BatchIterator<Row> left,
+                                      BatchIterator<Row> right,
+                                      SpillManager spillManager,
+                                      Streamer<?>[] leftStreamers,
+                                      Streamer<?>[] rightStreamers,
+                                      RowAccounting<Object[]> leftRowAccounting,
+                                      CombinedRow combiner,
+                                      Predicate<Row> joinCondition,
+                                      ToIntFunction<Row> hashBuilderForLeft,
+                                      ToIntFunction<Row> hashBuilderForRight,
+                                      LongToIntFunction calculateBlockSize,
+                                      boolean emitNullValues) {
+        super(left, right, combiner);
+        this.spillManager = spillManager;
+        this.leftStreamers = leftStreamers;
+        this.rightStreamers = rightStreamers;
+        this.leftRowAccounting = leftRowAccounting;
+        this.joinCondition = joinCondition;
+        this.hashBuilderForLeft = hashBuilderForLeft;
+        this.hashBuilderForRight = hashBuilderForRight;
+        this.calculateBlockSize = calculateBlockSize;
+        this.emitNullValues = emitNullValues;
+        this.blockSize = calculateBlockSize.applyAsInt(-1);
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfKilled();
+        leftMatchingRows = null;
+        leftMatchingRowsIterator = null;
+        nonMatchingValuesIterator = null;
+        nonMatchingRowsIterator = null;
+        if (spilled && state != State.CONSUME_LEFT && state != State.CONSUME_RIGHT) {
+            // both sides are partitioned, replay the partitions in the same order
+            closeSpilledRightRows();
+            if (currentPartition != null) {
+                joinedPartitions.add(currentPartition);
+                currentPartition = null;
+            }
+            for (int i = joinedPartitions.size() - 1; i >= 0; i--) {
+                pendingPartitions.addFirst(joinedPartitions.get(i));
+            }
+            joinedPartitions.clear();
+            loadNextPartition();
+            return;
+        }
+        closeSpillFiles();
+        spilled = false;
+        leftRowsSizeSum = 0;
+        numLeftRows = 0;
+        blockSize = calculateBlockSize.applyAsInt(-1);
+        left.moveToStart();
+        right.moveToStart();
+        state = State.CONSUME_LEFT;
+    }
+
+    /**
+     * @return true if rows were spilled to disk
+     */
+    @VisibleForTesting
+    boolean spilled() {
+        return spilled;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        return switch (state) {
+            case CONSUME_LEFT -> left.loadNextBatch();
+            case PROBE_RIGHT, CONSUME_RIGHT -> right.loadNextBatch();
+            default -> CompletableFuture.failedFuture(new IllegalStateException("BatchIterator already fully loaded"));
+        };
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return switch (state) {
+            case CONSUME_LEFT -> left.allLoaded();
+            case PROBE_RIGHT, CONSUME_RIGHT -> right.allLoaded();
+            default -> true;
+        };
+    }
+
+    @Override
+    public boolean moveNext() {
+        // replaying spilled partitions doesn't access the sources, which would raise otherwise
+        raiseIfKilled();
+        while (true) {
+            switch (state) {
+                case CONSUME_LEFT:
+                    consumeLeft();
+                    if (left.allLoaded() == false) {
+                        return false;
+                    }
+                    if (leftPartitions == null) {
+                        state = State.PROBE_RIGHT;
+                    } else {
+                        finishWriting(leftPartitions);
+                        rightPartitions = newPartitions(rightStreamers);
+                        state = State.CONSUME_RIGHT;
+                    }
+                    break;
+
+                case PROBE_RIGHT:
+                    if (probe(right)) {
+                        return true;
+                    }
+                    if (right.allLoaded() == false) {
+                        return false;
+                    }
+                    startEmitNonMatching();
+                    break;
+
+                case CONSUME_RIGHT:
+                    consumeRight();
+                    if (right.allLoaded() == false) {
+                        return false;
+                    }
+                    finishWriting(rightPartitions);
+                    for (int i = 0; i < NUM_PARTITIONS; i++) {
+                        pendingPartitions.add(new Partition(leftPartitions[i], rightPartitions[i], 0));
+                    }
+                    leftPartitions = null;
+                    rightPartitions = null;
+                    loadNextPartition();
+                    break;
+
+                case PROBE_PARTITION:
+                    if (probeSpilled()) {
+                        return true;
+                    }
+                    startEmitNonMatching();
+                    break;
+
+                case EMIT_NON_MATCHING:
+                    if (emitNonMatching()) {
+                        return true;
+                    }
+                    if (currentPartition == null) {
+                        state = State.DONE;
+                    } else {
+                        loadNextPartition();
+                    }
+                    break;
+
+                case DONE:
+                    return false;
+
+                default:
+                    throw new AssertionError("Unexpected state: " + state);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        killed = BatchIterator.CLOSED;
+        try {
+            super.close();
+        } finally {
+            closeSpillFiles();
+        }
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        killed = throwable;
+        super.kill(throwable);
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+
+    private void consumeLeft() {
+        while (left.moveNext()) {
+            Row row = left.currentElement();
+            int hash = hashBuilderForLeft.applyAsInt(row);
+            if (leftPartitions == null) {
+                if (numberOfRowsInBuffer < blockSize) {
+                    addToBuffer(row.materialize(), hash);
+                    continue;
+                }
+                spillBuffer();
+            }
+            leftPartitions[partition(hash, 0)].add(row);
+        }
+    }
+
+    private void consumeRight() {
+        while (right.moveNext()) {
+            Row row = right.currentElement();
+            int hash = hashBuilderForRight.applyAsInt(row);
+            rightPartitions[partition(hash, 0)].add(row);
+        }
+    }
+
+    /**
+     * Moves all rows of the in-memory buffer into freshly created left partitions.
+     */
+    private void spillBuffer() {
+        spilled = true;
+        leftPartitions = newPartitions(leftStreamers);
+        for (var entry : buffer.entries()) {
+            SpillFile partition = leftPartitions[partition(entry.key(), 0)];
+            for (Object[] cells : entry.value().items) {
+                partition.add(cells);
+            }
+        }
+        clearBuffer();
+    }
+
+    private void addToBuffer(Object[] cells, int hash) {
+        long rowSize = leftRowAccounting.accountForAndMaybeBreak(cells);
+        leftRowsSizeSum += rowSize;
+        numLeftRows++;
+        Values existingRows = buffer.get(hash);
+        if (existingRows == null) {
+            existingRows = new Values();
+            buffer.put(hash, existingRows);
+        }
+        existingRows.items.add(cells);
+        numberOfRowsInBuffer++;
+    }
+
+    private void clearBuffer() {
+        buffer.clear();
+        numberOfRowsInBuffer = 0;
+        leftRowAccounting.release();
+    }
+
+    private void loadNextPartition() {
+        clearBuffer();
+        closeSpilledRightRows();
+        if (currentPartition != null) {
+            joinedPartitions.add(currentPartition);
+            currentPartition = null;
+        }
+        blockSize = calculateBlockSize.applyAsInt(numLeftRows > 0 ? leftRowsSizeSum / numLeftRows : -1);
+        Partition partition;
+        while ((partition = pendingPartitions.poll()) != null) {
+            long numLeft = partition.left.numRows();
+            long numRight = partition.right.numRows();
+            if (numLeft == 0 || (numRight == 0 && emitNullValues == false)) {
+                partition.close();
+                continue;
+            }
+            if (numLeft > blockSize && partition.depth < MAX_DEPTH) {
+                split(partition);
+                continue;
+            }
+            currentPartition = partition;
+            try (var leftRows = partition.left.rows()) {
+                while (leftRows.hasNext()) {
+                    Object[] cells = leftRows.next();
+                    addToBuffer(cells, hashBuilderForLeft.applyAsInt(leftRow.cells(cells)));
+                }
+            }
+            spilledRightRows = partition.right.rows();
+            state = State.PROBE_PARTITION;
+            return;
+        }
+        state = State.DONE;
+    }
+
+    /**
+     * Distributes the rows of a partition into {@link #NUM_PARTITIONS} sub-partitions
+     * using the next {@link #PARTITION_BITS} bits of the hash.
+     */
+    private void split(Partition partition) {
+        int depth = partition.depth + 1;
+        SpillFile[] lefts = newPartitions(leftStreamers);
+        SpillFile[] rights = newPartitions(rightStreamers);
+        try (var leftRows = partition.left.rows()) {
+            while (leftRows.hasNext()) {
+                Object[] cells = leftRows.next();
+                lefts[partition(hashBuilderForLeft.applyAsInt(spilledRow.cells(cells)), depth)].add(cells);
+            }
+        }
+        try (var rightRows = partition.right.rows()) {
+            while (rightRows.hasNext()) {
+                Object[] cells = rightRows.next();
+                rights[partition(hashBuilderForRight.applyAsInt(spilledRow.cells(cells)), depth)].add(cells);
+            }
+        }
+        partition.close();
+        finishWriting(lefts);
+        finishWriting(rights);
+        for (int i = NUM_PARTITIONS - 1; i >= 0; i--) {
+            pendingPartitions.addFirst(new Partition(lefts[i], rights[i], depth));
+        }
+    }
+
+    private boolean probe(BatchIterator<Row> rightIt) {
+        if (leftMatchingRowsIterator != null && findMatchingRows()) {
+            return true;
+        }
+        leftMatchingRowsIterator = null;
+        while (rightIt.moveNext()) {
+            Row row = rightIt.currentElement();
+            if (tryProbe(row, hashBuilderForRight.applyAsInt(row))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean probeSpilled() {
+        if (leftMatchingRowsIterator != null && findMatchingRows()) {
+            return true;
+        }
+        leftMatchingRowsIterator = null;
+        while (spilledRightRows.hasNext()) {
+            spilledRow.cells(spilledRightRows.next());
+            if (tryProbe(spilledRow, hashBuilderForRight.applyAsInt(spilledRow))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryProbe(Row row, int hash) {
+        leftMatchingRows = buffer.get(hash);
+        if (leftMatchingRows != null) {
+            leftMatchingRowsIterator = leftMatchingRows.items.iterator();
+            combiner.setRight(row);
+            return findMatchingRows();
+        }
+        return false;
+    }
+
+    private boolean findMatchingRows() {
+        while (leftMatchingRowsIterator.hasNext()) {
+            leftRow.cells(leftMatchingRowsIterator.next());
+            combiner.setLeft(leftRow);
+            if (joinCondition.test(combiner.currentElement())) {
+                // mark the values to emit non-matching values later with null value pairs
+                leftMatchingRows.matched = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startEmitNonMatching() {
+        leftMatchingRows = null;
+        leftMatchingRowsIterator = null;
+        nonMatchingValuesIterator = emitNullValues ? buffer.values().iterator() : null;
+        nonMatchingRowsIterator = null;
+        state = State.EMIT_NON_MATCHING;
+    }
+
+    private boolean emitNonMatching() {
+        if (nonMatchingValuesIterator == null) {
+            return false;
+        }
+        while (nonMatchingRowsIterator == null || nonMatchingRowsIterator.hasNext() == false) {
+            if (nonMatchingValuesIterator.hasNext() == false) {
+                nonMatchingValuesIterator = null;
+                nonMatchingRowsIterator = null;
+                return false;
+            }
+            Values values = nonMatchingValuesIterator.next();
+            nonMatchingRowsIterator = values.matched ? null : values.items.iterator();
+        }
+        combiner.setLeft(leftRow.cells(nonMatchingRowsIterator.next()));
+        combiner.nullRight();
+        return true;
+    }
+
+    private static int partition(int hash, int depth) {
+        return (BitMixer.mix32(hash) >>> (depth * PARTITION_BITS)) & (NUM_PARTITIONS - 1);
+    }
+
+    private SpillFile[] newPartitions(Streamer<?>[] streamers) {
+        SpillFile[] partitions = new SpillFile[NUM_PARTITIONS];
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            partitions[i] = spillManager.newFile(streamers);
+        }
+        return partitions;
+    }
+
+    private static void finishWriting(SpillFile[] partitions) {
+        for (SpillFile partition : partitions) {
+            partition.finishWriting();
+        }
+    }
+
+    private void closeSpilledRightRows() {
+        if (spilledRightRows != null) {
+            spilledRightRows.close();
+            spilledRightRows = null;
+        }
+    }
+
+    private void closeSpillFiles() {
+        closeSpilledRightRows();
+        if (currentPartition != null) {
+            currentPartition.close();
+            currentPartition = null;
+        }
+        for (Partition partition : joinedPartitions) {
+            partition.close();
+        }
+        joinedPartitions.clear();
+        Partition partition;
+        while ((partition = pendingPartitions.poll()) != null) {
+            partition.close();
+        }
+        closeAll(leftPartitions);
+        closeAll(rightPartitions);
+        leftPartitions = null;
+        rightPartitions = null;
+        clearBuffer();
+    }
+
+    private static void closeAll(@Nullable SpillFile[] files) {
+        if (files == null) {
+            return;
+        }
+        for (SpillFile file : files) {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private record Partition(SpillFile left, SpillFile right, int depth) {
+
+        void close() {
+            closeAll(new SpillFile[] { left, right });
+        }
+    }
+
+    private static final class Values {
+
+        final ArrayList<Object[]> items = new ArrayList<>();
+        boolean matched = false;
+    }
+}
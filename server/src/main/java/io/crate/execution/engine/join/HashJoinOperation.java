@@ -27,6 +27,7 @@ import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.jetbrains.annotations.Nullable;
 
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.BatchIterator;
@@ -37,9 +38,12 @@ import io.crate.data.RowConsumer;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.join.CombinedRow;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillManager;
 import io.crate.expression.InputFactory;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.TransactionContext;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 
 public class HashJoinOperation implements CompletionListenable {
 
@@ -58,11 +62,16 @@ public class HashJoinOperation implements CompletionListenable {
                              InputFactory inputFactory,
                              CircuitBreaker circuitBreaker,
                              long estimatedRowSizeForLeft,
-                             boolean emitNullValues) {
+                             boolean emitNullValues,
+                             SpillManager spillManager,
+                             List<DataType<?>> leftOutputTypes,
+                             @Nullable List<DataType<?>> rightOutputTypes) {
 
         this.resultConsumer = nlResultConsumer;
         this.leftConsumer = new CapturingRowConsumer(nlResultConsumer.requiresScroll(), nlResultConsumer.completionFuture());
         this.rightConsumer = new CapturingRowConsumer(true, nlResultConsumer.completionFuture());
+        // rightOutputTypes is null if the phase was created by a node on an older version.
+        boolean spill = spillManager.isEnabled() && rightOutputTypes != null;
         CompletableFuture.allOf(leftConsumer.capturedBatchIterator(), rightConsumer.capturedBatchIterator())
             .whenComplete((result, failure) -> {
                 if (failure == null) {
@@ -82,7 +91,10 @@ public class HashJoinOperation implements CompletionListenable {
                                 circuitBreaker,
                                 estimatedRowSizeForLeft
                             ),
-                            emitNullValues
+                            emitNullValues,
+                            spill ? spillManager : null,
+                            leftOutputTypes,
+                            rightOutputTypes
                         );
                         nlResultConsumer.accept(joinIterator, null);
                     } catch (Exception e) {
@@ -135,8 +147,27 @@ public class HashJoinOperation implements CompletionListenable {
                                                              ToIntFunction<Row> hashBuilderForRight,
                                                              RowAccounting<Object[]> rowAccounting,
                                                              RamBlockSizeCalculator blockSizeCalculator,
-                                                             boolean emitNullValues) {
+                                                             boolean emitNullValues,
+                                                             @Nullable SpillManager spillManager,
+                                                             List<DataType<?>> leftOutputTypes,
+                                                             @Nullable List<DataType<?>> rightOutputTypes) {
         CombinedRow combiner = new CombinedRow(leftNumCols, rightNumCols);
+        if (spillManager != null) {
+            assert rightOutputTypes != null : "rightOutputTypes are required to spill the right side";
+            return new GraceHashJoinBatchIterator(
+                left,
+                right,
+                spillManager,
+                DataTypes.getStreamers(leftOutputTypes),
+                DataTypes.getStreamers(rightOutputTypes),
+                rowAccounting,
+                combiner,
+                joinCondition,
+                hashBuilderForLeft,
+                hashBuilderForRight,
+                blockSizeCalculator,
+                emitNullValues);
+        }
         return new HashJoinBatchIterator(
             left,
             right,
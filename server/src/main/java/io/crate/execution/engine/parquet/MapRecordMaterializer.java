@@ -0,0 +1,446 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.JsonLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.ListLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.MapLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.UUIDLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Type.Repetition;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Assembles the records of a Parquet file into maps, using the representation of JSON sources.
+ *
+ * <ul>
+ * <li>Groups become nested maps. Fields which aren't defined are null.</li>
+ * <li>LIST groups become lists. The 3-level layout and the legacy 2-level layouts are supported.
+ * Repeated fields without LIST annotation become lists too, which are empty if there are no values.</li>
+ * <li>MAP groups become maps with the keys converted to strings.</li>
+ * <li>Dates and timestamps become epoch milliseconds, decimals {@link BigDecimal}s,
+ * JSON values are parsed and all other binary values are read as UTF-8 strings.</li>
+ * </ul>
+ */
+final class MapRecordMaterializer extends RecordMaterializer<LinkedHashMap<String, Object>> {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long JULIAN_EPOCH_DAY = 2_440_588L;
+
+    private final ObjectConverter root;
+    private LinkedHashMap<String, Object> currentRecord;
+
+    @SuppressWarnings("unchecked")
+    MapRecordMaterializer(MessageType schema) {
+        this.root = new ObjectConverter(schema, record -> currentRecord = (LinkedHashMap<String, Object>) record);
+    }
+
+    @Override
+    public LinkedHashMap<String, Object> getCurrentRecord() {
+        return currentRecord;
+    }
+
+    @Override
+    public GroupConverter getRootConverter() {
+        return root;
+    }
+
+    private static Converter converter(Type type, Consumer<Object> sink) {
+        if (type.isPrimitive()) {
+            return primitiveConverter(type.asPrimitiveType(), sink);
+        }
+        GroupType group = type.asGroupType();
+        LogicalTypeAnnotation annotation = group.getLogicalTypeAnnotation();
+        boolean hasRepeatedChild = group.getFieldCount() == 1 && group.getType(0).isRepetition(Repetition.REPEATED);
+        if (annotation instanceof ListLogicalTypeAnnotation && hasRepeatedChild) {
+            return new ListConverter(group, sink);
+        }
+        if (annotation instanceof MapLogicalTypeAnnotation && hasRepeatedChild && !group.getType(0).isPrimitive()) {
+            return new MapConverter(group, sink);
+        }
+        return new ObjectConverter(group, sink);
+    }
+
+    private static final class ObjectConverter extends GroupConverter {
+
+        private final String[] names;
+        private final boolean[] repeated;
+        private final Converter[] converters;
+        private final Consumer<Object> sink;
+        private LinkedHashMap<String, Object> values;
+
+        @SuppressWarnings("unchecked")
+        private ObjectConverter(GroupType type, Consumer<Object> sink) {
+            this.sink = sink;
+            int numFields = type.getFieldCount();
+            this.names = new String[numFields];
+            this.repeated = new boolean[numFields];
+            this.converters = new Converter[numFields];
+            for (int i = 0; i < numFields; i++) {
+                Type field = type.getType(i);
+                String name = field.getName();
+                names[i] = name;
+                repeated[i] = field.isRepetition(Repetition.REPEATED);
+                Consumer<Object> fieldSink = repeated[i]
+                    ? value -> ((List<Object>) values.get(name)).add(value)
+                    : value -> values.put(name, value);
+                converters[i] = converter(field, fieldSink);
+            }
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return converters[fieldIndex];
+        }
+
+        @Override
+        public void start() {
+            values = new LinkedHashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                values.put(names[i], repeated[i] ? new ArrayList<>() : null);
+            }
+        }
+
+        @Override
+        public void end() {
+            sink.accept(values);
+        }
+    }
+
+    private static final class ListConverter extends GroupConverter {
+
+        private final Converter elements;
+        private final Consumer<Object> sink;
+        private List<Object> values;
+
+        private ListConverter(GroupType type, Consumer<Object> sink) {
+            this.sink = sink;
+            Type repeated = type.getType(0);
+            if (isElement(repeated, type.getName())) {
+                this.elements = converter(repeated, value -> values.add(value));
+            } else {
+                this.elements = new ElementConverter(repeated.asGroupType());
+            }
+        }
+
+        /**
+         * Applies the backward-compatibility rules of the Parquet format to decide
+         * whether the repeated field of a list is the element itself (2-level) or wraps the element (3-level).
+         */
+        private static boolean isElement(Type repeated, String listName) {
+            if (repeated.isPrimitive()) {
+                return true;
+            }
+            GroupType group = repeated.asGroupType();
+            return group.getFieldCount() > 1
+                || group.getName().equals("array")
+                || group.getName().equals(listName + "_tuple");
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return elements;
+        }
+
+        @Override
+        public void start() {
+            values = new ArrayList<>();
+        }
+
+        @Override
+        public void end() {
+            sink.accept(values);
+        }
+
+        /**
+         * Converts the repeated group of a 3-level list, elements which aren't defined are null.
+         */
+        private final class ElementConverter extends GroupConverter {
+
+            private final Converter element;
+
+            private ElementConverter(GroupType repeated) {
+                this.element = converter(repeated.getType(0), value -> values.set(values.size() - 1, value));
+            }
+
+            @Override
+            public Converter getConverter(int fieldIndex) {
+                return element;
+            }
+
+            @Override
+            public void start() {
+                values.add(null);
+            }
+
+            @Override
+            public void end() {
+            }
+        }
+    }
+
+    private static final class MapConverter extends GroupConverter {
+
+        private final GroupConverter entries;
+        private final Consumer<Object> sink;
+        private LinkedHashMap<String, Object> values;
+        private Object key;
+        private Object value;
+
+        private MapConverter(GroupType type, Consumer<Object> sink) {
+            this.sink = sink;
+            GroupType keyValue = type.getType(0).asGroupType();
+            Converter keyConverter = converter(keyValue.getType(0), k -> key = k);
+            Converter valueConverter = keyValue.getFieldCount() > 1
+                ? converter(keyValue.getType(1), v -> value = v)
+                : null;
+            this.entries = new GroupConverter() {
+
+                @Override
+                public Converter getConverter(int fieldIndex) {
+                    return fieldIndex == 0 ? keyConverter : valueConverter;
+                }
+
+                @Override
+                public void start() {
+                    key = null;
+                    value = null;
+                }
+
+                @Override
+                public void end() {
+                    values.put(String.valueOf(key), value);
+                }
+            };
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return entries;
+        }
+
+        @Override
+        public void start() {
+            values = new LinkedHashMap<>();
+        }
+
+        @Override
+        public void end() {
+            sink.accept(values);
+        }
+    }
+
+    private static PrimitiveConverter primitiveConverter(PrimitiveType type, Consumer<Object> sink) {
+        LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+        return switch (type.getPrimitiveTypeName()) {
+            case BOOLEAN -> new PrimitiveConverter() {
+
+                @Override
+                public void addBoolean(boolean value) {
+                    sink.accept(value);
+                }
+            };
+            case INT32 -> {
+                IntFunction<Object> convert;
+                if (annotation instanceof DateLogicalTypeAnnotation) {
+                    convert = value -> value * MILLIS_PER_DAY;
+                } else if (annotation instanceof DecimalLogicalTypeAnnotation decimal) {
+                    int scale = decimal.getScale();
+                    convert = value -> BigDecimal.valueOf(value, scale);
+                } else if (annotation instanceof IntLogicalTypeAnnotation intType
+                    && !intType.isSigned()
+                    && intType.getBitWidth() == 32) {
+                    convert = Integer::toUnsignedLong;
+                } else {
+                    convert = value -> value;
+                }
+                yield new PrimitiveConverter() {
+
+                    @Override
+                    public void addInt(int value) {
+                        sink.accept(convert.apply(value));
+                    }
+                };
+            }
+            case INT64 -> {
+                LongFunction<Object> convert;
+                if (annotation instanceof DecimalLogicalTypeAnnotation decimal) {
+                    int scale = decimal.getScale();
+                    convert = value -> BigDecimal.valueOf(value, scale);
+                } else if (annotation instanceof TimestampLogicalTypeAnnotation timestamp) {
+                    convert = switch (timestamp.getUnit()) {
+                        case MICROS -> value -> Math.floorDiv(value, 1000L);
+                        case NANOS -> value -> Math.floorDiv(value, 1_000_000L);
+                        case MILLIS -> value -> value;
+                    };
+                } else {
+                    convert = value -> value;
+                }
+                yield new PrimitiveConverter() {
+
+                    @Override
+                    public void addLong(long value) {
+                        sink.accept(convert.apply(value));
+                    }
+                };
+            }
+            case INT96 -> new PrimitiveConverter() {
+
+                @Override
+                public void addBinary(Binary value) {
+                    // legacy timestamp: nanoseconds of the day followed by the julian day, little endian
+                    ByteBuffer buffer = value.toByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+                    long nanosOfDay = buffer.getLong();
+                    long julianDay = buffer.getInt();
+                    sink.accept((julianDay - JULIAN_EPOCH_DAY) * MILLIS_PER_DAY + nanosOfDay / 1_000_000L);
+                }
+            };
+            case FLOAT -> new PrimitiveConverter() {
+
+                @Override
+                public void addFloat(float value) {
+                    sink.accept(value);
+                }
+            };
+            case DOUBLE -> new PrimitiveConverter() {
+
+                @Override
+                public void addDouble(double value) {
+                    sink.accept(value);
+                }
+            };
+            case BINARY, FIXED_LEN_BYTE_ARRAY -> {
+                if (annotation instanceof DecimalLogicalTypeAnnotation decimal) {
+                    int scale = decimal.getScale();
+                    yield new BinaryConverter(sink, value -> new BigDecimal(new BigInteger(value.getBytes()), scale), false);
+                } else if (annotation instanceof JsonLogicalTypeAnnotation) {
+                    // parsed values are mutable and must not be shared between records
+                    yield new BinaryConverter(sink, value -> parseJson(value.getBytes()), false);
+                } else if (annotation instanceof UUIDLogicalTypeAnnotation) {
+                    yield new BinaryConverter(sink, value -> {
+                        ByteBuffer buffer = value.toByteBuffer();
+                        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+                    }, true);
+                }
+                yield new BinaryConverter(sink, Binary::toStringUsingUTF8, true);
+            }
+        };
+    }
+
+    /**
+     * Converts binary values, dictionary encoded values are converted once per dictionary
+     * if the converted values are immutable.
+     */
+    private static final class BinaryConverter extends PrimitiveConverter {
+
+        private final Consumer<Object> sink;
+        private final Function<Binary, Object> convert;
+        private final boolean cacheDictionary;
+
+        @Nullable
+        private Object[] dictionary;
+
+        private BinaryConverter(Consumer<Object> sink, Function<Binary, Object> convert, boolean cacheDictionary) {
+            this.sink = sink;
+            this.convert = convert;
+            this.cacheDictionary = cacheDictionary;
+        }
+
+        @Override
+        public boolean hasDictionarySupport() {
+            return cacheDictionary;
+        }
+
+        @Override
+        public void setDictionary(Dictionary dictionary) {
+            Object[] values = new Object[dictionary.getMaxId() + 1];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = convert.apply(dictionary.decodeToBinary(i));
+            }
+            this.dictionary = values;
+        }
+
+        @Override
+        public void addValueFromDictionary(int dictionaryId) {
+            assert dictionary != null : "setDictionary must be called before values are read from the dictionary";
+            sink.accept(dictionary[dictionaryId]);
+        }
+
+        @Override
+        public void addBinary(Binary value) {
+            sink.accept(convert.apply(value));
+        }
+    }
+
+    private static Object parseJson(byte[] json) {
+        try (XContentParser parser = JsonXContent.JSON_XCONTENT.createParser(
+                NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+                json)) {
+            XContentParser.Token token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            return switch (token) {
+                case START_OBJECT -> parser.mapOrdered();
+                case START_ARRAY -> parser.listOrderedMap();
+                case VALUE_NULL -> null;
+                default -> parser.objectText();
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
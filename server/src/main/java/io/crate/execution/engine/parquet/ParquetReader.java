@@ -0,0 +1,326 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.HadoopReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.io.IOUtils;
+import io.crate.data.breaker.RamAccounting;
+
+/**
+ * Reads the records of a Parquet file.
+ *
+ * <p>
+ * Only the footer is read when opening the file, the column chunks of a row group are read once
+ * the row group is requested and only for the requested top-level columns. Row groups can be read
+ * independently of each other which allows to split a file by row group.
+ * </p>
+ *
+ * <p>
+ * The column chunks of a row group are kept in memory until the {@link RecordReader} is closed, like
+ * a file of unknown size until the reader is closed. Both are accounted with the {@link RamAccounting}
+ * before they are read, so that a large row group trips the circuit breaker instead of exhausting the heap.
+ * </p>
+ *
+ * <p>
+ * Decoding is done by parquet-java, records are assembled by {@link MapRecordMaterializer}
+ * into the representation used by JSON sources.
+ * </p>
+ */
+public final class ParquetReader implements AutoCloseable {
+
+    /**
+     * Size of the blocks in which a file of unknown size is read
+     */
+    private static final int READ_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Provides access to the file contents starting at a given position.
+     */
+    @FunctionalInterface
+    public interface Source {
+
+        InputStream open(long position) throws IOException;
+    }
+
+    private final ParquetFileReader fileReader;
+    private final MessageType schema;
+    private final List<BlockMetaData> rowGroups;
+    private final long[] firstRowNumbers;
+    private final RamAccounting ramAccounting;
+    private long fileBytes;
+
+    private ParquetReader(ParquetFileReader fileReader, RamAccounting ramAccounting, long fileBytes) {
+        this.fileReader = fileReader;
+        this.schema = fileReader.getFooter().getFileMetaData().getSchema();
+        this.rowGroups = fileReader.getRowGroups();
+        this.ramAccounting = ramAccounting;
+        this.fileBytes = fileBytes;
+        this.firstRowNumbers = new long[rowGroups.size()];
+        long rowNumber = 0;
+        for (int i = 0; i < rowGroups.size(); i++) {
+            firstRowNumbers[i] = rowNumber;
+            rowNumber += rowGroups.get(i).getRowCount();
+        }
+    }
+
+    /**
+     * @param fileSize the size of the file in bytes or -1 if unknown, in which case the whole file is loaded into memory
+     * @param ramAccounting accounts the column chunks and the file contents if the size is unknown
+     */
+    public static ParquetReader open(long fileSize, Source source, RamAccounting ramAccounting) throws IOException {
+        if (fileSize < 0) {
+            byte[] bytes;
+            try (InputStream stream = source.open(0)) {
+                bytes = readAllBytes(stream, ramAccounting);
+            }
+            try {
+                return open(bytes, ramAccounting, bytes.length);
+            } catch (Throwable t) {
+                ramAccounting.addBytes(-bytes.length);
+                throw t;
+            }
+        }
+        return open(new SourceInputFile(fileSize, source), ramAccounting, 0);
+    }
+
+    public static ParquetReader open(byte[] file) throws IOException {
+        return open(file, RamAccounting.NO_ACCOUNTING, 0);
+    }
+
+    private static ParquetReader open(byte[] file, RamAccounting ramAccounting, long fileBytes) throws IOException {
+        Source source = position -> new ByteArrayInputStream(file, (int) position, file.length - (int) position);
+        return open(new SourceInputFile(file.length, source), ramAccounting, fileBytes);
+    }
+
+    private static ParquetReader open(SourceInputFile file, RamAccounting ramAccounting, long fileBytes) throws IOException {
+        ParquetFileReader fileReader;
+        try {
+            fileReader = ParquetFileReader.open(file, HadoopReadOptions.builder(new Configuration(false)).build());
+        } catch (RuntimeException e) {
+            // parquet-java signals a missing magic number or a corrupt footer with runtime exceptions
+            throw new IOException("Invalid Parquet file: " + e.getMessage(), e);
+        }
+        return new ParquetReader(fileReader, ramAccounting, fileBytes);
+    }
+
+    /**
+     * Reads the stream in blocks which are accounted before they are allocated.
+     * The bytes stay accounted until the reader is closed.
+     */
+    private static byte[] readAllBytes(InputStream stream, RamAccounting ramAccounting) throws IOException {
+        List<byte[]> blocks = new ArrayList<>();
+        long accounted = 0;
+        int size = 0;
+        try {
+            while (true) {
+                ramAccounting.addBytes(READ_BLOCK_SIZE);
+                accounted += READ_BLOCK_SIZE;
+                byte[] block = stream.readNBytes(READ_BLOCK_SIZE);
+                if (size + block.length < size) {
+                    throw new IOException("Parquet file is too large to be read without knowing its size");
+                }
+                size += block.length;
+                blocks.add(block);
+                if (block.length < READ_BLOCK_SIZE) {
+                    break;
+                }
+            }
+            ramAccounting.addBytes(size);
+            byte[] bytes = new byte[size];
+            int offset = 0;
+            for (byte[] block : blocks) {
+                System.arraycopy(block, 0, bytes, offset, block.length);
+                offset += block.length;
+            }
+            return bytes;
+        } finally {
+            ramAccounting.addBytes(-accounted);
+        }
+    }
+
+    public long numRows() {
+        return fileReader.getRecordCount();
+    }
+
+    public int numRowGroups() {
+        return rowGroups.size();
+    }
+
+    /**
+     * @return the position of the first byte of the row group within the file
+     */
+    public long rowGroupStart(int rowGroup) {
+        return rowGroups.get(rowGroup).getStartingPos();
+    }
+
+    /**
+     * @return the position after the last byte of the row group within the file
+     */
+    public long rowGroupEnd(int rowGroup) {
+        BlockMetaData block = rowGroups.get(rowGroup);
+        return block.getStartingPos() + block.getCompressedSize();
+    }
+
+    /**
+     * @return the number of rows in the file which precede the row group
+     */
+    public long firstRowNumber(int rowGroup) {
+        return firstRowNumbers[rowGroup];
+    }
+
+    /**
+     * @param columns names of the top-level columns to read, all columns are read if empty.
+     * @return a reader for the records of the row group, which must be closed to release the column chunks.
+     */
+    public RecordReader readRowGroup(int rowGroup, Collection<String> columns) throws IOException {
+        BlockMetaData block = rowGroups.get(rowGroup);
+        MessageType requested = columns.isEmpty() ? schema : project(schema, columns);
+        if (requested.getFieldCount() == 0) {
+            return new RecordReader(null, block.getRowCount(), RamAccounting.NO_ACCOUNTING, 0);
+        }
+        long accountedBytes = 0;
+        for (ColumnChunkMetaData chunk : block.getColumns()) {
+            if (requested.containsField(chunk.getPath().toArray()[0])) {
+                accountedBytes += chunk.getTotalSize();
+            }
+        }
+        ramAccounting.addBytes(accountedBytes);
+        try {
+            fileReader.setRequestedSchema(requested);
+            PageReadStore pages = fileReader.readRowGroup(rowGroup);
+            if (pages == null) {
+                throw new IOException("Invalid Parquet file: row group " + rowGroup + " is missing");
+            }
+            org.apache.parquet.io.RecordReader<LinkedHashMap<String, Object>> records = new ColumnIOFactory()
+                .getColumnIO(requested, schema)
+                .getRecordReader(pages, new MapRecordMaterializer(requested));
+            return new RecordReader(records, block.getRowCount(), ramAccounting, accountedBytes);
+        } catch (RuntimeException e) {
+            ramAccounting.addBytes(-accountedBytes);
+            throw new IOException("Invalid Parquet file: " + e.getMessage(), e);
+        } catch (Throwable t) {
+            ramAccounting.addBytes(-accountedBytes);
+            throw t;
+        }
+    }
+
+    /**
+     * @return the schema with the top-level fields contained in columns, in the order of the file
+     */
+    private static MessageType project(MessageType schema, Collection<String> columns) {
+        List<Type> fields = new ArrayList<>(columns.size());
+        for (Type field : schema.getFields()) {
+            if (columns.contains(field.getName())) {
+                fields.add(field);
+            }
+        }
+        return new MessageType(schema.getName(), fields);
+    }
+
+    /**
+     * Releases the file and the accounted bytes of the file if its size was unknown.
+     * Record readers of the file must be closed separately.
+     */
+    @Override
+    public void close() {
+        IOUtils.closeWhileHandlingException(fileReader);
+        ramAccounting.addBytes(-fileBytes);
+        fileBytes = 0;
+    }
+
+    /**
+     * Assembles the records of a row group from the values of its column chunks.
+     */
+    public static final class RecordReader implements AutoCloseable {
+
+        public static final RecordReader EMPTY = new RecordReader(null, 0, RamAccounting.NO_ACCOUNTING, 0);
+
+        /**
+         * null if no columns are read, in which case the records are empty
+         */
+        @Nullable
+        private final org.apache.parquet.io.RecordReader<LinkedHashMap<String, Object>> records;
+        private final long numRows;
+        private final RamAccounting ramAccounting;
+        private long accountedBytes;
+        private long rowsRead;
+
+        private RecordReader(@Nullable org.apache.parquet.io.RecordReader<LinkedHashMap<String, Object>> records,
+                             long numRows,
+                             RamAccounting ramAccounting,
+                             long accountedBytes) {
+            this.records = records;
+            this.numRows = numRows;
+            this.ramAccounting = ramAccounting;
+            this.accountedBytes = accountedBytes;
+        }
+
+        /**
+         * Releases the accounted bytes of the column chunks
+         */
+        @Override
+        public void close() {
+            ramAccounting.addBytes(-accountedBytes);
+            accountedBytes = 0;
+        }
+
+        /**
+         * @return the next record or null if all records of the row group have been read
+         */
+        @Nullable
+        public LinkedHashMap<String, Object> nextRecord() throws IOException {
+            if (rowsRead >= numRows) {
+                return null;
+            }
+            rowsRead++;
+            if (records == null) {
+                return new LinkedHashMap<>();
+            }
+            try {
+                return records.read();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid Parquet file: " + e.getMessage(), e);
+            }
+        }
+    }
+}
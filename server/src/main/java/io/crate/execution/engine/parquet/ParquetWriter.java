@@ -0,0 +1,351 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.execution.dsl.projection.WriterProjection;
+import io.crate.types.ArrayType;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.CharacterType;
+import io.crate.types.DataType;
+import io.crate.types.DateType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.IpType;
+import io.crate.types.LongType;
+import io.crate.types.NumericType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+
+/**
+ * Writes rows into a Parquet file using parquet-java.
+ *
+ * <p>
+ * Rows are buffered and written as a row group once the buffered data exceeds the row group size.
+ * Primitive types and arrays of primitive types map to their Parquet equivalents (arrays as
+ * 3-level LIST), all other types are written as JSON encoded strings. All columns are optional.
+ * </p>
+ */
+public final class ParquetWriter implements Closeable {
+
+    public static final long DEFAULT_ROW_GROUP_SIZE = 32 * 1024 * 1024;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final org.apache.parquet.hadoop.ParquetWriter<Object[]> writer;
+
+    /**
+     * @param compressionType the compression codec used for the pages, uncompressed if null
+     * @param rowGroupSize the (approximate) number of buffered bytes after which a row group is written
+     */
+    public ParquetWriter(OutputStream out,
+                         List<String> names,
+                         List<DataType<?>> types,
+                         @Nullable WriterProjection.CompressionType compressionType,
+                         long rowGroupSize) throws IOException {
+        assert names.size() == types.size() : "Must have a name for each type";
+        List<Type> fields = new ArrayList<>(names.size());
+        ValueWriter[] writers = new ValueWriter[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            Field field = field(names.get(i), types.get(i));
+            fields.add(field.type());
+            writers[i] = field.writer();
+        }
+        CompressionCodecName codec = compressionType == null ? CompressionCodecName.UNCOMPRESSED : switch (compressionType) {
+            case GZIP -> CompressionCodecName.GZIP;
+            case LZ4 -> CompressionCodecName.LZ4_RAW;
+        };
+        this.writer = new Builder(new StreamOutputFile(out), new RowWriteSupport(new MessageType("schema", fields), writers))
+            .withConf(new Configuration(false))
+            .withCompressionCodec(codec)
+            .withRowGroupSize(rowGroupSize)
+            .build();
+    }
+
+    public void write(Object[] row) throws IOException {
+        writer.write(row);
+    }
+
+    /**
+     * Writes the remaining rows and the footer, and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static Field field(String name, DataType<?> type) {
+        if (type.id() == ArrayType.ID) {
+            Field element = primitive("element", ((ArrayType<?>) type).innerType());
+            if (element != null) {
+                Type list = Types.optionalGroup()
+                    .as(LogicalTypeAnnotation.listType())
+                    .addField(Types.repeatedGroup().addField(element.type()).named("list"))
+                    .named(name);
+                return new Field(list, new ListWriter(element.writer()));
+            }
+        }
+        Field field = primitive(name, type);
+        if (field == null) {
+            return new Field(
+                Types.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.jsonType()).named(name),
+                (consumer, value) -> consumer.addBinary(Binary.fromConstantByteArray(toJson(value))));
+        }
+        return field;
+    }
+
+    /**
+     * @return the field for types with a primitive Parquet representation or null
+     */
+    @Nullable
+    private static Field primitive(String name, DataType<?> type) {
+        return switch (type.id()) {
+            case BooleanType.ID -> new Field(
+                Types.optional(PrimitiveTypeName.BOOLEAN).named(name),
+                (consumer, value) -> consumer.addBoolean((Boolean) value));
+            case ByteType.ID -> new Field(
+                Types.optional(PrimitiveTypeName.INT32).as(LogicalTypeAnnotation.intType(8, true)).named(name),
+                (consumer, value) -> consumer.addInteger(((Number) value).intValue()));
+            case ShortType.ID -> new Field(
+                Types.optional(PrimitiveTypeName.INT32).as(LogicalTypeAnnotation.intType(16, true)).named(name),
+                (consumer, value) -> consumer.addInteger(((Number) value).intValue()));
+            case IntegerType.ID -> new Field(
+                Types.optional(PrimitiveTypeName.INT32).named(name),
+                (consumer, value) -> consumer.addInteger(((Number) value).intValue()));
+            case LongType.ID -> new Field(
+                Types.optional(PrimitiveTypeName.INT64).named(name),
+                (consumer, value) -> consumer.addLong(((Number) value).longValue()));
+            case FloatType.ID -> new Field(
+                Types.optional(PrimitiveTypeName.FLOAT).named(name),
+                (consumer, value) -> consumer.addFloat(((Number) value).floatValue()));
+            case DoubleType.ID -> new Field(
+                Types.optional(PrimitiveTypeName.DOUBLE).named(name),
+                (consumer, value) -> consumer.addDouble(((Number) value).doubleValue()));
+            case DateType.ID -> new Field(
+                Types.optional(PrimitiveTypeName.INT32).as(LogicalTypeAnnotation.dateType()).named(name),
+                (consumer, value) -> consumer.addInteger((int) Math.floorDiv(((Number) value).longValue(), MILLIS_PER_DAY)));
+            case TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> new Field(
+                Types.optional(PrimitiveTypeName.INT64)
+                    .as(LogicalTypeAnnotation.timestampType(type.id() == TimestampType.ID_WITH_TZ, TimeUnit.MILLIS))
+                    .named(name),
+                (consumer, value) -> consumer.addLong(((Number) value).longValue()));
+            case StringType.ID, CharacterType.ID, NumericType.ID, IpType.ID -> new Field(
+                Types.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(name),
+                (consumer, value) -> consumer.addBinary(Binary.fromString(value.toString())));
+            default -> null;
+        };
+    }
+
+    private static byte[] toJson(Object value) {
+        try {
+            XContentBuilder builder = JsonXContent.builder();
+            builder.value(value);
+            return BytesReference.toBytes(BytesReference.bytes(builder));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot convert value to JSON: " + value, e);
+        }
+    }
+
+    /**
+     * Writes a value which isn't null
+     */
+    @FunctionalInterface
+    private interface ValueWriter {
+
+        void write(RecordConsumer consumer, Object value);
+    }
+
+    private record Field(Type type, ValueWriter writer) {
+    }
+
+    /**
+     * Writes values as 3-level list: optional group (LIST) / repeated group list / optional element
+     */
+    private record ListWriter(ValueWriter elementWriter) implements ValueWriter {
+
+        @Override
+        public void write(RecordConsumer consumer, Object value) {
+            List<?> values = (List<?>) value;
+            consumer.startGroup();
+            if (!values.isEmpty()) {
+                consumer.startField("list", 0);
+                for (Object element : values) {
+                    consumer.startGroup();
+                    if (element != null) {
+                        consumer.startField("element", 0);
+                        elementWriter.write(consumer, element);
+                        consumer.endField("element", 0);
+                    }
+                    consumer.endGroup();
+                }
+                consumer.endField("list", 0);
+            }
+            consumer.endGroup();
+        }
+    }
+
+    private static final class RowWriteSupport extends WriteSupport<Object[]> {
+
+        private final MessageType schema;
+        private final ValueWriter[] writers;
+        private RecordConsumer consumer;
+
+        private RowWriteSupport(MessageType schema, ValueWriter[] writers) {
+            this.schema = schema;
+            this.writers = writers;
+        }
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(schema, Map.of());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(Object[] row) {
+            consumer.startMessage();
+            for (int i = 0; i < writers.length; i++) {
+                Object value = row[i];
+                if (value != null) {
+                    String name = schema.getFieldName(i);
+                    consumer.startField(name, i);
+                    writers[i].write(consumer, value);
+                    consumer.endField(name, i);
+                }
+            }
+            consumer.endMessage();
+        }
+    }
+
+    private static final class Builder extends org.apache.parquet.hadoop.ParquetWriter.Builder<Object[], Builder> {
+
+        private final WriteSupport<Object[]> writeSupport;
+
+        private Builder(OutputFile file, WriteSupport<Object[]> writeSupport) {
+            super(file);
+            this.writeSupport = writeSupport;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Object[]> getWriteSupport(Configuration conf) {
+            return writeSupport;
+        }
+    }
+
+    /**
+     * Exposes an {@link OutputStream} as {@link OutputFile} which can only be created once.
+     */
+    private static final class StreamOutputFile implements OutputFile {
+
+        private final OutputStream out;
+
+        private StreamOutputFile(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new PositionOutputStream() {
+
+                private long position;
+
+                @Override
+                public long getPos() {
+                    return position;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    position++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    position += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.close();
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Exposes a {@link ParquetReader.Source} as {@link InputFile}.
+ * A stream of the source is only opened once data is read, and re-opened at the new position after a seek,
+ * unless the new position is a few bytes ahead.
+ */
+final class SourceInputFile implements InputFile {
+
+    private final long length;
+    private final ParquetReader.Source source;
+
+    SourceInputFile(long length, ParquetReader.Source source) {
+        this.length = length;
+        this.source = source;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public SeekableInputStream newStream() {
+        return new SourceInputStream(source);
+    }
+
+    @Override
+    public String toString() {
+        // used by parquet-java in error messages
+        return "input of " + length + " bytes";
+    }
+
+    private static final class SourceInputStream extends SeekableInputStream {
+
+        /**
+         * Maximum number of bytes which are skipped instead of opening a new stream on a seek
+         */
+        private static final long MAX_SKIP_BYTES = 64 * 1024;
+
+        private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
+        private final ParquetReader.Source source;
+
+        @Nullable
+        private InputStream stream;
+        private long streamPosition;
+        private long position;
+
+        private SourceInputStream(ParquetReader.Source source) {
+            this.source = source;
+        }
+
+        private InputStream stream() throws IOException {
+            if (stream != null && streamPosition != position) {
+                long distance = position - streamPosition;
+                if (distance > 0 && distance <= MAX_SKIP_BYTES) {
+                    stream.skipNBytes(distance);
+                    streamPosition = position;
+                } else {
+                    stream.close();
+                    stream = null;
+                }
+            }
+            if (stream == null) {
+                stream = source.open(position);
+                streamPosition = position;
+            }
+            return stream;
+        }
+
+        private void advance(int numBytes) {
+            position += numBytes;
+            streamPosition += numBytes;
+        }
+
+        @Override
+        public long getPos() {
+            return position;
+        }
+
+        @Override
+        public void seek(long newPos) {
+            position = newPos;
+        }
+
+        @Override
+        public long skip(long n) {
+            if (n <= 0) {
+                return 0;
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = stream().read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            int read = stream().read(bytes, off, len);
+            if (read > 0) {
+                advance(read);
+            }
+            return read;
+        }
+
+        @Override
+        public void readFully(byte[] bytes) throws IOException {
+            readFully(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int start, int len) throws IOException {
+            int read = stream().readNBytes(bytes, start, len);
+            advance(read);
+            if (read < len) {
+                throw new EOFException("Reached the end of the Parquet file after reading " + read + " of " + len + " bytes");
+            }
+        }
+
+        @Override
+        public int read(ByteBuffer buf) throws IOException {
+            if (buf.hasArray()) {
+                int read = read(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+                if (read > 0) {
+                    buf.position(buf.position() + read);
+                }
+                return read;
+            }
+            byte[] bytes = new byte[Math.min(buf.remaining(), COPY_BUFFER_SIZE)];
+            int read = read(bytes, 0, bytes.length);
+            if (read > 0) {
+                buf.put(bytes, 0, read);
+            }
+            return read;
+        }
+
+        @Override
+        public void readFully(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) {
+                if (read(buf) < 0) {
+                    throw new EOFException("Reached the end of the Parquet file with " + buf.remaining() + " bytes remaining");
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+    }
+}
@@ -26,19 +26,34 @@ import io.crate.data.BatchIterator;
 import io.crate.data.FilteringBatchIterator;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.columnar.ColumnBatchFilter;
+import io.crate.data.columnar.ColumnarBatchIterator;
+import io.crate.data.columnar.FilteringColumnarBatchIterator;
+
+import org.jetbrains.annotations.Nullable;
 
 import java.util.function.Predicate;
 
 class FilterProjector implements Projector {
 
     private final Predicate<Row> rowFilterPredicate;
+    @Nullable
+    private final ColumnBatchFilter columnBatchFilter;
 
-    FilterProjector(Predicate<Row> rowFilterPredicate) {
+    /**
+     * @param columnBatchFilter equivalent of {@code rowFilterPredicate} which is used if the source
+     *                          is a {@link ColumnarBatchIterator}. Null if the filter can't be applied on batches.
+     */
+    FilterProjector(Predicate<Row> rowFilterPredicate, @Nullable ColumnBatchFilter columnBatchFilter) {
         this.rowFilterPredicate = rowFilterPredicate;
+        this.columnBatchFilter = columnBatchFilter;
     }
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        if (columnBatchFilter != null && batchIterator instanceof ColumnarBatchIterator columnar) {
+            return new FilteringColumnarBatchIterator(columnar, columnBatchFilter);
+        }
         return new FilteringBatchIterator<>(batchIterator, rowFilterPredicate);
     }
 
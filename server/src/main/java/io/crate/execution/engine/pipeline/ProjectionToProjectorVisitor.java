@@ -61,6 +61,7 @@ import io.crate.common.unit.TimeValue;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.breaker.BlockBasedRamAccounting;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dml.IndexItem;
 import io.crate.execution.dml.ShardResponse;
@@ -113,9 +114,11 @@ import io.crate.execution.engine.sort.OrderingByPosition;
 import io.crate.execution.engine.sort.SortingLimitAndOffsetProjector;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.engine.sort.UnboundedSortingLimitAndOffsetCollector;
+import io.crate.execution.engine.spill.SpillManager;
 import io.crate.execution.engine.window.WindowProjector;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.support.ThreadPools;
+import io.crate.expression.ColumnBatchFilters;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -123,6 +126,10 @@ import io.crate.expression.reference.StaticTableDefinition;
 import io.crate.expression.reference.StaticTableReferenceResolver;
 import io.crate.expression.reference.sys.SysRowUpdater;
 import io.crate.expression.reference.sys.check.node.SysNodeCheck;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Aggregation;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
 import io.crate.memory.MemoryManager;
@@ -174,6 +181,8 @@ public class ProjectionToProjectorVisitor
     private final ShardId shardId;
     private final int numProcessors;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
+    @Nullable
+    private final SpillManager spillManager;
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
                                         NodeLimits nodeJobsCounter,
@@ -188,7 +197,8 @@ public class ProjectionToProjectorVisitor
                                         Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
                                         Version indexVersionCreated,
                                         @Nullable ShardId shardId,
-                                        Map<String, FileOutputFactory> fileOutputFactoryMap) {
+                                        Map<String, FileOutputFactory> fileOutputFactoryMap,
+                                        @Nullable SpillManager spillManager) {
         this.clusterService = clusterService;
         this.nodeJobsCounter = nodeJobsCounter;
         this.circuitBreakerService = circuitBreakerService;
@@ -204,6 +214,7 @@ public class ProjectionToProjectorVisitor
         this.shardId = shardId;
         this.numProcessors = EsExecutors.numberOfProcessors(settings);
         this.fileOutputFactoryMap = fileOutputFactoryMap;
+        this.spillManager = spillManager;
     }
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
@@ -216,7 +227,8 @@ public class ProjectionToProjectorVisitor
                                         InputFactory inputFactory,
                                         EvaluatingNormalizer normalizer,
                                         Function<RelationName, SysRowUpdater<?>> sysUpdaterGetter,
-                                        Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter) {
+                                        Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
+                                        @Nullable SpillManager spillManager) {
         this(clusterService,
             nodeJobsCounter,
             circuitBreakerService,
@@ -230,7 +242,8 @@ public class ProjectionToProjectorVisitor
             staticTableDefinitionGetter,
             Version.CURRENT,
             null,
-            null
+            null,
+            spillManager
         );
     }
 
@@ -268,9 +281,12 @@ public class ProjectionToProjectorVisitor
         }
 
         int rowMemoryOverhead = 32; // priority queues implementation are backed by an arrayList
+        // The sorter releases its accounting after spilling a run; use a child so that only the bytes of
+        // the sorted rows are released and not the ones of other operators sharing `context.ramAccounting`
+        RamAccounting sortRamAccounting = new BlockBasedRamAccounting(context.ramAccounting::addBytes, 0);
         TypedCellsAccounting rowAccounting = new TypedCellsAccounting(
             rowTypes,
-            context.ramAccounting,
+            sortRamAccounting,
             rowMemoryOverhead
         );
         if (projection.limit() > NO_LIMIT) {
@@ -282,7 +298,9 @@ public class ProjectionToProjectorVisitor
                 OrderingByPosition.arrayOrdering(rowTypes, orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
                 projection.limit(),
                 projection.offset(),
-                UNBOUNDED_COLLECTOR_THRESHOLD
+                UNBOUNDED_COLLECTOR_THRESHOLD,
+                spillManager,
+                DataTypes.getStreamers(rowTypes)
             );
         }
         return new SortingProjector(
@@ -291,7 +309,10 @@ public class ProjectionToProjectorVisitor
             ctx.expressions(),
             numOutputs,
             OrderingByPosition.arrayOrdering(rowTypes, orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
-            projection.offset()
+            projection.offset(),
+            NO_LIMIT,
+            spillManager,
+            DataTypes.getStreamers(rowTypes)
         );
     }
 
@@ -340,7 +361,8 @@ public class ProjectionToProjectorVisitor
             context.ramAccounting,
             context.memoryManager,
             clusterService.state().nodes().getMinNodeVersion(),
-            indexVersionCreated
+            indexVersionCreated,
+            spillManager
         );
     }
 
@@ -360,10 +382,39 @@ public class ProjectionToProjectorVisitor
             context.ramAccounting,
             context.memoryManager,
             clusterService.state().nodes().getMinNodeVersion(),
-            indexVersionCreated
+            indexVersionCreated,
+            aggregationArgColumns(projection)
         );
     }
 
+    /**
+     * @return for each aggregation the input column of each argument,
+     *         or null if the aggregations can't be evaluated on column batches.
+     */
+    @Nullable
+    private static int[][] aggregationArgColumns(AggregationProjection projection) {
+        if (projection.mode() == AggregateMode.PARTIAL_FINAL) {
+            return null;
+        }
+        List<Aggregation> aggregations = projection.aggregations();
+        int[][] argColumns = new int[aggregations.size()][];
+        for (int i = 0; i < argColumns.length; i++) {
+            Aggregation aggregation = aggregations.get(i);
+            if (!(aggregation.filter() instanceof Literal<?> filter && Boolean.TRUE.equals(filter.value()))) {
+                return null;
+            }
+            List<Symbol> inputs = aggregation.inputs();
+            argColumns[i] = new int[inputs.size()];
+            for (int j = 0; j < inputs.size(); j++) {
+                if (!(inputs.get(j) instanceof InputColumn inputColumn)) {
+                    return null;
+                }
+                argColumns[i][j] = inputColumn.index();
+            }
+        }
+        return argColumns;
+    }
+
     @Override
     public Projector visitWriterProjection(WriterProjection projection, Context context) {
         InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(context.txnCtx);
@@ -380,12 +431,14 @@ public class ProjectionToProjectorVisitor
         assert uri != null : "URI must not be null";
         assert shardId != null : "ShardId must be set to use WriterProjection";
         IndexParts indexParts = IndexName.decode(shardId.getIndexName());
+        boolean isParquet = projection.outputFormat() == WriterProjection.OutputFormat.PARQUET;
         String fileName = String.format(
             Locale.ENGLISH,
-            "%s_%s_%s.json",
+            "%s_%s_%s.%s",
             indexParts.table(),
             shardId.id(),
-            indexParts.partitionIdent()
+            indexParts.partitionIdent(),
+            isParquet ? "parquet" : "json"
         );
 
         StringBuilder sb = new StringBuilder(uri);
@@ -393,16 +446,22 @@ public class ProjectionToProjectorVisitor
             sb.append("/");
         }
         sb.append(fileName);
-        if (projection.compressionType() == WriterProjection.CompressionType.GZIP) {
-            sb.append(".gz");
+        // Parquet compresses the pages within the file
+        if (projection.compressionType() != null && !isParquet) {
+            sb.append(switch (projection.compressionType()) {
+                case GZIP -> ".gz";
+                case LZ4 -> ".lz4";
+            });
         }
         uri = sb.toString();
 
         return new FileWriterProjector(
             threadPool.generic(),
+            threadPool.executor(ThreadPool.Names.COMPRESSION),
             uri,
             projection.compressionType(),
             inputs,
+            Symbols.typeView(projection.inputs()),
             ctx.expressions(),
             projection.outputNames(),
             projection.outputFormat(),
@@ -536,7 +595,7 @@ public class ProjectionToProjectorVisitor
     @Override
     public Projector visitFilterProjection(FilterProjection projection, Context context) {
         Predicate<Row> rowFilter = RowFilter.create(context.txnCtx, inputFactory, projection.query());
-        return new FilterProjector(rowFilter);
+        return new FilterProjector(rowFilter, ColumnBatchFilters.compile(projection.query()));
     }
 
     @Override
@@ -735,7 +794,8 @@ public class ProjectionToProjectorVisitor
             correlatedJoin.executor(),
             correlatedJoin.subQueryResults(),
             correlatedJoin.params(),
-            correlatedJoin.inputPlanOutputs()
+            correlatedJoin.inputPlanOutputs(),
+            context.ramAccounting
         );
     }
 
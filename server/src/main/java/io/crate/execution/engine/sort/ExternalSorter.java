@@ -0,0 +1,147 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.sort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+import io.crate.data.breaker.RowAccounting;
+import io.crate.execution.engine.distribution.merge.KeyIterable;
+import io.crate.execution.engine.distribution.merge.PagingIterator;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillManager;
+
+/**
+ * Sorts rows which may not fit into memory.
+ *
+ * <p>
+ * Rows are buffered in memory until the accounted memory exceeds the
+ * {@link SpillManager#thresholdInBytes() spill threshold}. The buffer is then sorted and written to a
+ * {@link SpillFile} as a sorted run. {@link #sorted()} k-way merges all runs and the remaining in-memory rows.
+ * </p>
+ *
+ * <p>
+ * Without a {@link SpillManager}, or if spilling is disabled, this behaves like an in-memory sort.
+ * </p>
+ */
+public final class ExternalSorter implements Closeable {
+
+    @Nullable
+    private final SpillManager spillManager;
+    private final Streamer<?>[] streamers;
+    private final Comparator<Object[]> comparator;
+    private final RowAccounting<Object[]> rowAccounting;
+    private final List<SpillFile> runs = new ArrayList<>();
+
+    private List<Object[]> buffer = new ArrayList<>();
+    private long bufferedBytes = 0;
+
+    /**
+     * @param spillManager  used to create the sorted runs, null to sort in memory only.
+     * @param streamers     streamers for all cells of the rows that are added.
+     * @param comparator    ordering that is used to compare the rows
+     * @param rowAccounting used to account for the memory of the buffered rows.
+     *                      It is released after each run is written to disk, so it must not be shared
+     *                      with other operators.
+     */
+    public ExternalSorter(@Nullable SpillManager spillManager,
+                          Streamer<?>[] streamers,
+                          Comparator<Object[]> comparator,
+                          RowAccounting<Object[]> rowAccounting) {
+        this.spillManager = spillManager;
+        this.streamers = streamers;
+        this.comparator = comparator;
+        this.rowAccounting = rowAccounting;
+    }
+
+    public void add(Object[] cells) {
+        buffer.add(cells);
+        bufferedBytes += rowAccounting.accountForAndMaybeBreak(cells);
+        if (spillManager != null
+            && spillManager.isEnabled()
+            && bufferedBytes >= spillManager.thresholdInBytes()) {
+            spill();
+        }
+    }
+
+    private void spill() {
+        buffer.sort(comparator);
+        SpillFile run = spillManager.newFile(streamers);
+        runs.add(run);
+        for (Object[] cells : buffer) {
+            run.add(cells);
+        }
+        run.finishWriting();
+        buffer = new ArrayList<>();
+        bufferedBytes = 0;
+        rowAccounting.release();
+    }
+
+    /**
+     * @return the number of sorted runs written to disk
+     */
+    public int numRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Returns all added rows in sorted order.
+     * The result can be iterated several times, but no more rows must be added after this has been called.
+     * It is only valid until {@link #close()}.
+     */
+    public Iterable<Object[]> sorted() {
+        buffer.sort(comparator);
+        if (runs.isEmpty()) {
+            return buffer;
+        }
+        List<KeyIterable<Integer, Object[]>> iterables = new ArrayList<>(runs.size() + 1);
+        for (int i = 0; i < runs.size(); i++) {
+            Iterable<Object[]> rows = runs.get(i)::rows;
+            iterables.add(new KeyIterable<>(i, rows));
+        }
+        iterables.add(new KeyIterable<>(runs.size(), buffer));
+        return () -> {
+            PagingIterator<Integer, Object[]> mergeIterator = PagingIterator.createSorted(comparator, false);
+            mergeIterator.merge(iterables);
+            mergeIterator.finish();
+            return mergeIterator;
+        };
+    }
+
+    /**
+     * Deletes all runs written to disk.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer = new ArrayList<>();
+        IOUtils.close(runs);
+        runs.clear();
+    }
+}
@@ -52,6 +52,8 @@ import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.DocReferences;
 import io.crate.metadata.Reference;
 import io.crate.metadata.TransactionContext;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.doc.SortedBy;
 import io.crate.metadata.doc.SysColumns;
 import io.crate.types.BitStringType;
 import io.crate.types.BooleanType;
@@ -96,6 +98,31 @@ public class LuceneSort extends SymbolVisitor<LuceneSort.SortSymbolContext, Sort
         return new Sort(sortFields);
     }
 
+    /**
+     * Creates the sort of the documents within each segment of the table as configured by the
+     * {@code sorted_by} table parameter.
+     *
+     * The created {@link SortField} equals the one created for an {@code ORDER BY} on the same column with
+     * the default null ordering. This allows the {@link org.apache.lucene.search.TopFieldCollector} to
+     * terminate early per segment once it collected {@code LIMIT} documents.
+     *
+     * @return the sort or null if the table has no {@code sorted_by} parameter.
+     */
+    @Nullable
+    public static Sort indexSort(DocTableInfo table) {
+        SortedBy sortedBy = SortedBy.of(table.parameters());
+        if (sortedBy == null) {
+            return null;
+        }
+        Reference ref = table.getReference(sortedBy.column());
+        if (ref == null) {
+            throw new IllegalStateException(
+                "Column `" + sortedBy.column() + "` used in `sorted_by` of table " + table.ident() + " does not exist");
+        }
+        NullValueOrder nullValueOrder = sortedBy.reverse() ? NullValueOrder.FIRST : NullValueOrder.LAST;
+        return new Sort(mappedSortField(ref, sortedBy.reverse(), nullValueOrder));
+    }
+
     record SortSymbolContext(TransactionContext txnCtx,
                              CollectorContext context,
                              boolean reverseFlag,
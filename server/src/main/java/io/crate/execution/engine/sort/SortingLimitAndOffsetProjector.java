@@ -25,6 +25,9 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.stream.Collector;
 
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.CollectingBatchIterator;
@@ -35,11 +38,16 @@ import io.crate.data.Row;
 import io.crate.data.SentinelRow;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillManager;
 
 public class SortingLimitAndOffsetProjector implements Projector {
 
     private final Collector<Row, ?, Bucket> collector;
     private final boolean hasNoResult;
+    @Nullable
+    private final SpillManager spillManager;
+    @Nullable
+    private final SortingProjector spillingProjector;
 
     /**
      * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
@@ -51,6 +59,9 @@ public class SortingLimitAndOffsetProjector implements Projector {
      * @param offset                      the initial offset, this number of rows are skipped
      * @param unboundedCollectorThreshold if (limit + offset) is greater than this threshold an unbounded collector will
      *                                    be used, otherwise a bounded one is used.
+     * @param spillManager                if given and spilling is enabled, an external sort which can spill to disk
+     *                                    is used instead of the unbounded collector.
+     * @param streamers                   streamers for all <code>inputs</code>, required if a spillManager is given
      */
     public SortingLimitAndOffsetProjector(RowAccounting<Object[]> rowAccounting,
                                           Collection<? extends Input<?>> inputs,
@@ -59,12 +70,16 @@ public class SortingLimitAndOffsetProjector implements Projector {
                                           Comparator<Object[]> ordering,
                                           int limit,
                                           int offset,
-                                          int unboundedCollectorThreshold) {
+                                          int unboundedCollectorThreshold,
+                                          @Nullable SpillManager spillManager,
+                                          @Nullable Streamer<?>[] streamers) {
         this.hasNoResult = limit + offset == 0;
+        this.spillManager = spillManager;
         if (offset < 0) {
             throw new IllegalArgumentException("Invalid OFFSET: value must be >= 0; got: " + offset);
         } else if (hasNoResult) {
             collector = null;
+            spillingProjector = null;
         } else if ((limit + offset) > unboundedCollectorThreshold) {
             /**
             * We'll use an unbounded queue with the initial capacity of {@link unboundedCollectorThreshold}
@@ -84,6 +99,17 @@ public class SortingLimitAndOffsetProjector implements Projector {
                 limit,
                 offset
             );
+            spillingProjector = spillManager == null ? null : new SortingProjector(
+                rowAccounting,
+                inputs,
+                collectExpressions,
+                numOutputs,
+                ordering,
+                offset,
+                limit,
+                spillManager,
+                streamers
+            );
         } else {
             collector = new BoundedSortingLimitAndOffsetCollector(
                 rowAccounting,
@@ -94,6 +120,7 @@ public class SortingLimitAndOffsetProjector implements Projector {
                 limit,
                 offset
             );
+            spillingProjector = null;
         }
     }
 
@@ -103,6 +130,9 @@ public class SortingLimitAndOffsetProjector implements Projector {
             batchIterator.close();
             return InMemoryBatchIterator.empty(SentinelRow.SENTINEL);
         }
+        if (spillingProjector != null && spillManager.isEnabled()) {
+            return spillingProjector.apply(batchIterator);
+        }
         return CollectingBatchIterator.newInstance(batchIterator, collector);
     }
 
@@ -21,27 +21,36 @@
 
 package io.crate.execution.engine.sort;
 
+import static io.crate.execution.engine.pipeline.LimitAndOffset.NO_LIMIT;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.StreamSupport;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
 import io.crate.data.BatchIterator;
-import io.crate.data.Bucket;
+import io.crate.data.Buckets;
 import io.crate.data.CollectingBatchIterator;
-import io.crate.data.CollectionBucket;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
-
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.List;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
+import io.crate.execution.engine.spill.SpillManager;
 
 /**
  * Sort rows by ordering criteria and process given offset before emitting.
  * <p>
  * Compared to {@link SortingLimitAndOffsetProjector} this projector does not support limiting,
  * while the {@link SortingLimitAndOffsetProjector} does not work WITHOUT a limit.
+ * <p>
+ * If a {@link SpillManager} is given and spilling is enabled, the rows are sorted using an {@link ExternalSorter}
+ * which writes sorted runs to disk once the spill threshold is exceeded.
  */
 public class SortingProjector implements Projector {
 
@@ -50,8 +59,13 @@ public class SortingProjector implements Projector {
 
     private final Comparator<Object[]> comparator;
     private final int offset;
+    private final int limit;
     private final int numOutputs;
     private final RowAccounting<Object[]> rowAccounting;
+    @Nullable
+    private final SpillManager spillManager;
+    @Nullable
+    private final Streamer<?>[] streamers;
 
     /**
      * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
@@ -67,24 +81,59 @@ public class SortingProjector implements Projector {
                             int numOutputs,
                             Comparator<Object[]> comparator,
                             int offset) {
+        this(rowAccounting, inputs, collectExpressions, numOutputs, comparator, offset, NO_LIMIT, null, null);
+    }
+
+    /**
+     * @param limit        the max number of rows to emit or {@code NO_LIMIT}
+     * @param spillManager used to spill sorted runs to disk if spilling is enabled, null to always sort in memory
+     * @param streamers    streamers for all <code>inputs</code>, required if a spillManager is given
+     */
+    public SortingProjector(RowAccounting<Object[]> rowAccounting,
+                            Collection<? extends Input<?>> inputs,
+                            Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                            int numOutputs,
+                            Comparator<Object[]> comparator,
+                            int offset,
+                            int limit,
+                            @Nullable SpillManager spillManager,
+                            @Nullable Streamer<?>[] streamers) {
         if (offset < 0) {
             throw new IllegalArgumentException("invalid offset " + offset);
         }
+        assert spillManager == null || streamers != null : "streamers are required if spilling is possible";
         this.rowAccounting = rowAccounting;
         this.numOutputs = numOutputs;
         this.inputs = inputs;
         this.collectExpressions = collectExpressions;
         this.comparator = comparator;
         this.offset = offset;
+        this.limit = limit;
+        this.spillManager = spillManager;
+        this.streamers = streamers;
     }
 
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        Collector<Row, ?, Bucket> collector = Collectors.mapping(
-            this::getCells,
-            Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        ExternalSorter sorter = new ExternalSorter(spillManager, streamers, comparator, rowAccounting);
+        Collector<Row, ExternalSorter, Iterable<Row>> collector = Collector.of(
+            () -> sorter,
+            (s, row) -> s.add(getCells(row)),
+            (s1, s2) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            },
+            this::createResult
+        );
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                batchIterator.close();
+                IOUtils.closeWhileHandlingException(sorter);
+            },
+            batchIterator::kill,
+            () -> batchIterator.collect(collector),
+            batchIterator.hasLazyResultSet()
+        );
     }
 
     @Override
@@ -101,15 +150,19 @@ public class SortingProjector implements Projector {
         for (Input<?> input : inputs) {
             newRow[i++] = input.value();
         }
-        rowAccounting.accountForAndMaybeBreak(newRow);
         return newRow;
     }
 
-    private Bucket sortAndCreateBucket(List<Object[]> rows) {
-        rows.sort(comparator);
-        if (offset == 0) {
-            return new CollectionBucket(rows, numOutputs);
-        }
-        return new CollectionBucket(rows.subList(offset, rows.size()), numOutputs);
+    private Iterable<Row> createResult(ExternalSorter sorter) {
+        Iterable<Object[]> sorted = sorter.sorted();
+        long maxRows = limit == NO_LIMIT ? Long.MAX_VALUE : limit;
+        return () -> {
+            Function<Object[], Row> arrayToRow = Buckets.arrayToSharedRow(numOutputs);
+            return StreamSupport.stream(sorted.spliterator(), false)
+                .skip(offset)
+                .limit(maxRows)
+                .map(arrayToRow)
+                .iterator();
+        };
     }
 }
@@ -0,0 +1,234 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.spill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import io.crate.Streamer;
+import io.crate.data.CloseableIterator;
+import io.crate.data.Row;
+
+/**
+ * A temporary file holding rows serialized via {@link Streamer}s.
+ *
+ * <p>
+ * A SpillFile is written once, sequentially, using {@link #add(Row)} or {@link #add(Object[])}.
+ * After {@link #finishWriting()} it can be read any number of times via {@link #rows()}.
+ * </p>
+ *
+ * <p>
+ * {@link #close()} deletes the file. Instances are not thread-safe.
+ * </p>
+ */
+public final class SpillFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Streamer<?>[] streamers;
+    private final LongConsumer onFinishWriting;
+    private final List<InputStreamStreamInput> openReaders = new ArrayList<>();
+
+    private StreamOutput out;
+    private long numRows = 0;
+    private long sizeInBytes = 0;
+    private boolean closed = false;
+
+    SpillFile(Path path, Streamer<?>[] streamers, LongConsumer onFinishWriting) throws IOException {
+        this.path = path;
+        this.streamers = streamers;
+        this.onFinishWriting = onFinishWriting;
+        this.out = new OutputStreamStreamOutput(new BufferedOutputStream(
+            Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+            BUFFER_SIZE
+        ));
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void add(Row row) {
+        assert out != null : "Cannot add rows to a SpillFile after finishWriting() was called";
+        assert row.numColumns() == streamers.length : "number of streamers must match row size";
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                ((Streamer) streamers[i]).writeValueTo(out, row.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows++;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void add(Object[] cells) {
+        assert out != null : "Cannot add rows to a SpillFile after finishWriting() was called";
+        assert cells.length >= streamers.length : "number of streamers must not exceed the number of cells";
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                ((Streamer) streamers[i]).writeValueTo(out, cells[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows++;
+    }
+
+    /**
+     * Flushes and closes the write side of the file. Must be called before {@link #rows()}.
+     * Calling it more than once has no effect.
+     */
+    public void finishWriting() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+            sizeInBytes = Files.size(path);
+            onFinishWriting.accept(sizeInBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out = null;
+        }
+    }
+
+    public long numRows() {
+        return numRows;
+    }
+
+    /**
+     * @return the size of the file on disk. Only valid after {@link #finishWriting()}
+     */
+    public long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Returns an iterator over all rows in the file.
+     * Each call to {@code next()} returns a new array, it is safe to keep references to them.
+     */
+    public CloseableIterator<Object[]> rows() {
+        assert out == null : "finishWriting() must be called before reading a SpillFile";
+        if (numRows == 0) {
+            return CloseableIterator.fromIterator(Collections.emptyIterator());
+        }
+        final InputStreamStreamInput in;
+        try {
+            in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        openReaders.add(in);
+        return new RowsIterator(in, streamers, numRows);
+    }
+
+    /**
+     * Closes all open readers and deletes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+            for (var reader : openReaders) {
+                reader.close();
+            }
+            openReaders.clear();
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpillFile{path=" + path + ", numRows=" + numRows + '}';
+    }
+
+    private static final class RowsIterator implements CloseableIterator<Object[]> {
+
+        private final StreamInput in;
+        private final Streamer<?>[] streamers;
+        private final long numRows;
+        private long pos = 0;
+
+        private RowsIterator(StreamInput in, Streamer<?>[] streamers, long numRows) {
+            this.in = in;
+            this.streamers = streamers;
+            this.numRows = numRows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < numRows;
+        }
+
+        @Override
+        public Object[] next() {
+            if (pos >= numRows) {
+                throw new NoSuchElementException("SpillFile has no more rows");
+            }
+            Object[] cells = new Object[streamers.length];
+            try {
+                for (int i = 0; i < streamers.length; i++) {
+                    cells[i] = streamers[i].readValueFrom(in);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pos++;
+            return cells;
+        }
+
+        @Override
+        public void close() {
+            pos = numRows;
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
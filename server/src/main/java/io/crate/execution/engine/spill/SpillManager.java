@@ -0,0 +1,164 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.spill;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.env.NodeEnvironment;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+
+/**
+ * Creates {@link SpillFile}s for operations which can move intermediate state to disk
+ * instead of keeping everything in memory.
+ *
+ * <p>
+ * Spill files are placed in a {@code spill} folder within the first node data path
+ * (or within the temporary directory if the node has no data path).
+ * Left-overs from a previous run are removed on startup.
+ * </p>
+ */
+@Singleton
+public final class SpillManager {
+
+    private static final Logger LOGGER = LogManager.getLogger(SpillManager.class);
+
+    public static final Setting<Boolean> SPILL_ENABLED = Setting.boolSetting(
+        "memory.spill.enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
+    /**
+     * Amount of memory a single operation may use for its intermediate state before it starts to spill.
+     */
+    public static final Setting<ByteSizeValue> SPILL_THRESHOLD = Setting.memorySizeSetting(
+        "memory.spill.threshold",
+        "5%",
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
+    private final Path directory;
+    private final AtomicLong fileCounter = new AtomicLong();
+    private final LongAdder filesSpilled = new LongAdder();
+    private final LongAdder bytesSpilled = new LongAdder();
+
+    private volatile boolean enabled;
+    private volatile long thresholdInBytes;
+
+    @Inject
+    public SpillManager(Settings settings,
+                        NodeEnvironment nodeEnvironment,
+                        Environment environment,
+                        ClusterSettings clusterSettings) {
+        this(
+            spillDirectory(nodeEnvironment, environment),
+            SPILL_ENABLED.get(settings),
+            SPILL_THRESHOLD.get(settings).getBytes()
+        );
+        clusterSettings.addSettingsUpdateConsumer(SPILL_ENABLED, newValue -> enabled = newValue);
+        clusterSettings.addSettingsUpdateConsumer(SPILL_THRESHOLD, newValue -> thresholdInBytes = newValue.getBytes());
+    }
+
+    public SpillManager(Path directory, boolean enabled) {
+        this(directory, enabled, SPILL_THRESHOLD.get(Settings.EMPTY).getBytes());
+    }
+
+    public SpillManager(Path directory, boolean enabled, long thresholdInBytes) {
+        this.directory = directory;
+        this.enabled = enabled;
+        this.thresholdInBytes = thresholdInBytes;
+        try {
+            IOUtils.rm(directory);
+        } catch (IOException e) {
+            LOGGER.warn("Could not remove left-over spill files in {}", directory, e);
+        }
+    }
+
+    private static Path spillDirectory(NodeEnvironment nodeEnvironment, Environment environment) {
+        if (nodeEnvironment.hasNodeFile()) {
+            return nodeEnvironment.nodeDataPaths()[0].resolve("spill");
+        }
+        return environment.tmpFile().resolve("spill");
+    }
+
+    /**
+     * @return true if operations are allowed to spill to disk once they exceed their memory budget.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the number of bytes an operation may hold in memory before it should spill to disk.
+     */
+    public long thresholdInBytes() {
+        return thresholdInBytes;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public SpillStats stats() {
+        return new SpillStats(filesSpilled.sum(), bytesSpilled.sum());
+    }
+
+    /**
+     * Creates a new, empty spill file. The caller is responsible for closing it, which deletes the file.
+     */
+    public SpillFile newFile(Streamer<?>[] streamers) {
+        try {
+            Files.createDirectories(directory);
+            Path path = directory.resolve("spill-" + fileCounter.incrementAndGet() + ".bin");
+            return new SpillFile(path, streamers, this::onFileWritten);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void onFileWritten(long sizeInBytes) {
+        filesSpilled.increment();
+        bytesSpilled.add(sizeInBytes);
+    }
+}
@@ -43,6 +43,7 @@ import io.crate.metadata.NodeContext;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.BoundSignature;
 import io.crate.metadata.functions.Signature;
+import io.crate.types.FixedWidthType;
 
 public class AggregateToWindowFunctionAdapter implements WindowFunction {
 
@@ -54,6 +55,10 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
     private final Version minNodeVersion;
     private Object accumulatedState;
 
+    @Nullable
+    private SlidingAggregation slidingAggregation;
+    private boolean sliding = false;
+
     private int seenFrameLowerBound = -1;
     private int seenFrameUpperBound = -1;
     private Object resultForCurrentFrame;
@@ -102,7 +107,12 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                           Input<?> ... args) {
         assert ignoreNulls == null;
         if (idxInPartition == 0) {
+            sliding = false;
             recomputeFunction(frame, expressions, args);
+        } else if (sliding) {
+            if (frame.lowerBound() > seenFrameLowerBound || frame.upperBoundExclusive() > seenFrameUpperBound) {
+                slide(frame, expressions, args);
+            }
         } else if (isLowerBoundIncreasing(frame, seenFrameLowerBound)) {
             if (aggregationFunction.isRemovableCumulative()) {
                 removeSeenRowsFromAccumulatedState(frame, expressions, args);
@@ -113,7 +123,25 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                 }
                 seenFrameLowerBound = frame.lowerBound();
                 seenFrameUpperBound = frame.upperBoundExclusive();
+            } else if (aggregationFunction.partialType() instanceof FixedWidthType) {
+                // Switch to the sliding aggregation for the rest of the partition, the frames of the following
+                // rows can overlap with the current one.
+                if (slidingAggregation == null) {
+                    slidingAggregation = new SlidingAggregation(
+                        aggregationFunction,
+                        filter,
+                        indexVersionCreated,
+                        ramAccounting,
+                        memoryManager,
+                        minNodeVersion
+                    );
+                }
+                slidingAggregation.reset();
+                sliding = true;
+                slide(frame, expressions, args);
             } else {
+                // The sliding aggregation keeps a state per row of the frame, a state which grows with the
+                // aggregated rows (array_agg, string_agg, ...) would make this quadratic in the frame size
                 recomputeFunction(frame, expressions, args);
             }
         } else if (frame.upperBoundExclusive() > seenFrameUpperBound) {
@@ -122,6 +150,14 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
         return resultForCurrentFrame;
     }
 
+    private void slide(WindowFrameState frame,
+                       List<? extends CollectExpression<Row, ?>> expressions,
+                       Input<?> ... args) {
+        resultForCurrentFrame = slidingAggregation.execute(frame, expressions, args);
+        seenFrameLowerBound = frame.lowerBound();
+        seenFrameUpperBound = frame.upperBoundExclusive();
+    }
+
     private void removeSeenRowsFromAccumulatedState(WindowFrameState frame,
                                                     List<? extends CollectExpression<Row, ?>> expressions,
                                                     Input<?> ... args) {
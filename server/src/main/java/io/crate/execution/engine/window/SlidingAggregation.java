@@ -0,0 +1,204 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.window;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+
+import io.crate.Streamer;
+import io.crate.data.ArrayRow;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.expression.ExpressionsInput;
+import io.crate.memory.MemoryManager;
+
+/**
+ * Computes an aggregation over a window frame sliding through a partition, for aggregations which are not
+ * {@link AggregationFunction#isRemovableCumulative() removable cumulative} and whose partial state has a fixed
+ * size, like {@code min} or {@code max} of numeric values.
+ *
+ * <p>
+ * The rows of the frame are split into a front and a back part (the "two stacks" sliding window aggregation):
+ * </p>
+ * <pre>
+ *   lowerBound          flipEnd             upperBound
+ *      |  front (suffixes) |  back (accumulated) |
+ * </pre>
+ * <ul>
+ *  <li>For each row of the front the partial state of the row up to {@code flipEnd} is kept. Moving the lower bound
+ *  of the frame only moves the offset into these states.</li>
+ *  <li>Rows entering the frame are aggregated into the back state.</li>
+ *  <li>Once the lower bound moves past the front, the front is rebuilt from the rows of the frame</li>
+ * </ul>
+ * <p>
+ * The result of a frame is the front state of the lower bound merged with the back state using
+ * {@link AggregationFunction#reduce(RamAccounting, Object, Object)}. Each row is aggregated into a front state once
+ * and into the back state once, so a partition with {@code n} rows requires {@code O(n)} iterate and reduce
+ * calls instead of {@code O(n * frameSize)}.
+ * </p>
+ * <p>
+ * Front states are shared between frames, they're only used as second argument of {@code reduce}, and copied before
+ * they're used as first argument.
+ * </p>
+ */
+final class SlidingAggregation {
+
+    private final AggregationFunction<Object, ?> aggregationFunction;
+    private final ExpressionsInput<Row, Boolean> filter;
+    private final RamAccounting ramAccounting;
+    private final Version indexVersionCreated;
+    private final MemoryManager memoryManager;
+    private final Version minNodeVersion;
+    private final Streamer<Object> partialStreamer;
+    private final BytesStreamOutput copyBuffer = new BytesStreamOutput();
+    private final ArrayRow row = new ArrayRow();
+
+    private Object[] frontStates = new Object[0];
+    private int frontStart = 0;
+    private int flipEnd = 0;
+    private int backEnd = 0;
+    private Object backState;
+
+    @SuppressWarnings("unchecked")
+    SlidingAggregation(AggregationFunction<?, ?> aggregationFunction,
+                       ExpressionsInput<Row, Boolean> filter,
+                       Version indexVersionCreated,
+                       RamAccounting ramAccounting,
+                       MemoryManager memoryManager,
+                       Version minNodeVersion) {
+        this.aggregationFunction = (AggregationFunction<Object, ?>) aggregationFunction;
+        this.filter = filter;
+        this.ramAccounting = ramAccounting;
+        this.indexVersionCreated = indexVersionCreated;
+        this.memoryManager = memoryManager;
+        this.minNodeVersion = minNodeVersion;
+        this.partialStreamer = (Streamer<Object>) aggregationFunction.partialType().streamer();
+    }
+
+    /**
+     * Starts a new partition, the next frame is computed from scratch.
+     */
+    void reset() {
+        frontStates = new Object[0];
+        frontStart = 0;
+        flipEnd = 0;
+        backEnd = 0;
+        backState = null;
+    }
+
+    /**
+     * @param frame a frame whose bounds are greater or equal to the bounds of the frame of the previous call
+     * @return the result of the aggregation for the frame
+     */
+    Object execute(WindowFrameState frame, List<? extends CollectExpression<Row, ?>> expressions, Input<?>... args) {
+        int lowerBound = frame.lowerBound();
+        int upperBound = frame.upperBoundExclusive();
+        assert lowerBound >= frontStart && upperBound >= backEnd : "Frame bounds must not decrease";
+        if (lowerBound >= flipEnd) {
+            flip(lowerBound, upperBound, frame, expressions, args);
+        } else {
+            for (int i = backEnd; i < upperBound; i++) {
+                if (setNextRow(i, frame, expressions)) {
+                    backState = aggregationFunction.iterate(ramAccounting, memoryManager, backState, args);
+                }
+            }
+            backEnd = upperBound;
+        }
+        frontStart = lowerBound;
+
+        if (lowerBound == flipEnd) {
+            return aggregationFunction.terminatePartial(ramAccounting, backState);
+        }
+        Object frontState = frontStates[lowerBound - (flipEnd - frontStates.length)];
+        if (backEnd == flipEnd) {
+            return aggregationFunction.terminatePartial(ramAccounting, frontState);
+        }
+        Object state = aggregationFunction.reduce(ramAccounting, copy(frontState), backState);
+        return aggregationFunction.terminatePartial(ramAccounting, state);
+    }
+
+    /**
+     * Rebuilds the front for the rows {@code [lowerBound, upperBound)} and empties the back
+     */
+    private void flip(int lowerBound,
+                      int upperBound,
+                      WindowFrameState frame,
+                      List<? extends CollectExpression<Row, ?>> expressions,
+                      Input<?>... args) {
+        int numRows = upperBound - lowerBound;
+        if (frontStates.length != numRows) {
+            frontStates = new Object[numRows];
+        }
+        Object next = null;
+        for (int i = upperBound - 1; i >= lowerBound; i--) {
+            Object state = newState();
+            if (setNextRow(i, frame, expressions)) {
+                state = aggregationFunction.iterate(ramAccounting, memoryManager, state, args);
+            }
+            if (next != null) {
+                // Keeps the order of the rows for aggregations like string_agg
+                state = aggregationFunction.reduce(ramAccounting, state, next);
+            }
+            frontStates[i - lowerBound] = state;
+            next = state;
+        }
+        flipEnd = upperBound;
+        backEnd = upperBound;
+        backState = newState();
+    }
+
+    private boolean setNextRow(int idxInPartition,
+                               WindowFrameState frame,
+                               List<? extends CollectExpression<Row, ?>> expressions) {
+        Object[] cells = frame.getRowInPartitionAtIndexOrNull(idxInPartition);
+        assert cells != null : "No row at idx=" + idxInPartition + " in current partition=" + frame;
+        row.cells(cells);
+        for (int j = 0, expressionsSize = expressions.size(); j < expressionsSize; j++) {
+            expressions.get(j).setNextRow(row);
+        }
+        return filter.value(row);
+    }
+
+    private Object newState() {
+        return aggregationFunction.newState(ramAccounting, indexVersionCreated, minNodeVersion, memoryManager);
+    }
+
+    /**
+     * {@code reduce} can mutate its first argument, so a shared front state must be copied before.
+     */
+    private Object copy(Object state) {
+        copyBuffer.reset();
+        try {
+            partialStreamer.writeValueTo(copyBuffer, state);
+            return partialStreamer.readValueFrom(copyBuffer.bytes().streamInput());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -23,12 +23,14 @@ package io.crate.execution.engine.window;
 
 import static io.crate.common.collections.Lists.findFirstNonPeer;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.IntSupplier;
@@ -62,6 +64,12 @@ import io.crate.execution.engine.sort.Sort;
  * on a in-memory list with RandomAccess instead of using the BatchIterator interface for the source.
  * </p>
  *
+ * <p>
+ * If the source is known to be ordered by the PARTITION BY and ORDER BY of the window definition,
+ * {@link #ofSortedInput} can be used instead. It only buffers the rows of the current partition and emits the results
+ * of a partition as soon as the first row of the next partition is read.
+ * </p>
+ *
  * <pre>
  *     Partition
  *      |
@@ -123,6 +131,45 @@ public final class WindowFunctionBatchIterator {
         );
     }
 
+    /**
+     * Like {@link #of} but for a source that is already sorted by the partition and order by symbols of the window
+     * definition. Only the rows of the current partition are kept in memory; the memory accounted for the rows of a
+     * partition is released via {@code allocateBytes} once all rows of the partition have been emitted.
+     */
+    public static BatchIterator<Row> ofSortedInput(BatchIterator<Row> source,
+                                                   LongConsumer allocateBytes,
+                                                   RowAccounting<Row> rowAccounting,
+                                                   ComputeFrameBoundary<Object[]> computeFrameStart,
+                                                   ComputeFrameBoundary<Object[]> computeFrameEnd,
+                                                   Comparator<Object[]> cmpPartitionBy,
+                                                   int numCellsInSourceRow,
+                                                   List<WindowFunction> windowFunctions,
+                                                   List<? extends CollectExpression<Row, ?>> argsExpressions,
+                                                   Boolean[] ignoreNulls,
+                                                   Input<?>[] ... args) {
+        assert windowFunctions.size() == args.length : "arguments must be defined for each window function";
+        assert args.length == ignoreNulls.length : "ignore-nulls option must be defined for each window function";
+        Function<List<Object[]>, Iterator<Object[]>> computeWindowsFn = partitionRows -> computeWindowFunctions(
+            partitionRows,
+            allocateBytes,
+            computeFrameStart,
+            computeFrameEnd,
+            cmpPartitionBy,
+            numCellsInSourceRow,
+            windowFunctions,
+            argsExpressions,
+            ignoreNulls,
+            args).iterator();
+        return new PartitionStreamingBatchIterator(
+            source,
+            allocateBytes,
+            rowAccounting,
+            cmpPartitionBy,
+            windowFunctions.size(),
+            computeWindowsFn
+        );
+    }
+
     private static Object[] materializeWithSpare(Row row, int numWindowFunctions) {
         Object[] cells = new Object[row.numColumns() + numWindowFunctions];
         for (int i = 0; i < row.numColumns(); i++) {
@@ -254,4 +301,136 @@ public final class WindowFunctionBatchIterator {
         }
         return row;
     }
+
+    /**
+     * Consumes a source sorted by partition and emits the window function results partition by partition.
+     */
+    private static final class PartitionStreamingBatchIterator implements BatchIterator<Row> {
+
+        private final BatchIterator<Row> source;
+        private final LongConsumer allocateBytes;
+        private final RowAccounting<Row> rowAccounting;
+        private final Comparator<Object[]> cmpPartitionBy;
+        private final int numWindowFunctions;
+        private final Function<List<Object[]>, Iterator<Object[]>> computeWindowsFn;
+        private final Function<Object[], Row> toRow = Buckets.arrayToSharedRow();
+        private final ArrayList<Object[]> partition = new ArrayList<>();
+
+        private long partitionBytes = 0;
+        @Nullable
+        private Iterator<Object[]> partitionResults = null;
+        @Nullable
+        private Object[] firstRowOfNextPartition = null;
+        private long firstRowOfNextPartitionBytes = 0;
+        private boolean sourceExhausted = false;
+        private Row current = null;
+
+        PartitionStreamingBatchIterator(BatchIterator<Row> source,
+                                        LongConsumer allocateBytes,
+                                        RowAccounting<Row> rowAccounting,
+                                        Comparator<Object[]> cmpPartitionBy,
+                                        int numWindowFunctions,
+                                        Function<List<Object[]>, Iterator<Object[]>> computeWindowsFn) {
+            this.source = source;
+            this.allocateBytes = allocateBytes;
+            this.rowAccounting = rowAccounting;
+            this.cmpPartitionBy = cmpPartitionBy;
+            this.numWindowFunctions = numWindowFunctions;
+            this.computeWindowsFn = computeWindowsFn;
+        }
+
+        @Override
+        public Row currentElement() {
+            return current;
+        }
+
+        @Override
+        public void moveToStart() {
+            releasePartition();
+            allocateBytes.accept(-firstRowOfNextPartitionBytes);
+            firstRowOfNextPartition = null;
+            firstRowOfNextPartitionBytes = 0;
+            sourceExhausted = false;
+            current = null;
+            source.moveToStart();
+        }
+
+        @Override
+        public boolean moveNext() {
+            while (true) {
+                if (partitionResults != null) {
+                    if (partitionResults.hasNext()) {
+                        current = toRow.apply(partitionResults.next());
+                        return true;
+                    }
+                    releasePartition();
+                    if (firstRowOfNextPartition != null) {
+                        partition.add(firstRowOfNextPartition);
+                        partitionBytes = firstRowOfNextPartitionBytes;
+                        firstRowOfNextPartition = null;
+                        firstRowOfNextPartitionBytes = 0;
+                    }
+                }
+                if (sourceExhausted) {
+                    current = null;
+                    return false;
+                }
+                if (source.moveNext()) {
+                    Row row = source.currentElement();
+                    long bytes = rowAccounting.accountForAndMaybeBreak(row);
+                    Object[] cells = materializeWithSpare(row, numWindowFunctions);
+                    if (partition.isEmpty() || cmpPartitionBy.compare(partition.get(0), cells) == 0) {
+                        partition.add(cells);
+                        partitionBytes += bytes;
+                    } else {
+                        firstRowOfNextPartition = cells;
+                        firstRowOfNextPartitionBytes = bytes;
+                        partitionResults = computeWindowsFn.apply(partition);
+                    }
+                } else if (source.allLoaded()) {
+                    sourceExhausted = true;
+                    if (!partition.isEmpty()) {
+                        partitionResults = computeWindowsFn.apply(partition);
+                    }
+                } else {
+                    return false;
+                }
+            }
+        }
+
+        private void releasePartition() {
+            partitionResults = null;
+            partition.clear();
+            allocateBytes.accept(-partitionBytes);
+            partitionBytes = 0;
+        }
+
+        @Override
+        public void close() {
+            partitionResults = null;
+            partition.clear();
+            firstRowOfNextPartition = null;
+            source.close();
+        }
+
+        @Override
+        public CompletionStage<?> loadNextBatch() throws Exception {
+            return source.loadNextBatch();
+        }
+
+        @Override
+        public boolean allLoaded() {
+            return source.allLoaded();
+        }
+
+        @Override
+        public void kill(Throwable throwable) {
+            source.kill(throwable);
+        }
+
+        @Override
+        public boolean hasLazyResultSet() {
+            return source.hasLazyResultSet();
+        }
+    }
 }
@@ -26,14 +26,18 @@ import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.distribution.DistributedResultRequest;
 import io.crate.execution.engine.distribution.merge.BatchPagingIterator;
 import io.crate.execution.engine.distribution.merge.KeyIterable;
 import io.crate.execution.engine.distribution.merge.PagingIterator;
 import io.netty.util.collection.IntObjectHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.Accountable;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import io.crate.common.annotations.GuardedBy;
 import io.crate.common.concurrent.KillableCompletionStage;
 
@@ -52,6 +56,13 @@ import java.util.concurrent.RejectedExecutionException;
  * A {@link PageBucketReceiver} which receives buckets from upstreams, wait to receive the page from all upstreams
  * and forwards the merged bucket results to the consumers for further processing. It then continues to receive
  * the buckets from the next page from all upstreams.
+ *
+ * <p>
+ * Upstreams can send the next pages of a bucket before the current page got consumed. These pages are buffered
+ * and their {@link PageResultListener} is only invoked once they've been consumed, so an upstream can't have more
+ * pages in flight than it has been granted. The buffered pages are accounted with the given {@link RamAccounting}
+ * until they become the current page, the rows of the current page are accounted by the {@link PagingIterator}.
+ * </p>
  */
 public class CumulativePageBucketReceiver implements PageBucketReceiver {
 
@@ -69,8 +80,12 @@ public class CumulativePageBucketReceiver implements PageBucketReceiver {
     private final Map<Integer, PageResultListener> listenersByBucketIdx;
     @GuardedBy("lock")
     private final Map<Integer, Bucket> bucketsByIdx;
+    @GuardedBy("lock")
+    private final Map<Integer, BufferedPages> pagesByBucketIdx;
     private final RowConsumer consumer;
     private final PagingIterator<Integer, Row> pagingIterator;
+    @GuardedBy("lock")
+    private final RamAccounting bufferedPagesRamAccounting;
     private final BatchIterator<Row> batchPagingIterator;
     private final CompletableFuture<?> processingFuture = new CompletableFuture<>();
 
@@ -85,6 +100,21 @@ public class CumulativePageBucketReceiver implements PageBucketReceiver {
                                         RowConsumer rowConsumer,
                                         PagingIterator<Integer, Row> pagingIterator,
                                         int numBuckets) {
+        this(nodeName, phaseId, executor, streamers, rowConsumer, pagingIterator, numBuckets, RamAccounting.NO_ACCOUNTING);
+    }
+
+    /**
+     * @param bufferedPagesRamAccounting accounts the pages which are received ahead of the current page.
+     *                                   Released once the receiver completes.
+     */
+    public CumulativePageBucketReceiver(String nodeName,
+                                        int phaseId,
+                                        Executor executor,
+                                        Streamer<?>[] streamers,
+                                        RowConsumer rowConsumer,
+                                        PagingIterator<Integer, Row> pagingIterator,
+                                        int numBuckets,
+                                        RamAccounting bufferedPagesRamAccounting) {
         this.nodeName = nodeName;
         this.phaseId = phaseId;
         this.executor = executor;
@@ -92,10 +122,12 @@ public class CumulativePageBucketReceiver implements PageBucketReceiver {
         this.consumer = rowConsumer;
         this.pagingIterator = pagingIterator;
         this.numBuckets = numBuckets;
+        this.bufferedPagesRamAccounting = bufferedPagesRamAccounting;
 
         this.exhausted = Collections.newSetFromMap(new IntObjectHashMap<>(numBuckets));
         this.bucketsByIdx = new IntObjectHashMap<>(numBuckets);
         this.listenersByBucketIdx = new IntObjectHashMap<>(numBuckets);
+        this.pagesByBucketIdx = new IntObjectHashMap<>(numBuckets);
         processingFuture.whenComplete((result, ex) -> {
             synchronized (listenersByBucketIdx) {
                 for (PageResultListener resultListener : listenersByBucketIdx.values()) {
@@ -103,6 +135,12 @@ public class CumulativePageBucketReceiver implements PageBucketReceiver {
                 }
                 listenersByBucketIdx.clear();
             }
+            synchronized (lock) {
+                for (BufferedPages pages : pagesByBucketIdx.values()) {
+                    pages.release();
+                }
+                bufferedPagesRamAccounting.release();
+            }
         });
         batchPagingIterator = new BatchPagingIterator<>(
             pagingIterator,
@@ -121,37 +159,122 @@ public class CumulativePageBucketReceiver implements PageBucketReceiver {
 
     @Override
     public void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        setBucket(bucketIdx, DistributedResultRequest.UNKNOWN_PAGE_IDX, rows, isLast, pageResultListener);
+    }
+
+    @Override
+    public void setBucket(int bucketIdx,
+                          int pageIdx,
+                          Bucket rows,
+                          boolean isLast,
+                          PageResultListener pageResultListener) {
         final boolean isLastOrHasError;
         synchronized (listenersByBucketIdx) {
-            isLastOrHasError = isLast || lastThrowable != null;
-            if (!isLastOrHasError) {
-                listenersByBucketIdx.put(bucketIdx, pageResultListener);
-            }
+            isLastOrHasError = isLast || lastThrowable != null || processingFuture.isDone();
         }
         if (isLastOrHasError) {
             pageResultListener.needMore(false);
         }
         final boolean allBucketsOfPageReceived;
+        Page page = new Page(rows, isLast, isLastOrHasError ? null : pageResultListener, ramBytesUsed(rows));
+        Throwable bufferFailure = null;
         synchronized (lock) {
             if (traceEnabled) {
-                LOGGER.trace("method=setBucket phaseId={} bucket={} istLast={}", phaseId, bucketIdx, isLast);
+                LOGGER.trace("method=setBucket phaseId={} bucket={} page={} istLast={}", phaseId, bucketIdx, pageIdx, isLast);
             }
-
-            if (bucketsByIdx.putIfAbsent(bucketIdx, rows) != null) {
+            BufferedPages pages = pagesByBucketIdx.get(bucketIdx);
+            if (pages == null) {
+                pages = new BufferedPages();
+                pagesByBucketIdx.put(bucketIdx, pages);
+            }
+            boolean duplicate;
+            if (pageIdx == DistributedResultRequest.UNKNOWN_PAGE_IDX) {
+                // Upstream waits for a response before it sends the next page
+                pageIdx = pages.nextPageIdx;
+                duplicate = bucketsByIdx.containsKey(bucketIdx) || pages.buffered.containsKey(pageIdx);
+            } else {
+                duplicate = pageIdx < pages.nextPageIdx || pages.buffered.containsKey(pageIdx);
+            }
+            if (duplicate) {
                 processingFuture.completeExceptionally(new IllegalStateException(String.format(Locale.ENGLISH,
                     "Same bucket of a page set more than once. node=%s method=setBucket phaseId=%d bucket=%d",
                     nodeName, phaseId, bucketIdx)));
+                allBucketsOfPageReceived = false;
+            } else if (pageIdx == pages.nextPageIdx && canMoveToCurrentPage(bucketIdx, pages)) {
+                setCurrentPage(bucketIdx, pages, page);
+                allBucketsOfPageReceived = bucketsByIdx.size() == numBuckets;
+            } else {
+                try {
+                    bufferedPagesRamAccounting.addBytes(page.ramBytes);
+                    pages.buffered.put(pageIdx, page);
+                } catch (Throwable t) {
+                    bufferFailure = t;
+                }
+                allBucketsOfPageReceived = false;
             }
-            if (isLast) {
-                exhausted.add(bucketIdx);
+        }
+        if (bufferFailure != null) {
+            if (page.listener != null) {
+                page.listener.needMore(false);
             }
-            allBucketsOfPageReceived = bucketsByIdx.size() == numBuckets;
+            kill(bufferFailure);
+            return;
         }
         if (allBucketsOfPageReceived) {
             processPage();
         }
     }
 
+    /**
+     * Moves the next page of a bucket into the current page if the consumer requested it and it has been received.
+     *
+     * @return true if the bucket of the current page was set.
+     */
+    @GuardedBy("lock")
+    private boolean moveToCurrentPage(int bucketIdx, BufferedPages pages) {
+        if (!canMoveToCurrentPage(bucketIdx, pages)) {
+            return false;
+        }
+        Page page = pages.buffered.remove(pages.nextPageIdx);
+        if (page == null) {
+            return false;
+        }
+        bufferedPagesRamAccounting.addBytes(-page.ramBytes);
+        setCurrentPage(bucketIdx, pages, page);
+        return true;
+    }
+
+    @GuardedBy("lock")
+    private boolean canMoveToCurrentPage(int bucketIdx, BufferedPages pages) {
+        return pages.requested && !bucketsByIdx.containsKey(bucketIdx);
+    }
+
+    @GuardedBy("lock")
+    private void setCurrentPage(int bucketIdx, BufferedPages pages, Page page) {
+        pages.nextPageIdx++;
+        pages.requested = false;
+        bucketsByIdx.put(bucketIdx, page.rows);
+        if (page.isLast) {
+            exhausted.add(bucketIdx);
+        }
+        if (page.listener != null) {
+            boolean released;
+            synchronized (listenersByBucketIdx) {
+                released = processingFuture.isDone();
+                if (!released) {
+                    listenersByBucketIdx.put(bucketIdx, page.listener);
+                }
+            }
+            if (released) {
+                page.listener.needMore(false);
+            }
+        }
+    }
+
+    private static long ramBytesUsed(Bucket rows) {
+        return rows instanceof Accountable accountable ? accountable.ramBytesUsed() : 0L;
+    }
+
     private void triggerConsumerOrPageFuture(List<KeyIterable<Integer, Row>> buckets) {
         boolean invokeConsumer = false;
         Throwable throwable;
@@ -244,24 +367,56 @@ public class CumulativePageBucketReceiver implements PageBucketReceiver {
     }
 
     private void fetchExhausted(Integer exhaustedBucket) {
-        synchronized (listenersByBucketIdx) {
+        PageResultListener pageResultListener;
+        boolean allBucketsOfPageReceived;
+        synchronized (lock) {
+            synchronized (listenersByBucketIdx) {
+                pageResultListener = listenersByBucketIdx.remove(exhaustedBucket);
+            }
             // We're only requesting data for 1 specific bucket,
             // so we need to fill in other buckets to meet the
             // "receivedAllBucketsOfPage" condition once we get the data for this bucket
-            PageResultListener pageResultListener = listenersByBucketIdx.remove(exhaustedBucket);
-            for (Integer bucketIdx : listenersByBucketIdx.keySet()) {
-                bucketsByIdx.putIfAbsent(bucketIdx, Bucket.EMPTY);
+            for (Integer bucketIdx : pagesByBucketIdx.keySet()) {
+                if (!bucketIdx.equals(exhaustedBucket) && !exhausted.contains(bucketIdx)) {
+                    bucketsByIdx.putIfAbsent(bucketIdx, Bucket.EMPTY);
+                }
             }
+            BufferedPages pages = pagesByBucketIdx.get(exhaustedBucket);
+            pages.requested = true;
+            allBucketsOfPageReceived = moveToCurrentPage(exhaustedBucket, pages)
+                && bucketsByIdx.size() == numBuckets;
+        }
+        if (pageResultListener != null) {
             pageResultListener.needMore(true);
         }
+        if (allBucketsOfPageReceived) {
+            processPage();
+        }
     }
 
     private void fetchFromUnExhausted() {
-        synchronized (listenersByBucketIdx) {
-            for (PageResultListener listener : listenersByBucketIdx.values()) {
-                listener.needMore(true);
+        List<PageResultListener> listeners;
+        boolean allBucketsOfPageReceived = false;
+        synchronized (lock) {
+            synchronized (listenersByBucketIdx) {
+                listeners = new ArrayList<>(listenersByBucketIdx.values());
+                listenersByBucketIdx.clear();
             }
-            listenersByBucketIdx.clear();
+            for (Map.Entry<Integer, BufferedPages> entry : pagesByBucketIdx.entrySet()) {
+                Integer bucketIdx = entry.getKey();
+                if (!exhausted.contains(bucketIdx)) {
+                    BufferedPages pages = entry.getValue();
+                    pages.requested = true;
+                    allBucketsOfPageReceived |= moveToCurrentPage(bucketIdx, pages);
+                }
+            }
+            allBucketsOfPageReceived = allBucketsOfPageReceived && bucketsByIdx.size() == numBuckets;
+        }
+        for (PageResultListener listener : listeners) {
+            listener.needMore(true);
+        }
+        if (allBucketsOfPageReceived) {
+            processPage();
         }
     }
 
@@ -298,6 +453,36 @@ public class CumulativePageBucketReceiver implements PageBucketReceiver {
         }
     }
 
+    private record Page(Bucket rows, boolean isLast, @Nullable PageResultListener listener, long ramBytes) {
+    }
+
+    /**
+     * Pages of a bucket which have been received but aren't part of the current page yet.
+     */
+    private static class BufferedPages {
+
+        private final Map<Integer, Page> buffered = new IntObjectHashMap<>();
+
+        /**
+         * Index of the page which is added next to the current page.
+         */
+        private int nextPageIdx = 0;
+
+        /**
+         * Whether the consumer requested the next page of this bucket.
+         */
+        private boolean requested = true;
+
+        private void release() {
+            for (Page page : buffered.values()) {
+                if (page.listener != null) {
+                    page.listener.needMore(false);
+                }
+            }
+            buffered.clear();
+        }
+    }
+
     @Override
     public String toString() {
         return "CumulativePageBucketReceiver{" +
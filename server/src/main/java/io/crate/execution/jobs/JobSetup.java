@@ -110,6 +110,7 @@ import io.crate.execution.engine.join.NestedLoopOperation;
 import io.crate.execution.engine.pipeline.ProjectingRowConsumer;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
+import io.crate.execution.engine.spill.SpillManager;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -135,6 +136,7 @@ public class JobSetup {
     private final CircuitBreakerService circuitBreakerService;
     private final CountOperation countOperation;
     private final MemoryManagerFactory memoryManagerFactory;
+    private final SpillManager spillManager;
     private final DistributingConsumerFactory distributingConsumerFactory;
     private final InnerPreparer innerPreparer;
     private final InputFactory inputFactory;
@@ -158,7 +160,8 @@ public class JobSetup {
                     NodeContext nodeCtx,
                     SystemCollectSource systemCollectSource,
                     ShardCollectSource shardCollectSource,
-                    MemoryManagerFactory memoryManagerFactory) {
+                    MemoryManagerFactory memoryManagerFactory,
+                    SpillManager spillManager) {
         this.nodeName = Node.NODE_NAME_SETTING.get(settings);
         this.schemas = nodeCtx.schemas();
         this.collectOperation = collectOperation;
@@ -166,6 +169,7 @@ public class JobSetup {
         this.circuitBreakerService = circuitBreakerService;
         this.countOperation = countOperation;
         this.memoryManagerFactory = memoryManagerFactory;
+        this.spillManager = spillManager;
         this.pkLookupOperation = new PKLookupOperation(indicesService, shardCollectSource);
         this.distributingConsumerFactory = distributingConsumerFactory;
         innerPreparer = new InnerPreparer();
@@ -183,7 +187,8 @@ public class JobSetup {
             inputFactory,
             normalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            spillManager
         );
     }
 
@@ -732,7 +737,8 @@ public class JobSetup {
                         () -> new TypedRowAccounting(
                             phase.inputTypes(),
                             new BlockBasedRamAccounting(ramAccounting::addBytes, ramAccountingBlockSizeInBytes))),
-                    phase.numUpstreams());
+                    phase.numUpstreams(),
+                    new BlockBasedRamAccounting(ramAccounting::addBytes, ramAccountingBlockSizeInBytes));
             } else {
                 pageBucketReceiver = new IncrementalPageBucketReceiver<>(
                     collector,
@@ -950,7 +956,10 @@ public class JobSetup {
                 inputFactory,
                 breaker(),
                 phase.estimatedRowSizeForLeft(),
-                phase.joinType() == JoinType.LEFT
+                phase.joinType() == JoinType.LEFT,
+                spillManager,
+                phase.leftOutputTypes(),
+                phase.rightOutputTypes()
             );
             DistResultRXTask left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
@@ -1026,7 +1035,8 @@ public class JobSetup {
                     () -> new TypedRowAccounting(
                         mergePhase.inputTypes(),
                         ramAccounting)),
-                mergePhase.numUpstreams());
+                mergePhase.numUpstreams(),
+                new BlockBasedRamAccounting(ramAccounting::addBytes, 0));
 
             return new DistResultRXTask(
                 mergePhase.phaseId(),
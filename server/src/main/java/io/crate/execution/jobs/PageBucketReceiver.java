@@ -29,6 +29,7 @@ import io.crate.common.concurrent.Killable;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.Bucket;
 import io.crate.execution.dsl.phases.MergePhase;
+import io.crate.execution.engine.distribution.DistributedResultRequest;
 import io.crate.execution.engine.distribution.DistributingConsumerFactory;
 
 /**
@@ -71,6 +72,28 @@ public interface PageBucketReceiver extends CompletionListenable, Killable {
      */
     void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener);
 
+    /**
+     * Like {@link #setBucket(int, Bucket, boolean, PageResultListener)} but for upstreams which send the next pages
+     * of a bucket before receiving the response for the previous one.
+     * Pages can then arrive out of order and {@code pageIdx} defines their order.
+     *
+     * <p>
+     * The {@code pageResultListener} of a page acts as credit: An upstream only sends another page once the listener
+     * of a previous page has been called with {@code needMore=true}.
+     * </p>
+     *
+     * @param pageIdx The index of the page within all pages of {@code bucketIdx}, starting at 0.
+     *                Can be {@link DistributedResultRequest#UNKNOWN_PAGE_IDX} if the upstream waits for the
+     *                response of each page before it sends the next one.
+     */
+    default void setBucket(int bucketIdx,
+                           int pageIdx,
+                           Bucket rows,
+                           boolean isLast,
+                           PageResultListener pageResultListener) {
+        setBucket(bucketIdx, rows, isLast, pageResultListener);
+    }
+
     Streamer<?>[] streamers();
 
     /**
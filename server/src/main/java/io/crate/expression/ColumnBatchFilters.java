@@ -0,0 +1,187 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.expression;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.ColumnBatchFilter;
+import io.crate.data.columnar.ColumnVector;
+import io.crate.data.columnar.DoubleVector;
+import io.crate.data.columnar.LongVector;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+
+/**
+ * Compiles filter symbols into {@link ColumnBatchFilter}s, the batch equivalent of {@link RowFilter}.
+ *
+ * <p>
+ * Supported are conjunctions of comparisons ({@code =, <, <=, >, >=}) between an {@link InputColumn} of a
+ * numeric or timestamp type and a {@link Literal}.
+ * Like the scalar implementations, comparisons with {@code null} never match.
+ * </p>
+ */
+public final class ColumnBatchFilters {
+
+    private ColumnBatchFilters() {
+    }
+
+    /**
+     * @return the filter or null if the query contains parts which can't be evaluated on column batches.
+     */
+    @Nullable
+    public static ColumnBatchFilter compile(@Nullable Symbol query) {
+        if (query == null) {
+            return batch -> {};
+        }
+        if (query instanceof Literal<?> literal) {
+            return Boolean.TRUE.equals(literal.value()) ? batch -> {} : batch -> batch.select(0);
+        }
+        if (!(query instanceof Function function)) {
+            return null;
+        }
+        List<Symbol> args = function.arguments();
+        if (function.name().equals(AndOperator.NAME)) {
+            ColumnBatchFilter left = compile(args.get(0));
+            ColumnBatchFilter right = compile(args.get(1));
+            return left == null || right == null ? null : left.and(right);
+        }
+        IntPredicate isMatch = switch (function.name()) {
+            case EqOperator.NAME -> cmp -> cmp == 0;
+            case LtOperator.NAME -> cmp -> cmp < 0;
+            case LteOperator.NAME -> cmp -> cmp <= 0;
+            case GtOperator.NAME -> cmp -> cmp > 0;
+            case GteOperator.NAME -> cmp -> cmp >= 0;
+            default -> null;
+        };
+        if (isMatch == null || args.size() != 2) {
+            return null;
+        }
+        if (args.get(0) instanceof InputColumn column && args.get(1) instanceof Literal<?> literal) {
+            return compare(column, literal, isMatch);
+        }
+        if (args.get(0) instanceof Literal<?> literal && args.get(1) instanceof InputColumn column) {
+            // literal < column  <=>  column > literal
+            return compare(column, literal, cmp -> isMatch.test(-cmp));
+        }
+        return null;
+    }
+
+    @Nullable
+    private static ColumnBatchFilter compare(InputColumn inputColumn, Literal<?> literal, IntPredicate isMatch) {
+        DataType<?> type = inputColumn.valueType();
+        if (type.id() != literal.valueType().id()) {
+            return null;
+        }
+        int index = inputColumn.index();
+        Object value = literal.value();
+        if (value == null) {
+            return batch -> batch.select(0);
+        }
+        return switch (type.id()) {
+            case ByteType.ID, ShortType.ID, IntegerType.ID, LongType.ID,
+                 TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> {
+                long longValue = ((Number) value).longValue();
+                yield batch -> {
+                    if (batch.column(index) instanceof LongVector column) {
+                        filterLongs(batch, column, longValue, isMatch);
+                    } else {
+                        filterObjects(batch, batch.column(index), type, value, isMatch);
+                    }
+                };
+            }
+            case FloatType.ID, DoubleType.ID -> {
+                double doubleValue = ((Number) value).doubleValue();
+                yield batch -> {
+                    if (batch.column(index) instanceof DoubleVector column) {
+                        filterDoubles(batch, column, doubleValue, isMatch);
+                    } else {
+                        filterObjects(batch, batch.column(index), type, value, isMatch);
+                    }
+                };
+            }
+            default -> null;
+        };
+    }
+
+    private static void filterLongs(ColumnBatch batch, LongVector column, long value, IntPredicate isMatch) {
+        int[] positions = batch.positions();
+        int selected = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            int position = positions[i];
+            if (!column.isNull(position) && isMatch.test(Long.compare(column.getLong(position), value))) {
+                positions[selected++] = position;
+            }
+        }
+        batch.select(selected);
+    }
+
+    private static void filterDoubles(ColumnBatch batch, DoubleVector column, double value, IntPredicate isMatch) {
+        int[] positions = batch.positions();
+        int selected = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            int position = positions[i];
+            if (!column.isNull(position) && isMatch.test(Double.compare(column.getDouble(position), value))) {
+                positions[selected++] = position;
+            }
+        }
+        batch.select(selected);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void filterObjects(ColumnBatch batch,
+                                      ColumnVector column,
+                                      DataType type,
+                                      Object value,
+                                      IntPredicate isMatch) {
+        int[] positions = batch.positions();
+        int selected = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            int position = positions[i];
+            Object columnValue = column.get(position);
+            if (columnValue != null && isMatch.test(type.compare(columnValue, value))) {
+                positions[selected++] = position;
+            }
+        }
+        batch.select(selected);
+    }
+}
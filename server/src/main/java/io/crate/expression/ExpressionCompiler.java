@@ -0,0 +1,913 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression;
+
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.LongBinaryOperator;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.Input;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
+import io.crate.expression.operator.OrOperator;
+import io.crate.expression.predicate.NotPredicate;
+import io.crate.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.expression.scalar.conditional.CaseFunction;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+
+/**
+ * Compiles trees of common scalar functions into a tree of specialized nodes
+ * which evaluate on primitive values.
+ * <p>
+ * A {@link FunctionExpression} evaluates each function by boxing its result and
+ * dispatching through {@link io.crate.metadata.Scalar#evaluate}. For predicates
+ * like {@code a + b > 10 AND c < 5.0} that means several allocations and
+ * megamorphic calls per row. The compiled form instead keeps intermediate
+ * results as {@code long}, {@code double} or {@code boolean} and only boxes the
+ * final result (predicates used via {@link InputCondition} aren't boxed at all).
+ * </p>
+ * <p>
+ * Supported are comparisons, AND/OR/NOT, arithmetic and CASE on integral,
+ * floating point, timestamp, boolean and text values. Arguments which cannot
+ * be compiled (references, input columns or other functions) are evaluated
+ * through their regular {@link Input} and unboxed once.
+ * Functions that aren't supported return {@code null} from
+ * {@link #compile(Function, java.util.function.Function)} and must be evaluated
+ * using a {@link FunctionExpression}.
+ * </p>
+ */
+public final class ExpressionCompiler {
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * Compiles {@code function}, using {@code toInput} to create inputs for
+     * arguments which cannot be compiled.
+     *
+     * @return the compiled input or null if the function is not supported.
+     */
+    @Nullable
+    public static Input<?> compile(Function function, java.util.function.Function<Symbol, Input<?>> toInput) {
+        if (!isSupported(function)) {
+            return null;
+        }
+        Compiler compiler = new Compiler(toInput);
+        DataType<?> type = function.valueType();
+        return switch (kind(type)) {
+            case LONG -> new LongRoot(compiler.compileLong(function), type.id());
+            case DOUBLE -> new DoubleRoot(compiler.compileDouble(function), type.id());
+            case BOOLEAN -> new CompiledCondition(compiler.compileBoolean(function));
+            case TEXT -> new TextRoot(compiler.compileText(function));
+            case NONE -> throw new AssertionError("Supported function must have a supported return type");
+        };
+    }
+
+    private enum Kind {
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        TEXT,
+        NONE
+    }
+
+    private static Kind kind(DataType<?> type) {
+        return switch (type.id()) {
+            case ByteType.ID,
+                 ShortType.ID,
+                 IntegerType.ID,
+                 LongType.ID,
+                 TimestampType.ID_WITH_TZ,
+                 TimestampType.ID_WITHOUT_TZ -> Kind.LONG;
+            case FloatType.ID, DoubleType.ID -> Kind.DOUBLE;
+            case BooleanType.ID -> Kind.BOOLEAN;
+            case StringType.ID -> Kind.TEXT;
+            default -> Kind.NONE;
+        };
+    }
+
+    private static boolean isSupported(Function function) {
+        if (!function.signature().getName().isBuiltin() || function.filter() != null) {
+            return false;
+        }
+        List<Symbol> args = function.arguments();
+        return switch (function.name()) {
+            case AndOperator.NAME, OrOperator.NAME ->
+                args.size() == 2
+                    && kind(args.get(0).valueType()) == Kind.BOOLEAN
+                    && kind(args.get(1).valueType()) == Kind.BOOLEAN;
+            case NotPredicate.NAME ->
+                args.size() == 1 && kind(args.get(0).valueType()) == Kind.BOOLEAN;
+            case EqOperator.NAME, GtOperator.NAME, GteOperator.NAME, LtOperator.NAME, LteOperator.NAME -> {
+                if (args.size() != 2) {
+                    yield false;
+                }
+                Kind kind = kind(args.get(0).valueType());
+                yield kind != Kind.NONE && kind != Kind.BOOLEAN && kind(args.get(1).valueType()) == kind;
+            }
+            case ArithmeticFunctions.Names.ADD,
+                 ArithmeticFunctions.Names.SUBTRACT,
+                 ArithmeticFunctions.Names.MULTIPLY,
+                 ArithmeticFunctions.Names.DIVIDE,
+                 ArithmeticFunctions.Names.MODULUS,
+                 ArithmeticFunctions.Names.MOD,
+                 ArithmeticFunctions.Names.POWER -> {
+                int typeId = function.valueType().id();
+                yield args.size() == 2
+                    && arithmeticReturnType(function.name(), typeId)
+                    && args.get(0).valueType().id() == typeId
+                    && args.get(1).valueType().id() == typeId;
+            }
+            case CaseFunction.NAME -> {
+                Kind kind = kind(function.valueType());
+                if (args.size() < 2 || args.size() % 2 != 0 || kind == Kind.NONE || !hasKind(args.get(1), kind)) {
+                    yield false;
+                }
+                for (int i = 2; i < args.size(); i += 2) {
+                    if (!hasKind(args.get(i), Kind.BOOLEAN) || !hasKind(args.get(i + 1), kind)) {
+                        yield false;
+                    }
+                }
+                yield true;
+            }
+            default -> false;
+        };
+    }
+
+    private static boolean hasKind(Symbol symbol, Kind kind) {
+        return kind(symbol.valueType()) == kind || (symbol instanceof Literal<?> literal && literal.value() == null);
+    }
+
+    private static boolean arithmeticReturnType(String name, int typeId) {
+        if (name.equals(ArithmeticFunctions.Names.POWER)) {
+            return typeId == DoubleType.ID;
+        }
+        return switch (typeId) {
+            case IntegerType.ID,
+                 LongType.ID,
+                 TimestampType.ID_WITH_TZ,
+                 TimestampType.ID_WITHOUT_TZ,
+                 FloatType.ID,
+                 DoubleType.ID -> true;
+            default -> false;
+        };
+    }
+
+    private static final class Compiler {
+
+        private final java.util.function.Function<Symbol, Input<?>> toInput;
+
+        private Compiler(java.util.function.Function<Symbol, Input<?>> toInput) {
+            this.toInput = toInput;
+        }
+
+        private LongNode compileLong(Symbol symbol) {
+            if (symbol instanceof Literal<?> literal) {
+                return new LongConstant((Number) literal.value());
+            }
+            if (symbol instanceof Function function && isSupported(function)) {
+                List<Symbol> args = function.arguments();
+                if (function.name().equals(CaseFunction.NAME)) {
+                    int numCases = args.size() / 2 - 1;
+                    BooleanNode[] conditions = new BooleanNode[numCases];
+                    LongNode[] values = new LongNode[numCases];
+                    for (int i = 0; i < numCases; i++) {
+                        conditions[i] = compileBoolean(args.get(2 + i * 2));
+                        values[i] = compileLong(args.get(3 + i * 2));
+                    }
+                    return new LongCase(conditions, values, compileLong(args.get(1)));
+                }
+                return new LongArithmetic(
+                    longOperator(function.name(), function.valueType().id() == IntegerType.ID),
+                    compileLong(args.get(0)),
+                    compileLong(args.get(1))
+                );
+            }
+            return new LongInput(toInput.apply(symbol));
+        }
+
+        private DoubleNode compileDouble(Symbol symbol) {
+            if (symbol instanceof Literal<?> literal) {
+                return new DoubleConstant((Number) literal.value());
+            }
+            if (symbol instanceof Function function && isSupported(function)) {
+                List<Symbol> args = function.arguments();
+                if (function.name().equals(CaseFunction.NAME)) {
+                    int numCases = args.size() / 2 - 1;
+                    BooleanNode[] conditions = new BooleanNode[numCases];
+                    DoubleNode[] values = new DoubleNode[numCases];
+                    for (int i = 0; i < numCases; i++) {
+                        conditions[i] = compileBoolean(args.get(2 + i * 2));
+                        values[i] = compileDouble(args.get(3 + i * 2));
+                    }
+                    return new DoubleCase(conditions, values, compileDouble(args.get(1)));
+                }
+                return new DoubleArithmetic(
+                    doubleOperator(function.name(), function.valueType().id() == FloatType.ID),
+                    compileDouble(args.get(0)),
+                    compileDouble(args.get(1))
+                );
+            }
+            return new DoubleInput(toInput.apply(symbol));
+        }
+
+        private TextNode compileText(Symbol symbol) {
+            if (symbol instanceof Literal<?> literal) {
+                String value = DataTypes.STRING.sanitizeValue(literal.value());
+                return () -> value;
+            }
+            if (symbol instanceof Function function && isSupported(function)) {
+                // CASE is the only supported function returning text
+                List<Symbol> args = function.arguments();
+                int numCases = args.size() / 2 - 1;
+                BooleanNode[] conditions = new BooleanNode[numCases];
+                TextNode[] values = new TextNode[numCases];
+                for (int i = 0; i < numCases; i++) {
+                    conditions[i] = compileBoolean(args.get(2 + i * 2));
+                    values[i] = compileText(args.get(3 + i * 2));
+                }
+                return new TextCase(conditions, values, compileText(args.get(1)));
+            }
+            Input<?> input = toInput.apply(symbol);
+            return () -> DataTypes.STRING.sanitizeValue(input.value());
+        }
+
+        private BooleanNode compileBoolean(Symbol symbol) {
+            if (symbol instanceof Literal<?> literal) {
+                return new BooleanConstant((Boolean) literal.value());
+            }
+            if (symbol instanceof Function function && isSupported(function)) {
+                List<Symbol> args = function.arguments();
+                return switch (function.name()) {
+                    case AndOperator.NAME -> new And(compileBoolean(args.get(0)), compileBoolean(args.get(1)));
+                    case OrOperator.NAME -> new Or(compileBoolean(args.get(0)), compileBoolean(args.get(1)));
+                    case NotPredicate.NAME -> new Not(compileBoolean(args.get(0)));
+                    case CaseFunction.NAME -> {
+                        int numCases = args.size() / 2 - 1;
+                        BooleanNode[] conditions = new BooleanNode[numCases];
+                        BooleanNode[] values = new BooleanNode[numCases];
+                        for (int i = 0; i < numCases; i++) {
+                            conditions[i] = compileBoolean(args.get(2 + i * 2));
+                            values[i] = compileBoolean(args.get(3 + i * 2));
+                        }
+                        yield new BooleanCase(conditions, values, compileBoolean(args.get(1)));
+                    }
+                    default -> compileComparison(function.name(), args.get(0), args.get(1));
+                };
+            }
+            return new BooleanInput(toInput.apply(symbol));
+        }
+
+        private BooleanNode compileComparison(String name, Symbol left, Symbol right) {
+            return switch (kind(left.valueType())) {
+                case LONG -> new LongComparison(name, compileLong(left), compileLong(right));
+                case DOUBLE -> new DoubleComparison(name, compileDouble(left), compileDouble(right));
+                case TEXT -> new TextComparison(name, compileText(left), compileText(right));
+                case BOOLEAN, NONE -> throw new AssertionError("Unsupported comparison type: " + left.valueType());
+            };
+        }
+    }
+
+    private static LongBinaryOperator longOperator(String name, boolean isInteger) {
+        if (isInteger) {
+            return switch (name) {
+                case ArithmeticFunctions.Names.ADD -> (a, b) -> Math.addExact((int) a, (int) b);
+                case ArithmeticFunctions.Names.SUBTRACT -> (a, b) -> Math.subtractExact((int) a, (int) b);
+                case ArithmeticFunctions.Names.MULTIPLY -> (a, b) -> Math.multiplyExact((int) a, (int) b);
+                case ArithmeticFunctions.Names.DIVIDE -> (a, b) -> (int) a / (int) b;
+                default -> (a, b) -> (int) a % (int) b;
+            };
+        }
+        return switch (name) {
+            case ArithmeticFunctions.Names.ADD -> Math::addExact;
+            case ArithmeticFunctions.Names.SUBTRACT -> Math::subtractExact;
+            case ArithmeticFunctions.Names.MULTIPLY -> Math::multiplyExact;
+            case ArithmeticFunctions.Names.DIVIDE -> (a, b) -> a / b;
+            default -> (a, b) -> a % b;
+        };
+    }
+
+    private static DoubleBinaryOperator doubleOperator(String name, boolean isFloat) {
+        if (isFloat) {
+            return switch (name) {
+                case ArithmeticFunctions.Names.ADD -> (a, b) -> (float) a + (float) b;
+                case ArithmeticFunctions.Names.SUBTRACT -> (a, b) -> (float) a - (float) b;
+                case ArithmeticFunctions.Names.MULTIPLY -> (a, b) -> (float) a * (float) b;
+                case ArithmeticFunctions.Names.DIVIDE -> (a, b) -> (float) a / (float) b;
+                default -> (a, b) -> (float) a % (float) b;
+            };
+        }
+        return switch (name) {
+            case ArithmeticFunctions.Names.ADD -> Double::sum;
+            case ArithmeticFunctions.Names.SUBTRACT -> (a, b) -> a - b;
+            case ArithmeticFunctions.Names.MULTIPLY -> (a, b) -> a * b;
+            case ArithmeticFunctions.Names.DIVIDE -> (a, b) -> a / b;
+            case ArithmeticFunctions.Names.POWER -> Math::pow;
+            default -> (a, b) -> a % b;
+        };
+    }
+
+    private static IntPredicate cmpResultIsMatch(String name) {
+        return switch (name) {
+            case EqOperator.NAME -> cmp -> cmp == 0;
+            case GtOperator.NAME -> cmp -> cmp > 0;
+            case GteOperator.NAME -> cmp -> cmp >= 0;
+            case LtOperator.NAME -> cmp -> cmp < 0;
+            default -> cmp -> cmp <= 0;
+        };
+    }
+
+    /**
+     * A compiled boolean expression. Used by {@link InputCondition} to
+     * evaluate filters without boxing the result.
+     */
+    static final class CompiledCondition implements Input<Boolean> {
+
+        private final BooleanNode node;
+
+        private CompiledCondition(BooleanNode node) {
+            this.node = node;
+        }
+
+        boolean matches() {
+            return node.eval() && !node.isNull;
+        }
+
+        @Override
+        public Boolean value() {
+            boolean value = node.eval();
+            return node.isNull ? null : value;
+        }
+    }
+
+    private static final class LongRoot implements Input<Object> {
+
+        private final LongNode node;
+        private final int typeId;
+
+        private LongRoot(LongNode node, int typeId) {
+            this.node = node;
+            this.typeId = typeId;
+        }
+
+        @Override
+        public Object value() {
+            long value = node.eval();
+            if (node.isNull) {
+                return null;
+            }
+            return switch (typeId) {
+                case ByteType.ID -> (byte) value;
+                case ShortType.ID -> (short) value;
+                case IntegerType.ID -> (int) value;
+                default -> value;
+            };
+        }
+    }
+
+    private static final class DoubleRoot implements Input<Object> {
+
+        private final DoubleNode node;
+        private final int typeId;
+
+        private DoubleRoot(DoubleNode node, int typeId) {
+            this.node = node;
+            this.typeId = typeId;
+        }
+
+        @Override
+        public Object value() {
+            double value = node.eval();
+            if (node.isNull) {
+                return null;
+            }
+            return typeId == FloatType.ID ? (Object) (float) value : (Object) value;
+        }
+    }
+
+    private static final class TextRoot implements Input<String> {
+
+        private final TextNode node;
+
+        private TextRoot(TextNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public String value() {
+            return node.eval();
+        }
+    }
+
+    /**
+     * Nodes return a primitive value and set {@code isNull} on every
+     * evaluation. The returned value is undefined if {@code isNull} is true.
+     */
+    private abstract static class LongNode {
+
+        boolean isNull;
+
+        abstract long eval();
+    }
+
+    private abstract static class DoubleNode {
+
+        boolean isNull;
+
+        abstract double eval();
+    }
+
+    private abstract static class BooleanNode {
+
+        boolean isNull;
+
+        abstract boolean eval();
+    }
+
+    @FunctionalInterface
+    private interface TextNode {
+
+        @Nullable
+        String eval();
+    }
+
+    private static final class LongConstant extends LongNode {
+
+        private final long value;
+
+        private LongConstant(@Nullable Number value) {
+            this.isNull = value == null;
+            this.value = value == null ? 0L : value.longValue();
+        }
+
+        @Override
+        long eval() {
+            return value;
+        }
+    }
+
+    private static final class LongInput extends LongNode {
+
+        private final Input<?> input;
+
+        private LongInput(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        long eval() {
+            Object value = input.value();
+            if (value == null) {
+                isNull = true;
+                return 0L;
+            }
+            isNull = false;
+            return ((Number) value).longValue();
+        }
+    }
+
+    private static final class LongArithmetic extends LongNode {
+
+        private final LongBinaryOperator operator;
+        private final LongNode left;
+        private final LongNode right;
+
+        private LongArithmetic(LongBinaryOperator operator, LongNode left, LongNode right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        long eval() {
+            long leftValue = left.eval();
+            if (left.isNull) {
+                isNull = true;
+                return 0L;
+            }
+            long rightValue = right.eval();
+            if (right.isNull) {
+                isNull = true;
+                return 0L;
+            }
+            isNull = false;
+            try {
+                return operator.applyAsLong(leftValue, rightValue);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class LongCase extends LongNode {
+
+        private final BooleanNode[] conditions;
+        private final LongNode[] values;
+        private final LongNode defaultValue;
+
+        private LongCase(BooleanNode[] conditions, LongNode[] values, LongNode defaultValue) {
+            this.conditions = conditions;
+            this.values = values;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        long eval() {
+            LongNode result = defaultValue;
+            for (int i = 0; i < conditions.length; i++) {
+                BooleanNode condition = conditions[i];
+                if (condition.eval() && !condition.isNull) {
+                    result = values[i];
+                    break;
+                }
+            }
+            long value = result.eval();
+            isNull = result.isNull;
+            return value;
+        }
+    }
+
+    private static final class DoubleConstant extends DoubleNode {
+
+        private final double value;
+
+        private DoubleConstant(@Nullable Number value) {
+            this.isNull = value == null;
+            this.value = value == null ? 0.0 : value.doubleValue();
+        }
+
+        @Override
+        double eval() {
+            return value;
+        }
+    }
+
+    private static final class DoubleInput extends DoubleNode {
+
+        private final Input<?> input;
+
+        private DoubleInput(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        double eval() {
+            Object value = input.value();
+            if (value == null) {
+                isNull = true;
+                return 0.0;
+            }
+            isNull = false;
+            return ((Number) value).doubleValue();
+        }
+    }
+
+    private static final class DoubleArithmetic extends DoubleNode {
+
+        private final DoubleBinaryOperator operator;
+        private final DoubleNode left;
+        private final DoubleNode right;
+
+        private DoubleArithmetic(DoubleBinaryOperator operator, DoubleNode left, DoubleNode right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double eval() {
+            double leftValue = left.eval();
+            if (left.isNull) {
+                isNull = true;
+                return 0.0;
+            }
+            double rightValue = right.eval();
+            if (right.isNull) {
+                isNull = true;
+                return 0.0;
+            }
+            isNull = false;
+            return operator.applyAsDouble(leftValue, rightValue);
+        }
+    }
+
+    private static final class DoubleCase extends DoubleNode {
+
+        private final BooleanNode[] conditions;
+        private final DoubleNode[] values;
+        private final DoubleNode defaultValue;
+
+        private DoubleCase(BooleanNode[] conditions, DoubleNode[] values, DoubleNode defaultValue) {
+            this.conditions = conditions;
+            this.values = values;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        double eval() {
+            DoubleNode result = defaultValue;
+            for (int i = 0; i < conditions.length; i++) {
+                BooleanNode condition = conditions[i];
+                if (condition.eval() && !condition.isNull) {
+                    result = values[i];
+                    break;
+                }
+            }
+            double value = result.eval();
+            isNull = result.isNull;
+            return value;
+        }
+    }
+
+    private static final class TextCase implements TextNode {
+
+        private final BooleanNode[] conditions;
+        private final TextNode[] values;
+        private final TextNode defaultValue;
+
+        private TextCase(BooleanNode[] conditions, TextNode[] values, TextNode defaultValue) {
+            this.conditions = conditions;
+            this.values = values;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public String eval() {
+            for (int i = 0; i < conditions.length; i++) {
+                BooleanNode condition = conditions[i];
+                if (condition.eval() && !condition.isNull) {
+                    return values[i].eval();
+                }
+            }
+            return defaultValue.eval();
+        }
+    }
+
+    private static final class BooleanConstant extends BooleanNode {
+
+        private final boolean value;
+
+        private BooleanConstant(@Nullable Boolean value) {
+            this.isNull = value == null;
+            this.value = value != null && value;
+        }
+
+        @Override
+        boolean eval() {
+            return value;
+        }
+    }
+
+    private static final class BooleanInput extends BooleanNode {
+
+        private final Input<?> input;
+
+        private BooleanInput(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        boolean eval() {
+            Object value = input.value();
+            if (value == null) {
+                isNull = true;
+                return false;
+            }
+            isNull = false;
+            return (Boolean) value;
+        }
+    }
+
+    private static final class BooleanCase extends BooleanNode {
+
+        private final BooleanNode[] conditions;
+        private final BooleanNode[] values;
+        private final BooleanNode defaultValue;
+
+        private BooleanCase(BooleanNode[] conditions, BooleanNode[] values, BooleanNode defaultValue) {
+            this.conditions = conditions;
+            this.values = values;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        boolean eval() {
+            BooleanNode result = defaultValue;
+            for (int i = 0; i < conditions.length; i++) {
+                BooleanNode condition = conditions[i];
+                if (condition.eval() && !condition.isNull) {
+                    result = values[i];
+                    break;
+                }
+            }
+            boolean value = result.eval();
+            isNull = result.isNull;
+            return value;
+        }
+    }
+
+    /**
+     * Three valued AND. Unlike {@link AndOperator} this doesn't evaluate the
+     * right side if the left side is false.
+     */
+    private static final class And extends BooleanNode {
+
+        private final BooleanNode left;
+        private final BooleanNode right;
+
+        private And(BooleanNode left, BooleanNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean eval() {
+            boolean leftValue = left.eval();
+            if (!left.isNull && !leftValue) {
+                isNull = false;
+                return false;
+            }
+            boolean rightValue = right.eval();
+            if (!right.isNull && !rightValue) {
+                isNull = false;
+                return false;
+            }
+            isNull = left.isNull || right.isNull;
+            return !isNull;
+        }
+    }
+
+    /**
+     * Three valued OR. Unlike {@link OrOperator} this doesn't evaluate the
+     * right side if the left side is true.
+     */
+    private static final class Or extends BooleanNode {
+
+        private final BooleanNode left;
+        private final BooleanNode right;
+
+        private Or(BooleanNode left, BooleanNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean eval() {
+            boolean leftValue = left.eval();
+            if (!left.isNull && leftValue) {
+                isNull = false;
+                return true;
+            }
+            boolean rightValue = right.eval();
+            if (!right.isNull && rightValue) {
+                isNull = false;
+                return true;
+            }
+            isNull = left.isNull || right.isNull;
+            return false;
+        }
+    }
+
+    private static final class Not extends BooleanNode {
+
+        private final BooleanNode arg;
+
+        private Not(BooleanNode arg) {
+            this.arg = arg;
+        }
+
+        @Override
+        boolean eval() {
+            boolean value = arg.eval();
+            isNull = arg.isNull;
+            return !value;
+        }
+    }
+
+    private static final class LongComparison extends BooleanNode {
+
+        private final IntPredicate isMatch;
+        private final LongNode left;
+        private final LongNode right;
+
+        private LongComparison(String name, LongNode left, LongNode right) {
+            this.isMatch = cmpResultIsMatch(name);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean eval() {
+            long leftValue = left.eval();
+            if (left.isNull) {
+                isNull = true;
+                return false;
+            }
+            long rightValue = right.eval();
+            if (right.isNull) {
+                isNull = true;
+                return false;
+            }
+            isNull = false;
+            return isMatch.test(Long.compare(leftValue, rightValue));
+        }
+    }
+
+    private static final class DoubleComparison extends BooleanNode {
+
+        private final IntPredicate isMatch;
+        private final DoubleNode left;
+        private final DoubleNode right;
+
+        private DoubleComparison(String name, DoubleNode left, DoubleNode right) {
+            this.isMatch = cmpResultIsMatch(name);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean eval() {
+            double leftValue = left.eval();
+            if (left.isNull) {
+                isNull = true;
+                return false;
+            }
+            double rightValue = right.eval();
+            if (right.isNull) {
+                isNull = true;
+                return false;
+            }
+            isNull = false;
+            // Double.compare to match the NaN and -0.0 semantics of DoubleType.compare
+            return isMatch.test(Double.compare(leftValue, rightValue));
+        }
+    }
+
+    private static final class TextComparison extends BooleanNode {
+
+        private final IntPredicate isMatch;
+        private final TextNode left;
+        private final TextNode right;
+
+        private TextComparison(String name, TextNode left, TextNode right) {
+            this.isMatch = cmpResultIsMatch(name);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean eval() {
+            String leftValue = left.eval();
+            if (leftValue == null) {
+                isNull = true;
+                return false;
+            }
+            String rightValue = right.eval();
+            if (rightValue == null) {
+                isNull = true;
+                return false;
+            }
+            isNull = false;
+            return isMatch.test(leftValue.compareTo(rightValue));
+        }
+    }
+}
@@ -35,6 +35,9 @@ public class InputCondition {
     }
 
     public static boolean matches(Input<Boolean> condition) {
+        if (condition instanceof ExpressionCompiler.CompiledCondition compiled) {
+            return compiled.matches();
+        }
         Boolean match = condition.value();
         return !(match == null) && match;
     }
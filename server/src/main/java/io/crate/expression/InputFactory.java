@@ -39,6 +39,7 @@ import io.crate.execution.engine.collect.RowCollectExpression;
 import io.crate.expression.reference.GatheringRefResolver;
 import io.crate.expression.reference.ReferenceResolver;
 import io.crate.expression.symbol.Aggregation;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.InputColumn;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.SymbolVisitor;
@@ -58,6 +59,8 @@ import io.crate.metadata.TransactionContext;
  *     <br />
  *
  *     Inputs from symbols like Functions or Literals are "standalone" and won't have a linked expression.
+ *     Functions supported by the {@link ExpressionCompiler} are compiled into specialized inputs,
+ *     all others are evaluated using a {@link FunctionExpression}.
  * </p>
  *
  *
@@ -185,6 +188,12 @@ public class InputFactory {
             }
             return inputCollectExpression;
         }
+
+        @Override
+        public Input<?> visitFunction(Function function, Void context) {
+            Input<?> compiled = ExpressionCompiler.compile(function, arg -> arg.accept(this, context));
+            return compiled == null ? super.visitFunction(function, context) : compiled;
+        }
     }
 
     private static class AggregationVisitor extends InputColumnVisitor {
@@ -243,5 +252,11 @@ public class InputFactory {
             referenceMap.put(ref, implementation);
             return implementation;
         }
+
+        @Override
+        public Input<?> visitFunction(Function function, Void context) {
+            Input<?> compiled = ExpressionCompiler.compile(function, arg -> arg.accept(this, context));
+            return compiled == null ? super.visitFunction(function, context) : compiled;
+        }
     }
 }
@@ -38,8 +38,10 @@ import org.elasticsearch.monitor.process.ProcessStats;
 import org.elasticsearch.threadpool.ThreadPoolStats;
 
 import io.crate.common.collections.Lists;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.monitor.ExtendedOsStats;
 import io.crate.protocols.ConnectionStats;
+import io.crate.session.PlanCacheStats;
 import io.crate.types.DataTypes;
 
 public class NodeStatsContext implements Writeable {
@@ -64,6 +66,8 @@ public class NodeStatsContext implements Writeable {
     private ThreadPoolStats threadPools;
     private ConnectionStats httpStats;
     private ConnectionStats psqlStats;
+    private SpillStats spillStats;
+    private PlanCacheStats planCacheStats;
 
     private String osName;
     private String osArch;
@@ -207,6 +211,14 @@ public class NodeStatsContext implements Writeable {
         return transportStats;
     }
 
+    public SpillStats spillStats() {
+        return spillStats;
+    }
+
+    public PlanCacheStats planCacheStats() {
+        return planCacheStats;
+    }
+
     public Integer httpPort() {
         return httpPort;
     }
@@ -307,6 +319,14 @@ public class NodeStatsContext implements Writeable {
         this.transportStats = transportStats;
     }
 
+    public void spillStats(SpillStats spillStats) {
+        this.spillStats = spillStats;
+    }
+
+    public void planCacheStats(PlanCacheStats planCacheStats) {
+        this.planCacheStats = planCacheStats;
+    }
+
     public NodeStatsContext(StreamInput in, boolean complete) throws IOException {
         this.complete = complete;
         this.id = DataTypes.STRING.readValueFrom(in);
@@ -347,6 +367,10 @@ public class NodeStatsContext implements Writeable {
             }
             this.transportStats = new ConnectionStats(in.readLong(), -1, -1, -1, -1, -1);
         }
+        if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+            this.spillStats = in.readOptionalWriteable(SpillStats::new);
+            this.planCacheStats = in.readOptionalWriteable(PlanCacheStats::new);
+        }
 
         this.clusterStateVersion = in.readLong();
 
@@ -413,6 +437,10 @@ public class NodeStatsContext implements Writeable {
                 out.writeLong(-1);
             }
         }
+        if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+            out.writeOptionalWriteable(spillStats);
+            out.writeOptionalWriteable(planCacheStats);
+        }
 
         out.writeLong(clusterStateVersion);
 
@@ -57,11 +57,15 @@ import org.elasticsearch.transport.TransportService;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
+import io.crate.execution.engine.spill.SpillManager;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.sys.SysNodesTableInfo;
 import io.crate.monitor.ExtendedNodeInfo;
 import io.crate.protocols.ConnectionStats;
 import io.crate.protocols.postgres.PostgresNetty;
+import io.crate.session.PlanCacheStats;
+import io.crate.session.Sessions;
 
 @Singleton
 public class NodeStatsContextFieldResolver {
@@ -80,6 +84,8 @@ public class NodeStatsContextFieldResolver {
     private final JvmService jvmService;
     private final FsService fsService;
     private final LongSupplier clusterStateVersion;
+    private final Supplier<SpillStats> spillStats;
+    private final Supplier<PlanCacheStats> planCacheStats;
 
     @Inject
     @SuppressWarnings("unused")
@@ -89,7 +95,9 @@ public class NodeStatsContextFieldResolver {
                                          TransportService transportService,
                                          ThreadPool threadPool,
                                          ExtendedNodeInfo extendedNodeInfo,
-                                         PostgresNetty postgresNetty) {
+                                         PostgresNetty postgresNetty,
+                                         SpillManager spillManager,
+                                         Sessions sessions) {
         this(
             clusterService::localNode,
             nodeService.getMonitorService(),
@@ -106,7 +114,9 @@ public class NodeStatsContextFieldResolver {
                 return boundTransportAddress.publishAddress();
             },
             transportService::stats,
-            () -> clusterService.state().version()
+            () -> clusterService.state().version(),
+            spillManager::stats,
+            sessions.planCache()::stats
         );
     }
 
@@ -120,7 +130,9 @@ public class NodeStatsContextFieldResolver {
                                   Supplier<ConnectionStats> psqlStats,
                                   Supplier<TransportAddress> boundPostgresAddress,
                                   Supplier<ConnectionStats> transportStats,
-                                  LongSupplier clusterStateVersion) {
+                                  LongSupplier clusterStateVersion,
+                                  Supplier<SpillStats> spillStats,
+                                  Supplier<PlanCacheStats> planCacheStats) {
         this.localNode = localNode;
         processService = monitorService.processService();
         osService = monitorService.osService();
@@ -134,6 +146,8 @@ public class NodeStatsContextFieldResolver {
         this.boundPostgresAddress = boundPostgresAddress;
         this.transportStats = transportStats;
         this.clusterStateVersion = clusterStateVersion;
+        this.spillStats = spillStats;
+        this.planCacheStats = planCacheStats;
     }
 
     public NodeStatsContext forTopColumnIdents(Collection<ColumnIdent> topColumnIdents) {
@@ -277,5 +291,17 @@ public class NodeStatsContextFieldResolver {
             public void accept(NodeStatsContext context) {
                 context.fsInfo(fsService.stats());
             }
+        }),
+        entry(SysNodesTableInfo.Columns.SPILL, new Consumer<>() {
+            @Override
+            public void accept(NodeStatsContext context) {
+                context.spillStats(spillStats.get());
+            }
+        }),
+        entry(SysNodesTableInfo.Columns.PLAN_CACHE, new Consumer<>() {
+            @Override
+            public void accept(NodeStatsContext context) {
+                context.planCacheStats(planCacheStats.get());
+            }
         }));
 }
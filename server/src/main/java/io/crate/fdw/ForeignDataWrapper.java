@@ -26,8 +26,11 @@ import java.util.concurrent.CompletableFuture;
 
 import org.elasticsearch.common.settings.Setting;
 
+import io.crate.analyze.OrderBy;
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
+import io.crate.execution.dsl.phases.ForeignCollectPhase;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Symbol;
 import io.crate.fdw.ServersMetadata.Server;
 import io.crate.metadata.TransactionContext;
@@ -51,16 +54,56 @@ public interface ForeignDataWrapper {
      * Indicates if the query can be executed on the foreign server.
      *
      * If this returns `false` filtering must be done via dedicated filter operator
-     * because the query parameter to
-     * {@link #getIterator(Role, Server, ForeignTable, TransactionContext, List, Symbol)}
+     * because the query of the phase passed to
+     * {@link #getIterator(Role, Server, ForeignTable, TransactionContext, ForeignCollectPhase, List)}
      * is ignored.
      **/
     boolean supportsQueryPushdown(Symbol query);
 
+    /**
+     * Indicates if the foreign server can limit the number of rows it returns.
+     * The limit is only a hint, the rows are limited again via dedicated limit operator.
+     */
+    default boolean supportsLimitPushdown() {
+        return false;
+    }
+
+    /**
+     * Indicates if the foreign server can return the rows in the given order.
+     * Like the limit, the order is only a hint and rows are sorted again via dedicated order operator.
+     */
+    default boolean supportsOrderByPushdown(OrderBy orderBy) {
+        return false;
+    }
+
+    /**
+     * Indicates if the foreign server can evaluate the aggregations, grouped by the given keys.
+     * If this returns `true`, the {@link ForeignCollectPhase#toCollect()} contains the
+     * aggregations and the foreign server must return one row per group.
+     */
+    default boolean supportsAggregatePushdown(ForeignTable foreignTable,
+                                              List<Symbol> groupKeys,
+                                              List<Function> aggregates) {
+        return false;
+    }
+
+    /**
+     * Number of partitions the rows of the foreign table are split into.
+     * Partitions are read concurrently and can be distributed across nodes.
+     */
+    default int numPartitions(ForeignTable foreignTable) {
+        return 1;
+    }
+
+    /**
+     * @param phase contains the columns to collect, the query and the limit, order and aggregations
+     *              that were pushed down to the foreign server.
+     * @param partitions the partitions to read, each in the range of 0 to {@link #numPartitions(ForeignTable)}
+     */
     CompletableFuture<BatchIterator<Row>> getIterator(Role user,
                                                       Server server,
                                                       ForeignTable foreignTable,
                                                       TransactionContext txnCtx,
-                                                      List<Symbol> collect,
-                                                      Symbol query);
+                                                      ForeignCollectPhase phase,
+                                                      List<Integer> partitions);
 }
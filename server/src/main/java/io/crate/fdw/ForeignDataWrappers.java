@@ -23,6 +23,8 @@ package io.crate.fdw;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -35,6 +37,7 @@ import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
@@ -67,11 +70,12 @@ public class ForeignDataWrappers implements CollectSource {
     @Inject
     public ForeignDataWrappers(Settings settings,
                                ClusterService clusterService,
-                               NodeContext nodeContext) {
+                               NodeContext nodeContext,
+                               ThreadPool threadPool) {
         this.clusterService = clusterService;
         this.inputFactory = new InputFactory(nodeContext);
         this.wrappers = Map.of(
-            "jdbc", new JdbcForeignDataWrapper(settings, inputFactory)
+            "jdbc", new JdbcForeignDataWrapper(settings, inputFactory, threadPool)
         );
         this.roles = nodeContext.roles();
     }
@@ -126,13 +130,22 @@ public class ForeignDataWrappers implements CollectSource {
         if (executeAs == null) {
             executeAs = txnCtx.sessionSettings().userName();
         }
+        // Partitions are assigned round-robin to the nodes of the phase
+        List<String> nodeIds = phase.nodeIds();
+        int nodeIdx = nodeIds.indexOf(clusterService.localNode().getId());
+        assert nodeIdx >= 0 : "ForeignCollectPhase must only run on the nodes of the phase";
+        int numPartitions = fdw.numPartitions(foreignTable);
+        List<Integer> partitions = new ArrayList<>();
+        for (int partition = Math.max(0, nodeIdx); partition < numPartitions; partition += nodeIds.size()) {
+            partitions.add(partition);
+        }
         return fdw.getIterator(
             requireNonNull(roles.findUser(executeAs), "current user must exist"),
             server,
             foreignTable,
             txnCtx,
-            collectPhase.toCollect(),
-            phase.query()
+            phase,
+            partitions
         );
     }
 }
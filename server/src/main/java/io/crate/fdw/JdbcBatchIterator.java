@@ -31,6 +31,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
@@ -47,13 +48,16 @@ import org.apache.lucene.util.Accountable;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
+import io.crate.analyze.OrderBy;
 import io.crate.common.collections.Lists;
 import io.crate.common.exceptions.Exceptions;
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.exceptions.ConversionException;
+import io.crate.execution.engine.pipeline.LimitAndOffset;
 import io.crate.expression.scalar.cast.CastMode;
 import io.crate.expression.symbol.RefReplacer;
 import io.crate.expression.symbol.Symbol;
@@ -78,32 +82,100 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
     private final Properties properties;
     private final Row row;
     private final Object[] cells;
-    private final List<Reference> columns;
+    private final List<? extends Symbol> columns;
     private final Symbol query;
     private final RelationName table;
+    @Nullable
+    private final Range range;
+    private final int fetchSize;
+    @Nullable
+    private final List<Symbol> groupBy;
+    @Nullable
+    private final OrderBy orderBy;
+    private final int limit;
 
     private Connection conn;
     private PreparedStatement statement;
     private ResultSet resultSet;
     private volatile Throwable killed = null;
 
+    /**
+     * @param columns the columns to fetch; contains aggregations if {@code groupBy} is not null.
+     * @param range restricts the rows to read to a range of a column, null to read all rows.
+     * @param fetchSize number of rows to fetch per round-trip, 0 to use the default of the JDBC driver.
+     * @param groupBy the keys to group by if the aggregations in {@code columns} are evaluated
+     *                by the foreign database, null if there are no aggregations.
+     * @param orderBy the order in which the foreign database returns the rows, null for any order.
+     * @param limit the maximum number of rows to fetch, {@link LimitAndOffset#NO_LIMIT} to fetch all rows.
+     */
     public JdbcBatchIterator(String url,
                              Properties properties,
-                             List<Reference> columns,
+                             List<? extends Symbol> columns,
                              Symbol query,
-                             RelationName table) {
+                             RelationName table,
+                             @Nullable Range range,
+                             int fetchSize,
+                             @Nullable List<Symbol> groupBy,
+                             @Nullable OrderBy orderBy,
+                             int limit) {
         this.url = url;
         this.properties = properties;
         this.columns = columns;
         this.query = query;
         this.table = table;
+        this.range = range;
+        this.fetchSize = fetchSize;
+        this.groupBy = groupBy;
+        this.orderBy = orderBy;
+        this.limit = limit;
         this.cells = new Object[columns.size()];
         this.row = new RowN(cells);
     }
 
+    /**
+     * Range of a column of an integral type.
+     * The first range of a partitioned read has no lower bound and includes NULL values,
+     * the last range has no upper bound.
+     *
+     * @param from inclusive lower bound, null for no lower bound.
+     * @param to exclusive upper bound, null for no upper bound.
+     */
+    public record Range(Reference column, @Nullable Long from, @Nullable Long to) {
+
+        String toString(String quoteString) {
+            String col = new QuotedReference(column, quoteString).toString(Style.UNQUALIFIED);
+            if (from == null) {
+                // NULL doesn't match any comparison, so no range would read rows with a NULL key.
+                // Only the first range includes them to read each of them exactly once.
+                return to == null ? "true" : "(" + col + " < " + to + " OR " + col + " IS NULL)";
+            }
+            return to == null
+                ? "(" + col + " >= " + from + ")"
+                : "(" + col + " >= " + from + " AND " + col + " < " + to + ")";
+        }
+    }
+
+    static String generateStatement(RelationName table,
+                                    List<? extends Symbol> columns,
+                                    Symbol query,
+                                    String quoteString) {
+        return generateStatement(table, columns, query, null, quoteString);
+    }
+
+    static String generateStatement(RelationName table,
+                                    List<? extends Symbol> columns,
+                                    Symbol query,
+                                    @Nullable Range range,
+                                    String quoteString) {
+        return generateStatement(table, columns, query, range, null, null, quoteString);
+    }
+
     static String generateStatement(RelationName table,
-                                    List<Reference> columns,
+                                    List<? extends Symbol> columns,
                                     Symbol query,
+                                    @Nullable Range range,
+                                    @Nullable List<Symbol> groupBy,
+                                    @Nullable OrderBy orderBy,
                                     String quoteString) {
         final String qs = quoteString.isBlank() ? "" : quoteString;
         StringBuilder relationName = new StringBuilder();
@@ -120,21 +192,42 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
             .append(table.name())
             .append(qs);
 
+        String where = quote(query, qs);
+        if (range != null) {
+            where = where + " AND " + range.toString(qs);
+        }
         var stmt = String.format(
             Locale.ENGLISH,
             "SELECT %s FROM %s WHERE %s",
-            String.join(", ", Lists.mapLazy(
-                columns,
-                ref -> new QuotedReference(ref, qs).toString(Style.UNQUALIFIED))),
+            String.join(", ", Lists.mapLazy(columns, column -> quote(column, qs))),
             relationName.toString(),
-            RefReplacer.replaceRefs(
-                query,
-                ref -> new QuotedReference(ref, qs)).toString(Style.UNQUALIFIED)
+            where
         );
+        if (groupBy != null && !groupBy.isEmpty()) {
+            stmt += " GROUP BY " + String.join(", ", Lists.mapLazy(groupBy, key -> quote(key, qs)));
+        }
+        if (orderBy != null) {
+            // NULLS FIRST/LAST isn't supported by all databases and the default differs between databases;
+            // Sort by an explicit null indicator instead
+            List<Symbol> orderBySymbols = orderBy.orderBySymbols();
+            List<String> sortKeys = new ArrayList<>(orderBySymbols.size() * 2);
+            for (int i = 0; i < orderBySymbols.size(); i++) {
+                String sortKey = quote(orderBySymbols.get(i), qs);
+                sortKeys.add(orderBy.nullsFirst()[i]
+                    ? "CASE WHEN " + sortKey + " IS NULL THEN 0 ELSE 1 END"
+                    : "CASE WHEN " + sortKey + " IS NULL THEN 1 ELSE 0 END");
+                sortKeys.add(orderBy.reverseFlags()[i] ? sortKey + " DESC" : sortKey);
+            }
+            stmt += " ORDER BY " + String.join(", ", sortKeys);
+        }
         LOGGER.debug("Generated statement for foreign JDBC source: {}", stmt);
         return stmt;
     }
 
+    private static String quote(Symbol symbol, String quoteString) {
+        return RefReplacer.replaceRefs(symbol, ref -> new QuotedReference(ref, quoteString)).toString(Style.UNQUALIFIED);
+    }
+
     @Override
     public void kill(@NotNull Throwable throwable) {
         try {
@@ -142,7 +235,7 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
                 statement.close();
             }
             if (conn != null) {
-                conn.close();
+                closeConnection(conn);
             }
         } catch (SQLException ignored) {
             throwable.addSuppressed(ignored);
@@ -176,13 +269,13 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
         try {
             if (resultSet.next()) {
                 for (int i = 0; i < columns.size(); i ++) {
-                    Reference ref = columns.get(i);
+                    DataType<?> type = columns.get(i).valueType();
                     ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
                     Object object = getObject(resultSet, i, resultSetMetaData.getColumnTypeName(i + 1));
                     try {
-                        cells[i] = ref.valueType().implicitCast(object);
+                        cells[i] = type.implicitCast(object);
                     } catch (ClassCastException | IllegalArgumentException e) {
-                        var conversionException = new ConversionException(object, ref.valueType());
+                        var conversionException = new ConversionException(object, type);
                         conversionException.addSuppressed(e);
                         throw conversionException;
                     }
@@ -202,13 +295,29 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
         }
         if (conn != null) {
             try {
-                conn.close();
+                closeConnection(conn);
             } catch (SQLException e) {
                 throw Exceptions.toRuntimeException(e);
             }
         }
     }
 
+    /**
+     * Rolls back the transaction started to fetch rows with a cursor (see {@link #loadNextBatch()})
+     * before closing the connection. Some drivers or connection pools would otherwise commit it
+     * or keep it open.
+     */
+    @VisibleForTesting
+    static void closeConnection(Connection conn) throws SQLException {
+        try {
+            if (!conn.isClosed() && !conn.getAutoCommit()) {
+                conn.rollback();
+            }
+        } finally {
+            conn.close();
+        }
+    }
+
     @Override
     public CompletionStage<?> loadNextBatch() throws Exception {
         if (conn == null) {
@@ -216,8 +325,18 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
         }
         if (statement == null) {
             DatabaseMetaData metaData = conn.getMetaData();
-            String sql = generateStatement(table, columns, query, metaData.getIdentifierQuoteString());
+            String sql = generateStatement(
+                table, columns, query, range, groupBy, orderBy, metaData.getIdentifierQuoteString());
+            if (fetchSize > 0) {
+                // Drivers like the PostgreSQL driver only use a cursor to fetch rows in batches within a transaction
+                conn.setAutoCommit(false);
+            }
             statement = conn.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            if (limit > 0) {
+                // Unlike a LIMIT clause, this is supported by all JDBC drivers. 0 means no limit
+                statement.setMaxRows(limit);
+            }
         }
         resultSet = statement.executeQuery();
         return CompletableFuture.completedFuture(null);
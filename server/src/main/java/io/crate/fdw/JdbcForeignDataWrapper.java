@@ -21,6 +21,7 @@
 
 package io.crate.fdw;
 
+import java.math.BigInteger;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -33,10 +34,19 @@ import java.util.concurrent.CompletableFuture;
 
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.jetbrains.annotations.VisibleForTesting;
 
+import io.crate.analyze.OrderBy;
 import io.crate.data.BatchIterator;
+import io.crate.data.CompositeBatchIterator;
 import io.crate.data.Row;
 import io.crate.execution.dsl.projection.builder.InputColumns;
+import io.crate.execution.dsl.phases.ForeignCollectPhase;
+import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.execution.engine.aggregation.impl.MaximumAggregation;
+import io.crate.execution.engine.aggregation.impl.MinimumAggregation;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.pipeline.InputRowProjector;
 import io.crate.expression.InputFactory;
@@ -51,12 +61,16 @@ import io.crate.expression.operator.OrOperator;
 import io.crate.expression.predicate.NotPredicate;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Symbol;
+import io.crate.fdw.JdbcBatchIterator.Range;
 import io.crate.fdw.ServersMetadata.Server;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.settings.SessionSettings;
 import io.crate.role.Role;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 
 final class JdbcForeignDataWrapper implements ForeignDataWrapper {
 
@@ -74,16 +88,37 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
         LteOperator.NAME
     );
 
+    /**
+     * Aggregations that any foreign database accessible via jdbc must support
+     */
+    private static final Set<String> SAFE_AGGREGATES = Set.of(
+        CountAggregation.NAME,
+        SumAggregation.NAME,
+        MinimumAggregation.NAME,
+        MaximumAggregation.NAME
+    );
+
     private final InputFactory inputFactory;
     private final Settings settings;
+    private final ThreadPool threadPool;
     private final Setting<String> urlSetting = Setting.simpleString("url");
     private final List<Setting<?>> mandatoryServerOptions = List.of(urlSetting);
 
     private final Setting<String> schemaName = Setting.simpleString("schema_name");
     private final Setting<String> tableName = Setting.simpleString("table_name");
+    private final Setting<String> partitionColumn = Setting.simpleString("partition_column");
+    private final Setting<Integer> partitionCount = Setting.intSetting("partition_count", 1, 1);
+    private final Setting<Long> lowerBound = Setting.longSetting("lower_bound", 0L, Long.MIN_VALUE);
+    private final Setting<Long> upperBound = Setting.longSetting("upper_bound", 0L, Long.MIN_VALUE);
+    private final Setting<Integer> fetchSize = Setting.intSetting("fetch_size", 0, 0);
     private final List<Setting<?>> optionalTableOptions = List.of(
         schemaName,
-        tableName
+        tableName,
+        partitionColumn,
+        partitionCount,
+        lowerBound,
+        upperBound,
+        fetchSize
     );
 
     private final Setting<String> foreignUser = Setting.simpleString("user");
@@ -93,9 +128,10 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
         foreignPw
     );
 
-    JdbcForeignDataWrapper(Settings settings, InputFactory inputFactory) {
+    JdbcForeignDataWrapper(Settings settings, InputFactory inputFactory, ThreadPool threadPool) {
         this.settings = settings;
         this.inputFactory = inputFactory;
+        this.threadPool = threadPool;
     }
 
     @Override
@@ -113,13 +149,26 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
         return optionalUserOptions;
     }
 
+    @Override
+    public int numPartitions(ForeignTable foreignTable) {
+        Settings options = foreignTable.options();
+        int numPartitions = partitionCount.get(options);
+        if (numPartitions > 1) {
+            // validates the partition options
+            partitionRanges(foreignTable, options);
+        }
+        return numPartitions;
+    }
+
     @Override
     public CompletableFuture<BatchIterator<Row>> getIterator(Role currentUser,
                                                              Server server,
                                                              ForeignTable foreignTable,
                                                              TransactionContext txnCtx,
-                                                             List<Symbol> collect,
-                                                             Symbol query) {
+                                                             ForeignCollectPhase phase,
+                                                             List<Integer> partitions) {
+        List<Symbol> collect = phase.toCollect();
+        Symbol query = phase.query();
         SessionSettings sessionSettings = txnCtx.sessionSettings();
         Settings userOptions = server.users().get(currentUser.name());
         if (userOptions == null) {
@@ -134,10 +183,17 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
         }
 
         // It's unknown if/what kind of scalars are supported by the remote.
-        // Evaluate them locally and only fetch columns
-        List<Reference> refs = new ArrayList<>(collect.size());
-        for (var symbol : collect) {
-            symbol.visit(Reference.class, refs::add);
+        // Evaluate them locally and only fetch columns.
+        // Aggregations are only pushed down if supported, see `supportsAggregatePushdown`
+        List<Symbol> columns;
+        if (phase.groupBy() == null) {
+            List<Reference> refs = new ArrayList<>(collect.size());
+            for (var symbol : collect) {
+                symbol.visit(Reference.class, refs::add);
+            }
+            columns = List.copyOf(refs);
+        } else {
+            columns = collect;
         }
 
         Settings options = server.options();
@@ -175,9 +231,51 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
 
         assert supportsQueryPushdown(query)
             : "ForeignCollect must only have a query where `supportsQueryPushDown` is true";
-        BatchIterator<Row> it = new JdbcBatchIterator(url, properties, refs, query, remoteName);
-        if (!refs.containsAll(collect)) {
-            var sourceRefs = new InputColumns.SourceSymbols(refs);
+        Settings tableOptions = foreignTable.options();
+        int rowsPerFetch = fetchSize.get(tableOptions);
+        BatchIterator<Row> it;
+        if (partitionCount.get(tableOptions) == 1) {
+            assert partitions.equals(List.of(0)) : "Table without partition options must be read as single partition";
+            it = new JdbcBatchIterator(
+                url,
+                properties,
+                columns,
+                query,
+                remoteName,
+                null,
+                rowsPerFetch,
+                phase.groupBy(),
+                phase.orderBy(),
+                phase.limit()
+            );
+        } else {
+            List<Range> ranges = partitionRanges(foreignTable, tableOptions);
+            List<BatchIterator<Row>> iterators = new ArrayList<>(partitions.size());
+            for (int partition : partitions) {
+                iterators.add(new JdbcBatchIterator(
+                    url,
+                    properties,
+                    columns,
+                    query,
+                    remoteName,
+                    ranges.get(partition),
+                    rowsPerFetch,
+                    phase.groupBy(),
+                    phase.orderBy(),
+                    phase.limit()
+                ));
+            }
+            // The readers block on JDBC calls; run them on the scaling GENERIC pool
+            // to not occupy the SEARCH threads used to query local shards.
+            int numReaders = iterators.size();
+            it = CompositeBatchIterator.asyncComposite(
+                threadPool.generic(),
+                () -> numReaders,
+                iterators
+            );
+        }
+        if (!columns.containsAll(collect)) {
+            var sourceRefs = new InputColumns.SourceSymbols(columns);
             List<Symbol> inputColumns = InputColumns.create(collect, sourceRefs);
             Context<CollectExpression<Row, ?>> inputCtx = inputFactory.ctxForInputColumns(txnCtx, inputColumns);
             InputRowProjector inputRowProjector = new InputRowProjector(inputCtx.topLevelInputs(), inputCtx.expressions());
@@ -186,8 +284,123 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
         return CompletableFuture.completedFuture(it);
     }
 
+    private List<Range> partitionRanges(ForeignTable foreignTable, Settings options) {
+        String columnName = partitionColumn.get(options);
+        if (columnName.isEmpty()) {
+            throw new IllegalArgumentException(
+                "The `partition_column` option of foreign table " + foreignTable.name().sqlFqn() + " is required if `partition_count` is greater than 1");
+        }
+        Reference column = foreignTable.getReference(ColumnIdent.fromPath(columnName));
+        if (column == null) {
+            throw new IllegalArgumentException(
+                "The `partition_column` `" + columnName + "` of foreign table " + foreignTable.name().sqlFqn() + " does not exist");
+        }
+        int typeId = column.valueType().id();
+        if (typeId != DataTypes.SHORT.id() && typeId != DataTypes.INTEGER.id() && typeId != DataTypes.LONG.id()) {
+            throw new IllegalArgumentException(
+                "The `partition_column` of a foreign table must have an integral type, `" + columnName + "` has type " + column.valueType());
+        }
+        if (!lowerBound.exists(options) || !upperBound.exists(options)) {
+            throw new IllegalArgumentException(
+                "The `lower_bound` and `upper_bound` options of foreign table " + foreignTable.name().sqlFqn() + " are required if `partition_count` is greater than 1");
+        }
+        long lower = lowerBound.get(options);
+        long upper = upperBound.get(options);
+        if (lower >= upper) {
+            throw new IllegalArgumentException(
+                "The `lower_bound` of a foreign table must be less than the `upper_bound`");
+        }
+        return ranges(column, lower, upper, partitionCount.get(options));
+    }
+
+    /**
+     * Splits the range between {@code lower} and {@code upper} into ranges of equal size.
+     * The bounds are only used to compute the boundaries of the ranges. The first range includes all values below,
+     * the last range all values above, so that each row is read exactly once.
+     *
+     * <p>The boundaries are computed with {@link BigInteger} because the distance between the bounds
+     * can exceed {@link Long#MAX_VALUE}. They always lie between {@code lower} and {@code upper}.</p>
+     */
+    @VisibleForTesting
+    static List<Range> ranges(Reference column, long lower, long upper, int numRanges) {
+        BigInteger start = BigInteger.valueOf(lower);
+        BigInteger distance = BigInteger.valueOf(upper).subtract(start);
+        BigInteger count = BigInteger.valueOf(numRanges);
+        List<Range> ranges = new ArrayList<>(numRanges);
+        Long from = null;
+        for (int i = 1; i < numRanges; i++) {
+            long to = start.add(distance.multiply(BigInteger.valueOf(i)).divide(count)).longValueExact();
+            ranges.add(new Range(column, from, to));
+            from = to;
+        }
+        ranges.add(new Range(column, from, null));
+        return ranges;
+    }
+
     @Override
     public boolean supportsQueryPushdown(Symbol query) {
         return !query.any(x -> x instanceof Function fn && !SAFE_FUNCTIONS.contains(fn.name()));
     }
+
+    @Override
+    public boolean supportsLimitPushdown() {
+        return true;
+    }
+
+    /**
+     * Only supports ordering by numeric columns (or aggregations) because the remote
+     * could use a different collation for text or a different order for other types.
+     */
+    @Override
+    public boolean supportsOrderByPushdown(OrderBy orderBy) {
+        for (Symbol symbol : orderBy.orderBySymbols()) {
+            boolean isColumnOrAggregate = symbol instanceof Reference
+                || (symbol instanceof Function fn && SAFE_AGGREGATES.contains(fn.name()));
+            if (!isColumnOrAggregate || !DataTypes.isNumericPrimitive(symbol.valueType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Supports grouping by numeric, boolean or timestamp columns and simple aggregations on numeric columns.
+     * Like for ORDER BY, other group keys aren't supported because the remote could compare them differently,
+     * e.g. text with a case-insensitive collation, and merge groups that are distinct in CrateDB.
+     * Tables read in partitions aren't supported as the aggregations would need to be merged.
+     */
+    @Override
+    public boolean supportsAggregatePushdown(ForeignTable foreignTable,
+                                             List<Symbol> groupKeys,
+                                             List<Function> aggregates) {
+        if (partitionCount.get(foreignTable.options()) > 1) {
+            return false;
+        }
+        for (Symbol groupKey : groupKeys) {
+            if (!(groupKey instanceof Reference) || !isSafeGroupKeyType(groupKey.valueType())) {
+                return false;
+            }
+        }
+        for (Function aggregate : aggregates) {
+            if (!SAFE_AGGREGATES.contains(aggregate.name()) || aggregate.filter() != null) {
+                return false;
+            }
+            boolean isCount = aggregate.name().equals(CountAggregation.NAME);
+            for (Symbol argument : aggregate.arguments()) {
+                if (!(argument instanceof Reference)
+                    || (!isCount && !DataTypes.isNumericPrimitive(argument.valueType()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSafeGroupKeyType(DataType<?> type) {
+        int typeId = type.id();
+        return DataTypes.isNumericPrimitive(type)
+            || typeId == DataTypes.BOOLEAN.id()
+            || typeId == DataTypes.TIMESTAMPZ.id()
+            || typeId == DataTypes.TIMESTAMP.id();
+    }
 }
@@ -0,0 +1,262 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.lucene;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FieldExistsQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.lucene.codec.DocValuesZoneMap;
+
+/**
+ * Range query on numeric doc values for columns without an index.
+ *
+ * Equivalent to {@link org.apache.lucene.document.SortedNumericDocValuesField#newSlowRangeQuery}, but uses the
+ * {@link DocValuesZoneMap} of a segment, if available, to skip segments and blocks of documents whose values
+ * cannot be within the range, and to avoid decoding values of blocks whose values are all within the range.
+ */
+public final class DocValuesRangeQuery extends Query {
+
+    private final String field;
+    private final long lowerValue;
+    private final long upperValue;
+
+    private DocValuesRangeQuery(String field, long lowerValue, long upperValue) {
+        this.field = Objects.requireNonNull(field);
+        this.lowerValue = lowerValue;
+        this.upperValue = upperValue;
+    }
+
+    /**
+     * Matches documents with at least one value within {@code [lowerValue, upperValue]} (both inclusive).
+     */
+    public static Query newRangeQuery(String field, long lowerValue, long upperValue) {
+        return new DocValuesRangeQuery(field, lowerValue, upperValue);
+    }
+
+    public static Query newExactQuery(String field, long value) {
+        return new DocValuesRangeQuery(field, value, value);
+    }
+
+    @Override
+    public Query rewrite(IndexSearcher indexSearcher) throws IOException {
+        if (lowerValue > upperValue) {
+            return new MatchNoDocsQuery();
+        }
+        if (lowerValue == Long.MIN_VALUE && upperValue == Long.MAX_VALUE) {
+            return new FieldExistsQuery(field);
+        }
+        return super.rewrite(indexSearcher);
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        return new ConstantScoreWeight(this, boost) {
+
+            @Override
+            public boolean isCacheable(LeafReaderContext ctx) {
+                return DocValues.isCacheable(ctx, field);
+            }
+
+            @Override
+            @Nullable
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                LeafReader reader = context.reader();
+                if (reader.getFieldInfos().fieldInfo(field) == null) {
+                    return null;
+                }
+                SortedNumericDocValues values = DocValues.getSortedNumeric(reader, field);
+                DocValuesZoneMap zoneMap = DocValuesZoneMap.of(values);
+                if (zoneMap == null) {
+                    return new ConstantScoreScorer(this, score(), scoreMode, new ValuesTwoPhaseIterator(values, values));
+                }
+                if (!zoneMap.intersects(lowerValue, upperValue)) {
+                    return null;
+                }
+                if (zoneMap.minValue() >= lowerValue && zoneMap.maxValue() <= upperValue) {
+                    // Every document with a value matches
+                    return new ConstantScoreScorer(this, score(), scoreMode, values);
+                }
+                ZoneMapIterator approximation = new ZoneMapIterator(values, zoneMap);
+                return new ConstantScoreScorer(this, score(), scoreMode, new ValuesTwoPhaseIterator(values, approximation));
+            }
+        };
+    }
+
+    /**
+     * Iterates over the documents with a value, skipping blocks which cannot contain a matching value.
+     */
+    private class ZoneMapIterator extends DocIdSetIterator {
+
+        private final SortedNumericDocValues values;
+        private final DocValuesZoneMap zoneMap;
+        private final int blockShift;
+        private int doc = -1;
+        private int block = -1;
+        private boolean blockWithinRange = false;
+
+        ZoneMapIterator(SortedNumericDocValues values, DocValuesZoneMap zoneMap) {
+            this.values = values;
+            this.zoneMap = zoneMap;
+            this.blockShift = zoneMap.blockShift();
+        }
+
+        @Override
+        public int docID() {
+            return doc;
+        }
+
+        @Override
+        public int nextDoc() throws IOException {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) throws IOException {
+            int numBlocks = zoneMap.numBlocks();
+            while (true) {
+                int targetBlock = target >>> blockShift;
+                while (targetBlock < numBlocks && !zoneMap.intersects(targetBlock, lowerValue, upperValue)) {
+                    targetBlock++;
+                    target = targetBlock << blockShift;
+                }
+                if (targetBlock >= numBlocks) {
+                    return doc = NO_MORE_DOCS;
+                }
+                int valuesDoc = values.docID() >= target ? values.docID() : values.advance(target);
+                if (valuesDoc == NO_MORE_DOCS) {
+                    return doc = NO_MORE_DOCS;
+                }
+                int valuesBlock = valuesDoc >>> blockShift;
+                if (zoneMap.intersects(valuesBlock, lowerValue, upperValue)) {
+                    if (valuesBlock != block) {
+                        block = valuesBlock;
+                        blockWithinRange = zoneMap.within(block, lowerValue, upperValue);
+                    }
+                    return doc = valuesDoc;
+                }
+                target = valuesDoc;
+            }
+        }
+
+        @Override
+        public long cost() {
+            return values.cost();
+        }
+    }
+
+    private class ValuesTwoPhaseIterator extends TwoPhaseIterator {
+
+        private final SortedNumericDocValues values;
+        @Nullable
+        private final NumericDocValues singleton;
+        @Nullable
+        private final ZoneMapIterator zoneMapIterator;
+
+        ValuesTwoPhaseIterator(SortedNumericDocValues values, DocIdSetIterator approximation) {
+            super(approximation);
+            this.values = values;
+            this.singleton = DocValues.unwrapSingleton(values);
+            this.zoneMapIterator = approximation instanceof ZoneMapIterator it ? it : null;
+        }
+
+        @Override
+        public boolean matches() throws IOException {
+            if (zoneMapIterator != null && zoneMapIterator.blockWithinRange) {
+                return true;
+            }
+            if (singleton != null) {
+                long value = singleton.longValue();
+                return value >= lowerValue && value <= upperValue;
+            }
+            for (int i = 0, count = values.docValueCount(); i < count; i++) {
+                long value = values.nextValue();
+                if (value < lowerValue) {
+                    continue;
+                }
+                // Values are sorted, so the first value >= lowerValue decides
+                return value <= upperValue;
+            }
+            return false;
+        }
+
+        @Override
+        public float matchCost() {
+            return 2; // 2 comparisons
+        }
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        if (visitor.acceptField(field)) {
+            visitor.visitLeaf(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return sameClassAs(obj)
+            && obj instanceof DocValuesRangeQuery that
+            && field.equals(that.field)
+            && lowerValue == that.lowerValue
+            && upperValue == that.upperValue;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), field, lowerValue, upperValue);
+    }
+
+    @Override
+    public String toString(String defaultField) {
+        StringBuilder sb = new StringBuilder();
+        if (!this.field.equals(defaultField)) {
+            sb.append(this.field).append(':');
+        }
+        return sb
+            .append('[')
+            .append(lowerValue)
+            .append(" TO ")
+            .append(upperValue)
+            .append(']')
+            .toString();
+    }
+}
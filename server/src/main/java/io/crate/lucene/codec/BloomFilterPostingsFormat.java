@@ -0,0 +1,369 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene.codec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FieldsConsumer;
+import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.NormsProducer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RandomAccessInput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * A {@link PostingsFormat} which writes a bloom filter of all terms of a field
+ * in addition to the postings of the delegate format.
+ *
+ * <p>
+ * {@link TermsEnum#seekExact(BytesRef)} consults the filter first and only
+ * looks up the terms dictionary if the term may exist in the segment.
+ * This is used for the {@code _id} field: The version lookups on insert
+ * mostly look for ids which don't exist yet and can skip the terms
+ * dictionary of most segments.
+ * </p>
+ *
+ * <p>
+ * The filter uses {@link #BITS_PER_TERM} to {@code 2 * BITS_PER_TERM} bits per
+ * document of the segment and is read off-heap.
+ * </p>
+ */
+public final class BloomFilterPostingsFormat extends PostingsFormat {
+
+    static final String NAME = "CrateDBBloomFilter";
+    static final String BLOOM_CODEC = "CrateDBBloomFilterData";
+    static final String BLOOM_EXTENSION = "bfi";
+    static final int VERSION_START = 0;
+    static final int VERSION_CURRENT = VERSION_START;
+
+    static final int BITS_PER_TERM = 10;
+    static final int NUM_HASH_FUNCTIONS = 7;
+    static final long MIN_NUM_BITS = 1L << 10;
+    static final long MAX_NUM_BITS = 1L << 33;
+
+    @Nullable
+    private final PostingsFormat delegate;
+
+    /**
+     * Default constructor, used to read segments.
+     * The delegate format is read from the segment.
+     */
+    public BloomFilterPostingsFormat() {
+        this(null);
+    }
+
+    public BloomFilterPostingsFormat(@Nullable PostingsFormat delegate) {
+        super(NAME);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+        if (delegate == null) {
+            throw new UnsupportedOperationException("Postings format " + NAME + " without delegate can only be used to read segments");
+        }
+        FieldsConsumer delegateConsumer = delegate.fieldsConsumer(state);
+        boolean success = false;
+        try {
+            FieldsConsumer consumer = new BloomFilterFieldsConsumer(state, delegate.getName(), delegateConsumer);
+            success = true;
+            return consumer;
+        } finally {
+            if (success == false) {
+                IOUtils.closeWhileHandlingException(delegateConsumer);
+            }
+        }
+    }
+
+    @Override
+    public FieldsProducer fieldsProducer(SegmentReadState state) throws IOException {
+        return new BloomFilterFieldsProducer(state);
+    }
+
+    @Override
+    public String toString() {
+        return NAME + "(" + delegate + ")";
+    }
+
+    /**
+     * @return the number of bits of the filter, a power of two so that positions can be masked.
+     */
+    @VisibleForTesting
+    static long numBits(int maxDoc) {
+        long numBits = Long.highestOneBit(Math.max(1L, (long) maxDoc * BITS_PER_TERM));
+        if (numBits < (long) maxDoc * BITS_PER_TERM) {
+            numBits <<= 1;
+        }
+        return Math.min(MAX_NUM_BITS, Math.max(MIN_NUM_BITS, numBits));
+    }
+
+    private static MurmurHash3.Hash128 hash(BytesRef term, MurmurHash3.Hash128 hash) {
+        return MurmurHash3.hash128(term.bytes, term.offset, term.length, 0, hash);
+    }
+
+    /**
+     * Position of the n-th bit of a term, computed using double hashing.
+     */
+    private static long bitPosition(MurmurHash3.Hash128 hash, int n, long numBits) {
+        return (hash.h1 + n * hash.h2) & (numBits - 1);
+    }
+
+    private static final class BloomFilterFieldsConsumer extends FieldsConsumer {
+
+        private final SegmentWriteState state;
+        private final FieldsConsumer delegateConsumer;
+        private final IndexOutput out;
+        private final List<FieldFilter> filters = new ArrayList<>();
+        private boolean closed = false;
+
+        private record FieldFilter(int fieldNumber, long offset, long numBits) {
+        }
+
+        BloomFilterFieldsConsumer(SegmentWriteState state,
+                                  String delegateName,
+                                  FieldsConsumer delegateConsumer) throws IOException {
+            this.state = state;
+            this.delegateConsumer = delegateConsumer;
+            String fileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, BLOOM_EXTENSION);
+            this.out = state.directory.createOutput(fileName, state.context);
+            boolean success = false;
+            try {
+                CodecUtil.writeIndexHeader(out, BLOOM_CODEC, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                out.writeString(delegateName);
+                success = true;
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(out);
+                }
+            }
+        }
+
+        @Override
+        public void write(Fields fields, NormsProducer norms) throws IOException {
+            delegateConsumer.write(fields, norms);
+            MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+            // Every document has at most one id, so the number of documents is an upper bound of the number of terms
+            long numBits = numBits(state.segmentInfo.maxDoc());
+            for (String field : fields) {
+                Terms terms = fields.terms(field);
+                if (terms == null) {
+                    continue;
+                }
+                FieldInfo fieldInfo = state.fieldInfos.fieldInfo(field);
+                byte[] bits = new byte[Math.toIntExact(numBits >>> 3)];
+                TermsEnum termsEnum = terms.iterator();
+                for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+                    hash(term, hash);
+                    for (int i = 0; i < NUM_HASH_FUNCTIONS; i++) {
+                        long position = bitPosition(hash, i, numBits);
+                        bits[(int) (position >>> 3)] |= (byte) (1 << (position & 7));
+                    }
+                }
+                filters.add(new FieldFilter(fieldInfo.number, out.getFilePointer(), numBits));
+                out.writeBytes(bits, bits.length);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            boolean success = false;
+            try {
+                long metaOffset = out.getFilePointer();
+                out.writeVInt(filters.size());
+                for (FieldFilter filter : filters) {
+                    out.writeVInt(filter.fieldNumber);
+                    out.writeVLong(filter.offset);
+                    out.writeVLong(filter.numBits);
+                }
+                out.writeLong(metaOffset);
+                CodecUtil.writeFooter(out);
+                success = true;
+            } finally {
+                if (success) {
+                    IOUtils.close(out, delegateConsumer);
+                } else {
+                    IOUtils.closeWhileHandlingException(out, delegateConsumer);
+                }
+            }
+        }
+    }
+
+    private static final class BloomFilterFieldsProducer extends FieldsProducer {
+
+        private final IndexInput in;
+        private final FieldsProducer delegateProducer;
+        private final Map<String, BloomFilter> filters;
+
+        BloomFilterFieldsProducer(SegmentReadState state) throws IOException {
+            String fileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, BLOOM_EXTENSION);
+            this.in = state.directory.openInput(fileName, state.context);
+            boolean success = false;
+            try {
+                CodecUtil.checkIndexHeader(
+                    in, BLOOM_CODEC, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                String delegateName = in.readString();
+                CodecUtil.retrieveChecksum(in);
+                in.seek(in.length() - CodecUtil.footerLength() - Long.BYTES);
+                in.seek(in.readLong());
+                int numFields = in.readVInt();
+                this.filters = HashMap.newHashMap(numFields);
+                for (int i = 0; i < numFields; i++) {
+                    FieldInfo fieldInfo = state.fieldInfos.fieldInfo(in.readVInt());
+                    long offset = in.readVLong();
+                    long numBits = in.readVLong();
+                    filters.put(fieldInfo.name, new BloomFilter(in.randomAccessSlice(offset, numBits >>> 3), numBits));
+                }
+                this.delegateProducer = PostingsFormat.forName(delegateName).fieldsProducer(state);
+                success = true;
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(in);
+                }
+            }
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return delegateProducer.iterator();
+        }
+
+        @Override
+        public Terms terms(String field) throws IOException {
+            Terms terms = delegateProducer.terms(field);
+            BloomFilter filter = filters.get(field);
+            if (terms == null || filter == null) {
+                return terms;
+            }
+            return new BloomFilteredTerms(terms, filter);
+        }
+
+        @Override
+        public int size() {
+            return delegateProducer.size();
+        }
+
+        @Override
+        public void checkIntegrity() throws IOException {
+            delegateProducer.checkIntegrity();
+            CodecUtil.checksumEntireFile(in);
+        }
+
+        @Override
+        public FieldsProducer getMergeInstance() {
+            // Merges read all terms, the filters are not needed
+            return delegateProducer.getMergeInstance();
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(in, delegateProducer);
+        }
+    }
+
+    private record BloomFilter(RandomAccessInput bits, long numBits) {
+
+        boolean mayContain(BytesRef term, MurmurHash3.Hash128 hash) throws IOException {
+            hash(term, hash);
+            for (int i = 0; i < NUM_HASH_FUNCTIONS; i++) {
+                long position = bitPosition(hash, i, numBits);
+                if ((bits.readByte(position >>> 3) & (1 << (position & 7))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class BloomFilteredTerms extends FilterLeafReader.FilterTerms {
+
+        private final BloomFilter filter;
+
+        BloomFilteredTerms(Terms in, BloomFilter filter) {
+            super(in);
+            this.filter = filter;
+        }
+
+        @Override
+        public TermsEnum iterator() throws IOException {
+            return new BloomFilteredTermsEnum(in.iterator(), filter);
+        }
+
+        @Override
+        public TermsEnum intersect(CompiledAutomaton compiled, BytesRef startTerm) throws IOException {
+            return in.intersect(compiled, startTerm);
+        }
+
+        @Override
+        public BytesRef getMin() throws IOException {
+            return in.getMin();
+        }
+
+        @Override
+        public BytesRef getMax() throws IOException {
+            return in.getMax();
+        }
+    }
+
+    private static final class BloomFilteredTermsEnum extends FilterLeafReader.FilterTermsEnum {
+
+        private final BloomFilter filter;
+        private final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+
+        BloomFilteredTermsEnum(TermsEnum in, BloomFilter filter) {
+            super(in);
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean seekExact(BytesRef text) throws IOException {
+            if (filter.mayContain(text, hash) == false) {
+                return false;
+            }
+            return in.seekExact(text);
+        }
+    }
+}
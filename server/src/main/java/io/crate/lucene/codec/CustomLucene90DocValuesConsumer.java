@@ -57,6 +57,7 @@ import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.compress.LZ4;
 import org.apache.lucene.util.packed.DirectMonotonicWriter;
 import org.apache.lucene.util.packed.DirectWriter;
+import org.jetbrains.annotations.Nullable;
 
 import com.carrotsearch.hppc.LongHashSet;
 import com.carrotsearch.hppc.LongIntHashMap;
@@ -142,6 +143,7 @@ final class CustomLucene90DocValuesConsumer extends DocValuesConsumer {
         meta.writeInt(field.number);
         meta.writeByte(CustomLucene90DocValuesFormat.NUMERIC);
 
+        DocValuesZoneMap.Builder zoneMap = new DocValuesZoneMap.Builder(maxDoc, NUMERIC_BLOCK_SHIFT);
         writeValues(
                 field,
                 new EmptyDocValuesProducer() {
@@ -150,7 +152,9 @@ final class CustomLucene90DocValuesConsumer extends DocValuesConsumer {
                         return DocValues.singleton(valuesProducer.getNumeric(field));
                     }
                 },
-                false);
+                false,
+                zoneMap);
+        zoneMap.write(meta);
     }
 
     private static class MinMaxTracker {
@@ -197,7 +201,13 @@ final class CustomLucene90DocValuesConsumer extends DocValuesConsumer {
         }
     }
 
-    private long[] writeValues(FieldInfo field, DocValuesProducer valuesProducer, boolean ords)
+    /**
+     * @param zoneMap collects the zone map of the values, if not null
+     */
+    private long[] writeValues(FieldInfo field,
+                               DocValuesProducer valuesProducer,
+                               boolean ords,
+                               @Nullable DocValuesZoneMap.Builder zoneMap)
             throws IOException {
         SortedNumericDocValues values = valuesProducer.getSortedNumeric(field);
         final long firstValue;
@@ -213,8 +223,14 @@ final class CustomLucene90DocValuesConsumer extends DocValuesConsumer {
         long gcd = 0;
         LongHashSet uniqueValues = ords ? null : new LongHashSet();
         for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+            if (zoneMap != null) {
+                zoneMap.addDoc(doc);
+            }
             for (int i = 0, count = values.docValueCount(); i < count; ++i) {
                 long v = values.nextValue();
+                if (zoneMap != null) {
+                    zoneMap.addValue(v);
+                }
 
                 if (gcd != 1) {
                     if (v < Long.MIN_VALUE / 2 || v > Long.MAX_VALUE / 2) {
@@ -544,7 +560,8 @@ final class CustomLucene90DocValuesConsumer extends DocValuesConsumer {
                         return DocValues.singleton(sortedOrds);
                     }
                 },
-                true);
+                true,
+                null);
         addTermsDict(DocValues.singleton(valuesProducer.getSorted(field)));
     }
 
@@ -724,12 +741,17 @@ final class CustomLucene90DocValuesConsumer extends DocValuesConsumer {
             throws IOException {
         meta.writeInt(field.number);
         meta.writeByte(CustomLucene90DocValuesFormat.SORTED_NUMERIC);
-        doAddSortedNumericField(field, valuesProducer, false);
+        DocValuesZoneMap.Builder zoneMap = new DocValuesZoneMap.Builder(maxDoc, NUMERIC_BLOCK_SHIFT);
+        doAddSortedNumericField(field, valuesProducer, false, zoneMap);
+        zoneMap.write(meta);
     }
 
     private void doAddSortedNumericField(
-            FieldInfo field, DocValuesProducer valuesProducer, boolean ords) throws IOException {
-        long[] stats = writeValues(field, valuesProducer, ords);
+            FieldInfo field,
+            DocValuesProducer valuesProducer,
+            boolean ords,
+            @Nullable DocValuesZoneMap.Builder zoneMap) throws IOException {
+        long[] stats = writeValues(field, valuesProducer, ords, zoneMap);
         int numDocsWithField = Math.toIntExact(stats[0]);
         long numValues = stats[1];
         assert numValues >= numDocsWithField;
@@ -848,7 +870,8 @@ final class CustomLucene90DocValuesConsumer extends DocValuesConsumer {
                         };
                     }
                 },
-                true);
+                true,
+                null);
 
         addTermsDict(valuesProducer.getSortedSet(field));
     }
@@ -28,6 +28,7 @@ import org.apache.lucene.index.SegmentWriteState;
 
 /**
  * Copy of {@link Lucene90DocValuesFormat} that adds a configuration option for termsDict compression.
+ * Numeric fields additionally store a {@link DocValuesZoneMap}.
  */
 public final class CustomLucene90DocValuesFormat extends DocValuesFormat {
 
@@ -65,7 +66,8 @@ public final class CustomLucene90DocValuesFormat extends DocValuesFormat {
     static final String META_CODEC = "Lucene90DocValuesMetadata";
     static final String META_EXTENSION = "dvm";
     static final int VERSION_START = 0;
-    static final int VERSION_CURRENT = VERSION_START;
+    static final int VERSION_ZONE_MAP = 1;
+    static final int VERSION_CURRENT = VERSION_ZONE_MAP;
 
     // indicates docvalues type
     static final byte NUMERIC = 0;
@@ -54,6 +54,7 @@ import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.compress.LZ4;
 import org.apache.lucene.util.packed.DirectMonotonicReader;
 import org.apache.lucene.util.packed.DirectReader;
+import org.jetbrains.annotations.Nullable;
 
 /** reader for {@link Lucene90DocValuesFormat} */
 final class CustomLucene90DocValuesProducer extends DocValuesProducer {
@@ -176,7 +177,9 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
             }
             byte type = meta.readByte();
             if (type == CustomLucene90DocValuesFormat.NUMERIC) {
-                numerics.put(info.name, readNumeric(meta));
+                NumericEntry entry = readNumeric(meta);
+                entry.zoneMap = readZoneMap(meta);
+                numerics.put(info.name, entry);
             } else if (type == CustomLucene90DocValuesFormat.BINARY) {
                 binaries.put(info.name, readBinary(meta));
             } else if (type == CustomLucene90DocValuesFormat.SORTED) {
@@ -184,13 +187,23 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
             } else if (type == CustomLucene90DocValuesFormat.SORTED_SET) {
                 sortedSets.put(info.name, readSortedSet(meta));
             } else if (type == CustomLucene90DocValuesFormat.SORTED_NUMERIC) {
-                sortedNumerics.put(info.name, readSortedNumeric(meta));
+                SortedNumericEntry entry = readSortedNumeric(meta);
+                entry.zoneMap = readZoneMap(meta);
+                sortedNumerics.put(info.name, entry);
             } else {
                 throw new CorruptIndexException("invalid type: " + type, meta);
             }
         }
     }
 
+    @Nullable
+    private DocValuesZoneMap readZoneMap(IndexInput meta) throws IOException {
+        if (version < CustomLucene90DocValuesFormat.VERSION_ZONE_MAP) {
+            return null;
+        }
+        return DocValuesZoneMap.read(meta);
+    }
+
     private NumericEntry readNumeric(IndexInput meta) throws IOException {
         NumericEntry entry = new NumericEntry();
         readNumeric(meta, entry);
@@ -349,6 +362,8 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
         long valuesOffset;
         long valuesLength;
         long valueJumpTableOffset; // -1 if no jump-table
+        @Nullable
+        DocValuesZoneMap zoneMap; // null for ordinals and segments written before VERSION_ZONE_MAP
     }
 
     private static class BinaryEntry {
@@ -410,13 +425,22 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
         return getNumeric(entry);
     }
 
-    private abstract static class DenseNumericDocValues extends NumericDocValues {
+    private abstract static class DenseNumericDocValues extends NumericDocValues implements DocValuesZoneMap.Provider {
 
         final int maxDoc;
+        @Nullable
+        final DocValuesZoneMap zoneMap;
         int doc = -1;
 
-        DenseNumericDocValues(int maxDoc) {
+        DenseNumericDocValues(int maxDoc, @Nullable DocValuesZoneMap zoneMap) {
             this.maxDoc = maxDoc;
+            this.zoneMap = zoneMap;
+        }
+
+        @Override
+        @Nullable
+        public DocValuesZoneMap zoneMap() {
+            return zoneMap;
         }
 
         @Override
@@ -449,12 +473,21 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
         }
     }
 
-    private abstract static class SparseNumericDocValues extends NumericDocValues {
+    private abstract static class SparseNumericDocValues extends NumericDocValues implements DocValuesZoneMap.Provider {
 
         final IndexedDISI disi;
+        @Nullable
+        final DocValuesZoneMap zoneMap;
 
-        SparseNumericDocValues(IndexedDISI disi) {
+        SparseNumericDocValues(IndexedDISI disi, @Nullable DocValuesZoneMap zoneMap) {
             this.disi = disi;
+            this.zoneMap = zoneMap;
+        }
+
+        @Override
+        @Nullable
+        public DocValuesZoneMap zoneMap() {
+            return zoneMap;
         }
 
         @Override
@@ -499,7 +532,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
         } else if (entry.docsWithFieldOffset == -1) {
             // dense
             if (entry.bitsPerValue == 0) {
-                return new DenseNumericDocValues(maxDoc) {
+                return new DenseNumericDocValues(maxDoc, entry.zoneMap) {
                     @Override
                     public long longValue() throws IOException {
                         return entry.minValue;
@@ -509,7 +542,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
                 final RandomAccessInput slice = data.randomAccessSlice(entry.valuesOffset, entry.valuesLength);
                 if (entry.blockShift >= 0) {
                     // dense but split into blocks of different bits per value
-                    return new DenseNumericDocValues(maxDoc) {
+                    return new DenseNumericDocValues(maxDoc, entry.zoneMap) {
                         final VaryingBPVReader vBPVReader = new VaryingBPVReader(entry, slice);
 
                         @Override
@@ -521,7 +554,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
                     final LongValues values = getDirectReaderInstance(slice, entry.bitsPerValue, 0L, entry.numValues);
                     if (entry.table != null) {
                         final long[] table = entry.table;
-                        return new DenseNumericDocValues(maxDoc) {
+                        return new DenseNumericDocValues(maxDoc, entry.zoneMap) {
                             @Override
                             public long longValue() throws IOException {
                                 return table[(int) values.get(doc)];
@@ -529,7 +562,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
                         };
                     } else if (entry.gcd == 1 && entry.minValue == 0) {
                         // Common case for ordinals, which are encoded as numerics
-                        return new DenseNumericDocValues(maxDoc) {
+                        return new DenseNumericDocValues(maxDoc, entry.zoneMap) {
                             @Override
                             public long longValue() throws IOException {
                                 return values.get(doc);
@@ -538,7 +571,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
                     } else {
                         final long mul = entry.gcd;
                         final long delta = entry.minValue;
-                        return new DenseNumericDocValues(maxDoc) {
+                        return new DenseNumericDocValues(maxDoc, entry.zoneMap) {
                             @Override
                             public long longValue() throws IOException {
                                 return mul * values.get(doc) + delta;
@@ -557,7 +590,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
                     entry.denseRankPower,
                     entry.numValues);
             if (entry.bitsPerValue == 0) {
-                return new SparseNumericDocValues(disi) {
+                return new SparseNumericDocValues(disi, entry.zoneMap) {
                     @Override
                     public long longValue() throws IOException {
                         return entry.minValue;
@@ -567,7 +600,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
                 final RandomAccessInput slice = data.randomAccessSlice(entry.valuesOffset, entry.valuesLength);
                 if (entry.blockShift >= 0) {
                     // sparse and split into blocks of different bits per value
-                    return new SparseNumericDocValues(disi) {
+                    return new SparseNumericDocValues(disi, entry.zoneMap) {
                         final VaryingBPVReader vBPVReader = new VaryingBPVReader(entry, slice);
 
                         @Override
@@ -580,14 +613,14 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
                     final LongValues values = getDirectReaderInstance(slice, entry.bitsPerValue, 0L, entry.numValues);
                     if (entry.table != null) {
                         final long[] table = entry.table;
-                        return new SparseNumericDocValues(disi) {
+                        return new SparseNumericDocValues(disi, entry.zoneMap) {
                             @Override
                             public long longValue() throws IOException {
                                 return table[(int) values.get(disi.index())];
                             }
                         };
                     } else if (entry.gcd == 1 && entry.minValue == 0) {
-                        return new SparseNumericDocValues(disi) {
+                        return new SparseNumericDocValues(disi, entry.zoneMap) {
                             @Override
                             public long longValue() throws IOException {
                                 return values.get(disi.index());
@@ -596,7 +629,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
                     } else {
                         final long mul = entry.gcd;
                         final long delta = entry.minValue;
-                        return new SparseNumericDocValues(disi) {
+                        return new SparseNumericDocValues(disi, entry.zoneMap) {
                             @Override
                             public long longValue() throws IOException {
                                 return mul * values.get(disi.index()) + delta;
@@ -1305,6 +1338,23 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
         return getSortedNumeric(entry);
     }
 
+    private abstract static class ZoneMappedSortedNumericDocValues extends SortedNumericDocValues
+            implements DocValuesZoneMap.Provider {
+
+        @Nullable
+        private final DocValuesZoneMap zoneMap;
+
+        ZoneMappedSortedNumericDocValues(@Nullable DocValuesZoneMap zoneMap) {
+            this.zoneMap = zoneMap;
+        }
+
+        @Override
+        @Nullable
+        public DocValuesZoneMap zoneMap() {
+            return zoneMap;
+        }
+    }
+
     private SortedNumericDocValues getSortedNumeric(SortedNumericEntry entry) throws IOException {
         if (entry.numValues == entry.numDocsWithField) {
             return DocValues.singleton(getNumeric(entry));
@@ -1317,7 +1367,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
 
         if (entry.docsWithFieldOffset == -1) {
             // dense
-            return new SortedNumericDocValues() {
+            return new ZoneMappedSortedNumericDocValues(entry.zoneMap) {
 
                 int doc = -1;
                 long start, end;
@@ -1377,7 +1427,7 @@ final class CustomLucene90DocValuesProducer extends DocValuesProducer {
                     entry.jumpTableEntryCount,
                     entry.denseRankPower,
                     entry.numDocsWithField);
-            return new SortedNumericDocValues() {
+            return new ZoneMappedSortedNumericDocValues(entry.zoneMap) {
 
                 boolean set;
                 long start, end;
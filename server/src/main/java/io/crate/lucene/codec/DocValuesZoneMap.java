@@ -0,0 +1,240 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.lucene.codec;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Per-segment and per-block summary of the values of a numeric doc values field.
+ *
+ * <p>
+ * The documents of a segment are split into blocks of {@code 1 << blockShift} consecutive doc ids.
+ * For each block the minimum and maximum value and the number of documents with a value are stored.
+ * Blocks which cannot contain a value of a range can be skipped without decoding any value.
+ * </p>
+ *
+ * Values are the raw {@code long} values of the doc values, e.g. sortable longs for doubles.
+ */
+public final class DocValuesZoneMap {
+
+    /**
+     * Implemented by doc values which carry a zone map.
+     */
+    interface Provider {
+
+        @Nullable
+        DocValuesZoneMap zoneMap();
+    }
+
+    private final int blockShift;
+    private final int docCount;
+    private final long minValue;
+    private final long maxValue;
+    private final int[] blockDocCounts;
+    private final long[] blockMinValues;
+    private final long[] blockMaxValues;
+
+    private DocValuesZoneMap(int blockShift,
+                             int docCount,
+                             long minValue,
+                             long maxValue,
+                             int[] blockDocCounts,
+                             long[] blockMinValues,
+                             long[] blockMaxValues) {
+        this.blockShift = blockShift;
+        this.docCount = docCount;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.blockDocCounts = blockDocCounts;
+        this.blockMinValues = blockMinValues;
+        this.blockMaxValues = blockMaxValues;
+    }
+
+    /**
+     * @return the zone map of the values or null if they weren't written with one.
+     */
+    @Nullable
+    public static DocValuesZoneMap of(SortedNumericDocValues values) {
+        if (values instanceof Provider provider) {
+            return provider.zoneMap();
+        }
+        NumericDocValues singleton = DocValues.unwrapSingleton(values);
+        if (singleton instanceof Provider provider) {
+            return provider.zoneMap();
+        }
+        return null;
+    }
+
+    /**
+     * Collects the zone map while the values are written, see {@link #addDoc(int)} and {@link #addValue(long)},
+     * so that building it doesn't need another pass over the values.
+     */
+    static final class Builder {
+
+        private final int blockShift;
+        private final int[] blockDocCounts;
+        private final long[] blockMinValues;
+        private final long[] blockMaxValues;
+        private int block = -1;
+
+        Builder(int maxDoc, int blockShift) {
+            int numBlocks = numBlocks(maxDoc, blockShift);
+            this.blockShift = blockShift;
+            this.blockDocCounts = new int[numBlocks];
+            this.blockMinValues = new long[numBlocks];
+            this.blockMaxValues = new long[numBlocks];
+            Arrays.fill(blockMinValues, Long.MAX_VALUE);
+            Arrays.fill(blockMaxValues, Long.MIN_VALUE);
+        }
+
+        /**
+         * Must be called for each document with values, in doc id order, before its values are added.
+         */
+        void addDoc(int doc) {
+            block = doc >>> blockShift;
+            blockDocCounts[block]++;
+        }
+
+        void addValue(long value) {
+            blockMinValues[block] = Math.min(blockMinValues[block], value);
+            blockMaxValues[block] = Math.max(blockMaxValues[block], value);
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeByte((byte) blockShift);
+            out.writeVInt(blockDocCounts.length);
+            for (int block = 0; block < blockDocCounts.length; block++) {
+                out.writeVInt(blockDocCounts[block]);
+                if (blockDocCounts[block] > 0) {
+                    out.writeLong(blockMinValues[block]);
+                    out.writeLong(blockMaxValues[block]);
+                }
+            }
+        }
+    }
+
+    static DocValuesZoneMap read(DataInput in) throws IOException {
+        int blockShift = in.readByte();
+        int numBlocks = in.readVInt();
+        int[] blockDocCounts = new int[numBlocks];
+        long[] blockMinValues = new long[numBlocks];
+        long[] blockMaxValues = new long[numBlocks];
+        int docCount = 0;
+        long minValue = Long.MAX_VALUE;
+        long maxValue = Long.MIN_VALUE;
+        for (int block = 0; block < numBlocks; block++) {
+            int blockDocCount = in.readVInt();
+            blockDocCounts[block] = blockDocCount;
+            if (blockDocCount > 0) {
+                blockMinValues[block] = in.readLong();
+                blockMaxValues[block] = in.readLong();
+                docCount += blockDocCount;
+                minValue = Math.min(minValue, blockMinValues[block]);
+                maxValue = Math.max(maxValue, blockMaxValues[block]);
+            } else {
+                blockMinValues[block] = Long.MAX_VALUE;
+                blockMaxValues[block] = Long.MIN_VALUE;
+            }
+        }
+        return new DocValuesZoneMap(
+            blockShift,
+            docCount,
+            minValue,
+            maxValue,
+            blockDocCounts,
+            blockMinValues,
+            blockMaxValues
+        );
+    }
+
+    private static int numBlocks(int maxDoc, int blockShift) {
+        return (int) ((maxDoc + (1L << blockShift) - 1) >>> blockShift);
+    }
+
+    public int blockShift() {
+        return blockShift;
+    }
+
+    public int numBlocks() {
+        return blockDocCounts.length;
+    }
+
+    /**
+     * @return the number of documents of the segment which have a value.
+     */
+    public int docCount() {
+        return docCount;
+    }
+
+    public long minValue() {
+        return minValue;
+    }
+
+    public long maxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @return the number of documents within the block which have a value.
+     */
+    public int docCount(int block) {
+        return blockDocCounts[block];
+    }
+
+    public long minValue(int block) {
+        return blockMinValues[block];
+    }
+
+    public long maxValue(int block) {
+        return blockMaxValues[block];
+    }
+
+    /**
+     * @return true if any document in the segment may have a value within {@code [lower, upper]}.
+     */
+    public boolean intersects(long lower, long upper) {
+        return docCount > 0 && minValue <= upper && maxValue >= lower;
+    }
+
+    /**
+     * @return true if any document in the block may have a value within {@code [lower, upper]}.
+     */
+    public boolean intersects(int block, long lower, long upper) {
+        return blockDocCounts[block] > 0 && blockMinValues[block] <= upper && blockMaxValues[block] >= lower;
+    }
+
+    /**
+     * @return true if all values of the block are within {@code [lower, upper]}.
+     */
+    public boolean within(int block, long lower, long upper) {
+        return blockDocCounts[block] > 0 && blockMinValues[block] >= lower && blockMaxValues[block] <= upper;
+    }
+}
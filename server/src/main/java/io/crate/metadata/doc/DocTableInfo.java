@@ -739,9 +739,15 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
 
     private void validateDropColumns(List<DropColumn> dropColumns) {
         var leftOverCols = columns().stream().map(Reference::column).collect(Collectors.toSet());
+        SortedBy sortedBy = SortedBy.of(parameters());
         for (int i = 0 ; i < dropColumns.size(); i++) {
             var refToDrop = dropColumns.get(i).ref();
             var colToDrop = refToDrop.column();
+            if (sortedBy != null
+                && (sortedBy.column().equals(colToDrop) || sortedBy.column().isChildOf(colToDrop))) {
+                throw new UnsupportedOperationException("Dropping column: " + colToDrop.sqlFqn() + " which " +
+                                                        "is used in `sorted_by` is not allowed");
+            }
             for (var indexRef : indexColumns()) {
                 if (indexRef.columns().contains(refToDrop)) {
                     throw new UnsupportedOperationException("Dropping column: " + colToDrop.sqlFqn() + " which " +
@@ -929,6 +935,11 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
         if (getReference(newName) != null || indexColumn(newName) != null) {
             throw new IllegalArgumentException("Cannot rename column to a name that is in use");
         }
+        SortedBy sortedBy = SortedBy.of(parameters());
+        if (sortedBy != null
+            && (sortedBy.column().equals(oldName) || sortedBy.column().isChildOf(oldName))) {
+            throw new IllegalArgumentException("Cannot rename column `" + oldName.sqlFqn() + "`. It's used in `sorted_by`");
+        }
     }
 
     public DocTableInfo renameColumn(Reference refToRename, ColumnIdent newName) {
@@ -0,0 +1,130 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.metadata.doc;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexSettings;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.types.ArrayType;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.CharacterType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+
+/**
+ * The column and direction by which the documents within each segment of a table are sorted.
+ * Configured using the {@code sorted_by} table parameter: {@code '<column> [ASC | DESC]'}
+ *
+ * <p>
+ * Nulls are sorted the same way as with an {@code ORDER BY} without explicit {@code NULLS FIRST | LAST}:
+ * last for ascending and first for descending order. This way a query ordering by the same column
+ * can terminate early per segment.
+ * </p>
+ */
+public record SortedBy(ColumnIdent column, boolean reverse) {
+
+    private static final List<Integer> SUPPORTED_TYPES = List.of(
+        StringType.ID,
+        CharacterType.ID,
+        BooleanType.ID,
+        ByteType.ID,
+        ShortType.ID,
+        IntegerType.ID,
+        LongType.ID,
+        FloatType.ID,
+        DoubleType.ID,
+        TimestampType.ID_WITH_TZ,
+        TimestampType.ID_WITHOUT_TZ
+    );
+
+    @Nullable
+    public static SortedBy of(Settings settings) {
+        String value = IndexSettings.INDEX_SORTED_BY_SETTING.get(settings);
+        return value.isEmpty() ? null : parse(value);
+    }
+
+    public static SortedBy parse(String value) {
+        String[] parts = value.trim().split("\\s+");
+        if (parts.length == 0 || parts.length > 2 || parts[0].isEmpty()) {
+            throw invalidValue(value);
+        }
+        boolean reverse = false;
+        if (parts.length == 2) {
+            reverse = switch (parts[1].toLowerCase(Locale.ENGLISH)) {
+                case "asc" -> false;
+                case "desc" -> true;
+                default -> throw invalidValue(value);
+            };
+        }
+        return new SortedBy(ColumnIdent.fromPath(parts[0]), reverse);
+    }
+
+    private static IllegalArgumentException invalidValue(String value) {
+        return new IllegalArgumentException(String.format(
+            Locale.ENGLISH,
+            "Invalid value for `sorted_by`: '%s'. Must be a column name, optionally followed by ASC or DESC",
+            value
+        ));
+    }
+
+    /**
+     * Ensures that the values of the column can be used to sort the documents of a segment.
+     *
+     * @param ref the reference of {@link #column()}, or null if the column doesn't exist.
+     */
+    public void validate(@Nullable Reference ref, Collection<ColumnIdent> partitionedBy) {
+        if (ref == null) {
+            throw new IllegalArgumentException(
+                "Column `" + column + "` used in `sorted_by` does not exist");
+        }
+        if (partitionedBy.contains(column)) {
+            throw new IllegalArgumentException(
+                "Cannot use partition column `" + column + "` in `sorted_by`");
+        }
+        if (ref.valueType() instanceof ArrayType<?>
+            || !SUPPORTED_TYPES.contains(ref.valueType().id())
+            || !ref.hasDocValues()) {
+            throw new IllegalArgumentException(
+                "Cannot use column `" + column + "` of type `" + ref.valueType().getName() +
+                "` in `sorted_by`. Only primitive types with column store enabled are supported");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return column.sqlFqn() + (reverse ? " DESC" : " ASC");
+    }
+}
@@ -62,6 +62,8 @@ public class SysNodesTableInfo {
     private static final String SYS_COL_OS_INFO = "os_info";
     private static final String SYS_COL_PROCESS = "process";
     private static final String SYS_COL_FS = "fs";
+    private static final String SYS_COL_SPILL = "spill";
+    private static final String SYS_COL_PLAN_CACHE = "plan_cache";
 
     public static class Columns {
         public static final ColumnIdent ID = ColumnIdent.of(SYS_COL_ID);
@@ -94,6 +96,10 @@ public class SysNodesTableInfo {
         public static final ColumnIdent PROCESS = ColumnIdent.of(SYS_COL_PROCESS);
 
         public static final ColumnIdent FS = ColumnIdent.of(SYS_COL_FS);
+
+        public static final ColumnIdent SPILL = ColumnIdent.of(SYS_COL_SPILL);
+
+        public static final ColumnIdent PLAN_CACHE = ColumnIdent.of(SYS_COL_PLAN_CACHE);
     }
 
 
@@ -234,6 +240,14 @@ public class SysNodesTableInfo {
                 .add("path", STRING, FsInfo.Path::getPath)
             .endObjectArray()
         .endObject()
+        .startObject("spill", x -> x.spillStats() == null)
+            .add("files", LONG, x -> x.spillStats().files())
+            .add("bytes", LONG, x -> x.spillStats().bytes())
+        .endObject()
+        .startObject("plan_cache", x -> x.planCacheStats() == null)
+            .add("hits", LONG, x -> x.planCacheStats().hits())
+            .add("misses", LONG, x -> x.planCacheStats().misses())
+        .endObject()
         .setPrimaryKeys(ColumnIdent.of("id"))
         .build();
 }
@@ -23,6 +23,7 @@ package io.crate.module;
 
 import org.elasticsearch.common.inject.AbstractModule;
 
+import io.crate.execution.engine.spill.SpillManager;
 import io.crate.memory.MemoryManagerFactory;
 import io.crate.metadata.DanglingArtifactsService;
 import io.crate.metadata.FulltextAnalyzerResolver;
@@ -39,6 +40,7 @@ public class CrateCommonModule extends AbstractModule {
         bind(PostgresNetty.class).asEagerSingleton();
         bind(TableStatsService.class).asEagerSingleton();
         bind(MemoryManagerFactory.class).asEagerSingleton();
+        bind(SpillManager.class).asEagerSingleton();
         bind(DanglingArtifactsService.class).asEagerSingleton();
         bind(PublisherRestoreService.class).asEagerSingleton();
         bind(ShardReplicationService.class).asEagerSingleton();
@@ -253,6 +253,14 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         return clusterService.state();
     }
 
+    /**
+     * @return the version of the table statistics used for cost based optimizations.
+     * Changes whenever the statistics are updated.
+     */
+    public long tableStatsVersion() {
+        return tableStats.version();
+    }
+
     /**
      * dispatch plan creation based on analyzed statement
      *
@@ -21,13 +21,24 @@
 
 package io.crate.planner.operators;
 
+import static io.crate.analyze.SymbolEvaluator.evaluate;
+import static io.crate.execution.engine.pipeline.LimitAndOffset.NO_LIMIT;
+import static io.crate.execution.engine.pipeline.LimitAndOffset.NO_OFFSET;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.SequencedCollection;
 import java.util.Set;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.jetbrains.annotations.Nullable;
 
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.WhereClause;
 import io.crate.common.collections.Lists;
@@ -45,6 +56,7 @@ import io.crate.metadata.RowGranularity;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.PlannerContext;
+import io.crate.types.DataTypes;
 
 public class ForeignCollect implements LogicalPlan {
 
@@ -53,17 +65,49 @@ public class ForeignCollect implements LogicalPlan {
     private final List<Symbol> toCollect;
     private final WhereClause where;
     private final String executeAs;
+    @Nullable
+    private final OrderBy orderBy;
+    @Nullable
+    private final Symbol limit;
+    @Nullable
+    private final Symbol offset;
+    @Nullable
+    private final List<Symbol> groupBy;
 
     public ForeignCollect(ForeignDataWrapper fdw,
                           ForeignTableRelation relation,
                           List<Symbol> toCollect,
                           WhereClause where,
                           String executeAs) {
+        this(fdw, relation, toCollect, where, executeAs, null, null, null, null);
+    }
+
+    /**
+     * @param orderBy order pushed down to the foreign server. Only a hint, the rows must still be sorted.
+     * @param limit limit pushed down to the foreign server. Only a hint, the rows must still be limited.
+     * @param offset offset of the limit, must be set if limit is set.
+     *               The foreign server returns up to {@code limit + offset} rows.
+     * @param groupBy group keys if {@code toCollect} contains aggregations evaluated by the foreign server,
+     *                null if there are no aggregations.
+     */
+    public ForeignCollect(ForeignDataWrapper fdw,
+                          ForeignTableRelation relation,
+                          List<Symbol> toCollect,
+                          WhereClause where,
+                          String executeAs,
+                          @Nullable OrderBy orderBy,
+                          @Nullable Symbol limit,
+                          @Nullable Symbol offset,
+                          @Nullable List<Symbol> groupBy) {
         this.fdw = fdw;
         this.relation = relation;
         this.toCollect = toCollect;
         this.where = where;
         this.executeAs = executeAs;
+        this.orderBy = orderBy;
+        this.limit = limit;
+        this.offset = offset;
+        this.groupBy = groupBy;
     }
 
     @Override
@@ -84,11 +128,14 @@ public class ForeignCollect implements LogicalPlan {
         ForeignCollectPhase phase = new ForeignCollectPhase(
             plannerContext.jobId(),
             plannerContext.nextExecutionPhaseId(),
-            plannerContext.handlerNode(),
+            executionNodes(plannerContext, fdw.numPartitions(relation.tableInfo())),
             relation.relationName(),
             Lists.map(toCollect, binder),
             where.map(binder).queryOrFallback(),
-            executeAs
+            executeAs,
+            orderBy == null ? null : orderBy.map(binder),
+            remoteLimit(plannerContext, params, subQueryResults),
+            groupBy == null ? null : Lists.map(groupBy, binder)
         );
         return new io.crate.planner.node.dql.Collect(
             phase,
@@ -100,6 +147,54 @@ public class ForeignCollect implements LogicalPlan {
         );
     }
 
+    private int remoteLimit(PlannerContext plannerContext, Row params, SubQueryResults subQueryResults) {
+        if (limit == null) {
+            return NO_LIMIT;
+        }
+        int limit = Objects.requireNonNullElse(
+            DataTypes.INTEGER.sanitizeValue(evaluate(
+                plannerContext.transactionContext(),
+                plannerContext.nodeContext(),
+                this.limit,
+                params,
+                subQueryResults)),
+            NO_LIMIT);
+        int offset = Objects.requireNonNullElse(
+            DataTypes.INTEGER.sanitizeValue(evaluate(
+                plannerContext.transactionContext(),
+                plannerContext.nodeContext(),
+                this.offset,
+                params,
+                subQueryResults)),
+            NO_OFFSET);
+        return Limit.limitAndOffset(limit, offset);
+    }
+
+    /**
+     * Partitions of a foreign table are read on the handler node and up to {@code numPartitions - 1} other data nodes.
+     */
+    private static List<String> executionNodes(PlannerContext plannerContext, int numPartitions) {
+        String handlerNode = plannerContext.handlerNode();
+        List<String> nodeIds = new ArrayList<>(numPartitions);
+        nodeIds.add(handlerNode);
+        if (numPartitions == 1) {
+            return nodeIds;
+        }
+        DiscoveryNodes nodes = plannerContext.clusterState().nodes();
+        List<String> candidates = new ArrayList<>();
+        for (ObjectCursor<DiscoveryNode> cursor : nodes.getDataNodes().values()) {
+            DiscoveryNode node = cursor.value;
+            if (!node.getId().equals(handlerNode) && node.getVersion().onOrAfter(Version.V_5_10_0)) {
+                candidates.add(node.getId());
+            }
+        }
+        candidates.sort(String::compareTo);
+        for (int i = 0; i < candidates.size() && nodeIds.size() < numPartitions; i++) {
+            nodeIds.add(candidates.get(i));
+        }
+        return nodeIds;
+    }
+
     public ForeignDataWrapper fdw() {
         return fdw;
     }
@@ -112,6 +207,26 @@ public class ForeignCollect implements LogicalPlan {
         return where;
     }
 
+    @Nullable
+    public OrderBy orderBy() {
+        return orderBy;
+    }
+
+    @Nullable
+    public Symbol limit() {
+        return limit;
+    }
+
+    @Nullable
+    public Symbol offset() {
+        return offset;
+    }
+
+    @Nullable
+    public List<Symbol> groupBy() {
+        return groupBy;
+    }
+
     @Override
     public List<Symbol> outputs() {
         return toCollect;
@@ -133,7 +248,17 @@ public class ForeignCollect implements LogicalPlan {
         if (outputsToKeep.containsAll(toCollect)) {
             return this;
         }
-        return new ForeignCollect(fdw, relation, List.copyOf(outputsToKeep), where, executeAs);
+        return new ForeignCollect(
+            fdw,
+            relation,
+            List.copyOf(outputsToKeep),
+            where,
+            executeAs,
+            orderBy,
+            limit,
+            offset,
+            groupBy
+        );
     }
 
     public String executeAs() {
@@ -163,8 +288,36 @@ public class ForeignCollect implements LogicalPlan {
             .text(" | [")
             .text(Lists.joinOn(", ", toCollect, Symbol::toString))
             .text("] | ")
-            .text(where.queryOrFallback().toString())
-            .text("]");
+            .text(where.queryOrFallback().toString());
+        if (groupBy != null) {
+            printContext
+                .text(" | group by [")
+                .text(Lists.joinOn(", ", groupBy, Symbol::toString))
+                .text("]");
+        }
+        if (orderBy != null) {
+            StringBuilder orderByExprRepr = new StringBuilder();
+            OrderBy.explainRepresentation(
+                orderByExprRepr,
+                orderBy.orderBySymbols(),
+                orderBy.reverseFlags(),
+                orderBy.nullsFirst(),
+                Symbol::toString
+            );
+            printContext
+                .text(" | order by [")
+                .text(orderByExprRepr.toString())
+                .text("]");
+        }
+        if (limit != null) {
+            printContext
+                .text(" | limit [")
+                .text(limit.toString())
+                .text(";")
+                .text(offset.toString())
+                .text("]");
+        }
+        printContext.text("]");
         printStats(printContext);
     }
 }
@@ -93,10 +93,14 @@ import io.crate.planner.optimizer.rule.DeduplicateOrder;
 import io.crate.planner.optimizer.rule.EliminateCrossJoin;
 import io.crate.planner.optimizer.rule.EquiJoinToLookupJoin;
 import io.crate.planner.optimizer.rule.MergeAggregateAndCollectToCount;
+import io.crate.planner.optimizer.rule.MergeAggregateAndForeignCollect;
 import io.crate.planner.optimizer.rule.MergeAggregateRenameAndCollectToCount;
 import io.crate.planner.optimizer.rule.MergeFilterAndCollect;
 import io.crate.planner.optimizer.rule.MergeFilterAndForeignCollect;
 import io.crate.planner.optimizer.rule.MergeFilters;
+import io.crate.planner.optimizer.rule.MergeGroupByAndForeignCollect;
+import io.crate.planner.optimizer.rule.MergeLimitAndForeignCollect;
+import io.crate.planner.optimizer.rule.MergeLimitOrderAndForeignCollect;
 import io.crate.planner.optimizer.rule.MoveConstantJoinConditionsBeneathJoin;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathCorrelatedJoin;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathEval;
@@ -160,12 +164,16 @@ public class LogicalPlanner {
         new MoveLimitBeneathEval(),
         new MergeFilterAndCollect(),
         new MergeFilterAndForeignCollect(),
+        new MergeAggregateAndForeignCollect(),
+        new MergeGroupByAndForeignCollect(),
         new RewriteFilterOnOuterJoinToInnerJoin(),
         new MoveOrderBeneathUnion(),
         new MoveOrderBeneathNestedLoop(),
         new MoveOrderBeneathEval(),
         new MoveOrderBeneathRename(),
         new DeduplicateOrder(),
+        new MergeLimitAndForeignCollect(),
+        new MergeLimitOrderAndForeignCollect(),
         new OptimizeCollectWhereClauseAccess(),
         new RewriteGroupByKeysLimitToLimitDistinct(),
         new MoveConstantJoinConditionsBeneathJoin(),
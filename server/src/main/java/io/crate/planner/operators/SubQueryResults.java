@@ -21,6 +21,7 @@
 
 package io.crate.planner.operators;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -85,6 +86,15 @@ public class SubQueryResults {
         return new SubQueryResults(this.valuesBySubQuery, outerColumnPositions);
     }
 
+    /**
+     * @return the sorted positions of the columns of the input row that are bound to outer columns.
+     */
+    public int[] boundOuterColumnPositions() {
+        int[] positions = boundOuterColumns.values().toArray();
+        Arrays.sort(positions);
+        return positions;
+    }
+
     public void bindOuterColumnInputRow(Row inputRow) {
         this.inputRow = inputRow;
     }
@@ -24,6 +24,7 @@ package io.crate.planner.operators;
 import static io.crate.execution.dsl.phases.ExecutionPhases.executesOnHandler;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -41,11 +42,11 @@ import io.crate.analyze.WindowDefinition;
 import io.crate.common.collections.Lists;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.MergePhase;
-import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.WindowAggProjection;
 import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.pipeline.LimitAndOffset;
+import io.crate.expression.symbol.InputColumn;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
 import io.crate.expression.symbol.WindowFunction;
@@ -53,6 +54,7 @@ import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.Merge;
 import io.crate.planner.PlannerContext;
+import io.crate.planner.PositionalOrderBy;
 import io.crate.planner.ResultDescription;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.DistributionType;
@@ -155,13 +157,8 @@ public class WindowAgg extends ForwardingLogicalPlan {
         Function<Symbol, Symbol> toInputCols = binder.andThen(s -> InputColumns.create(s, sourceSymbols));
 
         List<WindowFunction> boundWindowFunctions = (List<WindowFunction>)(List<?>) Lists.map(windowFunctions, toInputCols);
-        List<Projection> projections = new ArrayList<>();
-        WindowAggProjection windowAggProjection = new WindowAggProjection(
-            windowDefinition.map(toInputCols),
-            boundWindowFunctions,
-            InputColumns.create(this.standalone, sourceSymbols)
-        );
-        projections.add(windowAggProjection);
+        WindowDefinition boundWindowDefinition = windowDefinition.map(toInputCols);
+        List<Symbol> boundStandalone = InputColumns.create(this.standalone, sourceSymbols);
         ExecutionPlan sourcePlan = source.build(
             executor,
             plannerContext,
@@ -180,11 +177,50 @@ public class WindowAgg extends ForwardingLogicalPlan {
                                    || resultDescription.hasRemainingLimitOrOffset()
                                    || executesOnHandler;
         if (nonDistExecution) {
-            sourcePlan = Merge.ensureOnHandler(sourcePlan, plannerContext);
-            for (Projection projection : projections) {
-                sourcePlan.addProjection(projection);
+            OrderBy windowOrder = createOrderByInclPartitionBy(windowDefinition);
+            if (windowOrder != null
+                && !windowDefinition.partitions().isEmpty()
+                && !isSortedByWindowDefinition(resultDescription.orderBy(), boundWindowDefinition)) {
+                // Whether the window is distributed depends on the nodes of the source, so the source is built
+                // again once it is known that it runs on the handler. If the source can sort by the PARTITION BY
+                // and ORDER BY of the window, the projection streams the partitions instead of sorting all rows.
+                sourcePlan = source.build(
+                    executor,
+                    plannerContext,
+                    planHints,
+                    projectionBuilder,
+                    LimitAndOffset.NO_LIMIT,
+                    LimitAndOffset.NO_OFFSET,
+                    windowOrder,
+                    pageSizeHint,
+                    params,
+                    subQueryResults
+                );
             }
+            sourcePlan = Merge.ensureOnHandler(sourcePlan, plannerContext);
+            ResultDescription onHandlerResult = sourcePlan.resultDescription();
+            PositionalOrderBy sourceOrder = onHandlerResult.orderBy();
+            boolean inputSorted = isSortedByWindowDefinition(sourceOrder, boundWindowDefinition);
+            WindowAggProjection windowAggProjection = new WindowAggProjection(
+                boundWindowDefinition,
+                boundWindowFunctions,
+                boundStandalone,
+                inputSorted
+            );
+            // The standalone symbols are passed through at their source positions. The row order is only
+            // retained if the partitions are streamed in the order of the source; otherwise the projection sorts.
+            sourcePlan.addProjection(
+                windowAggProjection,
+                onHandlerResult.limit(),
+                onHandlerResult.offset(),
+                inputSorted ? sourceOrder : null
+            );
         } else {
+            WindowAggProjection windowAggProjection = new WindowAggProjection(
+                boundWindowDefinition,
+                boundWindowFunctions,
+                boundStandalone
+            );
             sourcePlan.setDistributionInfo(new DistributionInfo(
                 DistributionType.MODULO,
                 source.outputs().indexOf(windowDefinition.partitions().iterator().next()))
@@ -197,7 +233,7 @@ public class WindowAgg extends ForwardingLogicalPlan {
                 resultDescription.numOutputs(),
                 resultDescription.nodeIds(),
                 resultDescription.streamOutputs(),
-                projections,
+                List.of(windowAggProjection),
                 DistributionInfo.DEFAULT_BROADCAST,
                 null
             );
@@ -214,6 +250,65 @@ public class WindowAgg extends ForwardingLogicalPlan {
         return sourcePlan;
     }
 
+    /**
+     * Returns true if rows ordered by {@code sourceOrder} arrive grouped by the partitions of the window definition and,
+     * within a partition, ordered by its ORDER BY.
+     * This is the case if the leading positions of {@code sourceOrder} are the partition columns (in any order and
+     * direction) followed by the ORDER BY columns with matching direction and null ordering.
+     *
+     * @param windowDefinition window definition with symbols bound to {@link InputColumn}s of the source.
+     */
+    @VisibleForTesting
+    static boolean isSortedByWindowDefinition(@Nullable PositionalOrderBy sourceOrder,
+                                              WindowDefinition windowDefinition) {
+        List<Symbol> partitions = windowDefinition.partitions();
+        if (sourceOrder == null || partitions.isEmpty()) {
+            return false;
+        }
+        Set<Integer> partitionIndices = new HashSet<>();
+        for (Symbol partition : partitions) {
+            if (!(partition instanceof InputColumn inputColumn)) {
+                return false;
+            }
+            partitionIndices.add(inputColumn.index());
+        }
+        int[] indices = sourceOrder.indices();
+        int numPartitions = partitionIndices.size();
+        if (indices.length < numPartitions) {
+            return false;
+        }
+        Set<Integer> missingPartitions = new HashSet<>(partitionIndices);
+        for (int i = 0; i < numPartitions; i++) {
+            if (!missingPartitions.remove(indices[i])) {
+                return false;
+            }
+        }
+        OrderBy orderBy = windowDefinition.orderBy();
+        if (orderBy == null) {
+            return true;
+        }
+        List<Symbol> orderBySymbols = orderBy.orderBySymbols();
+        int pos = numPartitions;
+        for (int i = 0; i < orderBySymbols.size(); i++) {
+            if (!(orderBySymbols.get(i) instanceof InputColumn inputColumn)) {
+                return false;
+            }
+            int index = inputColumn.index();
+            if (partitionIndices.contains(index)) {
+                // constant within a partition
+                continue;
+            }
+            if (pos >= indices.length
+                || indices[pos] != index
+                || sourceOrder.reverseFlags()[pos] != orderBy.reverseFlags()[i]
+                || sourceOrder.nullsFirst()[pos] != orderBy.nullsFirst()[i]) {
+                return false;
+            }
+            pos++;
+        }
+        return true;
+    }
+
     @Nullable
     static OrderBy createOrderByInclPartitionBy(WindowDefinition windowDefinition) {
         var orderBy = windowDefinition.orderBy();
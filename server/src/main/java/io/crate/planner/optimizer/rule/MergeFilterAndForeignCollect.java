@@ -48,7 +48,9 @@ public class MergeFilterAndForeignCollect implements Rule<Filter> {
     public MergeFilterAndForeignCollect() {
         this.collectCapture = new Capture<>();
         this.pattern = typeOf(Filter.class)
-            .with(source(), typeOf(ForeignCollect.class).capturedAs(collectCapture));
+            .with(source(), typeOf(ForeignCollect.class).capturedAs(collectCapture)
+                // The filter must not be applied before a pushed down limit or aggregation
+                .with(collect -> collect.limit() == null && collect.groupBy() == null));
     }
 
     @Override
@@ -53,6 +53,7 @@ import io.crate.analyze.CopyFromParserProperties;
 import io.crate.analyze.CopyStatementSettings;
 import io.crate.analyze.SymbolEvaluator;
 import io.crate.analyze.copy.NodeFilters;
+import io.crate.analyze.copy.StdioFormat;
 import io.crate.common.collections.Lists;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
@@ -66,6 +67,7 @@ import io.crate.execution.dsl.projection.SourceIndexWriterReturnSummaryProjectio
 import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.engine.JobLauncher;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
 import io.crate.execution.engine.pipeline.LimitAndOffset;
 import io.crate.expression.reference.file.SourceLineNumberExpression;
 import io.crate.expression.reference.file.SourceParsingFailureExpression;
@@ -170,16 +172,29 @@ public final class CopyFromPlan implements Plan {
             throw new UnsupportedOperationException(
                 "Cannot use RETURN SUMMARY with wait_for_completion=false. Either set wait_for_completion=true, or remove RETURN SUMMARY");
         }
-        var inputFormat = settingAsEnum(
-            FileUriCollectPhase.InputFormat.class,
-            settings.get(INPUT_FORMAT_SETTING.getKey(), INPUT_FORMAT_SETTING.getDefault(Settings.EMPTY)));
-        // TODO make FileUriCollectPhase ctor accept an uri of the List<String>
-        // instead of the Symbol type, such as the uri can be evaluated and converted
-        // to the required type already at this stage, but not later on in FileCollectSource.
-        var boundedURI = validateAndConvertToLiteral(eval.apply(copyFrom.uri()), properties);
+        FileUriCollectPhase.InputFormat inputFormat;
+        Literal<?> boundedURI;
+        if (copyFrom.readsFromStdin()) {
+            properties.ensureContainsOnly(CopyStatementSettings.COMMON_COPY_FROM_SETTINGS);
+            // TEXT and BINARY rows are converted to JSON objects while being received, see `StdinFileInputFactory`
+            inputFormat = copyFrom.stdinFormat() == StdioFormat.CSV
+                ? FileUriCollectPhase.InputFormat.CSV
+                : FileUriCollectPhase.InputFormat.JSON;
+            // The URI depends on the jobId and is created in planCopyFromExecution
+            boundedURI = null;
+        } else {
+            inputFormat = settingAsEnum(
+                FileUriCollectPhase.InputFormat.class,
+                settings.get(INPUT_FORMAT_SETTING.getKey(), INPUT_FORMAT_SETTING.getDefault(Settings.EMPTY)));
+            // TODO make FileUriCollectPhase ctor accept an uri of the List<String>
+            // instead of the Symbol type, such as the uri can be evaluated and converted
+            // to the required type already at this stage, but not later on in FileCollectSource.
+            boundedURI = validateAndConvertToLiteral(eval.apply(copyFrom.uri()), properties);
+        }
         var header = settings.getAsBoolean("header", true);
         var targetColumns = copyFrom.targetColumns();
-        if (!header && copyFrom.targetColumns().isEmpty()) {
+        // Parquet files are self-describing, the target columns are only used to restrict the columns which are read
+        if (!header && copyFrom.targetColumns().isEmpty() && inputFormat != FileUriCollectPhase.InputFormat.PARQUET) {
             targetColumns = Lists.map(copyFrom.tableInfo().columns(), Reference::toString);
         }
 
@@ -306,21 +321,35 @@ public final class CopyFromPlan implements Plan {
             rewriteToCollectToUsePartitionValues(table.partitionedByColumns(), partitionValues, toCollect);
         }
 
-        Integer numReaders = NUM_READERS_SETTING.getOrNull(boundedCopyFrom.settings());
-        numReaders = numReaders == null ? allNodes.getSize() : numReaders;
+        Collection<String> executionNodes;
+        Symbol uri;
+        if (copyFrom.readsFromStdin()) {
+            // The data is streamed by the client to the handler node
+            executionNodes = List.of(context.handlerNode());
+            uri = Literal.of(StdinFileInputFactory.uri(context.jobId()));
+        } else {
+            Integer numReaders = NUM_READERS_SETTING.getOrNull(boundedCopyFrom.settings());
+            numReaders = numReaders == null ? allNodes.getSize() : numReaders;
+            executionNodes = getExecutionNodes(allNodes, numReaders, boundedCopyFrom.nodePredicate());
+            uri = boundedCopyFrom.uri();
+        }
+        String compression = COMPRESSION_SETTING.getOrNull(boundedCopyFrom.settings());
+        if ("lz4".equalsIgnoreCase(compression)) {
+            CopyStatementSettings.ensureSupportedByAllNodes(allNodes.getMinNodeVersion(), COMPRESSION_SETTING.getKey(), "lz4");
+        }
+        if (boundedCopyFrom.inputFormat() == FileUriCollectPhase.InputFormat.PARQUET) {
+            CopyStatementSettings.ensureSupportedByAllNodes(allNodes.getMinNodeVersion(), INPUT_FORMAT_SETTING.getKey(), "parquet");
+        }
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
             context.jobId(),
             context.nextExecutionPhaseId(),
             "copyFrom",
-            getExecutionNodes(
-                allNodes,
-                numReaders,
-                boundedCopyFrom.nodePredicate()),
-            boundedCopyFrom.uri(),
+            executionNodes,
+            uri,
             boundedCopyFrom.targetColumns(),
             toCollect,
             Collections.emptyList(),
-            COMPRESSION_SETTING.getOrNull(boundedCopyFrom.settings()),
+            compression,
             SHARED_SETTING.getOrNull(boundedCopyFrom.settings()),
             CopyFromParserProperties.of(boundedCopyFrom.settings()),
             boundedCopyFrom.inputFormat(),
@@ -22,6 +22,7 @@
 package io.crate.planner.statement;
 
 import static io.crate.analyze.CopyStatementSettings.COMPRESSION_SETTING;
+import static io.crate.analyze.CopyStatementSettings.MAX_FILE_SIZE_SETTING;
 import static io.crate.analyze.CopyStatementSettings.OUTPUT_FORMAT_SETTING;
 import static io.crate.analyze.CopyStatementSettings.WAIT_FOR_COMPLETION_SETTING;
 import static io.crate.analyze.CopyStatementSettings.settingAsEnum;
@@ -34,6 +35,7 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.common.settings.Settings;
 import org.jetbrains.annotations.VisibleForTesting;
@@ -54,6 +56,7 @@ import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.JobLauncher;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
+import io.crate.execution.engine.pipeline.LimitAndOffset;
 import io.crate.expression.scalar.cast.CastMode;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
@@ -116,15 +119,23 @@ public final class CopyToPlan implements Plan {
             plannerContext.clusterState().metadata()
         );
 
-        ExecutionPlan executionPlan = planCopyToExecution(
-            executor,
-            boundedCopyTo,
-            plannerContext,
-            plannerContext.planStats(),
-            executor.projectionBuilder(),
-            params,
-            subQueryResults
-        );
+        ExecutionPlan executionPlan = copyTo.writesToStdout()
+            ? planCopyToStdoutExecution(
+                executor,
+                boundedCopyTo,
+                plannerContext,
+                plannerContext.planStats(),
+                executor.projectionBuilder(),
+                params)
+            : planCopyToExecution(
+                executor,
+                boundedCopyTo,
+                plannerContext,
+                plannerContext.planStats(),
+                executor.projectionBuilder(),
+                params,
+                subQueryResults
+            );
 
         NodeOperationTree nodeOpTree = NodeOperationTreeGenerator
             .fromPlan(executionPlan, executor.localNodeId());
@@ -148,7 +159,14 @@ public final class CopyToPlan implements Plan {
                                              Row params,
                                              SubQueryResults subQueryResults) {
 
+        Version minNodeVersion = context.clusterState().nodes().getMinNodeVersion();
+        if (boundedCopyTo.compressionType() == WriterProjection.CompressionType.LZ4) {
+            CopyStatementSettings.ensureSupportedByAllNodes(minNodeVersion, COMPRESSION_SETTING.getKey(), "lz4");
+        }
         WriterProjection.OutputFormat outputFormat = boundedCopyTo.outputFormat();
+        if (outputFormat == WriterProjection.OutputFormat.PARQUET) {
+            CopyStatementSettings.ensureSupportedByAllNodes(minNodeVersion, OUTPUT_FORMAT_SETTING.getKey(), "parquet");
+        }
         if (outputFormat == null) {
             outputFormat = boundedCopyTo.columnsDefined() ?
                 WriterProjection.OutputFormat.JSON_ARRAY : WriterProjection.OutputFormat.JSON_OBJECT;
@@ -179,6 +197,28 @@ public final class CopyToPlan implements Plan {
             List.of(MergeCountProjection.INSTANCE));
     }
 
+    /**
+     * COPY TO STDOUT: collects the rows and merges them on the handler, where they are
+     * encoded and sent to the client by the result receiver of the session.
+     */
+    @VisibleForTesting
+    static ExecutionPlan planCopyToStdoutExecution(DependencyCarrier executor,
+                                                   BoundCopyTo boundedCopyTo,
+                                                   PlannerContext context,
+                                                   PlanStats planStats,
+                                                   ProjectionBuilder projectionBuilder,
+                                                   Row params) {
+        LogicalPlan collect = new Collect(
+            new DocTableRelation(boundedCopyTo.table()),
+            boundedCopyTo.outputs(),
+            boundedCopyTo.whereClause()
+        );
+        LogicalPlan source = optimizeCollect(context, planStats, collect);
+        ExecutionPlan executionPlan = source.build(
+            executor, context, Set.of(), projectionBuilder, LimitAndOffset.NO_LIMIT, 0, null, null, params, SubQueryResults.EMPTY);
+        return Merge.ensureOnHandler(executionPlan, context);
+    }
+
     private static LogicalPlan optimizeCollect(PlannerContext context, PlanStats planStats, LogicalPlan collect) {
         OptimizeCollectWhereClauseAccess rewriteCollectToGet = new OptimizeCollectWhereClauseAccess();
         Match<Collect> match = rewriteCollectToGet.pattern().accept(collect, Captures.empty());
@@ -237,17 +277,42 @@ public final class CopyToPlan implements Plan {
 
         GenericProperties<Object> properties = copyTo.properties().map(eval);
         Settings settings = Settings.builder().put(properties).build();
+        WhereClause whereClause = new WhereClause(copyTo.whereClause(), partitions, Collections.emptySet());
+
+        if (copyTo.writesToStdout()) {
+            properties.ensureContainsOnly(List.of(OUTPUT_FORMAT_SETTING.getKey()));
+            return new BoundCopyTo(
+                outputs,
+                table,
+                whereClause,
+                null,
+                null,
+                null,
+                outputNames,
+                columnsDefined,
+                overwrites,
+                settings);
+        }
 
         WriterProjection.CompressionType compressionType =
             settingAsEnum(WriterProjection.CompressionType.class, COMPRESSION_SETTING.get(settings));
         WriterProjection.OutputFormat outputFormat =
             settingAsEnum(WriterProjection.OutputFormat.class, OUTPUT_FORMAT_SETTING.get(settings));
+        // parsed by the writers, validate it upfront to fail before any file is written
+        MAX_FILE_SIZE_SETTING.get(settings);
 
         if (!columnsDefined && outputFormat == WriterProjection.OutputFormat.JSON_ARRAY) {
             throw new UnsupportedFeatureException("Output format not supported without specifying columns.");
         }
+        if (!columnsDefined && outputFormat == WriterProjection.OutputFormat.PARQUET) {
+            // Parquet is written column-wise with a typed schema, export the top-level columns instead of the raw source
+            outputs = new ArrayList<>(table.columns().size());
+            for (Reference column : table.columns()) {
+                outputNames.add(column.column().sqlFqn());
+                outputs.add(DocReferences.toDocLookup(column));
+            }
+        }
 
-        WhereClause whereClause = new WhereClause(copyTo.whereClause(), partitions, Collections.emptySet());
         String uri = DataTypes.STRING.sanitizeValue(eval.apply(copyTo.uri()));
         if (uri.startsWith("/") || uri.startsWith("file:")) {
             // Settings of other schemes are validated later in plugins
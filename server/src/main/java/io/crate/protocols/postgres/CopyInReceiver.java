@@ -0,0 +1,66 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+
+import io.crate.auth.AccessControl;
+import io.crate.protocols.postgres.DelayableWriteChannel.DelayedWrites;
+
+/**
+ * Receiver for {@code COPY ... FROM STDIN}.
+ * <p>
+ * The file reading of COPY FROM treats read errors as the end of the input,
+ * so a CopyFail of the client or invalid data is reported as error here instead of the row count.
+ * </p>
+ */
+class CopyInReceiver extends RowCountReceiver {
+
+    private final CopyInStream copyInStream;
+
+    CopyInReceiver(String query,
+                   DelayableWriteChannel channel,
+                   DelayedWrites delayedWrites,
+                   AccessControl accessControl,
+                   CopyInStream copyInStream) {
+        super(query, channel, delayedWrites, accessControl);
+        this.copyInStream = copyInStream;
+    }
+
+    @Override
+    public void allFinished() {
+        IOException failure = copyInStream.failure();
+        if (failure == null) {
+            super.allFinished();
+        } else {
+            fail(failure);
+        }
+    }
+
+    @Override
+    public void fail(@NotNull Throwable throwable) {
+        copyInStream.close();
+        super.fail(throwable);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelConfig;
+
+/**
+ * InputStream providing the payload of the CopyData messages a client sends after a {@code COPY ... FROM STDIN}.
+ * <p>
+ * The network thread adds the messages, the data is consumed by the thread reading the rows of the COPY FROM
+ * execution. Reads block until data is available, so the rows are read on the generic pool, see
+ * {@code FileCollectSource}. Closing the stream fails a read which waits for data. To apply backpressure, reading from the connection is paused once more than
+ * {@link #HIGH_WATERMARK} bytes are buffered and resumed once the reader drained the buffer below
+ * {@link #LOW_WATERMARK}.
+ * </p>
+ */
+final class CopyInStream extends InputStream {
+
+    @VisibleForTesting
+    static final int HIGH_WATERMARK = 4 * 1024 * 1024;
+    @VisibleForTesting
+    static final int LOW_WATERMARK = 1024 * 1024;
+
+    private final ChannelConfig channelConfig;
+    private final ArrayDeque<ByteBuf> buffers = new ArrayDeque<>();
+    private final byte[] singleByte = new byte[1];
+
+    private long bufferedBytes = 0;
+    private boolean done = false;
+    private boolean closed = false;
+
+    @Nullable
+    private IOException failure;
+
+    CopyInStream(ChannelConfig channelConfig) {
+        this.channelConfig = channelConfig;
+    }
+
+    /**
+     * Adds the payload of a CopyData message. Takes ownership of the buffer.
+     */
+    synchronized void add(ByteBuf data) {
+        if (done || closed) {
+            data.release();
+            return;
+        }
+        buffers.add(data);
+        bufferedBytes += data.readableBytes();
+        if (bufferedBytes >= HIGH_WATERMARK && channelConfig.isAutoRead()) {
+            channelConfig.setAutoRead(false);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Marks the end of the data; Called on CopyDone.
+     */
+    synchronized void finish() {
+        done = true;
+        notifyAll();
+    }
+
+    /**
+     * Aborts the COPY; Called on CopyFail, if the connection is closed or if the received data is invalid.
+     * Subsequent reads raise the failure.
+     */
+    synchronized void fail(IOException failure) {
+        if (this.failure == null) {
+            this.failure = failure;
+        }
+        done = true;
+        releaseBuffers();
+        notifyAll();
+    }
+
+    @Nullable
+    synchronized IOException failure() {
+        return failure;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = read(singleByte, 0, 1);
+        return read == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed) {
+                throw new IOException("COPY FROM STDIN stream is closed");
+            }
+            ByteBuf head = buffers.peek();
+            if (head != null) {
+                int numBytes = Math.min(len, head.readableBytes());
+                head.readBytes(b, off, numBytes);
+                if (!head.isReadable()) {
+                    buffers.poll().release();
+                }
+                bufferedBytes -= numBytes;
+                if (bufferedBytes <= LOW_WATERMARK && !channelConfig.isAutoRead()) {
+                    channelConfig.setAutoRead(true);
+                }
+                return numBytes;
+            }
+            if (done) {
+                return -1;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for COPY FROM STDIN data");
+            }
+        }
+    }
+
+    @Override
+    public synchronized int available() {
+        return (int) Math.min(bufferedBytes, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        releaseBuffers();
+        notifyAll();
+    }
+
+    private void releaseBuffers() {
+        ByteBuf buffer;
+        while ((buffer = buffers.poll()) != null) {
+            buffer.release();
+        }
+        bufferedBytes = 0;
+        if (!channelConfig.isAutoRead()) {
+            channelConfig.setAutoRead(true);
+        }
+    }
+}
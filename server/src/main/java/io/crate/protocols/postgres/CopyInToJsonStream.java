@@ -0,0 +1,340 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.analyze.copy.StdioFormat;
+import io.crate.common.collections.Maps;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Converts the rows of a {@code COPY ... FROM STDIN} in the PostgreSQL {@code text} or {@code binary} format
+ * into JSON lines, so that they can be imported by the same line processing used for files.
+ * <p>
+ * Decoding failures abort the COPY via {@link CopyInStream#fail(IOException)}.
+ * </p>
+ */
+final class CopyInToJsonStream extends InputStream {
+
+    private static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    private final CopyInStream source;
+    private final RowReader rowReader;
+    private final List<ColumnIdent> columns;
+
+    private byte[] line = new byte[0];
+    private int position = 0;
+    private boolean eof = false;
+
+    /**
+     * @return an InputStream providing JSON lines for the TEXT and BINARY formats,
+     *         the source itself for the formats the file reading can process as is.
+     */
+    static InputStream wrap(StdioFormat format, CopyInStream source, List<Reference> columns) {
+        return switch (format) {
+            case TEXT -> new CopyInToJsonStream(source, new TextRowReader(source, pgTypes(columns)), columns);
+            case BINARY -> new CopyInToJsonStream(source, new BinaryRowReader(source, pgTypes(columns)), columns);
+            case CSV, JSON -> source;
+        };
+    }
+
+    private static PGType<?>[] pgTypes(List<Reference> columns) {
+        PGType<?>[] types = new PGType<?>[columns.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = PGTypes.get(columns.get(i).valueType());
+        }
+        return types;
+    }
+
+    private CopyInToJsonStream(CopyInStream source, RowReader rowReader, List<Reference> columns) {
+        this.source = source;
+        this.rowReader = rowReader;
+        this.columns = columns.stream().map(Reference::column).toList();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return line[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int numBytes = Math.min(len, line.length - position);
+        System.arraycopy(line, position, b, off, numBytes);
+        position += numBytes;
+        return numBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private boolean fill() throws IOException {
+        while (position == line.length) {
+            if (eof) {
+                return false;
+            }
+            Object[] values;
+            try {
+                values = rowReader.next();
+            } catch (IOException e) {
+                source.fail(e);
+                throw e;
+            } catch (RuntimeException e) {
+                IOException failure = new IOException(e.getMessage(), e);
+                source.fail(failure);
+                throw failure;
+            }
+            if (values == null) {
+                eof = true;
+                return false;
+            }
+            Map<String, Object> row = LinkedHashMap.newLinkedHashMap(values.length);
+            for (int i = 0; i < values.length; i++) {
+                ColumnIdent column = columns.get(i);
+                Maps.mergeInto(row, column.name(), column.path(), values[i]);
+            }
+            line = (Strings.toString(JsonXContent.builder().map(row)) + '\n').getBytes(StandardCharsets.UTF_8);
+            position = 0;
+        }
+        return true;
+    }
+
+    private interface RowReader {
+
+        /**
+         * @return the values of the next row or null if there are no more rows
+         */
+        @Nullable
+        Object[] next() throws IOException;
+    }
+
+    /**
+     * Reads rows in the PostgreSQL text format: One row per line, tab delimited columns,
+     * {@code \N} for null values and backslash escape sequences.
+     */
+    static final class TextRowReader implements RowReader {
+
+        private final InputStream in;
+        private final PGType<?>[] types;
+        private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream fieldBuffer = new ByteArrayOutputStream();
+        private long lineNumber = 0;
+
+        TextRowReader(InputStream in, PGType<?>[] types) {
+            this.in = new BufferedInputStream(in);
+            this.types = types;
+        }
+
+        @Override
+        @Nullable
+        public Object[] next() throws IOException {
+            byte[] line = readLine();
+            if (line == null || (line.length == 2 && line[0] == '\\' && line[1] == '.')) {
+                return null;
+            }
+            Object[] values = new Object[types.length];
+            int column = 0;
+            int start = 0;
+            for (int i = 0; i <= line.length; i++) {
+                if (i == line.length || line[i] == '\t') {
+                    if (column == types.length) {
+                        throw new IOException(String.format(Locale.ENGLISH,
+                            "Extra data after last expected column in line %d", lineNumber));
+                    }
+                    values[column] = decode(types[column], line, start, i);
+                    column++;
+                    start = i + 1;
+                }
+            }
+            if (column < types.length) {
+                throw new IOException(String.format(Locale.ENGLISH,
+                    "Missing data for column %d in line %d", column + 1, lineNumber));
+            }
+            return values;
+        }
+
+        @Nullable
+        private byte[] readLine() throws IOException {
+            lineBuffer.reset();
+            int b;
+            while ((b = in.read()) != -1 && b != '\n') {
+                lineBuffer.write(b);
+            }
+            if (b == -1 && lineBuffer.size() == 0) {
+                return null;
+            }
+            lineNumber++;
+            byte[] line = lineBuffer.toByteArray();
+            if (line.length > 0 && line[line.length - 1] == '\r') {
+                return Arrays.copyOf(line, line.length - 1);
+            }
+            return line;
+        }
+
+        @Nullable
+        private Object decode(PGType<?> type, byte[] line, int start, int end) {
+            if (end - start == 2 && line[start] == '\\' && line[start + 1] == 'N') {
+                return null;
+            }
+            fieldBuffer.reset();
+            for (int i = start; i < end; i++) {
+                byte b = line[i];
+                if (b != '\\' || i + 1 == end) {
+                    fieldBuffer.write(b);
+                    continue;
+                }
+                byte next = line[++i];
+                switch (next) {
+                    case 'b' -> fieldBuffer.write('\b');
+                    case 'f' -> fieldBuffer.write('\f');
+                    case 'n' -> fieldBuffer.write('\n');
+                    case 'r' -> fieldBuffer.write('\r');
+                    case 't' -> fieldBuffer.write('\t');
+                    case 'v' -> fieldBuffer.write(0x0B);
+                    case 'x' -> {
+                        int value = 0;
+                        int digits = 0;
+                        while (digits < 2 && i + 1 < end && Character.digit(line[i + 1], 16) != -1) {
+                            value = value * 16 + Character.digit(line[++i], 16);
+                            digits++;
+                        }
+                        if (digits == 0) {
+                            fieldBuffer.write('x');
+                        } else {
+                            fieldBuffer.write(value);
+                        }
+                    }
+                    default -> {
+                        if (next >= '0' && next <= '7') {
+                            int value = next - '0';
+                            for (int digits = 1; digits < 3 && i + 1 < end && line[i + 1] >= '0' && line[i + 1] <= '7'; digits++) {
+                                value = value * 8 + (line[++i] - '0');
+                            }
+                            fieldBuffer.write(value);
+                        } else {
+                            fieldBuffer.write(next);
+                        }
+                    }
+                }
+            }
+            byte[] bytes = fieldBuffer.toByteArray();
+            return type.readTextValue(Unpooled.wrappedBuffer(bytes), bytes.length);
+        }
+    }
+
+    /**
+     * Reads rows in the PostgreSQL binary copy format: A header starting with a signature, followed by tuples
+     * of length prefixed values and a trailer.
+     */
+    static final class BinaryRowReader implements RowReader {
+
+        private final DataInputStream in;
+        private final PGType<?>[] types;
+        private boolean headerRead = false;
+
+        BinaryRowReader(InputStream in, PGType<?>[] types) {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            this.types = types;
+        }
+
+        @Override
+        @Nullable
+        public Object[] next() throws IOException {
+            if (!headerRead) {
+                readHeader();
+                headerRead = true;
+            }
+            short numFields;
+            try {
+                numFields = in.readShort();
+            } catch (EOFException e) {
+                throw new IOException("Unexpected EOF in COPY data, missing file trailer", e);
+            }
+            if (numFields == -1) {
+                return null;
+            }
+            if (numFields != types.length) {
+                throw new IOException(String.format(Locale.ENGLISH,
+                    "Row field count is %d, expected %d", numFields, types.length));
+            }
+            Object[] values = new Object[numFields];
+            for (int i = 0; i < numFields; i++) {
+                int length = in.readInt();
+                if (length == -1) {
+                    continue;
+                }
+                byte[] bytes = in.readNBytes(length);
+                if (bytes.length < length) {
+                    throw new IOException("Unexpected EOF in COPY data");
+                }
+                ByteBuf buffer = Unpooled.wrappedBuffer(bytes);
+                values[i] = types[i].readBinaryValue(buffer, length);
+            }
+            return values;
+        }
+
+        private void readHeader() throws IOException {
+            byte[] signature = in.readNBytes(BINARY_SIGNATURE.length);
+            if (!Arrays.equals(signature, BINARY_SIGNATURE)) {
+                throw new IOException("COPY file signature not recognized");
+            }
+            int flags = in.readInt();
+            if ((flags & (1 << 16)) != 0) {
+                throw new IOException("OIDs in binary COPY data are not supported");
+            }
+            int extensionLength = in.readInt();
+            in.skipNBytes(extensionLength);
+        }
+    }
+}
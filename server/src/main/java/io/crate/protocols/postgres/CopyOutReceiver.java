@@ -0,0 +1,231 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+import io.crate.analyze.copy.StdioFormat;
+import io.crate.auth.AccessControl;
+import io.crate.data.Row;
+import io.crate.protocols.postgres.DelayableWriteChannel.DelayedWrites;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.session.BaseResultReceiver;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+
+/**
+ * Receiver for {@code COPY ... TO STDOUT}. Sends each row as CopyData message in the
+ * PostgreSQL text, csv or binary copy format followed by CopyDone and the command tag.
+ */
+class CopyOutReceiver extends BaseResultReceiver {
+
+    private static final byte[] BINARY_HEADER = {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0, // signature
+        0, 0, 0, 0, // flags
+        0, 0, 0, 0  // header extension length
+    };
+
+    private final String query;
+    private final DelayableWriteChannel channel;
+    private final DelayedWrites delayedWrites;
+    private final Channel directChannel;
+    private final AccessControl accessControl;
+    private final StdioFormat format;
+    private final List<PGType<?>> columnTypes;
+
+    private boolean headerSent = false;
+    private long rowCount = 0;
+
+    CopyOutReceiver(String query,
+                    DelayableWriteChannel channel,
+                    DelayedWrites delayedWrites,
+                    AccessControl accessControl,
+                    StdioFormat format,
+                    List<PGType<?>> columnTypes) {
+        assert format != StdioFormat.JSON : "JSON is not supported for COPY TO STDOUT";
+        this.query = query;
+        this.channel = channel;
+        this.delayedWrites = delayedWrites;
+        this.directChannel = channel.bypassDelay();
+        this.accessControl = accessControl;
+        this.format = format;
+        this.columnTypes = columnTypes;
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        ensureHeaderSent();
+        rowCount++;
+        ByteBuf buffer = directChannel.alloc().buffer();
+        buffer.writeByte('d');
+        buffer.writeInt(0); // will be set at the end
+        try {
+            switch (format) {
+                case TEXT -> writeTextRow(buffer, row, columnTypes);
+                case CSV -> writeCsvRow(buffer, row, columnTypes);
+                case BINARY -> writeBinaryRow(buffer, row, columnTypes);
+                default -> throw new AssertionError("Unsupported format: " + format);
+            }
+        } catch (Exception e) {
+            buffer.release();
+            throw e;
+        }
+        buffer.setInt(1, buffer.writerIndex() - 1);
+        directChannel.write(buffer);
+        if (rowCount % 1000 == 0) {
+            directChannel.flush();
+        }
+    }
+
+    @Override
+    public void allFinished() {
+        ensureHeaderSent();
+        if (format == StdioFormat.BINARY) {
+            ByteBuf trailer = directChannel.alloc().buffer(7);
+            trailer.writeByte('d');
+            trailer.writeInt(6);
+            trailer.writeShort(-1);
+            directChannel.write(trailer);
+        }
+        Messages.sendCopyDone(directChannel);
+        ChannelFuture sendCommandComplete = Messages.sendCommandComplete(directChannel, query, rowCount);
+        channel.writePendingMessages(delayedWrites);
+        channel.flush();
+        sendCommandComplete.addListener(f -> super.allFinished());
+    }
+
+    @Override
+    public void fail(@NotNull Throwable throwable) {
+        ChannelFuture sendErrorResponse = Messages.sendErrorResponse(directChannel, accessControl, throwable);
+        channel.writePendingMessages(delayedWrites);
+        channel.flush();
+        sendErrorResponse.addListener(f -> super.fail(throwable));
+    }
+
+    private void ensureHeaderSent() {
+        if (headerSent || format != StdioFormat.BINARY) {
+            return;
+        }
+        headerSent = true;
+        ByteBuf buffer = directChannel.alloc().buffer(5 + BINARY_HEADER.length);
+        buffer.writeByte('d');
+        buffer.writeInt(4 + BINARY_HEADER.length);
+        buffer.writeBytes(BINARY_HEADER);
+        directChannel.write(buffer);
+    }
+
+    /**
+     * Tab delimited values, {@code \N} for null, backslash, newline, carriage return and tab are escaped.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static void writeTextRow(ByteBuf buffer, Row row, List<PGType<?>> columnTypes) {
+        for (int i = 0; i < row.numColumns(); i++) {
+            if (i > 0) {
+                buffer.writeByte('\t');
+            }
+            Object value = row.get(i);
+            if (value == null) {
+                buffer.writeByte('\\');
+                buffer.writeByte('N');
+                continue;
+            }
+            for (byte b : textBytes((PGType) columnTypes.get(i), value)) {
+                switch (b) {
+                    case '\\' -> buffer.writeByte('\\').writeByte('\\');
+                    case '\n' -> buffer.writeByte('\\').writeByte('n');
+                    case '\r' -> buffer.writeByte('\\').writeByte('r');
+                    case '\t' -> buffer.writeByte('\\').writeByte('t');
+                    default -> buffer.writeByte(b);
+                }
+            }
+        }
+        buffer.writeByte('\n');
+    }
+
+    /**
+     * Comma delimited values, null is an unquoted empty value.
+     * Values containing the delimiter, quotes or line breaks and empty strings are quoted.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static void writeCsvRow(ByteBuf buffer, Row row, List<PGType<?>> columnTypes) {
+        for (int i = 0; i < row.numColumns(); i++) {
+            if (i > 0) {
+                buffer.writeByte(',');
+            }
+            Object value = row.get(i);
+            if (value == null) {
+                continue;
+            }
+            byte[] bytes = textBytes((PGType) columnTypes.get(i), value);
+            boolean quote = bytes.length == 0;
+            for (int j = 0; !quote && j < bytes.length; j++) {
+                byte b = bytes[j];
+                quote = b == ',' || b == '"' || b == '\n' || b == '\r';
+            }
+            if (!quote) {
+                buffer.writeBytes(bytes);
+                continue;
+            }
+            buffer.writeByte('"');
+            for (byte b : bytes) {
+                if (b == '"') {
+                    buffer.writeByte('"');
+                }
+                buffer.writeByte(b);
+            }
+            buffer.writeByte('"');
+        }
+        buffer.writeByte('\n');
+    }
+
+    /**
+     * int16 number of fields, followed by int32 length (-1 for null) and the binary value of each field.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static void writeBinaryRow(ByteBuf buffer, Row row, List<PGType<?>> columnTypes) {
+        buffer.writeShort(row.numColumns());
+        for (int i = 0; i < row.numColumns(); i++) {
+            Object value = row.get(i);
+            if (value == null) {
+                buffer.writeInt(-1);
+            } else {
+                ((PGType) columnTypes.get(i)).writeAsBinary(buffer, value);
+            }
+        }
+    }
+
+    private static <T> byte[] textBytes(PGType<T> type, T value) {
+        ByteBuf tmp = Unpooled.buffer();
+        try {
+            int length = type.writeAsText(tmp, value) - 4;
+            byte[] bytes = new byte[length];
+            tmp.getBytes(4, bytes);
+            return bytes;
+        } finally {
+            tmp.release();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.Row;
+import io.crate.protocols.postgres.types.PGType;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Encodes rows as DataRow messages.
+ * <p>
+ * The PGType and format code of each column is resolved once per result set, so that encoding a row only
+ * dispatches to the column writers. Rows are appended to a buffer provided by the caller, which allows to
+ * write many rows with a single {@code channel.write}.
+ * </p>
+ * <pre>
+ * DataRow (B)
+ *  | 'D' | int32 len | int16 numColumns | (int32 valueLength | byteN value)*
+ * </pre>
+ */
+final class DataRowEncoder {
+
+    @FunctionalInterface
+    private interface ColumnWriter {
+
+        /**
+         * @return number of bytes written, including the int32 length prefix
+         */
+        int write(ByteBuf buffer, Object value);
+    }
+
+    private final ColumnWriter[] columnWriters;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    DataRowEncoder(List<PGType<?>> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
+        columnWriters = new ColumnWriter[columnTypes.size()];
+        for (int i = 0; i < columnWriters.length; i++) {
+            PGType pgType = columnTypes.get(i);
+            FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
+            columnWriters[i] = switch (formatCode) {
+                case TEXT -> pgType::writeAsText;
+                case BINARY -> pgType::writeAsBinary;
+            };
+        }
+    }
+
+    /**
+     * Appends a DataRow message for the row to the buffer.
+     * If encoding a value fails, the buffer is reset to its previous writer index.
+     *
+     * @return the number of bytes written
+     */
+    int encode(ByteBuf buffer, Row row) {
+        assert columnWriters.length == row.numColumns()
+            : "Number of columns in the row must match number of columnTypes. Row: " + row;
+        int start = buffer.writerIndex();
+        try {
+            buffer.writeByte('D');
+            buffer.writeInt(0); // will be set at the end
+            buffer.writeShort(columnWriters.length);
+            for (int i = 0; i < columnWriters.length; i++) {
+                Object value = row.get(i);
+                if (value == null) {
+                    buffer.writeInt(-1);
+                } else {
+                    columnWriters[i].write(buffer, value);
+                }
+            }
+        } catch (Throwable t) {
+            buffer.writerIndex(start);
+            throw t;
+        }
+        int length = buffer.writerIndex() - start;
+        buffer.setInt(start + 1, length - 1);
+        return length;
+    }
+}
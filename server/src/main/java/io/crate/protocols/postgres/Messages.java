@@ -23,7 +23,6 @@ package io.crate.protocols.postgres;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
-import java.util.List;
 import java.util.Locale;
 import java.util.SortedSet;
 
@@ -32,7 +31,6 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
 import io.crate.auth.AccessControl;
-import io.crate.data.Row;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.Reference;
@@ -292,69 +290,6 @@ public class Messages {
         return channelFuture;
     }
 
-    /**
-     * Byte1('D')
-     * Identifies the message as a data row.
-     * <p>
-     * Int32
-     * Length of message contents in bytes, including self.
-     * <p>
-     * Int16
-     * The number of column values that follow (possibly zero).
-     * <p>
-     * Next, the following pair of fields appear for each column:
-     * <p>
-     * Int32
-     * The length of the column value, in bytes (this count does not include itself).
-     * Can be zero. As a special case, -1 indicates a NULL column value. No value bytes follow in the NULL case.
-     * <p>
-     * ByteN
-     * The value of the column, in the format indicated by the associated format code. n is the above length.
-     */
-    @SuppressWarnings({"unchecked","rawtypes"})
-    static void sendDataRow(Channel channel, Row row, List<PGType<?>> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
-        int length = 4 + 2;
-        assert columnTypes.size() == row.numColumns()
-            : "Number of columns in the row must match number of columnTypes. Row: " + row + " types: " + columnTypes;
-
-        ByteBuf buffer = channel.alloc().buffer();
-        buffer.writeByte('D');
-        buffer.writeInt(0); // will be set at the end
-        buffer.writeShort(row.numColumns());
-
-        for (int i = 0; i < row.numColumns(); i++) {
-            PGType pgType = columnTypes.get(i);
-            Object value;
-            try {
-                value = row.get(i);
-            } catch (Exception e) {
-                buffer.release();
-                throw e;
-            }
-            if (value == null) {
-                buffer.writeInt(-1);
-                length += 4;
-            } else {
-                FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
-                switch (formatCode) {
-                    case TEXT:
-                        length += pgType.writeAsText(buffer, value);
-                        break;
-                    case BINARY:
-                        length += pgType.writeAsBinary(buffer, value);
-                        break;
-
-                    default:
-                        buffer.release();
-                        throw new AssertionError("Unrecognized formatCode: " + formatCode);
-                }
-            }
-        }
-
-        buffer.setInt(1, length);
-        channel.write(buffer);
-    }
-
     static void writeCString(ByteBuf buffer, byte[] valBytes) {
         buffer.writeBytes(valBytes);
         buffer.writeByte(0);
@@ -495,6 +430,47 @@ public class Messages {
         sendShortMsg(channel, 'n', "sentNoData");
     }
 
+    /**
+     * CopyInResponse
+     * | 'G' | int32 len | int8 format | int16 numColumns | int16 format per column
+     * <p>
+     * format: 0 for textual (text, csv), 1 for binary
+     */
+    static ChannelFuture sendCopyInResponse(Channel channel, boolean binary, int numColumns) {
+        return channel.write(copyResponse('G', channel, binary, numColumns));
+    }
+
+    /**
+     * CopyOutResponse
+     * | 'H' | int32 len | int8 format | int16 numColumns | int16 format per column
+     * <p>
+     * format: 0 for textual (text, csv), 1 for binary
+     */
+    static ChannelFuture sendCopyOutResponse(Channel channel, boolean binary, int numColumns) {
+        return channel.write(copyResponse('H', channel, binary, numColumns));
+    }
+
+    private static ByteBuf copyResponse(char msgType, Channel channel, boolean binary, int numColumns) {
+        int length = 4 + 1 + 2 + numColumns * 2;
+        ByteBuf buffer = channel.alloc().buffer(length + 1);
+        buffer.writeByte(msgType);
+        buffer.writeInt(length);
+        buffer.writeByte(binary ? 1 : 0);
+        buffer.writeShort(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            buffer.writeShort(binary ? 1 : 0);
+        }
+        return buffer;
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    static ChannelFuture sendCopyDone(Channel channel) {
+        return sendShortMsg(channel, 'c', "sentCopyDone");
+    }
+
     /**
      * Send a message that just contains the msgType and the msg length
      * @return
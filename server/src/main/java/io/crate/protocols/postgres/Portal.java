@@ -21,6 +21,7 @@
 
 package io.crate.protocols.postgres;
 
+import java.io.InputStream;
 import java.util.List;
 
 import org.jetbrains.annotations.Nullable;
@@ -40,6 +41,9 @@ public final class Portal {
 
     private RowConsumerToResultReceiver consumer;
 
+    @Nullable
+    private InputStream copyInput;
+
     public Portal(String portalName,
                   PreparedStmt preparedStmt,
                   List<Object> params,
@@ -80,6 +84,18 @@ public final class Portal {
         return consumer;
     }
 
+    /**
+     * Attach the data a client sends for a {@code COPY ... FROM STDIN} statement
+     */
+    public void setCopyInput(InputStream copyInput) {
+        this.copyInput = copyInput;
+    }
+
+    @Nullable
+    public InputStream copyInput() {
+        return copyInput;
+    }
+
     public void closeActiveConsumer() {
         if (consumer != null) {
             consumer.closeAndFinishIfSuspended();
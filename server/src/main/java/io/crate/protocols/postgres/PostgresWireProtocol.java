@@ -25,6 +25,7 @@ import static io.crate.protocols.SSL.getSession;
 import static io.crate.protocols.postgres.FormatCodes.getFormatCode;
 import static io.crate.protocols.postgres.Messages.sendReadyForQuery;
 
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
@@ -50,6 +51,10 @@ import org.elasticsearch.http.netty4.Netty4HttpServerTransport;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
+import io.crate.analyze.AnalyzedCopyFrom;
+import io.crate.analyze.AnalyzedCopyTo;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.copy.StdioFormat;
 import io.crate.auth.AccessControl;
 import io.crate.auth.Authentication;
 import io.crate.auth.AuthenticationMethod;
@@ -58,6 +63,7 @@ import io.crate.auth.Protocol;
 import io.crate.common.collections.Lists;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Reference;
 import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.metadata.settings.session.SessionSetting;
 import io.crate.metadata.settings.session.SessionSettingRegistry;
@@ -210,6 +216,12 @@ public class PostgresWireProtocol {
     private DelayableWriteChannel channel;
     Session session;
     private boolean ignoreTillSync = false;
+
+    /**
+     * Set while a {@code COPY ... FROM STDIN} is consuming CopyData messages
+     */
+    @Nullable
+    private volatile CopyInStream copyIn;
     private AuthenticationContext authContext;
     private Properties properties;
 
@@ -363,6 +375,15 @@ public class PostgresWireProtocol {
                 case 'C':
                     handleClose(buffer, channel);
                     return;
+                case 'd':
+                    handleCopyData(buffer);
+                    return;
+                case 'c':
+                    handleCopyDone();
+                    return;
+                case 'f':
+                    handleCopyFail(buffer);
+                    return;
                 case 'X': // Terminate (called when jdbc connection is closed)
                     closeSession();
                     channel.close();
@@ -397,6 +418,10 @@ public class PostgresWireProtocol {
         @Override
         public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
             LOGGER.trace("channelDisconnected");
+            CopyInStream copyInStream = copyIn;
+            if (copyInStream != null) {
+                copyInStream.fail(new IOException("Connection closed during COPY FROM STDIN"));
+            }
             channel = null;
             closeSession();
             super.channelUnregistered(ctx);
@@ -806,8 +831,24 @@ public class PostgresWireProtocol {
             session.bind("", "", Collections.emptyList(), null);
             DescribeResult describeResult = session.describe('P', "");
             List<Symbol> fields = describeResult.getFields();
+            AnalyzedStatement analyzedStatement = session.getAnalyzedStatement("");
 
-            if (fields == null) {
+            if (analyzedStatement instanceof AnalyzedCopyFrom copyFrom && copyFrom.readsFromStdin()) {
+                copyFromStdin(copyFrom, query, channel, accessControl);
+            } else if (analyzedStatement instanceof AnalyzedCopyTo copyTo && copyTo.writesToStdout()) {
+                StdioFormat format = copyTo.stdoutFormat();
+                Messages.sendCopyOutResponse(channel, format == StdioFormat.BINARY, fields.size());
+                DelayedWrites delayedWrites = channel.delayWrites();
+                CopyOutReceiver copyOutReceiver = new CopyOutReceiver(
+                    query,
+                    channel,
+                    delayedWrites,
+                    accessControl,
+                    format,
+                    Lists.map(fields, x -> PGTypes.get(x.valueType()))
+                );
+                session.execute("", 0, copyOutReceiver);
+            } else if (fields == null) {
                 DelayedWrites delayedWrites = channel.delayWrites();
                 RowCountReceiver rowCountReceiver = new RowCountReceiver(
                     query,
@@ -832,6 +873,11 @@ public class PostgresWireProtocol {
             }
             return session.sync();
         } catch (Throwable t) {
+            CopyInStream copyInStream = copyIn;
+            if (copyInStream != null) {
+                copyInStream.close();
+                copyIn = null;
+            }
             channel.discardDelayedWrites();
             Messages.sendErrorResponse(channel, accessControl, t);
             result.completeExceptionally(t);
@@ -839,6 +885,64 @@ public class PostgresWireProtocol {
         }
     }
 
+    /**
+     * Starts the CopyIn sub-protocol: The client streams the rows via CopyData messages
+     * until it sends CopyDone or CopyFail. The data is read by the COPY FROM execution via {@link CopyInStream}.
+     */
+    private void copyFromStdin(AnalyzedCopyFrom copyFrom,
+                               String query,
+                               DelayableWriteChannel channel,
+                               AccessControl accessControl) {
+        StdioFormat format = copyFrom.stdinFormat();
+        List<Reference> columns = copyFrom.stdinColumns();
+        CopyInStream copyInStream = new CopyInStream(channel.config());
+        session.setCopyInput("", CopyInToJsonStream.wrap(format, copyInStream, columns));
+        copyIn = copyInStream;
+
+        Messages.sendCopyInResponse(channel, format == StdioFormat.BINARY, columns.size());
+        channel.flush();
+        DelayedWrites delayedWrites = channel.delayWrites();
+        CopyInReceiver copyInReceiver = new CopyInReceiver(
+            query,
+            channel,
+            delayedWrites,
+            accessControl,
+            copyInStream
+        );
+        copyInReceiver.completionFuture().whenComplete((res, err) -> {
+            copyInStream.close();
+            if (copyIn == copyInStream) {
+                copyIn = null;
+            }
+        });
+        session.execute("", 0, copyInReceiver);
+    }
+
+    private void handleCopyData(ByteBuf buffer) {
+        CopyInStream copyInStream = copyIn;
+        if (copyInStream == null) {
+            // After an error the backend discards CopyData messages until the next Sync or Query
+            buffer.skipBytes(decoder.payloadLength());
+        } else {
+            copyInStream.add(buffer.retain());
+        }
+    }
+
+    private void handleCopyDone() {
+        CopyInStream copyInStream = copyIn;
+        if (copyInStream != null) {
+            copyInStream.finish();
+        }
+    }
+
+    private void handleCopyFail(ByteBuf buffer) {
+        String message = readCString(buffer);
+        CopyInStream copyInStream = copyIn;
+        if (copyInStream != null) {
+            copyInStream.fail(new IOException("COPY from stdin failed: " + message));
+        }
+    }
+
     private void handleCancelRequestBody(ByteBuf buffer, Channel channel) {
         var keyData = KeyData.of(buffer);
 
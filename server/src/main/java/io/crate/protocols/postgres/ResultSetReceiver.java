@@ -25,27 +25,43 @@ import java.util.List;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import io.crate.session.BaseResultReceiver;
 import io.crate.auth.AccessControl;
 import io.crate.data.Row;
 import io.crate.protocols.postgres.DelayableWriteChannel.DelayedWrites;
 import io.crate.protocols.postgres.types.PGType;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
 
+/**
+ * Sends the rows of a result set as DataRow messages.
+ * <p>
+ * Rows are encoded into a pooled buffer which is written and flushed once it reaches a size derived from the
+ * send buffer size of the socket, to reduce the number of allocations, writes and syscalls for large results.
+ * </p>
+ */
 class ResultSetReceiver extends BaseResultReceiver {
 
+    @VisibleForTesting
+    static final int MIN_BATCH_BYTES = 32 * 1024;
+    @VisibleForTesting
+    static final int MAX_BATCH_BYTES = 1024 * 1024;
+
     private final String query;
     private final DelayableWriteChannel channel;
-    private final List<PGType<?>> columnTypes;
     private final TransactionState transactionState;
     private final AccessControl accessControl;
     private final Channel directChannel;
     private final DelayedWrites delayedWrites;
+    private final DataRowEncoder dataRowEncoder;
+    private final int batchBytes;
 
     @Nullable
-    private final FormatCodes.FormatCode[] formatCodes;
+    private ByteBuf batch;
 
     private long rowCount = 0;
 
@@ -62,21 +78,53 @@ class ResultSetReceiver extends BaseResultReceiver {
         this.directChannel = channel.bypassDelay();
         this.transactionState = transactionState;
         this.accessControl = accessControl;
-        this.columnTypes = columnTypes;
-        this.formatCodes = formatCodes;
+        this.dataRowEncoder = new DataRowEncoder(columnTypes, formatCodes);
+        this.batchBytes = batchBytes(directChannel);
+    }
+
+    /**
+     * Size of the buffer to encode rows into before writing them to the channel.
+     * Follows the socket send buffer size, so that a batch can be passed to the socket with few syscalls.
+     */
+    @VisibleForTesting
+    static int batchBytes(Channel channel) {
+        Integer sendBufferSize = channel.config().getOption(ChannelOption.SO_SNDBUF);
+        if (sendBufferSize == null || sendBufferSize <= 0) {
+            return MIN_BATCH_BYTES;
+        }
+        return Math.clamp(sendBufferSize, MIN_BATCH_BYTES, MAX_BATCH_BYTES);
     }
 
     @Override
     public void setNextRow(Row row) {
+        ByteBuf buffer = batch;
+        if (buffer == null) {
+            buffer = directChannel.alloc().buffer(batchBytes);
+            batch = buffer;
+        }
+        dataRowEncoder.encode(buffer, row);
         rowCount++;
-        Messages.sendDataRow(directChannel, row, columnTypes, formatCodes);
-        if (rowCount % 1000 == 0) {
+        if (buffer.readableBytes() >= batchBytes) {
+            writeBatch();
             directChannel.flush();
         }
     }
 
+    private void writeBatch() {
+        ByteBuf buffer = batch;
+        if (buffer != null) {
+            batch = null;
+            if (buffer.isReadable()) {
+                directChannel.write(buffer);
+            } else {
+                buffer.release();
+            }
+        }
+    }
+
     @Override
     public void batchFinished() {
+        writeBatch();
         ChannelFuture sendPortalSuspended = Messages.sendPortalSuspended(directChannel);
         channel.writePendingMessages(delayedWrites);
         channel.flush();
@@ -89,6 +137,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void allFinished() {
+        writeBatch();
         ChannelFuture sendCommandComplete = Messages.sendCommandComplete(directChannel, query, rowCount);
         channel.writePendingMessages(delayedWrites);
         channel.flush();
@@ -97,6 +146,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void fail(@NotNull Throwable throwable) {
+        writeBatch();
         ChannelFuture sendErrorResponse = Messages.sendErrorResponse(directChannel, accessControl, throwable);
         channel.writePendingMessages(delayedWrites);
         channel.flush();
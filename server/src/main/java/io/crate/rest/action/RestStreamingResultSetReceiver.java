@@ -0,0 +1,326 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.rest.action;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import io.crate.auth.AccessControl;
+import io.crate.data.Row;
+import io.crate.expression.symbol.Symbol;
+import io.crate.session.ResultReceiver;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+
+/**
+ * Writes the rows of a result set as HTTP chunks while they're received instead of building the whole response
+ * in memory like {@link RestResultSetReceiver}.
+ * <p>
+ * The {@link Format#JSON} format has the same structure as the regular response. Errors that happen after the
+ * first chunk has been sent are added as {@code error} object after the {@code rows} array.
+ * </p>
+ * <p>
+ * The {@link Format#NDJSON} format writes one JSON document per line: An object with the columns,
+ * one array per row and an object with the row count and duration or the error.
+ * </p>
+ * <p>
+ * The result receiver completes with {@code null} once the response has been written.
+ * It only fails if nothing has been sent yet, so that the caller can still send a regular error response.
+ * </p>
+ * <p>
+ * While the outbound buffer of the channel is full, {@link #whenReady()} pauses the consumption of rows.
+ * It is resumed on the {@code resumeExecutor} once the channel is writable again or has been closed,
+ * see {@link #writabilityChanged()}.
+ * </p>
+ */
+class RestStreamingResultSetReceiver implements ResultReceiver<XContentBuilder> {
+
+    private static final Logger LOGGER = LogManager.getLogger(RestStreamingResultSetReceiver.class);
+
+    @VisibleForTesting
+    static final int CHUNK_SIZE = 64 * 1024;
+    private static final int FLUSH_ROWS = 1000;
+
+    enum Format {
+        JSON("application/json; charset=UTF-8"),
+        NDJSON("application/x-ndjson; charset=UTF-8");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        String contentType() {
+            return contentType;
+        }
+    }
+
+    private final Channel channel;
+    private final HttpResponse response;
+    private final boolean closeConnection;
+    private final Format format;
+    private final List<Symbol> outputFields;
+    private final boolean includeTypes;
+    private final long startTimeNs;
+    private final AccessControl accessControl;
+    private final Executor resumeExecutor;
+    private final ChunkOutputStream out;
+    private final XContentBuilder builder;
+    private final CompletableFuture<XContentBuilder> result = new CompletableFuture<>();
+
+    @Nullable
+    private ResultToXContentBuilder resultBuilder;
+    private long rowCount = 0;
+
+    @Nullable
+    private CompletableFuture<Void> ready;
+
+    RestStreamingResultSetReceiver(Channel channel,
+                                   HttpResponse response,
+                                   boolean closeConnection,
+                                   Format format,
+                                   List<Symbol> outputFields,
+                                   boolean includeTypes,
+                                   long startTimeNs,
+                                   AccessControl accessControl,
+                                   Executor resumeExecutor) throws IOException {
+        this.channel = channel;
+        this.response = response;
+        this.closeConnection = closeConnection;
+        this.format = format;
+        this.outputFields = outputFields;
+        this.includeTypes = includeTypes;
+        this.startTimeNs = startTimeNs;
+        this.accessControl = accessControl;
+        this.resumeExecutor = resumeExecutor;
+        this.out = new ChunkOutputStream(channel.alloc());
+        this.builder = new XContentBuilder(JsonXContent.JSON_XCONTENT, out, format == Format.NDJSON ? "\n" : null);
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        if (!channel.isActive()) {
+            throw new IllegalStateException("Connection closed while streaming the result");
+        }
+        try {
+            if (resultBuilder == null) {
+                startResponse();
+            }
+            resultBuilder.addRow(row, outputFields.size());
+            rowCount++;
+            if (rowCount % FLUSH_ROWS == 0 || out.size() >= CHUNK_SIZE) {
+                builder.flush();
+                writeChunk();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void batchFinished() {
+        fail(new IllegalStateException("Incremental result streaming not supported via HTTP"));
+    }
+
+    @Override
+    public void allFinished() {
+        try {
+            if (resultBuilder == null) {
+                startResponse();
+            }
+            if (format == Format.JSON) {
+                resultBuilder.finishRows()
+                    .rowCount(rowCount)
+                    .duration(startTimeNs)
+                    .build();
+            } else {
+                ResultToXContentBuilder.builder(builder)
+                    .rowCount(rowCount)
+                    .duration(startTimeNs)
+                    .build();
+            }
+            finishResponse();
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    @Override
+    public void fail(Throwable t) {
+        if (resultBuilder == null) {
+            out.release();
+            result.completeExceptionally(t);
+            return;
+        }
+        try {
+            if (format == Format.JSON) {
+                resultBuilder.finishRows()
+                    .error(t, accessControl)
+                    .build();
+            } else {
+                ResultToXContentBuilder.builder(builder)
+                    .error(t, accessControl)
+                    .build();
+            }
+            finishResponse();
+        } catch (Throwable e) {
+            LOGGER.debug("Couldn't add error to streamed HTTP response, closing connection", e);
+            out.release();
+            channel.close();
+            result.complete(null);
+        }
+    }
+
+    @Override
+    public CompletableFuture<XContentBuilder> completionFuture() {
+        return result;
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<?> whenReady() {
+        if (channel.isWritable()) {
+            return null;
+        }
+        synchronized (this) {
+            if (channel.isWritable() || !channel.isActive()) {
+                return null;
+            }
+            if (ready == null) {
+                ready = new CompletableFuture<>();
+            }
+            return ready;
+        }
+    }
+
+    /**
+     * Must be called if the writability of the channel changed or the channel has been closed,
+     * to resume the consumption of rows if it has been paused.
+     * The consumption isn't resumed on the calling thread, as that is usually the event loop of the channel.
+     */
+    void writabilityChanged() {
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (ready == null || (channel.isActive() && !channel.isWritable())) {
+                return;
+            }
+            toComplete = ready;
+            ready = null;
+        }
+        try {
+            resumeExecutor.execute(() -> toComplete.complete(null));
+        } catch (RejectedExecutionException e) {
+            toComplete.completeExceptionally(e);
+        }
+    }
+
+    private void startResponse() throws IOException {
+        channel.write(response);
+        resultBuilder = ResultToXContentBuilder.builder(builder).cols(outputFields);
+        if (includeTypes) {
+            resultBuilder.colTypes(outputFields);
+        }
+        if (format == Format.JSON) {
+            resultBuilder.startRows();
+        } else {
+            resultBuilder.build();
+        }
+    }
+
+    private void finishResponse() throws IOException {
+        builder.close();
+        if (format == Format.NDJSON) {
+            out.write('\n');
+        }
+        writeChunk();
+        out.release();
+        ChannelFuture lastContent = channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+        if (closeConnection) {
+            lastContent.addListener(ChannelFutureListener.CLOSE);
+        }
+        result.complete(null);
+    }
+
+    private void writeChunk() {
+        if (out.size() > 0) {
+            channel.writeAndFlush(new DefaultHttpContent(out.takeChunk()));
+        }
+    }
+
+    /**
+     * Collects the output of the XContentBuilder until it is sent as HTTP chunk.
+     */
+    private static final class ChunkOutputStream extends OutputStream {
+
+        private final ByteBufAllocator allocator;
+        private ByteBuf buffer;
+
+        ChunkOutputStream(ByteBufAllocator allocator) {
+            this.allocator = allocator;
+            this.buffer = allocator.buffer();
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.writeBytes(b, off, len);
+        }
+
+        int size() {
+            return buffer.readableBytes();
+        }
+
+        ByteBuf takeChunk() {
+            ByteBuf chunk = buffer;
+            buffer = allocator.buffer();
+            return chunk;
+        }
+
+        void release() {
+            if (buffer.refCnt() > 0) {
+                buffer.release();
+            }
+        }
+    }
+}
@@ -142,12 +142,7 @@ class ResultToXContentBuilder {
             builder.field(FIELDS.ROW_COUNT, result.rowCount());
             Throwable t = result.error();
             if (t != null) {
-                builder.startObject(FIELDS.ERROR);
-                var throwable = SQLExceptions.prepareForClientTransmission(accessControl, t);
-                HttpError httpError = HttpError.fromThrowable(throwable);
-                builder.field(FIELDS.ERROR_CODE, httpError.errorCode());
-                builder.field(FIELDS.ERROR_MESSAGE, userFriendlyMessage(throwable));
-                builder.endObject();
+                error(t, accessControl);
             }
             builder.endObject();
         }
@@ -155,6 +150,19 @@ class ResultToXContentBuilder {
         return this;
     }
 
+    /**
+     * Adds an error object with code and message of the given failure
+     */
+    ResultToXContentBuilder error(Throwable t, AccessControl accessControl) throws IOException {
+        builder.startObject(FIELDS.ERROR);
+        var throwable = SQLExceptions.prepareForClientTransmission(accessControl, t);
+        HttpError httpError = HttpError.fromThrowable(throwable);
+        builder.field(FIELDS.ERROR_CODE, httpError.errorCode());
+        builder.field(FIELDS.ERROR_MESSAGE, userFriendlyMessage(throwable));
+        builder.endObject();
+        return this;
+    }
+
     XContentBuilder build() throws IOException {
         builder.endObject();
         return builder;
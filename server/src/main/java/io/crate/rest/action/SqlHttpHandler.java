@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -78,9 +79,12 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.QueryStringDecoder;
 
@@ -95,14 +99,19 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
     private final Roles roles;
     private final Netty4CorsConfig corsConfig;
     private final boolean checkJwtProperties;
+    private final Executor streamingExecutor;
 
     private Session session;
 
+    @Nullable
+    private volatile RestStreamingResultSetReceiver streamingReceiver;
+
     public SqlHttpHandler(Settings settings,
                           Sessions sessions,
                           Function<String, CircuitBreaker> circuitBreakerProvider,
                           Roles roles,
-                          Netty4CorsConfig corsConfig) {
+                          Netty4CorsConfig corsConfig,
+                          Executor streamingExecutor) {
         super(false);
         this.settings = settings;
         this.sessions = sessions;
@@ -110,6 +119,7 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         this.roles = roles;
         this.corsConfig = corsConfig;
         this.checkJwtProperties = settings.get(AUTH_HOST_BASED_JWT_ISS_SETTING.getKey()) == null;
+        this.streamingExecutor = streamingExecutor;
     }
 
     @Override
@@ -123,11 +133,13 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
                     getSession(ctx.channel())),
                 request);
             Map<String, List<String>> parameters = new QueryStringDecoder(request.uri()).parameters();
-            ByteBuf content = request.content();
-            handleSQLRequest(session, content, paramContainFlag(parameters, "types"))
+            handleSQLRequest(session, ctx, request, parameters)
                 .whenComplete((result, t) -> {
                     try {
-                        sendResponse(session, ctx, request, parameters, result, t);
+                        // A null result without error means the response has already been streamed
+                        if (result != null || t != null) {
+                            sendResponse(session, ctx, request, parameters, result, t);
+                        }
                     } catch (Throwable ex) {
                         LOGGER.error("Error sending response", ex);
                         throw ex;
@@ -148,6 +160,49 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         return values != null && (values.equals(singletonList("")) || values.equals(singletonList("true")));
     }
 
+    /**
+     * @return the format to stream the result set with, or null if the result should be sent as a whole.
+     */
+    @Nullable
+    @VisibleForTesting
+    static RestStreamingResultSetReceiver.Format streamingFormat(Map<String, List<String>> parameters,
+                                                                 HttpVersion httpVersion) {
+        List<String> formatValues = parameters.get("format");
+        String format = formatValues == null || formatValues.isEmpty() ? null : formatValues.get(0);
+        RestStreamingResultSetReceiver.Format streamingFormat;
+        if ("ndjson".equals(format)) {
+            streamingFormat = RestStreamingResultSetReceiver.Format.NDJSON;
+        } else if (format == null || "json".equals(format)) {
+            streamingFormat = paramContainFlag(parameters, "stream") ? RestStreamingResultSetReceiver.Format.JSON : null;
+        } else {
+            throw new IllegalArgumentException(
+                "Invalid format '" + format + "', supported formats are: [json, ndjson]");
+        }
+        if (streamingFormat != null && httpVersion.equals(HttpVersion.HTTP_1_0)) {
+            throw new IllegalArgumentException("Streaming a result requires HTTP/1.1");
+        }
+        return streamingFormat;
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        RestStreamingResultSetReceiver receiver = streamingReceiver;
+        if (receiver != null) {
+            receiver.writabilityChanged();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // A paused execution must be resumed to notice that the connection has been closed
+        RestStreamingResultSetReceiver receiver = streamingReceiver;
+        if (receiver != null) {
+            receiver.writabilityChanged();
+        }
+        super.channelInactive(ctx);
+    }
+
     @Override
     public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
         if (session != null) {
@@ -202,10 +257,15 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         ctx.writeAndFlush(resp, promise);
     }
 
-    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session, ByteBuf content, boolean includeTypes) {
+    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session,
+                                                                ChannelHandlerContext ctx,
+                                                                FullHttpRequest request,
+                                                                Map<String, List<String>> parameters) {
         SQLRequestParseContext parseContext;
+        RestStreamingResultSetReceiver.Format streamingFormat;
         try {
-            parseContext = SQLRequestParser.parseSource(Netty4Utils.toBytesReference(content));
+            parseContext = SQLRequestParser.parseSource(Netty4Utils.toBytesReference(request.content()));
+            streamingFormat = streamingFormat(parameters, request.protocolVersion());
         } catch (Throwable t) {
             return CompletableFuture.failedFuture(t);
         }
@@ -217,8 +277,19 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         }
         try {
             if (args != null || bulkArgs == null) {
-                return executeSimpleRequest(session, parseContext.stmt(), args, includeTypes);
+                return executeSimpleRequest(
+                    session,
+                    parseContext.stmt(),
+                    args,
+                    paramContainFlag(parameters, "types"),
+                    ctx,
+                    request,
+                    streamingFormat
+                );
             } else {
+                if (streamingFormat == RestStreamingResultSetReceiver.Format.NDJSON) {
+                    throw new IllegalArgumentException("The ndjson format is not supported for bulk requests");
+                }
                 return executeBulkRequest(session, parseContext.stmt(), bulkArgs);
             }
         } catch (Throwable t) {
@@ -244,7 +315,10 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
     private CompletableFuture<XContentBuilder> executeSimpleRequest(Session session,
                                                                     String stmt,
                                                                     List<Object> args,
-                                                                    boolean includeTypes) throws IOException {
+                                                                    boolean includeTypes,
+                                                                    ChannelHandlerContext ctx,
+                                                                    FullHttpRequest request,
+                                                                    @Nullable RestStreamingResultSetReceiver.Format streamingFormat) throws IOException {
         long startTimeInNs = System.nanoTime();
         session.parse(UNNAMED, stmt, emptyList());
         session.bind(UNNAMED, UNNAMED, args == null ? emptyList() : args, null);
@@ -252,7 +326,36 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         List<Symbol> resultFields = description.getFields();
         ResultReceiver<XContentBuilder> resultReceiver;
         if (resultFields == null) {
+            if (streamingFormat == RestStreamingResultSetReceiver.Format.NDJSON) {
+                throw new IllegalArgumentException(
+                    "The ndjson format is only supported for statements that return a result set");
+            }
             resultReceiver = new RestRowCountReceiver(JsonXContent.builder(), startTimeInNs, includeTypes);
+        } else if (streamingFormat != null) {
+            var sessionSettings = session.sessionSettings();
+            AccessControl accessControl = roles.getAccessControl(sessionSettings.authenticatedUser(), sessionSettings.sessionUser());
+            HttpResponse response = new DefaultHttpResponse(request.protocolVersion(), HttpResponseStatus.OK);
+            response.headers().add(HttpHeaderNames.CONTENT_TYPE, streamingFormat.contentType());
+            HttpUtil.setTransferEncodingChunked(response, true);
+            Netty4CorsHandler.setCorsResponseHeaders(request, response, corsConfig);
+            RestStreamingResultSetReceiver receiver = new RestStreamingResultSetReceiver(
+                ctx.channel(),
+                response,
+                isCloseConnection(request),
+                streamingFormat,
+                resultFields,
+                includeTypes,
+                startTimeInNs,
+                accessControl,
+                streamingExecutor
+            );
+            streamingReceiver = receiver;
+            receiver.completionFuture().whenComplete((result, error) -> {
+                if (streamingReceiver == receiver) {
+                    streamingReceiver = null;
+                }
+            });
+            resultReceiver = receiver;
         } else {
             CircuitBreaker breaker = circuitBreakerProvider.apply(HierarchyCircuitBreakerService.QUERY);
             RamAccounting ramAccounting = new BlockBasedRamAccounting(
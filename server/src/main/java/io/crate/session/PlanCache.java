@@ -0,0 +1,205 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.jetbrains.annotations.Nullable;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.crate.analyze.AnalyzedInsertStatement;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.Relations;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.planner.Plan;
+import io.crate.planner.Planner;
+import io.crate.planner.PlannerContext;
+import io.crate.types.DataType;
+
+/**
+ * Node wide cache for the analyzed statements and plans of statements which are
+ * parsed and executed repeatedly, e.g. via the extended query protocol of PostgreSQL.
+ *
+ * <p>
+ * Entries are keyed by the text of a single statement, the parameter types, the authenticated and the session user
+ * and the session settings, which include the settings affecting the analysis and planning like the search path.
+ * The privileges of the users are checked again whenever an entry is used.
+ * An entry becomes invalid if the cluster metadata, the minimum node version
+ * or the table statistics change after it was created.
+ * </p>
+ *
+ * <p>
+ * Only SELECT and INSERT statements are cached, and only if they don't contain sub-queries or
+ * non-deterministic functions like {@code now()} or {@code random()}.
+ * The cached plans don't depend on the parameter values and are bound to them on execution.
+ * </p>
+ */
+public final class PlanCache {
+
+    public static final Setting<Integer> PLAN_CACHE_SIZE = Setting.intSetting(
+        "node.sql.plan_cache.size",
+        1000,
+        0,
+        Property.NodeScope
+    );
+
+    public record Key(String statement,
+                      List<DataType<?>> parameterTypes,
+                      String authenticatedUser,
+                      String sessionUser,
+                      Map<String, Object> sessionSettings) {
+    }
+
+    public record Entry(AnalyzedStatement analyzedStatement,
+                        DataType<?>[] parameterTypes,
+                        Plan plan,
+                        long metadataVersion,
+                        Version minNodeVersion,
+                        long tableStatsVersion) {
+    }
+
+    @Nullable
+    private final Cache<Key, Entry> cache;
+    private final LongSupplier tableStatsVersion;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize maximum number of cached plans. A size of 0 disables the cache.
+     * @param tableStatsVersion see {@link Planner#tableStatsVersion()}
+     */
+    public PlanCache(int maxSize, LongSupplier tableStatsVersion) {
+        this.cache = maxSize == 0
+            ? null
+            : Caffeine.newBuilder()
+                .executor(Runnable::run)
+                .maximumSize(maxSize)
+                .build();
+        this.tableStatsVersion = tableStatsVersion;
+    }
+
+    /**
+     * @param statement text of a single statement. Must not be used for a query string containing several statements.
+     * @return the key for a statement or null if the cache is disabled
+     */
+    @Nullable
+    public Key key(String statement, List<DataType<?>> parameterTypes, CoordinatorSessionSettings sessionSettings) {
+        if (cache == null) {
+            return null;
+        }
+        return new Key(
+            statement,
+            new ArrayList<>(parameterTypes),
+            sessionSettings.authenticatedUser().name(),
+            sessionSettings.sessionUser().name(),
+            sessionSettings.toMap()
+        );
+    }
+
+    /**
+     * @return the entry for the key if there is one and it is still valid for the given cluster state.
+     */
+    @Nullable
+    public Entry get(Key key, ClusterState clusterState) {
+        assert cache != null : "Must only be called with a key, the cache must be enabled";
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.metadataVersion != clusterState.metadata().version()
+            || !entry.minNodeVersion.equals(clusterState.nodes().getMinNodeVersion())
+            || entry.tableStatsVersion != tableStatsVersion.getAsLong()) {
+            cache.asMap().remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the cached plan for the analyzed statement or creates and caches a new one.
+     *
+     * @param analyzedStatement must be the statement of the cached entry to re-use its plan.
+     *                          Plans are only re-used together with the analyzed statement they were created from.
+     */
+    public Plan plan(Key key,
+                     AnalyzedStatement analyzedStatement,
+                     DataType<?>[] parameterTypes,
+                     Planner planner,
+                     PlannerContext plannerContext) {
+        ClusterState clusterState = plannerContext.clusterState();
+        Entry entry = get(key, clusterState);
+        if (entry != null && entry.analyzedStatement == analyzedStatement) {
+            hits.increment();
+            return entry.plan;
+        }
+        misses.increment();
+        long statsVersion = tableStatsVersion.getAsLong();
+        Plan plan = planner.plan(analyzedStatement, plannerContext);
+        assert cache != null : "Must only be called with a key, the cache must be enabled";
+        cache.put(key, new Entry(
+            analyzedStatement,
+            parameterTypes,
+            plan,
+            clusterState.metadata().version(),
+            clusterState.nodes().getMinNodeVersion(),
+            statsVersion
+        ));
+        return plan;
+    }
+
+    public static boolean isCacheable(AnalyzedStatement analyzedStatement) {
+        if (!(analyzedStatement instanceof AnalyzedRelation || analyzedStatement instanceof AnalyzedInsertStatement)) {
+            return false;
+        }
+        boolean[] cacheable = new boolean[] { true };
+        Relations.traverseDeepSymbols(analyzedStatement, symbol -> {
+            if (cacheable[0] && symbol.any(PlanCache::preventsCaching)) {
+                cacheable[0] = false;
+            }
+        });
+        return cacheable[0];
+    }
+
+    private static boolean preventsCaching(Symbol symbol) {
+        return symbol instanceof SelectSymbol
+            || (symbol instanceof Function function && !function.signature().isDeterministic());
+    }
+
+    public PlanCacheStats stats() {
+        return new PlanCacheStats(hits.sum(), misses.sum());
+    }
+}
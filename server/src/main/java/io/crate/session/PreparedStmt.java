@@ -21,6 +21,8 @@
 
 package io.crate.session;
 
+import org.jetbrains.annotations.Nullable;
+
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.ParamTypeHints;
 import io.crate.sql.tree.Statement;
@@ -32,15 +34,26 @@ public class PreparedStmt {
     private final Statement parsedStatement;
     private final String rawStatement;
     private final DataType<?>[] describedParameterTypes;
+    @Nullable
+    private final PlanCache.Key planCacheKey;
 
     PreparedStmt(Statement parsedStatement,
                  AnalyzedStatement analyzedStatement,
                  String query,
                  DataType<?>[] parameterTypes) {
+        this(parsedStatement, analyzedStatement, query, parameterTypes, null);
+    }
+
+    PreparedStmt(Statement parsedStatement,
+                 AnalyzedStatement analyzedStatement,
+                 String query,
+                 DataType<?>[] parameterTypes,
+                 @Nullable PlanCache.Key planCacheKey) {
         this.parsedStatement = parsedStatement;
         this.analyzedStatement = analyzedStatement;
         this.rawStatement = query;
         this.describedParameterTypes = parameterTypes;
+        this.planCacheKey = planCacheKey;
     }
 
     public AnalyzedStatement analyzedStatement() {
@@ -56,6 +69,15 @@ public class PreparedStmt {
         return describedParameterTypes;
     }
 
+    /**
+     * Key to look up the plan of the statement in the {@link PlanCache}.
+     * Null if the cache is disabled or the statement is not cacheable.
+     */
+    @Nullable
+    PlanCache.Key planCacheKey() {
+        return planCacheKey;
+    }
+
     /**
      * Gets the list of effective parameter types which might be a combination
      * of the {@link ParamTypeHints} and the types determined during ParameterDescription.
@@ -21,6 +21,10 @@
 
 package io.crate.session;
 
+import java.util.concurrent.CompletableFuture;
+
+import org.jetbrains.annotations.Nullable;
+
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.Row;
 
@@ -39,4 +43,15 @@ public interface ResultReceiver<T> extends CompletionListenable<T> {
     void allFinished();
 
     void fail(Throwable t);
+
+    /**
+     * Called after each row to pause the consumption of rows while the receiver can't take more,
+     * e.g. because the client reads the result slower than it is produced.
+     *
+     * @return null to continue, or a future that completes once the receiver is ready for more rows.
+     */
+    @Nullable
+    default CompletableFuture<?> whenReady() {
+        return null;
+    }
 }
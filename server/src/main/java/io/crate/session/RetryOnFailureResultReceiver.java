@@ -33,6 +33,7 @@ import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.transport.ConnectTransportException;
+import org.jetbrains.annotations.Nullable;
 
 import io.crate.data.Row;
 import io.crate.exceptions.SQLExceptions;
@@ -103,6 +104,12 @@ public class RetryOnFailureResultReceiver<T> implements ResultReceiver<T> {
         return t instanceof IndexNotFoundException inf && hasIndex.test(inf.getIndex().getName());
     }
 
+    @Override
+    @Nullable
+    public CompletableFuture<?> whenReady() {
+        return delegate.whenReady();
+    }
+
     @Override
     public CompletableFuture<T> completionFuture() {
         return delegate.completionFuture();
@@ -81,6 +81,11 @@ public class RowConsumerToResultReceiver implements RowConsumer {
                         resultReceiver.batchFinished();
                         return; // resumed via postgres protocol, close is done later
                     }
+                    CompletableFuture<?> ready = resultReceiver.whenReady();
+                    if (ready != null) {
+                        ready.whenComplete((r, f) -> resumeOrFail(iterator, f));
+                        return;
+                    }
                 }
                 if (iterator.allLoaded()) {
                     completionFuture.complete(null);
@@ -96,16 +101,7 @@ public class RowConsumerToResultReceiver implements RowConsumer {
                         }
                         continue;
                     }
-                    nextBatch.whenComplete((r, f) -> {
-                        if (f == null) {
-                            consumeIt(iterator);
-                        } else {
-                            Throwable t = SQLExceptions.unwrap(f);
-                            iterator.close();
-                            completionFuture.completeExceptionally(t);
-                            resultReceiver.fail(t);
-                        }
-                    });
+                    nextBatch.whenComplete((r, f) -> resumeOrFail(iterator, f));
                     return;
                 }
             } catch (Throwable t) {
@@ -117,6 +113,17 @@ public class RowConsumerToResultReceiver implements RowConsumer {
         }
     }
 
+    private void resumeOrFail(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+        if (failure == null) {
+            consumeIt(iterator);
+        } else {
+            Throwable t = SQLExceptions.unwrap(failure);
+            iterator.close();
+            completionFuture.completeExceptionally(t);
+            resultReceiver.fail(t);
+        }
+    }
+
     /**
      * If this consumer suspended itself (due to {@code maxRows} being > 0, it will close the BatchIterator
      * and finish the ResultReceiver
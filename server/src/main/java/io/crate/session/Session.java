@@ -21,6 +21,7 @@
 
 package io.crate.session;
 
+import java.io.InputStream;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -45,6 +46,7 @@ import org.jetbrains.annotations.VisibleForTesting;
 import io.crate.analyze.AnalyzedBegin;
 import io.crate.analyze.AnalyzedClose;
 import io.crate.analyze.AnalyzedCommit;
+import io.crate.analyze.AnalyzedCopyFrom;
 import io.crate.analyze.AnalyzedDeallocate;
 import io.crate.analyze.AnalyzedDeclare;
 import io.crate.analyze.AnalyzedDiscard;
@@ -65,6 +67,7 @@ import io.crate.data.RowN;
 import io.crate.exceptions.ReadOnlyException;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.dml.BulkResponse;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.execution.jobs.kill.KillJobsNodeAction;
 import io.crate.execution.jobs.kill.KillJobsNodeRequest;
@@ -156,6 +159,7 @@ public class Session implements AutoCloseable {
     private final int secret;
     private final Analyzer analyzer;
     private final Planner planner;
+    private final PlanCache planCache;
     private final JobsLogs jobsLogs;
     private final boolean isReadOnly;
     private final Runnable onClose;
@@ -171,6 +175,7 @@ public class Session implements AutoCloseable {
                    @Nullable ConnectionProperties connectionProperties,
                    Analyzer analyzer,
                    Planner planner,
+                   PlanCache planCache,
                    JobsLogs jobsLogs,
                    boolean isReadOnly,
                    DependencyCarrier executor,
@@ -183,6 +188,7 @@ public class Session implements AutoCloseable {
         this.secret = ThreadLocalRandom.current().nextInt();
         this.analyzer = analyzer;
         this.planner = planner;
+        this.planCache = planCache;
         this.jobsLogs = jobsLogs;
         this.isReadOnly = isReadOnly;
         this.executor = executor;
@@ -331,13 +337,46 @@ public class Session implements AutoCloseable {
                 throw t;
             }
         }
-        analyze(statementName, statement, paramTypes, query);
+        // The query of a parse message contains a single statement, so it can be used as key for the plan cache
+        analyze(statementName, statement, paramTypes, query, planCache.key(query, paramTypes, sessionSettings));
     }
 
+    /**
+     * Analyzes a statement without using the {@link PlanCache}.
+     * The {@code query} may contain several statements, e.g. if received via the simple query protocol,
+     * and therefore can't be used to identify the statement.
+     */
     public void analyze(String statementName,
                         Statement statement,
                         List<DataType<?>> paramTypes,
                         @Nullable String query) {
+        analyze(statementName, statement, paramTypes, query, null);
+    }
+
+    private void analyze(String statementName,
+                         Statement statement,
+                         List<DataType<?>> paramTypes,
+                         @Nullable String query,
+                         @Nullable PlanCache.Key planCacheKey) {
+        if (planCacheKey != null) {
+            PlanCache.Entry cached = planCache.get(planCacheKey, planner.currentClusterState());
+            if (cached != null) {
+                try {
+                    analyzer.ensureMayExecute(cached.analyzedStatement(), sessionSettings);
+                } catch (Throwable t) {
+                    jobsLogs.logPreExecutionFailure(
+                        UUIDs.dirtyUUID(),
+                        query,
+                        SQLExceptions.messageOf(t),
+                        sessionSettings.sessionUser());
+                    throw t;
+                }
+                preparedStatements.put(
+                    statementName,
+                    new PreparedStmt(statement, cached.analyzedStatement(), query, cached.parameterTypes(), planCacheKey));
+                return;
+            }
+        }
         AnalyzedStatement analyzedStatement;
         DataType<?>[] parameterTypes;
         try {
@@ -357,9 +396,12 @@ public class Session implements AutoCloseable {
                 sessionSettings.sessionUser());
             throw t;
         }
+        if (planCacheKey != null && !PlanCache.isCacheable(analyzedStatement)) {
+            planCacheKey = null;
+        }
         preparedStatements.put(
             statementName,
-            new PreparedStmt(statement, analyzedStatement, query, parameterTypes));
+            new PreparedStmt(statement, analyzedStatement, query, parameterTypes, planCacheKey));
     }
 
     public void bind(String portalName,
@@ -510,7 +552,7 @@ public class Session implements AutoCloseable {
             }
             resultReceiver.allFinished();
         } else if (analyzedStmt instanceof AnalyzedDiscard discard) {
-            // We don't cache plans, don't have sequences or temporary tables
+            // Plans are cached per node, not per session. We don't have sequences or temporary tables
             // See https://www.postgresql.org/docs/current/sql-discard.html
             if (discard.target() == Target.ALL) {
                 close();
@@ -677,7 +719,7 @@ public class Session implements AutoCloseable {
 
         Plan plan;
         try {
-            plan = planner.plan(analyzedStatement, plannerContext);
+            plan = plan(firstPreparedStatement, plannerContext);
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(
                 jobId,
@@ -761,9 +803,15 @@ public class Session implements AutoCloseable {
             jobsLogs.logPreExecutionFailure(jobId, rawStatement, errorMsg, sessionSettings.sessionUser());
             throw new IllegalStateException(errorMsg);
         }
+        InputStream copyInput = portal.copyInput();
+        if (copyInput == null && analyzedStmt instanceof AnalyzedCopyFrom copyFrom && copyFrom.readsFromStdin()) {
+            String errorMsg = "COPY FROM STDIN is only supported with the simple query protocol of the PostgreSQL wire protocol";
+            jobsLogs.logPreExecutionFailure(jobId, rawStatement, errorMsg, sessionSettings.sessionUser());
+            throw new UnsupportedOperationException(errorMsg);
+        }
         Plan plan;
         try {
-            plan = planner.plan(analyzedStmt, plannerContext);
+            plan = plan(portal.preparedStmt(), plannerContext);
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(jobId, rawStatement, SQLExceptions.messageOf(t), sessionSettings.sessionUser());
             throw t;
@@ -793,12 +841,43 @@ public class Session implements AutoCloseable {
         RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(
             resultReceiver, maxRows, new JobsLogsUpdateListener(jobId, jobsLogs));
         portal.setActiveConsumer(consumer);
-        plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
         CompletableFuture<?> result = resultReceiver.completionFuture();
+        if (copyInput != null) {
+            StdinFileInputFactory stdinFileInputFactory = executor.stdinFileInputFactory();
+            stdinFileInputFactory.register(jobId, copyInput);
+            result.whenComplete((ignored, err) -> stdinFileInputFactory.unregister(jobId));
+        }
+        plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
         addStatementTimeout(result);
         return result;
     }
 
+    private Plan plan(PreparedStmt preparedStmt, PlannerContext plannerContext) {
+        PlanCache.Key planCacheKey = preparedStmt.planCacheKey();
+        if (planCacheKey == null) {
+            return planner.plan(preparedStmt.analyzedStatement(), plannerContext);
+        }
+        return planCache.plan(
+            planCacheKey,
+            preparedStmt.analyzedStatement(),
+            preparedStmt.parameterTypes(),
+            planner,
+            plannerContext
+        );
+    }
+
+    public AnalyzedStatement getAnalyzedStatement(String portalName) {
+        return getSafePortal(portalName).analyzedStatement();
+    }
+
+    /**
+     * Attach the data stream of a {@code COPY ... FROM STDIN} statement to a portal.
+     * Must be called before the portal is executed.
+     */
+    public void setCopyInput(String portalName, InputStream copyInput) {
+        getSafePortal(portalName).setCopyInput(copyInput);
+    }
+
     @Nullable
     public List<? extends DataType<?>> getOutputTypes(String portalName) {
         Portal portal = getSafePortal(portalName);
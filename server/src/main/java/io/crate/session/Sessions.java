@@ -97,6 +97,7 @@ public class Sessions {
     private final NodeContext nodeCtx;
     private final Analyzer analyzer;
     private final Planner planner;
+    private final PlanCache planCache;
     private final Provider<DependencyCarrier> executorProvider;
     private final JobsLogs jobsLogs;
     private final ClusterService clusterService;
@@ -122,6 +123,7 @@ public class Sessions {
         this.nodeCtx = nodeCtx;
         this.analyzer = analyzer;
         this.planner = planner;
+        this.planCache = new PlanCache(PlanCache.PLAN_CACHE_SIZE.get(settings), planner::tableStatsVersion);
         this.executorProvider = executorProvider;
         this.jobsLogs = jobsLogs;
         this.clusterService = clusterService;
@@ -150,6 +152,7 @@ public class Sessions {
             connectionProperties,
             analyzer,
             planner,
+            planCache,
             jobsLogs,
             isReadOnly,
             executorProvider.get(),
@@ -241,6 +244,10 @@ public class Sessions {
         }
     }
 
+    public PlanCache planCache() {
+        return planCache;
+    }
+
     public Iterable<Session> getActive() {
         return sessions.values();
     }
@@ -38,6 +38,7 @@ import ch.randelshofer.fastdoubleparser.JavaDoubleParser;
 import io.crate.Streamer;
 import io.crate.execution.dml.DoubleIndexer;
 import io.crate.execution.dml.ValueIndexer;
+import io.crate.lucene.DocValuesRangeQuery;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
@@ -60,7 +61,7 @@ public class DoubleType extends DataType<Double> implements FixedWidthType, Stre
                     return DoublePoint.newExactQuery(field, value);
                 }
                 if (hasDocValues) {
-                    return SortedNumericDocValuesField.newSlowExactQuery(field, NumericUtils.doubleToSortableLong(value));
+                    return DocValuesRangeQuery.newExactQuery(field, NumericUtils.doubleToSortableLong(value));
                 }
                 return null;
             }
@@ -90,7 +91,7 @@ public class DoubleType extends DataType<Double> implements FixedWidthType, Stre
                     return DoublePoint.newRangeQuery(field, lower, upper);
                 }
                 if (hasDocValues) {
-                    return SortedNumericDocValuesField.newSlowRangeQuery(
+                    return DocValuesRangeQuery.newRangeQuery(
                         field,
                         NumericUtils.doubleToSortableLong(lower),
                         NumericUtils.doubleToSortableLong(upper));
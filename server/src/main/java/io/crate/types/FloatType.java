@@ -38,6 +38,7 @@ import ch.randelshofer.fastdoubleparser.JavaFloatParser;
 import io.crate.Streamer;
 import io.crate.execution.dml.FloatIndexer;
 import io.crate.execution.dml.ValueIndexer;
+import io.crate.lucene.DocValuesRangeQuery;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
@@ -60,7 +61,7 @@ public class FloatType extends DataType<Float> implements Streamer<Float>, Fixed
                     return FloatPoint.newExactQuery(field, value);
                 }
                 if (hasDocValues) {
-                    return SortedNumericDocValuesField.newSlowExactQuery(field, NumericUtils.floatToSortableInt(value));
+                    return DocValuesRangeQuery.newExactQuery(field, NumericUtils.floatToSortableInt(value));
                 }
                 return null;
             }
@@ -90,7 +91,7 @@ public class FloatType extends DataType<Float> implements Streamer<Float>, Fixed
                     return FloatPoint.newRangeQuery(field, lower, upper);
                 }
                 if (hasDocValues) {
-                    return SortedNumericDocValuesField.newSlowRangeQuery(
+                    return DocValuesRangeQuery.newRangeQuery(
                         field,
                         NumericUtils.floatToSortableInt(lower),
                         NumericUtils.floatToSortableInt(upper));
@@ -27,6 +27,8 @@ import org.apache.lucene.document.IntPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.search.Query;
 
+import io.crate.lucene.DocValuesRangeQuery;
+
 public class IntEqQuery implements EqQuery<Number> {
 
     @Override
@@ -35,7 +37,7 @@ public class IntEqQuery implements EqQuery<Number> {
             return IntPoint.newExactQuery(field, value.intValue());
         }
         if (hasDocValues) {
-            return SortedNumericDocValuesField.newSlowExactQuery(field, value.intValue());
+            return DocValuesRangeQuery.newExactQuery(field, value.intValue());
         }
         return null;
     }
@@ -60,7 +62,7 @@ public class IntEqQuery implements EqQuery<Number> {
             return IntPoint.newRangeQuery(field, lower, upper);
         }
         if (hasDocValues) {
-            return SortedNumericDocValuesField.newSlowRangeQuery(field, lower, upper);
+            return DocValuesRangeQuery.newRangeQuery(field, lower, upper);
         }
         return null;
     }
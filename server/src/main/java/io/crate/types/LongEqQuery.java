@@ -27,6 +27,8 @@ import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.search.Query;
 
+import io.crate.lucene.DocValuesRangeQuery;
+
 public class LongEqQuery implements EqQuery<Long> {
 
     @Override
@@ -35,7 +37,7 @@ public class LongEqQuery implements EqQuery<Long> {
             return LongPoint.newExactQuery(field, value);
         }
         if (hasDocValues) {
-            return SortedNumericDocValuesField.newSlowExactQuery(field, value);
+            return DocValuesRangeQuery.newExactQuery(field, value);
         }
         return null;
     }
@@ -58,7 +60,7 @@ public class LongEqQuery implements EqQuery<Long> {
             return LongPoint.newRangeQuery(field, lower, upper);
         }
         if (hasDocValues) {
-            return SortedNumericDocValuesField.newSlowRangeQuery(field, lower, upper);
+            return DocValuesRangeQuery.newRangeQuery(field, lower, upper);
         }
         return null;
     }
@@ -106,6 +106,7 @@ import io.crate.blob.v2.BlobIndicesService;
 import io.crate.cluster.gracefulstop.DecommissioningService;
 import io.crate.execution.engine.collect.stats.JobsLogService;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
+import io.crate.execution.engine.spill.SpillManager;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.fdw.ForeignDataWrappers;
 import io.crate.legacy.LegacySettings;
@@ -115,6 +116,7 @@ import io.crate.metadata.settings.AnalyzerSettings;
 import io.crate.protocols.postgres.PostgresNetty;
 import io.crate.protocols.ssl.SslSettings;
 import io.crate.replication.logical.LogicalReplicationSettings;
+import io.crate.session.PlanCache;
 import io.crate.session.Sessions;
 import io.crate.statistics.TableStatsService;
 import io.crate.udc.service.UDCService;
@@ -445,11 +447,14 @@ public final class ClusterSettings extends AbstractScopedSettings {
         UDCService.UDC_INITIAL_DELAY_SETTING,
         UDCService.UDC_INTERVAL_SETTING,
         MemoryManagerFactory.MEMORY_ALLOCATION_TYPE,
+        SpillManager.SPILL_ENABLED,
+        SpillManager.SPILL_THRESHOLD,
         AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP,
         Sessions.NODE_READ_ONLY_SETTING,
         Sessions.STATEMENT_TIMEOUT,
         Sessions.MEMORY_LIMIT,
         Sessions.TEMP_ERROR_RETRY_COUNT,
+        PlanCache.PLAN_CACHE_SIZE,
         PostgresNetty.PSQL_ENABLED_SETTING,
         PostgresNetty.PSQL_PORT_SETTING,
         AuthSettings.AUTH_HOST_BASED_ENABLED_SETTING,
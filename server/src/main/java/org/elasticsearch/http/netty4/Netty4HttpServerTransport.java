@@ -610,7 +610,8 @@ public class Netty4HttpServerTransport extends AbstractLifecycleComponent implem
                 sessions,
                 breakerService::getBreaker,
                 roles,
-                transport.getCorsConfig()
+                transport.getCorsConfig(),
+                transport.threadPool.generic()
             ));
             pipeline.addLast("handler", new MainAndStaticFileHandler(
                 nodeName,
@@ -46,6 +46,7 @@ import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
 import org.apache.lucene.search.QueryCache;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.elasticsearch.Assertions;
@@ -86,6 +87,7 @@ import org.jetbrains.annotations.Nullable;
 import io.crate.common.io.IOUtils;
 import io.crate.common.unit.TimeValue;
 import io.crate.execution.dml.TranslogIndexer;
+import io.crate.execution.engine.sort.LuceneSort;
 import io.crate.metadata.IndexName;
 import io.crate.metadata.IndexReference;
 import io.crate.metadata.NodeContext;
@@ -105,6 +107,8 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
     private Supplier<TranslogIndexer> getTranslogIndexer = () -> {
         throw new IllegalStateException("Translog called before schema validation");
     };
+    @Nullable
+    private volatile Sort indexSort;
     private final Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders;
     private volatile Map<Integer, IndexShard> shards = emptyMap();
     private final AtomicBoolean closed = new AtomicBoolean(false);
@@ -390,6 +394,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                 queryCache,
                 indexAnalyzer,
                 this::getTranslogIndexer,
+                () -> indexSort,
                 engineFactoryProviders,
                 eventListener,
                 threadPool,
@@ -500,6 +505,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         }
         var tableInfo = tableFactory.create(RelationName.fromIndexName(indexName), metadata);
         this.getTranslogIndexer = () -> new TranslogIndexer(tableInfo);
+        this.indexSort = LuceneSort.indexSort(tableInfo);
     }
 
     private TranslogIndexer getTranslogIndexer() {
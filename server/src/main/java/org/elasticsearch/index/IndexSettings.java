@@ -39,6 +39,7 @@ import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.node.Node;
 
 import io.crate.common.unit.TimeValue;
+import io.crate.metadata.doc.SortedBy;
 import io.crate.types.DataTypes;
 
 /**
@@ -150,6 +151,21 @@ public final class IndexSettings {
         Property.Deprecated
     );
 
+    /**
+     * Column and direction used to sort the documents within each segment. See {@link SortedBy}.
+     * Empty if segments are not sorted.
+     */
+    public static final Setting<String> INDEX_SORTED_BY_SETTING = Setting.simpleString(
+        "index.sorted_by",
+        value -> {
+            if (!value.isEmpty()) {
+                SortedBy.parse(value);
+            }
+        },
+        Property.IndexScope,
+        Property.Final
+    );
+
     /**
      * Controls how many soft-deleted documents will be kept around before being merged away. Keeping more deleted
      * documents increases the chance of operation-based recoveries and allows querying a longer history of documents.
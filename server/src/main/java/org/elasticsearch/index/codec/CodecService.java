@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.lucene912.Lucene912Codec;
+import org.elasticsearch.Version;
 
 /**
  * Since Lucene 4.0 low level index segments are read and written through a
@@ -43,11 +44,21 @@ public class CodecService {
     public static final String LUCENE_DEFAULT_CODEC = "lucene_default";
 
     public CodecService() {
+        this(Version.CURRENT);
+    }
+
+    /**
+     * @param indexVersionCreated the version the index was created with. Older versions can't read
+     *                            the bloom filter of the {@code _id} field, it is only written for
+     *                            indices created on or after {@link Version#V_5_10_0}.
+     */
+    public CodecService(Version indexVersionCreated) {
+        final boolean idBloomFilter = indexVersionCreated.onOrAfter(Version.V_5_10_0);
         final var codecs = new HashMap<String, Codec>();
         codecs.put(DEFAULT_CODEC,
-            new CrateCodec(Lucene912Codec.Mode.BEST_SPEED));
+            new CrateCodec(Lucene912Codec.Mode.BEST_SPEED, idBloomFilter));
         codecs.put(BEST_COMPRESSION_CODEC,
-            new CrateCodec(Lucene912Codec.Mode.BEST_COMPRESSION));
+            new CrateCodec(Lucene912Codec.Mode.BEST_COMPRESSION, idBloomFilter));
         codecs.put(LUCENE_DEFAULT_CODEC, Codec.getDefault());
         for (String codec : Codec.availableCodecs()) {
             codecs.put(codec, Codec.forName(codec));
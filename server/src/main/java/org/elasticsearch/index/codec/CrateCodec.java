@@ -26,19 +26,23 @@ import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.KnnVectorsFormat;
 import org.apache.lucene.codecs.KnnVectorsReader;
 import org.apache.lucene.codecs.KnnVectorsWriter;
+import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.lucene912.Lucene912Codec;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.SegmentWriteState;
 import org.elasticsearch.common.lucene.Lucene;
 
+import io.crate.lucene.codec.BloomFilterPostingsFormat;
 import io.crate.lucene.codec.CustomLucene90DocValuesFormat;
+import io.crate.metadata.doc.SysColumns;
 import io.crate.types.FloatVectorType;
 
 
 /**
  * {@link CrateCodec This codec} is the default {@link Codec} for Crate.
  * It disables compression on docvalues terms dictionaries, and increases
- * the max supported vector dimension to {@link FloatVectorType#MAX_DIMENSIONS}
+ * the max supported vector dimension to {@link FloatVectorType#MAX_DIMENSIONS}.
+ * Optionally the {@code _id} terms are written with a {@link BloomFilterPostingsFormat bloom filter}.
  */
 // LUCENE UPGRADE: make sure to move to a new codec depending on the lucene version
 public class CrateCodec extends Lucene912Codec {
@@ -47,8 +51,26 @@ public class CrateCodec extends Lucene912Codec {
         assert Codec.forName(Lucene.LATEST_CODEC).getClass().isAssignableFrom(CrateCodec.class) : "CrateCodec must subclass the latest lucene codec: " + Lucene.LATEST_CODEC;
     }
 
+    private final PostingsFormat idPostingsFormat;
+
     public CrateCodec(Mode compressionMode) {
+        this(compressionMode, true);
+    }
+
+    public CrateCodec(Mode compressionMode, boolean idBloomFilter) {
         super(compressionMode);
+        PostingsFormat defaultIdPostingsFormat = super.getPostingsFormatForField(SysColumns.Names.ID);
+        this.idPostingsFormat = idBloomFilter
+            ? new BloomFilterPostingsFormat(defaultIdPostingsFormat)
+            : defaultIdPostingsFormat;
+    }
+
+    @Override
+    public PostingsFormat getPostingsFormatForField(String field) {
+        if (field.equals(SysColumns.Names.ID)) {
+            return idPostingsFormat;
+        }
+        return super.getPostingsFormatForField(field);
     }
 
     @Override
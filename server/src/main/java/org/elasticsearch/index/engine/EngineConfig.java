@@ -25,6 +25,7 @@ import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
 import org.jetbrains.annotations.Nullable;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -90,6 +91,8 @@ public final class EngineConfig {
 
     private final LongSupplier primaryTermSupplier;
     private final TombstoneDocSupplier tombstoneDocSupplier;
+    @Nullable
+    private final Sort indexSort;
 
     /**
      * Index setting to change the low level lucene codec used for writing new segments.
@@ -136,6 +139,55 @@ public final class EngineConfig {
                         Supplier<RetentionLeases> retentionLeasesSupplier,
                         LongSupplier primaryTermSupplier,
                         TombstoneDocSupplier tombstoneDocSupplier) {
+        this(
+            shardId,
+            threadPool,
+            indexSettings,
+            store,
+            mergePolicy,
+            analyzer,
+            codecService,
+            eventListener,
+            queryCache,
+            queryCachingPolicy,
+            translogConfig,
+            flushMergesAfter,
+            externalRefreshListener,
+            internalRefreshListener,
+            circuitBreakerService,
+            globalCheckpointSupplier,
+            retentionLeasesSupplier,
+            primaryTermSupplier,
+            tombstoneDocSupplier,
+            null
+        );
+    }
+
+    /**
+     * Creates a new {@link org.elasticsearch.index.engine.EngineConfig}
+     *
+     * @param indexSort sort order applied to the documents of each segment, or {@code null} if segments are unsorted.
+     */
+    public EngineConfig(ShardId shardId,
+                        ThreadPool threadPool,
+                        IndexSettings indexSettings,
+                        Store store,
+                        MergePolicy mergePolicy,
+                        Analyzer analyzer,
+                        CodecService codecService,
+                        Engine.EventListener eventListener,
+                        QueryCache queryCache,
+                        QueryCachingPolicy queryCachingPolicy,
+                        TranslogConfig translogConfig,
+                        TimeValue flushMergesAfter,
+                        List<ReferenceManager.RefreshListener> externalRefreshListener,
+                        List<ReferenceManager.RefreshListener> internalRefreshListener,
+                        CircuitBreakerService circuitBreakerService,
+                        LongSupplier globalCheckpointSupplier,
+                        Supplier<RetentionLeases> retentionLeasesSupplier,
+                        LongSupplier primaryTermSupplier,
+                        TombstoneDocSupplier tombstoneDocSupplier,
+                        @Nullable Sort indexSort) {
         this.shardId = shardId;
         this.indexSettings = indexSettings;
         this.threadPool = threadPool;
@@ -170,6 +222,7 @@ public final class EngineConfig {
         this.retentionLeasesSupplier = Objects.requireNonNull(retentionLeasesSupplier);
         this.primaryTermSupplier = primaryTermSupplier;
         this.tombstoneDocSupplier = tombstoneDocSupplier;
+        this.indexSort = indexSort;
     }
 
     /**
@@ -329,6 +382,14 @@ public final class EngineConfig {
         return this.circuitBreakerService;
     }
 
+    /**
+     * Returns the sort order of the documents within each segment, or {@code null} if segments are unsorted.
+     */
+    @Nullable
+    public Sort getIndexSort() {
+        return indexSort;
+    }
+
     /**
      * Returns a supplier that supplies the latest primary term value of the associated shard.
      */
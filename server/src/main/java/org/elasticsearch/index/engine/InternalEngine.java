@@ -22,6 +22,7 @@ package org.elasticsearch.index.engine;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -71,6 +72,7 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -80,6 +82,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.InfoStream;
 import org.elasticsearch.Assertions;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.LoggerInfoStream;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -112,6 +115,7 @@ import org.jetbrains.annotations.Nullable;
 
 import io.crate.common.Booleans;
 import io.crate.common.SuppressForbidden;
+import io.crate.common.collections.Lists;
 import io.crate.common.exceptions.Exceptions;
 import io.crate.common.io.IOUtils;
 import io.crate.common.unit.TimeValue;
@@ -978,6 +982,155 @@ public class InternalEngine extends Engine {
         }
     }
 
+    /**
+     * Indexes a batch of operations on the primary.
+     * <p>
+     * Documents with an auto generated id which cannot have been indexed before (see {@link #mayHaveBeenIndexedBefore(Index)})
+     * don't require a version lookup. They are added to Lucene with a single {@link IndexWriter#addDocuments(Iterable)} call
+     * and written to the translog as one block. All other operations are indexed one by one via {@link #index(Index)}.
+     * </p>
+     */
+    @Override
+    public List<IndexResult> index(List<Index> operations) throws IOException {
+        if (operations.size() < 2 || operations.stream().allMatch(this::canAppendInBatch) == false) {
+            return super.index(operations);
+        }
+        final IndexResult[] results = new IndexResult[operations.size()];
+        try (ReleasableLock releasableLock = readLock.acquire()) {
+            ensureOpen();
+            // Acquire the uid locks in a consistent order to prevent dead locks with concurrent batches which contain
+            // retries of the same documents.
+            final List<BytesRef> sortedUids = operations.stream()
+                .map(index -> index.uid().bytes())
+                .sorted()
+                .toList();
+            final ArrayList<Releasable> uidLocks = new ArrayList<>(sortedUids.size());
+            int reservedDocs = 0;
+            try (Releasable indexThrottle = throttle.acquireThrottle()) {
+                for (BytesRef uid : sortedUids) {
+                    uidLocks.add(versionMap.acquireLock(uid));
+                }
+                final ArrayList<Integer> toAppend = new ArrayList<>(operations.size());
+                for (int i = 0; i < operations.size(); i++) {
+                    Index index = operations.get(i);
+                    assert assertIncomingSequenceNumber(index.origin(), index.seqNo());
+                    if (mayHaveBeenIndexedBefore(index) == false) {
+                        toAppend.add(i);
+                    }
+                }
+                if (toAppend.isEmpty() == false) {
+                    final Exception reserveError = tryAcquireInFlightDocs(operations.get(toAppend.get(0)), toAppend.size());
+                    if (reserveError == null) {
+                        reservedDocs = toAppend.size();
+                        appendInBatch(operations, toAppend, results);
+                    } else {
+                        for (int position : toAppend) {
+                            results[position] = new IndexResult(reserveError, Versions.NOT_FOUND);
+                        }
+                    }
+                }
+            } finally {
+                releaseInFlightDocs(reservedDocs);
+                Releasables.close(uidLocks);
+            }
+        } catch (RuntimeException | IOException e) {
+            try {
+                maybeFailEngine("index batch of [" + operations.size() + "] operations", e);
+            } catch (Exception inner) {
+                e.addSuppressed(inner);
+            }
+            throw e;
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                // may have been indexed before, requires a version lookup
+                results[i] = index(operations.get(i));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private boolean canAppendInBatch(Index index) {
+        return index.origin() == Operation.Origin.PRIMARY && canOptimizeAddDocument(index);
+    }
+
+    private void appendInBatch(List<Index> operations, List<Integer> positions, IndexResult[] results) throws IOException {
+        assert readLock.isHeldByCurrentThread();
+        final ArrayList<Index> toAppend = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            Index index = operations.get(position);
+            lastWriteNanos = index.startTime();
+            index = new Index(index.uid(), index.parsedDoc(), generateSeqNoForOperationOnPrimary(index), index.primaryTerm(),
+                index.version(), index.versionType(), index.origin(), index.startTime(), index.getAutoGeneratedIdTimestamp(),
+                index.isRetry(), index.getIfSeqNo(), index.getIfPrimaryTerm());
+            index.parsedDoc().updateSeqID(index.seqNo(), index.primaryTerm());
+            index.parsedDoc().version().setLongValue(1L);
+            assert assertDocDoesNotExist(index, false);
+            toAppend.add(index);
+        }
+        final IndexResult[] appendResults = new IndexResult[toAppend.size()];
+        try {
+            indexWriter.addDocuments(Lists.map(toAppend, Index::document));
+            numDocAppends.inc(toAppend.size());
+            for (int i = 0; i < toAppend.size(); i++) {
+                Index index = toAppend.get(i);
+                appendResults[i] = new IndexResult(1L, index.primaryTerm(), index.seqNo(), true);
+            }
+        } catch (Exception ex) {
+            if (ex instanceof AlreadyClosedException || indexWriter.getTragicException() != null) {
+                throw ex;
+            }
+            // A document failure aborts the whole block. None of the documents was added,
+            // add them one by one to fail only the affected documents.
+            for (int i = 0; i < toAppend.size(); i++) {
+                Index index = toAppend.get(i);
+                try {
+                    addDoc(index.document(), indexWriter);
+                    appendResults[i] = new IndexResult(1L, index.primaryTerm(), index.seqNo(), true);
+                } catch (Exception docEx) {
+                    if (docEx instanceof AlreadyClosedException || indexWriter.getTragicException() != null) {
+                        throw docEx;
+                    }
+                    appendResults[i] = new IndexResult(docEx, Versions.MATCH_ANY, index.primaryTerm(), index.seqNo());
+                }
+            }
+        }
+
+        final ArrayList<Translog.Index> translogOps = new ArrayList<>(toAppend.size());
+        final ArrayList<IndexResult> translogResults = new ArrayList<>(toAppend.size());
+        for (int i = 0; i < toAppend.size(); i++) {
+            Index index = toAppend.get(i);
+            IndexResult indexResult = appendResults[i];
+            if (indexResult.getResultType() == Result.Type.SUCCESS) {
+                translogOps.add(new Translog.Index(index, indexResult));
+                translogResults.add(indexResult);
+            } else {
+                // record the document failure as a no-op in the translog and Lucene with the generated seq_no
+                final NoOp noOp = new NoOp(indexResult.getSeqNo(), index.primaryTerm(), index.origin(),
+                    index.startTime(), indexResult.getFailure().toString());
+                indexResult.setTranslogLocation(innerNoOp(noOp).getTranslogLocation());
+            }
+        }
+        if (translogOps.isEmpty() == false) {
+            final Translog.Location[] locations = translog.add(translogOps);
+            for (int i = 0; i < locations.length; i++) {
+                translogResults.get(i).setTranslogLocation(locations[i]);
+            }
+        }
+        for (int i = 0; i < toAppend.size(); i++) {
+            Index index = toAppend.get(i);
+            IndexResult indexResult = appendResults[i];
+            if (indexResult.getResultType() == Result.Type.SUCCESS) {
+                final Translog.Location translogLocation = trackTranslogLocation.get() ? indexResult.getTranslogLocation() : null;
+                versionMap.maybePutIndexUnderLock(index.uid().bytes(),
+                    new IndexVersionValue(translogLocation, 1L, index.seqNo(), index.primaryTerm()));
+                localCheckpointTracker.markSeqNoAsProcessed(indexResult.getSeqNo());
+            }
+            indexResult.freeze();
+            results[positions.get(i)] = indexResult;
+        }
+    }
+
     protected final IndexingStrategy planIndexingAsNonPrimary(Index index) throws IOException {
         assert assertNonPrimaryOrigin(index);
         // needs to maintain the auto_id timestamp in case this replica becomes primary
@@ -2308,6 +2461,10 @@ public class InternalEngine extends Engine {
         iwc.setRAMBufferSizeMB(engineConfig.getIndexingBufferSize().getMbFrac());
         iwc.setCodec(engineConfig.getCodec());
         iwc.setUseCompoundFile(true); // always use compound on flush - reduces # of file-handles on refresh
+        Sort indexSort = engineConfig.getIndexSort();
+        if (indexSort != null) {
+            iwc.setIndexSort(indexSort);
+        }
         return iwc;
     }
 
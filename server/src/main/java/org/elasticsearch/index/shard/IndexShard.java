@@ -63,6 +63,7 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.SetOnce;
@@ -162,6 +163,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
 
     private final ThreadPool threadPool;
     private final Supplier<TranslogIndexer> getTranslogIndexer;
+    private final Supplier<Sort> getIndexSort;
     private final QueryCache queryCache;
     private final Store store;
     private final Object mutex = new Object();
@@ -249,6 +251,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             QueryCache queryCache,
             Analyzer indexAnalyzer,
             Supplier<TranslogIndexer> getTranslogIndexer,
+            Supplier<Sort> getIndexSort,
             Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders,
             IndexEventListener indexEventListener,
             ThreadPool threadPool,
@@ -260,7 +263,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         assert shardRouting.initializing();
         this.shardRouting = shardRouting;
         final Settings settings = indexSettings.getSettings();
-        this.codecService = new CodecService();
+        this.codecService = new CodecService(indexSettings.getIndexVersionCreated());
         Objects.requireNonNull(store, "Store must be provided to the index shard");
         this.engineFactoryProviders = engineFactoryProviders;
         this.engineFactory = getEngineFactory();
@@ -268,6 +271,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         this.indexEventListener = indexEventListener;
         this.threadPool = threadPool;
         this.getTranslogIndexer = getTranslogIndexer;
+        this.getIndexSort = getIndexSort;
         this.queryCache = queryCache;
         this.indexingOperationListeners = new IndexingOperationListener.CompositeListener(listeners, logger);
         this.globalCheckpointSyncer = globalCheckpointSyncer;
@@ -838,6 +842,45 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return result;
     }
 
+    /**
+     * Indexes a batch of operations with a single engine call.
+     * See {@link Engine#index(List)}
+     */
+    public List<Engine.IndexResult> index(List<Engine.Index> operations) throws IOException {
+        if (operations.isEmpty()) {
+            return List.of();
+        }
+        final ArrayList<Engine.Index> indexOps = new ArrayList<>(operations.size());
+        for (Engine.Index index : operations) {
+            assert index.primaryTerm() <= getOperationPrimaryTerm()
+                : "op term [ " + index.primaryTerm() + " ] > shard term [" + getOperationPrimaryTerm() + "]";
+            ensureWriteAllowed(index.origin());
+        }
+        active.set(true);
+        for (Engine.Index index : operations) {
+            indexOps.add(indexingOperationListeners.preIndex(shardId, index));
+        }
+        final List<Engine.IndexResult> results;
+        try {
+            results = getEngine().index(indexOps);
+        } catch (Exception e) {
+            for (Engine.Index index : indexOps) {
+                indexingOperationListeners.postIndex(shardId, index, e);
+            }
+            // See index(Engine.Index): exceptions are treated as document level failures
+            verifyNotClosed(e);
+            ArrayList<Engine.IndexResult> failures = new ArrayList<>(indexOps.size());
+            for (Engine.Index index : indexOps) {
+                failures.add(new Engine.IndexResult(e, index.version(), index.primaryTerm(), index.seqNo()));
+            }
+            return failures;
+        }
+        for (int i = 0; i < indexOps.size(); i++) {
+            indexingOperationListeners.postIndex(shardId, indexOps.get(i), results.get(i));
+        }
+        return results;
+    }
+
     public Engine.NoOpResult markSeqNoAsNoop(long seqNo, long opPrimaryTerm, String reason) throws IOException {
         return markSeqNoAsNoop(getEngine(), seqNo, opPrimaryTerm, reason, Engine.Operation.Origin.REPLICA);
     }
@@ -2592,7 +2635,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             globalCheckpointSupplier,
             replicationTracker::getRetentionLeases,
             this::getOperationPrimaryTerm,
-            tombstoneDocSupplier()
+            tombstoneDocSupplier(),
+            getIndexSort.get()
         );
     }
 
@@ -529,6 +529,58 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         }
     }
 
+    /**
+     * Adds multiple operations to the transaction log. The operations are serialized into one buffer which is
+     * appended to the current generation at once.
+     *
+     * @param operations the operations to add
+     * @return the locations of the operations in the translog, in the same order as the operations
+     * @throws IOException if adding the operations to the translog resulted in an I/O exception
+     */
+    public Location[] add(final List<? extends Operation> operations) throws IOException {
+        final ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(bigArrays);
+        final int numOperations = operations.size();
+        final int[] operationLengths = new int[numOperations];
+        final long[] seqNos = new long[numOperations];
+        long maxPrimaryTerm = 0;
+        try {
+            for (int i = 0; i < numOperations; i++) {
+                Operation operation = operations.get(i);
+                final long start = out.position();
+                out.skip(Integer.BYTES);
+                writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation);
+                final long end = out.position();
+                final int operationSize = (int) (end - Integer.BYTES - start);
+                out.seek(start);
+                out.writeInt(operationSize);
+                out.seek(end);
+                operationLengths[i] = (int) (end - start);
+                seqNos[i] = operation.seqNo();
+                maxPrimaryTerm = Math.max(maxPrimaryTerm, operation.primaryTerm());
+            }
+            final BytesReference bytes = out.bytes();
+            try (ReleasableLock ignored = readLock.acquire()) {
+                ensureOpen();
+                if (maxPrimaryTerm > current.getPrimaryTerm()) {
+                    assert false :
+                        "Operation term is newer than the current term; "
+                            + "current term[" + current.getPrimaryTerm() + "], operation term[" + maxPrimaryTerm + "]";
+                    throw new IllegalArgumentException("Operation term is newer than the current term; "
+                        + "current term[" + current.getPrimaryTerm() + "], operation term[" + maxPrimaryTerm + "]");
+                }
+                return current.add(bytes, operationLengths, seqNos);
+            }
+        } catch (final AlreadyClosedException | IOException ex) {
+            closeOnTragicEvent(ex);
+            throw ex;
+        } catch (final Exception ex) {
+            closeOnTragicEvent(ex);
+            throw new TranslogException(shardId, "Failed to write " + numOperations + " operations", ex);
+        } finally {
+            Releasables.close(out);
+        }
+    }
+
     /**
      * Tests whether or not the translog generation should be rolled to a new generation. This test
      * is based on the size of the current generation compared to the configured generation
@@ -223,6 +223,58 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         return location;
     }
 
+    /**
+     * Add multiple operations, serialized back to back into {@code data}, to the translog.
+     *
+     * @param data the bytes of all operations
+     * @param operationLengths the number of bytes of each operation within {@code data}
+     * @param seqNos the sequence number associated with each operation
+     * @return the locations the operations were written to
+     * @throws IOException if writing to the translog resulted in an I/O exception
+     */
+    public Translog.Location[] add(final BytesReference data, final int[] operationLengths, final long[] seqNos) throws IOException {
+        assert operationLengths.length == seqNos.length : "must have a sequence number for each operation";
+        long bufferedBytesBeforeAdd = this.bufferedBytes;
+        if (bufferedBytesBeforeAdd >= forceWriteThreshold) {
+            writeBufferedOps(Long.MAX_VALUE, bufferedBytesBeforeAdd >= forceWriteThreshold * 4);
+        }
+
+        final Translog.Location[] locations = new Translog.Location[seqNos.length];
+        synchronized (this) {
+            ensureOpen();
+            if (buffer == null) {
+                buffer = new ReleasableBytesStreamOutput(bigArrays);
+            }
+            assert bufferedBytes == buffer.size();
+            final long offset = totalOffset;
+            totalOffset += data.length();
+            data.writeTo(buffer);
+
+            assert minSeqNo != SequenceNumbers.NO_OPS_PERFORMED || operationCounter == 0;
+            assert maxSeqNo != SequenceNumbers.NO_OPS_PERFORMED || operationCounter == 0;
+
+            int position = 0;
+            for (int i = 0; i < seqNos.length; i++) {
+                final long seqNo = seqNos[i];
+                minSeqNo = SequenceNumbers.min(minSeqNo, seqNo);
+                maxSeqNo = SequenceNumbers.max(maxSeqNo, seqNo);
+
+                nonFsyncedSequenceNumbers.add(seqNo);
+
+                operationCounter++;
+
+                assert assertNoSeqNumberConflict(seqNo, data.slice(position, operationLengths[i]));
+
+                locations[i] = new Translog.Location(generation, offset + position, operationLengths[i]);
+                position += operationLengths[i];
+            }
+            assert position == data.length() : "operation lengths must add up to the length of data";
+            bufferedBytes = buffer.size();
+        }
+
+        return locations;
+    }
+
     private synchronized boolean assertNoSeqNumberConflict(long seqNo, BytesReference data) throws IOException {
         if (seqNo == SequenceNumbers.UNASSIGNED_SEQ_NO) {
             // nothing to do
@@ -74,6 +74,7 @@ public class ThreadPool implements Scheduler {
         public static final String FETCH_SHARD_STARTED = "fetch_shard_started";
         public static final String FETCH_SHARD_STORE = "fetch_shard_store";
         public static final String LOGICAL_REPLICATION = "logical_replication";
+        public static final String COMPRESSION = "compression";
     }
 
     public enum ThreadPoolType {
@@ -125,7 +126,8 @@ public class ThreadPool implements Scheduler {
         Map.entry(Names.FORCE_MERGE, ThreadPoolType.FIXED),
         Map.entry(Names.FETCH_SHARD_STARTED, ThreadPoolType.SCALING),
         Map.entry(Names.FETCH_SHARD_STORE, ThreadPoolType.SCALING),
-        Map.entry(Names.LOGICAL_REPLICATION, ThreadPoolType.FIXED)
+        Map.entry(Names.LOGICAL_REPLICATION, ThreadPoolType.FIXED),
+        Map.entry(Names.COMPRESSION, ThreadPoolType.FIXED)
     );
 
     private final Map<String, ExecutorHolder> executors;
@@ -172,6 +174,8 @@ public class ThreadPool implements Scheduler {
         builders.put(Names.FETCH_SHARD_STORE,
                 new ScalingExecutorBuilder(Names.FETCH_SHARD_STORE, 1, 2 * availableProcessors, TimeValue.timeValueMinutes(5)));
         builders.put(Names.LOGICAL_REPLICATION, new FixedExecutorBuilder(settings, Names.LOGICAL_REPLICATION, searchThreadPoolSize(availableProcessors), 100));
+        // unbounded queue, the writers limit the number of blocks they have in flight
+        builders.put(Names.COMPRESSION, new FixedExecutorBuilder(settings, Names.COMPRESSION, availableProcessors, -1));
         this.builders = Collections.unmodifiableMap(builders);
 
         final Map<String, ExecutorHolder> executors = new HashMap<>();
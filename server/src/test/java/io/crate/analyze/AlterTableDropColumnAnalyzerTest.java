@@ -318,6 +318,16 @@ public class AlterTableDropColumnAnalyzerTest extends CrateDummyClusterServiceUn
             .hasMessage("Dropping column: b which is part of INDEX: ft is not allowed");
     }
 
+    @Test
+    public void test_drop_column_used_in_sorted_by() throws Exception {
+        e = SQLExecutor.of(clusterService)
+            .addTable("CREATE TABLE t1(a int, o object AS (x int)) WITH (sorted_by = 'o.x')");
+
+        assertThatThrownBy(() -> e.analyze("ALTER TABLE t1 DROP o"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("Dropping column: o which is used in `sorted_by` is not allowed");
+    }
+
     @Test
     public void test_drop_column_used_in_table_level_check_constraint() throws Exception {
         e = SQLExecutor.of(clusterService)
@@ -116,6 +116,16 @@ public class AlterTableRenameColumnAnalyzerTest extends CrateDummyClusterService
             .hasMessage("Cannot rename column to a name that is in use");
     }
 
+    @Test
+    public void test_cannot_rename_column_used_in_sorted_by() throws IOException {
+        e = SQLExecutor.of(clusterService)
+            .addTable("create table t (a int, b int) with (sorted_by = 'a desc')");
+
+        assertThatThrownBy(() -> e.analyze("alter table t rename column a to c"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Cannot rename column `a`. It's used in `sorted_by`");
+    }
+
     @Test
     public void test_cannot_rename_column_from_single_partition() throws Exception {
         e = SQLExecutor.of(clusterService)
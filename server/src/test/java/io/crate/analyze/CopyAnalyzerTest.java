@@ -38,6 +38,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.junit.Before;
 import org.junit.Test;
 
+import io.crate.analyze.copy.StdioFormat;
 import io.crate.data.RowN;
 import io.crate.exceptions.OperationOnInaccessibleRelationException;
 import io.crate.exceptions.PartitionUnknownException;
@@ -435,4 +436,61 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
             )
         );
     }
+
+    @Test
+    public void test_copy_from_stdin_defaults_to_text_format() {
+        AnalyzedCopyFrom analyzed = e.analyze("COPY users (id, name) FROM STDIN");
+        assertThat(analyzed.readsFromStdin()).isTrue();
+        assertThat(analyzed.uri()).isNull();
+        assertThat(analyzed.stdinFormat()).isEqualTo(StdioFormat.TEXT);
+        assertThat(analyzed.stdinColumns()).satisfiesExactly(
+            x -> assertThat(x).isReference().hasName("id"),
+            x -> assertThat(x).isReference().hasName("name")
+        );
+
+        BoundCopyFrom bound = analyze("COPY users (id, name) FROM STDIN");
+        assertThat(bound.uri()).isNull();
+        assertThat(bound.inputFormat()).isEqualTo(FileUriCollectPhase.InputFormat.JSON);
+    }
+
+    @Test
+    public void test_copy_from_stdin_with_csv_format_uses_csv_input_format() {
+        AnalyzedCopyFrom analyzed = e.analyze("COPY users FROM STDIN WITH (format = 'csv')");
+        assertThat(analyzed.stdinFormat()).isEqualTo(StdioFormat.CSV);
+        BoundCopyFrom bound = analyze("COPY users FROM STDIN WITH (format = 'csv')");
+        assertThat(bound.inputFormat()).isEqualTo(FileUriCollectPhase.InputFormat.CSV);
+    }
+
+    @Test
+    public void test_copy_from_stdin_with_invalid_format() {
+        assertThatThrownBy(() -> e.analyze("COPY users FROM STDIN WITH (format = 'parquet')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid format 'parquet', supported formats are: [text, csv, binary, json]");
+    }
+
+    @Test
+    public void test_copy_from_stdin_does_not_support_return_summary() {
+        assertThatThrownBy(() -> e.analyze("COPY users FROM STDIN RETURN SUMMARY"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("RETURN SUMMARY is not supported for COPY FROM STDIN");
+    }
+
+    @Test
+    public void test_copy_to_stdout_outputs_all_columns_by_default() {
+        AnalyzedCopyTo analyzed = e.analyze("COPY users TO STDOUT WITH (format = 'binary')");
+        assertThat(analyzed.writesToStdout()).isTrue();
+        assertThat(analyzed.stdoutFormat()).isEqualTo(StdioFormat.BINARY);
+        assertThat(analyzed.outputs()).hasSize(analyzed.tableInfo().columns().size());
+
+        BoundCopyTo bound = analyze("COPY users (id, name) TO STDOUT");
+        assertThat(bound.uri()).isNull();
+        assertThat(bound.outputs()).hasSize(2);
+    }
+
+    @Test
+    public void test_copy_to_stdout_does_not_support_json_format() {
+        assertThatThrownBy(() -> e.analyze("COPY users TO STDOUT WITH (format = 'json')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid format 'json', supported formats are: [text, csv, binary]");
+    }
 }
@@ -73,6 +73,7 @@ import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.Schemas;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.doc.SortedBy;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.node.ddl.AlterTablePlan;
 import io.crate.planner.node.ddl.CreateBlobTablePlan;
@@ -1948,4 +1949,44 @@ public class CreateAlterTableStatementAnalyzerTest extends CrateDummyClusterServ
             .isExactlyInstanceOf(IllegalArgumentException.class)
             .hasMessage("Column \"x\" specified more than once");
     }
+
+    @Test
+    public void test_create_table_with_sorted_by() {
+        BoundCreateTable analysis = analyze("create table t (x int, y text) with (sorted_by = 'x desc')");
+        assertThat(analysis.settings().get(IndexSettings.INDEX_SORTED_BY_SETTING.getKey())).isEqualTo("x desc");
+        assertThat(SortedBy.of(analysis.settings())).isEqualTo(new SortedBy(ColumnIdent.of("x"), true));
+    }
+
+    @Test
+    public void test_sorted_by_must_be_column_optionally_followed_by_direction() {
+        assertThatThrownBy(() -> analyze("create table t (x int) with (sorted_by = 'x up')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid value for `sorted_by`: 'x up'. Must be a column name, optionally followed by ASC or DESC");
+    }
+
+    @Test
+    public void test_sorted_by_column_must_exist() {
+        assertThatThrownBy(() -> analyze("create table t (x int) with (sorted_by = 'y')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Column `y` used in `sorted_by` does not exist");
+    }
+
+    @Test
+    public void test_sorted_by_column_must_have_doc_values_and_primitive_type() {
+        assertThatThrownBy(() -> analyze("create table t (x int[]) with (sorted_by = 'x')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Cannot use column `x` of type `integer_array` in `sorted_by`. " +
+                        "Only primitive types with column store enabled are supported");
+        assertThatThrownBy(() -> analyze("create table t (x text storage with (columnstore = false)) with (sorted_by = 'x')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Cannot use column `x` of type `text` in `sorted_by`. " +
+                        "Only primitive types with column store enabled are supported");
+    }
+
+    @Test
+    public void test_sorted_by_cannot_use_partition_column() {
+        assertThatThrownBy(() -> analyze("create table t (x int, p int) partitioned by (p) with (sorted_by = 'p')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Cannot use partition column `p` in `sorted_by`");
+    }
 }
@@ -211,9 +211,11 @@ public class SelectStatementAnalyzerTest extends CrateDummyClusterServiceUnitTes
             "name",
             "os",
             "os_info",
+            "plan_cache",
             "port",
             "process",
             "rest_url",
+            "spill",
             "thread_pools",
             "version"
         );
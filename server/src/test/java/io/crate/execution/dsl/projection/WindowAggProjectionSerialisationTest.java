@@ -131,6 +131,39 @@ public class WindowAggProjectionSerialisationTest {
         assertThat(actualWindowAggProjection.windowFunctions().get(0).filter()).isNull();
     }
 
+    @Test
+    public void test_input_sorted_flag_is_streamed_on_or_after_5_10_0() throws IOException {
+        FunctionImplementation sumFunctionImpl = getSumFunction();
+        WindowDefinition windowDefinition = new WindowDefinition(singletonList(Literal.of(1L)), null, null);
+        WindowFunction windowFunction = new WindowFunction(
+            sumFunctionImpl.signature(),
+            singletonList(Literal.of(2L)),
+            sumFunctionImpl.boundSignature().returnType(),
+            null,
+            windowDefinition,
+            null);
+        var windowAggProjection = new WindowAggProjection(
+            windowDefinition,
+            List.of(windowFunction),
+            List.of(Literal.of(42L)),
+            true);
+
+        var output = new BytesStreamOutput();
+        windowAggProjection.writeTo(output);
+        var actual = new WindowAggProjection(output.bytes().streamInput());
+        assertThat(actual.inputSorted()).isTrue();
+        assertThat(actual).isEqualTo(windowAggProjection);
+
+        output = new BytesStreamOutput();
+        output.setVersion(Version.V_5_9_0);
+        windowAggProjection.writeTo(output);
+        var input = output.bytes().streamInput();
+        input.setVersion(Version.V_5_9_0);
+        actual = new WindowAggProjection(input);
+        assertThat(actual.inputSorted()).isFalse();
+        assertThat(actual.windowFunctions()).containsExactly(windowFunction);
+    }
+
     private FunctionImplementation getSumFunction() {
         return functions.getQualified(
                 Signature.builder(SumAggregation.NAME, FunctionType.AGGREGATE)
@@ -0,0 +1,161 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+import static io.crate.testing.Asserts.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.RowConsumer;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.expression.symbol.OuterColumn;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.SubQueryResults;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+
+public class CorrelatedJoinProjectorTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void setUpExecutor() throws Exception {
+        e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.t1 (x int)");
+    }
+
+    /**
+     * Executes the correlated sub-query of {@code stmt} for outer rows with the given values of x.
+     * The sub-query plan returns the bound outer column value.
+     *
+     * @return the number of sub-query executions
+     */
+    private int execute(String stmt, RamAccounting ramAccounting, Object... outerValues) throws Exception {
+        QueriedSelectRelation relation = e.analyze(stmt);
+        SelectSymbol subQuery = (SelectSymbol) relation.outputs().get(0);
+        List<OuterColumn> outerColumns = new ArrayList<>();
+        subQuery.relation().visitSymbols(tree -> tree.visit(OuterColumn.class, outerColumns::add));
+        List<Symbol> inputPlanOutputs = List.of(outerColumns.get(0).symbol());
+
+        AtomicInteger executions = new AtomicInteger();
+        LogicalPlan subQueryPlan = mock(LogicalPlan.class);
+        doAnswer(invocation -> {
+            executions.incrementAndGet();
+            RowConsumer consumer = invocation.getArgument(2);
+            SubQueryResults subQueryResults = invocation.getArgument(4);
+            Object value = subQueryResults.get(outerColumns.get(0));
+            consumer.accept(InMemoryBatchIterator.of(new Row1(value), SENTINEL), null);
+            return null;
+        }).when(subQueryPlan).execute(any(), any(), any(), any(), any());
+
+        var projector = new CorrelatedJoinProjector(
+            subQueryPlan,
+            subQuery,
+            e.getPlannerContext(),
+            null,
+            SubQueryResults.EMPTY,
+            Row.EMPTY,
+            inputPlanOutputs,
+            ramAccounting
+        );
+        List<Row> rows = new ArrayList<>();
+        for (Object value : outerValues) {
+            rows.add(new Row1(value));
+        }
+        BatchIterator<Row> source = InMemoryBatchIterator.of(rows, SENTINEL, true);
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(projector.apply(source), null);
+        List<Object[]> result = consumer.getResult();
+        assertThat(result).hasSize(outerValues.length);
+        for (int i = 0; i < outerValues.length; i++) {
+            assertThat(result.get(i)).containsExactly(outerValues[i], outerValues[i]);
+        }
+        return executions.get();
+    }
+
+    @Test
+    public void test_sub_query_results_are_reused_for_repeated_outer_values() throws Exception {
+        TestingRamAccounting ramAccounting = new TestingRamAccounting();
+        int executions = execute("select (select t.x) from doc.t1 t", ramAccounting, 1, 2, 1, 1, null, 2, null);
+        assertThat(executions).isEqualTo(3);
+        assertThat(ramAccounting.maxBytes)
+            .as("The cached results are accounted")
+            .isGreaterThan(0L);
+        assertThat(ramAccounting.totalBytes())
+            .as("The cached results are released once the projector is closed")
+            .isEqualTo(0L);
+    }
+
+    @Test
+    public void test_non_deterministic_sub_query_is_executed_for_each_outer_row() throws Exception {
+        TestingRamAccounting ramAccounting = new TestingRamAccounting();
+        int executions = execute(
+            "select (select t.x + random()) from doc.t1 t", ramAccounting, 1, 2, 1, 1, 2);
+        assertThat(executions).isEqualTo(5);
+        assertThat(ramAccounting.maxBytes).isEqualTo(0L);
+    }
+
+    private static class TestingRamAccounting implements RamAccounting {
+
+        private long totalBytes = 0;
+        private long maxBytes = 0;
+
+        @Override
+        public void addBytes(long bytes) {
+            totalBytes += bytes;
+            maxBytes = Math.max(maxBytes, totalBytes);
+        }
+
+        @Override
+        public long totalBytes() {
+            return totalBytes;
+        }
+
+        @Override
+        public void release() {
+            totalBytes = 0;
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.data.breaker.BlockBasedRamAccounting;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.memory.OffHeapMemoryManager;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.types.DataTypes;
+
+public class FixedWidthKeyMapTest extends ESTestCase {
+
+    @Test
+    public void test_supports_only_fixed_width_types() {
+        assertThat(FixedWidthKeyMap.supports(List.of(DataTypes.LONG, DataTypes.INTEGER, DataTypes.DOUBLE))).isTrue();
+        assertThat(FixedWidthKeyMap.supports(List.of(DataTypes.TIMESTAMPZ, DataTypes.BYTE, DataTypes.SHORT))).isTrue();
+        assertThat(FixedWidthKeyMap.supports(List.of(DataTypes.LONG, DataTypes.STRING))).isFalse();
+        assertThat(FixedWidthKeyMap.supports(List.of())).isFalse();
+    }
+
+    @Test
+    public void test_composite_keys_behave_like_hash_map() {
+        var keyTypes = List.of(DataTypes.BYTE, DataTypes.SHORT, DataTypes.INTEGER, DataTypes.LONG, DataTypes.DOUBLE);
+        try (var memoryManager = new OffHeapMemoryManager()) {
+            var map = FixedWidthKeyMap.forKeys(keyTypes, RamAccounting.NO_ACCOUNTING, memoryManager);
+            Map<List<Object>, Object[]> expected = new HashMap<>();
+            for (int i = 0; i < 20_000; i++) {
+                List<Object> key = new ArrayList<>(Arrays.asList(
+                    (byte) (i % 7),
+                    (short) -(i % 300),
+                    i % 5 == 0 ? null : i % 1000,
+                    (long) i % 2000,
+                    i % 11 == 0 ? null : (i % 3) / 2.0
+                ));
+                Object[] states = expected.get(key);
+                assertThat(map.get(key)).isSameAs(states);
+                if (states == null) {
+                    states = new Object[] { i };
+                    expected.put(key, states);
+                    map.put(key, states);
+                }
+            }
+            assertThat(map).hasSameSizeAs(expected);
+            for (var entry : map.entrySet()) {
+                assertThat(expected.get(entry.getKey())).isSameAs(entry.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void test_single_key_with_null_and_negative_zero() {
+        var map = FixedWidthKeyMap.forKey(DataTypes.DOUBLE, RamAccounting.NO_ACCOUNTING, new OnHeapMemoryManager(bytes -> {}));
+        Object[] nullStates = new Object[] { 1L };
+        Object[] zeroStates = new Object[] { 2L };
+        Object[] negativeZeroStates = new Object[] { 3L };
+        map.put(null, nullStates);
+        map.put(0.0, zeroStates);
+        map.put(-0.0, negativeZeroStates);
+
+        assertThat(map).hasSize(3);
+        assertThat(map.get(null)).isSameAs(nullStates);
+        assertThat(map.get(0.0)).isSameAs(zeroStates);
+        assertThat(map.get(-0.0)).isSameAs(negativeZeroStates);
+        assertThat(map.get(1.0)).isNull();
+        assertThat(map.keySet()).containsExactlyInAnyOrder(null, 0.0, -0.0);
+
+        map.clear();
+        assertThat(map).isEmpty();
+        assertThat(map.get(null)).isNull();
+    }
+
+    @Test
+    public void test_pages_are_allocated_via_memory_manager() {
+        long[] allocated = new long[1];
+        var memoryManager = new OnHeapMemoryManager(bytes -> allocated[0] += bytes);
+        var map = FixedWidthKeyMap.forKeys(List.of(DataTypes.LONG, DataTypes.LONG), RamAccounting.NO_ACCOUNTING, memoryManager);
+        for (long i = 0; i < 10_000; i++) {
+            map.put(List.<Object>of(i, -i), new Object[0]);
+        }
+        // 1 byte null mask + 2 longs per group
+        assertThat(allocated[0]).isGreaterThanOrEqualTo(10_000L * 17);
+        assertThat(map.get(List.of(42L, -42L))).isNotNull();
+        assertThat(map.get(List.of(42L, 42L))).isNull();
+    }
+
+    @Test
+    public void test_clear_re_uses_pages_and_releases_arrays() {
+        long[] allocated = new long[1];
+        var memoryManager = new OnHeapMemoryManager(bytes -> allocated[0] += bytes);
+        RamAccounting ramAccounting = new BlockBasedRamAccounting(bytes -> {}, 0);
+        var map = FixedWidthKeyMap.forKey(DataTypes.LONG, ramAccounting, memoryManager);
+        long initialBytes = ramAccounting.totalBytes();
+        for (long i = 0; i < 10_000; i++) {
+            map.put(i, new Object[0]);
+        }
+        long allocatedAfterFirstFill = allocated[0];
+        assertThat(ramAccounting.totalBytes()).isGreaterThan(initialBytes);
+
+        for (int round = 0; round < 5; round++) {
+            map.clear();
+            assertThat(map).isEmpty();
+            assertThat(map.get(42L)).isNull();
+            for (long i = 0; i < 10_000; i++) {
+                map.put(i * round, new Object[0]);
+            }
+        }
+        assertThat(allocated[0]).isEqualTo(allocatedAfterFirstFill);
+        assertThat(map.get(42L * 4)).isNotNull();
+
+        long bytesBeforeClear = ramAccounting.totalBytes();
+        map.clear();
+        assertThat(ramAccounting.totalBytes()).isLessThan(bytesBeforeClear);
+    }
+}
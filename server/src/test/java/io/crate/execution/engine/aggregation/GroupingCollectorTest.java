@@ -0,0 +1,237 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+import static io.crate.testing.TestingHelpers.createNodeContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.common.MutableLong;
+import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.testing.BatchSimulatingIterator;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.execution.engine.spill.SpillManager;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Literal;
+import io.crate.memory.MemoryManager;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.metadata.NodeContext;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class GroupingCollectorTest extends ESTestCase {
+
+    private Path spillDir;
+    private AggregationFunction<?, ?> count;
+    private RamAccounting ramAccounting;
+
+    @Before
+    public void setUpCollector() throws Exception {
+        spillDir = createTempDir().resolve("spill");
+        NodeContext nodeCtx = createNodeContext();
+        count = (AggregationFunction<?, ?>) nodeCtx.functions().getQualified(
+            CountAggregation.SIGNATURE,
+            List.of(DataTypes.LONG),
+            DataTypes.LONG
+        );
+        ramAccounting = ConcurrentRamAccounting.forCircuitBreaker("test", new NoopCircuitBreaker("test"), 0);
+    }
+
+    private GroupingCollector<?> countByFirstColumn(AggregateMode mode, SpillManager spillManager) {
+        return countByFirstColumn(mode, spillManager, DataTypes.LONG, new OnHeapMemoryManager(bytes -> {}));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private GroupingCollector<?> countByFirstColumn(AggregateMode mode,
+                                                    SpillManager spillManager,
+                                                    DataType<?> keyType,
+                                                    MemoryManager memoryManager) {
+        RowCollectExpression key = new RowCollectExpression(0);
+        RowCollectExpression value = new RowCollectExpression(1);
+        return GroupingCollector.singleKey(
+            new CollectExpression[] { key, value },
+            mode,
+            new AggregationFunction[] { count },
+            new Input[][] { new Input[] { value } },
+            new Input[] { Literal.BOOLEAN_TRUE },
+            ramAccounting,
+            memoryManager,
+            Version.CURRENT,
+            key,
+            keyType,
+            Version.CURRENT,
+            spillManager
+        );
+    }
+
+    private static List<Object[]> rows(int numKeys, int rowsPerKey) {
+        List<Object[]> rows = new ArrayList<>(numKeys * rowsPerKey);
+        for (int i = 0; i < rowsPerKey; i++) {
+            for (long key = 0; key < numKeys; key++) {
+                rows.add(new Object[] { key, key * 10 });
+            }
+        }
+        Collections.shuffle(rows, random());
+        return rows;
+    }
+
+    private static Map<Object, Object> toMap(List<Object[]> result) {
+        Map<Object, Object> countByKey = new HashMap<>();
+        for (Object[] row : result) {
+            assertThat(countByKey.put(row[0], row[1])).as("keys must be unique").isNull();
+        }
+        return countByKey;
+    }
+
+    private List<Object[]> collect(GroupingCollector<?> collector, BatchIterator<Row> source) throws Exception {
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(collector.apply(source), null);
+        return consumer.getResult();
+    }
+
+    @Test
+    public void test_group_by_spills_partitions_and_merges_partial_states() throws Exception {
+        SpillManager spillManager = new SpillManager(spillDir, true, 4096);
+        GroupingCollector<?> collector = countByFirstColumn(AggregateMode.ITER_FINAL, spillManager);
+
+        List<Object[]> rows = rows(1000, 5);
+        BatchIterator<Row> source = new BatchSimulatingIterator<>(
+            InMemoryBatchIterator.of(rows.stream().map(RowN::new).toList(), SENTINEL, true),
+            100,
+            rows.size() / 100,
+            null
+        );
+        Map<Object, Object> countByKey = toMap(collect(collector, source));
+
+        assertThat(countByKey).hasSize(1000);
+        for (long key = 0; key < 1000; key++) {
+            assertThat(countByKey.get(key)).isEqualTo(5L);
+        }
+        assertThat(spillManager.stats().files()).isGreaterThan(0L);
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_partial_final_mode_merges_spilled_states() throws Exception {
+        SpillManager spillManager = new SpillManager(spillDir, true, 1024);
+        GroupingCollector<?> collector = countByFirstColumn(AggregateMode.PARTIAL_FINAL, spillManager);
+
+        // input rows are partial counts, e.g. received from several upstreams
+        List<Object[]> rows = rows(500, 3);
+        for (Object[] row : rows) {
+            row[1] = new MutableLong((long) row[1]);
+        }
+        BatchIterator<Row> source = InMemoryBatchIterator.of(rows.stream().map(RowN::new).toList(), SENTINEL, true);
+        Map<Object, Object> countByKey = toMap(collect(collector, source));
+
+        assertThat(countByKey).hasSize(500);
+        for (long key = 0; key < 500; key++) {
+            assertThat(countByKey.get(key)).isEqualTo(key * 10 * 3);
+        }
+        assertThat(spillManager.stats().files()).isGreaterThan(0L);
+    }
+
+    @Test
+    public void test_spilling_uses_and_releases_only_the_bytes_of_the_groups() throws Exception {
+        // bytes accounted by other operators sharing the same RamAccounting
+        long otherBytes = 64 * 1024;
+        ramAccounting.addBytes(otherBytes);
+
+        SpillManager spillManager = new SpillManager(spillDir, true, 4096);
+        GroupingCollector<?> collector = countByFirstColumn(AggregateMode.ITER_FINAL, spillManager);
+        List<Object[]> rows = rows(10, 2);
+        BatchIterator<Row> source = InMemoryBatchIterator.of(rows.stream().map(RowN::new).toList(), SENTINEL, true);
+        assertThat(toMap(collect(collector, source))).hasSize(10);
+        assertThat(spillManager.stats().files())
+            .as("Bytes of other operators must not trigger spilling")
+            .isEqualTo(0L);
+
+        collector = countByFirstColumn(AggregateMode.ITER_FINAL, spillManager);
+        rows = rows(1000, 5);
+        source = InMemoryBatchIterator.of(rows.stream().map(RowN::new).toList(), SENTINEL, true);
+        assertThat(toMap(collect(collector, source))).hasSize(1000);
+        assertThat(spillManager.stats().files()).isGreaterThan(0L);
+        assertThat(ramAccounting.totalBytes()).isGreaterThanOrEqualTo(otherBytes);
+    }
+
+    @Test
+    public void test_spilling_re_uses_pages_of_fixed_width_key_map() throws Exception {
+        long[] allocated = new long[1];
+        MemoryManager memoryManager = new OnHeapMemoryManager(bytes -> allocated[0] += bytes);
+        SpillManager spillManager = new SpillManager(spillDir, true, 4096);
+        GroupingCollector<?> collector = countByFirstColumn(
+            AggregateMode.ITER_FINAL, spillManager, DataTypes.DOUBLE, memoryManager);
+
+        List<Object[]> rows = rows(1000, 5);
+        for (Object[] row : rows) {
+            row[0] = ((Long) row[0]).doubleValue();
+        }
+        BatchIterator<Row> source = InMemoryBatchIterator.of(rows.stream().map(RowN::new).toList(), SENTINEL, true);
+        Map<Object, Object> countByKey = toMap(collect(collector, source));
+
+        assertThat(countByKey).hasSize(1000);
+        assertThat(countByKey.get(42.0)).isEqualTo(5L);
+        assertThat(spillManager.stats().files()).isGreaterThan(1L);
+        // all groups fit into a single page, which is re-used after each spill and for each partition
+        assertThat(allocated[0]).isEqualTo(64 * 1024L);
+    }
+
+    @Test
+    public void test_group_by_does_not_spill_if_disabled() throws Exception {
+        SpillManager spillManager = new SpillManager(spillDir, false, 1);
+        GroupingCollector<?> collector = countByFirstColumn(AggregateMode.ITER_FINAL, spillManager);
+
+        List<Object[]> rows = rows(100, 2);
+        BatchIterator<Row> source = InMemoryBatchIterator.of(rows.stream().map(RowN::new).toList(), SENTINEL, true);
+        Map<Object, Object> countByKey = toMap(collect(collector, source));
+
+        assertThat(countByKey).hasSize(100);
+        assertThat(spillManager.stats().files()).isEqualTo(0L);
+    }
+}
@@ -24,23 +24,50 @@ package io.crate.execution.engine.collect;
 import static io.crate.testing.TestingHelpers.createNodeContext;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.elasticsearch.Version;
 import org.junit.Before;
 import org.junit.Test;
 
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.TableRelation;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.execution.engine.aggregation.impl.MaximumAggregation;
+import io.crate.execution.engine.aggregation.impl.MinimumAggregation;
 import io.crate.execution.engine.aggregation.impl.SumAggregation;
 import io.crate.execution.engine.aggregation.impl.templates.SortedNumericDocValueAggregator;
+import io.crate.execution.engine.collect.collectors.LeafPartition;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Aggregation;
 import io.crate.expression.symbol.InputColumn;
 import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.memory.OnHeapMemoryManager;
 import io.crate.metadata.FunctionType;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Reference;
@@ -201,6 +228,91 @@ public class DocValuesAggregatesTest extends CrateDummyClusterServiceUnitTest {
             );
     }
 
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void test_partial_results_of_partitions_over_multiple_segments_are_reduced() throws Exception {
+        Reference xRef = (Reference) e.asSymbol("tbl.x");
+        IndexWriter iw = new IndexWriter(
+            new ByteBuffersDirectory(),
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE)
+        );
+        // Partitions of 100_000 docs: The middle one spans the end of the first, the second and the start of
+        // the third segment
+        int[] segmentSizes = new int[] { 120_000, 60_000, 120_000 };
+        long expectedSum = 0;
+        long expectedCount = 0;
+        long expectedMin = Long.MAX_VALUE;
+        long expectedMax = Long.MIN_VALUE;
+        int docId = 0;
+        for (int segmentSize : segmentSizes) {
+            for (int i = 0; i < segmentSize; i++, docId++) {
+                Document doc = new Document();
+                if (docId % 7 != 0) {
+                    long value = docId % 2 == 0 ? docId : -docId;
+                    doc.add(new SortedNumericDocValuesField(xRef.storageIdent(), value));
+                    expectedSum += value;
+                    expectedCount++;
+                    expectedMin = Math.min(expectedMin, value);
+                    expectedMax = Math.max(expectedMax, value);
+                }
+                iw.addDocument(doc);
+            }
+            iw.commit();
+        }
+        IndexSearcher searcher = new IndexSearcher(DirectoryReader.open(iw));
+        assertThat(searcher.getIndexReader().leaves()).hasSize(3);
+        assertThat(LeafPartition.partition(searcher.getIndexReader().leaves(), 4, LeafPartition.MIN_DOCS_PER_PARTITION))
+            .hasSize(3);
+
+        List<Aggregation> aggregations = List.of(
+            longSumAggregation(0),
+            countAggregation(0),
+            longAggregation(MinimumAggregation.NAME, 0),
+            longAggregation(MaximumAggregation.NAME, 0)
+        );
+        List<Symbol> toCollect = List.of(xRef);
+        Supplier<List<DocValueAggregator>> createAggregators = () -> DocValuesAggregates.createAggregators(
+            functions,
+            mock(LuceneReferenceResolver.class),
+            aggregations,
+            toCollect,
+            table
+        );
+        List<AggregationFunction> aggregationFunctions = new ArrayList<>();
+        for (Aggregation aggregation : aggregations) {
+            aggregationFunctions.add((AggregationFunction) functions.getQualified(aggregation));
+        }
+        CollectTask collectTask = mock(CollectTask.class);
+        when(collectTask.getRamAccounting()).thenReturn(RamAccounting.NO_ACCOUNTING);
+        when(collectTask.memoryManager()).thenReturn(new OnHeapMemoryManager(usedBytes -> {}));
+        when(collectTask.minNodeVersion()).thenReturn(Version.CURRENT);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Iterable<Row> rows = DocValuesAggregates.getRow(
+                collectTask,
+                new AtomicReference<>(),
+                searcher,
+                new MatchAllDocsQuery(),
+                createAggregators.get(),
+                createAggregators,
+                aggregationFunctions,
+                executor,
+                () -> 4
+            ).get(30, TimeUnit.SECONDS);
+
+            Object[] cells = rows.iterator().next().materialize();
+            Object[] result = new Object[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                result[i] = aggregationFunctions.get(i).terminatePartial(RamAccounting.NO_ACCOUNTING, cells[i]);
+            }
+            assertThat(result).containsExactly(expectedSum, expectedCount, expectedMin, expectedMax);
+        } finally {
+            executor.shutdownNow();
+            iw.close();
+        }
+    }
+
     private static Aggregation countAggregation(int inputCol) {
         return new Aggregation(
             CountAggregation.SIGNATURE,
@@ -214,8 +326,12 @@ public class DocValuesAggregatesTest extends CrateDummyClusterServiceUnitTest {
     }
 
     private static Aggregation longSumAggregation(int inputCol) {
+        return longAggregation(SumAggregation.NAME, inputCol);
+    }
+
+    private static Aggregation longAggregation(String name, int inputCol) {
         return new Aggregation(
-                Signature.builder(SumAggregation.NAME, FunctionType.AGGREGATE)
+                Signature.builder(name, FunctionType.AGGREGATE)
                         .argumentTypes(DataTypes.LONG.getTypeSignature())
                         .returnType(DataTypes.LONG.getTypeSignature())
                         .features(Scalar.Feature.DETERMINISTIC)
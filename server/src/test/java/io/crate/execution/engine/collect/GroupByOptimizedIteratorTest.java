@@ -33,7 +33,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -74,7 +77,9 @@ import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.InputColumn;
+import io.crate.execution.engine.collect.collectors.LeafPartition;
 import io.crate.lucene.LuceneQueryBuilder;
+import io.crate.memory.MemoryManager;
 import io.crate.memory.OnHeapMemoryManager;
 import io.crate.metadata.IndexType;
 import io.crate.metadata.NodeContext;
@@ -273,6 +278,66 @@ public class GroupByOptimizedIteratorTest extends CrateDummyClusterServiceUnitTe
         assertThat(expectedException).isInstanceOf(IllegalStateException.class);
     }
 
+    @Test
+    public void test_partitions_are_aggregated_with_their_own_memory_manager() throws Exception {
+        IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        int numDocs = LeafPartition.MIN_DOCS_PER_PARTITION * 2 + 10;
+        for (int i = 0; i < numDocs; i++) {
+            Document doc = new Document();
+            doc.add(new SortedSetDocValuesField(columnName, new BytesRef("val_" + (i % 10))));
+            iw.addDocument(doc);
+        }
+        iw.commit();
+        IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+
+        List<MemoryManager> memoryManagers = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            BatchIterator<Row> it = GroupByOptimizedIterator.getIterator(
+                BigArrays.NON_RECYCLING_INSTANCE,
+                indexSearcher,
+                columnName,
+                () -> {
+                    MemoryManager memoryManager = new OnHeapMemoryManager(usedBytes -> {});
+                    memoryManagers.add(memoryManager);
+                    RowCollectExpression expression = new RowCollectExpression(0);
+                    return new GroupByOptimizedIterator.GroupingContext(
+                        aggregationContexts,
+                        List.of(),
+                        List.of(expression),
+                        new InputRow(List.of(expression)),
+                        RamAccounting.NO_ACCOUNTING,
+                        memoryManager,
+                        new CollectorContext(() -> null)
+                    );
+                },
+                Version.CURRENT,
+                new MatchAllDocsQuery(),
+                AggregateMode.ITER_FINAL,
+                executor,
+                () -> 4
+            );
+            List<Object[]> rows = it.map(Row::materialize).toList().get(10, TimeUnit.SECONDS);
+
+            assertThat(memoryManagers)
+                .as("Each partition must use its own memory manager")
+                .hasSizeGreaterThan(1)
+                .doesNotHaveDuplicates();
+            assertThat(rows).hasSize(10);
+            long totalCount = 0;
+            for (Object[] row : rows) {
+                totalCount += (long) row[1];
+            }
+            assertThat(totalCount).isEqualTo(numDocs);
+            it.close();
+        } finally {
+            executor.shutdownNow();
+            for (MemoryManager memoryManager : memoryManagers) {
+                memoryManager.close();
+            }
+        }
+    }
+
     private Throwable stopOnInterrupting(Consumer<BatchIterator<Row>> interrupt) throws Exception {
         CountDownLatch waitForLoadNextBatch = new CountDownLatch(1);
         CountDownLatch pauseOnDocumentCollecting = new CountDownLatch(1);
@@ -0,0 +1,104 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.Test;
+
+public class LeafPartitionTest {
+
+    @Test
+    public void test_partitions_cover_all_documents_exactly_once() throws Exception {
+        IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE);
+        List<Long> expected = new ArrayList<>();
+        try (IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), config)) {
+            long value = 0;
+            for (int numDocs : List.of(50, 3, 120, 7)) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document doc = new Document();
+                    doc.add(new NumericDocValuesField("x", value));
+                    iw.addDocument(doc);
+                    expected.add(value);
+                    value++;
+                }
+                iw.commit();
+            }
+            try (DirectoryReader reader = DirectoryReader.open(iw)) {
+                List<LeafReaderContext> leaves = reader.leaves();
+                assertThat(leaves).hasSize(4);
+
+                List<List<LeafPartition>> partitions = LeafPartition.partition(leaves, 4, 10);
+                assertThat(partitions).hasSize(4);
+                for (List<LeafPartition> partition : partitions) {
+                    int numDocs = partition.stream().mapToInt(p -> p.maxDoc() - p.minDoc()).sum();
+                    assertThat(numDocs).isBetween(1, 45);
+                }
+
+                List<Long> values = new ArrayList<>();
+                for (List<LeafPartition> partition : partitions) {
+                    for (LeafPartition leafPartition : partition) {
+                        NumericDocValues docs = leafPartition.leaf().reader().getNumericDocValues("x");
+                        for (int doc = leafPartition.firstDoc(docs);
+                             doc < leafPartition.maxDoc();
+                             doc = docs.nextDoc()) {
+                            values.add(docs.longValue());
+                        }
+                    }
+                }
+                assertThat(values).containsExactlyElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    public void test_small_shards_are_not_partitioned() throws Exception {
+        try (IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()))) {
+            for (int i = 0; i < 20; i++) {
+                iw.addDocument(new Document());
+            }
+            iw.commit();
+            try (DirectoryReader reader = DirectoryReader.open(iw)) {
+                List<List<LeafPartition>> partitions = LeafPartition.partition(reader.leaves(), 4, 100);
+                assertThat(partitions).hasSize(1);
+                assertThat(partitions.get(0)).containsExactly(
+                    new LeafPartition(reader.leaves().get(0), 0, 20)
+                );
+                assertThat(LeafPartition.partition(List.of(), 4, 100)).isEmpty();
+            }
+        }
+    }
+}
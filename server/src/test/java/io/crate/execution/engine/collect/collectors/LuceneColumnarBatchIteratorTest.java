@@ -0,0 +1,298 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.columnar.ColumnBatchFilter;
+import io.crate.data.columnar.FilteringColumnarBatchIterator;
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchIteratorTester.ResultOrder;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.exceptions.ArrayViaDocValuesUnsupportedException;
+import io.crate.expression.ColumnBatchFilters;
+import io.crate.expression.InputFactory;
+import io.crate.expression.RowFilter;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
+import io.crate.expression.operator.Operator;
+import io.crate.expression.reference.doc.lucene.CollectorContext;
+import io.crate.expression.reference.doc.lucene.DoubleColumnReference;
+import io.crate.expression.reference.doc.lucene.LongColumnReference;
+import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.SearchPath;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.LongType;
+
+public class LuceneColumnarBatchIteratorTest extends ESTestCase {
+
+    private static final int NUM_DOCS = 3000;
+
+    private static final List<LuceneColumnarBatchIterator.Column> COLUMNS = List.of(
+        new LuceneColumnarBatchIterator.Column("x", LongType.ID),
+        new LuceneColumnarBatchIterator.Column("d", DoubleType.ID)
+    );
+
+    private NodeContext nodeCtx;
+    private IndexWriter indexWriter;
+    private IndexSearcher indexSearcher;
+
+    /**
+     * Creates several segments with the columns x (long) and d (double).
+     * x is null for every 7th document, every 5th document is deleted.
+     */
+    @Before
+    public void prepareSearcher() throws Exception {
+        nodeCtx = createNodeContext();
+        IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer())
+            .setMergePolicy(NoMergePolicy.INSTANCE);
+        indexWriter = new IndexWriter(new ByteBuffersDirectory(), config);
+        for (int i = 0; i < NUM_DOCS; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+            if (i % 7 != 0) {
+                doc.add(new NumericDocValuesField("x", i - 1000));
+            }
+            doc.add(new NumericDocValuesField("d", NumericUtils.doubleToSortableLong(i * 0.5)));
+            indexWriter.addDocument(doc);
+            if (i % 1000 == 999) {
+                indexWriter.commit();
+            }
+        }
+        for (int i = 0; i < NUM_DOCS; i += 5) {
+            indexWriter.deleteDocuments(new Term("id", Integer.toString(i)));
+        }
+        indexWriter.commit();
+        indexSearcher = new IndexSearcher(DirectoryReader.open(indexWriter));
+    }
+
+    @After
+    public void closeWriter() throws Exception {
+        indexSearcher.getIndexReader().close();
+        indexWriter.close();
+    }
+
+    private static List<Object[]> expectedRows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < NUM_DOCS; i++) {
+            if (i % 5 != 0) {
+                rows.add(new Object[] { i % 7 == 0 ? null : (long) (i - 1000), i * 0.5 });
+            }
+        }
+        return rows;
+    }
+
+    private LuceneColumnarBatchIterator columnarIterator() {
+        return new LuceneColumnarBatchIterator(indexSearcher, new MatchAllDocsQuery(), COLUMNS);
+    }
+
+    private List<Object[]> rowBasedRows() throws Exception {
+        List<LuceneCollectorExpression<?>> expressions = List.of(
+            new LongColumnReference("x"),
+            new DoubleColumnReference("d")
+        );
+        var it = new LuceneBatchIterator(
+            indexSearcher,
+            new MatchAllDocsQuery(),
+            null,
+            false,
+            new CollectorContext(() -> null),
+            expressions,
+            expressions
+        );
+        return consume(it);
+    }
+
+    private static List<Object[]> consume(BatchIterator<Row> it) throws Exception {
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(it, null);
+        return consumer.getResult();
+    }
+
+    private Function operator(String name, Symbol left, Symbol right) {
+        List<Symbol> arguments = List.of(left, right);
+        var signature = nodeCtx.functions()
+            .get(null, name, arguments, SearchPath.pathWithPGCatalogAndDoc())
+            .signature();
+        return new Function(signature, arguments, Operator.RETURN_TYPE);
+    }
+
+    @Test
+    public void test_batch_iterator_behaviour() throws Exception {
+        var tester = BatchIteratorTester.forRows(this::columnarIterator, ResultOrder.EXACT);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedRows());
+    }
+
+    @Test
+    public void test_skips_deleted_docs_and_reads_nulls_like_row_based_iterator() throws Exception {
+        List<Object[]> rows = consume(columnarIterator());
+        assertThat(rows).hasSize(NUM_DOCS - NUM_DOCS / 5);
+        assertThat(rows).containsExactlyElementsOf(rowBasedRows());
+        assertThat(rows).containsExactlyElementsOf(expectedRows());
+    }
+
+    @Test
+    public void test_reads_batches_of_at_most_batch_size() throws Exception {
+        var it = columnarIterator();
+        int numRows = 0;
+        int numBatches = 0;
+        while (it.moveNextBatch()) {
+            assertThat(it.currentBatch().size()).isBetween(1, LuceneColumnarBatchIterator.BATCH_SIZE);
+            numRows += it.currentBatch().size();
+            numBatches++;
+        }
+        assertThat(numRows).isEqualTo(NUM_DOCS - NUM_DOCS / 5);
+        // a batch doesn't span segments
+        assertThat(numBatches).isGreaterThanOrEqualTo(indexSearcher.getIndexReader().leaves().size());
+    }
+
+    @Test
+    public void test_multi_valued_field_raises_array_via_doc_values_unsupported() throws Exception {
+        try (IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()))) {
+            Document doc = new Document();
+            doc.add(new SortedNumericDocValuesField("x", 1L));
+            doc.add(new SortedNumericDocValuesField("x", 2L));
+            doc.add(new NumericDocValuesField("d", NumericUtils.doubleToSortableLong(1.0)));
+            iw.addDocument(doc);
+            iw.commit();
+            try (DirectoryReader reader = DirectoryReader.open(iw)) {
+                var it = new LuceneColumnarBatchIterator(new IndexSearcher(reader), new MatchAllDocsQuery(), COLUMNS);
+                assertThatThrownBy(it::moveNextBatch)
+                    .isExactlyInstanceOf(ArrayViaDocValuesUnsupportedException.class);
+            }
+        }
+    }
+
+    @Test
+    public void test_kill_within_batch_raises_on_next_row() throws Exception {
+        var it = columnarIterator();
+        for (int i = 0; i < 10; i++) {
+            assertThat(it.moveNext()).isTrue();
+        }
+        InterruptedException killed = new InterruptedException("killed");
+        it.kill(killed);
+        assertThatThrownBy(it::moveNext).isSameAs(killed);
+        assertThatThrownBy(it::moveNextBatch).isSameAs(killed);
+    }
+
+    @Test
+    public void test_move_to_start_within_batch_restarts_from_first_row() throws Exception {
+        var it = columnarIterator();
+        int numRows = LuceneColumnarBatchIterator.BATCH_SIZE + 10;
+        for (int i = 0; i < numRows; i++) {
+            assertThat(it.moveNext()).isTrue();
+        }
+        it.moveToStart();
+        assertThat(consume(it)).containsExactlyElementsOf(expectedRows());
+
+        var batchIt = columnarIterator();
+        assertThat(batchIt.moveNextBatch()).isTrue();
+        batchIt.moveToStart();
+        assertThat(consume(batchIt)).containsExactlyElementsOf(expectedRows());
+    }
+
+    @Test
+    public void test_each_filter_kind_matches_row_based_filter() throws Exception {
+        InputColumn x = new InputColumn(0, DataTypes.LONG);
+        InputColumn d = new InputColumn(1, DataTypes.DOUBLE);
+        List<Symbol> filters = List.of(
+            operator(EqOperator.NAME, x, Literal.of(42L)),
+            operator(LtOperator.NAME, x, Literal.of(0L)),
+            operator(LteOperator.NAME, x, Literal.of(0L)),
+            operator(GtOperator.NAME, x, Literal.of(500L)),
+            operator(GteOperator.NAME, x, Literal.of(500L)),
+            operator(GtOperator.NAME, Literal.of(-200L), x),
+            operator(EqOperator.NAME, d, Literal.of(100.5)),
+            operator(LtOperator.NAME, d, Literal.of(300.0)),
+            operator(GteOperator.NAME, d, Literal.of(1200.0)),
+            operator(EqOperator.NAME, x, Literal.of(DataTypes.LONG, null)),
+            AndOperator.of(
+                operator(GtOperator.NAME, x, Literal.of(-500L)),
+                operator(LteOperator.NAME, d, Literal.of(1000.0))
+            ),
+            Literal.BOOLEAN_TRUE,
+            Literal.BOOLEAN_FALSE
+        );
+        List<Object[]> allRows = rowBasedRows();
+        InputFactory inputFactory = new InputFactory(nodeCtx);
+        for (Symbol filter : filters) {
+            Predicate<Row> rowFilter = RowFilter.create(
+                CoordinatorTxnCtx.systemTransactionContext(), inputFactory, filter);
+            List<Object[]> expected = allRows.stream()
+                .filter(cells -> rowFilter.test(new RowN(cells)))
+                .toList();
+
+            ColumnBatchFilter batchFilter = ColumnBatchFilters.compile(filter);
+            assertThat(batchFilter).as(filter.toString()).isNotNull();
+            List<Object[]> rows = consume(new FilteringColumnarBatchIterator(columnarIterator(), batchFilter));
+            assertThat(rows).as(filter.toString()).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    public void test_unsupported_filters_are_not_compiled() throws Exception {
+        InputColumn x = new InputColumn(0, DataTypes.LONG);
+        InputColumn y = new InputColumn(1, DataTypes.LONG);
+        assertThat(ColumnBatchFilters.compile(operator(EqOperator.NAME, x, y))).isNull();
+        assertThat(ColumnBatchFilters.compile(x)).isNull();
+    }
+}
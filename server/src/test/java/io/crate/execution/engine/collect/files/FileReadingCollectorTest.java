@@ -53,6 +53,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
+import io.crate.execution.engine.compress.ParallelCompressingOutputStream;
 
 public class FileReadingCollectorTest extends ESTestCase {
     private static ThreadPool THREAD_POOL;
@@ -157,6 +158,25 @@ public class FileReadingCollectorTest extends ESTestCase {
         assertThat(result).containsExactly(expectedResult(tmpFileGz));
     }
 
+    @Test
+    public void test_collect_from_lz4_compressed() throws Throwable {
+        Path file = createTempDir().resolve("lines.json.lz4");
+        try (var writer = new OutputStreamWriter(
+                ParallelCompressingOutputStream.lz4(Files.newOutputStream(file), Runnable::run, 64 * 1024, 1),
+                StandardCharsets.UTF_8)) {
+            writer.write(line1);
+            writer.write("\n");
+            writer.write(line2);
+            writer.write("\n");
+        }
+        URI uri = fileToURI(file.toFile());
+        List<LineCursor> result = collect(Collections.singletonList(uri.toString()), "lz4");
+        assertThat(result).containsExactly(
+            new LineCursor(uri, 1, line1, null),
+            new LineCursor(uri, 2, line2, null)
+        );
+    }
+
     @Test
     public void testCollectWithEmptyLine() throws Throwable {
         List<LineCursor> result = collect(fileToURI(tmpFileEmptyLine).toString());
@@ -38,12 +38,14 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.elasticsearch.common.settings.Settings;
@@ -56,9 +58,13 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import io.crate.data.BatchIterator;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.testing.BatchIteratorTester;
 import io.crate.data.testing.BatchIteratorTester.ResultOrder;
+import io.crate.execution.engine.collect.files.FileReadingIterator.FileSplit;
 import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
+import io.crate.execution.engine.parquet.ParquetWriter;
+import io.crate.types.DataTypes;
 
 public class FileReadingIteratorTest extends ESTestCase {
 
@@ -273,4 +279,168 @@ public class FileReadingIteratorTest extends ESTestCase {
                 assertThat(fi.currentElement().line()).isEqualTo("4");
             });
     }
+
+    @Test
+    public void test_files_larger_than_split_size_are_split_into_byte_ranges() {
+        URI uri = URI.create("file:///tmp/data.json");
+        assertThat(FileReadingIterator.splits(uri, 100, -1)).containsExactly(FileSplit.wholeFile(uri));
+        assertThat(FileReadingIterator.splits(uri, 100, 100)).containsExactly(FileSplit.wholeFile(uri));
+        assertThat(FileReadingIterator.splits(uri, 100, 40)).containsExactly(
+            new FileSplit(uri, 0, 0, 40),
+            new FileSplit(uri, 1, 40, 80),
+            new FileSplit(uri, 2, 80, 100)
+        );
+    }
+
+    @Test
+    public void test_splits_are_read_by_multiple_threads_exactly_once() throws Exception {
+        Path tempFile = createTempFile("tempfile", ".json");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            lines.add("{\"id\": " + i + ", \"name\": \"" + "x".repeat(i % 13) + "\"}");
+        }
+        Files.write(tempFile, lines);
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        for (long splitSize : List.of(7L, 64L, 1000L)) {
+            List<String> result = new ArrayList<>();
+            for (List<String> threadLines : readWithThreads(fileUris, 3, splitSize, false)) {
+                result.addAll(threadLines);
+            }
+            assertThat(result).containsExactlyInAnyOrderElementsOf(lines);
+        }
+    }
+
+    @Test
+    public void test_split_lines_are_preceded_by_header_line_of_file() throws Exception {
+        Path tempFile = createTempFile("tempfile", ".csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("id,name");
+        for (int i = 0; i < 100; i++) {
+            lines.add(i + ",name" + i);
+        }
+        Files.write(tempFile, lines);
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        List<String> dataLines = new ArrayList<>();
+        for (List<String> threadLines : readWithThreads(fileUris, 4, 100, true)) {
+            assertThat(threadLines).isNotEmpty();
+            assertThat(threadLines.get(0)).isEqualTo("id,name");
+            dataLines.addAll(threadLines.subList(1, threadLines.size()));
+        }
+        assertThat(dataLines).containsExactlyInAnyOrderElementsOf(lines.subList(1, lines.size()));
+    }
+
+    @Test
+    public void test_parquet_row_groups_are_read_by_multiple_threads_exactly_once() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        try (var writer = new ParquetWriter(
+                Files.newOutputStream(file),
+                List.of("id", "name"),
+                List.of(DataTypes.INTEGER, DataTypes.STRING),
+                null,
+                1024)) {
+            for (int i = 0; i < 1000; i++) {
+                writer.write(new Object[] {i, "name-" + i});
+            }
+        }
+        List<Object> ids = new ArrayList<>();
+        int numThreads = 3;
+        for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
+            var it = new FileReadingIterator(
+                List.of(file.toUri()),
+                null,
+                Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                false,
+                1,
+                0,
+                numThreads,
+                threadNumber,
+                1024,
+                uri -> false,
+                uri -> true,
+                List.of("id"),
+                RamAccounting.NO_ACCOUNTING,
+                Settings.EMPTY,
+                THREAD_POOL.scheduler()
+            );
+            List<LineCursor> cursors = it.map(LineCursor::copy).toList().get(5, TimeUnit.SECONDS);
+            assertThat(cursors).isNotEmpty();
+            for (LineCursor cursor : cursors) {
+                assertThat(cursor.line()).isNull();
+                assertThat(cursor.record()).containsOnlyKeys("id");
+                int id = (int) cursor.record().get("id");
+                assertThat(cursor.lineNumber()).isEqualTo(id + 1L);
+                ids.add(id);
+            }
+        }
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 1000).boxed().toList());
+    }
+
+    @Test
+    public void test_splits_are_read_exactly_once_by_nodes_with_different_numbers_of_threads() throws Exception {
+        Path tempFile = createTempFile("tempfile", ".json");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            lines.add("{\"id\": " + i + "}");
+        }
+        Files.write(tempFile, lines);
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        List<String> result = new ArrayList<>();
+        int[] numThreadsOfNodes = new int[] { 2, 3, 5 };
+        for (int readerNumber = 0; readerNumber < numThreadsOfNodes.length; readerNumber++) {
+            List<List<String>> nodeLines = readWithThreads(
+                fileUris,
+                true,
+                numThreadsOfNodes.length,
+                readerNumber,
+                numThreadsOfNodes[readerNumber],
+                64,
+                false
+            );
+            for (List<String> threadLines : nodeLines) {
+                result.addAll(threadLines);
+            }
+        }
+        assertThat(result).containsExactlyInAnyOrderElementsOf(lines);
+    }
+
+    private static List<List<String>> readWithThreads(List<URI> fileUris,
+                                                      int numThreads,
+                                                      long splitSize,
+                                                      boolean hasHeaderLine) throws Exception {
+        return readWithThreads(fileUris, false, 1, 0, numThreads, splitSize, hasHeaderLine);
+    }
+
+    private static List<List<String>> readWithThreads(List<URI> fileUris,
+                                                      boolean sharedStorage,
+                                                      int numReaders,
+                                                      int readerNumber,
+                                                      int numThreads,
+                                                      long splitSize,
+                                                      boolean hasHeaderLine) throws Exception {
+        List<List<String>> result = new ArrayList<>();
+        for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
+            var it = new FileReadingIterator(
+                fileUris,
+                null,
+                Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                sharedStorage,
+                numReaders,
+                readerNumber,
+                numThreads,
+                threadNumber,
+                splitSize,
+                uri -> hasHeaderLine,
+                uri -> false,
+                List.of(),
+                RamAccounting.NO_ACCOUNTING,
+                Settings.EMPTY,
+                THREAD_POOL.scheduler()
+            );
+            result.add(it.map(LineCursor::line).toList().get(5, TimeUnit.SECONDS));
+        }
+        return result;
+    }
 }
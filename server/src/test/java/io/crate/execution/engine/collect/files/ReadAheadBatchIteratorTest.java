@@ -0,0 +1,136 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.crate.breaker.TypedCellsAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchIteratorTester.ResultOrder;
+import io.crate.data.testing.TestingBatchIterators;
+import io.crate.execution.engine.sort.IgnoreRowCellsAccounting;
+import io.crate.testing.PlainRamAccounting;
+import io.crate.types.DataTypes;
+
+public class ReadAheadBatchIteratorTest {
+
+    private static final List<Object[]> EXPECTED = IntStream.range(0, 10)
+        .mapToObj(i -> new Object[] { i })
+        .toList();
+
+    private final ExecutorService readExecutor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void shutdownReadExecutor() throws Exception {
+        readExecutor.shutdownNow();
+        assertThat(readExecutor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void test_read_ahead_batch_iterator() throws Exception {
+        var tester = BatchIteratorTester.forRows(
+            () -> new ReadAheadBatchIterator(TestingBatchIterators.range(0, 10), 3, new IgnoreRowCellsAccounting()),
+            ResultOrder.EXACT
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(EXPECTED);
+    }
+
+    @Test
+    public void test_read_ahead_batch_iterator_with_read_executor() throws Exception {
+        var tester = BatchIteratorTester.forRows(
+            () -> new ReadAheadBatchIterator(
+                TestingBatchIterators.range(0, 10),
+                3,
+                new IgnoreRowCellsAccounting(),
+                readExecutor),
+            ResultOrder.EXACT
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(EXPECTED);
+    }
+
+    @Test
+    public void test_buffered_rows_are_accounted_until_the_next_batch_is_read() throws Exception {
+        PlainRamAccounting ramAccounting = new PlainRamAccounting();
+        var it = new ReadAheadBatchIterator(
+            TestingBatchIterators.range(0, 10),
+            3,
+            new TypedCellsAccounting(List.of(DataTypes.INTEGER), ramAccounting, 0)
+        );
+        it.loadNextBatch().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        long bytesOfBatch = ramAccounting.totalBytes();
+        assertThat(bytesOfBatch).isGreaterThan(0L);
+
+        int numRows = 0;
+        while (it.moveNext()) {
+            numRows++;
+        }
+        assertThat(numRows).isEqualTo(3);
+        it.loadNextBatch().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertThat(ramAccounting.totalBytes()).isEqualTo(bytesOfBatch);
+
+        it.close();
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_rows_are_read_on_the_read_executor() throws Exception {
+        Thread readThread = CompletableFuture.supplyAsync(Thread::currentThread, readExecutor).get(5, TimeUnit.SECONDS);
+        List<Thread> readingThreads = new ArrayList<>();
+        BatchIterator<Row> source = new ForwardingBatchIterator<>() {
+
+            final BatchIterator<Row> delegate = TestingBatchIterators.range(0, 10);
+
+            @Override
+            protected BatchIterator<Row> delegate() {
+                return delegate;
+            }
+
+            @Override
+            public boolean moveNext() {
+                readingThreads.add(Thread.currentThread());
+                return super.moveNext();
+            }
+        };
+        var it = new ReadAheadBatchIterator(source, 3, new IgnoreRowCellsAccounting(), readExecutor);
+        List<Object[]> rows = it.toList().get(5, TimeUnit.SECONDS);
+
+        assertThat(rows).containsExactlyElementsOf(EXPECTED);
+        assertThat(readingThreads).isNotEmpty().containsOnly(readThread);
+        it.close();
+        assertThat(readExecutor.isShutdown()).isFalse();
+    }
+}
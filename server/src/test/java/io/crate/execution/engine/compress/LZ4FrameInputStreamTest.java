@@ -0,0 +1,141 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.compress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class LZ4FrameInputStreamTest extends ESTestCase {
+
+    private static String read(byte[] frames) throws IOException {
+        try (var in = new LZ4FrameInputStream(new ByteArrayInputStream(frames))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void writeHeader(ByteArrayOutputStream out, int flags) {
+        byte[] header = new byte[7];
+        LZ4Frame.writeIntLE(header, 0, LZ4Frame.MAGIC);
+        header[4] = (byte) flags;
+        header[5] = 0x40;
+        header[6] = (byte) LZ4Frame.headerChecksum(header, 4, 2);
+        out.writeBytes(header);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        byte[] bytes = new byte[4];
+        LZ4Frame.writeIntLE(bytes, 0, value);
+        out.writeBytes(bytes);
+    }
+
+    @Test
+    public void test_xxhash32() throws Exception {
+        byte[] bytes = "Nobody inspects the spammish repetition".getBytes(StandardCharsets.UTF_8);
+        assertThat(XXHash32.hash(bytes, 0, 0, 0)).isEqualTo(0x02CC5D05);
+        assertThat(XXHash32.hash(bytes, 0, bytes.length, 0)).isEqualTo(0xE2293B2F);
+
+        XXHash32 hash = new XXHash32(0);
+        hash.update(bytes, 0, 3);
+        hash.update(bytes, 3, 20);
+        hash.update(bytes, 23, bytes.length - 23);
+        assertThat(hash.value()).isEqualTo(0xE2293B2F);
+    }
+
+    @Test
+    public void test_reads_empty_frame_of_lz4_cli() throws Exception {
+        byte[] frame = new byte[] {
+            0x04, 0x22, 0x4D, 0x18, 0x64, 0x40, (byte) 0xA7, 0, 0, 0, 0, 0x05, 0x5D, (byte) 0xCC, 0x02
+        };
+        assertThat(read(frame)).isEmpty();
+    }
+
+    @Test
+    public void test_reads_dependent_blocks_and_concatenated_frames() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, LZ4Frame.VERSION << 6);
+        writeInt(out, 8 | LZ4Frame.UNCOMPRESSED_BLOCK);
+        out.writeBytes("abcdefgh".getBytes(StandardCharsets.UTF_8));
+        // match of 8 bytes referring to the previous block, followed by 5 literals
+        writeInt(out, 9);
+        out.writeBytes(new byte[] { 0x04, 0x08, 0x00, 0x50, 'x', 'y', 'z', '1', '2' });
+        writeInt(out, 0);
+
+        // skippable frame with 3 bytes of user data
+        writeInt(out, LZ4Frame.SKIPPABLE_MAGIC + 1);
+        writeInt(out, 3);
+        out.writeBytes(new byte[3]);
+
+        byte[] hello = "hello".getBytes(StandardCharsets.UTF_8);
+        writeHeader(out, (LZ4Frame.VERSION << 6) | LZ4Frame.FLAG_BLOCK_INDEPENDENCE | LZ4Frame.FLAG_CONTENT_CHECKSUM);
+        writeInt(out, hello.length | LZ4Frame.UNCOMPRESSED_BLOCK);
+        out.writeBytes(hello);
+        writeInt(out, 0);
+        writeInt(out, XXHash32.hash(hello, 0, hello.length, 0));
+
+        assertThat(read(out.toByteArray())).isEqualTo("abcdefghabcdefghxyz12hello");
+    }
+
+    @Test
+    public void test_content_checksum_mismatch_raises_error() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, (LZ4Frame.VERSION << 6) | LZ4Frame.FLAG_BLOCK_INDEPENDENCE | LZ4Frame.FLAG_CONTENT_CHECKSUM);
+        writeInt(out, 2 | LZ4Frame.UNCOMPRESSED_BLOCK);
+        out.writeBytes(new byte[] { 'o', 'k' });
+        writeInt(out, 0);
+        writeInt(out, 42);
+        assertThatThrownBy(() -> read(out.toByteArray()))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Invalid LZ4 frame: content checksum mismatch");
+    }
+
+    @Test
+    public void test_invalid_input_raises_error() throws Exception {
+        assertThatThrownBy(() -> read("{\"x\": 1}\n".getBytes(StandardCharsets.UTF_8)))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Input is not in the LZ4 frame format");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, (LZ4Frame.VERSION << 6) | LZ4Frame.FLAG_BLOCK_INDEPENDENCE);
+        byte[] corruptHeader = out.toByteArray();
+        corruptHeader[6]++;
+        assertThatThrownBy(() -> read(corruptHeader))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Invalid LZ4 frame: header checksum mismatch");
+
+        // match offset pointing before the start of the block
+        writeInt(out, 9);
+        out.writeBytes(new byte[] { 0x04, 0x08, 0x00, 0x50, 'x', 'y', 'z', '1', '2' });
+        writeInt(out, 0);
+        assertThatThrownBy(() -> read(out.toByteArray()))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Malformed LZ4 input: match offset out of range");
+    }
+}
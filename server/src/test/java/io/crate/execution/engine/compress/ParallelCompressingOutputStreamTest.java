@@ -0,0 +1,204 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.compress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelCompressingOutputStreamTest extends ESTestCase {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @After
+    public void shutdownExecutor() throws Exception {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static byte[] lines(int numLines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numLines; i++) {
+            sb.append("{\"id\": ").append(i).append(", \"name\": \"name-").append(i % 13).append("\"}\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeInChunks(OutputStream out, byte[] data) throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            int length = Math.min(data.length - offset, randomIntBetween(1, 4096));
+            if (length == 1) {
+                out.write(data[offset]);
+            } else {
+                out.write(data, offset, length);
+            }
+            offset += length;
+        }
+    }
+
+    @Test
+    public void test_gzip_blocks_form_a_single_gzip_stream() throws Exception {
+        byte[] data = lines(20_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var compressing = ParallelCompressingOutputStream.gzip(out, executor, 16 * 1024, 2)) {
+            writeInChunks(compressing, data);
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(data);
+        }
+        assertThat(out.size()).isLessThan(data.length / 4);
+    }
+
+    @Test
+    public void test_lz4_frame_round_trip() throws Exception {
+        byte[] compressible = lines(20_000);
+        byte[] random = randomByteArrayOfLength(300_000);
+        for (byte[] data : new byte[][] { compressible, random }) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (var compressing = ParallelCompressingOutputStream.lz4(out, executor, 64 * 1024, 3)) {
+                writeInChunks(compressing, data);
+            }
+            try (InputStream in = new LZ4FrameInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                assertThat(in.readAllBytes()).isEqualTo(data);
+            }
+        }
+    }
+
+    @Test
+    public void test_empty_stream_results_in_valid_compressed_file() throws Exception {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        ParallelCompressingOutputStream.gzip(gzip, executor, 1024, 1).close();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.toByteArray()))) {
+            assertThat(in.read()).isEqualTo(-1);
+        }
+
+        ByteArrayOutputStream lz4 = new ByteArrayOutputStream();
+        ParallelCompressingOutputStream.lz4(lz4, executor, 1024, 1).close();
+        assertThat(lz4.size()).isEqualTo(11);
+        try (InputStream in = new LZ4FrameInputStream(new ByteArrayInputStream(lz4.toByteArray()))) {
+            assertThat(in.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    public void test_flush_writes_all_buffered_data() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        var compressing = ParallelCompressingOutputStream.gzip(out, executor, 1024 * 1024, 4);
+        compressing.write("foo\n".getBytes(StandardCharsets.UTF_8));
+        compressing.flush();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("foo\n");
+        }
+        compressing.close();
+        assertThatThrownBy(() -> compressing.write(1))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Stream is closed");
+    }
+
+    @Test
+    public void test_blocks_are_reused_once_written() throws Exception {
+        Set<byte[]> blocks = Collections.newSetFromMap(new IdentityHashMap<>());
+        ParallelCompressingOutputStream.BlockCodec recording = new ParallelCompressingOutputStream.BlockCodec() {
+
+            @Override
+            public void writeHeader(OutputStream out) {
+            }
+
+            @Override
+            public byte[] compress(byte[] data, int length) {
+                synchronized (blocks) {
+                    blocks.add(data);
+                }
+                return Arrays.copyOf(data, length);
+            }
+
+            @Override
+            public void writeTrailer(OutputStream out) {
+            }
+        };
+        byte[] data = randomByteArrayOfLength(100 * 1024);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var compressing = new ParallelCompressingOutputStream(out, recording, executor, 1024, 2)) {
+            writeInChunks(compressing, data);
+        }
+        assertThat(out.toByteArray()).isEqualTo(data);
+        // 2 pending blocks and the one being filled
+        assertThat(blocks).hasSizeLessThanOrEqualTo(3);
+    }
+
+    @Test
+    public void test_pending_bytes_include_blocks_which_are_not_written_yet() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        var compressing = ParallelCompressingOutputStream.gzip(out, executor, 1024, 4);
+        compressing.write(new byte[2500]);
+        assertThat(compressing.pendingBytes()).isEqualTo(2500L);
+        compressing.flush();
+        assertThat(compressing.pendingBytes()).isEqualTo(0L);
+        compressing.close();
+    }
+
+    @Test
+    public void test_compression_failure_is_raised_to_writer() throws Exception {
+        ParallelCompressingOutputStream.BlockCodec failing = new ParallelCompressingOutputStream.BlockCodec() {
+
+            @Override
+            public void writeHeader(OutputStream out) {
+            }
+
+            @Override
+            public byte[] compress(byte[] data, int length) throws IOException {
+                throw new IOException("dummy");
+            }
+
+            @Override
+            public void writeTrailer(OutputStream out) {
+            }
+        };
+        var compressing = new ParallelCompressingOutputStream(new ByteArrayOutputStream(), failing, executor, 4, 1);
+        assertThatThrownBy(() -> {
+            try (compressing) {
+                compressing.write(new byte[16]);
+            }
+        }).isExactlyInstanceOf(IOException.class)
+            .hasMessage("dummy");
+    }
+}
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.StreamSupport;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -53,7 +54,7 @@ public class DistributedResultRequestTest extends ESTestCase {
         builder.add(new RowN(new Object[] {"cd"}));
         DistributedResultRequest r1 =
             DistributedResultRequest.of(
-                "dummyNodeId", uuid, 1, (byte) 3, 1, builder.build(), false
+                "dummyNodeId", uuid, 1, (byte) 3, 1, 2, builder.build(), false
             ).innerRequest();
 
         BytesStreamOutput out = new BytesStreamOutput();
@@ -64,6 +65,7 @@ public class DistributedResultRequestTest extends ESTestCase {
         assertThat(r2.readRows(streamers).size()).isEqualTo(r1.readRows(streamers).size());
         assertThat(r1.isLast()).isEqualTo(r2.isLast());
         assertThat(r1.executionPhaseInputId()).isEqualTo(r2.executionPhaseInputId());
+        assertThat(r2.pageIdx()).isEqualTo(2);
 
         Bucket result = r2.readRows(streamers);
         List<Object[]> rows = StreamSupport.stream(result.spliterator(), false)
@@ -76,6 +78,27 @@ public class DistributedResultRequestTest extends ESTestCase {
         );
     }
 
+    @Test
+    public void test_page_idx_is_unknown_if_sent_from_node_before_5_10() throws Exception {
+        Streamer<?>[] streamers = new Streamer[]{DataTypes.STRING.streamer()};
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, RamAccounting.NO_ACCOUNTING);
+        builder.add(new RowN(new Object[] {"ab"}));
+        DistributedResultRequest r1 = DistributedResultRequest.of(
+            "dummyNodeId", UUID.randomUUID(), 1, (byte) 0, 1, 3, builder.build(), true
+        ).innerRequest();
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(Version.V_5_9_0);
+        r1.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(Version.V_5_9_0);
+        DistributedResultRequest r2 = new DistributedResultRequest(in);
+
+        assertThat(r2.pageIdx()).isEqualTo(DistributedResultRequest.UNKNOWN_PAGE_IDX);
+        assertThat(r2.readRows(streamers).size()).isEqualTo(1);
+        assertThat(r2.isLast()).isTrue();
+    }
+
     @Test
     public void testStreamingOfFailure() throws Exception {
         UUID uuid = UUID.randomUUID();
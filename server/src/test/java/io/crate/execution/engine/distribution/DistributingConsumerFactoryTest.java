@@ -98,6 +98,7 @@ public class DistributingConsumerFactoryTest extends CrateDummyClusterServiceUni
         RowConsumer downstream = createDownstream(Set.of("downstream_node"));
         assertThat(downstream).isExactlyInstanceOf(DistributingConsumer.class);
         assertThat(((DistributingConsumer) downstream).multiBucketBuilder).isExactlyInstanceOf(BroadcastingBucketBuilder.class);
+        assertThat(((DistributingConsumer) downstream).pagesInFlight).isEqualTo(DistributingConsumerFactory.PAGES_IN_FLIGHT);
     }
 
     @Test
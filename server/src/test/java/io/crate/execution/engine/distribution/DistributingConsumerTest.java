@@ -28,6 +28,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -162,6 +163,107 @@ public class DistributingConsumerTest extends ESTestCase {
             .isExactlyInstanceOf(CircuitBreakingException.class);
     }
 
+    @Test
+    public void test_pipelined_consumer_sends_pages_in_flight_without_waiting_for_responses() throws Exception {
+        Streamer<?>[] streamers = { DataTypes.INTEGER.streamer() };
+        List<CompletableFuture<DistributedResultResponse>> responses = new ArrayList<>();
+        List<DistributedResultRequest> requests = new ArrayList<>();
+        DistributingConsumer distributingConsumer = new DistributingConsumer(
+            Runnable::run,
+            UUID.randomUUID(),
+            new ModuloBucketBuilder(streamers, 1, 0, RamAccounting.NO_ACCOUNTING),
+            1,
+            (byte) 0,
+            0,
+            Collections.singletonList("n1"),
+            req -> {
+                CompletableFuture<DistributedResultResponse> response = new CompletableFuture<>();
+                requests.add(req.innerRequest());
+                responses.add(response);
+                return response;
+            },
+            2, // pageSize
+            3  // pagesInFlight
+        );
+        distributingConsumer.accept(TestingBatchIterators.range(0, 9), null);
+
+        assertThat(requests).hasSize(3);
+        assertThat(requests).extracting(DistributedResultRequest::pageIdx).containsExactly(0, 1, 2);
+
+        responses.get(0).complete(new DistributedResultResponse(true));
+        assertThat(requests).hasSize(4);
+
+        responses.get(1).complete(new DistributedResultResponse(true));
+        assertThat(requests).hasSize(5);
+        assertThat(requests.get(4).isLast()).isTrue();
+        assertThat(distributingConsumer.completionFuture()).isNotDone();
+
+        for (int i = 2; i < responses.size(); i++) {
+            responses.get(i).complete(new DistributedResultResponse(i < 4));
+        }
+        assertThat(distributingConsumer.completionFuture()).isCompleted();
+    }
+
+    @Test
+    public void test_pipelined_consumer_stops_once_downstream_needs_no_more_data() throws Exception {
+        Streamer<?>[] streamers = { DataTypes.INTEGER.streamer() };
+        List<CompletableFuture<DistributedResultResponse>> responses = new ArrayList<>();
+        DistributingConsumer distributingConsumer = new DistributingConsumer(
+            Runnable::run,
+            UUID.randomUUID(),
+            new ModuloBucketBuilder(streamers, 1, 0, RamAccounting.NO_ACCOUNTING),
+            1,
+            (byte) 0,
+            0,
+            Collections.singletonList("n1"),
+            req -> {
+                CompletableFuture<DistributedResultResponse> response = new CompletableFuture<>();
+                responses.add(response);
+                return response;
+            },
+            2, // pageSize
+            2  // pagesInFlight
+        );
+        distributingConsumer.accept(TestingBatchIterators.range(0, 100), null);
+        assertThat(responses).hasSize(2);
+
+        responses.get(0).complete(new DistributedResultResponse(false));
+        assertThat(responses).hasSize(2);
+        assertThat(distributingConsumer.completionFuture()).isNotDone();
+
+        responses.get(1).complete(new DistributedResultResponse(true));
+        assertThat(responses).hasSize(2);
+        assertThat(distributingConsumer.completionFuture()).isCompleted();
+    }
+
+    @Test
+    public void test_send_pipelined_using_distributing_consumer_and_receive_with_dist_result_rx_task() throws Exception {
+        Streamer<?>[] streamers = {DataTypes.INTEGER.streamer()};
+        TestingRowConsumer collectingConsumer = new TestingRowConsumer();
+        DistResultRXTask distResultRXTask = createPageDownstreamContext(streamers, collectingConsumer);
+        TransportDistributedResultAction distributedResultAction = createFakeTransport(streamers, distResultRXTask);
+        DistributingConsumer distributingConsumer = new DistributingConsumer(
+            executorService,
+            UUID.randomUUID(),
+            new ModuloBucketBuilder(streamers, 1, 0, RamAccounting.NO_ACCOUNTING),
+            1,
+            (byte) 0,
+            0,
+            Collections.singletonList("n1"),
+            distributedResultAction::execute,
+            2, // pageSize
+            3  // pagesInFlight
+        );
+
+        BatchSimulatingIterator<Row> batchSimulatingIterator =
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 11), 3, 4, executorService);
+        distributingConsumer.accept(batchSimulatingIterator, null);
+
+        List<Object[]> result = collectingConsumer.getResult();
+        assertThat(result).extracting(row -> row[0]).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        verify(distributedResultAction, times(6)).execute(any());
+    }
+
     private DistributingConsumer createDistributingConsumer(Streamer<?>[] streamers, TransportDistributedResultAction distributedResultAction) {
         return new DistributingConsumer(
             executorService,
@@ -207,6 +309,7 @@ public class DistributingConsumerTest extends ESTestCase {
             if (throwable == null) {
                 bucketReceiver.setBucket(
                     resultRequest.bucketIdx(),
+                    resultRequest.pageIdx(),
                     resultRequest.readRows(streamers),
                     resultRequest.isLast(),
                     needMore -> result.complete(new DistributedResultResponse(needMore)));
@@ -77,7 +77,7 @@ public class TransportDistributedResultActionTest extends CrateDummyClusterServi
         assertThatThrownBy(() ->
             transportDistributedResultAction.nodeOperation(
                 DistributedResultRequest.of(
-                    "dummyNodeId", UUID.randomUUID(), 0, (byte) 0, 0, builder.build(), true
+                    "dummyNodeId", UUID.randomUUID(), 0, (byte) 0, 0, 0, builder.build(), true
                 ).innerRequest()
             ).get(5, TimeUnit.SECONDS))
             .as("nodeOperation call should fail with TaskMissing")
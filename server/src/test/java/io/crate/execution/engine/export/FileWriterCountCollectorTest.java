@@ -25,6 +25,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.net.URI;
 import java.nio.file.Path;
 
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -43,4 +44,14 @@ public class FileWriterCountCollectorTest extends ESTestCase {
             assertThat(xContentBuilder.generator().isEnabled(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)).isFalse();
         }
     }
+
+    @Test
+    public void test_part_uri_appends_index_before_extensions() throws Exception {
+        assertThat(FileWriterCountCollector.partUri(URI.create("file:///tmp/t1_0_.json.gz"), 1))
+            .isEqualTo(URI.create("file:///tmp/t1_0__1.json.gz"));
+        assertThat(FileWriterCountCollector.partUri(URI.create("s3://bucket/dir.v2/t1_3_04132.parquet"), 12))
+            .isEqualTo(URI.create("s3://bucket/dir.v2/t1_3_04132_12.parquet"));
+        assertThat(FileWriterCountCollector.partUri(URI.create("file:///tmp/out"), 2))
+            .isEqualTo(URI.create("file:///tmp/out_2"));
+    }
 }
@@ -25,8 +25,12 @@ import static io.crate.data.SentinelRow.SENTINEL;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +39,7 @@ import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.ESTestCase;
@@ -44,12 +49,18 @@ import org.junit.rules.TemporaryFolder;
 
 import io.crate.data.BatchIterator;
 import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.testing.RowGenerator;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.exceptions.UnhandledServerException;
 import io.crate.execution.dsl.projection.WriterProjection;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.execution.engine.compress.LZ4FrameInputStream;
+import io.crate.execution.engine.parquet.ParquetReader;
 import io.crate.testing.TestingHelpers;
+import io.crate.types.DataTypes;
 
 public class FileWriterProjectorTest extends ESTestCase {
 
@@ -67,8 +78,8 @@ public class FileWriterProjectorTest extends ESTestCase {
     public void testWriteRawToFile() throws Exception {
         Path file = createTempFile("out", "json");
 
-        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, file.toUri().toString(),
-            null, null, Set.of(),
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, executorService, file.toUri().toString(),
+            null, null, List.of(), Set.of(),
             null, WriterProjection.OutputFormat.JSON_OBJECT,
             Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
 
@@ -82,13 +93,99 @@ public class FileWriterProjectorTest extends ESTestCase {
             input line 04""");
     }
 
+    @Test
+    public void test_write_lz4_compressed_file() throws Exception {
+        Path file = createTempFile("out", "json.lz4");
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, executorService, file.toUri().toString(),
+            WriterProjection.CompressionType.LZ4, null, List.of(), Set.of(),
+            null, WriterProjection.OutputFormat.JSON_OBJECT,
+            Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
+
+        new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
+
+        try (var in = new LZ4FrameInputStream(Files.newInputStream(file))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("""
+                input line 00
+                input line 01
+                input line 02
+                input line 03
+                input line 04
+                """);
+        }
+    }
+
+    @Test
+    public void test_continues_in_next_file_once_max_file_size_is_reached() throws Exception {
+        Path directory = createTempDir();
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, executorService,
+            directory.resolve("out.json").toUri().toString(),
+            null, null, List.of(), Set.of(),
+            null, WriterProjection.OutputFormat.JSON_OBJECT,
+            Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()),
+            Settings.builder().put("max_file_size", "20b").build());
+
+        new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
+
+        // each line has 14 bytes, a file is full after the second line
+        assertThat(Files.readAllLines(directory.resolve("out.json"))).containsExactly("input line 00", "input line 01");
+        assertThat(Files.readAllLines(directory.resolve("out_1.json"))).containsExactly("input line 02", "input line 03");
+        assertThat(Files.readAllLines(directory.resolve("out_2.json"))).containsExactly("input line 04");
+        try (var files = Files.list(directory)) {
+            assertThat(files).hasSize(3);
+        }
+    }
+
+    @Test
+    public void test_max_file_size_includes_data_which_is_still_being_compressed() throws Exception {
+        Path directory = createTempDir();
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, executorService,
+            directory.resolve("out.json.gz").toUri().toString(),
+            WriterProjection.CompressionType.GZIP, null, List.of(), Set.of(),
+            null, WriterProjection.OutputFormat.JSON_OBJECT,
+            Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()),
+            Settings.builder().put("max_file_size", "20b").build());
+
+        new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
+
+        // the lines are still buffered for compression when the size is checked and count uncompressed
+        assertThat(readGzipLines(directory.resolve("out.json.gz"))).containsExactly("input line 00", "input line 01");
+        assertThat(readGzipLines(directory.resolve("out_1.json.gz"))).containsExactly("input line 02", "input line 03");
+        assertThat(readGzipLines(directory.resolve("out_2.json.gz"))).containsExactly("input line 04");
+    }
+
+    private static List<String> readGzipLines(Path file) throws IOException {
+        try (var in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+    @Test
+    public void test_write_parquet_to_file() throws Exception {
+        Path file = createTempFile("out", "parquet");
+        RowCollectExpression input = new RowCollectExpression(0);
+
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, executorService, file.toUri().toString(),
+            WriterProjection.CompressionType.GZIP, List.<Input<?>>of(input), List.of(DataTypes.STRING),
+            List.<CollectExpression<Row, ?>>of(input),
+            List.of("line"), WriterProjection.OutputFormat.PARQUET,
+            Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
+
+        new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
+
+        ParquetReader reader = ParquetReader.open(Files.readAllBytes(file));
+        assertThat(reader.numRows()).isEqualTo(5L);
+        ParquetReader.RecordReader records = reader.readRowGroup(0, List.of());
+        assertThat(records.nextRecord()).containsExactly(Map.entry("line", "input line 00"));
+        assertThat(records.nextRecord()).containsExactly(Map.entry("line", "input line 01"));
+    }
+
     @Test
     public void testDirectoryAsFile() throws Exception {
         Path directory = createTempDir();
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(
-                executorService, directory.toUri().toString(),
-                null, null, Set.of(),
+                executorService, executorService, directory.toUri().toString(),
+                null, null, List.of(), Set.of(),
                 null, WriterProjection.OutputFormat.JSON_OBJECT,
                 Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
         assertThatThrownBy(() -> new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null))
@@ -100,8 +197,8 @@ public class FileWriterProjectorTest extends ESTestCase {
     public void testFileAsDirectory() throws Exception {
         String uri = Paths.get(folder.newFile().toURI()).resolve("out.json").toUri().toString();
 
-        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, uri,
-                null, null, Set.of(),
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, executorService, uri,
+                null, null, List.of(), Set.of(),
                 null, WriterProjection.OutputFormat.JSON_OBJECT,
                 Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
 
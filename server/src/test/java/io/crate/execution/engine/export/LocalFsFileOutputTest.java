@@ -25,21 +25,40 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.io.BufferedOutputStream;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
 
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
+import io.crate.execution.dsl.projection.WriterProjection;
+
 public class LocalFsFileOutputTest extends ESTestCase {
 
     @Test
     public void testIsBufferedOutputStream() throws Exception {
         Path file = createTempFile("out", "json");
         LocalFsFileOutput localFsFileOutput = new LocalFsFileOutput(file.toUri());
-        try (OutputStream os = localFsFileOutput.acquireOutputStream(mock(Executor.class), null)) {
+        try (OutputStream os = localFsFileOutput.acquireOutputStream(mock(Executor.class))) {
             assertThat(os).isExactlyInstanceOf(BufferedOutputStream.class);
         }
     }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void test_deprecated_acquire_output_stream_compresses_the_output() throws Exception {
+        Path file = createTempFile("out", "json.gz");
+        LocalFsFileOutput localFsFileOutput = new LocalFsFileOutput(file.toUri());
+        try (OutputStream os = localFsFileOutput.acquireOutputStream(mock(Executor.class), WriterProjection.CompressionType.GZIP)) {
+            os.write("{\"x\": 1}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"x\": 1}\n");
+        }
+    }
 }
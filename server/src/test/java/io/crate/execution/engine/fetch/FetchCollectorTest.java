@@ -23,29 +23,158 @@ package io.crate.execution.engine.fetch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.test.ESTestCase.randomIntBetween;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.randomizedtesting.RandomizedRunner;
 
+import io.crate.Streamer;
+import io.crate.common.collections.BorrowedItem;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.distribution.StreamBucket;
+import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.types.DataTypes;
+
 @RunWith(RandomizedRunner.class)
 public class FetchCollectorTest {
 
     @Test
-    public void test_sequential_docs_ids() {
+    public void test_sequential_docs_ids_are_dense() {
         int start = randomIntBetween(0, Short.MAX_VALUE);
         IntArrayList sequential = new IntArrayList(10);
         for (int i = start; i < start + 10; i++) {
             sequential.add(i);
         }
-        assertThat(FetchCollector.isSequential(sequential)).isTrue();
+        assertThat(FetchCollector.isSorted(sequential)).isTrue();
+        assertThat(FetchCollector.isDense(sequential.size(), start, start + 9)).isTrue();
+
+        // sparse
+        assertThat(FetchCollector.isDense(3, 2, 48)).isFalse();
+        // single document
+        assertThat(FetchCollector.isDense(1, start, start)).isFalse();
+        // every other document
+        assertThat(FetchCollector.isDense(10, 0, 18)).isTrue();
+    }
+
+    @Test
+    public void test_sorted_positions_restore_requested_order() {
+        IntArrayList docIds = new IntArrayList();
+        docIds.add(10, 2, 48, 3, 2);
+        assertThat(FetchCollector.isSorted(docIds)).isFalse();
+
+        int[] sortedPositions = FetchCollector.sortedPositions(docIds);
+        assertThat(sortedPositions).containsExactly(1, 4, 3, 0, 2);
+        int[] sortedDocIds = new int[sortedPositions.length];
+        for (int i = 0; i < sortedPositions.length; i++) {
+            sortedDocIds[i] = docIds.get(sortedPositions[i]);
+        }
+        assertThat(sortedDocIds).isSorted();
+    }
+
+    @Test
+    public void test_rows_buffered_for_unsorted_doc_ids_are_accounted_and_released() throws Exception {
+        IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig());
+        for (int i = 0; i < 10; i++) {
+            iw.addDocument(new Document());
+        }
+        iw.commit();
+        IndexSearcher searcher = new IndexSearcher(DirectoryReader.open(iw));
+        FetchTask fetchTask = mock(FetchTask.class);
+        when(fetchTask.table(0)).thenReturn(mock(DocTableInfo.class));
+        when(fetchTask.searcher(0)).thenReturn(new BorrowedItem<>(searcher, () -> {}));
+
+        LuceneCollectorExpression<Integer> docId = new LuceneCollectorExpression<>() {
+
+            private int doc;
+
+            @Override
+            public void setNextDocId(int doc) {
+                this.doc = doc;
+            }
+
+            @Override
+            public Integer value() {
+                return doc;
+            }
+        };
+        IntArrayList sortedDocIds = new IntArrayList();
+        sortedDocIds.add(2, 5, 7);
+        TestingRamAccounting sortedAccounting = new TestingRamAccounting();
+        newCollector(docId, fetchTask, sortedAccounting).collect(sortedDocIds);
+        long bucketBytes = sortedAccounting.totalBytes();
+        assertThat(bucketBytes).isGreaterThan(0L);
 
-        IntArrayList nonSequential = new IntArrayList();
-        nonSequential.add(10);
-        nonSequential.add(2);
-        nonSequential.add(48);
-        assertThat(FetchCollector.isSequential(nonSequential)).isFalse();
+        IntArrayList docIds = new IntArrayList();
+        docIds.add(7, 2, 5);
+        TestingRamAccounting ramAccounting = new TestingRamAccounting();
+        StreamBucket bucket = newCollector(docId, fetchTask, ramAccounting).collect(docIds);
+
+        List<Object> values = new ArrayList<>();
+        for (Row row : bucket) {
+            values.add(row.get(0));
+        }
+        assertThat(values).containsExactly(7, 2, 5);
+        assertThat(ramAccounting.maxBytes)
+            .as("The rows buffered to restore the requested order are accounted")
+            .isGreaterThan(bucketBytes);
+        assertThat(ramAccounting.totalBytes())
+            .as("Only the rows of the bucket stay accounted")
+            .isEqualTo(bucketBytes);
+    }
+
+    private static FetchCollector newCollector(LuceneCollectorExpression<?> expression,
+                                               FetchTask fetchTask,
+                                               RamAccounting ramAccounting) {
+        return new FetchCollector(
+            List.of(expression),
+            "dummy",
+            new Streamer[] { DataTypes.INTEGER.streamer() },
+            List.of(DataTypes.INTEGER),
+            fetchTask,
+            ramAccounting,
+            0
+        );
+    }
+
+    private static class TestingRamAccounting implements RamAccounting {
+
+        private long totalBytes = 0;
+        private long maxBytes = 0;
+
+        @Override
+        public void addBytes(long bytes) {
+            totalBytes += bytes;
+            maxBytes = Math.max(maxBytes, totalBytes);
+        }
+
+        @Override
+        public long totalBytes() {
+            return totalBytes;
+        }
+
+        @Override
+        public void release() {
+            totalBytes = 0;
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
     }
 }
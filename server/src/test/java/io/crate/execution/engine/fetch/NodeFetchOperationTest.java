@@ -23,6 +23,7 @@ package io.crate.execution.engine.fetch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -32,6 +33,8 @@ import java.util.stream.StreamSupport;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.junit.Test;
 
+import com.carrotsearch.hppc.IntArrayList;
+
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.execution.jobs.TasksService;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
@@ -59,4 +62,29 @@ public class NodeFetchOperationTest extends CrateDummyClusterServiceUnitTest {
             threadPoolExecutor.awaitTermination(2, TimeUnit.SECONDS);
         }
     }
+
+    @Test
+    public void test_sorted_doc_ids_are_split_at_segment_boundaries() throws Exception {
+        // 4 segments with 100 docs each
+        int[] docStarts = new int[] {0, 100, 200, 300};
+        IntArrayList docIds = new IntArrayList();
+        for (int i = 0; i < 400; i += 2) {
+            docIds.add(i);
+        }
+        List<IntArrayList> slices = NodeFetchOperation.splitAtSegments(docIds, docStarts, 20);
+        assertThat(slices).hasSize(4);
+        assertThat(slices.get(0).get(0)).isEqualTo(0);
+        assertThat(slices.get(1).get(0)).isEqualTo(100);
+        assertThat(slices.get(2).get(0)).isEqualTo(200);
+        assertThat(slices.get(3).get(0)).isEqualTo(300);
+        assertThat(slices.stream().mapToInt(IntArrayList::size).sum()).isEqualTo(docIds.size());
+
+        // Segments are grouped until a slice has enough documents
+        slices = NodeFetchOperation.splitAtSegments(docIds, docStarts, 60);
+        assertThat(slices).hasSize(2);
+        assertThat(slices.get(0)).hasSize(100);
+        assertThat(slices.get(1)).hasSize(100);
+
+        assertThat(NodeFetchOperation.splitAtSegments(docIds, docStarts, 200)).containsExactly(docIds);
+    }
 }
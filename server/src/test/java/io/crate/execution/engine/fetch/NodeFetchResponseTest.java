@@ -24,6 +24,9 @@ package io.crate.execution.engine.fetch;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.List;
+import java.util.stream.StreamSupport;
+
 import org.apache.logging.log4j.LogManager;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
@@ -83,6 +86,26 @@ public class NodeFetchResponseTest extends ESTestCase {
         assertThat(streamed.fetched().get(1).iterator().next()).isEqualTo(new Row1(true));
     }
 
+    @Test
+    public void test_streaming_of_concatenated_buckets() throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers.get(1), RamAccounting.NO_ACCOUNTING);
+        builder.add(new RowN(new Object[]{false}));
+        builder.add(new RowN(new Object[]{null}));
+        StreamBucket emptyBucket = new StreamBucket.Builder(streamers.get(1), RamAccounting.NO_ACCOUNTING).build();
+        StreamBucket concatenated = StreamBucket.concat(List.of(fetched.get(1), emptyBucket, builder.build()));
+        IntObjectHashMap<StreamBucket> buckets = new IntObjectHashMap<>(1);
+        buckets.put(1, concatenated);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        new NodeFetchResponse(buckets).writeTo(out);
+        NodeFetchResponse streamed = new NodeFetchResponse(
+            out.bytes().streamInput(), streamers, RamAccounting.NO_ACCOUNTING);
+
+        assertThat(streamed.fetched().get(1)).hasSize(3);
+        assertThat(StreamSupport.stream(streamed.fetched().get(1).spliterator(), false).map(row -> row.get(0)))
+            .containsExactly(true, false, null);
+    }
+
     @Test
     public void testResponseCircuitBreaker() throws Exception {
         NodeFetchResponse orig = new NodeFetchResponse(fetched);
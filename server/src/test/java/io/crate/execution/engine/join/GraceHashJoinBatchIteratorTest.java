@@ -0,0 +1,268 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.join;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.breaker.RowAccounting;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchIteratorTester.ResultOrder;
+import io.crate.data.testing.BatchSimulatingIterator;
+import io.crate.data.testing.TestingBatchIterators;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.execution.engine.spill.SpillManager;
+import io.crate.types.DataTypes;
+
+public class GraceHashJoinBatchIteratorTest extends ESTestCase {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[] { DataTypes.INTEGER };
+
+    private SpillManager spillManager;
+
+    @Before
+    public void setUpSpillManager() throws Exception {
+        spillManager = new SpillManager(createTempDir().resolve("spill"), true);
+    }
+
+    private GraceHashJoinBatchIterator createIterator(BatchIterator<Row> left,
+                                              BatchIterator<Row> right,
+                                              ToIntFunction<Row> hash,
+                                              int blockSize,
+                                              boolean emitNullValues) {
+        return new GraceHashJoinBatchIterator(
+            left,
+            right,
+            spillManager,
+            STREAMERS,
+            STREAMERS,
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            hash,
+            hash,
+            ignored -> blockSize,
+            emitNullValues
+        );
+    }
+
+    private static List<Object[]> drain(BatchIterator<Row> iterator) {
+        List<Object[]> rows = new ArrayList<>();
+        while (iterator.moveNext()) {
+            rows.add(iterator.currentElement().materialize());
+        }
+        assertThat(iterator.allLoaded()).isTrue();
+        return rows;
+    }
+
+    private static List<Object[]> consume(BatchIterator<Row> iterator) throws Exception {
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(iterator, null);
+        return consumer.getResult();
+    }
+
+    private long numSpillFiles() throws Exception {
+        if (Files.exists(spillManager.directory()) == false) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(spillManager.directory())) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void test_inner_join_without_spilling_behaves_like_a_regular_batch_iterator() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> createIterator(
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 5), 2, 3, null),
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(2, 6), 2, 2, null),
+            row -> Objects.hash(row.get(0)),
+            500,
+            false
+        );
+        var tester = BatchIteratorTester.forRows(batchIteratorSupplier, ResultOrder.ANY);
+        tester.verifyResultAndEdgeCaseBehaviour(List.of(
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 },
+            new Object[] { 4, 4 }
+        ));
+        assertThat(numSpillFiles()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_inner_join_spills_if_left_side_exceeds_block_size() throws Exception {
+        GraceHashJoinBatchIterator iterator = createIterator(
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 100), 10, 10, null),
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(50, 150), 10, 10, null),
+            row -> Objects.hash(row.get(0)),
+            5,
+            false
+        );
+        List<Object[]> expected = new ArrayList<>();
+        for (int i = 50; i < 100; i++) {
+            expected.add(new Object[] { i, i });
+        }
+        assertThat(consume(iterator)).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(iterator.spilled()).isTrue();
+        // 32 left and 32 right partitions
+        assertThat(spillManager.stats().files()).isGreaterThanOrEqualTo(2L * GraceHashJoinBatchIterator.NUM_PARTITIONS);
+        assertThat(numSpillFiles()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_left_join_spills_and_emits_non_matching_rows() throws Exception {
+        BatchIterator<Row> iterator = createIterator(
+            new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(List.of(0, 0, 1, 2, 2, 3, 4, 4)), 2, 4, null),
+            new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(List.of(1, 1, 2, 3, 4, 4, 5, 5, 6)), 2, 5, null),
+            row -> Objects.hash(row.get(0)),
+            2,
+            true
+        );
+        assertThat(consume(iterator)).containsExactlyInAnyOrder(
+            new Object[] { 0, null },
+            new Object[] { 0, null },
+            new Object[] { 1, 1 },
+            new Object[] { 1, 1 },
+            new Object[] { 2, 2 },
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 },
+            new Object[] { 4, 4 },
+            new Object[] { 4, 4 },
+            new Object[] { 4, 4 },
+            new Object[] { 4, 4 }
+        );
+        assertThat(numSpillFiles()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_partitions_with_colliding_hashes_are_joined_after_max_depth() throws Exception {
+        BatchIterator<Row> iterator = createIterator(
+            TestingBatchIterators.range(0, 20),
+            TestingBatchIterators.range(10, 30),
+            row -> 1,
+            3,
+            true
+        );
+        List<Object[]> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(new Object[] { i, null });
+        }
+        for (int i = 10; i < 20; i++) {
+            expected.add(new Object[] { i, i });
+        }
+        assertThat(consume(iterator)).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(numSpillFiles()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_spilled_join_behaves_like_a_regular_batch_iterator() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> createIterator(
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 20), 3, 7, null),
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(10, 30), 3, 7, null),
+            row -> Objects.hash(row.get(0)),
+            2,
+            true
+        );
+        List<Object[]> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(new Object[] { i, null });
+        }
+        for (int i = 10; i < 20; i++) {
+            expected.add(new Object[] { i, i });
+        }
+        var tester = BatchIteratorTester.forRows(batchIteratorSupplier, ResultOrder.ANY);
+        tester.verifyResultAndEdgeCaseBehaviour(expected);
+        assertThat(numSpillFiles()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_move_to_start_after_spilling_replays_the_partitions() throws Exception {
+        BatchIterator<Row> left = TestingBatchIterators.range(0, 10);
+        BatchIterator<Row> right = TestingBatchIterators.range(5, 15);
+        GraceHashJoinBatchIterator iterator = createIterator(
+            left,
+            right,
+            row -> Objects.hash(row.get(0)),
+            2,
+            true
+        );
+        List<Object[]> firstRun = drain(iterator);
+        assertThat(iterator.spilled()).isTrue();
+        long spilledFiles = spillManager.stats().files();
+
+        iterator.moveToStart();
+        List<Object[]> secondRun = drain(iterator);
+        assertThat(secondRun).containsExactlyInAnyOrderElementsOf(firstRun);
+        assertThat(secondRun).hasSize(10);
+        // the partitions are re-used instead of spilling the sources again
+        assertThat(spillManager.stats().files()).isEqualTo(spilledFiles);
+
+        // restart in the middle of a partition
+        iterator.moveToStart();
+        assertThat(iterator.moveNext()).isTrue();
+        iterator.moveToStart();
+        assertThat(drain(iterator)).containsExactlyInAnyOrderElementsOf(firstRun);
+
+        iterator.close();
+        assertThat(numSpillFiles()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_move_to_start_while_partitioning_restarts_from_the_sources() throws Exception {
+        GraceHashJoinBatchIterator iterator = createIterator(
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 10), 5, 5, null),
+            TestingBatchIterators.range(0, 10),
+            row -> Objects.hash(row.get(0)),
+            2,
+            false
+        );
+        // consumes the first batch of the left side, which already exceeds the block size
+        assertThat(iterator.moveNext()).isFalse();
+        assertThat(iterator.spilled()).isTrue();
+
+        iterator.moveToStart();
+        assertThat(iterator.spilled()).isFalse();
+        List<Object[]> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(new Object[] { i, i });
+        }
+        assertThat(consume(iterator)).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(numSpillFiles()).isEqualTo(0L);
+    }
+}
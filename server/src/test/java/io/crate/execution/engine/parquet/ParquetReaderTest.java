@@ -0,0 +1,444 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ParquetProperties.WriterVersion;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.dsl.projection.WriterProjection;
+import io.crate.testing.PlainRamAccounting;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class ParquetReaderTest extends ESTestCase {
+
+    private static List<Map<String, Object>> readAll(ParquetReader reader, List<String> columns) throws IOException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < reader.numRowGroups(); i++) {
+            assertThat(reader.firstRowNumber(i)).isEqualTo(records.size());
+            ParquetReader.RecordReader recordReader = reader.readRowGroup(i, columns);
+            LinkedHashMap<String, Object> record;
+            while ((record = recordReader.nextRecord()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static Map<String, Object> record(Object... keyValues) {
+        LinkedHashMap<String, Object> record = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            record.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return record;
+    }
+
+    @Test
+    public void test_written_rows_can_be_read() throws Exception {
+        List<String> names = List.of("id", "name", "flag", "ts", "day", "tags", "score", "obj");
+        List<DataType<?>> types = List.of(
+            DataTypes.INTEGER,
+            DataTypes.STRING,
+            DataTypes.BOOLEAN,
+            DataTypes.TIMESTAMPZ,
+            DataTypes.DATE,
+            DataTypes.BIGINT_ARRAY,
+            DataTypes.DOUBLE,
+            DataTypes.UNTYPED_OBJECT
+        );
+        List<Map<String, Object>> expected = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // small row group size to get multiple row groups
+        try (var writer = new ParquetWriter(out, names, types, WriterProjection.CompressionType.GZIP, 2048)) {
+            for (int i = 0; i < 500; i++) {
+                List<Long> tags = switch (i % 4) {
+                    case 0 -> null;
+                    case 1 -> List.of();
+                    case 2 -> Arrays.asList(1L, null, (long) i);
+                    default -> List.of((long) i);
+                };
+                Object[] row = new Object[] {
+                    i % 10 == 0 ? null : i,
+                    "name-" + i,
+                    i % 3 == 0 ? null : i % 2 == 0,
+                    -86_400_000L + i * 1000L,
+                    86_400_000L * i,
+                    tags,
+                    i * 0.5,
+                    i % 5 == 0 ? null : Map.of("x", i)
+                };
+                writer.write(row);
+                expected.add(record(
+                    "id", row[0],
+                    "name", row[1],
+                    "flag", row[2],
+                    "ts", row[3],
+                    "day", row[4],
+                    "tags", tags,
+                    "score", row[6],
+                    "obj", row[7]
+                ));
+            }
+        }
+        ParquetReader reader = ParquetReader.open(out.toByteArray());
+        assertThat(reader.numRows()).isEqualTo(500L);
+        assertThat(reader.numRowGroups()).isGreaterThan(1);
+        assertThat(readAll(reader, List.of())).isEqualTo(expected);
+
+        List<Map<String, Object>> projected = readAll(reader, List.of("name", "tags"));
+        assertThat(projected.get(2)).isEqualTo(record("name", "name-2", "tags", Arrays.asList(1L, null, 2L)));
+    }
+
+    @Test
+    public void test_reads_footer_and_column_chunks_from_source() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var writer = new ParquetWriter(out, List.of("x"), List.of(DataTypes.LONG), null, 1024)) {
+            for (long i = 0; i < 1000; i++) {
+                writer.write(new Object[] {i});
+            }
+        }
+        byte[] file = out.toByteArray();
+        ParquetReader reader = ParquetReader.open(
+            file.length,
+            position -> new ByteArrayInputStream(file, (int) position, file.length - (int) position),
+            RamAccounting.NO_ACCOUNTING
+        );
+        List<Map<String, Object>> records = readAll(reader, List.of());
+        assertThat(records).hasSize(1000);
+        assertThat(records.get(999)).isEqualTo(record("x", 999L));
+        for (int i = 1; i < reader.numRowGroups(); i++) {
+            assertThat(reader.rowGroupStart(i)).isEqualTo(reader.rowGroupEnd(i - 1));
+        }
+    }
+
+    @Test
+    public void test_column_chunks_are_accounted_until_record_reader_is_closed() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var writer = new ParquetWriter(out, List.of("x", "s"), List.of(DataTypes.LONG, DataTypes.STRING), null, 1024)) {
+            for (long i = 0; i < 1000; i++) {
+                writer.write(new Object[] {i, "s-" + i});
+            }
+        }
+        byte[] file = out.toByteArray();
+        PlainRamAccounting ramAccounting = new PlainRamAccounting();
+        ParquetReader reader = ParquetReader.open(
+            file.length,
+            position -> new ByteArrayInputStream(file, (int) position, file.length - (int) position),
+            ramAccounting
+        );
+        assertThat(reader.numRowGroups()).isGreaterThan(1);
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+
+        long rowGroupSize = reader.rowGroupEnd(0) - reader.rowGroupStart(0);
+        ParquetReader.RecordReader recordReader = reader.readRowGroup(0, List.of());
+        assertThat(ramAccounting.totalBytes()).isEqualTo(rowGroupSize);
+        recordReader.close();
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+
+        reader.readRowGroup(0, List.of("x")).close();
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+
+        PlainRamAccounting breakingRamAccounting = new PlainRamAccounting(rowGroupSize / 2);
+        ParquetReader breakingReader = ParquetReader.open(
+            file.length,
+            position -> new ByteArrayInputStream(file, (int) position, file.length - (int) position),
+            breakingRamAccounting
+        );
+        assertThatThrownBy(() -> breakingReader.readRowGroup(0, List.of()))
+            .hasMessageStartingWith("Circuit break!");
+    }
+
+    @Test
+    public void test_file_of_unknown_size_is_accounted_until_reader_is_closed() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var writer = new ParquetWriter(out, List.of("x"), List.of(DataTypes.LONG), null, 1024)) {
+            for (long i = 0; i < 1000; i++) {
+                writer.write(new Object[] {i});
+            }
+        }
+        byte[] file = out.toByteArray();
+        PlainRamAccounting ramAccounting = new PlainRamAccounting();
+        ParquetReader reader = ParquetReader.open(
+            -1,
+            position -> new ByteArrayInputStream(file, (int) position, file.length - (int) position),
+            ramAccounting
+        );
+        assertThat(ramAccounting.totalBytes()).isEqualTo(file.length);
+        assertThat(readAll(reader, List.of())).hasSize(1000);
+        reader.close();
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+
+        assertThatThrownBy(() -> ParquetReader.open(
+                -1,
+                position -> new ByteArrayInputStream(file, (int) position, file.length - (int) position),
+                new PlainRamAccounting(file.length / 2)))
+            .hasMessageStartingWith("Circuit break!");
+    }
+
+    @Test
+    public void test_invalid_file_raises_error() throws Exception {
+        byte[] bytes = "{\"x\": 1}\n{\"x\": 2}\n".getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> ParquetReader.open(bytes))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessageStartingWith("Invalid Parquet file: ")
+            .hasMessageContaining("is not a Parquet file");
+    }
+
+    @Test
+    public void test_lz4_raw_compressed_pages_can_be_read() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var writer = new ParquetWriter(out, List.of("s"), List.of(DataTypes.STRING), WriterProjection.CompressionType.LZ4, 4096)) {
+            for (int i = 0; i < 2000; i++) {
+                writer.write(new Object[] {"value-" + (i % 7)});
+            }
+        }
+        ParquetReader reader = ParquetReader.open(out.toByteArray());
+        List<Map<String, Object>> records = readAll(reader, List.of());
+        assertThat(records).hasSize(2000);
+        assertThat(records.get(1234)).isEqualTo(record("s", "value-2"));
+        assertThat(out.size()).isLessThan(2000 * "value-0".length());
+    }
+
+    @Test
+    public void test_reads_files_of_parquet_java_with_each_codec_and_page_version() throws Exception {
+        MessageType schema = MessageTypeParser.parseMessageType("""
+            message schema {
+              optional int64 id;
+              optional binary name (STRING);
+            }
+            """);
+        SimpleGroupFactory factory = new SimpleGroupFactory(schema);
+        List<Group> groups = new ArrayList<>();
+        List<Map<String, Object>> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Group group = factory.newGroup();
+            if (i % 7 != 0) {
+                group.append("id", (long) i);
+            }
+            // few distinct values to get dictionary encoded pages
+            group.append("name", "name-" + (i % 10));
+            groups.add(group);
+            expected.add(record("id", i % 7 == 0 ? null : (long) i, "name", "name-" + (i % 10)));
+        }
+        List<CompressionCodecName> codecs = List.of(
+            CompressionCodecName.UNCOMPRESSED,
+            CompressionCodecName.SNAPPY,
+            CompressionCodecName.GZIP,
+            CompressionCodecName.ZSTD,
+            CompressionCodecName.LZ4_RAW
+        );
+        for (CompressionCodecName codec : codecs) {
+            for (WriterVersion writerVersion : WriterVersion.values()) {
+                Path path = writeExample(schema, groups, codec, writerVersion);
+                try (ParquetFileReader fileReader = ParquetFileReader.open(new LocalInputFile(path))) {
+                    ColumnChunkMetaData name = fileReader.getRowGroups().get(0).getColumns().get(1);
+                    assertThat(name.getCodec()).isEqualTo(codec);
+                    assertThat(name.getEncodingStats().hasDictionaryEncodedPages()).isTrue();
+                }
+                ParquetReader reader = ParquetReader.open(Files.readAllBytes(path));
+                assertThat(readAll(reader, List.of()))
+                    .as("codec %s, writer version %s", codec, writerVersion)
+                    .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    public void test_reads_nested_and_nullable_columns_written_by_parquet_java() throws Exception {
+        MessageType schema = MessageTypeParser.parseMessageType("""
+            message schema {
+              optional int64 id;
+              optional group obj {
+                optional int32 x;
+                optional group inner {
+                  optional binary s (STRING);
+                }
+              }
+              optional group tags (LIST) {
+                repeated group list {
+                  optional int64 element;
+                }
+              }
+              optional group attrs (MAP) {
+                repeated group key_value {
+                  required binary key (STRING);
+                  optional int32 value;
+                }
+              }
+              repeated int64 nums;
+              optional int32 price (DECIMAL(9, 2));
+              optional int32 day (DATE);
+              optional int64 ts (TIMESTAMP(MICROS, true));
+              optional binary doc (JSON);
+            }
+            """);
+        SimpleGroupFactory factory = new SimpleGroupFactory(schema);
+
+        Group first = factory.newGroup().append("id", 1L);
+        Group obj = first.addGroup("obj").append("x", 7);
+        obj.addGroup("inner").append("s", "a");
+        Group tags = first.addGroup("tags");
+        tags.addGroup("list").append("element", 1L);
+        tags.addGroup("list");
+        first.addGroup("attrs").addGroup("key_value").append("key", "k").append("value", 1);
+        first.append("nums", 1L).append("nums", 2L);
+        first.append("price", 1050).append("day", 2).append("ts", 1_500_000L).append("doc", "{\"y\": [1, 2]}");
+
+        Group second = factory.newGroup();
+
+        Group third = factory.newGroup().append("id", 3L);
+        third.addGroup("obj");
+        third.addGroup("tags");
+        third.addGroup("attrs");
+        third.append("nums", 3L);
+        third.append("price", -1).append("day", -1).append("ts", -1L).append("doc", "\"text\"");
+
+        Path path = writeExample(schema, List.of(first, second, third), CompressionCodecName.SNAPPY, WriterVersion.PARQUET_1_0);
+        ParquetReader reader = ParquetReader.open(Files.readAllBytes(path));
+        assertThat(readAll(reader, List.of())).containsExactly(
+            record(
+                "id", 1L,
+                "obj", record("x", 7, "inner", record("s", "a")),
+                "tags", Arrays.asList(1L, null),
+                "attrs", record("k", 1),
+                "nums", List.of(1L, 2L),
+                "price", new BigDecimal("10.50"),
+                "day", 2 * 86_400_000L,
+                "ts", 1500L,
+                "doc", record("y", List.of(1, 2))
+            ),
+            record(
+                "id", null,
+                "obj", null,
+                "tags", null,
+                "attrs", null,
+                "nums", List.of(),
+                "price", null,
+                "day", null,
+                "ts", null,
+                "doc", null
+            ),
+            record(
+                "id", 3L,
+                "obj", record("x", null, "inner", null),
+                "tags", List.of(),
+                "attrs", Map.of(),
+                "nums", List.of(3L),
+                "price", new BigDecimal("-0.01"),
+                "day", -86_400_000L,
+                "ts", -1L,
+                "doc", "text"
+            )
+        );
+        assertThat(readAll(reader, List.of("nums", "obj"))).containsExactly(
+            record("obj", record("x", 7, "inner", record("s", "a")), "nums", List.of(1L, 2L)),
+            record("obj", null, "nums", List.of()),
+            record("obj", record("x", null, "inner", null), "nums", List.of(3L))
+        );
+    }
+
+    @Test
+    public void test_reads_legacy_2_level_lists() throws Exception {
+        MessageType schema = MessageTypeParser.parseMessageType("""
+            message schema {
+              optional group a (LIST) {
+                repeated int32 array;
+              }
+              optional group b (LIST) {
+                repeated group array {
+                  optional int32 x;
+                }
+              }
+              optional group c (LIST) {
+                repeated group c_tuple {
+                  optional binary s (STRING);
+                }
+              }
+            }
+            """);
+        SimpleGroupFactory factory = new SimpleGroupFactory(schema);
+        Group group = factory.newGroup();
+        group.addGroup("a").append("array", 1).append("array", 2);
+        Group b = group.addGroup("b");
+        b.addGroup("array").append("x", 1);
+        b.addGroup("array");
+        group.addGroup("c").addGroup("c_tuple").append("s", "q");
+
+        Path path = writeExample(schema, List.of(group), CompressionCodecName.GZIP, WriterVersion.PARQUET_1_0);
+        ParquetReader reader = ParquetReader.open(Files.readAllBytes(path));
+        assertThat(readAll(reader, List.of())).containsExactly(
+            record(
+                "a", List.of(1, 2),
+                "b", List.of(record("x", 1), record("x", null)),
+                "c", List.of(record("s", "q"))
+            )
+        );
+    }
+
+    private static Path writeExample(MessageType schema,
+                                     List<Group> groups,
+                                     CompressionCodecName codec,
+                                     WriterVersion writerVersion) throws IOException {
+        Path path = createTempDir().resolve("data.parquet");
+        try (var writer = ExampleParquetWriter.builder(new LocalOutputFile(path))
+                .withConf(new Configuration(false))
+                .withType(schema)
+                .withCompressionCodec(codec)
+                .withWriterVersion(writerVersion)
+                .withDictionaryEncoding(true)
+                .build()) {
+            for (Group group : groups) {
+                writer.write(group);
+            }
+        }
+        return path;
+    }
+}
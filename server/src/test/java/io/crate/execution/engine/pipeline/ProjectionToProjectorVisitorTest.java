@@ -52,6 +52,11 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnBatch;
+import io.crate.data.columnar.ColumnVector;
+import io.crate.data.columnar.ColumnarBatchIterator;
+import io.crate.data.columnar.InMemoryColumnarBatchIterator;
+import io.crate.data.columnar.LongVector;
 import io.crate.data.testing.TestingBatchIterators;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.execution.dsl.projection.AggregationProjection;
@@ -62,12 +67,15 @@ import io.crate.execution.dsl.projection.OrderedLimitAndOffsetProjection;
 import io.crate.execution.engine.aggregation.AggregationPipe;
 import io.crate.execution.engine.aggregation.GroupingProjector;
 import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
 import io.crate.execution.engine.sort.SortingLimitAndOffsetProjector;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.Operator;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.Aggregation;
 import io.crate.expression.symbol.Function;
@@ -109,7 +117,8 @@ public class ProjectionToProjectorVisitorTest extends CrateDummyClusterServiceUn
             new InputFactory(nodeCtx),
             EvaluatingNormalizer.functionOnlyNormalizer(nodeCtx),
             t -> null,
-            t -> null
+            t -> null,
+            null
         );
         memoryManager = new OnHeapMemoryManager(usedBytes -> {});
 
@@ -301,4 +310,48 @@ public class ProjectionToProjectorVisitorTest extends CrateDummyClusterServiceUn
         Bucket bucket = consumer.getBucket();
         assertThat(bucket).hasSize(1);
     }
+
+    @Test
+    public void test_filter_and_aggregation_projectors_process_column_batches() throws Exception {
+        LongVector values = new LongVector(100);
+        for (int i = 0; i < 100; i++) {
+            if (i % 10 == 0) {
+                values.setNull(i);
+            } else {
+                values.setLong(i, i);
+            }
+        }
+        ColumnBatch batch = new ColumnBatch(new ColumnVector[] { values }, 100);
+        batch.reset(100);
+
+        List<Symbol> arguments = List.of(new InputColumn(0, DataTypes.LONG), Literal.of(50L));
+        var gt = nodeCtx.functions().get(null, GtOperator.NAME, arguments, SearchPath.pathWithPGCatalogAndDoc());
+        FilterProjection filterProjection = new FilterProjection(
+            new Function(gt.signature(), arguments, Operator.RETURN_TYPE),
+            List.of(new InputColumn(0, DataTypes.LONG))
+        );
+        Projector filterProjector = visitor.create(
+            filterProjection, txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+
+        Signature sumSignature = Signature.builder(SumAggregation.NAME, FunctionType.AGGREGATE)
+            .argumentTypes(DataTypes.LONG.getTypeSignature())
+            .returnType(DataTypes.LONG.getTypeSignature())
+            .features(Scalar.Feature.DETERMINISTIC)
+            .build();
+        AggregationProjection aggregationProjection = new AggregationProjection(List.of(
+            new Aggregation(sumSignature, DataTypes.LONG, List.of(new InputColumn(0, DataTypes.LONG))),
+            new Aggregation(CountAggregation.SIGNATURE, DataTypes.LONG, List.of(new InputColumn(0, DataTypes.LONG))),
+            new Aggregation(CountAggregation.COUNT_STAR_SIGNATURE, DataTypes.LONG, List.of())
+        ), RowGranularity.SHARD, AggregateMode.ITER_FINAL);
+        Projector aggregationProjector = visitor.create(
+            aggregationProjection, txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+
+        BatchIterator<Row> filtered = filterProjector.apply(new InMemoryColumnarBatchIterator(List.of(batch)));
+        assertThat(filtered).isInstanceOf(ColumnarBatchIterator.class);
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(aggregationProjector.apply(filtered), null);
+        // 51..99 without 60, 70, 80 and 90
+        assertThat(consumer.getBucket()).containsExactly(new RowN(3375L, 45L, 45L));
+    }
 }
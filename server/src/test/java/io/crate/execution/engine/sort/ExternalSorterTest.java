@@ -0,0 +1,156 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.breaker.TypedCellsAccounting;
+import io.crate.data.breaker.BlockBasedRamAccounting;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.spill.SpillManager;
+import io.crate.types.DataTypes;
+
+public class ExternalSorterTest extends ESTestCase {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[] { DataTypes.INTEGER, DataTypes.STRING };
+    private static final Comparator<Object[]> ORDERING =
+        OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, false, false);
+
+    private Path spillDir;
+
+    @Before
+    public void setUpSpillDir() throws Exception {
+        spillDir = createTempDir().resolve("spill");
+    }
+
+    private ExternalSorter createSorter(SpillManager spillManager) {
+        TypedCellsAccounting rowAccounting = new TypedCellsAccounting(
+            List.of(DataTypes.INTEGER, DataTypes.STRING),
+            RamAccounting.NO_ACCOUNTING,
+            0
+        );
+        return new ExternalSorter(spillManager, STREAMERS, ORDERING, rowAccounting);
+    }
+
+    private static List<Integer> shuffledInts(int numRows) {
+        List<Integer> values = new ArrayList<>(IntStream.range(0, numRows).boxed().toList());
+        Collections.shuffle(values, random());
+        return values;
+    }
+
+    private static List<Object> firstColumn(Iterable<Object[]> rows) {
+        List<Object> result = new ArrayList<>();
+        for (Object[] row : rows) {
+            result.add(row[0]);
+        }
+        return result;
+    }
+
+    @Test
+    public void test_sorts_in_memory_if_threshold_is_not_reached() throws Exception {
+        SpillManager spillManager = new SpillManager(spillDir, true, Long.MAX_VALUE);
+        try (ExternalSorter sorter = createSorter(spillManager)) {
+            for (int value : shuffledInts(100)) {
+                sorter.add(new Object[] { value, "foo" });
+            }
+            assertThat(firstColumn(sorter.sorted())).containsExactlyElementsOf(
+                IntStream.range(0, 100).boxed().toList());
+            assertThat(sorter.numRuns()).isEqualTo(0);
+        }
+        assertThat(spillManager.stats().files()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_spills_sorted_runs_and_merges_them() throws Exception {
+        SpillManager spillManager = new SpillManager(spillDir, true, 256);
+        List<Integer> expected = IntStream.range(0, 1000).boxed().toList();
+        try (ExternalSorter sorter = createSorter(spillManager)) {
+            for (int value : shuffledInts(1000)) {
+                sorter.add(new Object[] { value, "foo-" + value });
+            }
+            Iterable<Object[]> sorted = sorter.sorted();
+            assertThat(firstColumn(sorted)).containsExactlyElementsOf(expected);
+            // result can be iterated again, e.g. if the consumer moves to start
+            assertThat(firstColumn(sorted)).containsExactlyElementsOf(expected);
+            for (Object[] row : sorted) {
+                assertThat(row[1]).isEqualTo("foo-" + row[0]);
+            }
+
+            assertThat(sorter.numRuns()).isGreaterThan(1);
+            assertThat(spillManager.stats().files()).isEqualTo(sorter.numRuns());
+            assertThat(spillManager.stats().bytes()).isGreaterThan(0L);
+        }
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_spilling_releases_only_the_bytes_of_the_sorter() throws Exception {
+        RamAccounting sharedRamAccounting = new BlockBasedRamAccounting(b -> {}, 1024);
+        // bytes accounted by another operator sharing the same RamAccounting
+        sharedRamAccounting.addBytes(500);
+
+        TypedCellsAccounting rowAccounting = new TypedCellsAccounting(
+            List.of(DataTypes.INTEGER, DataTypes.STRING),
+            new BlockBasedRamAccounting(sharedRamAccounting::addBytes, 0),
+            0
+        );
+        SpillManager spillManager = new SpillManager(spillDir, true, 256);
+        try (ExternalSorter sorter = new ExternalSorter(spillManager, STREAMERS, ORDERING, rowAccounting)) {
+            for (int value : shuffledInts(1000)) {
+                sorter.add(new Object[] { value, "foo-" + value });
+                assertThat(sharedRamAccounting.totalBytes()).isGreaterThanOrEqualTo(500L);
+            }
+            assertThat(sorter.numRuns()).isGreaterThan(1);
+            assertThat(sharedRamAccounting.totalBytes()).isLessThan(500L + 256L);
+        }
+    }
+
+    @Test
+    public void test_does_not_spill_if_spilling_is_disabled() throws Exception {
+        SpillManager spillManager = new SpillManager(spillDir, false, 1);
+        try (ExternalSorter sorter = createSorter(spillManager)) {
+            for (int value : shuffledInts(50)) {
+                sorter.add(new Object[] { value, "foo" });
+            }
+            assertThat(firstColumn(sorter.sorted())).containsExactlyElementsOf(
+                IntStream.range(0, 50).boxed().toList());
+            assertThat(sorter.numRuns()).isEqualTo(0);
+        }
+    }
+}
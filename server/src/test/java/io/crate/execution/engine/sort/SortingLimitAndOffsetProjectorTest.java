@@ -79,7 +79,9 @@ public class SortingLimitAndOffsetProjectorTest extends ESTestCase {
             ordering,
             limit,
             offset,
-            unboundedCollectorThreshold
+            unboundedCollectorThreshold,
+            null,
+            null
         );
     }
 
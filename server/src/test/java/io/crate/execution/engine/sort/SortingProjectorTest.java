@@ -24,7 +24,10 @@ package io.crate.execution.engine.sort;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
@@ -34,6 +37,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
+import io.crate.Streamer;
 import io.crate.breaker.ConcurrentRamAccounting;
 import io.crate.breaker.TypedCellsAccounting;
 import io.crate.data.BatchIterator;
@@ -41,11 +45,13 @@ import io.crate.data.Bucket;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.testing.TestingBatchIterators;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.execution.engine.spill.SpillManager;
 import io.crate.expression.symbol.Literal;
 import io.crate.types.DataTypes;
 
@@ -98,6 +104,41 @@ public class SortingProjectorTest extends ESTestCase {
         }
     }
 
+    @Test
+    public void test_order_by_with_spilling_applies_offset_and_limit() throws Exception {
+        Path spillDir = createTempDir().resolve("spill");
+        SpillManager spillManager = new SpillManager(spillDir, true, 64);
+        RowCollectExpression input = new RowCollectExpression(0);
+        TypedCellsAccounting rowAccounting = new TypedCellsAccounting(
+            List.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
+            RamAccounting.NO_ACCOUNTING,
+            0
+        );
+        SortingProjector projector = new SortingProjector(
+            rowAccounting,
+            List.of(input, Literal.of(true)),
+            List.<CollectExpression<Row, ?>>of(input),
+            1,
+            OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, true, false),
+            5,
+            10,
+            spillManager,
+            new Streamer[] { DataTypes.INTEGER, DataTypes.BOOLEAN }
+        );
+
+        consumer.accept(projector.apply(TestingBatchIterators.range(0, 100)), null);
+        List<Object[]> rows = consumer.getResult();
+        assertThat(rows).hasSize(10);
+        int expected = 94;
+        for (Object[] row : rows) {
+            assertThat(row).containsExactly(expected--);
+        }
+        assertThat(spillManager.stats().files()).isGreaterThan(1L);
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
     @Test
     public void testInvalidOffset() throws Exception {
         assertThatThrownBy(() -> new SortingProjector(null, null, null, 2, null, -1))
@@ -332,4 +332,97 @@ public class AggregationWindowFunctionsTest extends AbstractWindowFunctionTest {
             rows
         );
     }
+
+    @Test
+    public void test_max_over_rows_offset_preceding_uses_sliding_frames() throws Throwable {
+        Object[] expected = new Object[]{3, 3, 4, 4, 5, 9, 9, 9};
+        assertEvaluate("max(x) OVER(" +
+                            "ORDER BY d ROWS BETWEEN 2 PRECEDING and CURRENT ROW" +
+                       ")",
+            expected,
+            List.of(ColumnIdent.of("x"), ColumnIdent.of("d")),
+            new Object[]{3, 1.0},
+            new Object[]{1, 2.0},
+            new Object[]{4, 3.0},
+            new Object[]{1, 4.0},
+            new Object[]{5, 5.0},
+            new Object[]{9, 6.0},
+            new Object[]{2, 7.0},
+            new Object[]{6, 8.0});
+    }
+
+    @Test
+    public void test_min_over_rows_offset_preceding_following_uses_sliding_frames() throws Throwable {
+        Object[] expected = new Object[]{1, 1, 1, 1, 1, 2, 2, 2};
+        assertEvaluate("min(x) OVER(" +
+                            "ORDER BY d ROWS BETWEEN 1 PRECEDING and 2 FOLLOWING" +
+                       ")",
+            expected,
+            List.of(ColumnIdent.of("x"), ColumnIdent.of("d")),
+            new Object[]{3, 1.0},
+            new Object[]{1, 2.0},
+            new Object[]{4, 3.0},
+            new Object[]{1, 4.0},
+            new Object[]{5, 5.0},
+            new Object[]{9, 6.0},
+            new Object[]{2, 7.0},
+            new Object[]{6, 8.0});
+    }
+
+    @Test
+    public void test_array_agg_over_rows_offset_preceding_following_keeps_order() throws Throwable {
+        // array_agg has a state growing with the rows and is recomputed for each frame instead of sliding
+        Object[] expected = new Object[]{
+            List.of("a", "b"),
+            List.of("a", "b", "c"),
+            List.of("b", "c", "d"),
+            List.of("c", "d", "e"),
+            List.of("d", "e")
+        };
+        assertEvaluate(
+            "array_agg(z) OVER(" +
+            "   ORDER BY z ROWS BETWEEN 1 PRECEDING and 1 FOLLOWING" +
+            ")",
+            expected,
+            List.of(ColumnIdent.of("z")),
+            new Object[]{"a"},
+            new Object[]{"b"},
+            new Object[]{"c"},
+            new Object[]{"d"},
+            new Object[]{"e"});
+    }
+
+    @Test
+    public void test_max_with_range_offset_preceding_following_including_partitions() throws Throwable {
+        Object[][] rows = new Object[][] {
+            $("Male", 1000),
+            $("Male", 2000),
+            $("Female", 3000),
+            $("Female", 4000),
+            $("Male", 5000),
+            $("Female", 6000),
+            $("Male", 7000),
+            $("Female", 8000),
+            $("Male", 9000),
+            $("Male", 9500),
+        };
+        Object[] expected = new Object[] {
+            4000.0d,
+            4000.0d,
+            6000.0d,
+            8000.0d,
+            2000.0d,
+            2000.0d,
+            5000.0d,
+            7000.0d,
+            9500.0d,
+            9500.0d,
+        };
+        assertEvaluate(
+            "max(d) over (partition by z order by d range between 1000 preceding and 1000 following)",
+            expected,
+            List.of(ColumnIdent.of("z"), ColumnIdent.of("d")),
+            rows
+        );
+    }
 }
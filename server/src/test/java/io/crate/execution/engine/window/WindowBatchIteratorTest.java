@@ -360,6 +360,55 @@ public class WindowBatchIteratorTest {
         assertThat(ramAccounting.totalBytes()).isEqualTo(480L);
     }
 
+    @Test
+    public void test_window_batch_iterator_with_sorted_input_emits_results_partition_by_partition() throws Exception {
+        // partition by IC0 / 3
+        Comparator<Object[]> cmpPartitionBy = Comparator.comparingInt(row -> (int) row[0] / 3);
+        var tester = BatchIteratorTester.forRows(
+            () -> WindowFunctionBatchIterator.ofSortedInput(
+                new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 10), 4, 2, null),
+                ignored -> {},
+                new IgnoreRowAccounting(),
+                getComputeFrameStart(null, FrameBound.Type.UNBOUNDED_PRECEDING),
+                getComputeFrameEnd(null, FrameBound.Type.CURRENT_ROW),
+                cmpPartitionBy,
+                1,
+                Collections.singletonList(rowNumberWindowFunction()),
+                Collections.emptyList(),
+                new Boolean[]{null},
+                new Input[0]
+            ), ResultOrder.EXACT
+        );
+        List<Object[]> expectedResult = IntStream.range(0, 10)
+            .mapToObj(i -> new Object[]{i, i % 3 + 1}).toList();
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_window_batch_iterator_with_sorted_input_releases_memory_of_emitted_partitions() throws Exception {
+        RamAccounting ramAccounting = ConcurrentRamAccounting.forCircuitBreaker("test", new NoopCircuitBreaker("dummy"), 0);
+        List<Long> accountedBytesPerRow = new ArrayList<>();
+        BatchIterator<Row> iterator = WindowFunctionBatchIterator.ofSortedInput(
+            TestingBatchIterators.range(0, 10),
+            ramAccounting::addBytes,
+            new TypedRowAccounting(List.of(DataTypes.INTEGER), ramAccounting, 32),
+            (_, _, _, _) -> 0,
+            (_, _, currentIndex, _) -> currentIndex,
+            Comparator.comparingInt(row -> (int) row[0] / 2),
+            1,
+            List.of(rowNumberWindowFunction()),
+            List.of(),
+            new Boolean[]{null},
+            new Input[][]{new Input[0]}
+        );
+        while (iterator.moveNext()) {
+            accountedBytesPerRow.add(ramAccounting.totalBytes());
+        }
+        // At most the current partition (2 rows) + the first row of the next partition are accounted (48 bytes each)
+        assertThat(accountedBytesPerRow).allSatisfy(bytes -> assertThat(bytes).isLessThanOrEqualTo(144L));
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+    }
+
     @Test
     public void testWindowBatchIteratorWithOrderedWindowOverNullValues() throws Exception {
         var rows = Arrays.asList(
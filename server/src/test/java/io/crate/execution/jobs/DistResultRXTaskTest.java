@@ -36,8 +36,10 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
@@ -48,18 +50,29 @@ import io.crate.data.ArrayBucket;
 import io.crate.data.Bucket;
 import io.crate.data.CollectionBucket;
 import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.breaker.BlockBasedRamAccounting;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.data.testing.TestingRowConsumer;
+import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.execution.engine.distribution.merge.KeyIterable;
 import io.crate.execution.engine.distribution.merge.PagingIterator;
 import io.crate.execution.engine.distribution.merge.PassThroughPagingIterator;
 import io.crate.testing.TestingHelpers;
+import io.crate.types.DataTypes;
 
 public class DistResultRXTaskTest extends ESTestCase {
 
     private DistResultRXTask getPageDownstreamContext(TestingRowConsumer batchConsumer,
                                                       PagingIterator<Integer, Row> pagingIterator,
                                                       int numBuckets) {
+        return getPageDownstreamContext(batchConsumer, pagingIterator, numBuckets, RamAccounting.NO_ACCOUNTING);
+    }
+
+    private DistResultRXTask getPageDownstreamContext(TestingRowConsumer batchConsumer,
+                                                      PagingIterator<Integer, Row> pagingIterator,
+                                                      int numBuckets,
+                                                      RamAccounting bufferedPagesRamAccounting) {
 
         PageBucketReceiver pageBucketReceiver = new CumulativePageBucketReceiver(
             "n1",
@@ -68,7 +81,8 @@ public class DistResultRXTaskTest extends ESTestCase {
             new Streamer[1],
             batchConsumer,
             pagingIterator,
-            numBuckets);
+            numBuckets,
+            bufferedPagesRamAccounting);
 
         return new DistResultRXTask(
             1,
@@ -233,6 +247,104 @@ public class DistResultRXTaskTest extends ESTestCase {
             new Object[] {"universe"});
     }
 
+    @Test
+    public void test_pages_received_out_of_order_are_consumed_in_order() throws Exception {
+        TestingRowConsumer batchConsumer = new TestingRowConsumer();
+        DistResultRXTask ctx = getPageDownstreamContext(batchConsumer, PassThroughPagingIterator.oneShot(), 2);
+        PageBucketReceiver bucketReceiver = ctx.getBucketReceiver((byte) 0);
+        assertThat(bucketReceiver).isNotNull();
+
+        CheckPageResultListener listenerPage0 = new CheckPageResultListener();
+        CheckPageResultListener listenerPage1 = new CheckPageResultListener();
+        bucketReceiver.setBucket(0, 2, new ArrayBucket(new Object[][] {{3}}), true, mock(PageResultListener.class));
+        bucketReceiver.setBucket(0, 1, new ArrayBucket(new Object[][] {{2}}), false, listenerPage1);
+        bucketReceiver.setBucket(0, 0, new ArrayBucket(new Object[][] {{1}}), false, listenerPage0);
+        assertThat(listenerPage0.needMoreResult).isFalse();
+        assertThat(listenerPage1.needMoreResult).isFalse();
+
+        bucketReceiver.setBucket(1, 0, new ArrayBucket(new Object[][] {{10}}), true, mock(PageResultListener.class));
+
+        List<Object[]> result = batchConsumer.getResult();
+        assertThat(result).extracting(row -> row[0]).containsExactly(1, 10, 2, 3);
+        assertThat(listenerPage0.needMoreResult).isTrue();
+        assertThat(listenerPage1.needMoreResult).isTrue();
+    }
+
+    @Test
+    public void test_buffered_pages_are_released_on_kill() throws Exception {
+        TestingRowConsumer batchConsumer = new TestingRowConsumer();
+        DistResultRXTask ctx = getPageDownstreamContext(batchConsumer, PassThroughPagingIterator.oneShot(), 2);
+        PageBucketReceiver bucketReceiver = ctx.getBucketReceiver((byte) 0);
+        assertThat(bucketReceiver).isNotNull();
+
+        PageResultListener listener = mock(PageResultListener.class);
+        bucketReceiver.setBucket(0, 1, Bucket.EMPTY, false, listener);
+        bucketReceiver.setBucket(0, 0, Bucket.EMPTY, false, listener);
+        ctx.kill(new InterruptedException("killed"));
+
+        verify(listener, times(2)).needMore(false);
+    }
+
+    private static StreamBucket streamBucket(String value) {
+        var builder = new StreamBucket.Builder(new Streamer[] { DataTypes.STRING.streamer() }, RamAccounting.NO_ACCOUNTING);
+        builder.add(new Row1(value));
+        return builder.build();
+    }
+
+    @Test
+    public void test_buffered_pages_are_accounted_until_they_are_consumed() throws Exception {
+        AtomicLong usedBytes = new AtomicLong();
+        TestingRowConsumer batchConsumer = new TestingRowConsumer();
+        DistResultRXTask ctx = getPageDownstreamContext(
+            batchConsumer,
+            PassThroughPagingIterator.oneShot(),
+            1,
+            new BlockBasedRamAccounting(usedBytes::addAndGet, 0)
+        );
+        PageBucketReceiver bucketReceiver = ctx.getBucketReceiver((byte) 0);
+        assertThat(bucketReceiver).isNotNull();
+
+        PageResultListener listener = mock(PageResultListener.class);
+        StreamBucket secondPage = streamBucket("b");
+        bucketReceiver.setBucket(0, 1, secondPage, false, listener);
+        assertThat(secondPage.ramBytesUsed()).isGreaterThan(0L);
+        assertThat(usedBytes.get()).isEqualTo(secondPage.ramBytesUsed());
+
+        bucketReceiver.setBucket(0, 0, streamBucket("a"), false, listener);
+        bucketReceiver.setBucket(0, 2, Bucket.EMPTY, true, listener);
+
+        assertThat(batchConsumer.getResult()).containsExactly(new Object[] { "a" }, new Object[] { "b" });
+        assertThat(usedBytes.get()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_receiver_fails_if_buffered_page_exceeds_memory_limit() throws Exception {
+        TestingRowConsumer batchConsumer = new TestingRowConsumer();
+        DistResultRXTask ctx = getPageDownstreamContext(
+            batchConsumer,
+            PassThroughPagingIterator.oneShot(),
+            1,
+            new BlockBasedRamAccounting(
+                bytes -> {
+                    if (bytes > 0) {
+                        throw new CircuitBreakingException("Too many buffered pages");
+                    }
+                },
+                0
+            )
+        );
+        PageBucketReceiver bucketReceiver = ctx.getBucketReceiver((byte) 0);
+        assertThat(bucketReceiver).isNotNull();
+
+        PageResultListener listener = mock(PageResultListener.class);
+        bucketReceiver.setBucket(0, 1, streamBucket("b"), false, listener);
+
+        verify(listener, times(1)).needMore(false);
+        assertThatThrownBy(() -> batchConsumer.getResult())
+            .isExactlyInstanceOf(CircuitBreakingException.class)
+            .hasMessage("Too many buffered pages");
+    }
+
     @Test
     public void test_batch_iterator_is_completed_exceptionally_if_merge_buckets_on_next_page_fails() throws Exception {
         TestingRowConsumer batchConsumer = new TestingRowConsumer();
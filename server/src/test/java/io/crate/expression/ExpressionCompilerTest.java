@@ -0,0 +1,178 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.expression.scalar.ScalarTestCase;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.RefReplacer;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Reference;
+
+public class ExpressionCompilerTest extends ScalarTestCase {
+
+    private List<CollectExpression<Row, ?>> compiledExpressions;
+
+    private static Map<String, Object> row(Object... keyValues) {
+        HashMap<String, Object> row = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            row.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return row;
+    }
+
+    private Input<?> compile(String expression, List<Reference> refs) {
+        Symbol symbol = sqlExpressions.normalize(sqlExpressions.asSymbol(expression));
+        Symbol withInputColumns = RefReplacer.replaceRefs(symbol, ref -> {
+            int idx = refs.indexOf(ref);
+            if (idx == -1) {
+                idx = refs.size();
+                refs.add(ref);
+            }
+            return new InputColumn(idx, ref.valueType());
+        });
+        InputFactory.Context<CollectExpression<Row, ?>> ctx = new InputFactory(sqlExpressions.nodeCtx)
+            .ctxForInputColumns(txnCtx);
+        Input<?> input = ctx.add(withInputColumns);
+        compiledExpressions = ctx.expressions();
+        return input;
+    }
+
+    private Object evaluate(List<Reference> refs, Map<String, Object> values, Input<?> compiled) {
+        Object[] cells = new Object[refs.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = values.get(refs.get(i).column().fqn());
+        }
+        Row row = new RowN(cells);
+        for (CollectExpression<Row, ?> expression : compiledExpressions) {
+            expression.setNextRow(row);
+        }
+        return compiled.value();
+    }
+
+    /**
+     * Evaluates {@code expression} compiled and interpreted (by normalizing it with the row values as literals)
+     * and asserts that both return the same results.
+     */
+    private void assertSameAsInterpreted(String expression, List<Map<String, Object>> rows) {
+        List<Reference> refs = new ArrayList<>();
+        Input<?> compiled = compile(expression, refs);
+        assertThat(compiled).isNotInstanceOf(FunctionExpression.class);
+
+        Symbol symbol = sqlExpressions.normalize(sqlExpressions.asSymbol(expression));
+        for (Map<String, Object> values : rows) {
+            Symbol interpreted = sqlExpressions.normalize(RefReplacer.replaceRefs(
+                symbol,
+                ref -> Literal.ofUnchecked(ref.valueType(), values.get(ref.column().fqn()))
+            ));
+            assertThat(interpreted).isInstanceOf(Literal.class);
+            assertThat(evaluate(refs, values, compiled))
+                .as("`" + expression + "` with " + values)
+                .isEqualTo(((Literal<?>) interpreted).value());
+        }
+    }
+
+    @Test
+    public void test_arithmetic_and_comparisons_match_interpreted_evaluation() {
+        List<Map<String, Object>> rows = List.of(
+            row("x", 5L, "id", 3, "double_val", 1.5, "float_val", 0.1f),
+            row("x", 15L, "id", -7, "double_val", 2.5, "float_val", 3.3f),
+            row("x", null, "id", 2, "double_val", Double.NaN, "float_val", null),
+            row("x", 100L, "id", null, "double_val", null, "float_val", -0.0f)
+        );
+        assertSameAsInterpreted("x + 10 > 20", rows);
+        assertSameAsInterpreted("x * 2 - id", rows);
+        assertSameAsInterpreted("id / 2 + id % 2", rows);
+        assertSameAsInterpreted("double_val * 2.0 <= 3.0", rows);
+        assertSameAsInterpreted("float_val + float_val", rows);
+        assertSameAsInterpreted("float_val / 3", rows);
+        assertSameAsInterpreted("power(double_val, 2.0)", rows);
+        assertSameAsInterpreted("double_val = double_val", rows);
+    }
+
+    @Test
+    public void test_three_valued_logic_matches_interpreted_evaluation() {
+        List<Map<String, Object>> rows = List.of(
+            row("is_awesome", true, "name", "foo", "id", 1),
+            row("is_awesome", false, "name", "bar", "id", 2),
+            row("is_awesome", null, "name", null, "id", null),
+            row("is_awesome", null, "name", "foo", "id", 10)
+        );
+        assertSameAsInterpreted("is_awesome and id > 1", rows);
+        assertSameAsInterpreted("is_awesome or name = 'foo'", rows);
+        assertSameAsInterpreted("not (is_awesome or id < 5)", rows);
+        assertSameAsInterpreted("name >= 'baz' and not is_awesome", rows);
+    }
+
+    @Test
+    public void test_case_matches_interpreted_evaluation() {
+        List<Map<String, Object>> rows = List.of(
+            row("x", 3L, "timestamp", 1000L),
+            row("x", 7L, "timestamp", 2000L),
+            row("x", 12L, "timestamp", null),
+            row("x", null, "timestamp", 3000L)
+        );
+        assertSameAsInterpreted("case when x > 10 then 'big' when x > 5 then 'medium' else 'small' end", rows);
+        assertSameAsInterpreted("case when x > 5 then x * 10 else null end", rows);
+        assertSameAsInterpreted("case when timestamp > 1500::timestamp then x > 5 else false end", rows);
+        assertSameAsInterpreted("case when x < 10 then timestamp end", rows);
+    }
+
+    @Test
+    public void test_integer_overflow_raises_same_error_as_interpreted_evaluation() {
+        List<Reference> refs = new ArrayList<>();
+        Input<?> compiled = compile("id * 2", refs);
+        assertThatThrownBy(() -> evaluate(refs, row("id", Integer.MAX_VALUE), compiled))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("integer overflow");
+        assertThatThrownBy(() -> evaluate(refs, row("id", 0), compile("10 / id", refs)))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("/ by zero");
+    }
+
+    @Test
+    public void test_unsupported_functions_are_compiled_as_leaves_or_fall_back_to_function_expression() {
+        List<Reference> refs = new ArrayList<>();
+        assertThat(compile("name like 'f%'", refs)).isExactlyInstanceOf(FunctionExpression.class);
+
+        Input<?> compiled = compile("substr(name, 1, 1) = 'f' and x > 1", refs);
+        assertThat(compiled).isExactlyInstanceOf(ExpressionCompiler.CompiledCondition.class);
+        assertThat(evaluate(refs, row("name", "foo", "x", 2L), compiled)).isEqualTo(true);
+        assertThat(evaluate(refs, row("name", "bar", "x", 2L), compiled)).isEqualTo(false);
+        assertThat(evaluate(refs, row("name", null, "x", 2L), compiled)).isNull();
+        assertThat(InputCondition.matches((ExpressionCompiler.CompiledCondition) compiled)).isFalse();
+    }
+}
@@ -31,6 +31,7 @@ import java.io.IOException;
 import java.net.Inet4Address;
 import java.net.UnknownHostException;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import org.elasticsearch.cluster.node.DiscoveryNode;
@@ -43,11 +44,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import io.crate.execution.engine.collect.NestableCollectExpression;
+import io.crate.execution.engine.spill.SpillStats;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.expressions.RowCollectExpressionFactory;
 import io.crate.metadata.sys.SysNodesTableInfo;
 import io.crate.monitor.ExtendedNodeInfo;
 import io.crate.protocols.ConnectionStats;
+import io.crate.session.PlanCacheStats;
 
 public class NodeStatsContextFieldResolverTest {
 
@@ -76,7 +79,9 @@ public class NodeStatsContextFieldResolverTest {
             () -> new ConnectionStats(11, 22, 33, 44, 55, 66),
             () -> postgresAddress,
             () -> new ConnectionStats(111, 222, 333, 444, 555, 666),
-            () -> 1L
+            () -> 1L,
+            () -> new SpillStats(2, 1024),
+            () -> new PlanCacheStats(10, 3)
         );
     }
 
@@ -181,6 +186,70 @@ public class NodeStatsContextFieldResolverTest {
         assertThat(context.clusterStateVersion()).isEqualTo(1L);
     }
 
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void test_spill_stats_can_be_retrieved() {
+        NodeStatsContext statsContext = resolver.forTopColumnIdents(List.of(SysNodesTableInfo.Columns.SPILL));
+        RowCollectExpressionFactory<NodeStatsContext> expressionFactory =
+            SysNodesTableInfo.INSTANCE.expressions().get(SysNodesTableInfo.Columns.SPILL);
+        NestableCollectExpression<NodeStatsContext, ?> expression = expressionFactory.create();
+
+        NestableCollectExpression files = (NestableCollectExpression) expression.getChild("files");
+        files.setNextRow(statsContext);
+        assertThat(files.value()).isEqualTo(2L);
+
+        NestableCollectExpression bytes = (NestableCollectExpression) expression.getChild("bytes");
+        bytes.setNextRow(statsContext);
+        assertThat(bytes.value()).isEqualTo(1024L);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void test_spill_stats_are_null_if_not_reported_by_node() {
+        // e.g. nodes on an older version don't send spill stats
+        NodeStatsContext statsContext = new NodeStatsContext("node_id", "node_name");
+        NestableCollectExpression<NodeStatsContext, ?> spill =
+            SysNodesTableInfo.INSTANCE.expressions().get(SysNodesTableInfo.Columns.SPILL).create();
+        spill.setNextRow(statsContext);
+        assertThat(spill.value()).isNull();
+        NestableCollectExpression files = (NestableCollectExpression) SysNodesTableInfo.INSTANCE.expressions()
+            .get(SysNodesTableInfo.Columns.SPILL).create().getChild("files");
+        files.setNextRow(statsContext);
+        assertThat(files.value()).isNull();
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void test_plan_cache_stats_are_null_if_not_reported_by_node() {
+        // e.g. nodes on an older version don't send plan cache stats
+        NodeStatsContext statsContext = new NodeStatsContext("node_id", "node_name");
+        NestableCollectExpression<NodeStatsContext, ?> planCache =
+            SysNodesTableInfo.INSTANCE.expressions().get(SysNodesTableInfo.Columns.PLAN_CACHE).create();
+        planCache.setNextRow(statsContext);
+        assertThat(planCache.value()).isNull();
+        NestableCollectExpression hits = (NestableCollectExpression) SysNodesTableInfo.INSTANCE.expressions()
+            .get(SysNodesTableInfo.Columns.PLAN_CACHE).create().getChild("hits");
+        hits.setNextRow(statsContext);
+        assertThat(hits.value()).isNull();
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void test_plan_cache_stats_can_be_retrieved() {
+        NodeStatsContext statsContext = resolver.forTopColumnIdents(List.of(SysNodesTableInfo.Columns.PLAN_CACHE));
+        RowCollectExpressionFactory<NodeStatsContext> expressionFactory =
+            SysNodesTableInfo.INSTANCE.expressions().get(SysNodesTableInfo.Columns.PLAN_CACHE);
+        NestableCollectExpression<NodeStatsContext, ?> expression = expressionFactory.create();
+
+        NestableCollectExpression hits = (NestableCollectExpression) expression.getChild("hits");
+        hits.setNextRow(statsContext);
+        assertThat(hits.value()).isEqualTo(10L);
+
+        NestableCollectExpression misses = (NestableCollectExpression) expression.getChild("misses");
+        misses.setNextRow(statsContext);
+        assertThat(misses.value()).isEqualTo(3L);
+    }
+
     @Test
     public void testResolveForNonExistingColumnIdent() {
         assertThatThrownBy(() ->
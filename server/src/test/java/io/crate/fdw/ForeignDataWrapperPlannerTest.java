@@ -36,6 +36,7 @@ import io.crate.planner.CreateForeignTablePlan;
 import io.crate.planner.CreateServerPlan;
 import io.crate.planner.CreateUserMappingPlan;
 import io.crate.planner.node.dql.Collect;
+import io.crate.planner.operators.LogicalPlan;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 
@@ -86,7 +87,8 @@ public class ForeignDataWrapperPlannerTest extends CrateDummyClusterServiceUnitT
         CreateForeignTablePlan plan = e.plan(stmt);
         assertThatThrownBy(() -> e.execute(plan).getResult())
             .hasMessageContaining(
-                "Unsupported options for foreign table doc.tbl using fdw `jdbc`: invalid. Valid options are: schema_name, table_name");
+                "Unsupported options for foreign table doc.tbl using fdw `jdbc`: invalid. Valid options are: " +
+                "schema_name, table_name, partition_column, partition_count, lower_bound, upper_bound, fetch_size");
     }
 
     @Test
@@ -187,4 +189,158 @@ public class ForeignDataWrapperPlannerTest extends CrateDummyClusterServiceUnitT
         // Without any logic (e.g. using the EvaluationNormalizer) to remove aliases, the query would be `(some_alias = 1)`
         assertThat(query.toString()).isEqualTo("(id = 1)");
     }
+
+    @Test
+    public void test_limit_and_order_by_are_pushed_down_to_foreign_collect() throws Exception {
+        Settings options = Settings.builder()
+            .put("url", "jdbc:postgresql://localhost:5432/")
+            .build();
+        var e = SQLExecutor.of(clusterService)
+            .addServer("pg", "jdbc", "crate", options)
+            .addForeignTable("create foreign table doc.tbl (x int, name text) server pg");
+
+        LogicalPlan plan = e.logicalPlan("select x from doc.tbl limit 10 offset 5");
+        assertThat(plan).isEqualTo(
+            """
+            Limit[10::bigint;5::bigint]
+              └ ForeignCollect[doc.tbl | [x] | true | limit [10::bigint;5::bigint]]
+            """
+        );
+
+        plan = e.logicalPlan("select x from doc.tbl where x > 1 order by x desc limit 10");
+        assertThat(plan).isEqualTo(
+            """
+            Limit[10::bigint;0]
+              └ OrderBy[x DESC]
+                └ ForeignCollect[doc.tbl | [x] | (x > 1) | order by [x DESC] | limit [10::bigint;0]]
+            """
+        );
+
+        Collect collect = e.plan("select x from doc.tbl order by x limit 10 offset 5");
+        ForeignCollectPhase phase = (ForeignCollectPhase) collect.collectPhase();
+        assertThat(phase.limit()).isEqualTo(15);
+        assertThat(phase.orderBy().orderBySymbols()).satisfiesExactly(
+            x -> assertThat(x).isReference().hasName("x")
+        );
+
+        plan = e.logicalPlan("select name from doc.tbl order by name limit 10");
+        assertThat(plan)
+            .as("Order by text is not pushed down, the foreign server could use a different collation")
+            .isEqualTo(
+                """
+                Limit[10::bigint;0]
+                  └ OrderBy[name ASC]
+                    └ ForeignCollect[doc.tbl | [name] | true]
+                """
+            );
+    }
+
+    @Test
+    public void test_filter_is_not_merged_into_foreign_collect_with_pushed_down_limit() throws Exception {
+        Settings options = Settings.builder()
+            .put("url", "jdbc:postgresql://localhost:5432/")
+            .build();
+        var e = SQLExecutor.of(clusterService)
+            .addServer("pg", "jdbc", "crate", options)
+            .addForeignTable("create foreign table doc.tbl (x int) server pg");
+
+        LogicalPlan plan = e.logicalPlan("select x from (select x from doc.tbl limit 10) t where x > 1");
+        assertThat(plan).isEqualTo(
+            """
+            Rename[x] AS t
+              └ Filter[(x > 1)]
+                └ Limit[10::bigint;0]
+                  └ ForeignCollect[doc.tbl | [x] | true | limit [10::bigint;0]]
+            """
+        );
+    }
+
+    @Test
+    public void test_aggregations_are_pushed_down_to_foreign_collect() throws Exception {
+        Settings options = Settings.builder()
+            .put("url", "jdbc:postgresql://localhost:5432/")
+            .build();
+        var e = SQLExecutor.of(clusterService)
+            .addServer("pg", "jdbc", "crate", options)
+            .addForeignTable("create foreign table doc.tbl (x int, y double, name text) server pg");
+
+        LogicalPlan plan = e.logicalPlan("select count(*), sum(x), max(y) from doc.tbl where x > 1");
+        assertThat(plan).isEqualTo(
+            """
+            ForeignCollect[doc.tbl | [count(*), sum(x), max(y)] | (x > 1) | group by []]
+            """
+        );
+
+        plan = e.logicalPlan("select x, count(y) from doc.tbl group by x");
+        assertThat(plan).isEqualTo(
+            """
+            ForeignCollect[doc.tbl | [x, count(y)] | true | group by [x]]
+            """
+        );
+        Collect collect = e.plan("select x, count(y) from doc.tbl group by x");
+        ForeignCollectPhase phase = (ForeignCollectPhase) collect.collectPhase();
+        assertThat(phase.groupBy()).satisfiesExactly(
+            x -> assertThat(x).isReference().hasName("x")
+        );
+
+        plan = e.logicalPlan("select avg(x) from doc.tbl");
+        assertThat(plan)
+            .as("Only simple aggregations are pushed down")
+            .isEqualTo(
+                """
+                HashAggregate[avg(x)]
+                  └ ForeignCollect[doc.tbl | [x] | true]
+                """
+            );
+
+        plan = e.logicalPlan("select max(name) from doc.tbl");
+        assertThat(plan)
+            .as("min/max/sum are only pushed down for numeric columns")
+            .isEqualTo(
+                """
+                HashAggregate[max(name)]
+                  └ ForeignCollect[doc.tbl | [name] | true]
+                """
+            );
+    }
+
+    @Test
+    public void test_aggregations_grouped_by_text_are_not_pushed_down_to_foreign_collect() throws Exception {
+        Settings options = Settings.builder()
+            .put("url", "jdbc:postgresql://localhost:5432/")
+            .build();
+        var e = SQLExecutor.of(clusterService)
+            .addServer("pg", "jdbc", "crate", options)
+            .addForeignTable("create foreign table doc.tbl (x int, name text) server pg");
+
+        LogicalPlan plan = e.logicalPlan("select name, count(x) from doc.tbl group by name");
+        assertThat(plan)
+            .as("The foreign server could use a different collation and merge distinct groups")
+            .isEqualTo(
+                """
+                GroupHashAggregate[name | count(x)]
+                  └ ForeignCollect[doc.tbl | [name, x] | true]
+                """
+            );
+    }
+
+    @Test
+    public void test_aggregations_are_not_pushed_down_on_partitioned_foreign_table() throws Exception {
+        Settings options = Settings.builder()
+            .put("url", "jdbc:postgresql://localhost:5432/")
+            .build();
+        var e = SQLExecutor.of(clusterService)
+            .addServer("pg", "jdbc", "crate", options)
+            .addForeignTable(
+                "create foreign table doc.tbl (x int) server pg options " +
+                "(partition_column 'x', partition_count 4, lower_bound 0, upper_bound 100)");
+
+        LogicalPlan plan = e.logicalPlan("select sum(x) from doc.tbl");
+        assertThat(plan).isEqualTo(
+            """
+            HashAggregate[sum(x)]
+              └ ForeignCollect[doc.tbl | [x] | true]
+            """
+        );
+    }
 }
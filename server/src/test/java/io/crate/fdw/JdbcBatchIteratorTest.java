@@ -22,11 +22,19 @@
 package io.crate.fdw;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.sql.Connection;
 import java.util.List;
 
 import org.junit.Test;
+import org.mockito.InOrder;
 
+import io.crate.analyze.OrderBy;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
@@ -72,5 +80,77 @@ public class JdbcBatchIteratorTest extends CrateDummyClusterServiceUnitTest {
             //
             .isEqualTo("SELECT x FROM doc.summits WHERE ((x > 10) AND (x < 40))");
     }
-}
 
+    @Test
+    public void test_range_of_partitioned_read_is_added_to_query() throws Exception {
+        var e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.summits (x int)");
+        DocTableInfo table = e.resolveTableInfo("doc.summits");
+        Symbol query = e.asSymbol("x > 10");
+        Reference x = table.getReadReference(ColumnIdent.of("x"));
+        List<Reference> columns = List.of(x);
+
+        String statement = JdbcBatchIterator.generateStatement(
+            table.ident(), columns, query, new JdbcBatchIterator.Range(x, null, 20L), "\"");
+        assertThat(statement).isEqualTo(
+            "SELECT \"x\" FROM \"doc\".\"summits\" WHERE (\"x\" > 10) AND (\"x\" < 20 OR \"x\" IS NULL)");
+
+        statement = JdbcBatchIterator.generateStatement(
+            table.ident(), columns, query, new JdbcBatchIterator.Range(x, 20L, 30L), "\"");
+        assertThat(statement).isEqualTo(
+            "SELECT \"x\" FROM \"doc\".\"summits\" WHERE (\"x\" > 10) AND (\"x\" >= 20 AND \"x\" < 30)");
+
+        statement = JdbcBatchIterator.generateStatement(
+            table.ident(), columns, query, new JdbcBatchIterator.Range(x, 30L, null), "\"");
+        assertThat(statement).isEqualTo(
+            "SELECT \"x\" FROM \"doc\".\"summits\" WHERE (\"x\" > 10) AND (\"x\" >= 30)");
+    }
+
+    @Test
+    public void test_group_by_and_order_by_are_added_to_query() throws Exception {
+        var e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.summits (x int, y int)");
+        DocTableInfo table = e.resolveTableInfo("doc.summits");
+        Symbol query = e.asSymbol("x > 10");
+        Reference x = table.getReadReference(ColumnIdent.of("x"));
+        Symbol sum = e.asSymbol("sum(y)");
+        OrderBy orderBy = new OrderBy(List.of(sum, x), new boolean[] { true, false }, new boolean[] { true, false });
+
+        String statement = JdbcBatchIterator.generateStatement(
+            table.ident(), List.of(x, sum), query, null, List.of(x), orderBy, "\"");
+        assertThat(statement).isEqualTo(
+            "SELECT \"x\", sum(\"y\") FROM \"doc\".\"summits\" WHERE (\"x\" > 10) GROUP BY \"x\" " +
+            "ORDER BY CASE WHEN sum(\"y\") IS NULL THEN 0 ELSE 1 END, sum(\"y\") DESC, " +
+            "CASE WHEN \"x\" IS NULL THEN 1 ELSE 0 END, \"x\"");
+    }
+
+    @Test
+    public void test_global_aggregate_has_no_group_by() throws Exception {
+        var e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.summits (x int)");
+        DocTableInfo table = e.resolveTableInfo("doc.summits");
+        Symbol query = e.asSymbol("x > 10");
+        Symbol count = e.asSymbol("count(*)");
+
+        String statement = JdbcBatchIterator.generateStatement(
+            table.ident(), List.of(count), query, null, List.of(), null, "\"");
+        assertThat(statement).isEqualTo(
+            "SELECT count(*) FROM \"doc\".\"summits\" WHERE (\"x\" > 10)");
+    }
+
+    @Test
+    public void test_transaction_of_cursor_is_rolled_back_on_close() throws Exception {
+        Connection conn = mock(Connection.class);
+        when(conn.getAutoCommit()).thenReturn(false);
+        JdbcBatchIterator.closeConnection(conn);
+        InOrder inOrder = inOrder(conn);
+        inOrder.verify(conn).rollback();
+        inOrder.verify(conn).close();
+
+        Connection autoCommitConn = mock(Connection.class);
+        when(autoCommitConn.getAutoCommit()).thenReturn(true);
+        JdbcBatchIterator.closeConnection(autoCommitConn);
+        verify(autoCommitConn, never()).rollback();
+        verify(autoCommitConn).close();
+    }
+}
@@ -22,14 +22,17 @@
 package io.crate.fdw;
 
 import static io.crate.testing.TestingHelpers.createNodeContext;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Test;
 
+import io.crate.execution.dsl.phases.ForeignCollectPhase;
 import io.crate.expression.InputFactory;
 import io.crate.expression.symbol.Literal;
 import io.crate.fdw.ServersMetadata.Server;
@@ -52,7 +55,7 @@ public class JdbcForeignDataWrapperTest extends CrateDummyClusterServiceUnitTest
     public void test_cannot_access_localhost_as_regular_user() throws Exception {
         Role arthur = RolesHelper.userOf("arthur");
         NodeContext nodeCtx = createNodeContext(List.of(arthur));
-        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(nodeCtx));
+        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(nodeCtx), THREAD_POOL);
         Settings options = Settings.builder()
             .put("url", "jdbc:postgresql://localhost:5432/")
             .build();
@@ -68,7 +71,9 @@ public class JdbcForeignDataWrapperTest extends CrateDummyClusterServiceUnitTest
         );
         Map<ColumnIdent, Reference> references = Map.of(nameRef.column(), nameRef);
         ForeignTable foreignTable = new ForeignTable(relationName, references, server.name(), Settings.EMPTY);
-        assertThatThrownBy(() -> fdw.getIterator(arthur, server, foreignTable, txnCtx, List.of(nameRef), Literal.BOOLEAN_TRUE))
+        var phase = new ForeignCollectPhase(
+            UUID.randomUUID(), 1, List.of("n1"), relationName, List.of(nameRef), Literal.BOOLEAN_TRUE, "arthur");
+        assertThatThrownBy(() -> fdw.getIterator(arthur, server, foreignTable, txnCtx, phase, List.of(0)))
             .hasMessage("Only a super user can connect to localhost unless `fdw.allow_local` is set to true");
     }
 
@@ -76,7 +81,7 @@ public class JdbcForeignDataWrapperTest extends CrateDummyClusterServiceUnitTest
     public void test_can_access_remote_as_regular_user() throws Exception {
         Role arthur = RolesHelper.userOf("arthur");
         NodeContext nodeCtx = createNodeContext(List.of(arthur));
-        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(nodeCtx));
+        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(nodeCtx), THREAD_POOL);
         Settings options = Settings.builder()
             .put("url", "jdbc:postgresql://192.0.2.0:5432/postgres")
             .build();
@@ -93,7 +98,83 @@ public class JdbcForeignDataWrapperTest extends CrateDummyClusterServiceUnitTest
         Map<ColumnIdent, Reference> references = Map.of(nameRef.column(), nameRef);
         ForeignTable foreignTable = new ForeignTable(relationName, references, server.name(), Settings.EMPTY);
         // validates that no exception is thrown
-        fdw.getIterator(arthur, server, foreignTable, txnCtx, List.of(nameRef), Literal.BOOLEAN_TRUE);
+        var phase = new ForeignCollectPhase(
+            UUID.randomUUID(), 1, List.of("n1"), relationName, List.of(nameRef), Literal.BOOLEAN_TRUE, "arthur");
+        fdw.getIterator(arthur, server, foreignTable, txnCtx, phase, List.of(0));
     }
-}
 
+    @Test
+    public void test_partitioned_read_splits_bounds_into_ranges_with_open_ends() throws Exception {
+        RelationName relationName = new RelationName("doc", "events");
+        Reference idRef = new SimpleReference(
+            new ReferenceIdent(relationName, "id"),
+            RowGranularity.DOC,
+            DataTypes.LONG,
+            1,
+            null
+        );
+        assertThat(JdbcForeignDataWrapper.ranges(idRef, 0, 100, 4)).containsExactly(
+            new JdbcBatchIterator.Range(idRef, null, 25L),
+            new JdbcBatchIterator.Range(idRef, 25L, 50L),
+            new JdbcBatchIterator.Range(idRef, 50L, 75L),
+            new JdbcBatchIterator.Range(idRef, 75L, null)
+        );
+        assertThat(JdbcForeignDataWrapper.ranges(idRef, -10, 2, 3)).containsExactly(
+            new JdbcBatchIterator.Range(idRef, null, -6L),
+            new JdbcBatchIterator.Range(idRef, -6L, -2L),
+            new JdbcBatchIterator.Range(idRef, -2L, null)
+        );
+        assertThat(JdbcForeignDataWrapper.ranges(idRef, Long.MIN_VALUE, Long.MAX_VALUE, 4)).containsExactly(
+            new JdbcBatchIterator.Range(idRef, null, Long.MIN_VALUE / 2 - 1),
+            new JdbcBatchIterator.Range(idRef, Long.MIN_VALUE / 2 - 1, -1L),
+            new JdbcBatchIterator.Range(idRef, -1L, Long.MAX_VALUE / 2),
+            new JdbcBatchIterator.Range(idRef, Long.MAX_VALUE / 2, null)
+        );
+        assertThat(JdbcForeignDataWrapper.ranges(idRef, Long.MAX_VALUE - 2, Long.MAX_VALUE, 4))
+            .as("Boundaries don't exceed the upper bound if there are more ranges than values")
+            .extracting(JdbcBatchIterator.Range::to)
+            .containsExactly(Long.MAX_VALUE - 2, Long.MAX_VALUE - 1, Long.MAX_VALUE - 1, null);
+    }
+
+    @Test
+    public void test_partition_count_requires_integral_partition_column_and_bounds() throws Exception {
+        NodeContext nodeCtx = createNodeContext();
+        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(nodeCtx), THREAD_POOL);
+        RelationName relationName = new RelationName("doc", "events");
+        Reference nameRef = new SimpleReference(
+            new ReferenceIdent(relationName, "name"),
+            RowGranularity.DOC,
+            DataTypes.STRING,
+            1,
+            null
+        );
+        Reference idRef = new SimpleReference(
+            new ReferenceIdent(relationName, "id"),
+            RowGranularity.DOC,
+            DataTypes.INTEGER,
+            2,
+            null
+        );
+        Map<ColumnIdent, Reference> references = Map.of(nameRef.column(), nameRef, idRef.column(), idRef);
+
+        Settings options = Settings.builder().put("partition_count", 4).build();
+        assertThatThrownBy(() -> fdw.numPartitions(new ForeignTable(relationName, references, "pg", options)))
+            .hasMessage("The `partition_column` option of foreign table doc.events is required if `partition_count` is greater than 1");
+
+        Settings nameOptions = Settings.builder().put(options).put("partition_column", "name").build();
+        assertThatThrownBy(() -> fdw.numPartitions(new ForeignTable(relationName, references, "pg", nameOptions)))
+            .hasMessage("The `partition_column` of a foreign table must have an integral type, `name` has type text");
+
+        Settings idOptions = Settings.builder().put(options).put("partition_column", "id").build();
+        assertThatThrownBy(() -> fdw.numPartitions(new ForeignTable(relationName, references, "pg", idOptions)))
+            .hasMessage("The `lower_bound` and `upper_bound` options of foreign table doc.events are required if `partition_count` is greater than 1");
+
+        Settings validOptions = Settings.builder()
+            .put(idOptions)
+            .put("lower_bound", 0)
+            .put("upper_bound", 1000)
+            .build();
+        assertThat(fdw.numPartitions(new ForeignTable(relationName, references, "pg", validOptions))).isEqualTo(4);
+        assertThat(fdw.numPartitions(new ForeignTable(relationName, references, "pg", Settings.EMPTY))).isEqualTo(1);
+    }
+}
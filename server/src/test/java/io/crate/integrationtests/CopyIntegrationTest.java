@@ -468,6 +468,76 @@ public class CopyIntegrationTest extends SQLHttpIntegrationTest {
         assertThat(size).isEqualTo(35L);
     }
 
+    @Test
+    public void test_copy_to_and_from_parquet() throws Exception {
+        execute("""
+            create table src (
+                id int primary key,
+                name text,
+                ts timestamp with time zone,
+                tags array(text),
+                obj object as (x int)
+            ) clustered into 2 shards with (number_of_replicas = 0)
+            """);
+        execute("""
+            insert into src (id, name, ts, tags, obj) values
+                (1, 'foo', '2024-01-01T10:00:00Z', ['a', 'b'], {x = 10}),
+                (2, null, null, [], null),
+                (3, 'bar', '2024-06-30T00:00:00Z', null, {x = null})
+            """);
+        execute("refresh table src");
+
+        String uriTemplate = Paths.get(folder.getRoot().toURI()).toUri().toString();
+        execute("copy src to DIRECTORY ? with (format = 'parquet', compression = 'gzip')", new Object[]{uriTemplate});
+        assertThat(response).hasRowCount(3L);
+        assertThat(folder.getRoot().list()).allSatisfy(file -> assertThat(file).endsWith(".parquet"));
+
+        execute("""
+            create table dst (
+                id int primary key,
+                name text,
+                ts timestamp with time zone,
+                tags array(text),
+                obj object as (x int)
+            ) with (number_of_replicas = 0)
+            """);
+        execute("copy dst from ? with (format = 'parquet')", new Object[]{uriTemplate + "*"});
+        assertThat(response).hasRowCount(3L);
+        execute("refresh table dst");
+        execute("select id, name, ts, tags, obj from dst order by id");
+        assertThat(response).hasRows(
+            "1| foo| 1704103200000| [a, b]| {x=10}",
+            "2| NULL| NULL| []| NULL",
+            "3| bar| 1719705600000| NULL| {x=NULL}"
+        );
+    }
+
+    @Test
+    public void test_copy_to_lz4_files_of_max_file_size_and_back() throws Exception {
+        execute("create table src (id int, name text) clustered into 1 shards with (number_of_replicas = 0)");
+        Object[][] bulkArgs = new Object[20_000][];
+        for (int i = 0; i < bulkArgs.length; i++) {
+            bulkArgs[i] = new Object[] { i, "name-" + i };
+        }
+        execute("insert into src (id, name) values (?, ?)", bulkArgs);
+        execute("refresh table src");
+
+        String uriTemplate = Paths.get(folder.getRoot().toURI()).toUri().toString();
+        execute("copy src to DIRECTORY ? with (compression = 'lz4', max_file_size = '32kb')", new Object[]{uriTemplate});
+        assertThat(response).hasRowCount(20_000L);
+        String[] files = folder.getRoot().list();
+        assertThat(files)
+            .hasSizeGreaterThan(1)
+            .allSatisfy(file -> assertThat(file).startsWith("src_0_").endsWith(".json.lz4"));
+
+        execute("create table dst (id int, name text) with (number_of_replicas = 0)");
+        execute("copy dst from ? with (compression = 'lz4')", new Object[]{uriTemplate + "*"});
+        assertThat(response).hasRowCount(20_000L);
+        execute("refresh table dst");
+        execute("select count(*), count(distinct id), max(id) from dst");
+        assertThat(response).hasRows("20000| 20000| 19999");
+    }
+
     @Test
     public void testCopyColumnsToDirectory() throws Exception {
         this.setup.groupBySetup();
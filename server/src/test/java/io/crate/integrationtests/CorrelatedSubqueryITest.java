@@ -520,4 +520,40 @@ public class CorrelatedSubqueryITest extends IntegTestCase {
         );
         assertThat(response).hasRows("111");
     }
+
+    @Test
+    public void test_correlated_subquery_with_repeated_outer_values() {
+        execute("CREATE TABLE parent (id INT, name TEXT)");
+        execute("CREATE TABLE child (parent_id INT)");
+        execute("INSERT INTO parent (id, name) VALUES (1, 'a'), (2, 'b')");
+        execute("INSERT INTO child (parent_id) VALUES (1), (2), (1), (2), (1), (3)");
+        execute("REFRESH TABLE parent, child");
+
+        // Results of the sub-query are cached by the value of `c.parent_id`
+        execute("""
+            SELECT
+                c.parent_id,
+                (SELECT p.name FROM parent p WHERE p.id = c.parent_id)
+            FROM child c
+            ORDER BY 1, 2"""
+        );
+        assertThat(response).hasRows(
+            "1| a",
+            "1| a",
+            "1| a",
+            "2| b",
+            "2| b",
+            "3| NULL"
+        );
+
+        // Non-deterministic sub-queries are executed for each row
+        execute("""
+            SELECT count(DISTINCT r) FROM (
+                SELECT (SELECT random() FROM parent p WHERE p.id = c.parent_id) AS r
+                FROM child c
+                WHERE c.parent_id = 1
+            ) t"""
+        );
+        assertThat(response).hasRows("3");
+    }
 }
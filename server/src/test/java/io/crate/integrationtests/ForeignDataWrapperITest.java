@@ -185,6 +185,23 @@ public class ForeignDataWrapperITest extends IntegTestCase {
             "2"
         );
 
+        // limit, order by and aggregations are pushed down to the foreign server
+        response = sqlExecutor.executeAs("select x from doc.dummy order by x desc limit 2 offset 1", trillian);
+        assertThat(response).hasRows(
+            "2",
+            "1"
+        );
+        response = sqlExecutor.executeAs("select count(*), sum(y), max(x) from doc.dummy where x > 1", trillian);
+        assertThat(response).hasRows(
+            "2| 44| 42"
+        );
+        response = sqlExecutor.executeAs(
+            "select x, count(y) from doc.dummy group by x order by count(y) desc, x limit 2", trillian);
+        assertThat(response).hasRows(
+            "1| 1",
+            "2| 1"
+        );
+
 
         // information is persisted and survives restart
         cluster().fullRestart();
@@ -263,6 +280,51 @@ public class ForeignDataWrapperITest extends IntegTestCase {
         execute("drop foreign table if exists doc.dummy");
     }
 
+    @Test
+    public void test_partitioned_read_reads_rows_with_null_and_out_of_bounds_keys_exactly_once() throws Exception {
+        execute("create table doc.tbl (id int, x int)");
+        execute("""
+            insert into doc.tbl (id, x) values
+                (1, null), (2, -50), (3, 0), (4, 10), (5, 24), (6, 25), (7, null), (8, 99), (9, 100), (10, 500)
+            """);
+        execute("refresh table doc.tbl");
+
+        PostgresNetty postgresNetty = cluster().getInstance(PostgresNetty.class);
+        int port = postgresNetty.boundAddress().publishAddress().getPort();
+        String url = "jdbc:postgresql://127.0.0.1:" + port + '/';
+        execute("create server pg foreign data wrapper jdbc options (url ?)", new Object[] { url });
+        execute(
+            """
+            CREATE FOREIGN TABLE doc.partitioned (id int, x int)
+            SERVER pg
+            OPTIONS (
+                schema_name 'doc',
+                table_name 'tbl',
+                partition_column 'x',
+                partition_count 4,
+                lower_bound 0,
+                upper_bound 100
+            )
+            """);
+
+        // NULL keys don't match any range condition; only the first range includes them
+        execute("select id, x from doc.partitioned order by id");
+        assertThat(response).hasRows(
+            "1| NULL",
+            "2| -50",
+            "3| 0",
+            "4| 10",
+            "5| 24",
+            "6| 25",
+            "7| NULL",
+            "8| 99",
+            "9| 100",
+            "10| 500"
+        );
+        execute("select count(*) from doc.partitioned where x is null");
+        assertThat(response).hasRows("2");
+    }
+
     @Test
     public void test_can_drop_user_mapping() throws Exception {
         execute("create user trillian with (password = 'secret')");
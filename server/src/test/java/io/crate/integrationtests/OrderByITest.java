@@ -24,9 +24,32 @@ package io.crate.integrationtests;
 
 import static io.crate.testing.Asserts.assertThat;
 
+import java.util.List;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopFieldCollectorManager;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.test.IntegTestCase;
 import org.junit.Test;
 
+import io.crate.analyze.OrderBy;
+import io.crate.execution.engine.collect.DocInputFactory;
+import io.crate.execution.engine.sort.LuceneSort;
+import io.crate.expression.reference.doc.lucene.CollectorContext;
+import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.doc.DocTableInfo;
+
 public class OrderByITest extends IntegTestCase {
 
     @Test
@@ -73,4 +96,99 @@ public class OrderByITest extends IntegTestCase {
             "foo",
             "hello");
     }
+
+    @Test
+    public void test_order_by_limit_on_table_sorted_by_column() throws Exception {
+        execute("create table t1 (x int, s text) clustered into 1 shards with (sorted_by = 'x desc')");
+        execute("insert into t1 (x, s) values (?, ?)", new Object[][]{
+            {3, "c"},
+            {null, "n"},
+            {1, "a"},
+        });
+        execute("refresh table t1");
+        execute("insert into t1 (x, s) values (?, ?)", new Object[][]{
+            {4, "d"},
+            {2, "b"},
+        });
+        execute("refresh table t1");
+
+        execute("select x, s from t1 order by x desc limit 3");
+        assertThat(response).hasRows(
+            "NULL| n",
+            "4| d",
+            "3| c");
+
+        execute("select x from t1 order by x desc nulls last limit 2");
+        assertThat(response).hasRows(
+            "4",
+            "3");
+
+        execute("select x from t1 order by x limit 2");
+        assertThat(response).hasRows(
+            "1",
+            "2");
+
+        execute("show create table t1");
+        assertThat((String) response.rows()[0][0]).contains("sorted_by = 'x desc'");
+    }
+
+    @Test
+    public void test_segments_of_sorted_table_are_sorted_and_order_by_limit_terminates_early() throws Exception {
+        execute("create table t2 (x int) clustered into 1 shards with (sorted_by = 'x', number_of_replicas = 0)");
+        int numDocs = 0;
+        for (int segment = 0; segment < 3; segment++) {
+            Object[][] rows = new Object[50][];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new Object[] { (i * 7 + segment) % 50 };
+            }
+            execute("insert into t2 (x) values (?)", rows);
+            execute("refresh table t2");
+            numDocs += rows.length;
+        }
+        execute("select x from t2 order by x limit 3");
+        assertThat(response).hasRows(
+            "0",
+            "0",
+            "0");
+
+        NodeContext nodeCtx = cluster().getDataNodeInstance(NodeContext.class);
+        DocTableInfo table = nodeCtx.schemas().getTableInfo(new RelationName(sqlExecutor.getCurrentSchema(), "t2"));
+        Sort indexSort = LuceneSort.indexSort(table);
+        Reference x = table.getReference(ColumnIdent.of("x"));
+        Sort orderBySort = LuceneSort.generate(
+            CoordinatorTxnCtx.systemTransactionContext(),
+            new CollectorContext(() -> null),
+            new OrderBy(List.of(x)),
+            new DocInputFactory(
+                nodeCtx,
+                new LuceneReferenceResolver(table.ident().indexNameOrAlias(), List.of(), _ -> false)
+            )
+        );
+        assertThat(orderBySort).isEqualTo(indexSort);
+
+        int numSearchedShards = 0;
+        for (IndicesService indicesService : cluster().getInstances(IndicesService.class)) {
+            IndexService indexService = indicesService.indexService(resolveIndex(table.ident().indexNameOrAlias()));
+            if (indexService == null) {
+                continue;
+            }
+            numSearchedShards++;
+            try (Engine.Searcher searcher = indexService.getShard(0).acquireSearcher("test")) {
+                for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                    assertThat(leaf.reader().getMetaData().getSort()).isEqualTo(indexSort);
+                }
+                // Same collector settings as LuceneOrderedDocCollector
+                TopFieldDocs topDocs = searcher.search(
+                    new MatchAllDocsQuery(),
+                    new TopFieldCollectorManager(orderBySort, 3, null, 0, false)
+                );
+                assertThat(topDocs.scoreDocs).hasSize(3);
+                assertThat(topDocs.totalHits.relation).isEqualTo(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+                assertThat(topDocs.totalHits.value)
+                    .as("Collection of each sorted segment stops once the limit is reached")
+                    .isLessThan(numDocs);
+            }
+        }
+        assertThat(numSearchedShards).isEqualTo(1);
+    }
 }
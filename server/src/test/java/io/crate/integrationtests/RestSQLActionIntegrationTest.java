@@ -205,4 +205,43 @@ public class RestSQLActionIntegrationTest extends SQLHttpIntegrationTest {
         // The last error message must not be available in the response
         assertThat(response.body()).contains("{\"rowcount\":-2}");
     }
+
+    @Test
+    public void test_stream_result_as_newline_delimited_json() throws Exception {
+        var response = post("_sql?format=ndjson", "{\"stmt\": \"select x from generate_series(1, 3) as t (x)\"}");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("content-type")).hasValue("application/x-ndjson; charset=UTF-8");
+        assertThat(response.body().replaceAll(",\"duration\":[^,}]+", "")).isEqualTo(
+            """
+            {"cols":["x"]}
+            [1]
+            [2]
+            [3]
+            {"rowcount":3}
+            """
+        );
+    }
+
+    @Test
+    public void test_ndjson_format_is_rejected_for_statements_without_result_set_and_bulk_requests() throws Exception {
+        var response = post("_sql?format=ndjson", "{\"stmt\": \"create table doc.t (x int)\"}");
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(response.body()).contains(
+            "The ndjson format is only supported for statements that return a result set");
+        assertThat(execute("select count(*) from information_schema.tables where table_name = 't'"))
+            .hasRows("0");
+
+        response = post(
+            "_sql?format=ndjson",
+            "{\"stmt\": \"select ?\", \"bulk_args\": [[1], [2]]}");
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(response.body()).contains("The ndjson format is not supported for bulk requests");
+    }
+
+    @Test
+    public void test_stream_result_as_json() throws Exception {
+        var response = post("_sql?stream", "{\"stmt\": \"select x from generate_series(1, 3) as t (x)\"}");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).startsWith("{\"cols\":[\"x\"],\"rows\":[[1],[2],[3]],\"rowcount\":3,");
+    }
 }
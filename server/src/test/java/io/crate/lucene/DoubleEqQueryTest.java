@@ -54,8 +54,7 @@ public class DoubleEqQueryTest extends LuceneQueryBuilderTest {
         assertThat(query).hasToString("a1:[1.1 TO 1.1]");
 
         query = convert("a2 = 1.1");
-        // SortedNumericDocValuesRangeQuery.class is not public
-        assertThat(query.getClass().getName()).endsWith("SortedNumericDocValuesRangeQuery");
+        assertThat(query).isExactlyInstanceOf(DocValuesRangeQuery.class);
         long l = NumericUtils.doubleToSortableLong(1.1);
         assertThat(query).hasToString("a2:[" + l + " TO " + l + "]");
 
@@ -75,8 +74,7 @@ public class DoubleEqQueryTest extends LuceneQueryBuilderTest {
         assertThat(query).hasToString("a1:[1.1000000000000003 TO Infinity]");
 
         query = convert("a2 < 1.1");
-        // SortedNumericDocValuesRangeQuery.class is not public
-        assertThat(query.getClass().getName()).endsWith("SortedNumericDocValuesRangeQuery");
+        assertThat(query).isExactlyInstanceOf(DocValuesRangeQuery.class);
         long l = NumericUtils.doubleToSortableLong(Double.NEGATIVE_INFINITY);
         long l2 = NumericUtils.doubleToSortableLong(DoublePoint.nextDown(1.1));
         assertThat(query).hasToString("a2:[" + l + " TO " + l2 + "]");
@@ -0,0 +1,91 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.BasePostingsFormatTestCase;
+import org.apache.lucene.tests.util.TestUtil;
+import org.apache.lucene.tests.util.VerifyTestClassNamingConvention;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+/**
+ * Note: the class name starts with Test to follow Lucene test class naming convention, {@link
+ * VerifyTestClassNamingConvention}
+ */
+public class TestBloomFilterPostingsFormat extends BasePostingsFormatTestCase {
+
+    @Override
+    protected Codec getCodec() {
+        return TestUtil.alwaysPostingsFormat(new BloomFilterPostingsFormat(TestUtil.getDefaultPostingsFormat()));
+    }
+
+    @Test
+    public void testNumBitsIsPowerOfTwoWithAtLeastBitsPerTerm() {
+        assertThat(BloomFilterPostingsFormat.numBits(0)).isEqualTo(BloomFilterPostingsFormat.MIN_NUM_BITS);
+        assertThat(BloomFilterPostingsFormat.numBits(1000)).isEqualTo(16384L);
+        assertThat(BloomFilterPostingsFormat.numBits(1024)).isEqualTo(16384L);
+        assertThat(BloomFilterPostingsFormat.numBits(Integer.MAX_VALUE)).isEqualTo(BloomFilterPostingsFormat.MAX_NUM_BITS);
+    }
+
+    @Test
+    public void testSeekExactOnlyFindsIndexedTerms() throws IOException {
+        try (Directory dir = newDirectory()) {
+            IndexWriterConfig iwc = newIndexWriterConfig().setCodec(getCodec());
+            int numDocs = atLeast(500);
+            try (IndexWriter writer = new IndexWriter(dir, iwc)) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document doc = new Document();
+                    doc.add(new StringField("_id", "id-" + (i * 2), Field.Store.NO));
+                    writer.addDocument(doc);
+                }
+                writer.forceMerge(1);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                for (int i = 0; i < numDocs; i++) {
+                    boolean found = false;
+                    boolean foundMissing = false;
+                    for (LeafReaderContext leaf : reader.leaves()) {
+                        TermsEnum termsEnum = leaf.reader().terms("_id").iterator();
+                        found |= termsEnum.seekExact(new BytesRef("id-" + (i * 2)));
+                        foundMissing |= termsEnum.seekExact(new BytesRef("id-" + (i * 2 + 1)));
+                    }
+                    assertThat(found).isTrue();
+                    assertThat(foundMissing).isFalse();
+                }
+            }
+        }
+    }
+}
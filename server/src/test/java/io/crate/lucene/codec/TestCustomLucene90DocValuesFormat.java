@@ -0,0 +1,170 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.lucene.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.BaseDocValuesFormatTestCase;
+import org.apache.lucene.tests.util.TestUtil;
+import org.apache.lucene.tests.util.VerifyTestClassNamingConvention;
+import org.junit.Test;
+
+import io.crate.lucene.DocValuesRangeQuery;
+
+/**
+ * Note: the class name starts with Test to follow Lucene test class naming convention, {@link
+ * VerifyTestClassNamingConvention}
+ */
+public class TestCustomLucene90DocValuesFormat extends BaseDocValuesFormatTestCase {
+
+    @Override
+    protected Codec getCodec() {
+        return TestUtil.alwaysDocValuesFormat(new CustomLucene90DocValuesFormat());
+    }
+
+    @Test
+    public void testZoneMapContainsMinMaxAndDocCountPerBlock() throws IOException {
+        int blockSize = CustomLucene90DocValuesFormat.NUMERIC_BLOCK_SIZE;
+        int numDocs = blockSize * 2 + 10;
+        try (Directory dir = newDirectory()) {
+            IndexWriterConfig iwc = new IndexWriterConfig().setCodec(getCodec());
+            try (IndexWriter writer = new IndexWriter(dir, iwc)) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document doc = new Document();
+                    // second block has no values
+                    if (i < blockSize || i >= blockSize * 2) {
+                        doc.add(new SortedNumericDocValuesField("x", i));
+                    }
+                    writer.addDocument(doc);
+                }
+                writer.forceMerge(1);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                SortedNumericDocValues values = reader.leaves().get(0).reader().getSortedNumericDocValues("x");
+                DocValuesZoneMap zoneMap = DocValuesZoneMap.of(values);
+                assertThat(zoneMap).isNotNull();
+                assertThat(zoneMap.numBlocks()).isEqualTo(3);
+                assertThat(zoneMap.docCount()).isEqualTo(blockSize + 10);
+                assertThat(zoneMap.minValue()).isEqualTo(0L);
+                assertThat(zoneMap.maxValue()).isEqualTo(numDocs - 1L);
+
+                assertThat(zoneMap.docCount(0)).isEqualTo(blockSize);
+                assertThat(zoneMap.minValue(0)).isEqualTo(0L);
+                assertThat(zoneMap.maxValue(0)).isEqualTo(blockSize - 1L);
+                assertThat(zoneMap.docCount(1)).isEqualTo(0);
+                assertThat(zoneMap.intersects(1, Long.MIN_VALUE, Long.MAX_VALUE)).isFalse();
+                assertThat(zoneMap.docCount(2)).isEqualTo(10);
+                assertThat(zoneMap.minValue(2)).isEqualTo(blockSize * 2L);
+                assertThat(zoneMap.maxValue(2)).isEqualTo(numDocs - 1L);
+            }
+        }
+    }
+
+    @Test
+    public void testZoneMapOfMultiValuedAndNumericFields() throws IOException {
+        int blockSize = CustomLucene90DocValuesFormat.NUMERIC_BLOCK_SIZE;
+        int numDocs = blockSize + 10;
+        try (Directory dir = newDirectory()) {
+            IndexWriterConfig iwc = new IndexWriterConfig().setCodec(getCodec());
+            try (IndexWriter writer = new IndexWriter(dir, iwc)) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document doc = new Document();
+                    doc.add(new SortedNumericDocValuesField("x", i));
+                    doc.add(new SortedNumericDocValuesField("x", -i));
+                    doc.add(new NumericDocValuesField("y", i * 2L));
+                    writer.addDocument(doc);
+                }
+                writer.forceMerge(1);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                LeafReader leafReader = reader.leaves().get(0).reader();
+                DocValuesZoneMap multiValued = DocValuesZoneMap.of(leafReader.getSortedNumericDocValues("x"));
+                assertThat(multiValued).isNotNull();
+                assertThat(multiValued.docCount(0)).isEqualTo(blockSize);
+                assertThat(multiValued.minValue(0)).isEqualTo(-(blockSize - 1L));
+                assertThat(multiValued.maxValue(0)).isEqualTo(blockSize - 1L);
+                assertThat(multiValued.docCount(1)).isEqualTo(10);
+                assertThat(multiValued.minValue(1)).isEqualTo(-(numDocs - 1L));
+                assertThat(multiValued.maxValue(1)).isEqualTo(numDocs - 1L);
+
+                DocValuesZoneMap numeric = DocValuesZoneMap.of(
+                    DocValues.singleton(leafReader.getNumericDocValues("y")));
+                assertThat(numeric).isNotNull();
+                assertThat(numeric.docCount()).isEqualTo(numDocs);
+                assertThat(numeric.minValue(1)).isEqualTo(blockSize * 2L);
+                assertThat(numeric.maxValue(1)).isEqualTo((numDocs - 1L) * 2);
+            }
+        }
+    }
+
+    @Test
+    public void testRangeQueryUsingZoneMapMatchesSlowRangeQuery() throws IOException {
+        int numDocs = atLeast(CustomLucene90DocValuesFormat.NUMERIC_BLOCK_SIZE * 3);
+        try (Directory dir = newDirectory()) {
+            IndexWriterConfig iwc = new IndexWriterConfig().setCodec(getCodec());
+            try (IndexWriter writer = new IndexWriter(dir, iwc)) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document doc = new Document();
+                    if (random().nextInt(10) > 0) {
+                        // mostly increasing values to get selective blocks
+                        doc.add(new SortedNumericDocValuesField("x", i + random().nextInt(100)));
+                        if (random().nextInt(20) == 0) {
+                            doc.add(new SortedNumericDocValuesField("x", random().nextInt(numDocs)));
+                        }
+                    }
+                    writer.addDocument(doc);
+                }
+                writer.forceMerge(1);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                for (int i = 0; i < 50; i++) {
+                    long lower = random().nextInt(numDocs + 200) - 100;
+                    long upper = lower + random().nextInt(numDocs / 2);
+                    Query expected = SortedNumericDocValuesField.newSlowRangeQuery("x", lower, upper);
+                    Query actual = DocValuesRangeQuery.newRangeQuery("x", lower, upper);
+                    assertThat(searcher.count(actual))
+                        .as("[%d, %d]", lower, upper)
+                        .isEqualTo(searcher.count(expected));
+                }
+                assertThat(searcher.count(DocValuesRangeQuery.newExactQuery("x", -1)))
+                    .isEqualTo(0);
+            }
+        }
+    }
+}
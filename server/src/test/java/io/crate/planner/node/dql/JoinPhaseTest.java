@@ -148,6 +148,7 @@ public class JoinPhaseTest extends ESTestCase {
             List.of(Literal.of("testLeft"), Literal.of(10)),
             List.of(Literal.of("testRight"), Literal.of(20)),
             List.of(DataTypes.STRING, DataTypes.INTEGER),
+            List.of(DataTypes.STRING, DataTypes.INTEGER, DataTypes.LONG),
             111,
             JoinType.INNER
         );
@@ -173,6 +174,7 @@ public class JoinPhaseTest extends ESTestCase {
         assertThat(node.numLeftOutputs()).isEqualTo(node2.numLeftOutputs());
         assertThat(node.numRightOutputs()).isEqualTo(node2.numRightOutputs());
         assertThat(node.leftOutputTypes()).isEqualTo(node2.leftOutputTypes());
+        assertThat(node.rightOutputTypes()).isEqualTo(node2.rightOutputTypes());
         assertThat(node.estimatedRowSizeForLeft()).isEqualTo(node2.estimatedRowSizeForLeft());
     }
 }
@@ -25,15 +25,26 @@ import static io.crate.testing.Asserts.assertThat;
 import static io.crate.testing.Asserts.isReference;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.WindowDefinition;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.dsl.projection.WindowAggProjection;
+import io.crate.expression.symbol.InputColumn;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.WindowFunction;
+import io.crate.planner.ExecutionPlan;
+import io.crate.planner.Merge;
+import io.crate.planner.PositionalOrderBy;
+import io.crate.planner.node.dql.Collect;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
 
 public class WindowAggTest extends CrateDummyClusterServiceUnitTest {
 
@@ -143,6 +154,90 @@ public class WindowAggTest extends CrateDummyClusterServiceUnitTest {
         assertThat(orderBy.orderBySymbols()).satisfiesExactly(isReference("y"), isReference("x"));
     }
 
+    @Test
+    public void test_input_sorted_by_partitions_and_order_by_is_detected() {
+        InputColumn x = new InputColumn(0, DataTypes.INTEGER);
+        InputColumn y = new InputColumn(1, DataTypes.INTEGER);
+        WindowDefinition partitionByYOrderByX = new WindowDefinition(
+            List.of(y),
+            new OrderBy(List.of(x), new boolean[] {true}, new boolean[] {false}),
+            null
+        );
+        PositionalOrderBy byYThenXDesc = new PositionalOrderBy(
+            new int[] {1, 0}, new boolean[] {false, true}, new boolean[] {false, false});
+        assertThat(WindowAgg.isSortedByWindowDefinition(byYThenXDesc, partitionByYOrderByX)).isTrue();
+
+        // direction of the partition columns doesn't matter, only that the partitions are contiguous
+        PositionalOrderBy byYDescThenXDesc = new PositionalOrderBy(
+            new int[] {1, 0}, new boolean[] {true, true}, new boolean[] {false, false});
+        assertThat(WindowAgg.isSortedByWindowDefinition(byYDescThenXDesc, partitionByYOrderByX)).isTrue();
+
+        PositionalOrderBy byYThenXAsc = new PositionalOrderBy(
+            new int[] {1, 0}, new boolean[] {false, false}, new boolean[] {false, false});
+        assertThat(WindowAgg.isSortedByWindowDefinition(byYThenXAsc, partitionByYOrderByX)).isFalse();
+
+        PositionalOrderBy byXThenY = new PositionalOrderBy(
+            new int[] {0, 1}, new boolean[] {true, false}, new boolean[] {false, false});
+        assertThat(WindowAgg.isSortedByWindowDefinition(byXThenY, partitionByYOrderByX)).isFalse();
+        assertThat(WindowAgg.isSortedByWindowDefinition(null, partitionByYOrderByX)).isFalse();
+
+        WindowDefinition partitionByXAndY = new WindowDefinition(List.of(x, y), null, null);
+        assertThat(WindowAgg.isSortedByWindowDefinition(byYThenXAsc, partitionByXAndY)).isTrue();
+        PositionalOrderBy byY = new PositionalOrderBy(new int[] {1}, new boolean[] {false}, new boolean[] {false});
+        assertThat(WindowAgg.isSortedByWindowDefinition(byY, partitionByXAndY)).isFalse();
+
+        WindowDefinition noPartitions = new WindowDefinition(
+            List.of(), new OrderBy(List.of(y)), null);
+        assertThat(WindowAgg.isSortedByWindowDefinition(byY, noPartitions)).isFalse();
+    }
+
+    @Test
+    public void test_window_over_source_ordered_by_partition_and_order_by_uses_sorted_input() {
+        ExecutionPlan plan = e.plan(
+            "SELECT x, row_number() OVER (PARTITION BY x ORDER BY y) " +
+            "FROM (SELECT x, y FROM t1 ORDER BY x, y LIMIT 10) t");
+        assertThat(windowAggProjection(plan).inputSorted()).isTrue();
+    }
+
+    @Test
+    public void test_window_over_table_pushes_partition_by_and_order_by_to_the_collect_phase() {
+        ExecutionPlan plan = e.plan("SELECT x, row_number() OVER (PARTITION BY x ORDER BY y DESC) FROM t1");
+        assertThat(windowAggProjection(plan).inputSorted()).isTrue();
+
+        ExecutionPlan source = plan;
+        while (source instanceof Merge merge) {
+            source = merge.subPlan();
+        }
+        OrderBy collectOrder = ((Collect) source).collectPhase().orderBy();
+        assertThat(collectOrder).isNotNull();
+        assertThat(collectOrder.orderBySymbols()).satisfiesExactly(isReference("x"), isReference("y"));
+        assertThat(collectOrder.reverseFlags()).containsExactly(false, true);
+    }
+
+    @Test
+    public void test_window_over_source_with_a_different_order_sorts_the_input() {
+        // The ORDER BY of the subquery is applied before its LIMIT and can't be replaced by the window ordering
+        ExecutionPlan plan = e.plan(
+            "SELECT x, row_number() OVER (PARTITION BY x ORDER BY y) " +
+            "FROM (SELECT x, y FROM t1 ORDER BY y, x LIMIT 10) t");
+        assertThat(windowAggProjection(plan).inputSorted()).isFalse();
+    }
+
+    private static WindowAggProjection windowAggProjection(ExecutionPlan plan) {
+        List<Projection> projections = new ArrayList<>();
+        while (plan instanceof Merge merge) {
+            projections.addAll(merge.mergePhase().projections());
+            plan = merge.subPlan();
+        }
+        assertThat(plan).isExactlyInstanceOf(Collect.class);
+        projections.addAll(((Collect) plan).collectPhase().projections());
+        return projections.stream()
+            .filter(WindowAggProjection.class::isInstance)
+            .map(WindowAggProjection.class::cast)
+            .findFirst()
+            .orElseThrow();
+    }
+
     private WindowDefinition wd(String expression) {
         Symbol symbol = e.asSymbol(expression);
         assertThat(symbol).isExactlyInstanceOf(WindowFunction.class);
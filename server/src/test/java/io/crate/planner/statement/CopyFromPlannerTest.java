@@ -28,6 +28,8 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import java.io.IOException;
 import java.util.List;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Before;
 import org.junit.Test;
@@ -35,6 +37,7 @@ import org.junit.Test;
 import io.crate.analyze.AnalyzedCopyFrom;
 import io.crate.analyze.BoundCopyFrom;
 import io.crate.data.Row;
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
 import io.crate.execution.dsl.projection.SourceIndexWriterProjection;
 import io.crate.expression.symbol.Literal;
@@ -190,4 +193,22 @@ public class CopyFromPlannerTest extends CrateDummyClusterServiceUnitTest {
             .isExactlyInstanceOf(IllegalArgumentException.class)
             .hasMessage("Setting 'dummy' is not supported");
     }
+
+    @Test
+    public void test_lz4_compression_and_parquet_format_are_rejected_with_older_nodes() throws Exception {
+        // Make sure the former initialized cluster service is shutdown
+        cleanup();
+        clusterService = createClusterService(additionalClusterSettings(), Metadata.EMPTY_METADATA, Version.V_5_9_0);
+        setupExecutor();
+
+        assertThatThrownBy(() -> plan("copy users from '/path/to/file.json.lz4' with (compression='lz4')"))
+            .isExactlyInstanceOf(UnsupportedFeatureException.class)
+            .hasMessage("compression = 'lz4' is only supported when all nodes in the cluster running at least version 5.10.0");
+        assertThatThrownBy(() -> plan("copy users from '/path/to/file.parquet' with (format='parquet')"))
+            .isExactlyInstanceOf(UnsupportedFeatureException.class)
+            .hasMessage("format = 'parquet' is only supported when all nodes in the cluster running at least version 5.10.0");
+
+        Collect collect = plan("copy users from '/path/to/file.json.gz' with (compression='gzip')");
+        assertThat(((FileUriCollectPhase) collect.collectPhase()).compression()).isEqualTo("gzip");
+    }
 }
@@ -31,12 +31,15 @@ import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Before;
 import org.junit.Test;
 
 import io.crate.analyze.TableDefinitions;
 import io.crate.data.Row;
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
@@ -193,4 +196,24 @@ public class CopyToPlannerTest extends CrateDummyClusterServiceUnitTest {
             .isExactlyInstanceOf(IllegalArgumentException.class)
             .hasMessage("Setting 'dummy' is not supported");
     }
+
+    @Test
+    public void test_lz4_compression_and_parquet_format_are_rejected_with_older_nodes() throws Exception {
+        // Make sure the former initialized cluster service is shutdown
+        cleanup();
+        clusterService = createClusterService(additionalClusterSettings(), Metadata.EMPTY_METADATA, Version.V_5_9_0);
+        prepare();
+
+        assertThatThrownBy(() -> plan("copy users to directory '/tmp' with (compression='lz4')"))
+            .isExactlyInstanceOf(UnsupportedFeatureException.class)
+            .hasMessage("compression = 'lz4' is only supported when all nodes in the cluster running at least version 5.10.0");
+        assertThatThrownBy(() -> plan("copy users to directory '/tmp' with (format='parquet')"))
+            .isExactlyInstanceOf(UnsupportedFeatureException.class)
+            .hasMessage("format = 'parquet' is only supported when all nodes in the cluster running at least version 5.10.0");
+
+        Merge merge = plan("copy users to directory '/tmp' with (compression='gzip')");
+        Collect collect = (Collect) merge.subPlan();
+        WriterProjection writerProjection = (WriterProjection) collect.collectPhase().projections().getFirst();
+        assertThat(writerProjection.compressionType()).isEqualTo(WriterProjection.CompressionType.GZIP);
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class CopyInStreamTest {
+
+    private final EmbeddedChannel channel = new EmbeddedChannel();
+
+    @After
+    public void closeChannel() throws Exception {
+        channel.close();
+    }
+
+    @Test
+    public void test_reads_data_of_all_copy_data_messages_until_copy_done() throws Exception {
+        CopyInStream stream = new CopyInStream(channel.config());
+        stream.add(Unpooled.copiedBuffer("{\"x\": 1}\n", StandardCharsets.UTF_8));
+        stream.add(Unpooled.copiedBuffer("{\"x\": 2}\n", StandardCharsets.UTF_8));
+        stream.finish();
+
+        String data = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(data).isEqualTo("{\"x\": 1}\n{\"x\": 2}\n");
+        assertThat(stream.read()).isEqualTo(-1);
+        assertThat(stream.failure()).isNull();
+    }
+
+    @Test
+    public void test_reading_from_socket_is_paused_while_too_much_data_is_buffered() throws Exception {
+        CopyInStream stream = new CopyInStream(channel.config());
+        stream.add(Unpooled.wrappedBuffer(new byte[CopyInStream.HIGH_WATERMARK]));
+        assertThat(channel.config().isAutoRead()).isFalse();
+
+        byte[] bytes = new byte[CopyInStream.HIGH_WATERMARK - CopyInStream.LOW_WATERMARK - 1];
+        int read = 0;
+        while (read < bytes.length) {
+            read += stream.read(bytes, read, bytes.length - read);
+        }
+        assertThat(channel.config().isAutoRead()).isFalse();
+        assertThat(stream.read()).isEqualTo(0);
+        assertThat(channel.config().isAutoRead()).isTrue();
+    }
+
+    @Test
+    public void test_copy_fail_raises_failure_on_read_and_releases_buffers() throws Exception {
+        CopyInStream stream = new CopyInStream(channel.config());
+        var buffer = Unpooled.copiedBuffer("1\tfoo\n", StandardCharsets.UTF_8);
+        stream.add(buffer);
+        stream.fail(new IOException("COPY from stdin failed: aborted by user"));
+
+        assertThat(buffer.refCnt()).isEqualTo(0);
+        assertThatThrownBy(stream::read)
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("COPY from stdin failed: aborted by user");
+        assertThat(stream.failure()).hasMessage("COPY from stdin failed: aborted by user");
+    }
+
+    @Test
+    public void test_close_fails_a_read_waiting_for_data() throws Exception {
+        CopyInStream stream = new CopyInStream(channel.config());
+        CompletableFuture<Integer> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream.read();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        assertThat(read).isNotDone();
+
+        stream.close();
+        assertThatThrownBy(() -> read.get(5, TimeUnit.SECONDS))
+            .isExactlyInstanceOf(ExecutionException.class)
+            .hasRootCauseExactlyInstanceOf(IOException.class)
+            .hasRootCauseMessage("COPY FROM STDIN stream is closed");
+    }
+
+    @Test
+    public void test_data_received_after_close_is_released() throws Exception {
+        CopyInStream stream = new CopyInStream(channel.config());
+        stream.add(Unpooled.wrappedBuffer(new byte[CopyInStream.HIGH_WATERMARK]));
+        stream.close();
+        assertThat(channel.config().isAutoRead()).isTrue();
+
+        var buffer = Unpooled.copiedBuffer("1\tfoo\n", StandardCharsets.UTF_8);
+        stream.add(buffer);
+        assertThat(buffer.refCnt()).isEqualTo(0);
+    }
+}
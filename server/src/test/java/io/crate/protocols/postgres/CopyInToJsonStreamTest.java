@@ -0,0 +1,148 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.crate.analyze.copy.StdioFormat;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.SimpleReference;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class CopyInToJsonStreamTest {
+
+    private static final RelationName TABLE = new RelationName("doc", "tbl");
+
+    private final EmbeddedChannel channel = new EmbeddedChannel();
+
+    @After
+    public void closeChannel() throws Exception {
+        channel.close();
+    }
+
+    private static Reference ref(ColumnIdent column, DataType<?> type, int position) {
+        return new SimpleReference(new ReferenceIdent(TABLE, column), RowGranularity.DOC, type, position, null);
+    }
+
+    private static final List<Reference> COLUMNS = List.of(
+        ref(ColumnIdent.of("id"), DataTypes.INTEGER, 1),
+        ref(ColumnIdent.of("o", "name"), DataTypes.STRING, 2)
+    );
+
+    private String convert(StdioFormat format, ByteBuf data) throws IOException {
+        CopyInStream copyInStream = new CopyInStream(channel.config());
+        copyInStream.add(data);
+        copyInStream.finish();
+        try (InputStream in = CopyInToJsonStream.wrap(format, copyInStream, COLUMNS)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void test_text_format_is_converted_to_json_lines() throws Exception {
+        String json = convert(
+            StdioFormat.TEXT,
+            Unpooled.copiedBuffer("1\tfoo\n2\t\\N\r\n3\ttab\\there\\\\ \\x41\\102\n\\.\n4\tignored\n", StandardCharsets.UTF_8)
+        );
+        assertThat(json).isEqualTo(
+            "{\"id\":1,\"o\":{\"name\":\"foo\"}}\n" +
+            "{\"id\":2,\"o\":{\"name\":null}}\n" +
+            "{\"id\":3,\"o\":{\"name\":\"tab\\there\\\\ AB\"}}\n"
+        );
+    }
+
+    @Test
+    public void test_text_format_with_missing_column_fails_the_copy() throws Exception {
+        CopyInStream copyInStream = new CopyInStream(channel.config());
+        copyInStream.add(Unpooled.copiedBuffer("1\n", StandardCharsets.UTF_8));
+        copyInStream.finish();
+        InputStream in = CopyInToJsonStream.wrap(StdioFormat.TEXT, copyInStream, COLUMNS);
+        assertThatThrownBy(in::readAllBytes)
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Missing data for column 2 in line 1");
+        assertThat(copyInStream.failure()).hasMessage("Missing data for column 2 in line 1");
+    }
+
+    @Test
+    public void test_binary_format_is_converted_to_json_lines() throws Exception {
+        ByteBuf data = Unpooled.buffer();
+        data.writeBytes("PGCOPY\n".getBytes(StandardCharsets.US_ASCII));
+        data.writeByte(0xFF);
+        data.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        data.writeByte(0);
+        data.writeInt(0);
+        data.writeInt(0);
+
+        data.writeShort(2);
+        data.writeInt(4);
+        data.writeInt(10);
+        data.writeInt(3);
+        data.writeBytes("bar".getBytes(StandardCharsets.UTF_8));
+
+        data.writeShort(2);
+        data.writeInt(4);
+        data.writeInt(20);
+        data.writeInt(-1);
+
+        data.writeShort(-1);
+
+        assertThat(convert(StdioFormat.BINARY, data)).isEqualTo(
+            "{\"id\":10,\"o\":{\"name\":\"bar\"}}\n" +
+            "{\"id\":20,\"o\":{\"name\":null}}\n"
+        );
+    }
+
+    @Test
+    public void test_binary_format_with_invalid_signature_fails_the_copy() throws Exception {
+        CopyInStream copyInStream = new CopyInStream(channel.config());
+        copyInStream.add(Unpooled.copiedBuffer("1\tfoo\n", StandardCharsets.UTF_8));
+        copyInStream.finish();
+        InputStream in = CopyInToJsonStream.wrap(StdioFormat.BINARY, copyInStream, COLUMNS);
+        assertThatThrownBy(in::readAllBytes)
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("COPY file signature not recognized");
+    }
+
+    @Test
+    public void test_csv_and_json_are_passed_through() throws Exception {
+        CopyInStream copyInStream = new CopyInStream(channel.config());
+        assertThat(CopyInToJsonStream.wrap(StdioFormat.CSV, copyInStream, COLUMNS)).isSameAs(copyInStream);
+        assertThat(CopyInToJsonStream.wrap(StdioFormat.JSON, copyInStream, COLUMNS)).isSameAs(copyInStream);
+    }
+}
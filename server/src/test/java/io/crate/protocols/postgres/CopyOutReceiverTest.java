@@ -0,0 +1,134 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.crate.analyze.copy.StdioFormat;
+import io.crate.auth.AccessControl;
+import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class CopyOutReceiverTest {
+
+    private static final List<PGType<?>> TYPES = List.of(
+        PGTypes.get(DataTypes.INTEGER),
+        PGTypes.get(DataTypes.STRING)
+    );
+
+    private final EmbeddedChannel channel = new EmbeddedChannel();
+
+    @After
+    public void closeChannel() throws Exception {
+        channel.finishAndReleaseAll();
+        channel.close();
+    }
+
+    private static String encode(StdioFormat format, Object... values) {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            RowN row = new RowN(values);
+            switch (format) {
+                case TEXT -> CopyOutReceiver.writeTextRow(buffer, row, TYPES);
+                case CSV -> CopyOutReceiver.writeCsvRow(buffer, row, TYPES);
+                default -> throw new AssertionError("Unexpected format " + format);
+            }
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void test_text_format_escapes_special_characters() {
+        assertThat(encode(StdioFormat.TEXT, 1, "foo")).isEqualTo("1\tfoo\n");
+        assertThat(encode(StdioFormat.TEXT, 2, null)).isEqualTo("2\t\\N\n");
+        assertThat(encode(StdioFormat.TEXT, 3, "a\tb\nc\\d")).isEqualTo("3\ta\\tb\\nc\\\\d\n");
+    }
+
+    @Test
+    public void test_csv_format_quotes_values_if_required() {
+        assertThat(encode(StdioFormat.CSV, 1, "foo")).isEqualTo("1,foo\n");
+        assertThat(encode(StdioFormat.CSV, 2, null)).isEqualTo("2,\n");
+        assertThat(encode(StdioFormat.CSV, 3, "")).isEqualTo("3,\"\"\n");
+        assertThat(encode(StdioFormat.CSV, 4, "a,\"b\"")).isEqualTo("4,\"a,\"\"b\"\"\"\n");
+    }
+
+    @Test
+    public void test_binary_format_sends_header_rows_trailer_and_copy_done() {
+        DelayableWriteChannel delayableWriteChannel = new DelayableWriteChannel(channel);
+        CopyOutReceiver receiver = new CopyOutReceiver(
+            "copy tbl to stdout",
+            delayableWriteChannel,
+            delayableWriteChannel.delayWrites(),
+            AccessControl.DISABLED,
+            StdioFormat.BINARY,
+            TYPES
+        );
+        receiver.setNextRow(new RowN(1, null));
+        receiver.allFinished();
+
+        ByteBuf header = channel.readOutbound();
+        assertThat((char) header.readByte()).isEqualTo('d');
+        assertThat(header.readInt()).isEqualTo(4 + 19);
+        assertThat(header.readCharSequence(6, StandardCharsets.US_ASCII)).isEqualTo("PGCOPY");
+        header.release();
+
+        ByteBuf row = channel.readOutbound();
+        assertThat((char) row.readByte()).isEqualTo('d');
+        assertThat(row.readInt()).isEqualTo(4 + 2 + 8 + 4);
+        assertThat(row.readShort()).isEqualTo((short) 2);
+        assertThat(row.readInt()).isEqualTo(4);
+        assertThat(row.readInt()).isEqualTo(1);
+        assertThat(row.readInt()).isEqualTo(-1);
+        row.release();
+
+        ByteBuf trailer = channel.readOutbound();
+        assertThat((char) trailer.readByte()).isEqualTo('d');
+        assertThat(trailer.readInt()).isEqualTo(6);
+        assertThat(trailer.readShort()).isEqualTo((short) -1);
+        trailer.release();
+
+        ByteBuf copyDone = channel.readOutbound();
+        assertThat((char) copyDone.readByte()).isEqualTo('c');
+        copyDone.release();
+
+        ByteBuf commandComplete = channel.readOutbound();
+        assertThat((char) commandComplete.readByte()).isEqualTo('C');
+        commandComplete.readInt();
+        assertThat(commandComplete.readCharSequence(6, StandardCharsets.UTF_8)).isEqualTo("COPY 1");
+        commandComplete.release();
+
+        assertThat(receiver.completionFuture()).isCompleted();
+    }
+}
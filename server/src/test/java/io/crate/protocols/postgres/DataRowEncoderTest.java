@@ -0,0 +1,89 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import static com.carrotsearch.randomizedtesting.RandomizedTest.$;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class DataRowEncoderTest extends ESTestCase {
+
+    @Test
+    public void test_buffer_is_reset_if_get_value_from_row_fails() {
+        DataRowEncoder encoder = new DataRowEncoder(List.of(PGTypes.get(DataTypes.INTEGER)), null);
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            encoder.encode(buffer, new RowN($(10)));
+            int writerIndex = buffer.writerIndex();
+            Row failingRow = new Row() {
+                @Override
+                public int numColumns() {
+                    return 1;
+                }
+
+                @Override
+                public Object get(int index) {
+                    throw new IllegalArgumentException("Dummy");
+                }
+            };
+            assertThatThrownBy(() -> encoder.encode(buffer, failingRow))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Dummy");
+            assertThat(buffer.writerIndex()).isEqualTo(writerIndex);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void test_null_values_add_to_length() throws Exception {
+        DataRowEncoder encoder = new DataRowEncoder(
+            List.of(PGTypes.get(DataTypes.INTEGER), PGTypes.get(DataTypes.STRING)),
+            null
+        );
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            assertThat(encoder.encode(buffer, new RowN($(10, null)))).isEqualTo(17);
+
+            // message type
+            assertThat((char) buffer.readByte()).isEqualTo('D');
+
+            // size of the message
+            assertThat(buffer.readInt()).isEqualTo(16);
+            assertThat(buffer.readableBytes()).isEqualTo(12); // 16 - INT4 because the size was already read
+        } finally {
+            buffer.release();
+        }
+    }
+}
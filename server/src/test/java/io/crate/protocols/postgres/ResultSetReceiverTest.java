@@ -21,42 +21,88 @@
 
 package io.crate.protocols.postgres;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.junit.After;
 import org.junit.Test;
 import org.mockito.Answers;
 
 import io.crate.auth.AccessControl;
 import io.crate.data.Row1;
-import io.crate.protocols.postgres.DelayableWriteChannel.DelayedWrites;
 import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
 
 public class ResultSetReceiverTest {
 
+    private final EmbeddedChannel channel = new EmbeddedChannel();
+
+    @After
+    public void closeChannel() throws Exception {
+        channel.finishAndReleaseAll();
+        channel.close();
+    }
+
     @Test
-    public void testChannelIsPeriodicallyFlushedToAvoidConsumingTooMuchMemory() {
-        Channel channel = mock(Channel.class, Answers.RETURNS_DEEP_STUBS);
+    public void test_rows_are_written_in_batches_to_avoid_consuming_too_much_memory() {
         DelayableWriteChannel delayableWriteChannel = new DelayableWriteChannel(channel);
-        DelayedWrites delayWrites = delayableWriteChannel.delayWrites();
         ResultSetReceiver resultSetReceiver = new ResultSetReceiver(
             "select * from t",
             delayableWriteChannel,
-            delayWrites,
+            delayableWriteChannel.delayWrites(),
             TransactionState.IDLE,
             AccessControl.DISABLED,
-            Collections.singletonList(PGTypes.get(DataTypes.INTEGER)),
+            List.of(PGTypes.get(DataTypes.INTEGER)),
             null
         );
+        // 'D' | int32 len | int16 numColumns | int32 valueLength | int32 value
+        int rowBytes = 1 + 4 + 2 + 4 + 4;
+        int numRows = ResultSetReceiver.MIN_BATCH_BYTES / rowBytes * 2 + 10;
         Row1 row1 = new Row1(1);
-        for (int i = 0; i < 1500; i++) {
+        for (int i = 0; i < numRows; i++) {
             resultSetReceiver.setNextRow(row1);
         }
-        verify(channel, times(1)).flush();
+        // Two full batches are flushed, the remaining rows are sent once the result is finished
+        assertThat(channel.outboundMessages()).hasSize(2);
+        resultSetReceiver.allFinished();
+
+        List<ByteBuf> messages = new ArrayList<>();
+        ByteBuf msg;
+        while ((msg = channel.readOutbound()) != null) {
+            messages.add(msg);
+        }
+        try {
+            assertThat(messages).hasSize(4);
+            int dataRowBytes = 0;
+            for (ByteBuf message : messages.subList(0, 3)) {
+                dataRowBytes += message.readableBytes();
+                assertThat((char) message.getByte(0)).isEqualTo('D');
+            }
+            assertThat(dataRowBytes).isEqualTo(numRows * rowBytes);
+            assertThat((char) messages.get(3).getByte(0)).isEqualTo('C');
+        } finally {
+            messages.forEach(ByteBuf::release);
+        }
+    }
+
+    @Test
+    public void test_batch_size_follows_socket_send_buffer_size() {
+        Channel channel = mock(Channel.class, Answers.RETURNS_DEEP_STUBS);
+        when(channel.config().getOption(ChannelOption.SO_SNDBUF)).thenReturn(null);
+        assertThat(ResultSetReceiver.batchBytes(channel)).isEqualTo(ResultSetReceiver.MIN_BATCH_BYTES);
+
+        when(channel.config().getOption(ChannelOption.SO_SNDBUF)).thenReturn(128 * 1024);
+        assertThat(ResultSetReceiver.batchBytes(channel)).isEqualTo(128 * 1024);
+
+        when(channel.config().getOption(ChannelOption.SO_SNDBUF)).thenReturn(8 * 1024 * 1024);
+        assertThat(ResultSetReceiver.batchBytes(channel)).isEqualTo(ResultSetReceiver.MAX_BATCH_BYTES);
     }
 }
@@ -22,10 +22,13 @@
 package io.crate.rest.action;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -47,6 +50,13 @@ import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.RelationName;
 import io.crate.types.DataTypes;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 
 public class RestActionReceiversTest extends ESTestCase {
 
@@ -143,4 +153,142 @@ public class RestActionReceiversTest extends ESTestCase {
         assertThat(results[0].rowCount()).isEqualTo(1L);
         assertThat(results[0].error()).isNull();
     }
+
+    private static String streamedContent(EmbeddedChannel channel) {
+        assertThat((Object) channel.readOutbound()).isInstanceOf(HttpResponse.class);
+        StringBuilder content = new StringBuilder();
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            HttpContent httpContent = (HttpContent) msg;
+            content.append(httpContent.content().toString(StandardCharsets.UTF_8));
+            httpContent.release();
+            if (msg instanceof LastHttpContent) {
+                break;
+            }
+        }
+        return content.toString();
+    }
+
+    private RestStreamingResultSetReceiver streamingReceiver(EmbeddedChannel channel,
+                                                             RestStreamingResultSetReceiver.Format format) throws IOException {
+        return new RestStreamingResultSetReceiver(
+            channel,
+            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK),
+            false,
+            format,
+            fields,
+            true,
+            0L,
+            AccessControl.DISABLED,
+            Runnable::run
+        );
+    }
+
+    @Test
+    public void test_streaming_result_set_receiver_json_output_matches_rest_result_set_receiver() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(channel, RestStreamingResultSetReceiver.Format.JSON);
+        for (Row row : rows) {
+            receiver.setNextRow(row);
+        }
+        receiver.allFinished();
+        assertThat(receiver.completionFuture()).isCompletedWithValue(null);
+
+        ResultToXContentBuilder builder = ResultToXContentBuilder.builder(JsonXContent.builder());
+        builder.cols(fields);
+        builder.colTypes(fields);
+        builder.startRows();
+        for (Row row : rows) {
+            builder.addRow(row, 3);
+        }
+        builder.finishRows();
+        builder.rowCount(rows.size());
+        builder.duration(0L);
+
+        assertThat(stripDuration(streamedContent(channel))).isEqualTo(stripDuration(Strings.toString(builder.build())));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void test_streaming_result_set_receiver_writes_one_json_document_per_line_for_ndjson() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(channel, RestStreamingResultSetReceiver.Format.NDJSON);
+        for (Row row : rows) {
+            receiver.setNextRow(row);
+        }
+        receiver.allFinished();
+
+        assertThat(stripDuration(streamedContent(channel))).isEqualTo(
+            "{\"cols\":[\"doc['col_a']\",\"doc['col_b']\",\"doc['col_c']\"],\"col_types\":[4,9,3]}\n" +
+            "[\"foo\",1,true]\n" +
+            "[\"bar\",2,false]\n" +
+            "[\"foobar\",3,null]\n" +
+            "{\"rowcount\":3}\n"
+        );
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void test_streaming_result_set_receiver_adds_error_after_rows_have_been_sent() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(channel, RestStreamingResultSetReceiver.Format.NDJSON);
+        receiver.setNextRow(rows.get(0));
+        receiver.fail(new IllegalArgumentException("invalid input"));
+
+        assertThat(receiver.completionFuture()).isCompletedWithValue(null);
+        assertThat(streamedContent(channel)).endsWith(
+            "[\"foo\",1,true]\n" +
+            "{\"error\":{\"code\":4000,\"message\":\"SQLParseException[invalid input]\"}}\n"
+        );
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void test_streaming_result_set_receiver_pauses_while_the_channel_is_not_writable() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(channel, RestStreamingResultSetReceiver.Format.NDJSON);
+        receiver.setNextRow(rows.get(0));
+        assertThat(receiver.whenReady()).isNull();
+
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        CompletableFuture<?> ready = receiver.whenReady();
+        assertThat(ready).isNotNull();
+        receiver.writabilityChanged();
+        assertThat(ready).isNotDone();
+
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+        receiver.writabilityChanged();
+        assertThat(ready).isCompleted();
+        assertThat(receiver.whenReady()).isNull();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void test_streaming_result_set_receiver_resumes_and_fails_if_the_channel_is_closed() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(channel, RestStreamingResultSetReceiver.Format.NDJSON);
+        receiver.setNextRow(rows.get(0));
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        CompletableFuture<?> ready = receiver.whenReady();
+        assertThat(ready).isNotNull();
+
+        channel.close();
+        receiver.writabilityChanged();
+        assertThat(ready).isCompleted();
+        assertThatThrownBy(() -> receiver.setNextRow(rows.get(1)))
+            .isExactlyInstanceOf(IllegalStateException.class)
+            .hasMessage("Connection closed while streaming the result");
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void test_streaming_result_set_receiver_fails_if_nothing_has_been_sent() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = streamingReceiver(channel, RestStreamingResultSetReceiver.Format.JSON);
+        receiver.fail(new IllegalArgumentException("invalid input"));
+
+        assertThat(receiver.completionFuture()).isCompletedExceptionally();
+        assertThat((Object) channel.readOutbound()).isNull();
+        channel.finishAndReleaseAll();
+    }
 }
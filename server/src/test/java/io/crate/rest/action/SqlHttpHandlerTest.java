@@ -24,6 +24,7 @@ package io.crate.rest.action;
 import static io.crate.role.metadata.RolesHelper.JWT_TOKEN;
 import static io.crate.role.metadata.RolesHelper.JWT_USER;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -31,6 +32,7 @@ import static org.mockito.Mockito.when;
 
 import java.net.InetAddress;
 import java.util.List;
+import java.util.Map;
 
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.settings.Settings;
@@ -47,6 +49,7 @@ import io.crate.role.Role;
 import io.crate.role.metadata.RolesHelper;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
 
 public class SqlHttpHandlerTest {
 
@@ -57,7 +60,8 @@ public class SqlHttpHandlerTest {
             mock(Sessions.class),
             _ -> new NoopCircuitBreaker("dummy"),
             () -> List.of(Role.CRATE_USER),
-            Netty4CorsConfigBuilder.forAnyOrigin().build()
+            Netty4CorsConfigBuilder.forAnyOrigin().build(),
+            Runnable::run
         );
 
         Role user = handler.userFromAuthHeader(null);
@@ -74,7 +78,8 @@ public class SqlHttpHandlerTest {
             mock(Sessions.class),
             _ -> new NoopCircuitBreaker("dummy"),
             () -> List.of(RolesHelper.userOf("trillian")),
-            Netty4CorsConfigBuilder.forAnyOrigin().build()
+            Netty4CorsConfigBuilder.forAnyOrigin().build(),
+            Runnable::run
         );
 
         Role user = handler.userFromAuthHeader(null);
@@ -88,7 +93,8 @@ public class SqlHttpHandlerTest {
             mock(Sessions.class),
             _ -> new NoopCircuitBreaker("dummy"),
             () -> List.of(RolesHelper.userOf("Aladdin")),
-            Netty4CorsConfigBuilder.forAnyOrigin().build()
+            Netty4CorsConfigBuilder.forAnyOrigin().build(),
+            Runnable::run
         );
 
         Role user = handler.userFromAuthHeader("Basic QWxhZGRpbjpPcGVuU2VzYW1l");
@@ -116,7 +122,8 @@ public class SqlHttpHandlerTest {
             mockedSqlOperations,
             _ -> new NoopCircuitBreaker("dummy"),
             () -> List.of(dummyUser),
-            Netty4CorsConfigBuilder.forAnyOrigin().build()
+            Netty4CorsConfigBuilder.forAnyOrigin().build(),
+            Runnable::run
         );
 
         // 1st call to ensureSession creates a session instance bound to 'dummyUser'
@@ -143,11 +150,29 @@ public class SqlHttpHandlerTest {
             mock(Sessions.class),
             _ -> new NoopCircuitBreaker("dummy"),
             () -> List.of(JWT_USER),
-            Netty4CorsConfigBuilder.forAnyOrigin().build()
+            Netty4CorsConfigBuilder.forAnyOrigin().build(),
+            Runnable::run
         );
 
         Role resolvedUser = handler.userFromAuthHeader("bearer " + JWT_TOKEN);
         assertThat(resolvedUser.name()).isEqualTo(JWT_USER.name());
     }
-}
 
+    @Test
+    public void test_streaming_format_is_resolved_from_url_parameters() {
+        assertThat(SqlHttpHandler.streamingFormat(Map.of(), HttpVersion.HTTP_1_1)).isNull();
+        assertThat(SqlHttpHandler.streamingFormat(Map.of("stream", List.of("")), HttpVersion.HTTP_1_1))
+            .isEqualTo(RestStreamingResultSetReceiver.Format.JSON);
+        assertThat(SqlHttpHandler.streamingFormat(Map.of("stream", List.of("false")), HttpVersion.HTTP_1_1))
+            .isNull();
+        assertThat(SqlHttpHandler.streamingFormat(Map.of("format", List.of("ndjson")), HttpVersion.HTTP_1_1))
+            .isEqualTo(RestStreamingResultSetReceiver.Format.NDJSON);
+
+        assertThatThrownBy(() -> SqlHttpHandler.streamingFormat(Map.of("format", List.of("csv")), HttpVersion.HTTP_1_1))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid format 'csv', supported formats are: [json, ndjson]");
+        assertThatThrownBy(() -> SqlHttpHandler.streamingFormat(Map.of("stream", List.of("true")), HttpVersion.HTTP_1_0))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Streaming a result requires HTTP/1.1");
+    }
+}
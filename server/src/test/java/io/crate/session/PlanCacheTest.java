@@ -0,0 +1,233 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.ParamTypeHints;
+import io.crate.auth.Protocol;
+import io.crate.exceptions.MissingPrivilegeException;
+import io.crate.exceptions.RelationUnknown;
+import io.crate.metadata.cluster.DDLClusterStateService;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.planner.Plan;
+import io.crate.protocols.postgres.ConnectionProperties;
+import io.crate.role.Permission;
+import io.crate.role.Role;
+import io.crate.role.RoleManagerService;
+import io.crate.role.Roles;
+import io.crate.role.Securable;
+import io.crate.role.metadata.RolesHelper;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class PlanCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private static final String STMT = "select name from users where id = ?";
+    private static final DataType<?>[] PARAM_TYPES = new DataType<?>[] { DataTypes.INTEGER };
+
+    private SQLExecutor e;
+    private PlanCache planCache;
+
+    @Before
+    public void setUpExecutorAndCache() throws Exception {
+        e = SQLExecutor.builder(clusterService).build()
+            .addTable("create table users (id int primary key, name text)");
+        planCache = new PlanCache(10, e.planner::tableStatsVersion);
+    }
+
+    private PlanCache.Key key(String stmt) {
+        return planCache.key(stmt, List.of(PARAM_TYPES), e.getSessionSettings());
+    }
+
+    private Plan plan(PlanCache.Key key, AnalyzedStatement analyzedStatement) {
+        return planCache.plan(key, analyzedStatement, PARAM_TYPES, e.planner, e.getPlannerContext());
+    }
+
+    @Test
+    public void test_plan_is_reused_for_the_same_analyzed_statement() throws Exception {
+        PlanCache.Key key = key(STMT);
+        AnalyzedStatement analyzedStatement = e.analyze(STMT, new ParamTypeHints(List.of(PARAM_TYPES)));
+        Plan plan = plan(key, analyzedStatement);
+
+        PlanCache.Entry entry = planCache.get(key(STMT), clusterService.state());
+        assertThat(entry).isNotNull();
+        assertThat(entry.analyzedStatement()).isSameAs(analyzedStatement);
+        assertThat(plan(key(STMT), analyzedStatement)).isSameAs(plan);
+        assertThat(planCache.stats()).isEqualTo(new PlanCacheStats(1, 1));
+
+        // A statement analyzed separately must not use the plan of a different analysis
+        AnalyzedStatement otherAnalysis = e.analyze(STMT, new ParamTypeHints(List.of(PARAM_TYPES)));
+        assertThat(plan(key(STMT), otherAnalysis)).isNotSameAs(plan);
+        assertThat(planCache.stats()).isEqualTo(new PlanCacheStats(1, 2));
+    }
+
+    @Test
+    public void test_entry_is_invalidated_on_metadata_change() throws Exception {
+        PlanCache.Key key = key(STMT);
+        plan(key, e.analyze(STMT, new ParamTypeHints(List.of(PARAM_TYPES))));
+
+        ClusterState state = clusterService.state();
+        ClusterState newState = ClusterState.builder(state)
+            .metadata(Metadata.builder(state.metadata()).version(state.metadata().version() + 1))
+            .build();
+        assertThat(planCache.get(key, newState)).isNull();
+        assertThat(planCache.get(key, state)).isNull();
+    }
+
+    @Test
+    public void test_entry_is_invalidated_on_table_stats_change() throws Exception {
+        PlanCache.Key key = key(STMT);
+        plan(key, e.analyze(STMT, new ParamTypeHints(List.of(PARAM_TYPES))));
+        assertThat(planCache.get(key, clusterService.state())).isNotNull();
+
+        e.updateTableStats(Map.of());
+        assertThat(planCache.get(key, clusterService.state())).isNull();
+    }
+
+    @Test
+    public void test_key_includes_parameter_types_user_and_session_settings() throws Exception {
+        CoordinatorSessionSettings settings = e.getSessionSettings();
+        PlanCache.Key key = planCache.key(STMT, List.of(DataTypes.INTEGER), settings);
+        assertThat(planCache.key(STMT, List.of(DataTypes.INTEGER), settings)).isEqualTo(key);
+        assertThat(planCache.key(STMT, List.of(DataTypes.LONG), settings)).isNotEqualTo(key);
+
+        CoordinatorSessionSettings otherSearchPath = new CoordinatorSessionSettings(Role.CRATE_USER, "custom");
+        assertThat(planCache.key(STMT, List.of(DataTypes.INTEGER), otherSearchPath)).isNotEqualTo(key);
+
+        CoordinatorSessionSettings hashJoinDisabled = new CoordinatorSessionSettings(Role.CRATE_USER, "doc");
+        hashJoinDisabled.setHashJoinEnabled(false);
+        assertThat(planCache.key(STMT, List.of(DataTypes.INTEGER), hashJoinDisabled)).isNotEqualTo(
+            planCache.key(STMT, List.of(DataTypes.INTEGER), new CoordinatorSessionSettings(Role.CRATE_USER, "doc")));
+    }
+
+    @Test
+    public void test_key_includes_authenticated_user() throws Exception {
+        Role arthur = RolesHelper.userOf("arthur");
+        CoordinatorSessionSettings crateAsCrate = new CoordinatorSessionSettings(Role.CRATE_USER, Role.CRATE_USER, "doc");
+        CoordinatorSessionSettings crateAsArthur = new CoordinatorSessionSettings(Role.CRATE_USER, arthur, "doc");
+        CoordinatorSessionSettings arthurAsArthur = new CoordinatorSessionSettings(arthur, arthur, "doc");
+        PlanCache.Key key = planCache.key(STMT, List.of(DataTypes.INTEGER), crateAsArthur);
+        assertThat(planCache.key(STMT, List.of(DataTypes.INTEGER), crateAsCrate)).isNotEqualTo(key);
+        assertThat(planCache.key(STMT, List.of(DataTypes.INTEGER), arthurAsArthur)).isNotEqualTo(key);
+    }
+
+    @Test
+    public void test_parse_uses_cache_but_statements_of_simple_query_do_not() throws Exception {
+        PlanCache sessionsPlanCache = e.sqlOperations.planCache();
+        String query = "select name from users where id = 1; select name from users where id = 2";
+        List<Statement> statements = SqlParser.createStatementsForSimpleQuery(query, String::valueOf);
+        try (Session session = e.createSession()) {
+            // Cache the analysis of the first statement under the text of the whole simple query
+            session.analyze("", statements.get(0), List.of(), query);
+            session.bind("", "", List.of(), null);
+            AnalyzedStatement first = session.getAnalyzedStatement("");
+            PlanCache.Key key = sessionsPlanCache.key(query, List.of(), session.sessionSettings());
+            sessionsPlanCache.plan(key, first, new DataType<?>[0], e.planner, e.getPlannerContext());
+            assertThat(sessionsPlanCache.get(key, clusterService.state())).isNotNull();
+
+            session.analyze("", statements.get(1), List.of(), query);
+            session.bind("", "", List.of(), null);
+            assertThat(session.getAnalyzedStatement("")).isNotSameAs(first);
+        }
+
+        try (Session session = e.createSession()) {
+            session.parse("s1", STMT, List.of(PARAM_TYPES));
+            session.bind("p1", "s1", List.of(1), null);
+            AnalyzedStatement analyzedStatement = session.getAnalyzedStatement("p1");
+            PlanCache.Key key = sessionsPlanCache.key(STMT, List.of(PARAM_TYPES), session.sessionSettings());
+            sessionsPlanCache.plan(key, analyzedStatement, PARAM_TYPES, e.planner, e.getPlannerContext());
+
+            session.parse("s2", STMT, List.of(PARAM_TYPES));
+            session.bind("p2", "s2", List.of(2), null);
+            assertThat(session.getAnalyzedStatement("p2")).isSameAs(analyzedStatement);
+        }
+    }
+
+    @Test
+    public void test_privileges_are_checked_when_using_a_cached_statement() throws Exception {
+        Role arthur = RolesHelper.userOf("arthur");
+        AtomicBoolean mayRead = new AtomicBoolean(true);
+        Roles roles = new Roles() {
+            @Override
+            public Collection<Role> roles() {
+                return List.of(Role.CRATE_USER, arthur);
+            }
+
+            @Override
+            public boolean hasPrivilege(Role user, Permission type, Securable securable, @Nullable String ident) {
+                return mayRead.get();
+            }
+        };
+        e = SQLExecutor.builder(clusterService)
+            .setRoleManager(new RoleManagerService(null, roles, new DDLClusterStateService()))
+            .build()
+            .addTable("create table users (id int primary key, name text)");
+        PlanCache sessionsPlanCache = e.sqlOperations.planCache();
+        ConnectionProperties connectionProperties = new ConnectionProperties(null, null, Protocol.POSTGRES, null);
+        try (Session session = e.sqlOperations.newSession(connectionProperties, "doc", arthur)) {
+            session.parse("s1", STMT, List.of(PARAM_TYPES));
+            session.bind("p1", "s1", List.of(1), null);
+            PlanCache.Key key = sessionsPlanCache.key(STMT, List.of(PARAM_TYPES), session.sessionSettings());
+            sessionsPlanCache.plan(key, session.getAnalyzedStatement("p1"), PARAM_TYPES, e.planner, e.getPlannerContext());
+            assertThat(sessionsPlanCache.get(key, clusterService.state())).isNotNull();
+
+            mayRead.set(false);
+            assertThatThrownBy(() -> session.parse("s2", STMT, List.of(PARAM_TYPES)))
+                .isInstanceOfAny(MissingPrivilegeException.class, RelationUnknown.class);
+        }
+    }
+
+    @Test
+    public void test_only_deterministic_selects_and_inserts_are_cacheable() throws Exception {
+        assertThat(PlanCache.isCacheable(e.analyze("select name from users where id = 1"))).isTrue();
+        assertThat(PlanCache.isCacheable(e.analyze("insert into users (id, name) values (1, 'Arthur')"))).isTrue();
+        assertThat(PlanCache.isCacheable(e.analyze("select name from users where id > random()"))).isFalse();
+        assertThat(PlanCache.isCacheable(e.analyze("select now() from users"))).isFalse();
+        assertThat(PlanCache.isCacheable(e.analyze("select name from users where id = (select 1)"))).isFalse();
+        assertThat(PlanCache.isCacheable(e.analyze("update users set name = 'Trillian'"))).isFalse();
+    }
+
+    @Test
+    public void test_cache_with_size_0_is_disabled() throws Exception {
+        PlanCache disabled = new PlanCache(0, () -> 0L);
+        assertThat(disabled.key(STMT, List.of(), e.getSessionSettings())).isNull();
+    }
+}
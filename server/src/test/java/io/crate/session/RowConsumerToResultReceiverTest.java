@@ -25,6 +25,7 @@ import static io.crate.testing.Asserts.assertThat;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
@@ -69,6 +70,51 @@ public class RowConsumerToResultReceiverTest {
         }
     }
 
+    @Test
+    public void test_consumption_is_paused_until_the_result_receiver_is_ready() throws Exception {
+        List<Object[]> collectedRows = new ArrayList<>();
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public void setNextRow(Row row) {
+                collectedRows.add(row.materialize());
+            }
+
+            @Override
+            public CompletableFuture<?> whenReady() {
+                return collectedRows.size() == 3 && !ready.isDone() ? ready : null;
+            }
+        };
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, t -> {});
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        assertThat(collectedRows).hasSize(3);
+        assertThat(resultReceiver.completionFuture()).isNotDone();
+
+        ready.complete(null);
+        assertThat(collectedRows).hasSize(10);
+        assertThat(resultReceiver.completionFuture()).isCompleted();
+    }
+
+    @Test
+    public void test_failure_while_paused_closes_the_iterator_and_fails_the_result_receiver() throws Exception {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public CompletableFuture<?> whenReady() {
+                return ready;
+            }
+        };
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, t -> {});
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        assertThat(resultReceiver.completionFuture()).isNotDone();
+
+        ready.completeExceptionally(new IllegalStateException("Connection closed"));
+        assertThat(resultReceiver.completionFuture()).isCompletedExceptionally();
+        assertThat(consumer.completionFuture()).isCompletedExceptionally();
+    }
+
     @Test
     public void testExceptionOnAllLoadedCallIsForwardedToResultReceiver() throws Exception {
         BaseResultReceiver resultReceiver = new BaseResultReceiver();
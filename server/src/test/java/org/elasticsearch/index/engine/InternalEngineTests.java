@@ -3482,6 +3482,44 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    @Test
+    public void testIndexBatchOfAppendOnlyOperations() throws IOException {
+        List<Engine.Index> operations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ParsedDocument doc = testParsedDocument(Integer.toString(i), testDocumentWithTextField(), SOURCE);
+            operations.add(appendOnlyPrimary(doc, false, i));
+        }
+        List<Engine.IndexResult> results = engine.index(operations);
+        assertThat(results).hasSize(10);
+        assertLuceneOperations(engine, 10, 0, 0);
+        assertThatIfAssertionEnabled(engine.getNumVersionLookups(), n -> assertThat(n).isEqualTo(0L));
+        for (int i = 0; i < results.size(); i++) {
+            Engine.IndexResult result = results.get(i);
+            assertThat(result.getResultType()).isEqualTo(Engine.Result.Type.SUCCESS);
+            assertThat(result.getSeqNo()).isEqualTo(i);
+            assertThat(result.getVersion()).isEqualTo(1L);
+            assertThat(result.isCreated()).isTrue();
+            assertThat(result.getTranslogLocation()).isNotNull();
+        }
+        assertThat(engine.getProcessedLocalCheckpoint()).isEqualTo(9L);
+
+        // a retry within a batch requires a version lookup and is indexed individually
+        ParsedDocument doc = testParsedDocument("10", testDocumentWithTextField(), SOURCE);
+        List<Engine.IndexResult> retryResults = engine.index(List.of(
+            appendOnlyPrimary(testParsedDocument("0", testDocumentWithTextField(), SOURCE), true, 0, false),
+            appendOnlyPrimary(doc, false, 10)
+        ));
+        assertThat(retryResults.get(0).getResultType()).isEqualTo(Engine.Result.Type.SUCCESS);
+        assertThat(retryResults.get(0).isCreated()).isFalse();
+        assertThat(retryResults.get(1).getResultType()).isEqualTo(Engine.Result.Type.SUCCESS);
+        assertLuceneOperations(engine, 10, 1, 0);
+        engine.refresh("test");
+        try (Engine.Searcher searcher = engine.acquireSearcher("test")) {
+            TopDocs topDocs = searcher.search(new MatchAllDocsQuery(), 20);
+            assertThat(topDocs.totalHits.value).isEqualTo(11);
+        }
+    }
+
     @Test
     public void testDoubleDeliveryPrimary() throws IOException {
         final ParsedDocument doc = testParsedDocument("1", testDocumentWithTextField(),
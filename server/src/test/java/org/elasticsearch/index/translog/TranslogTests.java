@@ -524,6 +524,26 @@ public class TranslogTests extends ESTestCase {
         assertThat(translog.readOperation(new Location(100, 0, 0))).isNull();
     }
 
+    @Test
+    public void testReadLocationOfOperationsAddedAsBatch() throws IOException {
+        Translog.Location single = translog.add(new Translog.Index("1", 0, primaryTerm.get(), new byte[]{1}));
+        List<Translog.Index> ops = List.of(
+            new Translog.Index("2", 1, primaryTerm.get(), new byte[]{1}),
+            new Translog.Index("3", 2, primaryTerm.get(), new byte[]{1, 2}),
+            new Translog.Index("4", 3, primaryTerm.get(), new byte[]{1, 2, 3})
+        );
+        Translog.Location[] locations = translog.add(ops);
+        assertThat(locations).hasSize(3);
+        assertThat(locations[0].translogLocation).isEqualTo(single.translogLocation + single.size);
+        for (int i = 0; i < ops.size(); i++) {
+            assertThat(translog.readOperation(locations[i])).isEqualTo(ops.get(i));
+        }
+        assertThat(translog.getLastWriteLocation().compareTo(locations[2])).isGreaterThan(0);
+        try (Translog.Snapshot snapshot = translog.newSnapshot()) {
+            assertThat(snapshot.totalOperations()).isEqualTo(4);
+        }
+    }
+
     @Test
     public void testSnapshotWithNewTranslog() throws IOException {
         List<Closeable> toClose = new ArrayList<>();
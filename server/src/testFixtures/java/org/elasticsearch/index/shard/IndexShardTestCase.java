@@ -526,6 +526,7 @@ public abstract class IndexShardTestCase extends ESTestCase {
                 queryCache,
                 testAnalysis.indexAnalyzers.getDefaultIndexAnalyzer(),
                 () -> new TranslogIndexer(getDocTable(indexSettings::getIndexMetadata)),
+                () -> null,
                 engineFactoryProviders,
                 indexEventListener,
                 threadPool,